@@ -0,0 +1,227 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.prestosql.array;
+
+import io.airlift.slice.SizeOf;
+import io.airlift.slice.Slice;
+import io.airlift.slice.Slices;
+import org.openjdk.jol.info.ClassLayout;
+import sun.misc.Unsafe;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.function.Consumer;
+
+/**
+ * Array of fixed width slots stored outside of the Java heap.
+ * <p>
+ * The slots are allocated in segments of direct memory, so a large array does not
+ * put any pressure on the garbage collector. A new array is zero filled. The memory is
+ * released by {@link #close()}, or when the array is no longer reachable if it is never closed
+ * or if the running JVM does not allow releasing direct buffers explicitly, so callers must
+ * account for {@link #getOffHeapSizeInBytes()} until then.
+ */
+public final class OffHeapSlotArray
+        implements AutoCloseable
+{
+    private static final int INSTANCE_SIZE = ClassLayout.parseClass(OffHeapSlotArray.class).instanceSize();
+    private static final Unsafe unsafe;
+
+    static {
+        try {
+            // fetch theUnsafe object
+            Field field = Unsafe.class.getDeclaredField("theUnsafe");
+            field.setAccessible(true);
+            unsafe = (Unsafe) field.get(null);
+            if (unsafe == null) {
+                throw new RuntimeException("Unsafe access not available");
+            }
+        }
+        catch (Exception e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    private static final Consumer<ByteBuffer> BUFFER_RELEASER = createBufferReleaser();
+
+    private static final int SEGMENT_SHIFT = 14;
+    private static final int SEGMENT_SIZE = 1 << SEGMENT_SHIFT;
+    private static final int SEGMENT_MASK = SEGMENT_SIZE - 1;
+
+    private final int slotSize;
+
+    // the buffers backing the segments, kept to release their memory on close
+    private ByteBuffer[] buffers;
+    private Slice[] segments;
+    private int segmentCount;
+    private long capacity;
+
+    /**
+     * Creates a new array of slots of the specified size in bytes, containing one initial segment
+     */
+    public OffHeapSlotArray(int slotSize)
+    {
+        if (slotSize <= 0) {
+            throw new IllegalArgumentException("slotSize must be greater than zero");
+        }
+        this.slotSize = slotSize;
+        buffers = new ByteBuffer[1];
+        segments = new Slice[1];
+        allocateNewSegment();
+    }
+
+    /**
+     * Returns the on-heap size of this array in bytes.
+     */
+    public long sizeOf()
+    {
+        return INSTANCE_SIZE + SizeOf.sizeOf(buffers) + SizeOf.sizeOf(segments);
+    }
+
+    /**
+     * Returns the size of the direct memory held by this array in bytes.
+     */
+    public long getOffHeapSizeInBytes()
+    {
+        return segmentCount * (long) SEGMENT_SIZE * slotSize;
+    }
+
+    public long getCapacity()
+    {
+        return capacity;
+    }
+
+    public long getLong(long slot, int offset)
+    {
+        return segments[segment(slot)].getLong(slotOffset(slot) + offset);
+    }
+
+    public void setLong(long slot, int offset, long value)
+    {
+        segments[segment(slot)].setLong(slotOffset(slot) + offset, value);
+    }
+
+    public int getInt(long slot, int offset)
+    {
+        return segments[segment(slot)].getInt(slotOffset(slot) + offset);
+    }
+
+    public void setInt(long slot, int offset, int value)
+    {
+        segments[segment(slot)].setInt(slotOffset(slot) + offset, value);
+    }
+
+    /**
+     * Ensures this array has at least the specified number of slots. If the array is smaller,
+     * segments are added until the array is larger than the specified length.
+     */
+    public void ensureCapacity(long length)
+    {
+        if (capacity > length) {
+            return;
+        }
+
+        int requiredSegments = segment(length) + 1;
+        if (segments.length < requiredSegments) {
+            buffers = Arrays.copyOf(buffers, requiredSegments);
+            segments = Arrays.copyOf(segments, requiredSegments);
+        }
+        while (segmentCount < requiredSegments) {
+            allocateNewSegment();
+        }
+    }
+
+    /**
+     * Releases the direct memory of this array. The memory is freed right away, so the caller must make sure
+     * that no other thread can still access the array. Memory of an array that is never closed is freed once
+     * the array is garbage collected.
+     */
+    @Override
+    public void close()
+    {
+        if (segments == null) {
+            return;
+        }
+        for (int i = 0; i < segmentCount; i++) {
+            BUFFER_RELEASER.accept(buffers[i]);
+        }
+        // any later access fails instead of reading released memory
+        buffers = null;
+        segments = null;
+        segmentCount = 0;
+        capacity = 0;
+    }
+
+    private void allocateNewSegment()
+    {
+        ByteBuffer buffer = ByteBuffer.allocateDirect(SEGMENT_SIZE * slotSize);
+        buffers[segmentCount] = buffer;
+        segments[segmentCount] = Slices.wrappedBuffer(buffer);
+        capacity += SEGMENT_SIZE;
+        segmentCount++;
+    }
+
+    /**
+     * Returns a function that frees the memory of a direct buffer immediately. Java 9 and later
+     * expose {@code Unsafe.invokeCleaner}, while Java 8 only has the {@code cleaner()} of the
+     * internal {@code DirectBuffer}. If neither is accessible, the memory is freed by the garbage
+     * collector once the buffer is unreachable.
+     */
+    private static Consumer<ByteBuffer> createBufferReleaser()
+    {
+        try {
+            Method invokeCleaner = Unsafe.class.getMethod("invokeCleaner", ByteBuffer.class);
+            return buffer -> invoke(invokeCleaner, unsafe, buffer);
+        }
+        catch (NoSuchMethodException ignored) {
+        }
+
+        try {
+            Method cleaner = Class.forName("sun.nio.ch.DirectBuffer").getMethod("cleaner");
+            Method clean = Class.forName("sun.misc.Cleaner").getMethod("clean");
+            return buffer -> {
+                Object bufferCleaner = invoke(cleaner, buffer);
+                if (bufferCleaner != null) {
+                    invoke(clean, bufferCleaner);
+                }
+            };
+        }
+        catch (ReflectiveOperationException | RuntimeException ignored) {
+        }
+
+        return buffer -> {};
+    }
+
+    private static Object invoke(Method method, Object target, Object... arguments)
+    {
+        try {
+            return method.invoke(target, arguments);
+        }
+        catch (ReflectiveOperationException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    private int slotOffset(long slot)
+    {
+        return (int) (slot & SEGMENT_MASK) * slotSize;
+    }
+
+    private static int segment(long slot)
+    {
+        return (int) (slot >>> SEGMENT_SHIFT);
+    }
+}
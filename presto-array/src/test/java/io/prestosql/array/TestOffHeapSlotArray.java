@@ -0,0 +1,77 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.prestosql.array;
+
+import org.testng.annotations.Test;
+
+import java.lang.management.BufferPoolMXBean;
+import java.lang.management.ManagementFactory;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertThrows;
+import static org.testng.Assert.assertTrue;
+
+public class TestOffHeapSlotArray
+{
+    private static final int SLOT_SIZE = 12;
+
+    @Test
+    public void testSetAndGet()
+    {
+        OffHeapSlotArray array = new OffHeapSlotArray(SLOT_SIZE);
+        array.ensureCapacity(100_000);
+        assertTrue(array.getCapacity() > 100_000);
+
+        for (int slot = 0; slot < 100_000; slot++) {
+            // a new array is zero filled
+            assertEquals(array.getLong(slot, 0), 0);
+            assertEquals(array.getInt(slot, 8), 0);
+            array.setLong(slot, 0, slot * 31L);
+            array.setInt(slot, 8, slot);
+        }
+        for (int slot = 0; slot < 100_000; slot++) {
+            assertEquals(array.getLong(slot, 0), slot * 31L);
+            assertEquals(array.getInt(slot, 8), slot);
+        }
+        array.close();
+    }
+
+    @Test
+    public void testCloseReleasesDirectMemory()
+    {
+        OffHeapSlotArray array = new OffHeapSlotArray(SLOT_SIZE);
+        array.ensureCapacity(8_000_000);
+        long offHeapSize = array.getOffHeapSizeInBytes();
+        assertTrue(offHeapSize >= 8_000_000L * SLOT_SIZE);
+
+        long directMemoryBeforeClose = getDirectMemoryUsed();
+        array.close();
+        // the memory is released without waiting for the garbage collector
+        assertTrue(directMemoryBeforeClose - getDirectMemoryUsed() >= offHeapSize);
+        assertEquals(array.getOffHeapSizeInBytes(), 0);
+        assertEquals(array.getCapacity(), 0);
+        assertThrows(NullPointerException.class, () -> array.getLong(0, 0));
+
+        // closing again is a no-op
+        array.close();
+    }
+
+    private static long getDirectMemoryUsed()
+    {
+        return ManagementFactory.getPlatformMXBeans(BufferPoolMXBean.class).stream()
+                .filter(pool -> pool.getName().equals("direct"))
+                .mapToLong(BufferPoolMXBean::getMemoryUsed)
+                .sum();
+    }
+}
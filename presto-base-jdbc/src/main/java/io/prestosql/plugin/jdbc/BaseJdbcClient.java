@@ -23,14 +23,18 @@ import com.google.common.collect.ImmutableSortedSet;
 import io.airlift.log.Logger;
 import io.airlift.units.Duration;
 import io.prestosql.spi.PrestoException;
+import io.prestosql.spi.connector.AggregateFunction;
 import io.prestosql.spi.connector.ColumnHandle;
 import io.prestosql.spi.connector.ColumnMetadata;
 import io.prestosql.spi.connector.ConnectorSession;
 import io.prestosql.spi.connector.ConnectorSplitSource;
 import io.prestosql.spi.connector.ConnectorTableMetadata;
 import io.prestosql.spi.connector.FixedSplitSource;
+import io.prestosql.spi.connector.JoinCondition;
+import io.prestosql.spi.connector.JoinType;
 import io.prestosql.spi.connector.SchemaTableName;
 import io.prestosql.spi.connector.TableNotFoundException;
+import io.prestosql.spi.expression.Variable;
 import io.prestosql.spi.predicate.TupleDomain;
 import io.prestosql.spi.statistics.TableStatistics;
 import io.prestosql.spi.type.CharType;
@@ -44,6 +48,7 @@ import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.sql.Statement;
+import java.sql.Types;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.List;
@@ -54,6 +59,7 @@ import java.util.Set;
 import java.util.UUID;
 import java.util.function.BiFunction;
 import java.util.function.Function;
+import java.util.stream.Stream;
 
 import static com.google.common.base.MoreObjects.firstNonNull;
 import static com.google.common.base.Preconditions.checkArgument;
@@ -111,6 +117,8 @@ public class BaseJdbcClient
 {
     private static final Logger log = Logger.get(BaseJdbcClient.class);
 
+    private static final JdbcTypeHandle BIGINT_TYPE_HANDLE = new JdbcTypeHandle(Types.BIGINT, Optional.of("bigint"), 0, 0, Optional.empty());
+
     private static final Map<Type, WriteMapping> WRITE_MAPPINGS = ImmutableMap.<Type, WriteMapping>builder()
             .put(BOOLEAN, WriteMapping.booleanMapping("boolean", booleanWriteFunction()))
             .put(BIGINT, WriteMapping.longMapping("bigint", bigintWriteFunction()))
@@ -367,13 +375,10 @@ public class BaseJdbcClient
                 this,
                 session,
                 connection,
-                table.getCatalogName(),
-                table.getSchemaName(),
-                table.getTableName(),
+                table,
                 columns,
-                table.getConstraint(),
                 split.getAdditionalPredicate(),
-                tryApplyLimit(table.getLimit()));
+                tryApplyTopN(table));
     }
 
     @Override
@@ -890,6 +895,158 @@ public class BaseJdbcClient
         throw new PrestoException(JDBC_ERROR, "limitFunction() is implemented without isLimitGuaranteed()");
     }
 
+    private Function<String, String> tryApplyTopN(JdbcTableHandle table)
+    {
+        if (!table.getSortOrder().isPresent()) {
+            return tryApplyLimit(table.getLimit());
+        }
+        TopNFunction topNFunction = topNFunction()
+                .orElseThrow(() -> new PrestoException(JDBC_ERROR, "TopN pushed down without topNFunction()"));
+        List<JdbcSortItem> sortOrder = table.getSortOrder().get();
+        long limit = table.getLimit().getAsLong();
+        return sql -> topNFunction.apply(sql, sortOrder, limit);
+    }
+
+    @Override
+    public boolean supportsTopN(ConnectorSession session, JdbcTableHandle handle, List<JdbcSortItem> sortOrder)
+    {
+        if (!topNFunction().isPresent()) {
+            return false;
+        }
+        for (JdbcSortItem sortItem : sortOrder) {
+            Type sortItemType = sortItem.getColumn().getColumnType();
+            if (sortItemType instanceof CharType || sortItemType instanceof VarcharType) {
+                // the remote collation may order text differently than Presto
+                return false;
+            }
+        }
+        return true;
+    }
+
+    protected Optional<TopNFunction> topNFunction()
+    {
+        return Optional.empty();
+    }
+
+    @Override
+    public boolean isTopNLimitGuaranteed(ConnectorSession session)
+    {
+        throw new PrestoException(JDBC_ERROR, "topNFunction() is implemented without isTopNLimitGuaranteed()");
+    }
+
+    @Override
+    public boolean supportsJoin(ConnectorSession session, JoinType joinType, List<JdbcJoinCondition> joinConditions)
+    {
+        return joinConditions.stream().allMatch(this::isSupportedJoinCondition);
+    }
+
+    protected boolean isSupportedJoinCondition(JdbcJoinCondition condition)
+    {
+        if (condition.getOperator() == JoinCondition.Operator.IS_DISTINCT_FROM) {
+            // not supported by all databases
+            return false;
+        }
+        // String comparisons depend on the collation of the remote database
+        return Stream.of(condition.getLeftColumn(), condition.getRightColumn())
+                .map(JdbcColumnHandle::getColumnType)
+                .noneMatch(type -> type instanceof CharType || type instanceof VarcharType);
+    }
+
+    /**
+     * Returns the SQL expression to sort the rows of the table by, for use in {@link #topNFunction()}.
+     */
+    protected String getSortExpression(JdbcColumnHandle column)
+    {
+        return column.getExpression().orElseGet(() -> quoted(column.getColumnName()));
+    }
+
+    @Override
+    public boolean supportsAggregationPushdown(ConnectorSession session, JdbcTableHandle table, List<List<JdbcColumnHandle>> groupingSets)
+    {
+        return groupingSets.stream()
+                .flatMap(List::stream)
+                .allMatch(this::isSupportedGroupingColumn);
+    }
+
+    /**
+     * Returns whether the remote database groups the values of the column the same way as Presto.
+     * Text columns are not supported by default, as many databases compare text with case insensitive
+     * collations or ignore trailing spaces, and then merge groups that are distinct in Presto.
+     * Clients of databases that compare text exactly can override this to opt in.
+     */
+    protected boolean isSupportedGroupingColumn(JdbcColumnHandle column)
+    {
+        Type type = column.getColumnType();
+        return !(type instanceof CharType) && !(type instanceof VarcharType);
+    }
+
+    @Override
+    public Optional<JdbcExpression> implementAggregation(ConnectorSession session, AggregateFunction aggregate, Map<String, ColumnHandle> assignments)
+    {
+        String functionName = aggregate.getFunctionName();
+        if (aggregate.getInputs().isEmpty()) {
+            if (functionName.equals("count") && !aggregate.isDistinct()) {
+                return Optional.of(new JdbcExpression(format("%s(*)", getCountFunctionName()), BIGINT_TYPE_HANDLE));
+            }
+            return Optional.empty();
+        }
+
+        if (aggregate.getInputs().size() != 1 || !(aggregate.getInputs().get(0) instanceof Variable)) {
+            return Optional.empty();
+        }
+        JdbcColumnHandle column = (JdbcColumnHandle) assignments.get(((Variable) aggregate.getInputs().get(0)).getName());
+        if (column == null || column.isSynthetic()) {
+            return Optional.empty();
+        }
+
+        // String comparisons depend on the collation of the remote database, so only exact types are ordered or deduplicated remotely
+        Type type = column.getColumnType();
+        boolean exactType = isExactNumericType(type) || type == DATE;
+        if (aggregate.isDistinct() && !exactType) {
+            return Optional.empty();
+        }
+        String argument = (aggregate.isDistinct() ? "DISTINCT " : "") + quoted(column.getColumnName());
+
+        switch (functionName) {
+            case "count":
+                return Optional.of(new JdbcExpression(format("%s(%s)", getCountFunctionName(), argument), BIGINT_TYPE_HANDLE));
+            case "min":
+            case "max":
+                if (!exactType) {
+                    return Optional.empty();
+                }
+                return Optional.of(new JdbcExpression(format("%s(%s)", functionName, argument), column.getJdbcTypeHandle()));
+            case "sum":
+                return getSumResultTypeHandle(type)
+                        .map(resultTypeHandle -> new JdbcExpression(format("sum(%s)", argument), resultTypeHandle));
+            default:
+                return Optional.empty();
+        }
+    }
+
+    /**
+     * Returns the name of the remote function counting rows, which must return a 64 bit integer like {@code count} in Presto.
+     */
+    protected String getCountFunctionName()
+    {
+        return "count";
+    }
+
+    /**
+     * Returns the type handle of the result of {@code sum} computed by the remote database over a column of the given type,
+     * provided the remote result maps exactly to the Presto result, including failing the same way on overflow.
+     * Sum is not pushed down otherwise, which is the default as the result types differ between databases.
+     */
+    protected Optional<JdbcTypeHandle> getSumResultTypeHandle(Type argumentType)
+    {
+        return Optional.empty();
+    }
+
+    private static boolean isExactNumericType(Type type)
+    {
+        return type == BIGINT || type == INTEGER || type == SMALLINT || type == TINYINT || type instanceof DecimalType;
+    }
+
     protected String quoted(String name)
     {
         name = name.replace(identifierQuote, identifierQuote + identifierQuote);
@@ -13,11 +13,13 @@
  */
 package io.prestosql.plugin.jdbc;
 
+import io.prestosql.spi.connector.AggregateFunction;
 import io.prestosql.spi.connector.ColumnHandle;
 import io.prestosql.spi.connector.ColumnMetadata;
 import io.prestosql.spi.connector.ConnectorSession;
 import io.prestosql.spi.connector.ConnectorSplitSource;
 import io.prestosql.spi.connector.ConnectorTableMetadata;
+import io.prestosql.spi.connector.JoinType;
 import io.prestosql.spi.connector.SchemaTableName;
 import io.prestosql.spi.connector.SystemTable;
 import io.prestosql.spi.predicate.TupleDomain;
@@ -28,6 +30,7 @@ import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.SQLException;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
 
@@ -68,6 +71,29 @@ public interface JdbcClient
 
     boolean isLimitGuaranteed(ConnectorSession session);
 
+    boolean supportsTopN(ConnectorSession session, JdbcTableHandle handle, List<JdbcSortItem> sortOrder);
+
+    boolean isTopNLimitGuaranteed(ConnectorSession session);
+
+    /**
+     * Returns whether the remote database can join two of its tables with the same semantics as Presto.
+     */
+    boolean supportsJoin(ConnectorSession session, JoinType joinType, List<JdbcJoinCondition> joinConditions);
+
+    /**
+     * Returns whether the remote database groups rows by the columns of the grouping sets with the same semantics as Presto.
+     */
+    boolean supportsAggregationPushdown(ConnectorSession session, JdbcTableHandle table, List<List<JdbcColumnHandle>> groupingSets);
+
+    /**
+     * Translates the aggregate function to a SQL expression over the columns of the table,
+     * or returns {@link Optional#empty()} if the remote database cannot compute it with the same semantics.
+     */
+    default Optional<JdbcExpression> implementAggregation(ConnectorSession session, AggregateFunction aggregate, Map<String, ColumnHandle> assignments)
+    {
+        return Optional.empty();
+    }
+
     void addColumn(ConnectorSession session, JdbcTableHandle handle, ColumnMetadata column);
 
     void dropColumn(JdbcIdentity identity, JdbcTableHandle handle, JdbcColumnHandle column);
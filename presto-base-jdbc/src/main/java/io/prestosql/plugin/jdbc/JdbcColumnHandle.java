@@ -33,6 +33,7 @@ public final class JdbcColumnHandle
     private final Type columnType;
     private final boolean nullable;
     private final Optional<String> comment;
+    private final Optional<String> expression;
 
     // All and only required fields
     public JdbcColumnHandle(String columnName, JdbcTypeHandle jdbcTypeHandle, Type columnType)
@@ -49,6 +50,15 @@ public final class JdbcColumnHandle
         this(columnName, jdbcTypeHandle, columnType, nullable, Optional.empty());
     }
 
+    /**
+     * @deprecated Use {@link #builder()} instead.
+     */
+    @Deprecated
+    public JdbcColumnHandle(String columnName, JdbcTypeHandle jdbcTypeHandle, Type columnType, boolean nullable, Optional<String> comment)
+    {
+        this(columnName, jdbcTypeHandle, columnType, nullable, comment, Optional.empty());
+    }
+
     /**
      * @deprecated This constructor is intended to be used by JSON deserialization only. Use {@link #builder()} instead.
      */
@@ -59,13 +69,15 @@ public final class JdbcColumnHandle
             @JsonProperty("jdbcTypeHandle") JdbcTypeHandle jdbcTypeHandle,
             @JsonProperty("columnType") Type columnType,
             @JsonProperty("nullable") boolean nullable,
-            @JsonProperty("comment") Optional<String> comment)
+            @JsonProperty("comment") Optional<String> comment,
+            @JsonProperty("expression") Optional<String> expression)
     {
         this.columnName = requireNonNull(columnName, "columnName is null");
         this.jdbcTypeHandle = requireNonNull(jdbcTypeHandle, "jdbcTypeHandle is null");
         this.columnType = requireNonNull(columnType, "columnType is null");
         this.nullable = nullable;
         this.comment = requireNonNull(comment, "comment is null");
+        this.expression = requireNonNull(expression, "expression is null");
     }
 
     @JsonProperty
@@ -98,6 +110,21 @@ public final class JdbcColumnHandle
         return comment;
     }
 
+    /**
+     * SQL expression computing the value of a synthetic column (e.g. a pushed down aggregation),
+     * or empty if this is a column of the remote table.
+     */
+    @JsonProperty
+    public Optional<String> getExpression()
+    {
+        return expression;
+    }
+
+    public boolean isSynthetic()
+    {
+        return expression.isPresent();
+    }
+
     public ColumnMetadata getColumnMetadata()
     {
         return ColumnMetadata.builder()
@@ -133,7 +160,8 @@ public final class JdbcColumnHandle
         return Joiner.on(":").skipNulls().join(
                 columnName,
                 columnType.getDisplayName(),
-                jdbcTypeHandle.getJdbcTypeName().orElse(null));
+                jdbcTypeHandle.getJdbcTypeName().orElse(null),
+                expression.orElse(null));
     }
 
     public static Builder builder()
@@ -153,6 +181,7 @@ public final class JdbcColumnHandle
         private Type columnType;
         private boolean nullable = true;
         private Optional<String> comment = Optional.empty();
+        private Optional<String> expression = Optional.empty();
 
         public Builder() {}
 
@@ -163,6 +192,7 @@ public final class JdbcColumnHandle
             this.columnType = handle.getColumnType();
             this.nullable = handle.isNullable();
             this.comment = handle.getComment();
+            this.expression = handle.getExpression();
         }
 
         public Builder setColumnName(String columnName)
@@ -195,6 +225,12 @@ public final class JdbcColumnHandle
             return this;
         }
 
+        public Builder setExpression(Optional<String> expression)
+        {
+            this.expression = expression;
+            return this;
+        }
+
         public JdbcColumnHandle build()
         {
             return new JdbcColumnHandle(
@@ -202,7 +238,8 @@ public final class JdbcColumnHandle
                     jdbcTypeHandle,
                     columnType,
                     nullable,
-                    comment);
+                    comment,
+                    expression);
         }
     }
 }
@@ -0,0 +1,122 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.prestosql.plugin.jdbc;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.google.common.collect.ImmutableList;
+import io.prestosql.spi.connector.JoinType;
+
+import java.util.List;
+import java.util.Objects;
+
+import static com.google.common.base.MoreObjects.toStringHelper;
+import static com.google.common.base.Preconditions.checkArgument;
+import static java.util.Objects.requireNonNull;
+
+/**
+ * A join pushed down into the remote database. The output columns are the projected columns of the left table
+ * followed by the projected columns of the right table, renamed so that their names are unique.
+ */
+public final class JdbcJoin
+{
+    private final JoinType joinType;
+    private final JdbcTableHandle left;
+    private final JdbcTableHandle right;
+    private final List<JdbcJoinCondition> conditions;
+    private final List<JdbcColumnHandle> outputColumns;
+
+    @JsonCreator
+    public JdbcJoin(
+            @JsonProperty("joinType") JoinType joinType,
+            @JsonProperty("left") JdbcTableHandle left,
+            @JsonProperty("right") JdbcTableHandle right,
+            @JsonProperty("conditions") List<JdbcJoinCondition> conditions,
+            @JsonProperty("outputColumns") List<JdbcColumnHandle> outputColumns)
+    {
+        this.joinType = requireNonNull(joinType, "joinType is null");
+        this.left = requireNonNull(left, "left is null");
+        this.right = requireNonNull(right, "right is null");
+        this.conditions = ImmutableList.copyOf(requireNonNull(conditions, "conditions is null"));
+        this.outputColumns = ImmutableList.copyOf(requireNonNull(outputColumns, "outputColumns is null"));
+        checkArgument(left.getColumns().isPresent() && right.getColumns().isPresent(), "Columns of the joined tables are not projected");
+        checkArgument(
+                outputColumns.size() == left.getColumns().get().size() + right.getColumns().get().size(),
+                "Output columns do not match the projected columns of the joined tables");
+    }
+
+    @JsonProperty
+    public JoinType getJoinType()
+    {
+        return joinType;
+    }
+
+    @JsonProperty
+    public JdbcTableHandle getLeft()
+    {
+        return left;
+    }
+
+    @JsonProperty
+    public JdbcTableHandle getRight()
+    {
+        return right;
+    }
+
+    @JsonProperty
+    public List<JdbcJoinCondition> getConditions()
+    {
+        return conditions;
+    }
+
+    @JsonProperty
+    public List<JdbcColumnHandle> getOutputColumns()
+    {
+        return outputColumns;
+    }
+
+    @Override
+    public boolean equals(Object o)
+    {
+        if (this == o) {
+            return true;
+        }
+        if (o == null || getClass() != o.getClass()) {
+            return false;
+        }
+        JdbcJoin that = (JdbcJoin) o;
+        return joinType == that.joinType &&
+                left.equals(that.left) &&
+                right.equals(that.right) &&
+                conditions.equals(that.conditions) &&
+                outputColumns.equals(that.outputColumns);
+    }
+
+    @Override
+    public int hashCode()
+    {
+        return Objects.hash(joinType, left, right, conditions, outputColumns);
+    }
+
+    @Override
+    public String toString()
+    {
+        return toStringHelper(this)
+                .add("joinType", joinType)
+                .add("left", left)
+                .add("right", right)
+                .add("conditions", conditions)
+                .toString();
+    }
+}
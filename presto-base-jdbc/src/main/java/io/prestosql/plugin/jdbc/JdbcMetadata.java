@@ -18,6 +18,8 @@ import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.ImmutableSet;
 import io.airlift.slice.Slice;
 import io.prestosql.spi.PrestoException;
+import io.prestosql.spi.connector.AggregateFunction;
+import io.prestosql.spi.connector.AggregationApplicationResult;
 import io.prestosql.spi.connector.ColumnHandle;
 import io.prestosql.spi.connector.ColumnMetadata;
 import io.prestosql.spi.connector.ConnectorInsertTableHandle;
@@ -31,14 +33,20 @@ import io.prestosql.spi.connector.ConnectorTableMetadata;
 import io.prestosql.spi.connector.ConnectorTableProperties;
 import io.prestosql.spi.connector.Constraint;
 import io.prestosql.spi.connector.ConstraintApplicationResult;
+import io.prestosql.spi.connector.JoinApplicationResult;
+import io.prestosql.spi.connector.JoinCondition;
+import io.prestosql.spi.connector.JoinType;
 import io.prestosql.spi.connector.LimitApplicationResult;
 import io.prestosql.spi.connector.ProjectionApplicationResult;
 import io.prestosql.spi.connector.ProjectionApplicationResult.Assignment;
 import io.prestosql.spi.connector.SchemaTableName;
 import io.prestosql.spi.connector.SchemaTablePrefix;
+import io.prestosql.spi.connector.SortItem;
 import io.prestosql.spi.connector.SystemTable;
 import io.prestosql.spi.connector.TableNotFoundException;
+import io.prestosql.spi.connector.TopNApplicationResult;
 import io.prestosql.spi.expression.ConnectorExpression;
+import io.prestosql.spi.expression.Variable;
 import io.prestosql.spi.predicate.TupleDomain;
 import io.prestosql.spi.security.PrestoPrincipal;
 import io.prestosql.spi.statistics.ComputedStatistics;
@@ -53,12 +61,16 @@ import java.util.concurrent.atomic.AtomicReference;
 
 import static com.google.common.base.Preconditions.checkState;
 import static com.google.common.collect.ImmutableList.toImmutableList;
+import static io.prestosql.plugin.jdbc.JdbcMetadataSessionProperties.isJoinPushdownEnabled;
 import static io.prestosql.spi.StandardErrorCode.PERMISSION_DENIED;
 import static java.util.Objects.requireNonNull;
 
 public class JdbcMetadata
         implements ConnectorMetadata
 {
+    private static final String SYNTHETIC_COLUMN_NAME_PREFIX = "_pfgnrtd_";
+    private static final String JOIN_COLUMN_NAME_PREFIX = SYNTHETIC_COLUMN_NAME_PREFIX + "join_";
+
     private final JdbcClient jdbcClient;
     private final boolean allowDropTable;
 
@@ -100,6 +112,11 @@ public class JdbcMetadata
     {
         JdbcTableHandle handle = (JdbcTableHandle) table;
 
+        if (handle.getGroupingSets().isPresent() || handle.getSortOrder().isPresent()) {
+            // filters on the aggregated or sorted table would have to be applied after the aggregation or TopN
+            return Optional.empty();
+        }
+
         TupleDomain<ColumnHandle> oldDomain = handle.getConstraint();
         TupleDomain<ColumnHandle> newDomain = oldDomain.intersect(constraint.getSummary());
         if (oldDomain.equals(newDomain)) {
@@ -113,7 +130,10 @@ public class JdbcMetadata
                 handle.getTableName(),
                 handle.getColumns(),
                 newDomain,
-                handle.getLimit());
+                handle.getLimit(),
+                handle.getGroupingSets(),
+                handle.getSortOrder(),
+                handle.getJoin());
 
         return Optional.of(new ConstraintApplicationResult<>(handle, constraint.getSummary()));
     }
@@ -143,7 +163,10 @@ public class JdbcMetadata
                         handle.getTableName(),
                         Optional.of(newColumns),
                         handle.getConstraint(),
-                        handle.getLimit()),
+                        handle.getLimit(),
+                        handle.getGroupingSets(),
+                        handle.getSortOrder(),
+                        handle.getJoin()),
                 projections,
                 assignments.entrySet().stream()
                         .map(assignment -> new Assignment(
@@ -173,11 +196,236 @@ public class JdbcMetadata
                 handle.getTableName(),
                 handle.getColumns(),
                 handle.getConstraint(),
-                OptionalLong.of(limit));
+                OptionalLong.of(limit),
+                handle.getGroupingSets(),
+                handle.getSortOrder(),
+                handle.getJoin());
 
         return Optional.of(new LimitApplicationResult<>(handle, jdbcClient.isLimitGuaranteed(session)));
     }
 
+    @Override
+    public Optional<TopNApplicationResult<ConnectorTableHandle>> applyTopN(
+            ConnectorSession session,
+            ConnectorTableHandle table,
+            long topNCount,
+            List<SortItem> sortItems,
+            Map<String, ColumnHandle> assignments)
+    {
+        JdbcTableHandle handle = (JdbcTableHandle) table;
+
+        if (handle.getSortOrder().isPresent() || handle.getLimit().isPresent()) {
+            // the TopN would be computed over the result of the previous TopN or limit
+            return Optional.empty();
+        }
+
+        List<JdbcSortItem> sortOrder = sortItems.stream()
+                .map(sortItem -> new JdbcSortItem((JdbcColumnHandle) assignments.get(sortItem.getName()), sortItem.getSortOrder()))
+                .collect(toImmutableList());
+
+        if (!jdbcClient.supportsTopN(session, handle, sortOrder)) {
+            return Optional.empty();
+        }
+
+        handle = new JdbcTableHandle(
+                handle.getSchemaTableName(),
+                handle.getCatalogName(),
+                handle.getSchemaName(),
+                handle.getTableName(),
+                handle.getColumns(),
+                handle.getConstraint(),
+                OptionalLong.of(topNCount),
+                handle.getGroupingSets(),
+                Optional.of(sortOrder),
+                handle.getJoin());
+
+        return Optional.of(new TopNApplicationResult<>(handle, jdbcClient.isTopNLimitGuaranteed(session)));
+    }
+
+    @Override
+    public Optional<AggregationApplicationResult<ConnectorTableHandle>> applyAggregation(
+            ConnectorSession session,
+            ConnectorTableHandle table,
+            List<AggregateFunction> aggregates,
+            Map<String, ColumnHandle> assignments,
+            List<List<ColumnHandle>> groupingSets)
+    {
+        JdbcTableHandle handle = (JdbcTableHandle) table;
+
+        if (handle.getGroupingSets().isPresent() || handle.getLimit().isPresent()) {
+            // the aggregation would be computed over the result of the previous aggregation or limit
+            return Optional.empty();
+        }
+        if (groupingSets.size() != 1) {
+            return Optional.empty();
+        }
+
+        ImmutableList.Builder<JdbcColumnHandle> newColumns = ImmutableList.builder();
+        ImmutableList.Builder<ConnectorExpression> projections = ImmutableList.builder();
+        ImmutableList.Builder<Assignment> resultAssignments = ImmutableList.builder();
+
+        List<JdbcColumnHandle> groupingColumns = groupingSets.get(0).stream()
+                .map(JdbcColumnHandle.class::cast)
+                .collect(toImmutableList());
+        if (!jdbcClient.supportsAggregationPushdown(session, handle, ImmutableList.of(groupingColumns))) {
+            return Optional.empty();
+        }
+        newColumns.addAll(groupingColumns);
+
+        for (int i = 0; i < aggregates.size(); i++) {
+            AggregateFunction aggregate = aggregates.get(i);
+            Optional<JdbcExpression> expression = jdbcClient.implementAggregation(session, aggregate, assignments);
+            if (!expression.isPresent()) {
+                return Optional.empty();
+            }
+
+            JdbcColumnHandle newColumn = JdbcColumnHandle.builder()
+                    .setColumnName(SYNTHETIC_COLUMN_NAME_PREFIX + i)
+                    .setJdbcTypeHandle(expression.get().getJdbcTypeHandle())
+                    .setColumnType(aggregate.getOutputType())
+                    .setExpression(Optional.of(expression.get().getExpression()))
+                    .build();
+
+            newColumns.add(newColumn);
+            projections.add(new Variable(newColumn.getColumnName(), aggregate.getOutputType()));
+            resultAssignments.add(new Assignment(newColumn.getColumnName(), newColumn, aggregate.getOutputType()));
+        }
+
+        handle = new JdbcTableHandle(
+                handle.getSchemaTableName(),
+                handle.getCatalogName(),
+                handle.getSchemaName(),
+                handle.getTableName(),
+                Optional.of(newColumns.build()),
+                handle.getConstraint(),
+                handle.getLimit(),
+                Optional.of(ImmutableList.of(groupingColumns)),
+                handle.getSortOrder(),
+                handle.getJoin());
+
+        return Optional.of(new AggregationApplicationResult<>(handle, projections.build(), resultAssignments.build(), ImmutableMap.of()));
+    }
+
+    @Override
+    public Optional<JoinApplicationResult<ConnectorTableHandle>> applyJoin(
+            ConnectorSession session,
+            JoinType joinType,
+            ConnectorTableHandle left,
+            ConnectorTableHandle right,
+            List<JoinCondition> joinConditions,
+            Map<String, ColumnHandle> leftAssignments,
+            Map<String, ColumnHandle> rightAssignments)
+    {
+        if (!isJoinPushdownEnabled(session)) {
+            return Optional.empty();
+        }
+
+        JdbcTableHandle leftHandle = (JdbcTableHandle) left;
+        JdbcTableHandle rightHandle = (JdbcTableHandle) right;
+        if (!isJoinSource(leftHandle) || !isJoinSource(rightHandle)) {
+            return Optional.empty();
+        }
+
+        ImmutableList.Builder<JdbcJoinCondition> jdbcJoinConditions = ImmutableList.builder();
+        for (JoinCondition joinCondition : joinConditions) {
+            Optional<JdbcColumnHandle> leftColumn = getVariableColumnHandle(leftAssignments, joinCondition.getLeftExpression());
+            Optional<JdbcColumnHandle> rightColumn = getVariableColumnHandle(rightAssignments, joinCondition.getRightExpression());
+            if (!leftColumn.isPresent() || !rightColumn.isPresent()) {
+                return Optional.empty();
+            }
+            jdbcJoinConditions.add(new JdbcJoinCondition(leftColumn.get(), joinCondition.getOperator(), rightColumn.get()));
+        }
+        List<JdbcJoinCondition> conditions = jdbcJoinConditions.build();
+
+        if (!jdbcClient.supportsJoin(session, joinType, conditions)) {
+            return Optional.empty();
+        }
+
+        List<JdbcColumnHandle> leftColumns = getDistinctColumns(leftAssignments);
+        List<JdbcColumnHandle> rightColumns = getDistinctColumns(rightAssignments);
+        ImmutableList.Builder<JdbcColumnHandle> outputColumns = ImmutableList.builder();
+        ImmutableMap.Builder<ColumnHandle, ColumnHandle> leftColumnHandles = ImmutableMap.builder();
+        ImmutableMap.Builder<ColumnHandle, ColumnHandle> rightColumnHandles = ImmutableMap.builder();
+        int nextColumnId = 0;
+        for (JdbcColumnHandle column : leftColumns) {
+            JdbcColumnHandle outputColumn = createJoinColumn(column, nextColumnId++, joinType == JoinType.RIGHT_OUTER || joinType == JoinType.FULL_OUTER);
+            outputColumns.add(outputColumn);
+            leftColumnHandles.put(column, outputColumn);
+        }
+        for (JdbcColumnHandle column : rightColumns) {
+            JdbcColumnHandle outputColumn = createJoinColumn(column, nextColumnId++, joinType == JoinType.LEFT_OUTER || joinType == JoinType.FULL_OUTER);
+            outputColumns.add(outputColumn);
+            rightColumnHandles.put(column, outputColumn);
+        }
+
+        JdbcJoin join = new JdbcJoin(
+                joinType,
+                withColumns(leftHandle, leftColumns),
+                withColumns(rightHandle, rightColumns),
+                conditions,
+                outputColumns.build());
+
+        JdbcTableHandle handle = new JdbcTableHandle(
+                leftHandle.getSchemaTableName(),
+                leftHandle.getCatalogName(),
+                leftHandle.getSchemaName(),
+                leftHandle.getTableName(),
+                Optional.empty(),
+                TupleDomain.all(),
+                OptionalLong.empty(),
+                Optional.empty(),
+                Optional.empty(),
+                Optional.of(join));
+
+        return Optional.of(new JoinApplicationResult<>(handle, leftColumnHandles.build(), rightColumnHandles.build()));
+    }
+
+    private static boolean isJoinSource(JdbcTableHandle handle)
+    {
+        // the aggregation, TopN or limit would have to be computed before the join
+        return !handle.getGroupingSets().isPresent() && !handle.getLimit().isPresent();
+    }
+
+    private static Optional<JdbcColumnHandle> getVariableColumnHandle(Map<String, ColumnHandle> assignments, ConnectorExpression expression)
+    {
+        if (!(expression instanceof Variable)) {
+            return Optional.empty();
+        }
+        return Optional.ofNullable((JdbcColumnHandle) assignments.get(((Variable) expression).getName()));
+    }
+
+    private static List<JdbcColumnHandle> getDistinctColumns(Map<String, ColumnHandle> assignments)
+    {
+        return assignments.values().stream()
+                .map(JdbcColumnHandle.class::cast)
+                .distinct()
+                .collect(toImmutableList());
+    }
+
+    private static JdbcColumnHandle createJoinColumn(JdbcColumnHandle column, int columnId, boolean outerSide)
+    {
+        return JdbcColumnHandle.builderFrom(column)
+                .setColumnName(JOIN_COLUMN_NAME_PREFIX + columnId)
+                .setNullable(column.isNullable() || outerSide)
+                .setExpression(Optional.empty())
+                .build();
+    }
+
+    private static JdbcTableHandle withColumns(JdbcTableHandle handle, List<JdbcColumnHandle> columns)
+    {
+        return new JdbcTableHandle(
+                handle.getSchemaTableName(),
+                handle.getCatalogName(),
+                handle.getSchemaName(),
+                handle.getTableName(),
+                Optional.of(columns),
+                handle.getConstraint(),
+                handle.getLimit(),
+                handle.getGroupingSets(),
+                handle.getSortOrder(),
+                handle.getJoin());
+    }
+
     @Override
     public boolean usesLegacyTableLayouts()
     {
@@ -196,7 +444,7 @@ public class JdbcMetadata
         JdbcTableHandle handle = (JdbcTableHandle) table;
 
         ImmutableList.Builder<ColumnMetadata> columnMetadata = ImmutableList.builder();
-        for (JdbcColumnHandle column : jdbcClient.getColumns(session, handle)) {
+        for (JdbcColumnHandle column : getColumns(session, handle)) {
             columnMetadata.add(column.getColumnMetadata());
         }
         return new ConnectorTableMetadata(handle.getSchemaTableName(), columnMetadata.build());
@@ -214,12 +462,21 @@ public class JdbcMetadata
         JdbcTableHandle jdbcTableHandle = (JdbcTableHandle) tableHandle;
 
         ImmutableMap.Builder<String, ColumnHandle> columnHandles = ImmutableMap.builder();
-        for (JdbcColumnHandle column : jdbcClient.getColumns(session, jdbcTableHandle)) {
+        for (JdbcColumnHandle column : getColumns(session, jdbcTableHandle)) {
             columnHandles.put(column.getColumnMetadata().getName(), column);
         }
         return columnHandles.build();
     }
 
+    private List<JdbcColumnHandle> getColumns(ConnectorSession session, JdbcTableHandle handle)
+    {
+        if (handle.getJoin().isPresent()) {
+            // the remote database does not know the columns of a joined table
+            return handle.getJoin().get().getOutputColumns();
+        }
+        return jdbcClient.getColumns(session, handle);
+    }
+
     @Override
     public Map<SchemaTableName, List<ColumnMetadata>> listTableColumns(ConnectorSession session, SchemaTablePrefix prefix)
     {
@@ -19,6 +19,7 @@ import io.airlift.configuration.ConfigDescription;
 public class JdbcMetadataConfig
 {
     private boolean allowDropTable;
+    private boolean joinPushdownEnabled;
 
     public boolean isAllowDropTable()
     {
@@ -32,4 +33,17 @@ public class JdbcMetadataConfig
         this.allowDropTable = allowDropTable;
         return this;
     }
+
+    public boolean isJoinPushdownEnabled()
+    {
+        return joinPushdownEnabled;
+    }
+
+    @Config("join-pushdown.enabled")
+    @ConfigDescription("Join tables of this catalog in the remote database, when it can compute the join with the same semantics")
+    public JdbcMetadataConfig setJoinPushdownEnabled(boolean joinPushdownEnabled)
+    {
+        this.joinPushdownEnabled = joinPushdownEnabled;
+        return this;
+    }
 }
@@ -29,6 +29,8 @@ import java.util.Objects;
 import java.util.Optional;
 import java.util.OptionalLong;
 
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.collect.ImmutableList.toImmutableList;
 import static java.util.Objects.requireNonNull;
 
 public final class JdbcTableHandle
@@ -43,12 +45,30 @@ public final class JdbcTableHandle
     private final Optional<List<JdbcColumnHandle>> columns;
     private final TupleDomain<ColumnHandle> constraint;
     private final OptionalLong limit;
+    // GROUP BY of a pushed down aggregation, applied before the limit
+    private final Optional<List<List<JdbcColumnHandle>>> groupingSets;
+    // ORDER BY of a pushed down TopN, present only together with the limit
+    private final Optional<List<JdbcSortItem>> sortOrder;
+    // join pushed down into the remote database, read instead of the named table which is the left table of the join
+    private final Optional<JdbcJoin> join;
 
     public JdbcTableHandle(SchemaTableName schemaTableName, @Nullable String catalogName, @Nullable String schemaName, String tableName)
     {
         this(schemaTableName, catalogName, schemaName, tableName, Optional.empty(), TupleDomain.all(), OptionalLong.empty());
     }
 
+    public JdbcTableHandle(
+            SchemaTableName schemaTableName,
+            @Nullable String catalogName,
+            @Nullable String schemaName,
+            String tableName,
+            Optional<List<JdbcColumnHandle>> columns,
+            TupleDomain<ColumnHandle> constraint,
+            OptionalLong limit)
+    {
+        this(schemaTableName, catalogName, schemaName, tableName, columns, constraint, limit, Optional.empty(), Optional.empty(), Optional.empty());
+    }
+
     @JsonCreator
     public JdbcTableHandle(
             @JsonProperty("schemaTableName") SchemaTableName schemaTableName,
@@ -57,7 +77,10 @@ public final class JdbcTableHandle
             @JsonProperty("tableName") String tableName,
             @JsonProperty("columns") Optional<List<JdbcColumnHandle>> columns,
             @JsonProperty("constraint") TupleDomain<ColumnHandle> constraint,
-            @JsonProperty("limit") OptionalLong limit)
+            @JsonProperty("limit") OptionalLong limit,
+            @JsonProperty("groupingSets") Optional<List<List<JdbcColumnHandle>>> groupingSets,
+            @JsonProperty("sortOrder") Optional<List<JdbcSortItem>> sortOrder,
+            @JsonProperty("join") Optional<JdbcJoin> join)
     {
         this.schemaTableName = requireNonNull(schemaTableName, "schemaTableName is null");
         this.catalogName = catalogName;
@@ -67,6 +90,14 @@ public final class JdbcTableHandle
         this.columns = columns.map(ImmutableList::copyOf);
         this.constraint = requireNonNull(constraint, "constraint is null");
         this.limit = requireNonNull(limit, "limit is null");
+        requireNonNull(groupingSets, "groupingSets is null");
+        this.groupingSets = groupingSets.map(sets -> sets.stream()
+                .map(ImmutableList::copyOf)
+                .collect(toImmutableList()));
+        requireNonNull(sortOrder, "sortOrder is null");
+        checkArgument(!sortOrder.isPresent() || limit.isPresent(), "sortOrder requires a limit");
+        this.sortOrder = sortOrder.map(ImmutableList::copyOf);
+        this.join = requireNonNull(join, "join is null");
     }
 
     @JsonProperty
@@ -113,6 +144,24 @@ public final class JdbcTableHandle
         return limit;
     }
 
+    @JsonProperty
+    public Optional<List<List<JdbcColumnHandle>>> getGroupingSets()
+    {
+        return groupingSets;
+    }
+
+    @JsonProperty
+    public Optional<List<JdbcSortItem>> getSortOrder()
+    {
+        return sortOrder;
+    }
+
+    @JsonProperty
+    public Optional<JdbcJoin> getJoin()
+    {
+        return join;
+    }
+
     @Override
     public boolean equals(Object obj)
     {
@@ -126,13 +175,16 @@ public final class JdbcTableHandle
         return Objects.equals(this.schemaTableName, o.schemaTableName) &&
                 Objects.equals(this.columns, o.columns) &&
                 Objects.equals(this.constraint, o.constraint) &&
-                Objects.equals(this.limit, o.limit);
+                Objects.equals(this.limit, o.limit) &&
+                Objects.equals(this.groupingSets, o.groupingSets) &&
+                Objects.equals(this.sortOrder, o.sortOrder) &&
+                Objects.equals(this.join, o.join);
     }
 
     @Override
     public int hashCode()
     {
-        return Objects.hash(schemaTableName, columns, constraint, limit);
+        return Objects.hash(schemaTableName, columns, constraint, limit, groupingSets, sortOrder, join);
     }
 
     @Override
@@ -141,7 +193,10 @@ public final class JdbcTableHandle
         StringBuilder builder = new StringBuilder();
         builder.append(schemaTableName).append(" ");
         Joiner.on(".").skipNulls().appendTo(builder, catalogName, schemaName, tableName);
+        join.ifPresent(value -> builder.append(" join=").append(value));
         columns.ifPresent(value -> builder.append(" columns=").append(value));
+        groupingSets.ifPresent(value -> builder.append(" groupingSets=").append(value));
+        sortOrder.ifPresent(value -> builder.append(" sortOrder=").append(value));
         limit.ifPresent(value -> builder.append(" limit=").append(value));
         return builder.toString();
     }
@@ -21,6 +21,7 @@ import io.airlift.slice.Slice;
 import io.prestosql.spi.block.Block;
 import io.prestosql.spi.connector.ColumnHandle;
 import io.prestosql.spi.connector.ConnectorSession;
+import io.prestosql.spi.connector.JoinType;
 import io.prestosql.spi.predicate.Domain;
 import io.prestosql.spi.predicate.Range;
 import io.prestosql.spi.predicate.TupleDomain;
@@ -34,8 +35,10 @@ import java.util.List;
 import java.util.Optional;
 import java.util.function.Function;
 
+import static com.google.common.base.Preconditions.checkArgument;
 import static com.google.common.base.Preconditions.checkState;
 import static com.google.common.base.Strings.isNullOrEmpty;
+import static com.google.common.collect.ImmutableList.toImmutableList;
 import static com.google.common.collect.Iterables.getOnlyElement;
 import static java.lang.String.format;
 import static java.util.Collections.nCopies;
@@ -98,6 +101,74 @@ public class QueryBuilder
             Optional<String> additionalPredicate,
             Function<String, String> sqlFunction)
             throws SQLException
+    {
+        return buildSql(client, session, connection, catalog, schema, table, columns, tupleDomain, additionalPredicate, Optional.empty(), sqlFunction);
+    }
+
+    public PreparedStatement buildSql(
+            JdbcClient client,
+            ConnectorSession session,
+            Connection connection,
+            String catalog,
+            String schema,
+            String table,
+            List<JdbcColumnHandle> columns,
+            TupleDomain<ColumnHandle> tupleDomain,
+            Optional<String> additionalPredicate,
+            Optional<List<List<JdbcColumnHandle>>> groupingSets,
+            Function<String, String> sqlFunction)
+            throws SQLException
+    {
+        List<TypeAndValue> accumulator = new ArrayList<>();
+        String sql = buildQuery(client, session, connection, getRelation(catalog, schema, table), columns, tupleDomain, additionalPredicate, groupingSets, accumulator);
+        return prepareStatement(client, session, connection, sqlFunction.apply(sql), accumulator);
+    }
+
+    public PreparedStatement buildSql(
+            JdbcClient client,
+            ConnectorSession session,
+            Connection connection,
+            JdbcTableHandle table,
+            List<JdbcColumnHandle> columns,
+            Optional<String> additionalPredicate,
+            Function<String, String> sqlFunction)
+            throws SQLException
+    {
+        List<TypeAndValue> accumulator = new ArrayList<>();
+        // the parameters of the relation precede the parameters of the WHERE clause
+        String relation = getRelation(client, session, connection, table, accumulator);
+        String sql = buildQuery(client, session, connection, relation, columns, table.getConstraint(), additionalPredicate, table.getGroupingSets(), accumulator);
+        return prepareStatement(client, session, connection, sqlFunction.apply(sql), accumulator);
+    }
+
+    private String buildQuery(
+            JdbcClient client,
+            ConnectorSession session,
+            Connection connection,
+            String relation,
+            List<JdbcColumnHandle> columns,
+            TupleDomain<ColumnHandle> tupleDomain,
+            Optional<String> additionalPredicate,
+            Optional<List<List<JdbcColumnHandle>>> groupingSets,
+            List<TypeAndValue> accumulator)
+    {
+        // The columns of an aggregated table are the grouping keys and the aggregates, so the constraint
+        // may reference columns which are not projected
+        List<JdbcColumnHandle> constrainedColumns = groupingSets.isPresent() ? getConstrainedColumns(tupleDomain) : columns;
+        return buildQuery(client, session, connection, relation, columns, constrainedColumns, tupleDomain, additionalPredicate, groupingSets, accumulator);
+    }
+
+    private String buildQuery(
+            JdbcClient client,
+            ConnectorSession session,
+            Connection connection,
+            String relation,
+            List<JdbcColumnHandle> columns,
+            List<JdbcColumnHandle> constrainedColumns,
+            TupleDomain<ColumnHandle> tupleDomain,
+            Optional<String> additionalPredicate,
+            Optional<List<List<JdbcColumnHandle>>> groupingSets,
+            List<TypeAndValue> accumulator)
     {
         StringBuilder sql = new StringBuilder();
 
@@ -105,11 +176,9 @@ public class QueryBuilder
         sql.append(getProjection(columns));
 
         sql.append(" FROM ");
-        sql.append(getRelation(catalog, schema, table));
+        sql.append(relation);
 
-        List<TypeAndValue> accumulator = new ArrayList<>();
-
-        List<String> clauses = toConjuncts(client, session, connection, columns, tupleDomain, accumulator);
+        List<String> clauses = toConjuncts(client, session, connection, constrainedColumns, tupleDomain, accumulator);
         if (additionalPredicate.isPresent()) {
             clauses = ImmutableList.<String>builder()
                     .addAll(clauses)
@@ -120,8 +189,13 @@ public class QueryBuilder
             sql.append(" WHERE ")
                     .append(Joiner.on(" AND ").join(clauses));
         }
+        groupingSets.ifPresent(sets -> sql.append(getGroupBy(sets)));
+        return sql.toString();
+    }
 
-        String query = sqlFunction.apply(sql.toString());
+    private PreparedStatement prepareStatement(JdbcClient client, ConnectorSession session, Connection connection, String query, List<TypeAndValue> accumulator)
+            throws SQLException
+    {
         log.debug("Preparing query: %s", query);
         PreparedStatement statement = client.getPreparedStatement(connection, query);
 
@@ -163,9 +237,24 @@ public class QueryBuilder
             return "null";
         }
         return columns.stream()
+                .map(column -> column.getExpression()
+                        .map(expression -> expression + " AS " + quote(column.getColumnName()))
+                        .orElseGet(() -> quote(column.getColumnName())))
+                .collect(joining(", "));
+    }
+
+    protected String getGroupBy(List<List<JdbcColumnHandle>> groupingSets)
+    {
+        checkArgument(groupingSets.size() == 1, "Only a single grouping set is supported: %s", groupingSets);
+        List<JdbcColumnHandle> groupingKeys = getOnlyElement(groupingSets);
+        if (groupingKeys.isEmpty()) {
+            // global aggregation
+            return "";
+        }
+        return groupingKeys.stream()
                 .map(JdbcColumnHandle::getColumnName)
                 .map(this::quote)
-                .collect(joining(", "));
+                .collect(joining(", ", " GROUP BY ", ""));
     }
 
     protected String getRelation(String catalog, String schema, String table)
@@ -180,6 +269,75 @@ public class QueryBuilder
         return sql.append(quote(table)).toString();
     }
 
+    private String getRelation(JdbcClient client, ConnectorSession session, Connection connection, JdbcTableHandle table, List<TypeAndValue> accumulator)
+    {
+        if (!table.getJoin().isPresent()) {
+            return getRelation(table.getCatalogName(), table.getSchemaName(), table.getTableName());
+        }
+        JdbcJoin join = table.getJoin().get();
+        List<JdbcColumnHandle> leftColumns = join.getLeft().getColumns().get();
+        List<JdbcColumnHandle> rightColumns = join.getRight().getColumns().get();
+
+        ImmutableList.Builder<String> projections = ImmutableList.builder();
+        for (int i = 0; i < join.getOutputColumns().size(); i++) {
+            String column = i < leftColumns.size()
+                    ? "l." + quote(leftColumns.get(i).getColumnName())
+                    : "r." + quote(rightColumns.get(i - leftColumns.size()).getColumnName());
+            projections.add(column + " AS " + quote(join.getOutputColumns().get(i).getColumnName()));
+        }
+
+        String leftQuery = buildJoinSourceQuery(client, session, connection, join.getLeft(), accumulator);
+        String rightQuery = buildJoinSourceQuery(client, session, connection, join.getRight(), accumulator);
+        String conditions = join.getConditions().stream()
+                .map(condition -> format(
+                        "l.%s %s r.%s",
+                        quote(condition.getLeftColumn().getColumnName()),
+                        condition.getOperator().getValue(),
+                        quote(condition.getRightColumn().getColumnName())))
+                .collect(joining(" AND "));
+
+        return format(
+                "(SELECT %s FROM (%s) l %s (%s) r ON %s) o",
+                Joiner.on(", ").join(projections.build()),
+                leftQuery,
+                getJoinType(join.getJoinType()),
+                rightQuery,
+                conditions);
+    }
+
+    private String buildJoinSourceQuery(JdbcClient client, ConnectorSession session, Connection connection, JdbcTableHandle table, List<TypeAndValue> accumulator)
+    {
+        checkArgument(!table.getLimit().isPresent() && !table.getGroupingSets().isPresent(), "Unsupported join source: %s", table);
+        // the engine does not filter the rows of a joined table, so the whole constraint is applied
+        String relation = getRelation(client, session, connection, table, accumulator);
+        TupleDomain<ColumnHandle> tupleDomain = table.getConstraint();
+        return buildQuery(client, session, connection, relation, table.getColumns().get(), getConstrainedColumns(tupleDomain), tupleDomain, Optional.empty(), Optional.empty(), accumulator);
+    }
+
+    private static String getJoinType(JoinType joinType)
+    {
+        switch (joinType) {
+            case INNER:
+                return "INNER JOIN";
+            case LEFT_OUTER:
+                return "LEFT JOIN";
+            case RIGHT_OUTER:
+                return "RIGHT JOIN";
+            case FULL_OUTER:
+                return "FULL JOIN";
+        }
+        throw new IllegalArgumentException("Unsupported join type: " + joinType);
+    }
+
+    private static List<JdbcColumnHandle> getConstrainedColumns(TupleDomain<ColumnHandle> tupleDomain)
+    {
+        return tupleDomain.getDomains()
+                .map(domains -> domains.keySet().stream()
+                        .map(JdbcColumnHandle.class::cast)
+                        .collect(toImmutableList()))
+                .orElseGet(ImmutableList::of);
+    }
+
     private static Domain pushDownDomain(JdbcClient client, ConnectorSession session, Connection connection, JdbcColumnHandle column, Domain domain)
     {
         return client.toPrestoType(session, connection, column.getJdbcTypeHandle())
@@ -31,6 +31,12 @@ public class TestJdbcColumnHandle
     public void testJsonRoundTrip()
     {
         assertJsonRoundTrip(COLUMN_CODEC, new JdbcColumnHandle("columnName", JDBC_VARCHAR, VARCHAR, true, Optional.of("some comment")));
+        assertJsonRoundTrip(COLUMN_CODEC, JdbcColumnHandle.builder()
+                .setColumnName("_pfgnrtd_0")
+                .setJdbcTypeHandle(JDBC_BIGINT)
+                .setColumnType(BIGINT)
+                .setExpression(Optional.of("count(*)"))
+                .build());
     }
 
     @Test
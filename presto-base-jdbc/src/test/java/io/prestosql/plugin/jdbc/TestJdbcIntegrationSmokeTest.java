@@ -14,7 +14,12 @@
 package io.prestosql.plugin.jdbc;
 
 import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
 import io.prestosql.Session;
+import io.prestosql.sql.planner.Plan;
+import io.prestosql.sql.planner.plan.AggregationNode;
+import io.prestosql.sql.planner.plan.JoinNode;
+import io.prestosql.sql.planner.plan.TableScanNode;
 import io.prestosql.testing.AbstractTestIntegrationSmokeTest;
 import io.prestosql.testing.QueryRunner;
 import io.prestosql.testing.sql.JdbcSqlExecutor;
@@ -26,15 +31,22 @@ import java.util.Map;
 import java.util.Properties;
 
 import static io.prestosql.plugin.jdbc.H2QueryRunner.createH2QueryRunner;
+import static io.prestosql.plugin.jdbc.JdbcMetadataSessionProperties.JOIN_PUSHDOWN_ENABLED;
 import static io.prestosql.plugin.jdbc.TypeHandlingJdbcPropertiesProvider.UNSUPPORTED_TYPE_HANDLING;
 import static io.prestosql.plugin.jdbc.UnsupportedTypeHandling.CONVERT_TO_VARCHAR;
 import static io.prestosql.plugin.jdbc.UnsupportedTypeHandling.IGNORE;
+import static io.prestosql.sql.planner.optimizations.PlanNodeSearcher.searchFrom;
 import static java.lang.String.format;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
 
 public class TestJdbcIntegrationSmokeTest
         extends AbstractTestIntegrationSmokeTest
 {
-    private final Map<String, String> properties = TestingH2JdbcModule.createProperties();
+    private final Map<String, String> properties = ImmutableMap.<String, String>builder()
+            .putAll(TestingH2JdbcModule.createProperties())
+            .put("join-pushdown.enabled", "true")
+            .build();
 
     @Override
     protected QueryRunner createQueryRunner()
@@ -119,6 +131,162 @@ public class TestJdbcIntegrationSmokeTest
         }
     }
 
+    @Test
+    public void testAggregationPushdown()
+    {
+        assertAggregationPushedDown("SELECT count(*) FROM nation");
+        assertAggregationPushedDown("SELECT regionkey, count(*), min(nationkey), max(nationkey) FROM nation GROUP BY regionkey");
+        assertAggregationPushedDown("SELECT regionkey, count(nationkey) FROM nation GROUP BY regionkey");
+
+        // H2 sums bigint as decimal and double in a different order than Presto does
+        assertAggregationNotPushedDown("SELECT regionkey, sum(nationkey) FROM nation GROUP BY regionkey");
+        assertAggregationNotPushedDown("SELECT orderstatus, sum(totalprice) FROM orders GROUP BY orderstatus");
+        // aggregations over a filter are not pushed down, as the filter remains in the plan
+        assertQuery("SELECT regionkey, count(*) FROM nation WHERE name LIKE 'A%' GROUP BY regionkey");
+        // varchar ordering depends on the collation of the remote database
+        assertQuery(getSession(), "SELECT max(name) FROM nation", "SELECT 'VIETNAM'", plan -> assertTrue(hasAggregation(plan)));
+        // aggregation with a mask is not pushed down
+        assertQuery(getSession(), "SELECT count(DISTINCT regionkey), sum(nationkey) FROM nation", "SELECT 5, 300", plan -> assertTrue(hasAggregation(plan)));
+    }
+
+    @Test
+    public void testAggregationPushdownWithTextGroupingKeys()
+    {
+        try (TestTable table = new TestTable(
+                getSqlExecutor(),
+                "tpch.test_text_grouping_keys",
+                "(key_column varchar(10), value_column int)",
+                ImmutableList.of(
+                        "'a', 1",
+                        "'A', 2",
+                        "'a ', 3",
+                        "'a', 4"))) {
+            // case insensitive collations or collations ignoring trailing spaces would merge these groups remotely
+            assertAggregationNotPushedDown(
+                    format("SELECT key_column, count(*), min(value_column) FROM %s GROUP BY key_column", table.getName()),
+                    "VALUES ('a', 2, 1), ('A', 1, 2), ('a ', 1, 3)");
+            // text columns are not pushed down even when they are only a part of the grouping key
+            assertAggregationNotPushedDown(
+                    format("SELECT key_column, value_column, count(*) FROM %s GROUP BY key_column, value_column", table.getName()),
+                    "VALUES ('a', 1, 1), ('A', 2, 1), ('a ', 3, 1), ('a', 4, 1)");
+            assertAggregationPushedDown(
+                    format("SELECT count(*), min(value_column) FROM %s", table.getName()),
+                    "VALUES (4, 1)");
+        }
+    }
+
+    @Test
+    public void testSumPushdown()
+    {
+        try (TestTable table = new TestTable(
+                getSqlExecutor(),
+                "tpch.test_sum_pushdown",
+                "(group_column int, int_column int, bigint_column bigint)",
+                ImmutableList.of(
+                        "1, 2147483647, 9223372036854775807",
+                        "1, 2147483647, 1",
+                        "2, -2147483648, -9223372036854775808"))) {
+            // integer is summed as bigint by both H2 and Presto
+            assertAggregationPushedDown(
+                    format("SELECT group_column, sum(int_column) FROM %s GROUP BY group_column", table.getName()),
+                    "VALUES (1, 4294967294), (2, -2147483648)");
+            // bigint is summed as decimal by H2, so the overflow has to be detected by Presto
+            assertQueryFails(
+                    format("SELECT group_column, sum(bigint_column) FROM %s GROUP BY group_column", table.getName()),
+                    "bigint addition overflow: .*");
+        }
+    }
+
+    @Test
+    public void testTopNPushdown()
+    {
+        assertTopNPushedDown("SELECT orderkey, totalprice FROM orders ORDER BY orderkey DESC LIMIT 10");
+        assertTopNPushedDown("SELECT orderkey, custkey FROM orders ORDER BY custkey ASC NULLS LAST, orderkey DESC LIMIT 7");
+        assertTopNPushedDown("SELECT nationkey, name FROM nation ORDER BY name DESC NULLS FIRST LIMIT 3");
+
+        // the TopN over a filter is not pushed down, as the filter remains in the plan
+        assertQuery(
+                getSession(),
+                "SELECT orderkey FROM orders WHERE comment LIKE '%special%' ORDER BY orderkey LIMIT 3",
+                "SELECT orderkey FROM orders WHERE comment LIKE '%special%' ORDER BY orderkey LIMIT 3",
+                plan -> assertFalse(hasTopNTableScan(plan)));
+    }
+
+    @Test
+    public void testJoinPushdown()
+    {
+        assertJoinPushedDown("SELECT n.name, r.name FROM nation n JOIN region r ON n.regionkey = r.regionkey");
+        assertJoinPushedDown("SELECT r.name, n.name FROM region r LEFT JOIN nation n ON n.nationkey < r.regionkey");
+        assertJoinPushedDown("SELECT n.name, r.name FROM nation n RIGHT JOIN region r ON n.regionkey = r.regionkey");
+        assertJoinPushedDown("SELECT p.name, n.name, r.name FROM part p JOIN nation n ON p.partkey = n.nationkey JOIN region r ON n.regionkey = r.regionkey");
+        assertJoinPushedDown("SELECT count(*) FROM nation n JOIN region r ON n.regionkey = r.regionkey");
+
+        // varchar comparisons depend on the collation of the remote database
+        assertJoinNotPushedDown(getSession(), "SELECT n.nationkey FROM nation n JOIN region r ON n.name = r.name");
+        // the join is pushed down only when enabled
+        Session joinPushdownDisabled = Session.builder(getSession())
+                .setCatalogSessionProperty("jdbc", JOIN_PUSHDOWN_ENABLED, "false")
+                .build();
+        assertJoinNotPushedDown(joinPushdownDisabled, "SELECT n.name, r.name FROM nation n JOIN region r ON n.regionkey = r.regionkey");
+    }
+
+    private void assertAggregationPushedDown(String sql)
+    {
+        assertAggregationPushedDown(sql, sql);
+    }
+
+    private void assertAggregationPushedDown(String sql, String expected)
+    {
+        assertQuery(getSession(), sql, expected, plan -> assertFalse(hasAggregation(plan), "Aggregation not pushed down"));
+    }
+
+    private void assertAggregationNotPushedDown(String sql)
+    {
+        assertAggregationNotPushedDown(sql, sql);
+    }
+
+    private void assertAggregationNotPushedDown(String sql, String expected)
+    {
+        assertQuery(getSession(), sql, expected, plan -> assertTrue(hasAggregation(plan), "Aggregation pushed down"));
+    }
+
+    private void assertTopNPushedDown(String sql)
+    {
+        assertQuery(getSession(), sql, sql, plan -> assertTrue(hasTopNTableScan(plan), "TopN not pushed down"));
+    }
+
+    private void assertJoinPushedDown(String sql)
+    {
+        assertQuery(getSession(), sql, sql, plan -> assertFalse(hasJoin(plan), "Join not pushed down"));
+    }
+
+    private void assertJoinNotPushedDown(Session session, String sql)
+    {
+        assertQuery(session, sql, sql, plan -> assertTrue(hasJoin(plan), "Join pushed down"));
+    }
+
+    private static boolean hasJoin(Plan plan)
+    {
+        return searchFrom(plan.getRoot())
+                .where(JoinNode.class::isInstance)
+                .matches();
+    }
+
+    private static boolean hasTopNTableScan(Plan plan)
+    {
+        return searchFrom(plan.getRoot())
+                .where(node -> node instanceof TableScanNode &&
+                        ((JdbcTableHandle) ((TableScanNode) node).getTable().getConnectorHandle()).getSortOrder().isPresent())
+                .matches();
+    }
+
+    private static boolean hasAggregation(Plan plan)
+    {
+        return searchFrom(plan.getRoot())
+                .where(AggregationNode.class::isInstance)
+                .matches();
+    }
+
     private Session unsupportedTypeHandling(UnsupportedTypeHandling unsupportedTypeHandling)
     {
         return Session.builder(getSession())
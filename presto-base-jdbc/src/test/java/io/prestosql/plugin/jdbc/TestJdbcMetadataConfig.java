@@ -28,7 +28,8 @@ public class TestJdbcMetadataConfig
     public void testDefaults()
     {
         assertRecordedDefaults(recordDefaults(JdbcMetadataConfig.class)
-                .setAllowDropTable(false));
+                .setAllowDropTable(false)
+                .setJoinPushdownEnabled(false));
     }
 
     @Test
@@ -36,10 +37,12 @@ public class TestJdbcMetadataConfig
     {
         Map<String, String> properties = new ImmutableMap.Builder<String, String>()
                 .put("allow-drop-table", "true")
+                .put("join-pushdown.enabled", "true")
                 .build();
 
         JdbcMetadataConfig expected = new JdbcMetadataConfig()
-                .setAllowDropTable(true);
+                .setAllowDropTable(true)
+                .setJoinPushdownEnabled(true);
 
         assertFullMapping(properties, expected);
     }
@@ -18,6 +18,9 @@ import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.ImmutableSet;
 import io.prestosql.spi.connector.ColumnHandle;
 import io.prestosql.spi.connector.ConnectorSession;
+import io.prestosql.spi.connector.JoinCondition;
+import io.prestosql.spi.connector.JoinType;
+import io.prestosql.spi.connector.SchemaTableName;
 import io.prestosql.spi.predicate.Domain;
 import io.prestosql.spi.predicate.Range;
 import io.prestosql.spi.predicate.SortedRangeSet;
@@ -43,6 +46,7 @@ import java.time.LocalTime;
 import java.util.List;
 import java.util.Locale;
 import java.util.Optional;
+import java.util.OptionalLong;
 import java.util.function.Function;
 
 import static io.airlift.slice.Slices.utf8Slice;
@@ -385,6 +389,63 @@ public class TestJdbcQueryBuilder
         }
     }
 
+    @Test
+    public void testBuildSqlWithJoin()
+            throws SQLException
+    {
+        JdbcColumnHandle leftColumn = columns.get(0);
+        JdbcColumnHandle rightColumn = columns.get(9);
+        JdbcTableHandle left = new JdbcTableHandle(
+                new SchemaTableName("schema", "test_table"),
+                "",
+                "",
+                "test_table",
+                Optional.of(ImmutableList.of(leftColumn)),
+                TupleDomain.withColumnDomains(ImmutableMap.of(leftColumn, Domain.create(SortedRangeSet.copyOf(BIGINT, ImmutableList.of(Range.lessThan(BIGINT, 10L))), false))),
+                OptionalLong.empty());
+        JdbcTableHandle right = new JdbcTableHandle(
+                new SchemaTableName("schema", "test_table"),
+                "",
+                "",
+                "test_table",
+                Optional.of(ImmutableList.of(rightColumn)),
+                TupleDomain.all(),
+                OptionalLong.empty());
+        List<JdbcColumnHandle> outputColumns = ImmutableList.of(
+                JdbcColumnHandle.builderFrom(leftColumn).setColumnName("left_col").build(),
+                JdbcColumnHandle.builderFrom(rightColumn).setColumnName("right_col").build());
+        JdbcJoin join = new JdbcJoin(
+                JoinType.INNER,
+                left,
+                right,
+                ImmutableList.of(new JdbcJoinCondition(leftColumn, JoinCondition.Operator.EQUAL, rightColumn)),
+                outputColumns);
+        JdbcTableHandle table = new JdbcTableHandle(
+                left.getSchemaTableName(),
+                "",
+                "",
+                "test_table",
+                Optional.empty(),
+                TupleDomain.withColumnDomains(ImmutableMap.of(outputColumns.get(1), Domain.create(SortedRangeSet.copyOf(INTEGER, ImmutableList.of(Range.greaterThanOrEqual(INTEGER, 5L))), false))),
+                OptionalLong.empty(),
+                Optional.empty(),
+                Optional.empty(),
+                Optional.of(join));
+
+        Connection connection = database.getConnection();
+        try (PreparedStatement preparedStatement = new QueryBuilder("\"").buildSql(jdbcClient, SESSION, connection, table, outputColumns, Optional.empty(), identity());
+                ResultSet resultSet = preparedStatement.executeQuery()) {
+            ImmutableSet.Builder<Long> builder = ImmutableSet.builder();
+            while (resultSet.next()) {
+                assertEquals(resultSet.getLong("left_col"), resultSet.getLong("right_col"));
+                builder.add(resultSet.getLong("left_col"));
+            }
+            assertEquals(builder.build(), ImmutableSet.of(5L, 6L, 7L, 8L, 9L));
+
+            assertContains(preparedStatement.toString(), "l.\"col_0\" = r.\"col_9\"");
+        }
+    }
+
     @Test
     public void testEmptyBuildSql()
             throws SQLException
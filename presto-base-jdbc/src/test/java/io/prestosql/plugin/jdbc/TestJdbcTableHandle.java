@@ -13,12 +13,21 @@
  */
 package io.prestosql.plugin.jdbc;
 
+import com.google.common.collect.ImmutableList;
 import io.airlift.testing.EquivalenceTester;
+import io.prestosql.spi.connector.JoinCondition;
+import io.prestosql.spi.connector.JoinType;
 import io.prestosql.spi.connector.SchemaTableName;
+import io.prestosql.spi.predicate.TupleDomain;
 import org.testng.annotations.Test;
 
+import java.util.Optional;
+import java.util.OptionalLong;
+
 import static io.prestosql.plugin.jdbc.MetadataUtil.TABLE_CODEC;
 import static io.prestosql.plugin.jdbc.MetadataUtil.assertJsonRoundTrip;
+import static io.prestosql.plugin.jdbc.TestingJdbcTypeHandle.JDBC_BIGINT;
+import static io.prestosql.spi.type.BigintType.BIGINT;
 
 public class TestJdbcTableHandle
 {
@@ -28,6 +37,35 @@ public class TestJdbcTableHandle
         assertJsonRoundTrip(TABLE_CODEC, new JdbcTableHandle(new SchemaTableName("schema", "table"), "jdbcCatalog", "jdbcSchema", "jdbcTable"));
     }
 
+    @Test
+    public void testJoinJsonRoundTrip()
+    {
+        JdbcColumnHandle leftColumn = new JdbcColumnHandle("left_column", JDBC_BIGINT, BIGINT);
+        JdbcColumnHandle rightColumn = new JdbcColumnHandle("right_column", JDBC_BIGINT, BIGINT);
+        JdbcTableHandle left = new JdbcTableHandle(new SchemaTableName("schema", "left"), "jdbcCatalog", "jdbcSchema", "jdbcLeft", Optional.of(ImmutableList.of(leftColumn)), TupleDomain.all(), OptionalLong.empty());
+        JdbcTableHandle right = new JdbcTableHandle(new SchemaTableName("schema", "right"), "jdbcCatalog", "jdbcSchema", "jdbcRight", Optional.of(ImmutableList.of(rightColumn)), TupleDomain.all(), OptionalLong.empty());
+        JdbcJoin join = new JdbcJoin(
+                JoinType.LEFT_OUTER,
+                left,
+                right,
+                ImmutableList.of(new JdbcJoinCondition(leftColumn, JoinCondition.Operator.LESS_THAN, rightColumn)),
+                ImmutableList.of(
+                        JdbcColumnHandle.builderFrom(leftColumn).setColumnName("joined_left").build(),
+                        JdbcColumnHandle.builderFrom(rightColumn).setColumnName("joined_right").build()));
+
+        assertJsonRoundTrip(TABLE_CODEC, new JdbcTableHandle(
+                left.getSchemaTableName(),
+                left.getCatalogName(),
+                left.getSchemaName(),
+                left.getTableName(),
+                Optional.empty(),
+                TupleDomain.all(),
+                OptionalLong.empty(),
+                Optional.empty(),
+                Optional.empty(),
+                Optional.of(join)));
+    }
+
     @Test
     public void testEquivalence()
     {
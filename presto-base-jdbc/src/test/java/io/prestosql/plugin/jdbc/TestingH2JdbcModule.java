@@ -19,12 +19,22 @@ import com.google.inject.Module;
 import com.google.inject.Provides;
 import com.google.inject.Singleton;
 import io.prestosql.plugin.jdbc.credential.CredentialProvider;
+import io.prestosql.spi.connector.ConnectorSession;
+import io.prestosql.spi.connector.JoinType;
+import io.prestosql.spi.type.Type;
 import org.h2.Driver;
 
+import java.sql.Types;
+import java.util.List;
 import java.util.Map;
+import java.util.Optional;
 import java.util.concurrent.ThreadLocalRandom;
 
+import static io.prestosql.spi.type.IntegerType.INTEGER;
+import static io.prestosql.spi.type.SmallintType.SMALLINT;
+import static io.prestosql.spi.type.TinyintType.TINYINT;
 import static java.lang.String.format;
+import static java.util.stream.Collectors.joining;
 
 class TestingH2JdbcModule
         implements Module
@@ -36,7 +46,53 @@ class TestingH2JdbcModule
     @ForBaseJdbc
     public JdbcClient provideJdbcClient(BaseJdbcConfig config, ConnectionFactory connectionFactory)
     {
-        return new BaseJdbcClient(config, "\"", connectionFactory);
+        return new BaseJdbcClient(config, "\"", connectionFactory)
+        {
+            @Override
+            protected Optional<TopNFunction> topNFunction()
+            {
+                return Optional.of((sql, sortItems, limit) -> {
+                    String orderBy = sortItems.stream()
+                            .map(sortItem -> {
+                                String ordering = sortItem.getSortOrder().isAscending() ? "ASC" : "DESC";
+                                String nullsHandling = sortItem.getSortOrder().isNullsFirst() ? "NULLS FIRST" : "NULLS LAST";
+                                return format("%s %s %s", getSortExpression(sortItem.getColumn()), ordering, nullsHandling);
+                            })
+                            .collect(joining(", "));
+                    return format("%s ORDER BY %s LIMIT %s", sql, orderBy, limit);
+                });
+            }
+
+            @Override
+            public boolean supportsTopN(ConnectorSession session, JdbcTableHandle handle, List<JdbcSortItem> sortOrder)
+            {
+                // H2 orders text the same way as Presto
+                return true;
+            }
+
+            @Override
+            public boolean isTopNLimitGuaranteed(ConnectorSession session)
+            {
+                return true;
+            }
+
+            @Override
+            protected Optional<JdbcTypeHandle> getSumResultTypeHandle(Type argumentType)
+            {
+                // H2 sums tinyint, smallint and integer as bigint, but bigint as decimal
+                if (argumentType == TINYINT || argumentType == SMALLINT || argumentType == INTEGER) {
+                    return Optional.of(new JdbcTypeHandle(Types.BIGINT, Optional.of("bigint"), 0, 0, Optional.empty()));
+                }
+                return Optional.empty();
+            }
+
+            @Override
+            public boolean supportsJoin(ConnectorSession session, JoinType joinType, List<JdbcJoinCondition> joinConditions)
+            {
+                // H2 does not support full outer joins
+                return joinType != JoinType.FULL_OUTER && super.supportsJoin(session, joinType, joinConditions);
+            }
+        };
     }
 
     @Provides
@@ -78,6 +78,8 @@ public class BenchmarkSuite
                 new SqlRegexpLikeBenchmark(localQueryRunner),
                 new SqlApproximatePercentileBenchmark(localQueryRunner),
                 new SqlBetweenBenchmark(localQueryRunner),
+                new SqlSlidingWindowAggregationBenchmark(localQueryRunner, "sum", 1000),
+                new SqlSlidingWindowAggregationBenchmark(localQueryRunner, "variance", 1000),
 
                 // statistics benchmarks
                 new StatisticsBenchmark.LongVarianceBenchmark(localQueryRunner),
@@ -0,0 +1,44 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.prestosql.benchmark;
+
+import com.google.common.collect.ImmutableList;
+import io.prestosql.testing.LocalQueryRunner;
+
+import static io.prestosql.benchmark.BenchmarkQueryRunner.createLocalQueryRunner;
+import static java.lang.String.format;
+
+public class SqlSlidingWindowAggregationBenchmark
+        extends AbstractSqlBenchmark
+{
+    public SqlSlidingWindowAggregationBenchmark(LocalQueryRunner localQueryRunner, String function, int frameSize)
+    {
+        super(localQueryRunner,
+                format("sql_sliding_window_%s_%s_preceding", function, frameSize),
+                4,
+                5,
+                format("SELECT %s(quantity) OVER (PARTITION BY linestatus ORDER BY orderkey ROWS BETWEEN %s PRECEDING AND CURRENT ROW) " +
+                        "FROM lineitem", function, frameSize));
+    }
+
+    public static void main(String[] args)
+    {
+        LocalQueryRunner localQueryRunner = createLocalQueryRunner();
+        for (String function : ImmutableList.of("sum", "count", "avg", "variance")) {
+            for (int frameSize : ImmutableList.of(10, 1000)) {
+                new SqlSlidingWindowAggregationBenchmark(localQueryRunner, function, frameSize).runBenchmark(new SimpleLineBenchmarkResultWriter(System.out));
+            }
+        }
+    }
+}
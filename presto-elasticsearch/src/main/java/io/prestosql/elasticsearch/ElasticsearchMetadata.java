@@ -32,6 +32,8 @@ import io.prestosql.spi.connector.ConstraintApplicationResult;
 import io.prestosql.spi.connector.LimitApplicationResult;
 import io.prestosql.spi.connector.SchemaTableName;
 import io.prestosql.spi.connector.SchemaTablePrefix;
+import io.prestosql.spi.connector.SortItem;
+import io.prestosql.spi.connector.TopNApplicationResult;
 import io.prestosql.spi.predicate.Domain;
 import io.prestosql.spi.predicate.TupleDomain;
 import io.prestosql.spi.type.ArrayType;
@@ -333,16 +335,58 @@ public class ElasticsearchMetadata
                 handle.getIndex(),
                 handle.getConstraint(),
                 handle.getQuery(),
-                OptionalLong.of(limit));
+                OptionalLong.of(limit),
+                handle.getSort());
 
         return Optional.of(new LimitApplicationResult<>(handle, false));
     }
 
+    @Override
+    public Optional<TopNApplicationResult<ConnectorTableHandle>> applyTopN(
+            ConnectorSession session,
+            ConnectorTableHandle table,
+            long topNCount,
+            List<SortItem> sortItems,
+            Map<String, ColumnHandle> assignments)
+    {
+        ElasticsearchTableHandle handle = (ElasticsearchTableHandle) table;
+
+        if (handle.getSort().isPresent() || handle.getLimit().isPresent()) {
+            return Optional.empty();
+        }
+
+        ImmutableList.Builder<SortItem> sort = ImmutableList.builder();
+        for (SortItem sortItem : sortItems) {
+            ElasticsearchColumnHandle column = (ElasticsearchColumnHandle) assignments.get(sortItem.getName());
+            // only fields with doc values can be sorted on
+            if (!column.isSupportsPredicates() || BuiltinColumns.NAMES.contains(column.getName())) {
+                return Optional.empty();
+            }
+            sort.add(new SortItem(column.getName(), sortItem.getSortOrder()));
+        }
+
+        handle = new ElasticsearchTableHandle(
+                handle.getSchema(),
+                handle.getIndex(),
+                handle.getConstraint(),
+                handle.getQuery(),
+                OptionalLong.of(topNCount),
+                Optional.of(sort.build()));
+
+        // the TopN is applied to each shard independently
+        return Optional.of(new TopNApplicationResult<>(handle, false));
+    }
+
     @Override
     public Optional<ConstraintApplicationResult<ConnectorTableHandle>> applyFilter(ConnectorSession session, ConnectorTableHandle table, Constraint constraint)
     {
         ElasticsearchTableHandle handle = (ElasticsearchTableHandle) table;
 
+        if (handle.getSort().isPresent()) {
+            // the filter has to be applied after the TopN
+            return Optional.empty();
+        }
+
         Map<ColumnHandle, Domain> supported = new HashMap<>();
         Map<ColumnHandle, Domain> unsupported = new HashMap<>();
         if (constraint.getSummary().getDomains().isPresent()) {
@@ -369,7 +413,8 @@ public class ElasticsearchMetadata
                 handle.getIndex(),
                 newDomain,
                 handle.getQuery(),
-                handle.getLimit());
+                handle.getLimit(),
+                handle.getSort());
 
         return Optional.of(new ConstraintApplicationResult<>(handle, TupleDomain.withColumnDomains(unsupported)));
     }
@@ -47,6 +47,8 @@ import io.prestosql.spi.type.Type;
 import org.elasticsearch.action.search.SearchResponse;
 import org.elasticsearch.search.SearchHit;
 import org.elasticsearch.search.SearchHits;
+import org.elasticsearch.search.sort.SortBuilder;
+import org.elasticsearch.search.sort.SortBuilders;
 
 import java.util.Arrays;
 import java.util.HashMap;
@@ -61,6 +63,7 @@ import static io.prestosql.elasticsearch.BuiltinColumns.ID;
 import static io.prestosql.elasticsearch.BuiltinColumns.SCORE;
 import static io.prestosql.elasticsearch.BuiltinColumns.SOURCE;
 import static io.prestosql.elasticsearch.ElasticsearchQueryBuilder.buildSearchQuery;
+import static io.prestosql.elasticsearch.ElasticsearchQueryBuilder.buildSort;
 import static io.prestosql.spi.type.BigintType.BIGINT;
 import static io.prestosql.spi.type.BooleanType.BOOLEAN;
 import static io.prestosql.spi.type.DoubleType.DOUBLE;
@@ -127,12 +130,16 @@ public class ElasticsearchPageSource
                 .collect(toList());
 
         // sorting by _doc (index order) get special treatment in Elasticsearch and is more efficient
-        Optional<String> sort = Optional.of("_doc");
+        List<SortBuilder<?>> sort = ImmutableList.of(SortBuilders.fieldSort("_doc"));
 
-        if (table.getQuery().isPresent()) {
+        if (table.getSort().isPresent()) {
+            // the first documents in the requested order are needed for a pushed down TopN
+            sort = buildSort(table.getSort().get());
+        }
+        else if (table.getQuery().isPresent()) {
             // However, if we're using a custom Elasticsearch query, use default sorting.
             // Documents will be scored and returned based on relevance
-            sort = Optional.empty();
+            sort = ImmutableList.of();
         }
 
         long start = System.nanoTime();
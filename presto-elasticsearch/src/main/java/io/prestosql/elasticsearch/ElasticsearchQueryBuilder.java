@@ -15,6 +15,7 @@ package io.prestosql.elasticsearch;
 
 import io.airlift.slice.Slice;
 import io.prestosql.spi.connector.ConnectorSession;
+import io.prestosql.spi.connector.SortItem;
 import io.prestosql.spi.predicate.Domain;
 import io.prestosql.spi.predicate.Range;
 import io.prestosql.spi.predicate.TupleDomain;
@@ -26,16 +27,20 @@ import org.elasticsearch.index.query.QueryBuilder;
 import org.elasticsearch.index.query.QueryStringQueryBuilder;
 import org.elasticsearch.index.query.RangeQueryBuilder;
 import org.elasticsearch.index.query.TermQueryBuilder;
+import org.elasticsearch.search.sort.SortBuilder;
+import org.elasticsearch.search.sort.SortBuilders;
 
 import java.time.Instant;
 import java.time.ZoneId;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
 
 import static com.google.common.base.Preconditions.checkArgument;
 import static com.google.common.base.Preconditions.checkState;
+import static com.google.common.collect.ImmutableList.toImmutableList;
 import static com.google.common.collect.Iterables.getOnlyElement;
 import static io.prestosql.spi.type.BigintType.BIGINT;
 import static io.prestosql.spi.type.BooleanType.BOOLEAN;
@@ -48,6 +53,8 @@ import static io.prestosql.spi.type.TinyintType.TINYINT;
 import static io.prestosql.spi.type.VarcharType.VARCHAR;
 import static java.lang.Math.toIntExact;
 import static java.time.format.DateTimeFormatter.ISO_DATE_TIME;
+import static org.elasticsearch.search.sort.SortOrder.ASC;
+import static org.elasticsearch.search.sort.SortOrder.DESC;
 
 public final class ElasticsearchQueryBuilder
 {
@@ -76,6 +83,15 @@ public final class ElasticsearchQueryBuilder
         return new MatchAllQueryBuilder();
     }
 
+    public static List<SortBuilder<?>> buildSort(List<SortItem> sortItems)
+    {
+        return sortItems.stream()
+                .map(sortItem -> SortBuilders.fieldSort(sortItem.getName())
+                        .order(sortItem.getSortOrder().isAscending() ? ASC : DESC)
+                        .missing(sortItem.getSortOrder().isNullsFirst() ? "_first" : "_last"))
+                .collect(toImmutableList());
+    }
+
     private static QueryBuilder buildPredicate(ConnectorSession session, String columnName, Domain domain, Type type)
     {
         checkArgument(domain.getType().isOrderable(), "Domain type must be orderable");
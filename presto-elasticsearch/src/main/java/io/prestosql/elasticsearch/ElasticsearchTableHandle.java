@@ -15,10 +15,13 @@ package io.prestosql.elasticsearch;
 
 import com.fasterxml.jackson.annotation.JsonCreator;
 import com.fasterxml.jackson.annotation.JsonProperty;
+import com.google.common.collect.ImmutableList;
 import io.prestosql.spi.connector.ColumnHandle;
 import io.prestosql.spi.connector.ConnectorTableHandle;
+import io.prestosql.spi.connector.SortItem;
 import io.prestosql.spi.predicate.TupleDomain;
 
+import java.util.List;
 import java.util.Objects;
 import java.util.Optional;
 import java.util.OptionalLong;
@@ -33,6 +36,7 @@ public final class ElasticsearchTableHandle
     private final TupleDomain<ColumnHandle> constraint;
     private final Optional<String> query;
     private final OptionalLong limit;
+    private final Optional<List<SortItem>> sort;
 
     public ElasticsearchTableHandle(String schema, String index, Optional<String> query)
     {
@@ -42,6 +46,7 @@ public final class ElasticsearchTableHandle
 
         constraint = TupleDomain.all();
         limit = OptionalLong.empty();
+        sort = Optional.empty();
     }
 
     @JsonCreator
@@ -50,13 +55,15 @@ public final class ElasticsearchTableHandle
             @JsonProperty("index") String index,
             @JsonProperty("constraint") TupleDomain<ColumnHandle> constraint,
             @JsonProperty("query") Optional<String> query,
-            @JsonProperty("limit") OptionalLong limit)
+            @JsonProperty("limit") OptionalLong limit,
+            @JsonProperty("sort") Optional<List<SortItem>> sort)
     {
         this.schema = requireNonNull(schema, "schema is null");
         this.index = requireNonNull(index, "index is null");
         this.constraint = requireNonNull(constraint, "constraint is null");
         this.query = requireNonNull(query, "query is null");
         this.limit = requireNonNull(limit, "limit is null");
+        this.sort = requireNonNull(sort, "sort is null").map(ImmutableList::copyOf);
     }
 
     @JsonProperty
@@ -89,6 +96,15 @@ public final class ElasticsearchTableHandle
         return limit;
     }
 
+    /**
+     * Sort order of a pushed down TopN, by Elasticsearch field name. Present only together with the limit.
+     */
+    @JsonProperty
+    public Optional<List<SortItem>> getSort()
+    {
+        return sort;
+    }
+
     @Override
     public boolean equals(Object o)
     {
@@ -103,12 +119,13 @@ public final class ElasticsearchTableHandle
                 index.equals(that.index) &&
                 constraint.equals(that.constraint) &&
                 query.equals(that.query) &&
-                limit.equals(that.limit);
+                limit.equals(that.limit) &&
+                sort.equals(that.sort);
     }
 
     @Override
     public int hashCode()
     {
-        return Objects.hash(schema, index, constraint, query, limit);
+        return Objects.hash(schema, index, constraint, query, limit, sort);
     }
 }
@@ -515,6 +515,22 @@ public abstract class BaseElasticsearchSmokeTest
         assertEquals(computeActual("SELECT * FROM limit_pushdown LIMIT 2").getRowCount(), 2);
     }
 
+    @Test
+    public void testTopNPushdown()
+            throws IOException
+    {
+        String indexName = "topn_pushdown";
+
+        index(indexName, ImmutableMap.of("c1", 3, "c2", "v3"));
+        index(indexName, ImmutableMap.of("c1", 1, "c2", "v1"));
+        index(indexName, ImmutableMap.of("c1", 2, "c2", "v2"));
+        index(indexName, ImmutableMap.of("c2", "v4"));
+        assertQuery("SELECT c2 FROM topn_pushdown ORDER BY c1 LIMIT 2", "VALUES 'v1', 'v2'");
+        assertQuery("SELECT c2 FROM topn_pushdown ORDER BY c1 DESC LIMIT 2", "VALUES 'v3', 'v2'");
+        assertQuery("SELECT c2 FROM topn_pushdown ORDER BY c1 DESC NULLS FIRST LIMIT 2", "VALUES 'v4', 'v3'");
+        assertQuery("SELECT c2 FROM topn_pushdown ORDER BY c1 NULLS FIRST LIMIT 1", "VALUES 'v4'");
+    }
+
     @Test
     public void testDataTypesNested()
             throws IOException
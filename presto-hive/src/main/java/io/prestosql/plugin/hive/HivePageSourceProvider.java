@@ -55,6 +55,7 @@ import static com.google.common.collect.Maps.uniqueIndex;
 import static io.prestosql.plugin.hive.HiveColumnHandle.ColumnType.PARTITION_KEY;
 import static io.prestosql.plugin.hive.HiveColumnHandle.ColumnType.REGULAR;
 import static io.prestosql.plugin.hive.HiveColumnHandle.ColumnType.SYNTHESIZED;
+import static io.prestosql.plugin.hive.HiveColumnHandle.updateRowIdHandle;
 import static io.prestosql.plugin.hive.HivePageSourceProvider.ColumnMapping.toColumnHandles;
 import static io.prestosql.plugin.hive.util.HiveUtil.getPrefilledColumnValue;
 import static java.util.Objects.requireNonNull;
@@ -129,6 +130,36 @@ public class HivePageSourceProvider
         throw new RuntimeException("Could not find a file reader for split " + hiveSplit);
     }
 
+    @Override
+    public Optional<String> getCacheKey(ConnectorTransactionHandle transaction, ConnectorSession session, ConnectorSplit split, ConnectorTableHandle table, List<ColumnHandle> columns)
+    {
+        HiveSplit hiveSplit = (HiveSplit) split;
+        // The effective predicate is only used to skip data that the engine filters anyway,
+        // except for S3 Select, and bucket conversion drops the rows of the other buckets.
+        if (hiveSplit.getFileModifiedTime() <= 0 ||
+                hiveSplit.getDeleteDeltaLocations().isPresent() ||
+                hiveSplit.getBucketConversion().isPresent() ||
+                hiveSplit.isS3SelectPushdownEnabled() ||
+                columns.contains(updateRowIdHandle())) {
+            return Optional.empty();
+        }
+
+        StringBuilder key = new StringBuilder()
+                .append(hiveSplit.getPath()).append(':')
+                .append(hiveSplit.getStart()).append(':')
+                .append(hiveSplit.getLength()).append(':')
+                .append(hiveSplit.getFileSize()).append(':')
+                .append(hiveSplit.getFileModifiedTime()).append(':')
+                .append(hiveSplit.getPartitionName()).append(':')
+                .append(hiveSplit.getBucketNumber()).append(':')
+                .append(hiveSplit.getTableToPartitionMapping());
+        for (ColumnHandle column : columns) {
+            HiveColumnHandle hiveColumn = (HiveColumnHandle) column;
+            key.append(':').append(hiveColumn).append(':').append(hiveColumn.getBaseHiveColumnIndex());
+        }
+        return Optional.of(key.toString());
+    }
+
     public static Optional<ConnectorPageSource> createHivePageSource(
             Set<HivePageSourceFactory> pageSourceFactories,
             Set<HiveRecordCursorProvider> cursorProviders,
@@ -234,6 +234,19 @@ public class IcebergMetadata
                 .collect(toList());
     }
 
+    @Override
+    public Optional<String> getDataVersion(ConnectorSession session, ConnectorTableHandle tableHandle)
+    {
+        IcebergTableHandle table = (IcebergTableHandle) tableHandle;
+        org.apache.iceberg.Table icebergTable = getIcebergTable(metastore, hdfsEnvironment, session, table.getSchemaTableName());
+        Optional<Long> snapshotId = table.getSnapshotId();
+        if (!snapshotId.isPresent() && icebergTable.currentSnapshot() != null) {
+            snapshotId = Optional.of(icebergTable.currentSnapshot().snapshotId());
+        }
+        // columns can change without a new snapshot
+        return snapshotId.map(id -> id + ":" + SchemaParser.toJson(icebergTable.schema()));
+    }
+
     @Override
     public Map<String, ColumnHandle> getColumnHandles(ConnectorSession session, ConnectorTableHandle tableHandle)
     {
@@ -15,7 +15,11 @@ package io.prestosql.plugin.iceberg;
 
 import com.google.common.collect.ImmutableMap;
 import io.prestosql.Session;
+import io.prestosql.metadata.Metadata;
+import io.prestosql.metadata.QualifiedObjectName;
+import io.prestosql.metadata.TableHandle;
 import io.prestosql.testing.AbstractTestIntegrationSmokeTest;
+import io.prestosql.testing.DistributedQueryRunner;
 import io.prestosql.testing.MaterializedResult;
 import io.prestosql.testing.QueryRunner;
 import io.prestosql.testing.assertions.Assert;
@@ -23,16 +27,21 @@ import org.apache.iceberg.FileFormat;
 import org.intellij.lang.annotations.Language;
 import org.testng.annotations.Test;
 
+import java.util.Optional;
 import java.util.function.BiConsumer;
 
 import static com.google.common.collect.Iterables.getOnlyElement;
+import static io.prestosql.plugin.iceberg.IcebergQueryRunner.ICEBERG_CATALOG;
 import static io.prestosql.plugin.iceberg.IcebergQueryRunner.createIcebergQueryRunner;
 import static io.prestosql.spi.type.VarcharType.VARCHAR;
 import static io.prestosql.testing.MaterializedResult.resultBuilder;
+import static io.prestosql.transaction.TransactionBuilder.transaction;
 import static java.lang.String.format;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.testng.Assert.assertEquals;
 import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertNotEquals;
+import static org.testng.Assert.assertTrue;
 
 public class TestIcebergSmoke
         extends AbstractTestIntegrationSmokeTest
@@ -293,6 +302,41 @@ public class TestIcebergSmoke
         dropTable(session, "test_schema_evolution_drop_middle");
     }
 
+    @Test
+    public void testDataVersion()
+    {
+        assertUpdate("CREATE TABLE test_data_version (x bigint)");
+        assertUpdate("INSERT INTO test_data_version VALUES 1", 1);
+        Optional<String> version = getDataVersion("test_data_version");
+        assertTrue(version.isPresent());
+        assertEquals(getDataVersion("test_data_version"), version);
+
+        // every insert commits a new snapshot
+        assertUpdate("INSERT INTO test_data_version VALUES 2", 1);
+        Optional<String> insertVersion = getDataVersion("test_data_version");
+        assertTrue(insertVersion.isPresent());
+        assertNotEquals(insertVersion, version);
+
+        // the schema is part of the version
+        assertUpdate("ALTER TABLE test_data_version ADD COLUMN y bigint");
+        assertNotEquals(getDataVersion("test_data_version"), insertVersion);
+
+        dropTable(getSession(), "test_data_version");
+    }
+
+    private Optional<String> getDataVersion(String tableName)
+    {
+        Metadata metadata = ((DistributedQueryRunner) getQueryRunner()).getCoordinator().getMetadata();
+        return transaction(getQueryRunner().getTransactionManager(), getQueryRunner().getAccessControl())
+                .readOnly()
+                .execute(getSession(), transactionSession -> {
+                    QualifiedObjectName name = new QualifiedObjectName(ICEBERG_CATALOG, "tpch", tableName);
+                    TableHandle table = metadata.getTableHandle(transactionSession, name)
+                            .orElseThrow(() -> new AssertionError("table not found: " + name));
+                    return metadata.getDataVersion(transactionSession, table);
+                });
+    }
+
     private void testWithAllFileFormats(BiConsumer<Session, FileFormat> test)
     {
         test.accept(getSession(), FileFormat.PARQUET);
@@ -37,8 +37,10 @@ import static io.prestosql.plugin.base.session.PropertyMetadataUtil.dataSizeProp
 import static io.prestosql.plugin.base.session.PropertyMetadataUtil.durationProperty;
 import static io.prestosql.spi.StandardErrorCode.INVALID_SESSION_PROPERTY;
 import static io.prestosql.spi.session.PropertyMetadata.booleanProperty;
+import static io.prestosql.spi.session.PropertyMetadata.doubleProperty;
 import static io.prestosql.spi.session.PropertyMetadata.enumProperty;
 import static io.prestosql.spi.session.PropertyMetadata.integerProperty;
+import static io.prestosql.spi.session.PropertyMetadata.longProperty;
 import static io.prestosql.spi.session.PropertyMetadata.stringProperty;
 import static io.prestosql.spi.type.BigintType.BIGINT;
 import static io.prestosql.spi.type.IntegerType.INTEGER;
@@ -55,6 +57,8 @@ public final class SystemSessionProperties
     public static final String JOIN_MAX_BROADCAST_TABLE_SIZE = "join_max_broadcast_table_size";
     public static final String DISTRIBUTED_INDEX_JOIN = "distributed_index_join";
     public static final String HASH_PARTITION_COUNT = "hash_partition_count";
+    public static final String ADAPTIVE_HASH_PARTITION_COUNT_ENABLED = "adaptive_hash_partition_count_enabled";
+    public static final String TARGET_HASH_PARTITION_SIZE = "target_hash_partition_size";
     public static final String GROUPED_EXECUTION = "grouped_execution";
     public static final String DYNAMIC_SCHEDULE_FOR_GROUPED_EXECUTION = "dynamic_schedule_for_grouped_execution";
     public static final String PREFER_STREAMING_OPERATORS = "prefer_streaming_operators";
@@ -129,6 +133,13 @@ public final class SystemSessionProperties
     public static final String REQUIRED_WORKERS_COUNT = "required_workers_count";
     public static final String REQUIRED_WORKERS_MAX_WAIT_TIME = "required_workers_max_wait_time";
     public static final String COST_ESTIMATION_WORKER_COUNT = "cost_estimation_worker_count";
+    public static final String OFF_HEAP_HASH_TABLE = "off_heap_hash_table";
+    public static final String JOIN_BATCH_PROBE_ENABLED = "join_batch_probe_enabled";
+    public static final String ADAPTIVE_PARTIAL_AGGREGATION_ENABLED = "adaptive_partial_aggregation_enabled";
+    public static final String ADAPTIVE_PARTIAL_AGGREGATION_MIN_ROWS = "adaptive_partial_aggregation_min_rows";
+    public static final String ADAPTIVE_PARTIAL_AGGREGATION_UNIQUE_ROWS_RATIO_THRESHOLD = "adaptive_partial_aggregation_unique_rows_ratio_threshold";
+    public static final String SPLIT_RESULT_CACHE_ENABLED = "split_result_cache_enabled";
+    public static final String QUERY_RESULT_CACHE_ENABLED = "query_result_cache_enabled";
 
     private final List<PropertyMetadata<?>> sessionProperties;
 
@@ -177,6 +188,16 @@ public final class SystemSessionProperties
                         "Number of partitions for distributed joins and aggregations",
                         queryManagerConfig.getInitialHashPartitions(),
                         false),
+                booleanProperty(
+                        ADAPTIVE_HASH_PARTITION_COUNT_ENABLED,
+                        "Choose the number of partitions of stages reading only remote sources from the size of their input",
+                        queryManagerConfig.isAdaptiveHashPartitionCountEnabled(),
+                        false),
+                dataSizeProperty(
+                        TARGET_HASH_PARTITION_SIZE,
+                        "Amount of input data per partition when the number of partitions is chosen adaptively",
+                        queryManagerConfig.getTargetHashPartitionSize(),
+                        false),
                 booleanProperty(
                         GROUPED_EXECUTION,
                         "Use grouped execution when possible",
@@ -564,7 +585,42 @@ public final class SystemSessionProperties
                         COST_ESTIMATION_WORKER_COUNT,
                         "Set the estimate count of workers while planning",
                         null,
-                        true));
+                        true),
+                booleanProperty(
+                        OFF_HEAP_HASH_TABLE,
+                        "Keep the hash tables of joins and of aggregations on a single bigint column outside of the Java heap",
+                        featuresConfig.isOffHeapHashTableEnabled(),
+                        false),
+                booleanProperty(
+                        JOIN_BATCH_PROBE_ENABLED,
+                        "Look up the join positions of a whole probe page at once when the join hash table supports it",
+                        featuresConfig.isJoinBatchProbeEnabled(),
+                        false),
+                booleanProperty(
+                        ADAPTIVE_PARTIAL_AGGREGATION_ENABLED,
+                        "Stop partial aggregation and pass rows through when it does not reduce the number of rows enough",
+                        featuresConfig.isAdaptivePartialAggregationEnabled(),
+                        false),
+                longProperty(
+                        ADAPTIVE_PARTIAL_AGGREGATION_MIN_ROWS,
+                        "Minimum number of rows a partial aggregation must process before it can be turned off",
+                        featuresConfig.getAdaptivePartialAggregationMinRows(),
+                        false),
+                doubleProperty(
+                        ADAPTIVE_PARTIAL_AGGREGATION_UNIQUE_ROWS_RATIO_THRESHOLD,
+                        "Ratio of output rows to input rows above which partial aggregation is turned off",
+                        featuresConfig.getAdaptivePartialAggregationUniqueRowsRatioThreshold(),
+                        false),
+                booleanProperty(
+                        SPLIT_RESULT_CACHE_ENABLED,
+                        "Reuse the cached output of table scans with deterministic filters and projections on workers with split-result-cache.enabled",
+                        false,
+                        false),
+                booleanProperty(
+                        QUERY_RESULT_CACHE_ENABLED,
+                        "Reuse the cached results of identical queries over unchanged tables on a coordinator with query-result-cache.enabled",
+                        false,
+                        false));
     }
 
     public List<PropertyMetadata<?>> getSessionProperties()
@@ -602,6 +658,16 @@ public final class SystemSessionProperties
         return session.getSystemProperty(HASH_PARTITION_COUNT, Integer.class);
     }
 
+    public static boolean isAdaptiveHashPartitionCountEnabled(Session session)
+    {
+        return session.getSystemProperty(ADAPTIVE_HASH_PARTITION_COUNT_ENABLED, Boolean.class);
+    }
+
+    public static DataSize getTargetHashPartitionSize(Session session)
+    {
+        return session.getSystemProperty(TARGET_HASH_PARTITION_SIZE, DataSize.class);
+    }
+
     public static boolean isGroupedExecutionEnabled(Session session)
     {
         return session.getSystemProperty(GROUPED_EXECUTION, Boolean.class);
@@ -1014,4 +1080,39 @@ public final class SystemSessionProperties
     {
         return session.getSystemProperty(COST_ESTIMATION_WORKER_COUNT, Integer.class);
     }
+
+    public static boolean isOffHeapHashTableEnabled(Session session)
+    {
+        return session.getSystemProperty(OFF_HEAP_HASH_TABLE, Boolean.class);
+    }
+
+    public static boolean isJoinBatchProbeEnabled(Session session)
+    {
+        return session.getSystemProperty(JOIN_BATCH_PROBE_ENABLED, Boolean.class);
+    }
+
+    public static boolean isAdaptivePartialAggregationEnabled(Session session)
+    {
+        return session.getSystemProperty(ADAPTIVE_PARTIAL_AGGREGATION_ENABLED, Boolean.class);
+    }
+
+    public static long getAdaptivePartialAggregationMinRows(Session session)
+    {
+        return session.getSystemProperty(ADAPTIVE_PARTIAL_AGGREGATION_MIN_ROWS, Long.class);
+    }
+
+    public static double getAdaptivePartialAggregationUniqueRowsRatioThreshold(Session session)
+    {
+        return session.getSystemProperty(ADAPTIVE_PARTIAL_AGGREGATION_UNIQUE_ROWS_RATIO_THRESHOLD, Double.class);
+    }
+
+    public static boolean isSplitResultCacheEnabled(Session session)
+    {
+        return session.getSystemProperty(SPLIT_RESULT_CACHE_ENABLED, Boolean.class);
+    }
+
+    public static boolean isQueryResultCacheEnabled(Session session)
+    {
+        return session.getSystemProperty(QUERY_RESULT_CACHE_ENABLED, Boolean.class);
+    }
 }
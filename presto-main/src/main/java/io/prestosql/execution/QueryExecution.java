@@ -19,8 +19,10 @@ import com.google.common.util.concurrent.ListenableFuture;
 import io.airlift.units.DataSize;
 import io.airlift.units.Duration;
 import io.prestosql.execution.QueryPreparer.PreparedQuery;
+import io.prestosql.execution.QueryResultCache.CacheKey;
 import io.prestosql.execution.QueryTracker.TrackedQuery;
 import io.prestosql.execution.StateMachine.StateChangeListener;
+import io.prestosql.execution.buffer.SerializedPage;
 import io.prestosql.execution.warnings.WarningCollector;
 import io.prestosql.memory.VersionedMemoryPoolId;
 import io.prestosql.server.BasicQueryInfo;
@@ -30,6 +32,7 @@ import io.prestosql.sql.planner.Plan;
 
 import java.net.URI;
 import java.util.List;
+import java.util.Optional;
 import java.util.Set;
 import java.util.function.Consumer;
 
@@ -98,13 +101,28 @@ public interface QueryExecution
         private final List<Type> columnTypes;
         private final Set<URI> bufferLocations;
         private final boolean noMoreBufferLocations;
+        private final Optional<CacheKey> resultCacheKey;
+        private final Optional<List<SerializedPage>> cachedResult;
 
         public QueryOutputInfo(List<String> columnNames, List<Type> columnTypes, Set<URI> bufferLocations, boolean noMoreBufferLocations)
+        {
+            this(columnNames, columnTypes, bufferLocations, noMoreBufferLocations, Optional.empty(), Optional.empty());
+        }
+
+        public QueryOutputInfo(
+                List<String> columnNames,
+                List<Type> columnTypes,
+                Set<URI> bufferLocations,
+                boolean noMoreBufferLocations,
+                Optional<CacheKey> resultCacheKey,
+                Optional<List<SerializedPage>> cachedResult)
         {
             this.columnNames = ImmutableList.copyOf(requireNonNull(columnNames, "columnNames is null"));
             this.columnTypes = ImmutableList.copyOf(requireNonNull(columnTypes, "columnTypes is null"));
             this.bufferLocations = ImmutableSet.copyOf(requireNonNull(bufferLocations, "bufferLocations is null"));
             this.noMoreBufferLocations = noMoreBufferLocations;
+            this.resultCacheKey = requireNonNull(resultCacheKey, "resultCacheKey is null");
+            this.cachedResult = requireNonNull(cachedResult, "cachedResult is null");
         }
 
         public List<String> getColumnNames()
@@ -126,5 +144,21 @@ public interface QueryExecution
         {
             return noMoreBufferLocations;
         }
+
+        /**
+         * Key under which the client protocol should cache the results of the query, if they can be cached.
+         */
+        public Optional<CacheKey> getResultCacheKey()
+        {
+            return resultCacheKey;
+        }
+
+        /**
+         * Results of the query served from the result cache, in which case there are no buffer locations.
+         */
+        public Optional<List<SerializedPage>> getCachedResult()
+        {
+            return cachedResult;
+        }
     }
 }
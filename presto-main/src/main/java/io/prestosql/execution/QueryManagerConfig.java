@@ -17,6 +17,7 @@ import io.airlift.configuration.Config;
 import io.airlift.configuration.ConfigDescription;
 import io.airlift.configuration.DefunctConfig;
 import io.airlift.configuration.LegacyConfig;
+import io.airlift.units.DataSize;
 import io.airlift.units.Duration;
 import io.airlift.units.MinDuration;
 
@@ -26,6 +27,8 @@ import javax.validation.constraints.NotNull;
 
 import java.util.concurrent.TimeUnit;
 
+import static io.airlift.units.DataSize.Unit.MEGABYTE;
+
 @DefunctConfig({
         "query.max-pending-splits-per-node",
         "query.queue-config-file",
@@ -43,9 +46,12 @@ public class QueryManagerConfig
     private int maxQueuedQueries = 5000;
 
     private int initialHashPartitions = 100;
+    private boolean adaptiveHashPartitionCountEnabled;
+    private DataSize targetHashPartitionSize = DataSize.of(64, MEGABYTE);
     private Duration minQueryExpireAge = new Duration(15, TimeUnit.MINUTES);
     private int maxQueryHistory = 100;
     private int maxQueryLength = 1_000_000;
+    private DataSize preparedStatementCacheMaxSize = DataSize.of(16, MEGABYTE);
     private int maxStageCount = 100;
     private int stageCountWarningThreshold = 50;
 
@@ -133,6 +139,33 @@ public class QueryManagerConfig
         return this;
     }
 
+    public boolean isAdaptiveHashPartitionCountEnabled()
+    {
+        return adaptiveHashPartitionCountEnabled;
+    }
+
+    @Config("query.adaptive-hash-partition-count-enabled")
+    @ConfigDescription("Choose the number of hash partitions of stages reading only remote sources from the size of their input")
+    public QueryManagerConfig setAdaptiveHashPartitionCountEnabled(boolean adaptiveHashPartitionCountEnabled)
+    {
+        this.adaptiveHashPartitionCountEnabled = adaptiveHashPartitionCountEnabled;
+        return this;
+    }
+
+    @NotNull
+    public DataSize getTargetHashPartitionSize()
+    {
+        return targetHashPartitionSize;
+    }
+
+    @Config("query.target-hash-partition-size")
+    @ConfigDescription("Amount of input data per hash partition when the number of hash partitions is chosen adaptively")
+    public QueryManagerConfig setTargetHashPartitionSize(DataSize targetHashPartitionSize)
+    {
+        this.targetHashPartitionSize = targetHashPartitionSize;
+        return this;
+    }
+
     @NotNull
     public Duration getMinQueryExpireAge()
     {
@@ -174,6 +207,20 @@ public class QueryManagerConfig
         return this;
     }
 
+    @NotNull
+    public DataSize getPreparedStatementCacheMaxSize()
+    {
+        return preparedStatementCacheMaxSize;
+    }
+
+    @Config("query.prepared-statement-cache-max-size")
+    @ConfigDescription("Total length of the prepared statements whose parsed form is kept for EXECUTE")
+    public QueryManagerConfig setPreparedStatementCacheMaxSize(DataSize preparedStatementCacheMaxSize)
+    {
+        this.preparedStatementCacheMaxSize = preparedStatementCacheMaxSize;
+        return this;
+    }
+
     @Min(1)
     public int getMaxStageCount()
     {
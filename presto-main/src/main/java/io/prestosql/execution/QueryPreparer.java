@@ -13,23 +13,34 @@
  */
 package io.prestosql.execution;
 
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheLoader;
+import com.google.common.cache.LoadingCache;
 import com.google.common.collect.ImmutableList;
+import com.google.common.util.concurrent.UncheckedExecutionException;
 import io.prestosql.Session;
 import io.prestosql.spi.PrestoException;
 import io.prestosql.spi.resourcegroups.QueryType;
+import io.prestosql.sql.gen.CacheStatsMBean;
 import io.prestosql.sql.parser.ParsingException;
+import io.prestosql.sql.parser.ParsingOptions;
+import io.prestosql.sql.parser.ParsingOptions.DecimalLiteralTreatment;
 import io.prestosql.sql.parser.SqlParser;
 import io.prestosql.sql.tree.Execute;
 import io.prestosql.sql.tree.Explain;
 import io.prestosql.sql.tree.Expression;
 import io.prestosql.sql.tree.Statement;
 import io.prestosql.util.StatementUtils;
+import org.weakref.jmx.Managed;
+import org.weakref.jmx.Nested;
 
 import javax.inject.Inject;
 
 import java.util.List;
+import java.util.Objects;
 import java.util.Optional;
 
+import static com.google.common.base.Throwables.throwIfUnchecked;
 import static io.prestosql.execution.ParameterExtractor.getParameterCount;
 import static io.prestosql.spi.StandardErrorCode.INVALID_PARAMETER_USAGE;
 import static io.prestosql.spi.StandardErrorCode.NOT_SUPPORTED;
@@ -43,10 +54,39 @@ public class QueryPreparer
 {
     private final SqlParser sqlParser;
 
-    @Inject
+    // The statements of EXECUTE are sent again with every execution, so they are only parsed once.
+    // This is a parse cache, not a plan cache: every execution is still analyzed and planned, because
+    // a plan holds table handles bound to the transaction of the query that planned it, and the
+    // optimizers fold the parameter values into those handles.
+    private final LoadingCache<PreparedStatementKey, Statement> preparedStatements;
+
     public QueryPreparer(SqlParser sqlParser)
+    {
+        this(sqlParser, 0);
+    }
+
+    @Inject
+    public QueryPreparer(SqlParser sqlParser, QueryManagerConfig config)
+    {
+        this(sqlParser, requireNonNull(config, "config is null").getPreparedStatementCacheMaxSize().toBytes());
+    }
+
+    private QueryPreparer(SqlParser sqlParser, long preparedStatementCacheMaxSize)
     {
         this.sqlParser = requireNonNull(sqlParser, "sqlParser is null");
+        // the parsed tree grows with the statement text, so the cache is bounded by the total text length
+        this.preparedStatements = CacheBuilder.newBuilder()
+                .recordStats()
+                .maximumWeight(preparedStatementCacheMaxSize)
+                .weigher((PreparedStatementKey key, Statement statement) -> key.getSql().length())
+                .build(CacheLoader.from(key -> sqlParser.createStatement(key.getSql(), new ParsingOptions(key.getDecimalLiteralTreatment()))));
+    }
+
+    @Managed
+    @Nested
+    public CacheStatsMBean getPreparedStatementsStats()
+    {
+        return new CacheStatsMBean(preparedStatements);
     }
 
     public PreparedQuery prepareQuery(Session session, String query)
@@ -63,7 +103,7 @@ public class QueryPreparer
         Optional<String> prepareSql = Optional.empty();
         if (statement instanceof Execute) {
             prepareSql = Optional.of(session.getPreparedStatementFromExecute((Execute) statement));
-            statement = sqlParser.createStatement(prepareSql.get(), createParsingOptions(session));
+            statement = getPreparedStatement(prepareSql.get(), createParsingOptions(session));
         }
 
         if (statement instanceof Explain && ((Explain) statement).isAnalyze()) {
@@ -81,6 +121,17 @@ public class QueryPreparer
         return new PreparedQuery(statement, parameters, prepareSql);
     }
 
+    private Statement getPreparedStatement(String sql, ParsingOptions parsingOptions)
+    {
+        try {
+            return preparedStatements.getUnchecked(new PreparedStatementKey(sql, parsingOptions.getDecimalLiteralTreatment()));
+        }
+        catch (UncheckedExecutionException e) {
+            throwIfUnchecked(e.getCause());
+            throw e;
+        }
+    }
+
     private static void validateParameters(Statement node, List<Expression> parameterValues)
     {
         int parameterCount = getParameterCount(node);
@@ -92,6 +143,48 @@ public class QueryPreparer
         }
     }
 
+    private static final class PreparedStatementKey
+    {
+        private final String sql;
+        private final DecimalLiteralTreatment decimalLiteralTreatment;
+
+        public PreparedStatementKey(String sql, DecimalLiteralTreatment decimalLiteralTreatment)
+        {
+            this.sql = requireNonNull(sql, "sql is null");
+            this.decimalLiteralTreatment = requireNonNull(decimalLiteralTreatment, "decimalLiteralTreatment is null");
+        }
+
+        public String getSql()
+        {
+            return sql;
+        }
+
+        public DecimalLiteralTreatment getDecimalLiteralTreatment()
+        {
+            return decimalLiteralTreatment;
+        }
+
+        @Override
+        public boolean equals(Object o)
+        {
+            if (this == o) {
+                return true;
+            }
+            if (o == null || getClass() != o.getClass()) {
+                return false;
+            }
+            PreparedStatementKey that = (PreparedStatementKey) o;
+            return sql.equals(that.sql) &&
+                    decimalLiteralTreatment == that.decimalLiteralTreatment;
+        }
+
+        @Override
+        public int hashCode()
+        {
+            return Objects.hash(sql, decimalLiteralTreatment);
+        }
+    }
+
     public static class PreparedQuery
     {
         private final Statement statement;
@@ -0,0 +1,271 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.prestosql.execution;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.primitives.Ints;
+import io.airlift.stats.CounterStat;
+import io.prestosql.Session;
+import io.prestosql.connector.CatalogName;
+import io.prestosql.execution.QueryPreparer.PreparedQuery;
+import io.prestosql.execution.buffer.SerializedPage;
+import io.prestosql.metadata.Metadata;
+import io.prestosql.metadata.ResolvedFunction;
+import io.prestosql.metadata.TableHandle;
+import io.prestosql.spi.security.SelectedRole;
+import io.prestosql.spi.type.TimeZoneKey;
+import io.prestosql.sql.ExpressionFormatter;
+import io.prestosql.sql.SqlPath;
+import io.prestosql.sql.analyzer.Analysis;
+import io.prestosql.sql.tree.CurrentTime;
+import io.prestosql.sql.tree.Node;
+import io.prestosql.sql.tree.Query;
+import io.prestosql.sql.tree.SampledRelation;
+import org.weakref.jmx.Managed;
+import org.weakref.jmx.Nested;
+
+import javax.annotation.concurrent.ThreadSafe;
+import javax.inject.Inject;
+
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+
+import static com.google.common.collect.ImmutableList.toImmutableList;
+import static io.prestosql.SystemSessionProperties.isQueryResultCacheEnabled;
+import static io.prestosql.sql.SqlFormatter.formatSql;
+import static io.prestosql.sql.util.AstUtils.preOrder;
+import static java.util.Objects.requireNonNull;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+
+/**
+ * Coordinator cache of the serialized results of queries. A query is only cached when all the
+ * tables it reads report a data version, so that a change of the data of any of them changes
+ * the cache key, and when its results do not depend on when it runs.
+ */
+@ThreadSafe
+public class QueryResultCache
+{
+    // these are deterministic within a query, but depend on its start time
+    private static final Set<String> START_TIME_FUNCTIONS = ImmutableSet.of(
+            "current_date",
+            "current_time",
+            "current_timestamp",
+            "localtime",
+            "localtimestamp",
+            "now");
+
+    private final Metadata metadata;
+    private final boolean enabled;
+    private final long maxEntrySizeInBytes;
+    private final Cache<CacheKey, List<SerializedPage>> cache;
+
+    private final CounterStat hits = new CounterStat();
+    private final CounterStat misses = new CounterStat();
+
+    @Inject
+    public QueryResultCache(QueryResultCacheConfig config, Metadata metadata)
+    {
+        requireNonNull(config, "config is null");
+        this.metadata = requireNonNull(metadata, "metadata is null");
+        this.enabled = config.isEnabled();
+        this.maxEntrySizeInBytes = config.getMaxEntrySize().toBytes();
+        this.cache = CacheBuilder.newBuilder()
+                .maximumWeight(enabled ? config.getMaxMemory().toBytes() : 0)
+                .weigher((CacheKey key, List<SerializedPage> pages) -> Ints.saturatedCast(getRetainedSizeInBytes(pages)))
+                .expireAfterWrite(config.getTtl().toMillis(), MILLISECONDS)
+                .recordStats()
+                .build();
+    }
+
+    /**
+     * Returns the key of the results of the analyzed query, or empty if they must not be cached.
+     */
+    public Optional<CacheKey> getCacheKey(Session session, PreparedQuery preparedQuery, Analysis analysis)
+    {
+        if (!enabled || !isQueryResultCacheEnabled(session)) {
+            return Optional.empty();
+        }
+
+        // views can change without a change of the data versions, and row filters and column masks depend on the access control
+        if (!(analysis.getStatement() instanceof Query) || analysis.hasViews() || analysis.hasRowFiltersOrColumnMasks()) {
+            return Optional.empty();
+        }
+        if (isTimeDependent(analysis.getStatement()) || preparedQuery.getParameters().stream().anyMatch(QueryResultCache::isTimeDependent)) {
+            return Optional.empty();
+        }
+        for (ResolvedFunction function : analysis.getResolvedFunctions()) {
+            if (!metadata.getFunctionMetadata(function).isDeterministic() || START_TIME_FUNCTIONS.contains(function.getSignature().getName())) {
+                return Optional.empty();
+            }
+        }
+
+        ImmutableList.Builder<String> dataVersions = ImmutableList.builder();
+        for (TableHandle table : analysis.getTables()) {
+            Optional<String> dataVersion = metadata.getDataVersion(session, table);
+            if (!dataVersion.isPresent()) {
+                return Optional.empty();
+            }
+            dataVersions.add(table.getCatalogName() + ":" + dataVersion.get());
+        }
+
+        return Optional.of(new CacheKey(
+                formatSql(preparedQuery.getStatement()),
+                preparedQuery.getParameters().stream()
+                        .map(ExpressionFormatter::formatExpression)
+                        .collect(toImmutableList()),
+                session,
+                dataVersions.build()));
+    }
+
+    public Optional<List<SerializedPage>> get(CacheKey key)
+    {
+        List<SerializedPage> pages = cache.getIfPresent(key);
+        if (pages == null) {
+            misses.update(1);
+            return Optional.empty();
+        }
+        hits.update(1);
+        return Optional.of(pages);
+    }
+
+    public void put(CacheKey key, List<SerializedPage> pages)
+    {
+        if (!enabled || getRetainedSizeInBytes(pages) > maxEntrySizeInBytes) {
+            return;
+        }
+        cache.put(key, ImmutableList.copyOf(pages));
+    }
+
+    public long getMaxEntrySizeInBytes()
+    {
+        return maxEntrySizeInBytes;
+    }
+
+    @Managed
+    @Nested
+    public CounterStat getHits()
+    {
+        return hits;
+    }
+
+    @Managed
+    @Nested
+    public CounterStat getMisses()
+    {
+        return misses;
+    }
+
+    @Managed
+    public long getEntries()
+    {
+        return cache.size();
+    }
+
+    @Managed
+    public long getEvictions()
+    {
+        return cache.stats().evictionCount();
+    }
+
+    private static boolean isTimeDependent(Node node)
+    {
+        return preOrder(node).anyMatch(child -> child instanceof CurrentTime || child instanceof SampledRelation);
+    }
+
+    private static long getRetainedSizeInBytes(List<SerializedPage> pages)
+    {
+        long sizeInBytes = 0;
+        for (SerializedPage page : pages) {
+            sizeInBytes += page.getRetainedSizeInBytes();
+        }
+        return sizeInBytes;
+    }
+
+    /**
+     * Identifies the results of a query by its normalized text, the session properties that can
+     * change its results, and the data versions of the tables it reads.
+     */
+    public static final class CacheKey
+    {
+        private final String sql;
+        private final List<String> parameters;
+        private final String user;
+        private final Set<String> groups;
+        private final Map<String, SelectedRole> roles;
+        private final Optional<String> catalog;
+        private final Optional<String> schema;
+        private final SqlPath path;
+        private final TimeZoneKey timeZoneKey;
+        private final Locale locale;
+        private final Map<String, String> systemProperties;
+        private final Map<CatalogName, Map<String, String>> catalogProperties;
+        private final List<String> dataVersions;
+
+        private CacheKey(String sql, List<String> parameters, Session session, List<String> dataVersions)
+        {
+            this.sql = requireNonNull(sql, "sql is null");
+            this.parameters = ImmutableList.copyOf(requireNonNull(parameters, "parameters is null"));
+            this.user = session.getUser();
+            this.groups = ImmutableSet.copyOf(session.getIdentity().getGroups());
+            this.roles = ImmutableMap.copyOf(session.getIdentity().getRoles());
+            this.catalog = session.getCatalog();
+            this.schema = session.getSchema();
+            this.path = session.getPath();
+            this.timeZoneKey = session.getTimeZoneKey();
+            this.locale = session.getLocale();
+            this.systemProperties = ImmutableMap.copyOf(session.getSystemProperties());
+            this.catalogProperties = ImmutableMap.copyOf(session.getConnectorProperties());
+            this.dataVersions = ImmutableList.copyOf(requireNonNull(dataVersions, "dataVersions is null"));
+        }
+
+        @Override
+        public boolean equals(Object o)
+        {
+            if (this == o) {
+                return true;
+            }
+            if (o == null || getClass() != o.getClass()) {
+                return false;
+            }
+            CacheKey that = (CacheKey) o;
+            return sql.equals(that.sql) &&
+                    parameters.equals(that.parameters) &&
+                    user.equals(that.user) &&
+                    groups.equals(that.groups) &&
+                    roles.equals(that.roles) &&
+                    catalog.equals(that.catalog) &&
+                    schema.equals(that.schema) &&
+                    path.equals(that.path) &&
+                    timeZoneKey.equals(that.timeZoneKey) &&
+                    locale.equals(that.locale) &&
+                    systemProperties.equals(that.systemProperties) &&
+                    catalogProperties.equals(that.catalogProperties) &&
+                    dataVersions.equals(that.dataVersions);
+        }
+
+        @Override
+        public int hashCode()
+        {
+            return Objects.hash(sql, parameters, user, groups, roles, catalog, schema, path, timeZoneKey, locale, systemProperties, catalogProperties, dataVersions);
+        }
+    }
+}
@@ -26,7 +26,9 @@ import io.airlift.log.Logger;
 import io.airlift.units.Duration;
 import io.prestosql.Session;
 import io.prestosql.execution.QueryExecution.QueryOutputInfo;
+import io.prestosql.execution.QueryResultCache.CacheKey;
 import io.prestosql.execution.StateMachine.StateChangeListener;
+import io.prestosql.execution.buffer.SerializedPage;
 import io.prestosql.execution.warnings.WarningCollector;
 import io.prestosql.memory.VersionedMemoryPoolId;
 import io.prestosql.metadata.Metadata;
@@ -612,6 +614,16 @@ public class QueryStateMachine
         outputManager.addOutputInfoListener(listener);
     }
 
+    public void setResultCacheKey(CacheKey resultCacheKey)
+    {
+        outputManager.setResultCacheKey(resultCacheKey);
+    }
+
+    public void setCachedResult(List<SerializedPage> cachedResult)
+    {
+        outputManager.setCachedResult(cachedResult);
+    }
+
     public void setColumns(List<String> columnNames, List<Type> columnTypes)
     {
         outputManager.setColumns(columnNames, columnTypes);
@@ -1127,6 +1139,10 @@ public class QueryStateMachine
         private final Set<URI> exchangeLocations = new LinkedHashSet<>();
         @GuardedBy("this")
         private boolean noMoreExchangeLocations;
+        @GuardedBy("this")
+        private Optional<CacheKey> resultCacheKey = Optional.empty();
+        @GuardedBy("this")
+        private Optional<List<SerializedPage>> cachedResult = Optional.empty();
 
         public QueryOutputManager(Executor executor)
         {
@@ -1145,6 +1161,20 @@ public class QueryStateMachine
             queryOutputInfo.ifPresent(info -> executor.execute(() -> listener.accept(info)));
         }
 
+        public synchronized void setResultCacheKey(CacheKey resultCacheKey)
+        {
+            requireNonNull(resultCacheKey, "resultCacheKey is null");
+            checkState(columnNames == null, "result cache key must be set before the output fields");
+            this.resultCacheKey = Optional.of(resultCacheKey);
+        }
+
+        public synchronized void setCachedResult(List<SerializedPage> cachedResult)
+        {
+            requireNonNull(cachedResult, "cachedResult is null");
+            checkState(columnNames == null, "cached result must be set before the output fields");
+            this.cachedResult = Optional.of(ImmutableList.copyOf(cachedResult));
+        }
+
         public void setColumns(List<String> columnNames, List<Type> columnTypes)
         {
             requireNonNull(columnNames, "columnNames is null");
@@ -1189,7 +1219,7 @@ public class QueryStateMachine
             if (columnNames == null || columnTypes == null) {
                 return Optional.empty();
             }
-            return Optional.of(new QueryOutputInfo(columnNames, columnTypes, exchangeLocations, noMoreExchangeLocations));
+            return Optional.of(new QueryOutputInfo(columnNames, columnTypes, exchangeLocations, noMoreExchangeLocations, resultCacheKey, cachedResult));
         }
 
         private void fireStateChanged(QueryOutputInfo queryOutputInfo, List<Consumer<QueryOutputInfo>> outputInfoListeners)
@@ -18,8 +18,11 @@ import com.google.common.util.concurrent.ListenableFuture;
 import io.prestosql.execution.StateMachine.StateChangeListener;
 import io.prestosql.execution.buffer.OutputBuffers;
 import io.prestosql.metadata.Split;
+import io.prestosql.spi.predicate.Domain;
 import io.prestosql.sql.planner.plan.PlanNodeId;
 
+import java.util.Map;
+
 public interface RemoteTask
 {
     TaskId getTaskId();
@@ -30,6 +33,22 @@ public interface RemoteTask
 
     TaskStatus getTaskStatus();
 
+    /**
+     * Returns the build-side domains of the dynamic filters collected by the task so far, keyed by dynamic filter ID.
+     */
+    Map<String, Domain> getDynamicFilterDomains();
+
+    /**
+     * Listener is notified asynchronously when new domains of the dynamic filters collected by the task are available.
+     */
+    void addDynamicFilterDomainsListener(Runnable listener);
+
+    /**
+     * Sends the domains of dynamic filters collected by other stages to the task, keyed by dynamic filter ID,
+     * so that its table scans can skip data.
+     */
+    void addRemoteDynamicFilterDomains(Map<String, Domain> dynamicFilterDomains);
+
     void start();
 
     void addSplits(Multimap<PlanNodeId, Split> splits);
@@ -20,8 +20,20 @@ import javax.annotation.concurrent.NotThreadSafe;
 import static com.google.common.base.Preconditions.checkArgument;
 import static com.google.common.base.Preconditions.checkState;
 import static java.lang.Double.isFinite;
+import static java.lang.Math.max;
+import static java.lang.Math.min;
 import static java.util.concurrent.TimeUnit.NANOSECONDS;
 
+/**
+ * Adjusts the number of leaf splits a task runs concurrently, so that the output buffer
+ * of the task stays at the target utilization.
+ * <p>
+ * When the expected scheduled time of a split is known, it is used to size the adjustments:
+ * the concurrency is re-evaluated at least once per expected split, and when splits are
+ * much shorter than the adjustment interval, the concurrency is increased by the number
+ * of splits expected to finish within an interval at once, since an overshoot is undone
+ * as soon as these splits finish.
+ */
 @NotThreadSafe
 public class SplitConcurrencyController
 {
@@ -30,6 +42,7 @@ public class SplitConcurrencyController
     private final long adjustmentIntervalNanos;
     private int targetConcurrency;
     private long threadNanosSinceLastAdjustment;
+    private long expectedSplitNanos;
 
     public SplitConcurrencyController(int initialConcurrency, Duration adjustmentInterval)
     {
@@ -46,12 +59,21 @@ public class SplitConcurrencyController
         checkArgument(currentConcurrency >= 0, "currentConcurrency is negative");
 
         threadNanosSinceLastAdjustment += nanos;
-        if (threadNanosSinceLastAdjustment >= adjustmentIntervalNanos && utilization < TARGET_UTILIZATION && currentConcurrency >= targetConcurrency) {
+        if (threadNanosSinceLastAdjustment >= getAdjustmentIntervalNanos() && utilization < TARGET_UTILIZATION && currentConcurrency >= targetConcurrency) {
             threadNanosSinceLastAdjustment = 0;
-            targetConcurrency++;
+            targetConcurrency += getRampUpStep();
         }
     }
 
+    /**
+     * Sets the expected scheduled time of a split, or zero if it is not known
+     */
+    public void setExpectedSplitNanos(long expectedSplitNanos)
+    {
+        checkArgument(expectedSplitNanos >= 0, "expectedSplitNanos is negative");
+        this.expectedSplitNanos = expectedSplitNanos;
+    }
+
     public int getTargetConcurrency()
     {
         checkState(targetConcurrency > 0, "Possible deadlock detected. Target concurrency is zero");
@@ -65,15 +87,32 @@ public class SplitConcurrencyController
         checkArgument(utilization >= 0, "utilization is negative");
         checkArgument(currentConcurrency >= 0, "currentConcurrency is negative");
 
-        if (threadNanosSinceLastAdjustment >= adjustmentIntervalNanos || threadNanosSinceLastAdjustment >= splitThreadNanos) {
+        if (threadNanosSinceLastAdjustment >= getAdjustmentIntervalNanos() || threadNanosSinceLastAdjustment >= splitThreadNanos) {
             if (utilization > TARGET_UTILIZATION && targetConcurrency > 1) {
                 threadNanosSinceLastAdjustment = 0;
                 targetConcurrency--;
             }
             else if (utilization < TARGET_UTILIZATION && currentConcurrency >= targetConcurrency) {
                 threadNanosSinceLastAdjustment = 0;
-                targetConcurrency++;
+                targetConcurrency += getRampUpStep();
             }
         }
     }
+
+    private long getAdjustmentIntervalNanos()
+    {
+        if (expectedSplitNanos == 0) {
+            return adjustmentIntervalNanos;
+        }
+        return min(adjustmentIntervalNanos, expectedSplitNanos);
+    }
+
+    private int getRampUpStep()
+    {
+        if (expectedSplitNanos == 0) {
+            return 1;
+        }
+        // at most double the concurrency at once
+        return (int) max(1, min(targetConcurrency, adjustmentIntervalNanos / expectedSplitNanos));
+    }
 }
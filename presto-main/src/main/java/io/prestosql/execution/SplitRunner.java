@@ -27,6 +27,23 @@ public interface SplitRunner
 
     String getInfo();
 
+    /**
+     * Id of the pipeline the split belongs to. Splits of the same pipeline
+     * share an estimate of their cost.
+     */
+    default int getPipelineId()
+    {
+        return 0;
+    }
+
+    /**
+     * Input bytes processed by the split so far
+     */
+    default long getProcessedInputBytes()
+    {
+        return 0;
+    }
+
     @Override
     void close();
 }
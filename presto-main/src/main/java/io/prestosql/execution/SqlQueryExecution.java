@@ -13,6 +13,8 @@
  */
 package io.prestosql.execution;
 
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
 import com.google.common.util.concurrent.ListenableFuture;
 import io.airlift.concurrent.SetThreadName;
 import io.airlift.log.Logger;
@@ -24,9 +26,12 @@ import io.prestosql.connector.CatalogName;
 import io.prestosql.cost.CostCalculator;
 import io.prestosql.cost.StatsCalculator;
 import io.prestosql.execution.QueryPreparer.PreparedQuery;
+import io.prestosql.execution.QueryResultCache.CacheKey;
 import io.prestosql.execution.StateMachine.StateChangeListener;
 import io.prestosql.execution.buffer.OutputBuffers;
 import io.prestosql.execution.buffer.OutputBuffers.OutputBufferId;
+import io.prestosql.execution.buffer.SerializedPage;
+import io.prestosql.execution.scheduler.DistributedDynamicFiltersCollector;
 import io.prestosql.execution.scheduler.ExecutionPolicy;
 import io.prestosql.execution.scheduler.NodeScheduler;
 import io.prestosql.execution.scheduler.SplitSchedulerStats;
@@ -42,10 +47,12 @@ import io.prestosql.server.BasicQueryInfo;
 import io.prestosql.server.protocol.Slug;
 import io.prestosql.spi.PrestoException;
 import io.prestosql.spi.QueryId;
+import io.prestosql.spi.type.Type;
 import io.prestosql.split.SplitManager;
 import io.prestosql.split.SplitSource;
 import io.prestosql.sql.analyzer.Analysis;
 import io.prestosql.sql.analyzer.Analyzer;
+import io.prestosql.sql.analyzer.Field;
 import io.prestosql.sql.analyzer.QueryExplainer;
 import io.prestosql.sql.parser.SqlParser;
 import io.prestosql.sql.planner.DistributedExecutionPlanner;
@@ -121,6 +128,8 @@ public class SqlQueryExecution
     private final Analysis analysis;
     private final StatsCalculator statsCalculator;
     private final CostCalculator costCalculator;
+    private final QueryResultCache queryResultCache;
+    private final Optional<CacheKey> resultCacheKey;
 
     private SqlQueryExecution(
             PreparedQuery preparedQuery,
@@ -146,6 +155,7 @@ public class SqlQueryExecution
             SplitSchedulerStats schedulerStats,
             StatsCalculator statsCalculator,
             CostCalculator costCalculator,
+            QueryResultCache queryResultCache,
             WarningCollector warningCollector)
     {
         try (SetThreadName ignored = new SetThreadName("Query-%s", stateMachine.getQueryId())) {
@@ -166,6 +176,7 @@ public class SqlQueryExecution
             this.schedulerStats = requireNonNull(schedulerStats, "schedulerStats is null");
             this.statsCalculator = requireNonNull(statsCalculator, "statsCalculator is null");
             this.costCalculator = requireNonNull(costCalculator, "costCalculator is null");
+            this.queryResultCache = requireNonNull(queryResultCache, "queryResultCache is null");
 
             checkArgument(scheduleSplitBatchSize > 0, "scheduleSplitBatchSize must be greater than 0");
             this.scheduleSplitBatchSize = scheduleSplitBatchSize;
@@ -174,6 +185,7 @@ public class SqlQueryExecution
 
             // analyze query
             this.analysis = analyze(preparedQuery, stateMachine, metadata, accessControl, sqlParser, queryExplainer, warningCollector);
+            this.resultCacheKey = queryResultCache.getCacheKey(stateMachine.getSession(), preparedQuery, analysis);
 
             // when the query finishes cache the final query info, and clear the reference to the output stage
             AtomicReference<SqlQueryScheduler> queryScheduler = this.queryScheduler;
@@ -333,6 +345,15 @@ public class SqlQueryExecution
                     return;
                 }
 
+                if (resultCacheKey.isPresent()) {
+                    Optional<List<SerializedPage>> cachedResult = queryResultCache.get(resultCacheKey.get());
+                    if (cachedResult.isPresent()) {
+                        finishWithCachedResult(cachedResult.get());
+                        return;
+                    }
+                    stateMachine.setResultCacheKey(resultCacheKey.get());
+                }
+
                 PlanRoot plan = planQuery();
                 planDistribution(plan);
 
@@ -355,6 +376,27 @@ public class SqlQueryExecution
         }
     }
 
+    private void finishWithCachedResult(List<SerializedPage> cachedResult)
+    {
+        // the cached pages are served by the client protocol directly, so no stage is created
+        ImmutableList.Builder<String> columnNames = ImmutableList.builder();
+        ImmutableList.Builder<Type> columnTypes = ImmutableList.builder();
+        int columnNumber = 0;
+        for (Field field : analysis.getOutputDescriptor().getVisibleFields()) {
+            columnNames.add(field.getName().orElse("_col" + columnNumber));
+            columnTypes.add(field.getType());
+            columnNumber++;
+        }
+
+        stateMachine.setCachedResult(cachedResult);
+        stateMachine.setColumns(columnNames.build(), columnTypes.build());
+        stateMachine.updateOutputLocations(ImmutableSet.of(), true);
+
+        if (stateMachine.transitionToStarting() && stateMachine.transitionToRunning()) {
+            stateMachine.transitionToFinishing();
+        }
+    }
+
     @Override
     public void addStateChangeListener(StateChangeListener<QueryState> stateChangeListener)
     {
@@ -410,7 +452,8 @@ public class SqlQueryExecution
     {
         // plan the execution on the active nodes
         DistributedExecutionPlanner distributedPlanner = new DistributedExecutionPlanner(splitManager, metadata);
-        StageExecutionPlan outputStageExecutionPlan = distributedPlanner.plan(plan.getRoot(), stateMachine.getSession());
+        DistributedDynamicFiltersCollector dynamicFiltersCollector = new DistributedDynamicFiltersCollector();
+        StageExecutionPlan outputStageExecutionPlan = distributedPlanner.plan(plan.getRoot(), stateMachine.getSession(), dynamicFiltersCollector);
 
         // ensure split sources are closed
         stateMachine.addStateChangeListener(state -> {
@@ -449,7 +492,8 @@ public class SqlQueryExecution
                 rootOutputBuffers,
                 nodeTaskMap,
                 executionPolicy,
-                schedulerStats);
+                schedulerStats,
+                dynamicFiltersCollector);
 
         queryScheduler.set(scheduler);
 
@@ -644,6 +688,7 @@ public class SqlQueryExecution
         private final Map<String, ExecutionPolicy> executionPolicies;
         private final StatsCalculator statsCalculator;
         private final CostCalculator costCalculator;
+        private final QueryResultCache queryResultCache;
 
         @Inject
         SqlQueryExecutionFactory(
@@ -666,7 +711,8 @@ public class SqlQueryExecution
                 Map<String, ExecutionPolicy> executionPolicies,
                 SplitSchedulerStats schedulerStats,
                 StatsCalculator statsCalculator,
-                CostCalculator costCalculator)
+                CostCalculator costCalculator,
+                QueryResultCache queryResultCache)
         {
             requireNonNull(config, "config is null");
             this.schedulerStats = requireNonNull(schedulerStats, "schedulerStats is null");
@@ -689,6 +735,7 @@ public class SqlQueryExecution
             this.planOptimizers = requireNonNull(planOptimizers, "planOptimizers is null").get();
             this.statsCalculator = requireNonNull(statsCalculator, "statsCalculator is null");
             this.costCalculator = requireNonNull(costCalculator, "costCalculator is null");
+            this.queryResultCache = requireNonNull(queryResultCache, "queryResultCache is null");
         }
 
         @Override
@@ -726,6 +773,7 @@ public class SqlQueryExecution
                     schedulerStats,
                     statsCalculator,
                     costCalculator,
+                    queryResultCache,
                     warningCollector);
         }
     }
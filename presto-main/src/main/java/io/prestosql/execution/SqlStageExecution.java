@@ -14,6 +14,7 @@
 package io.prestosql.execution;
 
 import com.google.common.collect.HashMultimap;
+import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.ImmutableMultimap;
 import com.google.common.collect.ImmutableSet;
@@ -28,6 +29,7 @@ import io.prestosql.failuredetector.FailureDetector;
 import io.prestosql.metadata.InternalNode;
 import io.prestosql.metadata.Split;
 import io.prestosql.spi.PrestoException;
+import io.prestosql.spi.predicate.Domain;
 import io.prestosql.split.RemoteSplit;
 import io.prestosql.sql.planner.PlanFragment;
 import io.prestosql.sql.planner.plan.PlanFragmentId;
@@ -40,6 +42,7 @@ import javax.annotation.concurrent.ThreadSafe;
 import java.net.URI;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
@@ -48,6 +51,7 @@ import java.util.Optional;
 import java.util.OptionalInt;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.Executor;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.TimeUnit;
@@ -65,6 +69,7 @@ import static io.prestosql.failuredetector.FailureDetector.State.GONE;
 import static io.prestosql.operator.ExchangeOperator.REMOTE_CONNECTOR_ID;
 import static io.prestosql.spi.StandardErrorCode.GENERIC_INTERNAL_ERROR;
 import static io.prestosql.spi.StandardErrorCode.REMOTE_HOST_GONE;
+import static io.prestosql.sql.planner.plan.ExchangeNode.Type.REPARTITION;
 import static java.util.Objects.requireNonNull;
 
 @ThreadSafe
@@ -78,6 +83,7 @@ public final class SqlStageExecution
     private final FailureDetector failureDetector;
 
     private final Map<PlanFragmentId, RemoteSourceNode> exchangeSources;
+    private final Set<PlanNodeId> repartitionedSources;
 
     private final Map<InternalNode, Set<RemoteTask>> tasks = new ConcurrentHashMap<>();
 
@@ -99,10 +105,20 @@ public final class SqlStageExecution
     @GuardedBy("this")
     private final Set<PlanFragmentId> completeSourceFragments = newConcurrentHashSet();
 
+    @GuardedBy("this")
+    private OptionalInt sourcePartitionCount = OptionalInt.empty();
+    @GuardedBy("this")
+    private int taskCount;
+
     private final AtomicReference<OutputBuffers> outputBuffers = new AtomicReference<>();
 
     private final ListenerManager<Set<Lifespan>> completedLifespansChangeListeners = new ListenerManager<>();
 
+    private final List<Runnable> dynamicFilterDomainsListeners = new CopyOnWriteArrayList<>();
+    // domains of dynamic filters collected by other stages, which are sent to every task of this stage
+    @GuardedBy("this")
+    private final Map<String, Domain> remoteDynamicFilterDomains = new HashMap<>();
+
     public static SqlStageExecution createSqlStageExecution(
             StageId stageId,
             PlanFragment fragment,
@@ -146,12 +162,17 @@ public final class SqlStageExecution
         this.failureDetector = requireNonNull(failureDetector, "failureDetector is null");
 
         ImmutableMap.Builder<PlanFragmentId, RemoteSourceNode> fragmentToExchangeSource = ImmutableMap.builder();
+        ImmutableSet.Builder<PlanNodeId> repartitionedSources = ImmutableSet.builder();
         for (RemoteSourceNode remoteSourceNode : stateMachine.getFragment().getRemoteSourceNodes()) {
             for (PlanFragmentId planFragmentId : remoteSourceNode.getSourceFragmentIds()) {
                 fragmentToExchangeSource.put(planFragmentId, remoteSourceNode);
             }
+            if (remoteSourceNode.getExchangeType() == REPARTITION) {
+                repartitionedSources.add(remoteSourceNode.getId());
+            }
         }
         this.exchangeSources = fragmentToExchangeSource.build();
+        this.repartitionedSources = repartitionedSources.build();
     }
 
     // this is a separate method to ensure that the `this` reference is not leaked during construction
@@ -160,6 +181,26 @@ public final class SqlStageExecution
         stateMachine.addStateChangeListener(newState -> checkAllTaskFinal());
     }
 
+    /**
+     * Listener is notified asynchronously when any task of this stage reports new dynamic filter domains.
+     */
+    public void addDynamicFilterDomainsListener(Runnable listener)
+    {
+        dynamicFilterDomainsListeners.add(requireNonNull(listener, "listener is null"));
+    }
+
+    /**
+     * Sends the domains of dynamic filters collected by other stages to all current and future tasks of this stage.
+     */
+    public synchronized void addRemoteDynamicFilterDomains(Map<String, Domain> dynamicFilterDomains)
+    {
+        if (getState().isDone()) {
+            return;
+        }
+        remoteDynamicFilterDomains.putAll(dynamicFilterDomains);
+        getAllTasks().forEach(task -> task.addRemoteDynamicFilterDomains(dynamicFilterDomains));
+    }
+
     public StageId getStageId()
     {
         return stateMachine.getStageId();
@@ -302,7 +343,7 @@ public final class SqlStageExecution
             ImmutableMultimap.Builder<PlanNodeId, Split> newSplits = ImmutableMultimap.builder();
             for (RemoteTask sourceTask : sourceTasks) {
                 URI exchangeLocation = sourceTask.getTaskStatus().getSelf();
-                newSplits.put(remoteSource.getId(), createRemoteSplitFor(task.getTaskId(), exchangeLocation));
+                newSplits.putAll(remoteSource.getId(), createRemoteSplitsFor(remoteSource.getId(), task.getTaskId(), exchangeLocation));
             }
             task.addSplits(newSplits.build());
         }
@@ -358,6 +399,18 @@ public final class SqlStageExecution
                 .collect(toImmutableList());
     }
 
+    /**
+     * Lets the tasks of this stage read all {@code sourcePartitionCount} partitions produced by the repartitioned
+     * remote sources, when the stage runs fewer tasks than there are partitions. Each task reads the partitions
+     * equal to its id modulo the {@code totalPartitions} passed to {@link #scheduleTask(InternalNode, int, OptionalInt)}.
+     */
+    public synchronized void setSourcePartitionCount(int sourcePartitionCount)
+    {
+        checkArgument(sourcePartitionCount > 0, "sourcePartitionCount must be positive");
+        checkState(allTasks.isEmpty(), "sourcePartitionCount must be set before tasks are scheduled");
+        this.sourcePartitionCount = OptionalInt.of(sourcePartitionCount);
+    }
+
     public synchronized Optional<RemoteTask> scheduleTask(InternalNode node, int partition, OptionalInt totalPartitions)
     {
         requireNonNull(node, "node is null");
@@ -366,6 +419,12 @@ public final class SqlStageExecution
             return Optional.empty();
         }
         checkState(!splitsScheduled.get(), "scheduleTask cannot be called once splits have been scheduled");
+        if (sourcePartitionCount.isPresent()) {
+            checkArgument(totalPartitions.isPresent(), "totalPartitions must be present when sourcePartitionCount is set");
+            checkArgument(totalPartitions.getAsInt() <= sourcePartitionCount.getAsInt(), "totalPartitions is greater than sourcePartitionCount");
+            checkArgument(taskCount == 0 || taskCount == totalPartitions.getAsInt(), "totalPartitions has changed");
+            taskCount = totalPartitions.getAsInt();
+        }
         return Optional.of(scheduleTask(node, new TaskId(stateMachine.getStageId(), partition), ImmutableMultimap.of(), totalPartitions));
     }
 
@@ -417,7 +476,7 @@ public final class SqlStageExecution
         sourceTasks.forEach((planNodeId, task) -> {
             TaskStatus status = task.getTaskStatus();
             if (status.getState() != TaskState.FINISHED) {
-                initialSplits.put(planNodeId, createRemoteSplitFor(taskId, status.getSelf()));
+                initialSplits.putAll(planNodeId, createRemoteSplitsFor(planNodeId, taskId, status.getSelf()));
             }
         });
 
@@ -436,6 +495,8 @@ public final class SqlStageExecution
                 summarizeTaskInfo);
 
         completeSources.forEach(task::noMoreSplits);
+        task.addRemoteDynamicFilterDomains(ImmutableMap.copyOf(remoteDynamicFilterDomains));
+        task.addDynamicFilterDomainsListener(() -> dynamicFilterDomainsListeners.forEach(Runnable::run));
 
         allTasks.add(taskId);
         tasks.computeIfAbsent(node, key -> newConcurrentHashSet()).add(task);
@@ -465,10 +526,23 @@ public final class SqlStageExecution
         stateMachine.recordGetSplitTime(start);
     }
 
-    private static Split createRemoteSplitFor(TaskId taskId, URI taskLocation)
+    private synchronized List<Split> createRemoteSplitsFor(PlanNodeId planNodeId, TaskId taskId, URI taskLocation)
+    {
+        if (!sourcePartitionCount.isPresent() || !repartitionedSources.contains(planNodeId)) {
+            // Fetch the results from the buffer assigned to the task based on id
+            return ImmutableList.of(createRemoteSplitFor(taskId.getId(), taskLocation));
+        }
+
+        ImmutableList.Builder<Split> splits = ImmutableList.builder();
+        for (int partition = taskId.getId(); partition < sourcePartitionCount.getAsInt(); partition += taskCount) {
+            splits.add(createRemoteSplitFor(partition, taskLocation));
+        }
+        return splits.build();
+    }
+
+    private static Split createRemoteSplitFor(int bufferId, URI taskLocation)
     {
-        // Fetch the results from the buffer assigned to the task based on id
-        URI splitLocation = uriBuilderFrom(taskLocation).appendPath("results").appendPath(String.valueOf(taskId.getId())).build();
+        URI splitLocation = uriBuilderFrom(taskLocation).appendPath("results").appendPath(String.valueOf(bufferId)).build();
         return new Split(REMOTE_CONNECTOR_ID, new RemoteSplit(splitLocation), Lifespan.taskWide());
     }
 
@@ -498,7 +572,7 @@ public final class SqlStageExecution
             }
 
             if (stageState == StageState.SCHEDULED || stageState == StageState.RUNNING) {
-                if (taskState == TaskState.RUNNING) {
+                if (taskState == TaskState.RUNNING || taskState == TaskState.FLUSHING) {
                     stateMachine.transitionToRunning();
                 }
                 if (finishedTasks.containsAll(allTasks)) {
@@ -27,13 +27,17 @@ import io.prestosql.execution.StateMachine.StateChangeListener;
 import io.prestosql.execution.buffer.BufferResult;
 import io.prestosql.execution.buffer.LazyOutputBuffer;
 import io.prestosql.execution.buffer.OutputBuffer;
+import io.prestosql.execution.buffer.OutputBufferSpiller;
 import io.prestosql.execution.buffer.OutputBuffers;
 import io.prestosql.execution.buffer.OutputBuffers.OutputBufferId;
 import io.prestosql.memory.QueryContext;
 import io.prestosql.operator.PipelineContext;
 import io.prestosql.operator.PipelineStatus;
+import io.prestosql.operator.SpillContext;
 import io.prestosql.operator.TaskContext;
 import io.prestosql.operator.TaskStats;
+import io.prestosql.spi.predicate.Domain;
+import io.prestosql.spiller.SerializedPageSpillerFactory;
 import io.prestosql.sql.planner.PlanFragment;
 import io.prestosql.sql.planner.plan.PlanNodeId;
 import org.joda.time.DateTime;
@@ -42,6 +46,7 @@ import javax.annotation.Nullable;
 
 import java.net.URI;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.OptionalInt;
 import java.util.Set;
@@ -59,6 +64,7 @@ import static com.google.common.util.concurrent.MoreExecutors.directExecutor;
 import static io.airlift.units.DataSize.succinctBytes;
 import static io.prestosql.execution.TaskState.ABORTED;
 import static io.prestosql.execution.TaskState.FAILED;
+import static io.prestosql.execution.VersionedDynamicFilterDomains.INITIAL_DYNAMIC_FILTERS_VERSION;
 import static io.prestosql.util.Failures.toFailures;
 import static java.util.Objects.requireNonNull;
 import static java.util.concurrent.TimeUnit.MILLISECONDS;
@@ -92,9 +98,10 @@ public class SqlTask
             ExecutorService taskNotificationExecutor,
             Function<SqlTask, ?> onDone,
             DataSize maxBufferSize,
+            Optional<SerializedPageSpillerFactory> outputBufferSpillerFactory,
             CounterStat failedTasks)
     {
-        SqlTask sqlTask = new SqlTask(taskId, location, nodeId, queryContext, sqlTaskExecutionFactory, taskNotificationExecutor, maxBufferSize);
+        SqlTask sqlTask = new SqlTask(taskId, location, nodeId, queryContext, sqlTaskExecutionFactory, taskNotificationExecutor, maxBufferSize, outputBufferSpillerFactory);
         sqlTask.initialize(onDone, failedTasks);
         return sqlTask;
     }
@@ -106,7 +113,8 @@ public class SqlTask
             QueryContext queryContext,
             SqlTaskExecutionFactory sqlTaskExecutionFactory,
             ExecutorService taskNotificationExecutor,
-            DataSize maxBufferSize)
+            DataSize maxBufferSize,
+            Optional<SerializedPageSpillerFactory> outputBufferSpillerFactory)
     {
         this.taskId = requireNonNull(taskId, "taskId is null");
         this.taskInstanceId = UUID.randomUUID().toString();
@@ -116,6 +124,7 @@ public class SqlTask
         this.sqlTaskExecutionFactory = requireNonNull(sqlTaskExecutionFactory, "sqlTaskExecutionFactory is null");
         requireNonNull(taskNotificationExecutor, "taskNotificationExecutor is null");
         requireNonNull(maxBufferSize, "maxBufferSize is null");
+        requireNonNull(outputBufferSpillerFactory, "outputBufferSpillerFactory is null");
 
         outputBuffer = new LazyOutputBuffer(
                 taskId,
@@ -124,10 +133,25 @@ public class SqlTask
                 maxBufferSize,
                 // Pass a memory context supplier instead of a memory context to the output buffer,
                 // because we haven't created the task context that holds the the memory context yet.
-                () -> queryContext.getTaskContextByTaskId(taskId).localSystemMemoryContext());
+                () -> queryContext.getTaskContextByTaskId(taskId).localSystemMemoryContext(),
+                outputBufferSpillerFactory.map(spillerFactory -> new OutputBufferSpiller(
+                        spillerFactory,
+                        () -> createSpillContext(queryContext.getTaskContextByTaskId(taskId)))));
         taskStateMachine = new TaskStateMachine(taskId, taskNotificationExecutor);
     }
 
+    private static SpillContext createSpillContext(TaskContext taskContext)
+    {
+        return bytes -> {
+            if (bytes >= 0) {
+                taskContext.reserveSpill(bytes);
+            }
+            else {
+                taskContext.freeSpill(-bytes);
+            }
+        };
+    }
+
     // this is a separate method to ensure that the `this` reference is not leaked during construction
     private void initialize(Function<SqlTask, ?> onDone, CounterStat failedTasks)
     {
@@ -155,7 +179,7 @@ public class SqlTask
                         return;
                     }
 
-                    if (taskHolderReference.compareAndSet(taskHolder, new TaskHolder(createTaskInfo(taskHolder), taskHolder.getIoStats()))) {
+                    if (taskHolderReference.compareAndSet(taskHolder, new TaskHolder(createTaskInfo(taskHolder), taskHolder.getIoStats(), taskHolder.getDynamicFilterDomains()))) {
                         break;
                     }
                 }
@@ -195,6 +219,11 @@ public class SqlTask
         return taskStateMachine.getTaskId();
     }
 
+    public VersionedDynamicFilterDomains getDynamicFilterDomains()
+    {
+        return taskHolderReference.get().getDynamicFilterDomains();
+    }
+
     public String getTaskInstanceId()
     {
         return taskInstanceId;
@@ -234,6 +263,7 @@ public class SqlTask
         int queuedPartitionedDrivers = 0;
         int runningPartitionedDrivers = 0;
         DataSize physicalWrittenDataSize = DataSize.ofBytes(0);
+        DataSize outputDataSize = DataSize.ofBytes(0);
         DataSize userMemoryReservation = DataSize.ofBytes(0);
         DataSize systemMemoryReservation = DataSize.ofBytes(0);
         DataSize revocableMemoryReservation = DataSize.ofBytes(0);
@@ -241,33 +271,42 @@ public class SqlTask
         Set<Lifespan> completedDriverGroups = ImmutableSet.of();
         long fullGcCount = 0;
         Duration fullGcTime = new Duration(0, MILLISECONDS);
+        long dynamicFiltersVersion = INITIAL_DYNAMIC_FILTERS_VERSION;
         if (taskHolder.getFinalTaskInfo() != null) {
             TaskStats taskStats = taskHolder.getFinalTaskInfo().getStats();
             queuedPartitionedDrivers = taskStats.getQueuedPartitionedDrivers();
             runningPartitionedDrivers = taskStats.getRunningPartitionedDrivers();
             physicalWrittenDataSize = taskStats.getPhysicalWrittenDataSize();
+            outputDataSize = taskStats.getOutputDataSize();
             userMemoryReservation = taskStats.getUserMemoryReservation();
             systemMemoryReservation = taskStats.getSystemMemoryReservation();
             revocableMemoryReservation = taskStats.getRevocableMemoryReservation();
             fullGcCount = taskStats.getFullGcCount();
             fullGcTime = taskStats.getFullGcTime();
+            dynamicFiltersVersion = taskHolder.getDynamicFilterDomains().getVersion();
         }
         else if (taskHolder.getTaskExecution() != null) {
             long physicalWrittenBytes = 0;
+            long outputBytes = 0;
             TaskContext taskContext = taskHolder.getTaskExecution().getTaskContext();
             for (PipelineContext pipelineContext : taskContext.getPipelineContexts()) {
                 PipelineStatus pipelineStatus = pipelineContext.getPipelineStatus();
                 queuedPartitionedDrivers += pipelineStatus.getQueuedPartitionedDrivers();
                 runningPartitionedDrivers += pipelineStatus.getRunningPartitionedDrivers();
                 physicalWrittenBytes += pipelineContext.getPhysicalWrittenDataSize();
+                if (pipelineContext.isOutputPipeline()) {
+                    outputBytes += pipelineContext.getOutputDataSize().getTotalCount();
+                }
             }
             physicalWrittenDataSize = succinctBytes(physicalWrittenBytes);
+            outputDataSize = succinctBytes(outputBytes);
             userMemoryReservation = taskContext.getMemoryReservation();
             systemMemoryReservation = taskContext.getSystemMemoryReservation();
             revocableMemoryReservation = taskContext.getRevocableMemoryReservation();
             completedDriverGroups = taskContext.getCompletedDriverGroups();
             fullGcCount = taskContext.getFullGcCount();
             fullGcTime = taskContext.getFullGcTime();
+            dynamicFiltersVersion = taskContext.getDynamicFiltersVersion();
         }
 
         return new TaskStatus(taskStateMachine.getTaskId(),
@@ -282,11 +321,13 @@ public class SqlTask
                 runningPartitionedDrivers,
                 isOutputBufferOverutilized(),
                 physicalWrittenDataSize,
+                outputDataSize,
                 userMemoryReservation,
                 systemMemoryReservation,
                 revocableMemoryReservation,
                 fullGcCount,
-                fullGcTime);
+                fullGcTime,
+                dynamicFiltersVersion);
     }
 
     private TaskStats getTaskStats(TaskHolder taskHolder)
@@ -360,7 +401,7 @@ public class SqlTask
         return Futures.transform(futureTaskState, input -> getTaskInfo(), directExecutor());
     }
 
-    public TaskInfo updateTask(Session session, Optional<PlanFragment> fragment, List<TaskSource> sources, OutputBuffers outputBuffers, OptionalInt totalPartitions)
+    public TaskInfo updateTask(Session session, Optional<PlanFragment> fragment, List<TaskSource> sources, OutputBuffers outputBuffers, OptionalInt totalPartitions, Map<String, Domain> dynamicFilterDomains)
     {
         try {
             // The LazyOutput buffer does not support write methods, so the actual
@@ -386,6 +427,8 @@ public class SqlTask
             }
 
             if (taskExecution != null) {
+                // the domains are added before the splits, so that the page sources of the new splits can use them
+                taskExecution.getTaskContext().addRemoteDynamicFilterDomains(dynamicFilterDomains);
                 taskExecution.addSources(sources);
             }
         }
@@ -455,12 +498,14 @@ public class SqlTask
         private final SqlTaskExecution taskExecution;
         private final TaskInfo finalTaskInfo;
         private final SqlTaskIoStats finalIoStats;
+        private final VersionedDynamicFilterDomains finalDynamicFilterDomains;
 
         private TaskHolder()
         {
             this.taskExecution = null;
             this.finalTaskInfo = null;
             this.finalIoStats = null;
+            this.finalDynamicFilterDomains = null;
         }
 
         private TaskHolder(SqlTaskExecution taskExecution)
@@ -468,13 +513,15 @@ public class SqlTask
             this.taskExecution = requireNonNull(taskExecution, "taskExecution is null");
             this.finalTaskInfo = null;
             this.finalIoStats = null;
+            this.finalDynamicFilterDomains = null;
         }
 
-        private TaskHolder(TaskInfo finalTaskInfo, SqlTaskIoStats finalIoStats)
+        private TaskHolder(TaskInfo finalTaskInfo, SqlTaskIoStats finalIoStats, VersionedDynamicFilterDomains finalDynamicFilterDomains)
         {
             this.taskExecution = null;
             this.finalTaskInfo = requireNonNull(finalTaskInfo, "finalTaskInfo is null");
             this.finalIoStats = requireNonNull(finalIoStats, "finalIoStats is null");
+            this.finalDynamicFilterDomains = requireNonNull(finalDynamicFilterDomains, "finalDynamicFilterDomains is null");
         }
 
         public boolean isFinished()
@@ -508,6 +555,17 @@ public class SqlTask
             TaskContext taskContext = taskExecution.getTaskContext();
             return new SqlTaskIoStats(taskContext.getProcessedInputDataSize(), taskContext.getInputPositions(), taskContext.getOutputDataSize(), taskContext.getOutputPositions());
         }
+
+        public VersionedDynamicFilterDomains getDynamicFilterDomains()
+        {
+            if (finalDynamicFilterDomains != null) {
+                return finalDynamicFilterDomains;
+            }
+            if (taskExecution == null) {
+                return VersionedDynamicFilterDomains.EMPTY;
+            }
+            return taskExecution.getTaskContext().getDynamicFilterDomains();
+        }
     }
 
     /**
@@ -70,6 +70,7 @@ import static com.google.common.collect.ImmutableMap.toImmutableMap;
 import static io.prestosql.SystemSessionProperties.getInitialSplitsPerNode;
 import static io.prestosql.SystemSessionProperties.getMaxDriversPerTask;
 import static io.prestosql.SystemSessionProperties.getSplitConcurrencyAdjustmentInterval;
+import static io.prestosql.SystemSessionProperties.isAdaptiveHashPartitionCountEnabled;
 import static io.prestosql.execution.SqlTaskExecution.SplitsState.ADDING_SPLITS;
 import static io.prestosql.execution.SqlTaskExecution.SplitsState.FINISHED;
 import static io.prestosql.execution.SqlTaskExecution.SplitsState.NO_MORE_SPLITS;
@@ -637,6 +638,10 @@ public class SqlTaskExecution
         }
 
         // no more output will be created
+        if (isAdaptiveHashPartitionCountEnabled(taskContext.getSession())) {
+            // the adaptive count scheduler schedules the consuming stage as soon as its source tasks stop producing output
+            taskStateMachine.transitionToFlushing();
+        }
         outputBuffer.setNoMorePages();
 
         // are there still pages in the output buffer
@@ -1081,6 +1086,18 @@ public class SqlTaskExecution
             return (partitionedSplit == null) ? "" : partitionedSplit.getSplit().getInfo().toString();
         }
 
+        @Override
+        public int getPipelineId()
+        {
+            return driverContext.getPipelineContext().getPipelineId();
+        }
+
+        @Override
+        public long getProcessedInputBytes()
+        {
+            return driverContext.getInputDataSize().getTotalCount();
+        }
+
         @Override
         public void close()
         {
@@ -41,8 +41,10 @@ import io.prestosql.memory.NodeMemoryConfig;
 import io.prestosql.memory.QueryContext;
 import io.prestosql.spi.PrestoException;
 import io.prestosql.spi.QueryId;
+import io.prestosql.spi.predicate.Domain;
 import io.prestosql.spiller.LocalSpillManager;
 import io.prestosql.spiller.NodeSpillConfig;
+import io.prestosql.spiller.SerializedPageSpillerFactory;
 import io.prestosql.sql.planner.LocalExecutionPlanner;
 import io.prestosql.sql.planner.PlanFragment;
 import org.joda.time.DateTime;
@@ -57,6 +59,7 @@ import javax.inject.Inject;
 
 import java.io.Closeable;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
 import java.util.OptionalInt;
@@ -125,6 +128,7 @@ public class SqlTaskManager
             NodeMemoryConfig nodeMemoryConfig,
             LocalSpillManager localSpillManager,
             NodeSpillConfig nodeSpillConfig,
+            SerializedPageSpillerFactory serializedPageSpillerFactory,
             GcMonitor gcMonitor)
     {
         requireNonNull(nodeInfo, "nodeInfo is null");
@@ -133,6 +137,8 @@ public class SqlTaskManager
         clientTimeout = config.getClientTimeout();
 
         DataSize maxBufferSize = config.getSinkMaxBufferSize();
+        requireNonNull(serializedPageSpillerFactory, "serializedPageSpillerFactory is null");
+        Optional<SerializedPageSpillerFactory> outputBufferSpillerFactory = config.isSinkSpillEnabled() ? Optional.of(serializedPageSpillerFactory) : Optional.empty();
 
         taskNotificationExecutor = newFixedThreadPool(config.getTaskNotificationThreads(), threadsNamed("task-notification-%s"));
         taskNotificationExecutorMBean = new ThreadPoolExecutorMBean((ThreadPoolExecutor) taskNotificationExecutor);
@@ -167,6 +173,7 @@ public class SqlTaskManager
                             return null;
                         },
                         maxBufferSize,
+                        outputBufferSpillerFactory,
                         failedTasks)));
     }
 
@@ -323,6 +330,16 @@ public class SqlTaskManager
         return sqlTask.getTaskStatus();
     }
 
+    @Override
+    public VersionedDynamicFilterDomains getTaskDynamicFilterDomains(TaskId taskId)
+    {
+        requireNonNull(taskId, "taskId is null");
+
+        SqlTask sqlTask = tasks.getUnchecked(taskId);
+        sqlTask.recordHeartbeat();
+        return sqlTask.getDynamicFilterDomains();
+    }
+
     @Override
     public ListenableFuture<TaskInfo> getTaskInfo(TaskId taskId, TaskState currentState)
     {
@@ -354,13 +371,14 @@ public class SqlTaskManager
     }
 
     @Override
-    public TaskInfo updateTask(Session session, TaskId taskId, Optional<PlanFragment> fragment, List<TaskSource> sources, OutputBuffers outputBuffers, OptionalInt totalPartitions)
+    public TaskInfo updateTask(Session session, TaskId taskId, Optional<PlanFragment> fragment, List<TaskSource> sources, OutputBuffers outputBuffers, OptionalInt totalPartitions, Map<String, Domain> dynamicFilterDomains)
     {
         requireNonNull(session, "session is null");
         requireNonNull(taskId, "taskId is null");
         requireNonNull(fragment, "fragment is null");
         requireNonNull(sources, "sources is null");
         requireNonNull(outputBuffers, "outputBuffers is null");
+        requireNonNull(dynamicFilterDomains, "dynamicFilterDomains is null");
 
         long sessionQueryMaxMemoryPerNode = getQueryMaxMemoryPerNode(session).toBytes();
         long sessionQueryTotalMaxMemoryPerNode = getQueryMaxTotalMemoryPerNode(session).toBytes();
@@ -380,7 +398,7 @@ public class SqlTaskManager
 
         SqlTask sqlTask = tasks.getUnchecked(taskId);
         sqlTask.recordHeartbeat();
-        return sqlTask.updateTask(session, fragment, sources, outputBuffers, totalPartitions);
+        return sqlTask.updateTask(session, fragment, sources, outputBuffers, totalPartitions, dynamicFilterDomains);
     }
 
     @Override
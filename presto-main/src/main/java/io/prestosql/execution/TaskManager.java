@@ -21,9 +21,11 @@ import io.prestosql.execution.buffer.BufferResult;
 import io.prestosql.execution.buffer.OutputBuffers;
 import io.prestosql.execution.buffer.OutputBuffers.OutputBufferId;
 import io.prestosql.memory.MemoryPoolAssignmentsRequest;
+import io.prestosql.spi.predicate.Domain;
 import io.prestosql.sql.planner.PlanFragment;
 
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.OptionalInt;
 
@@ -77,13 +79,19 @@ public interface TaskManager
      */
     ListenableFuture<TaskStatus> getTaskStatus(TaskId taskId, TaskState currentState);
 
+    /**
+     * Gets the build-side domains of the dynamic filters collected by the task so far.
+     * Their version is reported in {@link TaskStatus#getDynamicFiltersVersion()}.
+     */
+    VersionedDynamicFilterDomains getTaskDynamicFilterDomains(TaskId taskId);
+
     void updateMemoryPoolAssignments(MemoryPoolAssignmentsRequest assignments);
 
     /**
-     * Updates the task plan, sources and output buffers.  If the task does not
-     * already exist, is is created and then updated.
+     * Updates the task plan, sources, output buffers and the domains of dynamic filters
+     * collected by other stages.  If the task does not already exist, is is created and then updated.
      */
-    TaskInfo updateTask(Session session, TaskId taskId, Optional<PlanFragment> fragment, List<TaskSource> sources, OutputBuffers outputBuffers, OptionalInt totalPartitions);
+    TaskInfo updateTask(Session session, TaskId taskId, Optional<PlanFragment> fragment, List<TaskSource> sources, OutputBuffers outputBuffers, OptionalInt totalPartitions, Map<String, Domain> dynamicFilterDomains);
 
     /**
      * Cancels a task.  If the task does not already exist, is is created and then
@@ -56,6 +56,7 @@ public class TaskManagerConfig
     private Duration splitConcurrencyAdjustmentInterval = new Duration(100, TimeUnit.MILLISECONDS);
 
     private DataSize sinkMaxBufferSize = DataSize.of(32, Unit.MEGABYTE);
+    private boolean sinkSpillEnabled;
     private DataSize maxPagePartitioningBufferSize = DataSize.of(32, Unit.MEGABYTE);
 
     private Duration clientTimeout = new Duration(2, TimeUnit.MINUTES);
@@ -73,6 +74,7 @@ public class TaskManagerConfig
     private int taskYieldThreads = 3;
 
     private BigDecimal levelTimeMultiplier = new BigDecimal(2.0);
+    private int splitQueueShards = 1;
 
     @MinDuration("1ms")
     @MaxDuration("10s")
@@ -208,6 +210,20 @@ public class TaskManagerConfig
         return this;
     }
 
+    @Min(1)
+    public int getSplitQueueShards()
+    {
+        return splitQueueShards;
+    }
+
+    @Config("task.split-queue-shards")
+    @ConfigDescription("Number of queues the worker threads take splits from, with idle threads stealing splits from the other queues")
+    public TaskManagerConfig setSplitQueueShards(int splitQueueShards)
+    {
+        this.splitQueueShards = splitQueueShards;
+        return this;
+    }
+
     @Min(1)
     public int getMaxWorkerThreads()
     {
@@ -308,6 +324,19 @@ public class TaskManagerConfig
         return this;
     }
 
+    public boolean isSinkSpillEnabled()
+    {
+        return sinkSpillEnabled;
+    }
+
+    @Config("sink.spill-enabled")
+    @ConfigDescription("Spill output buffer pages to disk when the buffer is full, instead of blocking the producers")
+    public TaskManagerConfig setSinkSpillEnabled(boolean sinkSpillEnabled)
+    {
+        this.sinkSpillEnabled = sinkSpillEnabled;
+        return this;
+    }
+
     @NotNull
     public DataSize getMaxPagePartitioningBufferSize()
     {
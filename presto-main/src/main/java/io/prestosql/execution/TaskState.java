@@ -30,6 +30,13 @@ public enum TaskState
      * Task is running.
      */
     RUNNING(false),
+    /**
+     * Task has finished executing and output is left to be consumed.
+     * In this state, there will be no new output, but there may still be
+     * output in the output buffer. Tasks only enter this state when
+     * adaptive hash partition count is enabled for the query.
+     */
+    FLUSHING(false),
     /**
      * Task has finished executing and all output has been consumed.
      */
@@ -87,6 +87,11 @@ public class TaskStateMachine
         return failureCauses;
     }
 
+    public void transitionToFlushing()
+    {
+        taskState.setIf(TaskState.FLUSHING, currentState -> currentState == TaskState.RUNNING);
+    }
+
     public void finished()
     {
         transitionToDoneState(TaskState.FINISHED);
@@ -28,6 +28,7 @@ import static com.google.common.base.MoreObjects.toStringHelper;
 import static com.google.common.base.Preconditions.checkArgument;
 import static com.google.common.base.Preconditions.checkState;
 import static io.prestosql.execution.TaskState.PLANNED;
+import static io.prestosql.execution.VersionedDynamicFilterDomains.INITIAL_DYNAMIC_FILTERS_VERSION;
 import static java.util.Objects.requireNonNull;
 import static java.util.concurrent.TimeUnit.MILLISECONDS;
 
@@ -62,6 +63,7 @@ public class TaskStatus
     private final int runningPartitionedDrivers;
     private final boolean outputBufferOverutilized;
     private final DataSize physicalWrittenDataSize;
+    private final DataSize outputDataSize;
     private final DataSize memoryReservation;
     private final DataSize systemMemoryReservation;
     private final DataSize revocableMemoryReservation;
@@ -69,6 +71,8 @@ public class TaskStatus
     private final long fullGcCount;
     private final Duration fullGcTime;
 
+    private final long dynamicFiltersVersion;
+
     private final List<ExecutionFailureInfo> failures;
 
     @JsonCreator
@@ -85,11 +89,13 @@ public class TaskStatus
             @JsonProperty("runningPartitionedDrivers") int runningPartitionedDrivers,
             @JsonProperty("outputBufferOverutilized") boolean outputBufferOverutilized,
             @JsonProperty("physicalWrittenDataSize") DataSize physicalWrittenDataSize,
+            @JsonProperty("outputDataSize") DataSize outputDataSize,
             @JsonProperty("memoryReservation") DataSize memoryReservation,
             @JsonProperty("systemMemoryReservation") DataSize systemMemoryReservation,
             @JsonProperty("revocableMemoryReservation") DataSize revocableMemoryReservation,
             @JsonProperty("fullGcCount") long fullGcCount,
-            @JsonProperty("fullGcTime") Duration fullGcTime)
+            @JsonProperty("fullGcTime") Duration fullGcTime,
+            @JsonProperty("dynamicFiltersVersion") long dynamicFiltersVersion)
     {
         this.taskId = requireNonNull(taskId, "taskId is null");
         this.taskInstanceId = requireNonNull(taskInstanceId, "taskInstanceId is null");
@@ -110,6 +116,7 @@ public class TaskStatus
         this.outputBufferOverutilized = outputBufferOverutilized;
 
         this.physicalWrittenDataSize = requireNonNull(physicalWrittenDataSize, "physicalWrittenDataSize is null");
+        this.outputDataSize = requireNonNull(outputDataSize, "outputDataSize is null");
 
         this.memoryReservation = requireNonNull(memoryReservation, "memoryReservation is null");
         this.systemMemoryReservation = requireNonNull(systemMemoryReservation, "systemMemoryReservation is null");
@@ -119,6 +126,7 @@ public class TaskStatus
         checkArgument(fullGcCount >= 0, "fullGcCount is negative");
         this.fullGcCount = fullGcCount;
         this.fullGcTime = requireNonNull(fullGcTime, "fullGcTime is null");
+        this.dynamicFiltersVersion = dynamicFiltersVersion;
     }
 
     @JsonProperty
@@ -187,6 +195,15 @@ public class TaskStatus
         return physicalWrittenDataSize;
     }
 
+    /**
+     * Size of the pages the task produced into its output buffer so far
+     */
+    @JsonProperty
+    public DataSize getOutputDataSize()
+    {
+        return outputDataSize;
+    }
+
     @JsonProperty
     public boolean isOutputBufferOverutilized()
     {
@@ -223,6 +240,12 @@ public class TaskStatus
         return fullGcTime;
     }
 
+    @JsonProperty
+    public long getDynamicFiltersVersion()
+    {
+        return dynamicFiltersVersion;
+    }
+
     @Override
     public String toString()
     {
@@ -250,8 +273,10 @@ public class TaskStatus
                 DataSize.ofBytes(0),
                 DataSize.ofBytes(0),
                 DataSize.ofBytes(0),
+                DataSize.ofBytes(0),
                 0,
-                new Duration(0, MILLISECONDS));
+                new Duration(0, MILLISECONDS),
+                INITIAL_DYNAMIC_FILTERS_VERSION);
     }
 
     public static TaskStatus failWith(TaskStatus taskStatus, TaskState state, List<ExecutionFailureInfo> exceptions)
@@ -269,10 +294,12 @@ public class TaskStatus
                 taskStatus.getRunningPartitionedDrivers(),
                 taskStatus.isOutputBufferOverutilized(),
                 taskStatus.getPhysicalWrittenDataSize(),
+                taskStatus.getOutputDataSize(),
                 taskStatus.getMemoryReservation(),
                 taskStatus.getSystemMemoryReservation(),
                 taskStatus.getRevocableMemoryReservation(),
                 taskStatus.getFullGcCount(),
-                taskStatus.getFullGcTime());
+                taskStatus.getFullGcTime(),
+                taskStatus.getDynamicFiltersVersion());
     }
 }
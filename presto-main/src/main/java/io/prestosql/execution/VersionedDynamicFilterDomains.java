@@ -0,0 +1,69 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.prestosql.execution;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.google.common.collect.ImmutableMap;
+import io.prestosql.spi.predicate.Domain;
+
+import java.util.Map;
+
+import static com.google.common.base.MoreObjects.toStringHelper;
+import static com.google.common.base.Preconditions.checkArgument;
+import static java.util.Objects.requireNonNull;
+
+/**
+ * The build-side domains of the dynamic filters collected by a task. The version is
+ * reported in {@link TaskStatus}, so that the coordinator only fetches the domains when they change.
+ */
+public class VersionedDynamicFilterDomains
+{
+    public static final long INITIAL_DYNAMIC_FILTERS_VERSION = 0;
+    public static final VersionedDynamicFilterDomains EMPTY = new VersionedDynamicFilterDomains(INITIAL_DYNAMIC_FILTERS_VERSION, ImmutableMap.of());
+
+    private final long version;
+    private final Map<String, Domain> dynamicFilterDomains;
+
+    @JsonCreator
+    public VersionedDynamicFilterDomains(
+            @JsonProperty("version") long version,
+            @JsonProperty("dynamicFilterDomains") Map<String, Domain> dynamicFilterDomains)
+    {
+        checkArgument(version >= INITIAL_DYNAMIC_FILTERS_VERSION, "version is negative");
+        this.version = version;
+        this.dynamicFilterDomains = ImmutableMap.copyOf(requireNonNull(dynamicFilterDomains, "dynamicFilterDomains is null"));
+    }
+
+    @JsonProperty
+    public long getVersion()
+    {
+        return version;
+    }
+
+    @JsonProperty
+    public Map<String, Domain> getDynamicFilterDomains()
+    {
+        return dynamicFilterDomains;
+    }
+
+    @Override
+    public String toString()
+    {
+        return toStringHelper(this)
+                .add("version", version)
+                .add("dynamicFilterDomains", dynamicFilterDomains.keySet())
+                .toString();
+    }
+}
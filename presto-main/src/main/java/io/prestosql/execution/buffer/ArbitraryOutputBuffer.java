@@ -61,6 +61,7 @@ public class ArbitraryOutputBuffer
         implements OutputBuffer
 {
     private final OutputBufferMemoryManager memoryManager;
+    private final Optional<OutputBufferSpiller> spiller;
 
     @GuardedBy("this")
     private OutputBuffers outputBuffers = createInitialEmptyOutputBuffers(ARBITRARY);
@@ -85,6 +86,17 @@ public class ArbitraryOutputBuffer
             DataSize maxBufferSize,
             Supplier<LocalMemoryContext> systemMemoryContextSupplier,
             Executor notificationExecutor)
+    {
+        this(taskInstanceId, state, maxBufferSize, systemMemoryContextSupplier, notificationExecutor, Optional.empty());
+    }
+
+    public ArbitraryOutputBuffer(
+            String taskInstanceId,
+            StateMachine<BufferState> state,
+            DataSize maxBufferSize,
+            Supplier<LocalMemoryContext> systemMemoryContextSupplier,
+            Executor notificationExecutor,
+            Optional<OutputBufferSpiller> spiller)
     {
         this.taskInstanceId = requireNonNull(taskInstanceId, "taskInstanceId is null");
         this.state = requireNonNull(state, "state is null");
@@ -94,6 +106,7 @@ public class ArbitraryOutputBuffer
                 maxBufferSize.toBytes(),
                 requireNonNull(systemMemoryContextSupplier, "systemMemoryContextSupplier is null"),
                 requireNonNull(notificationExecutor, "notificationExecutor is null"));
+        this.spiller = requireNonNull(spiller, "spiller is null");
         this.masterBuffer = new MasterBuffer();
     }
 
@@ -215,19 +228,25 @@ public class ArbitraryOutputBuffer
             return;
         }
 
-        // reserve memory
-        long bytesAdded = pages.stream().mapToLong(SerializedPage::getRetainedSizeInBytes).sum();
-        memoryManager.updateMemoryUsage(bytesAdded);
-
         // update stats
         long rowCount = pages.stream().mapToLong(SerializedPage::getPositionCount).sum();
         totalRowsAdded.addAndGet(rowCount);
         totalPagesAdded.addAndGet(pages.size());
 
-        // create page reference counts with an initial single reference
-        List<SerializedPageReference> serializedPageReferences = pages.stream()
-                .map(pageSplit -> new SerializedPageReference(pageSplit, 1, () -> memoryManager.updateMemoryUsage(-pageSplit.getRetainedSizeInBytes())))
-                .collect(toImmutableList());
+        // create page reference counts with an initial single reference, and reserve memory
+        List<SerializedPageReference> serializedPageReferences;
+        if (spiller.isPresent()) {
+            // pages that do not fit into the buffer are spilled
+            serializedPageReferences = spiller.get().createPageReferences(pages, memoryManager);
+        }
+        else {
+            long bytesAdded = pages.stream().mapToLong(SerializedPage::getRetainedSizeInBytes).sum();
+            memoryManager.updateMemoryUsage(bytesAdded);
+
+            serializedPageReferences = pages.stream()
+                    .map(pageSplit -> new SerializedPageReference(pageSplit, 1, () -> memoryManager.updateMemoryUsage(-pageSplit.getRetainedSizeInBytes())))
+                    .collect(toImmutableList());
+        }
 
         // add pages to the buffer (this will increase the reference count by one)
         masterBuffer.addPages(serializedPageReferences);
@@ -344,6 +363,7 @@ public class ArbitraryOutputBuffer
     void forceFreeMemory()
     {
         memoryManager.close();
+        spiller.ifPresent(OutputBufferSpiller::close);
     }
 
     private synchronized ClientBuffer getBuffer(OutputBufferId id)
@@ -35,7 +35,11 @@ import static com.google.common.base.MoreObjects.toStringHelper;
 import static com.google.common.base.Preconditions.checkArgument;
 import static com.google.common.base.Preconditions.checkState;
 import static com.google.common.base.Verify.verify;
+import static com.google.common.collect.ImmutableList.toImmutableList;
+import static com.google.common.util.concurrent.Futures.allAsList;
 import static com.google.common.util.concurrent.Futures.immediateFuture;
+import static com.google.common.util.concurrent.Futures.transformAsync;
+import static com.google.common.util.concurrent.MoreExecutors.directExecutor;
 import static io.prestosql.execution.buffer.BufferResult.emptyResults;
 import static java.lang.Math.toIntExact;
 import static java.util.Objects.requireNonNull;
@@ -175,31 +179,31 @@ class ClientBuffer
         // attempt to load some data before processing the read
         pagesSupplier.ifPresent(supplier -> loadPagesIfNecessary(supplier, maxSize));
 
-        PendingRead oldPendingRead = null;
-        try {
-            synchronized (this) {
-                // save off the old pending read so we can abort it out side of the lock
-                oldPendingRead = this.pendingRead;
-                this.pendingRead = null;
-
-                // Return results immediately if we have data, there will be no more data, or this is
-                // an out of order request
-                if (!pages.isEmpty() || noMorePages || sequenceId != currentSequenceId.get()) {
-                    return immediateFuture(processRead(sequenceId, maxSize));
-                }
-
-                // otherwise, wait for more data to arrive
-                pendingRead = new PendingRead(taskInstanceId, sequenceId, maxSize);
-                return pendingRead.getResultFuture();
+        PendingRead oldPendingRead;
+        PendingRead newPendingRead = null;
+        synchronized (this) {
+            // save off the old pending read so we can abort it out side of the lock
+            oldPendingRead = this.pendingRead;
+            this.pendingRead = null;
+
+            // wait for more data to arrive, unless we have data, there will be no more data, or this is an out of order request
+            if (pages.isEmpty() && !noMorePages && sequenceId == currentSequenceId.get()) {
+                newPendingRead = new PendingRead(taskInstanceId, sequenceId, maxSize);
+                this.pendingRead = newPendingRead;
             }
         }
-        finally {
-            if (oldPendingRead != null) {
-                // Each buffer is private to a single client, and each client should only have one outstanding
-                // read.  Therefore, we abort the existing read since it was most likely abandoned by the client.
-                oldPendingRead.completeResultFutureWithEmpty();
-            }
+
+        if (oldPendingRead != null) {
+            // Each buffer is private to a single client, and each client should only have one outstanding
+            // read.  Therefore, we abort the existing read since it was most likely abandoned by the client.
+            oldPendingRead.completeResultFutureWithEmpty();
         }
+
+        if (newPendingRead != null) {
+            return newPendingRead.getResultFuture();
+        }
+        // return results immediately, the read is processed out side of the lock as spilled pages may need to be loaded
+        return processRead(sequenceId, maxSize);
     }
 
     public void setNoMorePages()
@@ -298,14 +302,35 @@ class ClientBuffer
             return;
         }
 
-        BufferResult bufferResult = processRead(pendingRead.getSequenceId(), pendingRead.getMaxSize());
-        pendingRead.getResultFuture().set(bufferResult);
+        pendingRead.getResultFuture().setFuture(processRead(pendingRead.getSequenceId(), pendingRead.getMaxSize()));
     }
 
     /**
+     * Spilled pages are loaded out side of the lock, and the read is processed again once they are loaded.
+     *
      * @return a result with at least one page if we have pages in buffer, empty result otherwise
      */
-    private synchronized BufferResult processRead(long sequenceId, DataSize maxSize)
+    private ListenableFuture<BufferResult> processRead(long sequenceId, DataSize maxSize)
+    {
+        checkState(!Thread.holdsLock(this), "Cannot process read while holding a lock on this");
+
+        List<SerializedPageReference> unloadedPages;
+        synchronized (this) {
+            unloadedPages = getPagesToRead(sequenceId, maxSize).stream()
+                    .filter(page -> !page.isLoaded())
+                    .collect(toImmutableList());
+            if (unloadedPages.isEmpty()) {
+                return immediateFuture(readPages(sequenceId, maxSize));
+            }
+        }
+
+        ListenableFuture<?> pagesLoaded = allAsList(unloadedPages.stream()
+                .map(SerializedPageReference::load)
+                .collect(toImmutableList()));
+        return transformAsync(pagesLoaded, ignored -> processRead(sequenceId, maxSize), directExecutor());
+    }
+
+    private synchronized BufferResult readPages(long sequenceId, DataSize maxSize)
     {
         // When pages are added to the partition buffer they are effectively
         // assigned an id starting from zero. When a read is processed, the
@@ -349,8 +374,21 @@ class ClientBuffer
         verify(sequenceId == currentSequenceId.get(), "Invalid sequence id");
 
         // read the new pages
+        List<SerializedPage> result = getPagesToRead(sequenceId, maxSize).stream()
+                .map(SerializedPageReference::getSerializedPage)
+                .collect(toImmutableList());
+        return new BufferResult(taskInstanceId, sequenceId, sequenceId + result.size(), false, result);
+    }
+
+    @GuardedBy("this")
+    private List<SerializedPageReference> getPagesToRead(long sequenceId, DataSize maxSize)
+    {
+        if (sequenceId != currentSequenceId.get()) {
+            return ImmutableList.of();
+        }
+
         long maxBytes = maxSize.toBytes();
-        List<SerializedPage> result = new ArrayList<>();
+        List<SerializedPageReference> result = new ArrayList<>();
         long bytes = 0;
 
         for (SerializedPageReference page : pages) {
@@ -359,9 +397,9 @@ class ClientBuffer
             if (!result.isEmpty() && bytes > maxBytes) {
                 break;
             }
-            result.add(page.getSerializedPage());
+            result.add(page);
         }
-        return new BufferResult(taskInstanceId, sequenceId, sequenceId + result.size(), false, result);
+        return result;
     }
 
     /**
@@ -0,0 +1,74 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.prestosql.execution.buffer;
+
+import io.airlift.compress.Compressor;
+import io.airlift.compress.Decompressor;
+import io.airlift.compress.lz4.Lz4Compressor;
+import io.airlift.compress.lz4.Lz4Decompressor;
+import io.airlift.compress.zstd.ZstdCompressor;
+import io.airlift.compress.zstd.ZstdDecompressor;
+
+import java.util.function.Supplier;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+/**
+ * Compression applied to a single column of a page serialized by {@link PagesSerde}.
+ * The id is part of the wire format.
+ */
+enum ColumnCompressionCodec
+{
+    NONE(0, null, null),
+    LZ4(1, Lz4Compressor::new, Lz4Decompressor::new),
+    ZSTD(2, ZstdCompressor::new, ZstdDecompressor::new);
+
+    private final byte id;
+    private final Supplier<Compressor> compressorFactory;
+    private final Supplier<Decompressor> decompressorFactory;
+
+    ColumnCompressionCodec(int id, Supplier<Compressor> compressorFactory, Supplier<Decompressor> decompressorFactory)
+    {
+        this.id = (byte) id;
+        this.compressorFactory = compressorFactory;
+        this.decompressorFactory = decompressorFactory;
+    }
+
+    public byte getId()
+    {
+        return id;
+    }
+
+    public Compressor createCompressor()
+    {
+        checkArgument(this != NONE, "NONE codec has no compressor");
+        return compressorFactory.get();
+    }
+
+    public Decompressor createDecompressor()
+    {
+        checkArgument(this != NONE, "NONE codec has no decompressor");
+        return decompressorFactory.get();
+    }
+
+    public static ColumnCompressionCodec fromId(byte id)
+    {
+        for (ColumnCompressionCodec codec : values()) {
+            if (codec.id == id) {
+                return codec;
+            }
+        }
+        throw new IllegalArgumentException("Unknown column compression codec: " + id);
+    }
+}
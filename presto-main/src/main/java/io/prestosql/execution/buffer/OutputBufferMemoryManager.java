@@ -117,6 +117,14 @@ class OutputBufferMemoryManager
         return bufferedBytes.get();
     }
 
+    /**
+     * @return true if the buffer is not full after buffering additional {@code bytes}
+     */
+    public boolean canBuffer(long bytes)
+    {
+        return bufferedBytes.get() + bytes <= maxBufferedBytes;
+    }
+
     public double getUtilization()
     {
         return bufferedBytes.get() / (double) maxBufferedBytes;
@@ -0,0 +1,130 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.prestosql.execution.buffer;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.util.concurrent.ListenableFuture;
+import io.airlift.log.Logger;
+import io.prestosql.operator.SpillContext;
+import io.prestosql.spi.PrestoException;
+import io.prestosql.spiller.SerializedPageSpiller;
+import io.prestosql.spiller.SerializedPageSpillerFactory;
+
+import javax.annotation.concurrent.GuardedBy;
+import javax.annotation.concurrent.ThreadSafe;
+
+import java.io.Closeable;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Supplier;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Writes the pages that do not fit into the memory of an output buffer to disk, so the producers
+ * do not have to wait for slow consumers. Spilled pages are read back when a client requests them, and
+ * count against the memory of the buffer again until they are acknowledged.
+ * The spill file is created when the first page is spilled, and removed when the buffer is destroyed.
+ */
+@ThreadSafe
+public class OutputBufferSpiller
+        implements Closeable
+{
+    private static final Logger log = Logger.get(OutputBufferSpiller.class);
+
+    private final SerializedPageSpillerFactory spillerFactory;
+    private final Supplier<SpillContext> spillContextSupplier;
+
+    @GuardedBy("this")
+    private SerializedPageSpiller spiller;
+    @GuardedBy("this")
+    private SpillContext spillContext;
+    @GuardedBy("this")
+    private boolean disabled;
+
+    public OutputBufferSpiller(SerializedPageSpillerFactory spillerFactory, Supplier<SpillContext> spillContextSupplier)
+    {
+        this.spillerFactory = requireNonNull(spillerFactory, "spillerFactory is null");
+        this.spillContextSupplier = requireNonNull(spillContextSupplier, "spillContextSupplier is null");
+    }
+
+    /**
+     * Creates references (with a single reference count) to the pages. The pages are kept in memory
+     * as long as the buffer is not full, and spilled otherwise.
+     */
+    List<SerializedPageReference> createPageReferences(List<SerializedPage> pages, OutputBufferMemoryManager memoryManager)
+    {
+        ImmutableList.Builder<SerializedPageReference> references = ImmutableList.builder();
+        long bytesAdded = 0;
+        for (SerializedPage page : pages) {
+            long retainedSizeInBytes = page.getRetainedSizeInBytes();
+            Optional<Supplier<ListenableFuture<SerializedPage>>> spilledPage = Optional.empty();
+            if (!memoryManager.canBuffer(bytesAdded + retainedSizeInBytes)) {
+                spilledPage = spill(page);
+            }
+
+            if (spilledPage.isPresent()) {
+                references.add(new SerializedPageReference(spilledPage.get(), page.getPositionCount(), retainedSizeInBytes, 1, memoryManager::updateMemoryUsage));
+            }
+            else {
+                bytesAdded += retainedSizeInBytes;
+                references.add(new SerializedPageReference(page, 1, () -> memoryManager.updateMemoryUsage(-retainedSizeInBytes)));
+            }
+        }
+        memoryManager.updateMemoryUsage(bytesAdded);
+        return references.build();
+    }
+
+    /**
+     * @return reader of the spilled page, or empty if the page cannot be spilled and must be kept in memory
+     */
+    private Optional<Supplier<ListenableFuture<SerializedPage>>> spill(SerializedPage page)
+    {
+        SerializedPageSpiller spiller;
+        synchronized (this) {
+            if (disabled) {
+                return Optional.empty();
+            }
+            try {
+                if (this.spiller == null) {
+                    spillContext = spillContextSupplier.get().newLocalSpillContext();
+                    this.spiller = spillerFactory.create();
+                }
+                spillContext.updateBytes(page.getSizeInBytes());
+            }
+            catch (PrestoException e) {
+                // no healthy spill path, or the spill limit is exceeded, so fall back to blocking the producers
+                log.debug(e, "Could not spill output buffer pages");
+                disabled = true;
+                return Optional.empty();
+            }
+            spiller = this.spiller;
+        }
+        return Optional.of(spiller.spill(page));
+    }
+
+    @Override
+    public synchronized void close()
+    {
+        disabled = true;
+        if (spiller != null) {
+            spiller.close();
+            spiller = null;
+        }
+        if (spillContext != null) {
+            spillContext.close();
+            spillContext = null;
+        }
+    }
+}
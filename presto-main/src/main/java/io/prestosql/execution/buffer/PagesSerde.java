@@ -17,19 +17,32 @@ import io.airlift.compress.Compressor;
 import io.airlift.compress.Decompressor;
 import io.airlift.slice.DynamicSliceOutput;
 import io.airlift.slice.Slice;
+import io.airlift.slice.SliceInput;
 import io.airlift.slice.SliceOutput;
 import io.airlift.slice.Slices;
 import io.prestosql.execution.buffer.PageCodecMarker.MarkerSet;
 import io.prestosql.spi.Page;
+import io.prestosql.spi.block.Block;
 import io.prestosql.spi.block.BlockEncodingSerde;
 import io.prestosql.spiller.SpillCipher;
 
 import javax.annotation.concurrent.NotThreadSafe;
 
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 import static com.google.common.base.Preconditions.checkArgument;
 import static com.google.common.base.Preconditions.checkState;
+import static io.airlift.slice.SizeOf.SIZE_OF_BYTE;
+import static io.airlift.slice.SizeOf.SIZE_OF_INT;
+import static io.prestosql.block.BlockSerdeUtil.readBlock;
+import static io.prestosql.block.BlockSerdeUtil.writeBlock;
+import static io.prestosql.execution.buffer.ColumnCompressionCodec.LZ4;
+import static io.prestosql.execution.buffer.ColumnCompressionCodec.NONE;
+import static io.prestosql.execution.buffer.ColumnCompressionCodec.ZSTD;
 import static io.prestosql.execution.buffer.PageCodecMarker.COMPRESSED;
 import static io.prestosql.execution.buffer.PageCodecMarker.ENCRYPTED;
 import static io.prestosql.execution.buffer.PagesSerdeUtil.readRawPage;
@@ -37,47 +50,79 @@ import static io.prestosql.execution.buffer.PagesSerdeUtil.writeRawPage;
 import static java.lang.Math.toIntExact;
 import static java.util.Objects.requireNonNull;
 
+/**
+ * Serializes pages for exchanges and spilling.
+ * <p>
+ * When compression is enabled, every column is compressed on its own, with a codec that is picked per column
+ * from the compression ratios observed on previous pages. A compressed page is laid out as the channel count
+ * followed by, for every column, the codec id, the uncompressed and compressed length and the column data.
+ * Pages that would not get smaller are sent in the raw format, without the {@link PageCodecMarker#COMPRESSED} marker.
+ */
 @NotThreadSafe
 public class PagesSerde
 {
     private static final double MINIMUM_COMPRESSION_RATIO = 0.8;
+    // ZSTD is slower than LZ4, so it is only used when it produces noticeably smaller output
+    private static final double MINIMUM_ZSTD_GAIN = 0.85;
+    private static final int MINIMUM_COMPRESSIBLE_COLUMN_SIZE = 256;
+    // number of pages after which the codec of a column is picked again
+    private static final int CODEC_SELECTION_INTERVAL = 32;
+    private static final int COLUMN_HEADER_SIZE = SIZE_OF_BYTE + SIZE_OF_INT + SIZE_OF_INT;
 
     private final BlockEncodingSerde blockEncodingSerde;
-    private final Optional<Compressor> compressor;
-    private final Optional<Decompressor> decompressor;
+    private final boolean compressionEnabled;
     private final Optional<SpillCipher> spillCipher;
 
-    public PagesSerde(BlockEncodingSerde blockEncodingSerde, Optional<Compressor> compressor, Optional<Decompressor> decompressor, Optional<SpillCipher> spillCipher)
+    private final Map<ColumnCompressionCodec, Compressor> compressors = new EnumMap<>(ColumnCompressionCodec.class);
+    private final Map<ColumnCompressionCodec, Decompressor> decompressors = new EnumMap<>(ColumnCompressionCodec.class);
+    private final List<ColumnCodecSelection> columnCodecs = new ArrayList<>();
+
+    public PagesSerde(BlockEncodingSerde blockEncodingSerde, boolean compressionEnabled, Optional<SpillCipher> spillCipher)
     {
         this.blockEncodingSerde = requireNonNull(blockEncodingSerde, "blockEncodingSerde is null");
-        checkArgument(compressor.isPresent() == decompressor.isPresent(), "compressor and decompressor must both be present or both be absent");
-        this.compressor = requireNonNull(compressor, "compressor is null");
-        this.decompressor = requireNonNull(decompressor, "decompressor is null");
+        this.compressionEnabled = compressionEnabled;
         this.spillCipher = requireNonNull(spillCipher, "spillCipher is null");
     }
 
     public SerializedPage serialize(Page page)
     {
-        SliceOutput serializationBuffer = new DynamicSliceOutput(toIntExact(page.getSizeInBytes() + Integer.BYTES)); // block length is an int
-        writeRawPage(page, serializationBuffer, blockEncodingSerde);
-        Slice slice = serializationBuffer.slice();
-        int uncompressedSize = serializationBuffer.size();
+        Slice slice;
+        int uncompressedSize;
         MarkerSet markers = MarkerSet.empty();
 
-        if (compressor.isPresent()) {
-            byte[] compressed = new byte[compressor.get().maxCompressedLength(uncompressedSize)];
-            int compressedSize = compressor.get().compress(
-                    slice.byteArray(),
-                    slice.byteArrayOffset(),
-                    uncompressedSize,
-                    compressed,
-                    0,
-                    compressed.length);
+        if (compressionEnabled) {
+            // columns are compressed one by one, so they are serialized into buffers of their own
+            List<Slice> columns = new ArrayList<>(page.getChannelCount());
+            uncompressedSize = SIZE_OF_INT;
+            for (int channel = 0; channel < page.getChannelCount(); channel++) {
+                Block block = page.getBlock(channel);
+                SliceOutput columnOutput = new DynamicSliceOutput(toIntExact(block.getSizeInBytes() + Integer.BYTES)); // block length is an int
+                writeBlock(blockEncodingSerde, columnOutput, block);
+                columns.add(columnOutput.slice());
+                uncompressedSize += columnOutput.size();
+            }
 
-            if ((((double) compressedSize) / uncompressedSize) <= MINIMUM_COMPRESSION_RATIO) {
-                slice = Slices.wrappedBuffer(compressed, 0, compressedSize);
+            SliceOutput compressedOutput = new DynamicSliceOutput(uncompressedSize + columns.size() * COLUMN_HEADER_SIZE);
+            compressedOutput.writeInt(columns.size());
+            for (int channel = 0; channel < columns.size(); channel++) {
+                writeCompressedColumn(compressedOutput, channel, columns.get(channel));
+            }
+            if (compressedOutput.size() < uncompressedSize) {
+                slice = compressedOutput.slice();
                 markers.add(COMPRESSED);
             }
+            else {
+                SliceOutput rawOutput = new DynamicSliceOutput(uncompressedSize);
+                rawOutput.writeInt(columns.size());
+                columns.forEach(rawOutput::writeBytes);
+                slice = rawOutput.slice();
+            }
+        }
+        else {
+            SliceOutput serializationBuffer = new DynamicSliceOutput(toIntExact(page.getSizeInBytes() + Integer.BYTES)); // block length is an int
+            writeRawPage(page, serializationBuffer, blockEncodingSerde);
+            slice = serializationBuffer.slice();
+            uncompressedSize = serializationBuffer.size();
         }
 
         if (spillCipher.isPresent()) {
@@ -121,21 +166,129 @@ public class PagesSerde
         }
 
         if (serializedPage.isCompressed()) {
-            checkState(decompressor.isPresent(), "Page is compressed, but decompressor is missing");
+            checkState(compressionEnabled, "Page is compressed, but compression is not enabled");
+            return readCompressedPage(serializedPage.getPositionCount(), slice.getInput());
+        }
 
-            int uncompressedSize = serializedPage.getUncompressedSizeInBytes();
-            byte[] decompressed = new byte[uncompressedSize];
-            checkState(decompressor.get().decompress(
-                    slice.byteArray(),
-                    slice.byteArrayOffset(),
-                    slice.length(),
-                    decompressed,
-                    0,
-                    uncompressedSize) == uncompressedSize);
+        return readRawPage(serializedPage.getPositionCount(), slice.getInput(), blockEncodingSerde);
+    }
 
-            slice = Slices.wrappedBuffer(decompressed);
+    private void writeCompressedColumn(SliceOutput output, int channel, Slice column)
+    {
+        while (columnCodecs.size() <= channel) {
+            columnCodecs.add(new ColumnCodecSelection());
         }
+        ColumnCodecSelection selection = columnCodecs.get(channel);
 
-        return readRawPage(serializedPage.getPositionCount(), slice.getInput(), blockEncodingSerde);
+        ColumnCompressionCodec codec = NONE;
+        Slice compressed = column;
+        if (column.length() >= MINIMUM_COMPRESSIBLE_COLUMN_SIZE) {
+            if (selection.isSelectionDue()) {
+                // try both codecs, and stick to the better one for the next pages
+                Slice lz4Compressed = compress(LZ4, column);
+                Slice zstdCompressed = compress(ZSTD, column);
+                if (zstdCompressed.length() < lz4Compressed.length() * MINIMUM_ZSTD_GAIN) {
+                    codec = ZSTD;
+                    compressed = zstdCompressed;
+                }
+                else {
+                    codec = LZ4;
+                    compressed = lz4Compressed;
+                }
+                if (compressed.length() > column.length() * MINIMUM_COMPRESSION_RATIO) {
+                    codec = NONE;
+                    compressed = column;
+                }
+                selection.select(codec);
+            }
+            else if (selection.getCodec() != NONE) {
+                codec = selection.getCodec();
+                compressed = compress(codec, column);
+                if (compressed.length() > column.length() * MINIMUM_COMPRESSION_RATIO) {
+                    // the data has changed, so pick the codec again on the next page
+                    codec = NONE;
+                    compressed = column;
+                    selection.invalidate();
+                }
+            }
+        }
+
+        output.writeByte(codec.getId());
+        output.writeInt(column.length());
+        output.writeInt(compressed.length());
+        output.writeBytes(compressed);
+    }
+
+    private Slice compress(ColumnCompressionCodec codec, Slice column)
+    {
+        Compressor compressor = compressors.computeIfAbsent(codec, ColumnCompressionCodec::createCompressor);
+        byte[] compressed = new byte[compressor.maxCompressedLength(column.length())];
+        int compressedSize = compressor.compress(
+                column.byteArray(),
+                column.byteArrayOffset(),
+                column.length(),
+                compressed,
+                0,
+                compressed.length);
+        return Slices.wrappedBuffer(compressed, 0, compressedSize);
+    }
+
+    private Page readCompressedPage(int positionCount, SliceInput input)
+    {
+        int numberOfBlocks = input.readInt();
+        Block[] blocks = new Block[numberOfBlocks];
+        for (int i = 0; i < blocks.length; i++) {
+            ColumnCompressionCodec codec = ColumnCompressionCodec.fromId(input.readByte());
+            int uncompressedSize = input.readInt();
+            int compressedSize = input.readInt();
+            Slice column = input.readSlice(compressedSize);
+
+            if (codec != NONE) {
+                Decompressor decompressor = decompressors.computeIfAbsent(codec, ColumnCompressionCodec::createDecompressor);
+                byte[] decompressed = new byte[uncompressedSize];
+                checkState(decompressor.decompress(
+                        column.byteArray(),
+                        column.byteArrayOffset(),
+                        column.length(),
+                        decompressed,
+                        0,
+                        uncompressedSize) == uncompressedSize);
+                column = Slices.wrappedBuffer(decompressed);
+            }
+            blocks[i] = readBlock(blockEncodingSerde, column.getInput());
+        }
+
+        return new Page(positionCount, blocks);
+    }
+
+    private static class ColumnCodecSelection
+    {
+        private ColumnCompressionCodec codec = NONE;
+        private int pagesUntilSelection;
+
+        public boolean isSelectionDue()
+        {
+            if (pagesUntilSelection == 0) {
+                return true;
+            }
+            pagesUntilSelection--;
+            return false;
+        }
+
+        public ColumnCompressionCodec getCodec()
+        {
+            return codec;
+        }
+
+        public void select(ColumnCompressionCodec codec)
+        {
+            this.codec = requireNonNull(codec, "codec is null");
+            this.pagesUntilSelection = CODEC_SELECTION_INTERVAL;
+        }
+
+        public void invalidate()
+        {
+            pagesUntilSelection = 0;
+        }
     }
 }
@@ -26,6 +26,8 @@ import io.prestosql.spi.block.BlockEncodingSerde;
 import java.util.Iterator;
 import java.util.List;
 
+import static io.airlift.slice.SizeOf.SIZE_OF_BYTE;
+import static io.airlift.slice.SizeOf.SIZE_OF_INT;
 import static io.prestosql.block.BlockSerdeUtil.readBlock;
 import static io.prestosql.block.BlockSerdeUtil.writeBlock;
 import static java.util.Arrays.asList;
@@ -42,6 +44,12 @@ public final class PagesSerdeUtil
      */
     public static final long NO_CHECKSUM = 0x0123456789abcdefL;
 
+    /**
+     * Size of the fields written by {@link #writeSerializedPage} in front of the page data.
+     */
+    public static final int SERIALIZED_PAGE_HEADER_SIZE = SIZE_OF_INT + SIZE_OF_BYTE + SIZE_OF_INT + SIZE_OF_INT;
+    private static final int SERIALIZED_PAGE_SIZE_OFFSET = SIZE_OF_INT + SIZE_OF_BYTE + SIZE_OF_INT;
+
     static void writeRawPage(Page page, SliceOutput output, BlockEncodingSerde serde)
     {
         output.writeInt(page.getChannelCount());
@@ -81,7 +89,15 @@ public final class PagesSerdeUtil
         hash.update(page.getSlice());
     }
 
-    private static SerializedPage readSerializedPage(SliceInput sliceInput)
+    /**
+     * Returns the number of bytes taken by the serialized page (header included) whose header starts at {@code offset}.
+     */
+    public static int getSerializedPageLength(Slice slice, int offset)
+    {
+        return SERIALIZED_PAGE_HEADER_SIZE + slice.getInt(offset + SERIALIZED_PAGE_SIZE_OFFSET);
+    }
+
+    public static SerializedPage readSerializedPage(SliceInput sliceInput)
     {
         int positionCount = sliceInput.readInt();
         PageCodecMarker.MarkerSet markers = PageCodecMarker.MarkerSet.fromByteValue(sliceInput.readByte());
@@ -23,6 +23,7 @@ import io.prestosql.execution.buffer.OutputBuffers.OutputBufferId;
 import io.prestosql.memory.context.LocalMemoryContext;
 
 import java.util.List;
+import java.util.Optional;
 import java.util.concurrent.Executor;
 import java.util.concurrent.atomic.AtomicLong;
 import java.util.function.Supplier;
@@ -45,6 +46,7 @@ public class PartitionedOutputBuffer
     private final StateMachine<BufferState> state;
     private final OutputBuffers outputBuffers;
     private final OutputBufferMemoryManager memoryManager;
+    private final Optional<OutputBufferSpiller> spiller;
 
     private final List<ClientBuffer> partitions;
 
@@ -58,6 +60,18 @@ public class PartitionedOutputBuffer
             DataSize maxBufferSize,
             Supplier<LocalMemoryContext> systemMemoryContextSupplier,
             Executor notificationExecutor)
+    {
+        this(taskInstanceId, state, outputBuffers, maxBufferSize, systemMemoryContextSupplier, notificationExecutor, Optional.empty());
+    }
+
+    public PartitionedOutputBuffer(
+            String taskInstanceId,
+            StateMachine<BufferState> state,
+            OutputBuffers outputBuffers,
+            DataSize maxBufferSize,
+            Supplier<LocalMemoryContext> systemMemoryContextSupplier,
+            Executor notificationExecutor,
+            Optional<OutputBufferSpiller> spiller)
     {
         this.state = requireNonNull(state, "state is null");
 
@@ -70,6 +84,7 @@ public class PartitionedOutputBuffer
                 requireNonNull(maxBufferSize, "maxBufferSize is null").toBytes(),
                 requireNonNull(systemMemoryContextSupplier, "systemMemoryContextSupplier is null"),
                 requireNonNull(notificationExecutor, "notificationExecutor is null"));
+        this.spiller = requireNonNull(spiller, "spiller is null");
 
         ImmutableList.Builder<ClientBuffer> partitions = ImmutableList.builder();
         for (OutputBufferId bufferId : outputBuffers.getBuffers().keySet()) {
@@ -178,19 +193,25 @@ public class PartitionedOutputBuffer
             return;
         }
 
-        // reserve memory
-        long bytesAdded = pages.stream().mapToLong(SerializedPage::getRetainedSizeInBytes).sum();
-        memoryManager.updateMemoryUsage(bytesAdded);
-
         // update stats
         long rowCount = pages.stream().mapToLong(SerializedPage::getPositionCount).sum();
         totalRowsAdded.addAndGet(rowCount);
         totalPagesAdded.addAndGet(pages.size());
 
-        // create page reference counts with an initial single reference
-        List<SerializedPageReference> serializedPageReferences = pages.stream()
-                .map(bufferedPage -> new SerializedPageReference(bufferedPage, 1, () -> memoryManager.updateMemoryUsage(-bufferedPage.getRetainedSizeInBytes())))
-                .collect(toImmutableList());
+        // create page reference counts with an initial single reference, and reserve memory
+        List<SerializedPageReference> serializedPageReferences;
+        if (spiller.isPresent()) {
+            // pages that do not fit into the buffer are spilled
+            serializedPageReferences = spiller.get().createPageReferences(pages, memoryManager);
+        }
+        else {
+            long bytesAdded = pages.stream().mapToLong(SerializedPage::getRetainedSizeInBytes).sum();
+            memoryManager.updateMemoryUsage(bytesAdded);
+
+            serializedPageReferences = pages.stream()
+                    .map(bufferedPage -> new SerializedPageReference(bufferedPage, 1, () -> memoryManager.updateMemoryUsage(-bufferedPage.getRetainedSizeInBytes())))
+                    .collect(toImmutableList());
+        }
 
         // add pages to the buffer (this will increase the reference count by one)
         partitions.get(partitionNumber).enqueuePages(serializedPageReferences);
@@ -270,6 +291,7 @@ public class PartitionedOutputBuffer
     void forceFreeMemory()
     {
         memoryManager.close();
+        spiller.ifPresent(OutputBufferSpiller::close);
     }
 
     private void checkFlushComplete()
@@ -13,25 +13,69 @@
  */
 package io.prestosql.execution.buffer;
 
+import com.google.common.util.concurrent.ListenableFuture;
+
+import javax.annotation.concurrent.GuardedBy;
 import javax.annotation.concurrent.ThreadSafe;
 
+import java.util.Optional;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.LongConsumer;
+import java.util.function.Supplier;
 
 import static com.google.common.base.MoreObjects.toStringHelper;
 import static com.google.common.base.Preconditions.checkArgument;
 import static com.google.common.base.Preconditions.checkState;
+import static com.google.common.util.concurrent.Futures.immediateFuture;
+import static com.google.common.util.concurrent.Futures.transform;
+import static com.google.common.util.concurrent.MoreExecutors.directExecutor;
 import static java.util.Objects.requireNonNull;
 
 @ThreadSafe
 class SerializedPageReference
 {
-    private final SerializedPage serializedPage;
+    private final Optional<Supplier<ListenableFuture<SerializedPage>>> spilledPageLoader;
+    private final LongConsumer memoryUsageUpdater;
+    private final int positionCount;
+    private final long retainedSizeInBytes;
     private final AtomicInteger referenceCount;
     private final Runnable onDereference;
 
+    @GuardedBy("this")
+    private SerializedPage serializedPage;
+    @GuardedBy("this")
+    private ListenableFuture<?> loadFuture;
+    @GuardedBy("this")
+    private boolean released;
+
     public SerializedPageReference(SerializedPage serializedPage, int referenceCount, Runnable onDereference)
     {
-        this.serializedPage = requireNonNull(serializedPage, "page is null");
+        this(Optional.empty(), bytes -> {}, requireNonNull(serializedPage, "page is null").getPositionCount(), serializedPage.getRetainedSizeInBytes(), referenceCount, onDereference);
+        this.serializedPage = serializedPage;
+    }
+
+    /**
+     * Creates a reference to a spilled page, which has to be loaded with {@link #load()} before it is read.
+     * A loaded page is kept in memory, and accounted with {@code memoryUsageUpdater}, until it is dereferenced.
+     * The position count and retained size are those of the page when it is loaded.
+     */
+    public SerializedPageReference(Supplier<ListenableFuture<SerializedPage>> spilledPageLoader, int positionCount, long retainedSizeInBytes, int referenceCount, LongConsumer memoryUsageUpdater)
+    {
+        this(Optional.of(requireNonNull(spilledPageLoader, "spilledPageLoader is null")), memoryUsageUpdater, positionCount, retainedSizeInBytes, referenceCount, () -> {});
+    }
+
+    private SerializedPageReference(
+            Optional<Supplier<ListenableFuture<SerializedPage>>> spilledPageLoader,
+            LongConsumer memoryUsageUpdater,
+            int positionCount,
+            long retainedSizeInBytes,
+            int referenceCount,
+            Runnable onDereference)
+    {
+        this.spilledPageLoader = requireNonNull(spilledPageLoader, "spilledPageLoader is null");
+        this.memoryUsageUpdater = requireNonNull(memoryUsageUpdater, "memoryUsageUpdater is null");
+        this.positionCount = positionCount;
+        this.retainedSizeInBytes = retainedSizeInBytes;
         checkArgument(referenceCount > 0, "referenceCount must be at least 1");
         this.referenceCount = new AtomicInteger(referenceCount);
         this.onDereference = requireNonNull(onDereference, "onDereference is null");
@@ -43,19 +87,55 @@ class SerializedPageReference
         checkState(oldReferences > 0, "Page has already been dereferenced");
     }
 
-    public SerializedPage getSerializedPage()
+    public synchronized boolean isLoaded()
+    {
+        return serializedPage != null;
+    }
+
+    /**
+     * Starts loading the page, if it is spilled and not loaded yet. This must not be called while holding
+     * the lock of a buffer, as the page may be read on the calling thread.
+     *
+     * @return future that completes when the page is loaded, or dereferenced
+     */
+    public synchronized ListenableFuture<?> load()
     {
+        if (serializedPage != null || released) {
+            return immediateFuture(null);
+        }
+        // a failed load is retried, e.g. when the client retries the request
+        if (loadFuture == null || loadFuture.isDone()) {
+            loadFuture = transform(spilledPageLoader.get().get(), this::loaded, directExecutor());
+        }
+        return loadFuture;
+    }
+
+    private Void loaded(SerializedPage page)
+    {
+        synchronized (this) {
+            if (released || serializedPage != null) {
+                return null;
+            }
+            serializedPage = page;
+        }
+        memoryUsageUpdater.accept(retainedSizeInBytes);
+        return null;
+    }
+
+    public synchronized SerializedPage getSerializedPage()
+    {
+        checkState(serializedPage != null, "Page is not loaded");
         return serializedPage;
     }
 
     public int getPositionCount()
     {
-        return serializedPage.getPositionCount();
+        return positionCount;
     }
 
     public long getRetainedSizeInBytes()
     {
-        return serializedPage.getRetainedSizeInBytes();
+        return retainedSizeInBytes;
     }
 
     public void dereferencePage()
@@ -64,10 +144,26 @@ class SerializedPageReference
         checkState(remainingReferences >= 0, "Page reference count is negative");
 
         if (remainingReferences == 0) {
+            if (spilledPageLoader.isPresent()) {
+                release();
+            }
             onDereference.run();
         }
     }
 
+    private void release()
+    {
+        boolean wasLoaded;
+        synchronized (this) {
+            released = true;
+            wasLoaded = serializedPage != null;
+            serializedPage = null;
+        }
+        if (wasLoaded) {
+            memoryUsageUpdater.accept(-retainedSizeInBytes);
+        }
+    }
+
     @Override
     public String toString()
     {
@@ -28,63 +28,100 @@ import java.util.ArrayList;
 import java.util.Collection;
 import java.util.List;
 import java.util.PriorityQueue;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicLong;
 import java.util.concurrent.locks.Condition;
 import java.util.concurrent.locks.ReentrantLock;
 
 import static com.google.common.base.Preconditions.checkArgument;
 import static com.google.common.base.Preconditions.checkState;
+import static java.lang.Math.floorMod;
 import static java.util.concurrent.TimeUnit.NANOSECONDS;
 import static java.util.concurrent.TimeUnit.SECONDS;
 
+/**
+ * Splits waiting for a runner thread, split into one or more shards. Each runner thread takes splits
+ * from its own shard, and a split that used up its quanta is queued in the shard of the thread that ran it,
+ * which reduces contention on the queue and keeps splits on the same group of threads. A runner
+ * whose shard is empty steals splits from the other shards.
+ * <p>
+ * Levels are selected in each shard based on the scheduled time of the levels across all shards,
+ * so every shard keeps the target scheduled time ratio between levels.
+ */
 @ThreadSafe
 public class MultilevelSplitQueue
 {
     static final int[] LEVEL_THRESHOLD_SECONDS = {0, 1, 10, 60, 300};
     static final long LEVEL_CONTRIBUTION_CAP = SECONDS.toNanos(30);
 
-    @GuardedBy("lock")
-    private final List<PriorityQueue<PrioritizedSplitRunner>> levelWaitingSplits;
+    // idle runners are woken up by offer, so this is only a backstop in case a runner is not signaled
+    private static final long IDLE_STEAL_INTERVAL_NANOS = SECONDS.toNanos(1);
+
+    private final List<Shard> shards;
+    private final AtomicInteger nextShard = new AtomicInteger();
 
+    private final AtomicInteger[] levelWaitingSplitCount = new AtomicInteger[LEVEL_THRESHOLD_SECONDS.length];
     private final AtomicLong[] levelScheduledTime = new AtomicLong[LEVEL_THRESHOLD_SECONDS.length];
 
     private final AtomicLong[] levelMinPriority;
     private final List<CounterStat> selectedLevelCounters;
-
-    private final ReentrantLock lock = new ReentrantLock();
-    private final Condition notEmpty = lock.newCondition();
+    private final CounterStat stolenSplits = new CounterStat();
 
     private final double levelTimeMultiplier;
 
     @Inject
     public MultilevelSplitQueue(TaskManagerConfig taskManagerConfig)
     {
-        this(taskManagerConfig.getLevelTimeMultiplier().doubleValue());
+        this(taskManagerConfig.getLevelTimeMultiplier().doubleValue(), taskManagerConfig.getSplitQueueShards());
     }
 
     public MultilevelSplitQueue(double levelTimeMultiplier)
     {
+        this(levelTimeMultiplier, 1);
+    }
+
+    public MultilevelSplitQueue(double levelTimeMultiplier, int shardCount)
+    {
+        checkArgument(shardCount > 0, "shardCount must be at least 1");
         this.levelMinPriority = new AtomicLong[LEVEL_THRESHOLD_SECONDS.length];
-        this.levelWaitingSplits = new ArrayList<>(LEVEL_THRESHOLD_SECONDS.length);
         ImmutableList.Builder<CounterStat> counters = ImmutableList.builder();
 
         for (int i = 0; i < LEVEL_THRESHOLD_SECONDS.length; i++) {
+            levelWaitingSplitCount[i] = new AtomicInteger();
             levelScheduledTime[i] = new AtomicLong();
             levelMinPriority[i] = new AtomicLong(-1);
-            levelWaitingSplits.add(new PriorityQueue<>());
             counters.add(new CounterStat());
         }
 
         this.selectedLevelCounters = counters.build();
 
+        ImmutableList.Builder<Shard> shards = ImmutableList.builder();
+        for (int i = 0; i < shardCount; i++) {
+            shards.add(new Shard());
+        }
+        this.shards = shards.build();
+
         this.levelTimeMultiplier = levelTimeMultiplier;
     }
 
+    public int getShardCount()
+    {
+        return shards.size();
+    }
+
     private void addLevelTime(int level, long nanos)
     {
         levelScheduledTime[level].addAndGet(nanos);
     }
 
+    /**
+     * Queues the split in the shards in a round robin fashion.
+     */
+    public void offer(PrioritizedSplitRunner split)
+    {
+        offer(split, floorMod(nextShard.getAndIncrement(), shards.size()));
+    }
+
     /**
      * During periods of time when a level has no waiting splits, it will not accumulate
      * scheduled time and will fall behind relative to other levels.
@@ -95,15 +132,16 @@ public class MultilevelSplitQueue
      * To prevent this we set the scheduled time for levels which were empty to the expected
      * scheduled time.
      */
-    public void offer(PrioritizedSplitRunner split)
+    public void offer(PrioritizedSplitRunner split, int shardId)
     {
         checkArgument(split != null, "split is null");
 
         split.setReady();
         int level = split.getPriority().getLevel();
-        lock.lock();
+        Shard shard = shards.get(shardId);
+        shard.lock.lock();
         try {
-            if (levelWaitingSplits.get(level).isEmpty()) {
+            if (levelWaitingSplitCount[level].getAndIncrement() == 0) {
                 // Accesses to levelScheduledTime are not synchronized, so we have a data race
                 // here - our level time math will be off. However, the staleness is bounded by
                 // the fact that only running splits that complete during this computation
@@ -114,40 +152,124 @@ public class MultilevelSplitQueue
                 levelScheduledTime[level].addAndGet(delta);
             }
 
-            levelWaitingSplits.get(level).offer(split);
-            notEmpty.signal();
+            shard.levelWaitingSplits.get(level).offer(split);
+            shard.splitCount.incrementAndGet();
+            if (shard.idleRunners > 0) {
+                shard.notEmpty.signal();
+                return;
+            }
         }
         finally {
-            lock.unlock();
+            shard.lock.unlock();
+        }
+
+        // all runners of the shard are busy, so let an idle runner of another shard steal the split
+        for (int i = 1; i < shards.size(); i++) {
+            Shard other = shards.get((shardId + i) % shards.size());
+            if (other.idleRunners > 0) {
+                other.lock.lock();
+                try {
+                    other.notEmpty.signal();
+                }
+                finally {
+                    other.lock.unlock();
+                }
+                return;
+            }
         }
     }
 
     public PrioritizedSplitRunner take()
             throws InterruptedException
     {
+        return take(0);
+    }
+
+    /**
+     * Takes a split from the shard, or steals one from the other shards if the shard is empty.
+     */
+    public PrioritizedSplitRunner take(int shardId)
+            throws InterruptedException
+    {
+        Shard shard = shards.get(shardId);
         while (true) {
-            lock.lockInterruptibly();
-            try {
-                PrioritizedSplitRunner result;
-                while ((result = pollSplit()) == null) {
-                    notEmpty.await();
-                }
+            PrioritizedSplitRunner result = pollSplit(shard);
+            if (result == null) {
+                result = stealSplit(shardId);
+            }
+            if (result == null) {
+                awaitSplit(shard);
+                continue;
+            }
 
-                if (result.updateLevelPriority()) {
-                    offer(result);
-                    continue;
-                }
+            if (result.updateLevelPriority()) {
+                offer(result, shardId);
+                continue;
+            }
+
+            int selectedLevel = result.getPriority().getLevel();
+            levelMinPriority[selectedLevel].set(result.getPriority().getLevelPriority());
+            selectedLevelCounters.get(selectedLevel).update(1);
+
+            return result;
+        }
+    }
 
-                int selectedLevel = result.getPriority().getLevel();
-                levelMinPriority[selectedLevel].set(result.getPriority().getLevelPriority());
-                selectedLevelCounters.get(selectedLevel).update(1);
+    private PrioritizedSplitRunner stealSplit(int shardId)
+    {
+        for (int i = 1; i < shards.size(); i++) {
+            Shard victim = shards.get((shardId + i) % shards.size());
+            if (victim.splitCount.get() == 0) {
+                continue;
+            }
+            PrioritizedSplitRunner split = pollSplit(victim);
+            if (split != null) {
+                stolenSplits.update(1);
+                return split;
+            }
+        }
+        return null;
+    }
 
-                return result;
+    private boolean hasSplitsToSteal(Shard shard)
+    {
+        for (Shard other : shards) {
+            if (other != shard && other.splitCount.get() > 0) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void awaitSplit(Shard shard)
+            throws InterruptedException
+    {
+        shard.lock.lockInterruptibly();
+        try {
+            if (shard.splitCount.get() > 0) {
+                return;
+            }
+            shard.idleRunners++;
+            try {
+                // offer signals another shard only if it has idle runners, so check for splits to steal after
+                // becoming idle, as a split may have been offered in between
+                if (hasSplitsToSteal(shard)) {
+                    return;
+                }
+                if (shards.size() == 1) {
+                    shard.notEmpty.await();
+                }
+                else {
+                    shard.notEmpty.awaitNanos(IDLE_STEAL_INTERVAL_NANOS);
+                }
             }
             finally {
-                lock.unlock();
+                shard.idleRunners--;
             }
         }
+        finally {
+            shard.lock.unlock();
+        }
     }
 
     /**
@@ -158,36 +280,42 @@ public class MultilevelSplitQueue
      * with the objective of minimizing deviation from the target scheduled time. From this level,
      * we pick the split with the lowest priority.
      */
-    @GuardedBy("lock")
-    private PrioritizedSplitRunner pollSplit()
+    private PrioritizedSplitRunner pollSplit(Shard shard)
     {
-        long targetScheduledTime = getLevel0TargetTime();
-        double worstRatio = 1;
-        int selectedLevel = -1;
-        for (int level = 0; level < LEVEL_THRESHOLD_SECONDS.length; level++) {
-            if (!levelWaitingSplits.get(level).isEmpty()) {
-                long levelTime = levelScheduledTime[level].get();
-                double ratio = levelTime == 0 ? 0 : targetScheduledTime / (1.0 * levelTime);
-                if (selectedLevel == -1 || ratio > worstRatio) {
-                    worstRatio = ratio;
-                    selectedLevel = level;
+        shard.lock.lock();
+        try {
+            long targetScheduledTime = getLevel0TargetTime();
+            double worstRatio = 1;
+            int selectedLevel = -1;
+            for (int level = 0; level < LEVEL_THRESHOLD_SECONDS.length; level++) {
+                if (!shard.levelWaitingSplits.get(level).isEmpty()) {
+                    long levelTime = levelScheduledTime[level].get();
+                    double ratio = levelTime == 0 ? 0 : targetScheduledTime / (1.0 * levelTime);
+                    if (selectedLevel == -1 || ratio > worstRatio) {
+                        worstRatio = ratio;
+                        selectedLevel = level;
+                    }
                 }
-            }
 
-            targetScheduledTime /= levelTimeMultiplier;
-        }
+                targetScheduledTime /= levelTimeMultiplier;
+            }
 
-        if (selectedLevel == -1) {
-            return null;
-        }
+            if (selectedLevel == -1) {
+                return null;
+            }
 
-        PrioritizedSplitRunner result = levelWaitingSplits.get(selectedLevel).poll();
-        checkState(result != null, "pollSplit cannot return null");
+            PrioritizedSplitRunner result = shard.levelWaitingSplits.get(selectedLevel).poll();
+            checkState(result != null, "pollSplit cannot return null");
+            shard.splitCount.decrementAndGet();
+            levelWaitingSplitCount[selectedLevel].decrementAndGet();
 
-        return result;
+            return result;
+        }
+        finally {
+            shard.lock.unlock();
+        }
     }
 
-    @GuardedBy("lock")
     private long getLevel0TargetTime()
     {
         long level0TargetTime = levelScheduledTime[0].get();
@@ -247,27 +375,26 @@ public class MultilevelSplitQueue
     public void remove(PrioritizedSplitRunner split)
     {
         checkArgument(split != null, "split is null");
-        lock.lock();
-        try {
-            for (PriorityQueue<PrioritizedSplitRunner> level : levelWaitingSplits) {
-                level.remove(split);
-            }
-        }
-        finally {
-            lock.unlock();
-        }
+        removeAll(ImmutableList.of(split));
     }
 
     public void removeAll(Collection<PrioritizedSplitRunner> splits)
     {
-        lock.lock();
-        try {
-            for (PriorityQueue<PrioritizedSplitRunner> level : levelWaitingSplits) {
-                level.removeAll(splits);
+        for (Shard shard : shards) {
+            shard.lock.lock();
+            try {
+                for (int level = 0; level < LEVEL_THRESHOLD_SECONDS.length; level++) {
+                    PriorityQueue<PrioritizedSplitRunner> levelSplits = shard.levelWaitingSplits.get(level);
+                    int sizeBefore = levelSplits.size();
+                    levelSplits.removeAll(splits);
+                    int removed = sizeBefore - levelSplits.size();
+                    shard.splitCount.addAndGet(-removed);
+                    levelWaitingSplitCount[level].addAndGet(-removed);
+                }
+            }
+            finally {
+                shard.lock.unlock();
             }
-        }
-        finally {
-            lock.unlock();
         }
     }
 
@@ -279,17 +406,11 @@ public class MultilevelSplitQueue
 
     public int size()
     {
-        lock.lock();
-        try {
-            int total = 0;
-            for (PriorityQueue<PrioritizedSplitRunner> level : levelWaitingSplits) {
-                total += level.size();
-            }
-            return total;
-        }
-        finally {
-            lock.unlock();
+        int total = 0;
+        for (Shard shard : shards) {
+            total += shard.splitCount.get();
         }
+        return total;
     }
 
     public static int computeLevel(long threadUsageNanos)
@@ -340,6 +461,19 @@ public class MultilevelSplitQueue
         return getLevelScheduledTime(4);
     }
 
+    @Managed
+    public int getShards()
+    {
+        return shards.size();
+    }
+
+    @Managed
+    @Nested
+    public CounterStat getStolenSplits()
+    {
+        return stolenSplits;
+    }
+
     @Managed
     @Nested
     public CounterStat getSelectedCountLevel0()
@@ -374,4 +508,24 @@ public class MultilevelSplitQueue
     {
         return selectedLevelCounters.get(4);
     }
+
+    private static class Shard
+    {
+        private final ReentrantLock lock = new ReentrantLock();
+        private final Condition notEmpty = lock.newCondition();
+
+        @GuardedBy("lock")
+        private final List<PriorityQueue<PrioritizedSplitRunner>> levelWaitingSplits = new ArrayList<>(LEVEL_THRESHOLD_SECONDS.length);
+        private final AtomicInteger splitCount = new AtomicInteger();
+
+        // written with the lock held, read without the lock to find a shard to signal
+        private volatile int idleRunners;
+
+        public Shard()
+        {
+            for (int i = 0; i < LEVEL_THRESHOLD_SECONDS.length; i++) {
+                levelWaitingSplits.add(new PriorityQueue<>());
+            }
+        }
+    }
 }
@@ -66,6 +66,9 @@ public class PrioritizedSplitRunner
     private final AtomicLong cpuTimeNanos = new AtomicLong();
     private final AtomicLong processCalls = new AtomicLong();
 
+    // snapshot taken when the split is queued, so the ordering of queued splits does not change
+    private volatile long expectedRemainingCpuNanos;
+
     private final CounterStat globalCpuTimeMicros;
     private final CounterStat globalScheduledTimeMicros;
 
@@ -149,6 +152,21 @@ public class PrioritizedSplitRunner
         return waitNanos.get();
     }
 
+    public int getPipelineId()
+    {
+        return split.getPipelineId();
+    }
+
+    public long getProcessedInputBytes()
+    {
+        return split.getProcessedInputBytes();
+    }
+
+    public long getExpectedRemainingCpuNanos()
+    {
+        return expectedRemainingCpuNanos;
+    }
+
     public ListenableFuture<?> process()
     {
         try {
@@ -193,6 +211,7 @@ public class PrioritizedSplitRunner
     public void setReady()
     {
         lastReady.set(ticker.read());
+        expectedRemainingCpuNanos = taskHandle.getExpectedRemainingCpuNanos(split.getPipelineId(), cpuTimeNanos.get(), split.getProcessedInputBytes());
     }
 
     /**
@@ -227,6 +246,13 @@ public class PrioritizedSplitRunner
             return result;
         }
 
+        // Splits with the same priority, such as the splits of a task queued in the same quanta or
+        // splits reset to the minimum priority of the level after being blocked, run shortest expected work first
+        result = Long.compare(expectedRemainingCpuNanos, o.expectedRemainingCpuNanos);
+        if (result != 0) {
+            return result;
+        }
+
         return Long.compare(workerId, o.workerId);
     }
 
@@ -0,0 +1,115 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.prestosql.execution.executor;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import io.airlift.units.DataSize;
+import io.airlift.units.Duration;
+import io.prestosql.execution.TaskId;
+
+import javax.annotation.concurrent.Immutable;
+
+import static com.google.common.base.MoreObjects.toStringHelper;
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Moving averages of the cost of the finished leaf splits of a single pipeline of a task.
+ */
+@Immutable
+public class SplitCostEstimate
+{
+    private final TaskId taskId;
+    private final int pipelineId;
+    private final long completedSplits;
+    private final Duration scheduledTimePerSplit;
+    private final Duration cpuTimePerSplit;
+    private final DataSize inputDataSizePerSplit;
+    private final double cpuNanosPerInputByte;
+
+    @JsonCreator
+    public SplitCostEstimate(
+            @JsonProperty("taskId") TaskId taskId,
+            @JsonProperty("pipelineId") int pipelineId,
+            @JsonProperty("completedSplits") long completedSplits,
+            @JsonProperty("scheduledTimePerSplit") Duration scheduledTimePerSplit,
+            @JsonProperty("cpuTimePerSplit") Duration cpuTimePerSplit,
+            @JsonProperty("inputDataSizePerSplit") DataSize inputDataSizePerSplit,
+            @JsonProperty("cpuNanosPerInputByte") double cpuNanosPerInputByte)
+    {
+        this.taskId = requireNonNull(taskId, "taskId is null");
+        this.pipelineId = pipelineId;
+        this.completedSplits = completedSplits;
+        this.scheduledTimePerSplit = requireNonNull(scheduledTimePerSplit, "scheduledTimePerSplit is null");
+        this.cpuTimePerSplit = requireNonNull(cpuTimePerSplit, "cpuTimePerSplit is null");
+        this.inputDataSizePerSplit = requireNonNull(inputDataSizePerSplit, "inputDataSizePerSplit is null");
+        this.cpuNanosPerInputByte = cpuNanosPerInputByte;
+    }
+
+    @JsonProperty
+    public TaskId getTaskId()
+    {
+        return taskId;
+    }
+
+    @JsonProperty
+    public int getPipelineId()
+    {
+        return pipelineId;
+    }
+
+    @JsonProperty
+    public long getCompletedSplits()
+    {
+        return completedSplits;
+    }
+
+    @JsonProperty
+    public Duration getScheduledTimePerSplit()
+    {
+        return scheduledTimePerSplit;
+    }
+
+    @JsonProperty
+    public Duration getCpuTimePerSplit()
+    {
+        return cpuTimePerSplit;
+    }
+
+    @JsonProperty
+    public DataSize getInputDataSizePerSplit()
+    {
+        return inputDataSizePerSplit;
+    }
+
+    @JsonProperty
+    public double getCpuNanosPerInputByte()
+    {
+        return cpuNanosPerInputByte;
+    }
+
+    @Override
+    public String toString()
+    {
+        return toStringHelper(this)
+                .add("taskId", taskId)
+                .add("pipelineId", pipelineId)
+                .add("completedSplits", completedSplits)
+                .add("scheduledTimePerSplit", scheduledTimePerSplit)
+                .add("cpuTimePerSplit", cpuTimePerSplit)
+                .add("inputDataSizePerSplit", inputDataSizePerSplit)
+                .add("cpuNanosPerInputByte", cpuNanosPerInputByte)
+                .toString();
+    }
+}
@@ -0,0 +1,142 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.prestosql.execution.executor;
+
+import com.google.common.collect.ImmutableList;
+import io.prestosql.execution.TaskId;
+
+import javax.annotation.concurrent.GuardedBy;
+import javax.annotation.concurrent.NotThreadSafe;
+import javax.annotation.concurrent.ThreadSafe;
+
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static io.airlift.units.DataSize.succinctBytes;
+import static io.airlift.units.Duration.succinctNanos;
+import static java.lang.Math.max;
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Keeps a moving estimate of the cost of the leaf splits of each pipeline of a task,
+ * based on the splits of the pipeline that already finished. Pipelines without
+ * finished splits have an expected cost of zero, so their first splits are not delayed.
+ */
+@ThreadSafe
+class SplitCostEstimator
+{
+    // weight of the most recently finished split in the moving averages
+    private static final double SAMPLE_WEIGHT = 0.2;
+
+    private final TaskId taskId;
+
+    @GuardedBy("this")
+    private final Map<Integer, PipelineCost> pipelines = new TreeMap<>();
+
+    public SplitCostEstimator(TaskId taskId)
+    {
+        this.taskId = requireNonNull(taskId, "taskId is null");
+    }
+
+    public synchronized void splitFinished(int pipelineId, long scheduledNanos, long cpuNanos, long inputBytes)
+    {
+        checkArgument(scheduledNanos >= 0, "scheduledNanos is negative");
+        checkArgument(cpuNanos >= 0, "cpuNanos is negative");
+        checkArgument(inputBytes >= 0, "inputBytes is negative");
+        pipelines.computeIfAbsent(pipelineId, ignored -> new PipelineCost()).add(scheduledNanos, cpuNanos, inputBytes);
+    }
+
+    /**
+     * Blends the expected scheduled time of a split of all the pipelines, weighted by the number
+     * of finished splits of each pipeline, since the leaf splits of all the pipelines of the task
+     * share the same concurrency limit.
+     *
+     * @return expected scheduled time of a split of the task, or zero if no split finished yet
+     */
+    public synchronized long getExpectedScheduledNanos()
+    {
+        long completedSplits = 0;
+        double scheduledNanos = 0;
+        for (PipelineCost cost : pipelines.values()) {
+            completedSplits += cost.completedSplits;
+            scheduledNanos += cost.completedSplits * cost.scheduledNanosPerSplit;
+        }
+        if (completedSplits == 0) {
+            return 0;
+        }
+        return (long) (scheduledNanos / completedSplits);
+    }
+
+    /**
+     * Estimates the CPU time a split still needs after having used {@code cpuNanos} to process {@code inputBytes}.
+     * If the splits of the pipeline read input, the input left to read is priced with the CPU time per input byte,
+     * otherwise the CPU time already used is subtracted from the CPU time per split.
+     */
+    public synchronized long getExpectedRemainingCpuNanos(int pipelineId, long cpuNanos, long inputBytes)
+    {
+        PipelineCost cost = pipelines.get(pipelineId);
+        if (cost == null) {
+            return 0;
+        }
+        if (cost.inputBytesPerSplit >= 1) {
+            return (long) (max(0, cost.inputBytesPerSplit - inputBytes) * cost.getCpuNanosPerInputByte());
+        }
+        return (long) max(0, cost.cpuNanosPerSplit - cpuNanos);
+    }
+
+    public synchronized List<SplitCostEstimate> getEstimates()
+    {
+        ImmutableList.Builder<SplitCostEstimate> estimates = ImmutableList.builder();
+        for (Map.Entry<Integer, PipelineCost> entry : pipelines.entrySet()) {
+            PipelineCost cost = entry.getValue();
+            estimates.add(new SplitCostEstimate(
+                    taskId,
+                    entry.getKey(),
+                    cost.completedSplits,
+                    succinctNanos((long) cost.scheduledNanosPerSplit),
+                    succinctNanos((long) cost.cpuNanosPerSplit),
+                    succinctBytes((long) cost.inputBytesPerSplit),
+                    cost.getCpuNanosPerInputByte()));
+        }
+        return estimates.build();
+    }
+
+    @NotThreadSafe
+    private static class PipelineCost
+    {
+        private long completedSplits;
+        private double scheduledNanosPerSplit;
+        private double cpuNanosPerSplit;
+        private double inputBytesPerSplit;
+
+        public void add(long scheduledNanos, long cpuNanos, long inputBytes)
+        {
+            completedSplits++;
+            double weight = completedSplits == 1 ? 1 : SAMPLE_WEIGHT;
+            scheduledNanosPerSplit += weight * (scheduledNanos - scheduledNanosPerSplit);
+            cpuNanosPerSplit += weight * (cpuNanos - cpuNanosPerSplit);
+            inputBytesPerSplit += weight * (inputBytes - inputBytesPerSplit);
+        }
+
+        public double getCpuNanosPerInputByte()
+        {
+            if (inputBytesPerSplit < 1) {
+                return 0;
+            }
+            return cpuNanosPerSplit / inputBytesPerSplit;
+        }
+    }
+}
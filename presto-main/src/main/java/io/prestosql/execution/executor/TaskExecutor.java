@@ -16,6 +16,7 @@ package io.prestosql.execution.executor;
 import com.google.common.annotations.VisibleForTesting;
 import com.google.common.base.Ticker;
 import com.google.common.collect.ComparisonChain;
+import com.google.common.collect.ImmutableList;
 import com.google.common.util.concurrent.ListenableFuture;
 import io.airlift.concurrent.SetThreadName;
 import io.airlift.concurrent.ThreadPoolExecutorMBean;
@@ -194,6 +195,7 @@ public class TaskExecutor
         checkArgument(guaranteedNumberOfDriversPerTask > 0, "guaranteedNumberOfDriversPerTask must be at least 1");
         checkArgument(maximumNumberOfDriversPerTask > 0, "maximumNumberOfDriversPerTask must be at least 1");
         checkArgument(guaranteedNumberOfDriversPerTask <= maximumNumberOfDriversPerTask, "guaranteedNumberOfDriversPerTask cannot be greater than maximumNumberOfDriversPerTask");
+        checkArgument(requireNonNull(splitQueue, "splitQueue is null").getShardCount() <= runnerThreads, "split queue shards cannot be more than runnerThreads");
 
         // we manage thread pool size directly, so create an unlimited pool
         this.executor = newCachedThreadPool(threadsNamed("task-processor-%s"));
@@ -215,7 +217,8 @@ public class TaskExecutor
     {
         checkState(!closed, "TaskExecutor is closed");
         for (int i = 0; i < runnerThreads; i++) {
-            addRunnerThread();
+            // spread the runner threads evenly across the split queue shards
+            addRunnerThread(i % waitingSplits.getShardCount());
         }
     }
 
@@ -240,10 +243,10 @@ public class TaskExecutor
                 .toString();
     }
 
-    private synchronized void addRunnerThread()
+    private synchronized void addRunnerThread(int splitQueueShard)
     {
         try {
-            executor.execute(embedVersion.embedVersion(new TaskRunner()));
+            executor.execute(embedVersion.embedVersion(new TaskRunner(splitQueueShard)));
         }
         catch (RejectedExecutionException ignored) {
         }
@@ -457,6 +460,12 @@ public class TaskExecutor
             implements Runnable
     {
         private final long runnerId = NEXT_RUNNER_ID.getAndIncrement();
+        private final int splitQueueShard;
+
+        private TaskRunner(int splitQueueShard)
+        {
+            this.splitQueueShard = splitQueueShard;
+        }
 
         @Override
         public void run()
@@ -466,7 +475,7 @@ public class TaskExecutor
                     // select next worker
                     final PrioritizedSplitRunner split;
                     try {
-                        split = waitingSplits.take();
+                        split = waitingSplits.take(splitQueueShard);
                     }
                     catch (InterruptedException e) {
                         Thread.currentThread().interrupt();
@@ -494,7 +503,8 @@ public class TaskExecutor
                         }
                         else {
                             if (blocked.isDone()) {
-                                waitingSplits.offer(split);
+                                // keep the split on the threads of this shard
+                                waitingSplits.offer(split, splitQueueShard);
                             }
                             else {
                                 blockedSplits.put(split, blocked);
@@ -523,9 +533,9 @@ public class TaskExecutor
                 }
             }
             finally {
-                // unless we have been closed, we need to replace this thread
+                // unless we have been closed, we need to replace this thread on the same shard
                 if (!closed) {
-                    addRunnerThread();
+                    addRunnerThread(splitQueueShard);
                 }
             }
         }
@@ -771,6 +781,15 @@ public class TaskExecutor
         return globalCpuTimeMicros;
     }
 
+    public synchronized List<SplitCostEstimate> getSplitCostEstimates()
+    {
+        ImmutableList.Builder<SplitCostEstimate> estimates = ImmutableList.builder();
+        for (TaskHandle task : tasks) {
+            estimates.addAll(task.getSplitCostEstimates());
+        }
+        return estimates.build();
+    }
+
     private synchronized int getRunningTasksForLevel(int level)
     {
         int count = 0;
@@ -13,6 +13,7 @@
  */
 package io.prestosql.execution.executor;
 
+import com.google.common.annotations.VisibleForTesting;
 import com.google.common.collect.ImmutableList;
 import io.airlift.units.Duration;
 import io.prestosql.execution.SplitConcurrencyController;
@@ -52,6 +53,7 @@ public class TaskHandle
     private boolean destroyed;
     @GuardedBy("this")
     protected final SplitConcurrencyController concurrencyController;
+    private final SplitCostEstimator costEstimator;
 
     private final AtomicInteger nextSplitId = new AtomicInteger();
 
@@ -74,6 +76,7 @@ public class TaskHandle
         this.concurrencyController = new SplitConcurrencyController(
                 initialSplitConcurrency,
                 requireNonNull(splitConcurrencyAdjustFrequency, "splitConcurrencyAdjustFrequency is null"));
+        this.costEstimator = new SplitCostEstimator(taskId);
     }
 
     public synchronized Priority addScheduledNanos(long durationNanos)
@@ -175,11 +178,34 @@ public class TaskHandle
 
     public synchronized void splitComplete(PrioritizedSplitRunner split)
     {
+        if (runningLeafSplits.contains(split)) {
+            costEstimator.splitFinished(split.getPipelineId(), split.getScheduledNanos(), split.getCpuTimeNanos(), split.getProcessedInputBytes());
+            concurrencyController.setExpectedSplitNanos(costEstimator.getExpectedScheduledNanos());
+        }
         concurrencyController.splitFinished(split.getScheduledNanos(), utilizationSupplier.getAsDouble(), runningLeafSplits.size());
         runningIntermediateSplits.remove(split);
         runningLeafSplits.remove(split);
     }
 
+    /**
+     * Not synchronized, as it is called while the split queue is locked
+     */
+    public long getExpectedRemainingCpuNanos(int pipelineId, long cpuNanos, long inputBytes)
+    {
+        return costEstimator.getExpectedRemainingCpuNanos(pipelineId, cpuNanos, inputBytes);
+    }
+
+    public List<SplitCostEstimate> getSplitCostEstimates()
+    {
+        return costEstimator.getEstimates();
+    }
+
+    @VisibleForTesting
+    SplitCostEstimator getCostEstimator()
+    {
+        return costEstimator;
+    }
+
     public int getNextSplitId()
     {
         return nextSplitId.getAndIncrement();
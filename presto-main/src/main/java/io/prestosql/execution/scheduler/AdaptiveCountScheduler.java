@@ -0,0 +1,162 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.prestosql.execution.scheduler;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.collect.ImmutableList;
+import com.google.common.util.concurrent.SettableFuture;
+import io.airlift.units.DataSize;
+import io.prestosql.execution.RemoteTask;
+import io.prestosql.execution.SqlStageExecution;
+import io.prestosql.execution.StageState;
+import io.prestosql.execution.TaskState;
+import io.prestosql.execution.TaskStatus;
+import io.prestosql.execution.scheduler.FixedCountScheduler.TaskScheduler;
+import io.prestosql.metadata.InternalNode;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.OptionalInt;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.function.BooleanSupplier;
+import java.util.function.Supplier;
+import java.util.stream.IntStream;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.collect.ImmutableList.toImmutableList;
+import static io.prestosql.execution.StageState.PLANNED;
+import static io.prestosql.execution.StageState.SCHEDULING;
+import static io.prestosql.execution.scheduler.ScheduleResult.BlockedReason.WAITING_FOR_SOURCE;
+import static java.lang.Math.max;
+import static java.lang.Math.min;
+import static java.util.Objects.requireNonNull;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+
+/**
+ * Schedules a stage that only reads repartitioned output of other stages on as few of the nodes of
+ * {@code partitionToNode} as its input allows. The source stages partition their output for all of the nodes,
+ * and the tasks are only created once the source tasks have produced all of their output, or once the output is
+ * too large to use fewer nodes. The stage then gets one task for every {@code targetPartitionSize} of input,
+ * and each task reads several of the partitions.
+ */
+public class AdaptiveCountScheduler
+        implements StageScheduler
+{
+    private static final long SOURCE_POLL_INTERVAL_MILLIS = 100;
+
+    private final TaskScheduler taskScheduler;
+    private final List<InternalNode> partitionToNode;
+    private final BooleanSupplier sourceTasksCreated;
+    private final Supplier<Collection<TaskStatus>> sourceTasksProvider;
+    private final ScheduledExecutorService executor;
+    private final long targetPartitionSizeInBytes;
+
+    public AdaptiveCountScheduler(
+            SqlStageExecution stage,
+            List<InternalNode> partitionToNode,
+            Collection<SqlStageExecution> sourceStages,
+            ScheduledExecutorService executor,
+            DataSize targetPartitionSize)
+    {
+        this(
+                stage::scheduleTask,
+                partitionToNode,
+                () -> sourceStages.stream()
+                        .map(SqlStageExecution::getState)
+                        .allMatch(AdaptiveCountScheduler::isTaskCreationComplete),
+                () -> sourceStages.stream()
+                        .map(SqlStageExecution::getAllTasks)
+                        .flatMap(Collection::stream)
+                        .map(RemoteTask::getTaskStatus)
+                        .collect(toImmutableList()),
+                executor,
+                targetPartitionSize);
+        stage.setSourcePartitionCount(partitionToNode.size());
+    }
+
+    @VisibleForTesting
+    public AdaptiveCountScheduler(
+            TaskScheduler taskScheduler,
+            List<InternalNode> partitionToNode,
+            BooleanSupplier sourceTasksCreated,
+            Supplier<Collection<TaskStatus>> sourceTasksProvider,
+            ScheduledExecutorService executor,
+            DataSize targetPartitionSize)
+    {
+        this.taskScheduler = requireNonNull(taskScheduler, "taskScheduler is null");
+        this.partitionToNode = ImmutableList.copyOf(requireNonNull(partitionToNode, "partitionToNode is null"));
+        checkArgument(!partitionToNode.isEmpty(), "partitionToNode is empty");
+        this.sourceTasksCreated = requireNonNull(sourceTasksCreated, "sourceTasksCreated is null");
+        this.sourceTasksProvider = requireNonNull(sourceTasksProvider, "sourceTasksProvider is null");
+        this.executor = requireNonNull(executor, "executor is null");
+        this.targetPartitionSizeInBytes = requireNonNull(targetPartitionSize, "targetPartitionSize is null").toBytes();
+        checkArgument(targetPartitionSizeInBytes > 0, "targetPartitionSize must be positive");
+    }
+
+    @Override
+    public ScheduleResult schedule()
+    {
+        OptionalInt partitionCount = getPartitionCount();
+        if (!partitionCount.isPresent()) {
+            // task status updates are not observable as futures, so poll the sources for a while
+            SettableFuture<?> future = SettableFuture.create();
+            executor.schedule(() -> future.set(null), SOURCE_POLL_INTERVAL_MILLIS, MILLISECONDS);
+            return new ScheduleResult(false, ImmutableList.of(), future, WAITING_FOR_SOURCE, 0);
+        }
+
+        OptionalInt totalPartitions = OptionalInt.of(partitionCount.getAsInt());
+        List<RemoteTask> newTasks = IntStream.range(0, partitionCount.getAsInt())
+                .mapToObj(partition -> taskScheduler.scheduleTask(partitionToNode.get(partition), partition, totalPartitions))
+                .filter(Optional::isPresent)
+                .map(Optional::get)
+                .collect(toImmutableList());
+
+        return new ScheduleResult(true, newTasks, 0);
+    }
+
+    private OptionalInt getPartitionCount()
+    {
+        int maxPartitionCount = partitionToNode.size();
+        Collection<TaskStatus> sourceTasks = sourceTasksProvider.get();
+
+        long outputBytes = sourceTasks.stream()
+                .map(TaskStatus::getOutputDataSize)
+                .mapToLong(DataSize::toBytes)
+                .sum();
+        // The source tasks cannot make progress once their output buffers are full, so
+        // do not wait for them to finish if the input is large enough for all nodes.
+        if (outputBytes >= targetPartitionSizeInBytes * maxPartitionCount || sourceTasks.stream().anyMatch(TaskStatus::isOutputBufferOverutilized)) {
+            return OptionalInt.of(maxPartitionCount);
+        }
+
+        if (!sourceTasksCreated.getAsBoolean() || !sourceTasks.stream().allMatch(AdaptiveCountScheduler::isOutputComplete)) {
+            return OptionalInt.empty();
+        }
+
+        long partitionCount = (outputBytes + targetPartitionSizeInBytes - 1) / targetPartitionSizeInBytes;
+        return OptionalInt.of((int) max(1, min(partitionCount, maxPartitionCount)));
+    }
+
+    private static boolean isTaskCreationComplete(StageState state)
+    {
+        return state != PLANNED && state != SCHEDULING;
+    }
+
+    private static boolean isOutputComplete(TaskStatus taskStatus)
+    {
+        TaskState state = taskStatus.getState();
+        return state == TaskState.FLUSHING || state.isDone();
+    }
+}
@@ -0,0 +1,252 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.prestosql.execution.scheduler;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.collect.HashMultimap;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.Multimap;
+import io.prestosql.execution.RemoteTask;
+import io.prestosql.execution.SqlStageExecution;
+import io.prestosql.execution.StageState;
+import io.prestosql.execution.TaskState;
+import io.prestosql.spi.connector.ColumnHandle;
+import io.prestosql.spi.predicate.Domain;
+import io.prestosql.spi.predicate.TupleDomain;
+import io.prestosql.sql.DynamicFilters.Descriptor;
+import io.prestosql.sql.planner.Symbol;
+import io.prestosql.sql.planner.optimizations.PlanNodeSearcher;
+import io.prestosql.sql.planner.plan.FilterNode;
+import io.prestosql.sql.planner.plan.JoinNode;
+import io.prestosql.sql.planner.plan.TableScanNode;
+import io.prestosql.sql.tree.SymbolReference;
+
+import javax.annotation.concurrent.GuardedBy;
+import javax.annotation.concurrent.ThreadSafe;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Supplier;
+
+import static io.prestosql.execution.StageState.FINISHED;
+import static io.prestosql.execution.StageState.RUNNING;
+import static io.prestosql.execution.StageState.SCHEDULED;
+import static io.prestosql.execution.TaskState.ABORTED;
+import static io.prestosql.execution.TaskState.FAILED;
+import static io.prestosql.sql.DynamicFilters.extractDynamicFilters;
+import static io.prestosql.sql.planner.plan.JoinNode.DistributionType.REPLICATED;
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Merges the dynamic filters collected by the tasks of join build-side stages,
+ * and exposes them to the probe-side split sources on the coordinator.
+ * <p>
+ * For broadcast joins, every task collects the whole build side, so the domain reported by any task is final.
+ * For partitioned joins, the domain is the union of the domains reported by all the tasks of the stage.
+ * <p>
+ * Once a domain is final, it is also sent to the tasks of the stages which scan the probe-side tables,
+ * so that their page sources can skip files and stripes of splits which were already scheduled.
+ */
+@ThreadSafe
+public class DistributedDynamicFiltersCollector
+{
+    @GuardedBy("this")
+    private final Map<String, DynamicFilterSource> sources = new HashMap<>();
+
+    @GuardedBy("this")
+    private final Map<String, Domain> completedDynamicFilters = new HashMap<>();
+
+    // stages with table scans filtered by a dynamic filter, keyed by dynamic filter ID
+    @GuardedBy("this")
+    private final Multimap<String, SqlStageExecution> consumers = HashMultimap.create();
+
+    @GuardedBy("this")
+    private final Set<String> sentDynamicFilters = new HashSet<>();
+
+    public void registerStages(Collection<SqlStageExecution> stages)
+    {
+        Set<SqlStageExecution> sourceStages = new HashSet<>();
+        synchronized (this) {
+            registerSources(stages);
+            for (SqlStageExecution stage : stages) {
+                List<FilterNode> filterNodes = PlanNodeSearcher.searchFrom(stage.getFragment().getRoot())
+                        .where(node -> node instanceof FilterNode && ((FilterNode) node).getSource() instanceof TableScanNode)
+                        .findAll();
+                for (FilterNode filterNode : filterNodes) {
+                    for (Descriptor descriptor : extractDynamicFilters(filterNode.getPredicate()).getDynamicConjuncts()) {
+                        DynamicFilterSource source = sources.get(descriptor.getId());
+                        // the tasks of the stage which collects the filter already apply it locally
+                        if (source != null && source.stage != stage) {
+                            consumers.put(descriptor.getId(), stage);
+                            sourceStages.add(source.stage);
+                        }
+                    }
+                }
+            }
+        }
+
+        for (SqlStageExecution stage : sourceStages) {
+            stage.addDynamicFilterDomainsListener(this::sendDynamicFilters);
+            // a partitioned domain is only final once all tasks of the stage are scheduled
+            stage.addStateChangeListener(state -> sendDynamicFilters());
+        }
+    }
+
+    @GuardedBy("this")
+    private void registerSources(Collection<SqlStageExecution> stages)
+    {
+        for (SqlStageExecution stage : stages) {
+            List<JoinNode> joinNodes = PlanNodeSearcher.searchFrom(stage.getFragment().getRoot())
+                    .where(JoinNode.class::isInstance)
+                    .findAll();
+            for (JoinNode joinNode : joinNodes) {
+                boolean replicated = joinNode.getDistributionType().map(REPLICATED::equals).orElse(false);
+                for (String filterId : joinNode.getDynamicFilters().keySet()) {
+                    sources.put(filterId, new DynamicFilterSource(stage, replicated));
+                }
+            }
+        }
+    }
+
+    public Supplier<TupleDomain<ColumnHandle>> createDynamicFilterSupplier(List<Descriptor> descriptors, Map<Symbol, ColumnHandle> assignments)
+    {
+        ImmutableMap.Builder<String, ColumnHandle> columnsBuilder = ImmutableMap.builder();
+        for (Descriptor descriptor : descriptors) {
+            if (!(descriptor.getInput() instanceof SymbolReference)) {
+                continue;
+            }
+            ColumnHandle column = assignments.get(Symbol.from(descriptor.getInput()));
+            if (column != null) {
+                columnsBuilder.put(descriptor.getId(), column);
+            }
+        }
+        Map<String, ColumnHandle> columns = columnsBuilder.build();
+        if (columns.isEmpty()) {
+            return TupleDomain::all;
+        }
+
+        return () -> {
+            TupleDomain<ColumnHandle> result = TupleDomain.all();
+            for (Map.Entry<String, ColumnHandle> entry : columns.entrySet()) {
+                Optional<Domain> domain = getDynamicFilter(entry.getKey());
+                if (domain.isPresent()) {
+                    result = result.intersect(TupleDomain.withColumnDomains(ImmutableMap.of(entry.getValue(), domain.get())));
+                }
+            }
+            return result;
+        };
+    }
+
+    private void sendDynamicFilters()
+    {
+        Map<SqlStageExecution, Map<String, Domain>> domainsByStage = new HashMap<>();
+        synchronized (this) {
+            for (Map.Entry<String, Collection<SqlStageExecution>> entry : consumers.asMap().entrySet()) {
+                String filterId = entry.getKey();
+                if (sentDynamicFilters.contains(filterId)) {
+                    continue;
+                }
+                Optional<Domain> domain = getDynamicFilter(filterId);
+                if (!domain.isPresent()) {
+                    continue;
+                }
+                sentDynamicFilters.add(filterId);
+                for (SqlStageExecution stage : entry.getValue()) {
+                    domainsByStage.computeIfAbsent(stage, ignored -> new HashMap<>()).put(filterId, domain.get());
+                }
+            }
+        }
+
+        // the stages send the domains to their tasks, which is done outside of the lock
+        domainsByStage.forEach(SqlStageExecution::addRemoteDynamicFilterDomains);
+    }
+
+    private synchronized Optional<Domain> getDynamicFilter(String filterId)
+    {
+        Domain completed = completedDynamicFilters.get(filterId);
+        if (completed != null) {
+            return Optional.of(completed);
+        }
+
+        DynamicFilterSource source = sources.get(filterId);
+        if (source == null) {
+            // stages are not registered yet
+            return Optional.empty();
+        }
+
+        Optional<Domain> domain = source.collect(filterId);
+        domain.ifPresent(value -> completedDynamicFilters.put(filterId, value));
+        return domain;
+    }
+
+    private static class DynamicFilterSource
+    {
+        private final SqlStageExecution stage;
+        private final boolean replicated;
+
+        private DynamicFilterSource(SqlStageExecution stage, boolean replicated)
+        {
+            this.stage = requireNonNull(stage, "stage is null");
+            this.replicated = replicated;
+        }
+
+        private Optional<Domain> collect(String filterId)
+        {
+            return mergeDynamicFilter(filterId, replicated, stage.getState(), stage.getAllTasks());
+        }
+    }
+
+    @VisibleForTesting
+    static Optional<Domain> mergeDynamicFilter(String filterId, boolean replicated, StageState stageState, List<RemoteTask> tasks)
+    {
+        if (stageState.isDone() && stageState != FINISHED) {
+            return Optional.empty();
+        }
+
+        ImmutableList.Builder<Domain> domains = ImmutableList.builder();
+        for (RemoteTask task : tasks) {
+            TaskState taskState = task.getTaskStatus().getState();
+            boolean failed = taskState == FAILED || taskState == ABORTED;
+            Domain domain = task.getDynamicFilterDomains().get(filterId);
+            if (replicated) {
+                if (domain != null && !failed) {
+                    // every task has seen the whole build side
+                    return Optional.of(domain);
+                }
+                continue;
+            }
+            if (domain == null || failed) {
+                // some task has not finished collecting its build-side partition yet, or never will
+                return Optional.empty();
+            }
+            domains.add(domain);
+        }
+
+        if (replicated || !(stageState == SCHEDULED || stageState == RUNNING || stageState == FINISHED)) {
+            // more tasks may still be scheduled for this stage
+            return Optional.empty();
+        }
+        List<Domain> taskDomains = domains.build();
+        if (taskDomains.isEmpty()) {
+            return Optional.empty();
+        }
+        return Optional.of(Domain.union(taskDomains));
+    }
+}
@@ -82,7 +82,9 @@ import static io.airlift.concurrent.MoreFutures.tryGetFutureValue;
 import static io.airlift.concurrent.MoreFutures.whenAnyComplete;
 import static io.airlift.http.client.HttpUriBuilder.uriBuilderFrom;
 import static io.prestosql.SystemSessionProperties.getConcurrentLifespansPerNode;
+import static io.prestosql.SystemSessionProperties.getTargetHashPartitionSize;
 import static io.prestosql.SystemSessionProperties.getWriterMinSize;
+import static io.prestosql.SystemSessionProperties.isAdaptiveHashPartitionCountEnabled;
 import static io.prestosql.connector.CatalogName.isInternalSystemConnector;
 import static io.prestosql.execution.BasicStageStats.aggregateBasicStageStats;
 import static io.prestosql.execution.SqlStageExecution.createSqlStageExecution;
@@ -97,8 +99,10 @@ import static io.prestosql.spi.StandardErrorCode.GENERIC_INTERNAL_ERROR;
 import static io.prestosql.spi.StandardErrorCode.NO_NODES_AVAILABLE;
 import static io.prestosql.spi.connector.NotPartitionedPartitionHandle.NOT_PARTITIONED;
 import static io.prestosql.sql.planner.SystemPartitioningHandle.FIXED_BROADCAST_DISTRIBUTION;
+import static io.prestosql.sql.planner.SystemPartitioningHandle.FIXED_HASH_DISTRIBUTION;
 import static io.prestosql.sql.planner.SystemPartitioningHandle.SCALED_WRITER_DISTRIBUTION;
 import static io.prestosql.sql.planner.SystemPartitioningHandle.SOURCE_DISTRIBUTION;
+import static io.prestosql.sql.planner.plan.ExchangeNode.Type.REPARTITION;
 import static io.prestosql.sql.planner.plan.ExchangeNode.Type.REPLICATE;
 import static io.prestosql.util.Failures.checkCondition;
 import static java.lang.String.format;
@@ -138,7 +142,8 @@ public class SqlQueryScheduler
             OutputBuffers rootOutputBuffers,
             NodeTaskMap nodeTaskMap,
             ExecutionPolicy executionPolicy,
-            SplitSchedulerStats schedulerStats)
+            SplitSchedulerStats schedulerStats,
+            DistributedDynamicFiltersCollector dynamicFiltersCollector)
     {
         SqlQueryScheduler sqlQueryScheduler = new SqlQueryScheduler(
                 queryStateMachine,
@@ -156,7 +161,8 @@ public class SqlQueryScheduler
                 rootOutputBuffers,
                 nodeTaskMap,
                 executionPolicy,
-                schedulerStats);
+                schedulerStats,
+                dynamicFiltersCollector);
         sqlQueryScheduler.initialize();
         return sqlQueryScheduler;
     }
@@ -177,7 +183,8 @@ public class SqlQueryScheduler
             OutputBuffers rootOutputBuffers,
             NodeTaskMap nodeTaskMap,
             ExecutionPolicy executionPolicy,
-            SplitSchedulerStats schedulerStats)
+            SplitSchedulerStats schedulerStats,
+            DistributedDynamicFiltersCollector dynamicFiltersCollector)
     {
         this.queryStateMachine = requireNonNull(queryStateMachine, "queryStateMachine is null");
         this.executionPolicy = requireNonNull(executionPolicy, "schedulerPolicyFactory is null");
@@ -216,6 +223,8 @@ public class SqlQueryScheduler
         this.stages = stages.stream()
                 .collect(toImmutableMap(SqlStageExecution::getStageId, identity()));
 
+        requireNonNull(dynamicFiltersCollector, "dynamicFiltersCollector is null").registerStages(stages);
+
         this.stageSchedulers = stageSchedulers.build();
         this.stageLinkages = stageLinkages.build();
 
@@ -312,6 +321,7 @@ public class SqlQueryScheduler
         stages.add(stage);
 
         Optional<int[]> bucketToPartition;
+        Optional<List<InternalNode>> adaptivePartitionToNode = Optional.empty();
         PartitioningHandle partitioningHandle = plan.getFragment().getPartitioning();
         if (partitioningHandle.equals(SOURCE_DISTRIBUTION)) {
             // nodes are selected dynamically based on the constraints of the splits and the system load
@@ -393,7 +403,13 @@ public class SqlQueryScheduler
                 List<InternalNode> partitionToNode = nodePartitionMap.getPartitionToNode();
                 // todo this should asynchronously wait a standard timeout period before failing
                 checkCondition(!partitionToNode.isEmpty(), NO_NODES_AVAILABLE, "No worker nodes available");
-                stageSchedulers.put(stageId, new FixedCountScheduler(stage, partitionToNode));
+                if (isAdaptiveHashPartitionCountEnabled(session) && partitioningHandle.equals(FIXED_HASH_DISTRIBUTION)) {
+                    // the scheduler depends on the source stages, so it is created after them
+                    adaptivePartitionToNode = Optional.of(partitionToNode);
+                }
+                else {
+                    stageSchedulers.put(stageId, new FixedCountScheduler(stage, partitionToNode));
+                }
                 bucketToPartition = Optional.of(nodePartitionMap.getBucketToPartition());
             }
         }
@@ -453,6 +469,22 @@ public class SqlQueryScheduler
             stageSchedulers.put(stageId, scheduler);
         }
 
+        if (adaptivePartitionToNode.isPresent()) {
+            Set<PlanFragmentId> repartitionedFragments = plan.getFragment().getRemoteSourceNodes().stream()
+                    .filter(remoteSource -> remoteSource.getExchangeType() == REPARTITION)
+                    .flatMap(remoteSource -> remoteSource.getSourceFragmentIds().stream())
+                    .collect(toImmutableSet());
+            Set<SqlStageExecution> repartitionedStages = childStages.stream()
+                    .filter(childStage -> repartitionedFragments.contains(childStage.getFragment().getId()))
+                    .collect(toImmutableSet());
+            stageSchedulers.put(stageId, new AdaptiveCountScheduler(
+                    stage,
+                    adaptivePartitionToNode.get(),
+                    repartitionedStages,
+                    schedulerExecutor,
+                    getTargetHashPartitionSize(session)));
+        }
+
         return stages.build();
     }
 
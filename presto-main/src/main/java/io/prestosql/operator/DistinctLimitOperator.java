@@ -31,6 +31,7 @@ import static com.google.common.base.Preconditions.checkState;
 import static com.google.common.base.Verify.verifyNotNull;
 import static com.google.common.collect.ImmutableList.toImmutableList;
 import static io.prestosql.SystemSessionProperties.isDictionaryAggregationEnabled;
+import static io.prestosql.SystemSessionProperties.isOffHeapHashTableEnabled;
 import static io.prestosql.operator.GroupByHash.createGroupByHash;
 import static java.lang.Math.toIntExact;
 import static java.util.Objects.requireNonNull;
@@ -129,6 +130,7 @@ public class DistinctLimitOperator
                 hashChannel,
                 toIntExact(Math.min(limit, 10_000)),
                 isDictionaryAggregationEnabled(operatorContext.getSession()),
+                isOffHeapHashTableEnabled(operatorContext.getSession()),
                 joinCompiler,
                 this::updateMemoryReservation);
         remainingLimit = limit;
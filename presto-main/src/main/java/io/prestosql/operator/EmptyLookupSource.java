@@ -16,6 +16,8 @@ package io.prestosql.operator;
 import io.prestosql.spi.Page;
 import io.prestosql.spi.PageBuilder;
 
+import javax.annotation.Nullable;
+
 final class EmptyLookupSource
         implements LookupSource
 {
@@ -55,6 +57,20 @@ final class EmptyLookupSource
         return -1;
     }
 
+    @Override
+    public boolean isBatchProbeSupported()
+    {
+        return true;
+    }
+
+    @Override
+    public void getJoinPositions(int[] positions, int offset, int length, Page hashChannelsPage, Page allChannelsPage, @Nullable long[] rawHashes, long[] joinPositions)
+    {
+        for (int i = offset; i < offset + length; i++) {
+            joinPositions[positions[i]] = -1;
+        }
+    }
+
     @Override
     public long getNextJoinPosition(long currentJoinPosition, int probePosition, Page allProbeChannelsPage)
     {
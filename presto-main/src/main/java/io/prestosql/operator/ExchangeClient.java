@@ -35,8 +35,10 @@ import java.io.Closeable;
 import java.net.URI;
 import java.util.ArrayList;
 import java.util.Deque;
+import java.util.HashMap;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
@@ -50,13 +52,23 @@ import static com.google.common.base.Preconditions.checkState;
 import static com.google.common.base.Throwables.throwIfUnchecked;
 import static com.google.common.collect.Sets.newConcurrentHashSet;
 import static io.airlift.slice.Slices.EMPTY_SLICE;
+import static io.airlift.units.DataSize.Unit.MEGABYTE;
 import static java.util.Objects.requireNonNull;
 
+/**
+ * Pulls the pages of an exchange from the output buffers of the source tasks. Every source is
+ * read by an {@link HttpPageBufferClient} with long-polling requests. The free space of the buffer
+ * is split over the requests being sent, and the space asked for by outstanding requests is not
+ * handed out again until their responses arrive. A response can still exceed the requested size
+ * by up to one page, as the source always returns at least one page.
+ */
 @ThreadSafe
 public class ExchangeClient
         implements Closeable
 {
     private static final SerializedPage NO_MORE_PAGES = new SerializedPage(EMPTY_SLICE, PageCodecMarker.MarkerSet.empty(), 0, 0);
+    // splitting the free space into smaller requests would only add per request overhead
+    private static final long MIN_REQUEST_SIZE_IN_BYTES = DataSize.of(1, MEGABYTE).toBytes();
 
     private final String selfAddress;
     private final DataIntegrityVerification dataIntegrityVerification;
@@ -82,6 +94,10 @@ public class ExchangeClient
     @GuardedBy("this")
     private final List<SettableFuture<?>> blockedCallers = new ArrayList<>();
 
+    @GuardedBy("this")
+    private final Map<HttpPageBufferClient, Long> outstandingRequestSizes = new HashMap<>();
+    @GuardedBy("this")
+    private long outstandingRequestSizeInBytes;
     @GuardedBy("this")
     private long bufferRetainedSizeInBytes;
     @GuardedBy("this")
@@ -301,7 +317,8 @@ public class ExchangeClient
             return;
         }
 
-        long neededBytes = bufferCapacity - bufferRetainedSizeInBytes;
+        // the space asked for by outstanding requests is taken, even though their responses have not arrived yet
+        long neededBytes = bufferCapacity - bufferRetainedSizeInBytes - outstandingRequestSizeInBytes;
         if (neededBytes <= 0) {
             return;
         }
@@ -311,14 +328,33 @@ public class ExchangeClient
 
         int pendingClients = allClients.size() - queuedClients.size() - completedClients.size();
         clientCount -= pendingClients;
+        if (clientCount <= 0) {
+            return;
+        }
 
+        // split the free space over the requests, so that their responses together fit into the buffer
+        long requestSizeInBytes = Math.max(neededBytes / clientCount, MIN_REQUEST_SIZE_IN_BYTES);
+        requestSizeInBytes = Math.min(requestSizeInBytes, Math.min(neededBytes, maxResponseSize.toBytes()));
+        clientCount = (int) Math.min(clientCount, neededBytes / requestSizeInBytes);
+
+        DataSize requestSize = DataSize.ofBytes(requestSizeInBytes);
         for (int i = 0; i < clientCount; i++) {
             HttpPageBufferClient client = queuedClients.poll();
             if (client == null) {
                 // no more clients available
                 return;
             }
-            client.scheduleRequest();
+            outstandingRequestSizes.put(client, requestSizeInBytes);
+            outstandingRequestSizeInBytes += requestSizeInBytes;
+            client.scheduleRequest(requestSize);
+        }
+    }
+
+    private synchronized void releaseRequestSize(HttpPageBufferClient client)
+    {
+        Long requestSizeInBytes = outstandingRequestSizes.remove(client);
+        if (requestSizeInBytes != null) {
+            outstandingRequestSizeInBytes -= requestSizeInBytes;
         }
     }
 
@@ -332,8 +368,10 @@ public class ExchangeClient
         return future;
     }
 
-    private synchronized boolean addPages(List<SerializedPage> pages)
+    private synchronized boolean addPages(HttpPageBufferClient client, List<SerializedPage> pages)
     {
+        // the pages are accounted in the buffer from now on
+        releaseRequestSize(client);
         if (isClosed() || isFailed()) {
             return false;
         }
@@ -375,6 +413,7 @@ public class ExchangeClient
 
     private synchronized void requestComplete(HttpPageBufferClient client)
     {
+        releaseRequestSize(client);
         if (!queuedClients.contains(client)) {
             queuedClients.add(client);
         }
@@ -384,6 +423,7 @@ public class ExchangeClient
     private synchronized void clientFinished(HttpPageBufferClient client)
     {
         requireNonNull(client, "client is null");
+        releaseRequestSize(client);
         completedClients.add(client);
         scheduleRequestIfNecessary();
     }
@@ -420,7 +460,7 @@ public class ExchangeClient
         {
             requireNonNull(client, "client is null");
             requireNonNull(pages, "pages is null");
-            return ExchangeClient.this.addPages(pages);
+            return ExchangeClient.this.addPages(client, pages);
         }
 
         @Override
@@ -16,7 +16,7 @@ package io.prestosql.operator;
 import com.google.common.annotations.VisibleForTesting;
 import com.google.common.collect.AbstractIterator;
 import com.google.common.collect.ImmutableList;
-import com.google.common.collect.Ordering;
+import io.prestosql.array.IntBigArray;
 import io.prestosql.array.ObjectBigArray;
 import io.prestosql.spi.Page;
 import io.prestosql.spi.PageBuilder;
@@ -26,25 +26,28 @@ import it.unimi.dsi.fastutil.ints.IntArrayFIFOQueue;
 import it.unimi.dsi.fastutil.ints.IntIterator;
 import it.unimi.dsi.fastutil.ints.IntOpenHashSet;
 import it.unimi.dsi.fastutil.ints.IntSet;
-import it.unimi.dsi.fastutil.objects.ObjectHeapPriorityQueue;
 import org.openjdk.jol.info.ClassLayout;
 
-import java.util.Comparator;
+import java.util.Arrays;
 import java.util.Iterator;
 import java.util.List;
 import java.util.stream.IntStream;
 
-import static com.google.common.base.MoreObjects.toStringHelper;
 import static com.google.common.base.Preconditions.checkArgument;
 import static com.google.common.base.Preconditions.checkState;
 import static com.google.common.base.Verify.verify;
 import static com.google.common.collect.ImmutableList.toImmutableList;
 import static io.airlift.slice.SizeOf.sizeOf;
 import static io.prestosql.spi.type.BigintType.BIGINT;
+import static java.lang.Math.max;
+import static java.lang.Math.min;
 import static java.util.Objects.requireNonNull;
 
 /**
  * This class finds the top N rows defined by {@param comparator} for each group specified by {@param groupByHash}.
+ * <p>
+ * Rows are identified by a row id, which indexes the page and the position of the row. The top N rows of
+ * each group are kept in a heap of row ids, in an int array that grows up to N entries.
  */
 public class GroupedTopNBuilder
 {
@@ -57,12 +60,17 @@ public class GroupedTopNBuilder
     private final boolean produceRowNumber;
     private final GroupByHash groupByHash;
 
-    // a map of heaps, each of which records the top N rows
-    private final ObjectBigArray<RowHeap> groupedRows = new ObjectBigArray<>();
-    // a list of input pages, each of which has information of which row in which heap references which position
+    // a map of heaps of row ids, each of which records the top N rows of a group, with the last of them at the root
+    private final ObjectBigArray<int[]> groupHeaps = new ObjectBigArray<>();
+    private final IntBigArray groupHeapSizes = new IntBigArray();
+    // the page and the position in the page of each row; the row id of a row evicted from a heap is reused by the row that replaces it
+    private final IntBigArray rowPageIds = new IntBigArray();
+    private final IntBigArray rowPositions = new IntBigArray();
+    private int rowCount;
+    // a list of input pages, each of which has information of which row references which position
     private final ObjectBigArray<PageReference> pageReferences = new ObjectBigArray<>();
     // for heap element comparison
-    private final Comparator<Row> comparator;
+    private final PageWithPositionComparator comparator;
     // when there is no row referenced in a page, it will be removed instead of compacted; use a list to record those empty slots to reuse them
     private final IntFIFOQueue emptyPageReferenceSlots;
 
@@ -82,13 +90,7 @@ public class GroupedTopNBuilder
         this.topN = topN;
         this.produceRowNumber = produceRowNumber;
         this.groupByHash = requireNonNull(groupByHash, "groupByHash is not null");
-
-        requireNonNull(comparator, "comparator is null");
-        this.comparator = (left, right) -> comparator.compareTo(
-                pageReferences.get(left.getPageId()).getPage(),
-                left.getPosition(),
-                pageReferences.get(right.getPageId()).getPage(),
-                right.getPosition());
+        this.comparator = requireNonNull(comparator, "comparator is null");
         this.emptyPageReferenceSlots = new IntFIFOQueue();
     }
 
@@ -104,7 +106,15 @@ public class GroupedTopNBuilder
 
     public Iterator<Page> buildResult()
     {
-        return new ResultIterator();
+        return new ResultIterator(produceRowNumber);
+    }
+
+    /**
+     * Returns the rows kept so far, without row numbers, so that they can be processed again later.
+     */
+    public Iterator<Page> buildRows()
+    {
+        return new ResultIterator(false);
     }
 
     public long getEstimatedSizeInBytes()
@@ -112,7 +122,10 @@ public class GroupedTopNBuilder
         return INSTANCE_SIZE +
                 memorySizeInBytes +
                 groupByHash.getEstimatedSize() +
-                groupedRows.sizeOf() +
+                groupHeaps.sizeOf() +
+                groupHeapSizes.sizeOf() +
+                rowPageIds.sizeOf() +
+                rowPositions.sizeOf() +
                 pageReferences.sizeOf() +
                 emptyPageReferenceSlots.getEstimatedSizeInBytes();
     }
@@ -149,49 +162,49 @@ public class GroupedTopNBuilder
 
         // update the affected heaps and record candidate pages that need compaction
         IntSet pagesToCompact = new IntOpenHashSet();
+        groupHeaps.ensureCapacity(groupIds.getGroupCount());
+        groupHeapSizes.ensureCapacity(groupIds.getGroupCount());
         for (int position = 0; position < newPage.getPositionCount(); position++) {
             long groupId = groupIds.getGroupId(position);
-            groupedRows.ensureCapacity(groupId + 1);
+            int[] heap = groupHeaps.get(groupId);
+            int heapSize = groupHeapSizes.get(groupId);
 
-            RowHeap rows = groupedRows.get(groupId);
-            if (rows == null) {
-                // a new group
-                rows = new RowHeap(Ordering.from(comparator).reversed());
-                groupedRows.set(groupId, rows);
-            }
-            else {
-                // update an existing group;
-                // remove the memory usage for this group for now; add it back after update
-                memorySizeInBytes -= rows.getEstimatedSizeInBytes();
-            }
-
-            if (rows.size() < topN) {
+            if (heapSize < topN) {
                 // still have space for the current group
-                Row row = new Row(newPageId, position);
-                rows.enqueue(row);
-                newPageReference.reference(row);
+                if (heap == null || heapSize == heap.length) {
+                    heap = growHeap(heap, heapSize);
+                    groupHeaps.set(groupId, heap);
+                }
+                int rowId = rowCount;
+                rowCount++;
+                rowPageIds.ensureCapacity(rowCount);
+                rowPositions.ensureCapacity(rowCount);
+                rowPageIds.set(rowId, newPageId);
+                rowPositions.set(rowId, position);
+                newPageReference.reference(position, rowId);
+                siftUp(heap, heapSize, rowId);
+                groupHeapSizes.set(groupId, heapSize + 1);
             }
             else {
                 // may compare with the topN-th element with in the heap to decide if update is necessary
-                Row previousRow = rows.first();
-                Row newRow = new Row(newPageId, position);
-                if (comparator.compare(newRow, previousRow) < 0) {
-                    // update reference and the heap
-                    rows.dequeue();
-                    PageReference previousPageReference = pageReferences.get(previousRow.getPageId());
-                    previousPageReference.dereference(previousRow.getPosition());
-                    newPageReference.reference(newRow);
-                    rows.enqueue(newRow);
+                int previousRowId = heap[0];
+                int previousPageId = rowPageIds.get(previousRowId);
+                PageReference previousPageReference = pageReferences.get(previousPageId);
+                if (comparator.compareTo(newPage, position, previousPageReference.getPage(), rowPositions.get(previousRowId)) < 0) {
+                    // update reference and the heap; the new row takes the row id of the row it replaces
+                    previousPageReference.dereference(rowPositions.get(previousRowId));
+                    rowPageIds.set(previousRowId, newPageId);
+                    rowPositions.set(previousRowId, position);
+                    newPageReference.reference(position, previousRowId);
+                    siftDown(heap, heapSize, previousRowId);
 
                     // compact a page if it is not the current input page and the reference count is below the threshold
                     if (previousPageReference.getPage() != newPage &&
                             previousPageReference.getUsedPositionCount() * COMPACT_THRESHOLD < previousPageReference.getPage().getPositionCount()) {
-                        pagesToCompact.add(previousRow.getPageId());
+                        pagesToCompact.add(previousPageId);
                     }
                 }
             }
-
-            memorySizeInBytes += rows.getEstimatedSizeInBytes();
         }
 
         // unreference new page if it was not used
@@ -222,50 +235,70 @@ public class GroupedTopNBuilder
             }
             else {
                 memorySizeInBytes -= pageReference.getEstimatedSizeInBytes();
-                pageReference.compact();
+                pageReference.compact(rowPositions);
                 memorySizeInBytes += pageReference.getEstimatedSizeInBytes();
             }
         }
     }
 
-    /**
-     * The class is a pointer to a row in a page.
-     * The actual position in the page is mutable because as pages are compacted, the position will change.
-     */
-    private static class Row
+    private int[] growHeap(int[] heap, int heapSize)
     {
-        private final int pageId;
-        private int position;
-
-        private Row(int pageId, int position)
-        {
-            this.pageId = pageId;
-            reset(position);
-        }
-
-        public void reset(int position)
-        {
-            this.position = position;
+        int[] newHeap = new int[min(topN, max(1, heapSize * 2))];
+        if (heap != null) {
+            System.arraycopy(heap, 0, newHeap, 0, heapSize);
+            memorySizeInBytes -= sizeOf(heap);
         }
+        memorySizeInBytes += sizeOf(newHeap);
+        return newHeap;
+    }
 
-        public int getPageId()
-        {
-            return pageId;
+    /**
+     * Adds the row to the heap of the given size; the last row in the order of the comparator is at the root.
+     */
+    private void siftUp(int[] heap, int heapSize, int rowId)
+    {
+        int index = heapSize;
+        while (index > 0) {
+            int parent = (index - 1) >>> 1;
+            if (compare(heap[parent], rowId) >= 0) {
+                break;
+            }
+            heap[index] = heap[parent];
+            index = parent;
         }
+        heap[index] = rowId;
+    }
 
-        public int getPosition()
-        {
-            return position;
+    /**
+     * Replaces the root of the heap of the given size with the row.
+     */
+    private void siftDown(int[] heap, int heapSize, int rowId)
+    {
+        int index = 0;
+        while (true) {
+            int child = 2 * index + 1;
+            if (child >= heapSize) {
+                break;
+            }
+            if (child + 1 < heapSize && compare(heap[child + 1], heap[child]) > 0) {
+                child++;
+            }
+            if (compare(rowId, heap[child]) >= 0) {
+                break;
+            }
+            heap[index] = heap[child];
+            index = child;
         }
+        heap[index] = rowId;
+    }
 
-        @Override
-        public String toString()
-        {
-            return toStringHelper(this)
-                    .add("pageId", pageId)
-                    .add("position", position)
-                    .toString();
-        }
+    private int compare(int leftRowId, int rightRowId)
+    {
+        return comparator.compareTo(
+                pageReferences.get(rowPageIds.get(leftRowId)).getPage(),
+                rowPositions.get(leftRowId),
+                pageReferences.get(rowPageIds.get(rightRowId)).getPage(),
+                rowPositions.get(rightRowId));
     }
 
     private static class PageReference
@@ -273,27 +306,28 @@ public class GroupedTopNBuilder
         private static final long INSTANCE_SIZE = ClassLayout.parseClass(PageReference.class).instanceSize();
 
         private Page page;
-        private Row[] reference;
+        // the row id referencing each position, or -1
+        private int[] reference;
 
         private int usedPositionCount;
 
         public PageReference(Page page)
         {
             this.page = requireNonNull(page, "page is null");
-            this.reference = new Row[page.getPositionCount()];
+            this.reference = new int[page.getPositionCount()];
+            Arrays.fill(reference, -1);
         }
 
-        public void reference(Row row)
+        public void reference(int position, int rowId)
         {
-            int position = row.getPosition();
-            reference[position] = row;
+            reference[position] = rowId;
             usedPositionCount++;
         }
 
         public void dereference(int position)
         {
-            checkArgument(reference[position] != null && usedPositionCount > 0);
-            reference[position] = null;
+            checkArgument(reference[position] >= 0 && usedPositionCount > 0);
+            reference[position] = -1;
             usedPositionCount--;
         }
 
@@ -302,7 +336,7 @@ public class GroupedTopNBuilder
             return usedPositionCount;
         }
 
-        public void compact()
+        public void compact(IntBigArray rowPositions)
         {
             checkState(usedPositionCount > 0);
 
@@ -311,11 +345,11 @@ public class GroupedTopNBuilder
             }
 
             // re-assign reference
-            Row[] newReference = new Row[usedPositionCount];
+            int[] newReference = new int[usedPositionCount];
             int[] positions = new int[usedPositionCount];
             int index = 0;
             for (int i = 0; i < page.getPositionCount(); i++) {
-                if (reference[i] != null) {
+                if (reference[i] >= 0) {
                     newReference[index] = reference[i];
                     positions[index] = i;
                     index++;
@@ -330,11 +364,10 @@ public class GroupedTopNBuilder
                 blocks[i] = block.copyPositions(positions, 0, usedPositionCount);
             }
 
-            // update all the elements in the heaps that reference the current page
+            // update the positions of the rows in the current page;
+            // this does not change the order of the rows in the heaps
             for (int i = 0; i < usedPositionCount; i++) {
-                // this does not change the elements in the heap;
-                // it only updates the value of the elements; while keeping the same order
-                newReference[i].reset(i);
+                rowPositions.set(newReference[i], i);
             }
             page = new Page(usedPositionCount, blocks);
             reference = newReference;
@@ -368,27 +401,10 @@ public class GroupedTopNBuilder
         }
     }
 
-    // this class is for precise memory tracking
-    private static class RowHeap
-            extends ObjectHeapPriorityQueue<Row>
-    {
-        private static final long INSTANCE_SIZE = ClassLayout.parseClass(RowHeap.class).instanceSize();
-        private static final long ROW_ENTRY_SIZE = ClassLayout.parseClass(Row.class).instanceSize();
-
-        private RowHeap(Comparator<Row> comparator)
-        {
-            super(1, comparator);
-        }
-
-        private long getEstimatedSizeInBytes()
-        {
-            return INSTANCE_SIZE + sizeOf(heap) + size() * ROW_ENTRY_SIZE;
-        }
-    }
-
     private class ResultIterator
             extends AbstractIterator<Page>
     {
+        private final boolean produceRowNumber;
         private final PageBuilder pageBuilder;
         // we may have 0 groups if there is no input page processed
         private final int groupCount = groupByHash.getGroupCount();
@@ -401,10 +417,11 @@ public class GroupedTopNBuilder
         // number of rows in the group
         private int currentGroupSize;
 
-        private ObjectBigArray<Row> currentRows = nextGroupedRows();
+        private int[] currentRows = nextGroupedRows();
 
-        ResultIterator()
+        ResultIterator(boolean produceRowNumber)
         {
+            this.produceRowNumber = produceRowNumber;
             if (produceRowNumber) {
                 pageBuilder = new PageBuilder(new ImmutableList.Builder<Type>().addAll(sourceTypes).add(BIGINT).build());
             }
@@ -430,9 +447,11 @@ public class GroupedTopNBuilder
                     continue;
                 }
 
-                Row row = currentRows.get(currentGroupPosition);
+                int rowId = currentRows[currentGroupPosition];
+                PageReference pageReference = pageReferences.get(rowPageIds.get(rowId));
+                int position = rowPositions.get(rowId);
                 for (int i = 0; i < sourceTypes.size(); i++) {
-                    sourceTypes.get(i).appendTo(pageReferences.get(row.getPageId()).getPage().getBlock(i), row.getPosition(), pageBuilder.getBlockBuilder(i));
+                    sourceTypes.get(i).appendTo(pageReference.getPage().getBlock(i), position, pageBuilder.getBlockBuilder(i));
                 }
 
                 if (produceRowNumber) {
@@ -442,10 +461,9 @@ public class GroupedTopNBuilder
                 currentGroupPosition++;
 
                 // deference the row; no need to compact the pages but remove them if completely unused
-                PageReference pageReference = pageReferences.get(row.getPageId());
-                pageReference.dereference(row.getPosition());
+                pageReference.dereference(position);
                 if (pageReference.getUsedPositionCount() == 0) {
-                    pageReferences.set(row.getPageId(), null);
+                    pageReferences.set(rowPageIds.get(rowId), null);
                     memorySizeInBytes -= pageReference.getEstimatedSizeInBytes();
                 }
             }
@@ -456,26 +474,26 @@ public class GroupedTopNBuilder
             return pageBuilder.build();
         }
 
-        private ObjectBigArray<Row> nextGroupedRows()
+        private int[] nextGroupedRows()
         {
             if (currentGroupNumber < groupCount) {
-                RowHeap rows = groupedRows.get(currentGroupNumber);
-                verify(rows != null && !rows.isEmpty(), "impossible to have inserted a group without a witness row");
-                groupedRows.set(currentGroupNumber, null);
-                currentGroupSizeInBytes = rows.getEstimatedSizeInBytes();
+                int[] heap = groupHeaps.get(currentGroupNumber);
+                int heapSize = groupHeapSizes.get(currentGroupNumber);
+                verify(heap != null && heapSize > 0, "impossible to have inserted a group without a witness row");
+                groupHeaps.set(currentGroupNumber, null);
+                groupHeapSizes.set(currentGroupNumber, 0);
+                currentGroupSizeInBytes = sizeOf(heap);
                 currentGroupNumber++;
-                currentGroupSize = rows.size();
-
-                // sort output rows in a big array in case there are too many rows
-                ObjectBigArray<Row> sortedRows = new ObjectBigArray<>();
-                sortedRows.ensureCapacity(currentGroupSize);
-                int index = currentGroupSize - 1;
-                while (!rows.isEmpty()) {
-                    sortedRows.set(index, rows.dequeue());
-                    index--;
+                currentGroupSize = heapSize;
+
+                // sort the rows in place by moving the last row at the root of the heap to the end
+                for (int size = heapSize - 1; size > 0; size--) {
+                    int rowId = heap[size];
+                    heap[size] = heap[0];
+                    siftDown(heap, size, rowId);
                 }
 
-                return sortedRows;
+                return heap;
             }
             return null;
         }
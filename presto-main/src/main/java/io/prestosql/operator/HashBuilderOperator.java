@@ -387,6 +387,8 @@ public class HashBuilderOperator
                 localUserMemoryContext.setBytes(index.getEstimatedSize().toBytes());
                 localRevocableMemoryContext.setBytes(0);
                 lookupSourceChecksum = OptionalLong.of(lookupSourceSupplier.checksum());
+                // the lookup source factory no longer hands out the spilled partition, and lookup sources handed out already keep it until closed
+                lookupSourceSupplier.close();
                 lookupSourceSupplier = null;
                 state = State.INPUT_SPILLED;
             });
@@ -503,6 +505,8 @@ public class HashBuilderOperator
             return;
         }
 
+        // the memory held outside of the heap is released once the last lookup source handed out is closed
+        lookupSourceSupplier.close();
         index.clear();
         localRevocableMemoryContext.setBytes(0);
         localUserMemoryContext.setBytes(index.getEstimatedSize().toBytes());
@@ -618,6 +622,11 @@ public class HashBuilderOperator
         }
         // close() can be called in any state, due for example to query failure, and must clean resource up unconditionally
 
+        if (lookupSourceSupplier != null) {
+            // The probe side may still use the lookup source. Lookup sources handed out already keep the memory held outside
+            // of the heap until they are closed, so closing the supplier only gives up the reference of this operator.
+            lookupSourceSupplier.close();
+        }
         lookupSourceSupplier = null;
         state = State.CLOSED;
         finishMemoryRevoke = finishMemoryRevoke.map(ifPresent -> () -> {});
@@ -123,6 +123,7 @@ public final class HttpPageBufferClient
     private final ClientCallback clientCallback;
     private final ScheduledExecutorService scheduler;
     private final Backoff backoff;
+    private final Ticker ticker;
 
     @GuardedBy("this")
     private boolean closed;
@@ -138,6 +139,8 @@ public final class HttpPageBufferClient
     private boolean completed;
     @GuardedBy("this")
     private String taskInstanceId;
+    @GuardedBy("this")
+    private DataSize requestMaxSize;
 
     private final AtomicLong rowsReceived = new AtomicLong();
     private final AtomicInteger pagesReceived = new AtomicInteger();
@@ -149,6 +152,10 @@ public final class HttpPageBufferClient
     private final AtomicInteger requestsCompleted = new AtomicInteger();
     private final AtomicInteger requestsFailed = new AtomicInteger();
 
+    private final AtomicInteger responsesReceived = new AtomicInteger();
+    private final AtomicLong totalResponseNanos = new AtomicLong();
+    private final AtomicLong maxResponseNanos = new AtomicLong();
+
     private final Executor pageBufferClientCallbackExecutor;
 
     public HttpPageBufferClient(
@@ -202,6 +209,8 @@ public final class HttpPageBufferClient
         requireNonNull(maxErrorDuration, "maxErrorDuration is null");
         requireNonNull(ticker, "ticker is null");
         this.backoff = new Backoff(maxErrorDuration, ticker);
+        this.ticker = ticker;
+        this.requestMaxSize = maxResponseSize;
     }
 
     public synchronized PageBufferClientStatus getStatus()
@@ -229,6 +238,9 @@ public final class HttpPageBufferClient
 
         long rejectedRows = rowsRejected.get();
         int rejectedPages = pagesRejected.get();
+        int responses = responsesReceived.get();
+        Duration averageResponseTime = new Duration(responses == 0 ? 0 : 1.0 * totalResponseNanos.get() / responses, NANOSECONDS).convertToMostSuccinctTimeUnit();
+        Duration maxResponseTime = new Duration(maxResponseNanos.get(), NANOSECONDS).convertToMostSuccinctTimeUnit();
 
         return new PageBufferClientStatus(
                 location,
@@ -241,6 +253,8 @@ public final class HttpPageBufferClient
                 requestsScheduled.get(),
                 requestsCompleted.get(),
                 requestsFailed.get(),
+                averageResponseTime,
+                maxResponseTime,
                 httpRequestState);
     }
 
@@ -277,11 +291,22 @@ public final class HttpPageBufferClient
     }
 
     public synchronized void scheduleRequest()
+    {
+        scheduleRequest(maxResponseSize);
+    }
+
+    /**
+     * Schedules a request for at most {@code maxSize} of pages (but no more than the
+     * configured max response size). The remote buffer always returns at least one page,
+     * even if it is larger than the requested size.
+     */
+    public synchronized void scheduleRequest(DataSize maxSize)
     {
         if (closed || (future != null) || scheduled) {
             return;
         }
         scheduled = true;
+        requestMaxSize = maxSize.toBytes() < maxResponseSize.toBytes() ? maxSize : maxResponseSize;
 
         // start before scheduling to include error delay
         backoff.startRequest();
@@ -321,9 +346,10 @@ public final class HttpPageBufferClient
     private synchronized void sendGetResults()
     {
         URI uri = HttpUriBuilder.uriBuilderFrom(location).appendPath(String.valueOf(token)).build();
+        long requestStartNanos = ticker.read();
         HttpResponseFuture<PagesResponse> resultFuture = httpClient.executeAsync(
                 prepareGet()
-                        .setHeader(PRESTO_MAX_SIZE, maxResponseSize.toString())
+                        .setHeader(PRESTO_MAX_SIZE, requestMaxSize.toString())
                         .setUri(uri).build(),
                 new PageResponseHandler(dataIntegrityVerification != DataIntegrityVerification.NONE));
 
@@ -336,6 +362,7 @@ public final class HttpPageBufferClient
                 checkNotHoldsLock(this);
 
                 backoff.success();
+                recordResponseTime(ticker.read() - requestStartNanos);
 
                 List<SerializedPage> pages;
                 try {
@@ -499,6 +526,13 @@ public final class HttpPageBufferClient
         }, pageBufferClientCallbackExecutor);
     }
 
+    private void recordResponseTime(long nanos)
+    {
+        responsesReceived.incrementAndGet();
+        totalResponseNanos.addAndGet(nanos);
+        maxResponseNanos.accumulateAndGet(nanos, Math::max);
+    }
+
     private static void checkNotHoldsLock(Object lock)
     {
         checkState(!Thread.holdsLock(lock), "Cannot execute this method while holding a lock");
@@ -41,11 +41,18 @@ public final class JoinHash
     @Nullable
     private final PositionLinks positionLinks;
 
+    // hashes of the probe positions when the probe has no hash channel, kept across pages to avoid allocating it for every page
+    private long[] rawHashes = new long[0];
+
+    private boolean closed;
+
     public JoinHash(PagesHash pagesHash, Optional<JoinFilterFunction> filterFunction, Optional<PositionLinks> positionLinks)
     {
         this.pagesHash = requireNonNull(pagesHash, "pagesHash is null");
         this.filterFunction = requireNonNull(filterFunction, "filterFunction cannot be null").orElse(null);
         this.positionLinks = requireNonNull(positionLinks, "positionLinks is null").orElse(null);
+        // the hash is shared by the lookup sources of all probe operators, so it is only released once all of them are closed
+        pagesHash.retain();
     }
 
     @Override
@@ -92,6 +99,31 @@ public final class JoinHash
         return startJoinPosition(addressIndex, position, allChannelsPage);
     }
 
+    @Override
+    public boolean isBatchProbeSupported()
+    {
+        return true;
+    }
+
+    @Override
+    public void getJoinPositions(int[] positions, int offset, int length, Page hashChannelsPage, Page allChannelsPage, @Nullable long[] rawHashes, long[] joinPositions)
+    {
+        if (rawHashes == null) {
+            if (this.rawHashes.length < hashChannelsPage.getPositionCount()) {
+                this.rawHashes = new long[hashChannelsPage.getPositionCount()];
+            }
+            rawHashes = this.rawHashes;
+            for (int i = offset; i < offset + length; i++) {
+                rawHashes[positions[i]] = pagesHash.hashRow(positions[i], hashChannelsPage);
+            }
+        }
+        pagesHash.getAddressIndexes(positions, offset, length, hashChannelsPage, rawHashes, joinPositions);
+        for (int i = offset; i < offset + length; i++) {
+            int position = positions[i];
+            joinPositions[position] = startJoinPosition(toIntExact(joinPositions[position]), position, allChannelsPage);
+        }
+    }
+
     private long startJoinPosition(int currentJoinPosition, int probePosition, Page allProbeChannelsPage)
     {
         if (currentJoinPosition == -1) {
@@ -127,5 +159,10 @@ public final class JoinHash
     @Override
     public void close()
     {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        pagesHash.release();
     }
 }
@@ -22,10 +22,12 @@ import it.unimi.dsi.fastutil.longs.LongArrayList;
 
 import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 import static com.google.common.base.Preconditions.checkArgument;
 import static com.google.common.collect.ImmutableList.toImmutableList;
 import static io.prestosql.SystemSessionProperties.isFastInequalityJoin;
+import static io.prestosql.SystemSessionProperties.isOffHeapHashTableEnabled;
 import static io.prestosql.operator.JoinUtils.channelsToPages;
 import static java.util.Objects.requireNonNull;
 
@@ -39,6 +41,7 @@ public class JoinHashSupplier
     private final Optional<PositionLinks.Factory> positionLinks;
     private final Optional<JoinFilterFunctionFactory> filterFunctionFactory;
     private final List<JoinFilterFunctionFactory> searchFunctionFactories;
+    private final AtomicBoolean closed = new AtomicBoolean();
 
     public JoinHashSupplier(
             Session session,
@@ -70,7 +73,7 @@ public class JoinHashSupplier
         }
 
         this.pages = channelsToPages(channels);
-        this.pagesHash = new PagesHash(addresses, pagesHashStrategy, positionLinksFactoryBuilder);
+        this.pagesHash = new PagesHash(addresses, pagesHashStrategy, positionLinksFactoryBuilder, isOffHeapHashTableEnabled(session));
         this.positionLinks = positionLinksFactoryBuilder.isEmpty() ? Optional.empty() : Optional.of(positionLinksFactoryBuilder.build());
     }
 
@@ -92,6 +95,14 @@ public class JoinHashSupplier
         return positionLinks.map(PositionLinks.Factory::checksum).orElse(0L);
     }
 
+    @Override
+    public void close()
+    {
+        if (closed.compareAndSet(false, true)) {
+            pagesHash.release();
+        }
+    }
+
     @Override
     public JoinHash get()
     {
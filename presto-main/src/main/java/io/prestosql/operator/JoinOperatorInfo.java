@@ -32,16 +32,20 @@ public class JoinOperatorInfo
     private final long[] logHistogramProbes;
     private final long[] logHistogramOutput;
     private final Optional<Long> lookupSourcePositions;
+    private final long maxOperatorProbePositions;
+    private final int operatorCount;
 
     public static JoinOperatorInfo createJoinOperatorInfo(JoinType joinType, long[] logHistogramCounters, Optional<Long> lookupSourcePositions)
     {
         long[] logHistogramProbes = new long[HISTOGRAM_BUCKETS];
         long[] logHistogramOutput = new long[HISTOGRAM_BUCKETS];
+        long probePositions = 0;
         for (int i = 0; i < HISTOGRAM_BUCKETS; i++) {
             logHistogramProbes[i] = logHistogramCounters[2 * i];
             logHistogramOutput[i] = logHistogramCounters[2 * i + 1];
+            probePositions += logHistogramProbes[i];
         }
-        return new JoinOperatorInfo(joinType, logHistogramProbes, logHistogramOutput, lookupSourcePositions);
+        return new JoinOperatorInfo(joinType, logHistogramProbes, logHistogramOutput, lookupSourcePositions, probePositions, 1);
     }
 
     @JsonCreator
@@ -49,14 +53,20 @@ public class JoinOperatorInfo
             @JsonProperty("joinType") JoinType joinType,
             @JsonProperty("logHistogramProbes") long[] logHistogramProbes,
             @JsonProperty("logHistogramOutput") long[] logHistogramOutput,
-            @JsonProperty("lookupSourcePositions") Optional<Long> lookupSourcePositions)
+            @JsonProperty("lookupSourcePositions") Optional<Long> lookupSourcePositions,
+            @JsonProperty("maxOperatorProbePositions") long maxOperatorProbePositions,
+            @JsonProperty("operatorCount") int operatorCount)
     {
         checkArgument(logHistogramProbes.length == HISTOGRAM_BUCKETS);
         checkArgument(logHistogramOutput.length == HISTOGRAM_BUCKETS);
+        checkArgument(maxOperatorProbePositions >= 0, "maxOperatorProbePositions is negative");
+        checkArgument(operatorCount >= 0, "operatorCount is negative");
         this.joinType = joinType;
         this.logHistogramProbes = logHistogramProbes;
         this.logHistogramOutput = logHistogramOutput;
         this.lookupSourcePositions = lookupSourcePositions;
+        this.maxOperatorProbePositions = maxOperatorProbePositions;
+        this.operatorCount = operatorCount;
     }
 
     @JsonProperty
@@ -86,6 +96,41 @@ public class JoinOperatorInfo
         return lookupSourcePositions;
     }
 
+    /**
+     * Largest number of probe positions processed by a single join operator
+     */
+    @JsonProperty
+    public long getMaxOperatorProbePositions()
+    {
+        return maxOperatorProbePositions;
+    }
+
+    /**
+     * Number of join operators this info was merged from
+     */
+    @JsonProperty
+    public int getOperatorCount()
+    {
+        return operatorCount;
+    }
+
+    /**
+     * Ratio of the probe positions processed by the busiest join operator to the average over all
+     * operators. It is 1 when the probe side is evenly distributed, and close to the operator count
+     * when a few hot keys send most of the probe side to a single partition.
+     */
+    public double getProbeSkew()
+    {
+        long probePositions = 0;
+        for (long probes : logHistogramProbes) {
+            probePositions += probes;
+        }
+        if (probePositions == 0) {
+            return 1.0;
+        }
+        return (double) maxOperatorProbePositions * operatorCount / probePositions;
+    }
+
     @Override
     public String toString()
     {
@@ -94,6 +139,8 @@ public class JoinOperatorInfo
                 .add("logHistogramProbes", logHistogramProbes)
                 .add("logHistogramOutput", logHistogramOutput)
                 .add("lookupSourcePositions", lookupSourcePositions)
+                .add("maxOperatorProbePositions", maxOperatorProbePositions)
+                .add("operatorCount", operatorCount)
                 .toString();
     }
 
@@ -113,7 +160,13 @@ public class JoinOperatorInfo
             mergedSourcePositions = Optional.of(this.lookupSourcePositions.orElse(0L) + other.lookupSourcePositions.orElse(0L));
         }
 
-        return new JoinOperatorInfo(this.joinType, logHistogramProbes, logHistogramOutput, mergedSourcePositions);
+        return new JoinOperatorInfo(
+                this.joinType,
+                logHistogramProbes,
+                logHistogramOutput,
+                mergedSourcePositions,
+                Math.max(this.maxOperatorProbePositions, other.maxOperatorProbePositions),
+                this.operatorCount + other.operatorCount);
     }
 
     @Override
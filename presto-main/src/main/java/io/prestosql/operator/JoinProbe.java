@@ -16,6 +16,7 @@ package io.prestosql.operator;
 import io.prestosql.spi.Page;
 import io.prestosql.spi.block.Block;
 
+import java.util.Arrays;
 import java.util.List;
 import java.util.Optional;
 import java.util.OptionalInt;
@@ -52,6 +53,8 @@ public class JoinProbe
     private final Optional<Block> probeHashBlock;
 
     private int position = -1;
+    // join positions of the whole page, looked up on first use when batched probing is enabled and supported by the lookup source
+    private long[] joinPositions;
 
     private JoinProbe(int[] probeOutputChannels, Page page, List<Integer> probeJoinChannels, OptionalInt probeHashChannel)
     {
@@ -84,8 +87,14 @@ public class JoinProbe
         return position == positionCount;
     }
 
-    public long getCurrentJoinPosition(LookupSource lookupSource)
+    public long getCurrentJoinPosition(LookupSource lookupSource, boolean batchProbeEnabled)
     {
+        if (joinPositions == null && batchProbeEnabled && lookupSource.isBatchProbeSupported()) {
+            joinPositions = getJoinPositions(lookupSource);
+        }
+        if (joinPositions != null) {
+            return joinPositions[position];
+        }
         if (currentRowContainsNull()) {
             return -1;
         }
@@ -106,7 +115,39 @@ public class JoinProbe
         return page;
     }
 
+    private long[] getJoinPositions(LookupSource lookupSource)
+    {
+        long[] joinPositions = new long[positionCount];
+        Arrays.fill(joinPositions, -1);
+
+        // rows with a null in any of the join channels never match
+        int[] positions = new int[positionCount - position];
+        int length = 0;
+        for (int i = position; i < positionCount; i++) {
+            if (!rowContainsNull(i)) {
+                positions[length] = i;
+                length++;
+            }
+        }
+
+        long[] rawHashes = null;
+        if (probeHashBlock.isPresent()) {
+            rawHashes = new long[positionCount];
+            for (int i = 0; i < length; i++) {
+                rawHashes[positions[i]] = BIGINT.getLong(probeHashBlock.get(), positions[i]);
+            }
+        }
+
+        lookupSource.getJoinPositions(positions, 0, length, probePage, page, rawHashes, joinPositions);
+        return joinPositions;
+    }
+
     private boolean currentRowContainsNull()
+    {
+        return rowContainsNull(position);
+    }
+
+    private boolean rowContainsNull(int position)
     {
         for (Block probeBlock : probeBlocks) {
             if (probeBlock.isNull(position)) {
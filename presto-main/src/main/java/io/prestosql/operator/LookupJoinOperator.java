@@ -54,6 +54,7 @@ import static com.google.common.util.concurrent.MoreExecutors.directExecutor;
 import static io.airlift.concurrent.MoreFutures.addSuccessCallback;
 import static io.airlift.concurrent.MoreFutures.checkSuccess;
 import static io.airlift.concurrent.MoreFutures.getDone;
+import static io.prestosql.SystemSessionProperties.isJoinBatchProbeEnabled;
 import static io.prestosql.operator.LookupJoinOperators.JoinType.FULL_OUTER;
 import static io.prestosql.operator.LookupJoinOperators.JoinType.PROBE_OUTER;
 import static io.prestosql.operator.Operator.NOT_BLOCKED;
@@ -148,6 +149,8 @@ public class LookupJoinOperator
     private static class PageJoiner
             implements Transformation<Page, Page>
     {
+        private static final int MATCH_BATCH_SIZE = 64;
+
         private final List<Type> probeTypes;
         private final JoinProbeFactory joinProbeFactory;
         private final ListenableFuture<LookupSourceProvider> lookupSourceProviderFuture;
@@ -159,8 +162,11 @@ public class LookupJoinOperator
         private final Iterator<SavedRow> savedRows;
         private final Supplier<LocalPartitionGenerator> partitionGenerator;
         private final LookupJoinPageBuilder pageBuilder;
+        // matches of the current probe position that are appended to the page builder together
+        private final long[] matchedJoinPositions = new long[MATCH_BATCH_SIZE];
         private final Map<Integer, SavedRow> spilledRows = new HashMap<>();
         private final boolean probeOnOuterSide;
+        private final boolean batchProbeEnabled;
 
         @Nullable
         private LookupSourceProvider lookupSourceProvider;
@@ -202,6 +208,7 @@ public class LookupJoinOperator
 
             // Cannot use switch case here, because javac will synthesize an inner class and cause IllegalAccessError
             probeOnOuterSide = joinType == PROBE_OUTER || joinType == FULL_OUTER;
+            batchProbeEnabled = isJoinBatchProbeEnabled(processorContext.getSession());
         }
 
         @Override
@@ -329,15 +336,28 @@ public class LookupJoinOperator
         {
             // while we have a position on lookup side to join against...
             while (joinPosition >= 0) {
-                if (lookupSource.isJoinPositionEligible(joinPosition, probe.getPosition(), probe.getPage())) {
-                    currentProbePositionProducedRow = true;
+                // Every match goes through the join filter and the position links walk one at a time, but the matches are
+                // appended to the page builder in bulk. The batch is small, so the output page can only grow a little past full.
+                int matchCount = 0;
+                while (joinPosition >= 0 && matchCount < matchedJoinPositions.length) {
+                    if (lookupSource.isJoinPositionEligible(joinPosition, probe.getPosition(), probe.getPage())) {
+                        matchedJoinPositions[matchCount] = joinPosition;
+                        matchCount++;
+                    }
+
+                    // get next position on lookup side for this probe row
+                    joinPosition = lookupSource.getNextJoinPosition(joinPosition, probe.getPosition(), probe.getPage());
 
-                    pageBuilder.appendRow(probe, lookupSource, joinPosition);
-                    joinSourcePositions++;
+                    if (yieldSignal.isSet()) {
+                        break;
+                    }
                 }
 
-                // get next position on lookup side for this probe row
-                joinPosition = lookupSource.getNextJoinPosition(joinPosition, probe.getPosition(), probe.getPage());
+                if (matchCount > 0) {
+                    currentProbePositionProducedRow = true;
+                    pageBuilder.appendRows(probe, lookupSource, matchedJoinPositions, matchCount);
+                    joinSourcePositions += matchCount;
+                }
 
                 if (yieldSignal.isSet() || pageBuilder.isFull()) {
                     return false;
@@ -370,7 +390,7 @@ public class LookupJoinOperator
             }
 
             // update join position
-            joinPosition = probe.getCurrentJoinPosition(lookupSource);
+            joinPosition = probe.getCurrentJoinPosition(lookupSource, batchProbeEnabled);
             // reset row join state for next row
             joinSourcePositions = 0;
             currentProbePositionProducedRow = false;
@@ -76,20 +76,35 @@ public class LookupJoinPageBuilder
     public void appendRow(JoinProbe probe, LookupSource lookupSource, long joinPosition)
     {
         // probe side
-        appendProbeIndex(probe);
+        appendProbeIndex(probe, 1);
 
         // build side
         buildPageBuilder.declarePosition();
         lookupSource.appendTo(joinPosition, buildPageBuilder, 0);
     }
 
+    /**
+     * append the index for the probe once for each of the first {@code count} join positions and copy their rows for the build
+     */
+    public void appendRows(JoinProbe probe, LookupSource lookupSource, long[] joinPositions, int count)
+    {
+        // probe side
+        appendProbeIndex(probe, count);
+
+        // build side
+        buildPageBuilder.declarePositions(count);
+        for (int i = 0; i < count; i++) {
+            lookupSource.appendTo(joinPositions[i], buildPageBuilder, 0);
+        }
+    }
+
     /**
      * append the index for the probe and append nulls for the build
      */
     public void appendNullForBuild(JoinProbe probe)
     {
         // probe side
-        appendProbeIndex(probe);
+        appendProbeIndex(probe, 1);
 
         // build side
         buildPageBuilder.declarePosition();
@@ -141,18 +156,21 @@ public class LookupJoinPageBuilder
                 .toString();
     }
 
-    private void appendProbeIndex(JoinProbe probe)
+    private void appendProbeIndex(JoinProbe probe, int count)
     {
         int position = probe.getPosition();
         verify(position >= 0);
         int previousPosition = probeIndexBuilder.isEmpty() ? -1 : probeIndexBuilder.get(probeIndexBuilder.size() - 1);
         // positions to be appended should be in ascending order
         verify(previousPosition <= position);
-        isSequentialProbeIndices &= position == previousPosition + 1 || previousPosition == -1;
+        // a position appended more than once is a duplicate of itself
+        isSequentialProbeIndices &= (position == previousPosition + 1 || previousPosition == -1) && count == 1;
 
         // Update probe indices and size
-        probeIndexBuilder.add(position);
-        estimatedProbeBlockBytes += Integer.BYTES;
+        for (int i = 0; i < count; i++) {
+            probeIndexBuilder.add(position);
+        }
+        estimatedProbeBlockBytes += Integer.BYTES * count;
 
         // Update memory usage for probe side.
         //
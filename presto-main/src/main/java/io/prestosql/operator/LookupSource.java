@@ -16,6 +16,7 @@ package io.prestosql.operator;
 import io.prestosql.spi.Page;
 import io.prestosql.spi.PageBuilder;
 
+import javax.annotation.Nullable;
 import javax.annotation.concurrent.NotThreadSafe;
 
 import java.io.Closeable;
@@ -36,6 +37,37 @@ public interface LookupSource
 
     long getJoinPosition(int position, Page hashChannelsPage, Page allChannelsPage);
 
+    /**
+     * Returns true if the join positions of all the rows of a probe page can be looked up
+     * with {@link #getJoinPositions} before any of them is joined. This is not the case for
+     * lookup sources whose contents can change while a page is probed.
+     */
+    default boolean isBatchProbeSupported()
+    {
+        return false;
+    }
+
+    /**
+     * Looks up the first join position of each of the probe positions stored in {@code positions}
+     * from {@code offset} to {@code offset + length}, and stores it in {@code joinPositions} at the
+     * probe position, or -1 if there is no match. The raw hashes, if present, are indexed by probe
+     * position as well.
+     * <p>
+     * The default implementation probes one position at a time.
+     */
+    default void getJoinPositions(int[] positions, int offset, int length, Page hashChannelsPage, Page allChannelsPage, @Nullable long[] rawHashes, long[] joinPositions)
+    {
+        for (int i = offset; i < offset + length; i++) {
+            int position = positions[i];
+            if (rawHashes == null) {
+                joinPositions[position] = getJoinPosition(position, hashChannelsPage, allChannelsPage);
+            }
+            else {
+                joinPositions[position] = getJoinPosition(position, hashChannelsPage, allChannelsPage, rawHashes[position]);
+            }
+        }
+    }
+
     long getNextJoinPosition(long currentJoinPosition, int probePosition, Page allProbeChannelsPage);
 
     void appendTo(long position, PageBuilder pageBuilder, int outputChannelOffset);
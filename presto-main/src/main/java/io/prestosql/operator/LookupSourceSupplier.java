@@ -26,4 +26,10 @@ public interface LookupSourceSupplier
      * @return checksum of this entity for heuristic checking equivalence of two instances
      */
     long checksum();
+
+    /**
+     * Releases the memory held outside of the Java heap once every lookup source created by
+     * this supplier is closed. No lookup source can be created afterwards.
+     */
+    default void close() {}
 }
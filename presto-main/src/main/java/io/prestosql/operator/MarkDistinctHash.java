@@ -14,17 +14,21 @@
 package io.prestosql.operator;
 
 import com.google.common.annotations.VisibleForTesting;
+import com.google.common.collect.AbstractIterator;
 import io.prestosql.Session;
 import io.prestosql.spi.Page;
+import io.prestosql.spi.PageBuilder;
 import io.prestosql.spi.block.Block;
 import io.prestosql.spi.block.BlockBuilder;
 import io.prestosql.spi.type.Type;
 import io.prestosql.sql.gen.JoinCompiler;
 
+import java.util.Iterator;
 import java.util.List;
 import java.util.Optional;
 
 import static io.prestosql.SystemSessionProperties.isDictionaryAggregationEnabled;
+import static io.prestosql.SystemSessionProperties.isOffHeapHashTableEnabled;
 import static io.prestosql.operator.GroupByHash.createGroupByHash;
 import static io.prestosql.spi.type.BooleanType.BOOLEAN;
 
@@ -40,7 +44,7 @@ public class MarkDistinctHash
 
     public MarkDistinctHash(Session session, List<Type> types, int[] channels, Optional<Integer> hashChannel, int expectedDistinctValues, JoinCompiler joinCompiler, UpdateMemory updateMemory)
     {
-        this.groupByHash = createGroupByHash(types, channels, hashChannel, expectedDistinctValues, isDictionaryAggregationEnabled(session), joinCompiler, updateMemory);
+        this.groupByHash = createGroupByHash(types, channels, hashChannel, expectedDistinctValues, isDictionaryAggregationEnabled(session), isOffHeapHashTableEnabled(session), joinCompiler, updateMemory);
     }
 
     public long getEstimatedSize()
@@ -67,6 +71,44 @@ public class MarkDistinctHash
                 });
     }
 
+    /**
+     * Returns the types of the pages returned by {@link #buildDistinctValues}, which
+     * include the hash of the values when the input has a precomputed hash.
+     */
+    public List<Type> getDistinctValueTypes()
+    {
+        return groupByHash.getTypes();
+    }
+
+    /**
+     * Returns the distinct values marked so far. The hash must not be modified while the
+     * returned pages are consumed.
+     */
+    public Iterator<Page> buildDistinctValues()
+    {
+        return new AbstractIterator<Page>()
+        {
+            private final PageBuilder pageBuilder = new PageBuilder(groupByHash.getTypes());
+            private int groupId;
+
+            @Override
+            protected Page computeNext()
+            {
+                if (groupId == groupByHash.getGroupCount()) {
+                    return endOfData();
+                }
+
+                pageBuilder.reset();
+                while (!pageBuilder.isFull() && groupId < groupByHash.getGroupCount()) {
+                    pageBuilder.declarePosition();
+                    groupByHash.appendValuesTo(groupId, pageBuilder, 0);
+                    groupId++;
+                }
+                return pageBuilder.build();
+            }
+        };
+    }
+
     @VisibleForTesting
     public int getCapacity()
     {
@@ -15,26 +15,41 @@ package io.prestosql.operator;
 
 import com.google.common.annotations.VisibleForTesting;
 import com.google.common.collect.ImmutableList;
+import com.google.common.io.Closer;
 import com.google.common.primitives.Ints;
+import com.google.common.util.concurrent.ListenableFuture;
 import io.prestosql.memory.context.LocalMemoryContext;
+import io.prestosql.operator.exchange.LocalPartitionGenerator;
 import io.prestosql.spi.Page;
 import io.prestosql.spi.block.Block;
 import io.prestosql.spi.type.Type;
+import io.prestosql.spiller.PartitioningSpiller;
+import io.prestosql.spiller.PartitioningSpillerFactory;
 import io.prestosql.sql.gen.JoinCompiler;
 import io.prestosql.sql.planner.plan.PlanNodeId;
 
 import java.util.Collection;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.IntStream;
 
 import static com.google.common.base.Preconditions.checkArgument;
 import static com.google.common.base.Preconditions.checkState;
+import static com.google.common.base.Verify.verify;
+import static com.google.common.util.concurrent.Futures.immediateFuture;
+import static io.airlift.concurrent.MoreFutures.checkSuccess;
 import static io.prestosql.spi.type.BooleanType.BOOLEAN;
+import static io.prestosql.spiller.PartitioningSpillerFactory.unsupportedPartitioningSpillerFactory;
+import static java.util.Collections.emptyIterator;
 import static java.util.Objects.requireNonNull;
 
 public class MarkDistinctOperator
         implements Operator
 {
+    // the spilled input is marked one partition at a time, so that only the distinct values of a partition are in memory
+    private static final int SPILL_PARTITION_COUNT = 16;
+
     public static class MarkDistinctOperatorFactory
             implements OperatorFactory
     {
@@ -44,6 +59,8 @@ public class MarkDistinctOperator
         private final List<Integer> markDistinctChannels;
         private final List<Type> types;
         private final JoinCompiler joinCompiler;
+        private final boolean spillEnabled;
+        private final PartitioningSpillerFactory partitioningSpillerFactory;
         private boolean closed;
 
         public MarkDistinctOperatorFactory(
@@ -53,6 +70,19 @@ public class MarkDistinctOperator
                 Collection<Integer> markDistinctChannels,
                 Optional<Integer> hashChannel,
                 JoinCompiler joinCompiler)
+        {
+            this(operatorId, planNodeId, sourceTypes, markDistinctChannels, hashChannel, joinCompiler, false, unsupportedPartitioningSpillerFactory());
+        }
+
+        public MarkDistinctOperatorFactory(
+                int operatorId,
+                PlanNodeId planNodeId,
+                List<? extends Type> sourceTypes,
+                Collection<Integer> markDistinctChannels,
+                Optional<Integer> hashChannel,
+                JoinCompiler joinCompiler,
+                boolean spillEnabled,
+                PartitioningSpillerFactory partitioningSpillerFactory)
         {
             this.operatorId = operatorId;
             this.planNodeId = requireNonNull(planNodeId, "planNodeId is null");
@@ -60,6 +90,8 @@ public class MarkDistinctOperator
             checkArgument(!markDistinctChannels.isEmpty(), "markDistinctChannels is empty");
             this.hashChannel = requireNonNull(hashChannel, "hashChannel is null");
             this.joinCompiler = requireNonNull(joinCompiler, "joinCompiler is null");
+            this.spillEnabled = spillEnabled;
+            this.partitioningSpillerFactory = requireNonNull(partitioningSpillerFactory, "partitioningSpillerFactory is null");
             this.types = ImmutableList.<Type>builder()
                     .addAll(sourceTypes)
                     .add(BOOLEAN)
@@ -71,7 +103,7 @@ public class MarkDistinctOperator
         {
             checkState(!closed, "Factory is already closed");
             OperatorContext operatorContext = driverContext.addOperatorContext(operatorId, planNodeId, MarkDistinctOperator.class.getSimpleName());
-            return new MarkDistinctOperator(operatorContext, types, markDistinctChannels, hashChannel, joinCompiler);
+            return new MarkDistinctOperator(operatorContext, types, markDistinctChannels, hashChannel, joinCompiler, spillEnabled, partitioningSpillerFactory);
         }
 
         @Override
@@ -83,13 +115,22 @@ public class MarkDistinctOperator
         @Override
         public OperatorFactory duplicate()
         {
-            return new MarkDistinctOperatorFactory(operatorId, planNodeId, types.subList(0, types.size() - 1), markDistinctChannels, hashChannel, joinCompiler);
+            return new MarkDistinctOperatorFactory(operatorId, planNodeId, types.subList(0, types.size() - 1), markDistinctChannels, hashChannel, joinCompiler, spillEnabled, partitioningSpillerFactory);
         }
     }
 
     private final OperatorContext operatorContext;
-    private final MarkDistinctHash markDistinctHash;
+    private final List<Type> sourceTypes;
+    private final List<Type> distinctTypes;
+    private final int[] markDistinctChannels;
+    private final Optional<Integer> hashChannel;
+    private final JoinCompiler joinCompiler;
+    private final boolean spillEnabled;
+    private final PartitioningSpillerFactory partitioningSpillerFactory;
     private final LocalMemoryContext localUserMemoryContext;
+    private final LocalMemoryContext localRevocableMemoryContext;
+
+    private MarkDistinctHash markDistinctHash;
 
     private Page inputPage;
     private boolean finishing;
@@ -97,19 +138,61 @@ public class MarkDistinctOperator
     // for yield when memory is not available
     private Work<Block> unfinishedWork;
 
+    // input page that has been marked, when spill is enabled
+    private Page markedPage;
+
+    // after memory is revoked, the distinct values marked so far and all the following input are spilled
+    private Optional<PartitioningSpiller> distinctValuesSpiller = Optional.empty();
+    private Optional<PartitioningSpiller> inputSpiller = Optional.empty();
+    private ListenableFuture<?> spillInProgress = immediateFuture(null);
+    private Runnable finishMemoryRevoke = () -> {};
+    private int unspilledPartitions;
+    private Iterator<Page> unspilledInput = emptyIterator();
+    private boolean finished;
+
     public MarkDistinctOperator(OperatorContext operatorContext, List<Type> types, List<Integer> markDistinctChannels, Optional<Integer> hashChannel, JoinCompiler joinCompiler)
     {
-        this.operatorContext = requireNonNull(operatorContext, "operatorContext is null");
+        this(operatorContext, types, markDistinctChannels, hashChannel, joinCompiler, false, unsupportedPartitioningSpillerFactory());
+    }
 
-        requireNonNull(hashChannel, "hashChannel is null");
+    public MarkDistinctOperator(
+            OperatorContext operatorContext,
+            List<Type> types,
+            List<Integer> markDistinctChannels,
+            Optional<Integer> hashChannel,
+            JoinCompiler joinCompiler,
+            boolean spillEnabled,
+            PartitioningSpillerFactory partitioningSpillerFactory)
+    {
+        this.operatorContext = requireNonNull(operatorContext, "operatorContext is null");
+        this.hashChannel = requireNonNull(hashChannel, "hashChannel is null");
         requireNonNull(markDistinctChannels, "markDistinctChannels is null");
+        this.joinCompiler = requireNonNull(joinCompiler, "joinCompiler is null");
+        this.spillEnabled = spillEnabled;
+        this.partitioningSpillerFactory = requireNonNull(partitioningSpillerFactory, "partitioningSpillerFactory is null");
 
+        this.sourceTypes = ImmutableList.copyOf(types.subList(0, types.size() - 1));
         ImmutableList.Builder<Type> distinctTypes = ImmutableList.builder();
         for (int channel : markDistinctChannels) {
             distinctTypes.add(types.get(channel));
         }
-        this.markDistinctHash = new MarkDistinctHash(operatorContext.getSession(), distinctTypes.build(), Ints.toArray(markDistinctChannels), hashChannel, joinCompiler, this::updateMemoryReservation);
+        this.distinctTypes = distinctTypes.build();
+        this.markDistinctChannels = Ints.toArray(markDistinctChannels);
         this.localUserMemoryContext = operatorContext.localUserMemoryContext();
+        this.localRevocableMemoryContext = operatorContext.localRevocableMemoryContext();
+        this.markDistinctHash = createMarkDistinctHash(this.markDistinctChannels, hashChannel);
+    }
+
+    private MarkDistinctHash createMarkDistinctHash(int[] channels, Optional<Integer> hashChannel)
+    {
+        if (spillEnabled) {
+            // the memory is revocable, so there is no need to yield
+            return new MarkDistinctHash(operatorContext.getSession(), distinctTypes, channels, hashChannel, joinCompiler, () -> {
+                updateMemoryReservation();
+                return true;
+            });
+        }
+        return new MarkDistinctHash(operatorContext.getSession(), distinctTypes, channels, hashChannel, joinCompiler, this::updateMemoryReservation);
     }
 
     @Override
@@ -121,19 +204,40 @@ public class MarkDistinctOperator
     @Override
     public void finish()
     {
+        if (finishing) {
+            return;
+        }
         finishing = true;
+
+        // the marked values are no longer needed once all the input has been marked
+        if (spillEnabled && !isSpilled()) {
+            markDistinctHash = null;
+            updateMemoryReservation();
+        }
     }
 
     @Override
     public boolean isFinished()
     {
+        if (isSpilled()) {
+            return finished;
+        }
         return finishing && !hasUnfinishedInput();
     }
 
+    @Override
+    public ListenableFuture<?> isBlocked()
+    {
+        if (spillInProgress.isDone()) {
+            return NOT_BLOCKED;
+        }
+        return spillInProgress;
+    }
+
     @Override
     public boolean needsInput()
     {
-        return !finishing && !hasUnfinishedInput();
+        return !finishing && !hasUnfinishedInput() && spillInProgress.isDone();
     }
 
     @Override
@@ -141,6 +245,20 @@ public class MarkDistinctOperator
     {
         requireNonNull(page, "page is null");
         checkState(needsInput());
+        checkSuccess(spillInProgress, "spilling failed");
+
+        if (isSpilled()) {
+            spillInProgress = inputSpiller.get().partitionAndSpill(page, partition -> true).getSpillingFuture();
+            return;
+        }
+
+        if (spillEnabled) {
+            Work<Block> work = markDistinctHash.markDistinctRows(page);
+            verify(work.process(), "work did not finish");
+            markedPage = page.appendColumn(work.getResult());
+            updateMemoryReservation();
+            return;
+        }
 
         inputPage = page;
 
@@ -151,6 +269,16 @@ public class MarkDistinctOperator
     @Override
     public Page getOutput()
     {
+        if (markedPage != null) {
+            Page page = markedPage;
+            markedPage = null;
+            return page;
+        }
+
+        if (isSpilled()) {
+            return getSpilledOutput();
+        }
+
         if (unfinishedWork == null) {
             return null;
         }
@@ -169,9 +297,95 @@ public class MarkDistinctOperator
         return outputPage;
     }
 
+    private Page getSpilledOutput()
+    {
+        if (!finishing || finished || !spillInProgress.isDone()) {
+            return null;
+        }
+        checkSuccess(spillInProgress, "spilling failed");
+
+        while (!unspilledInput.hasNext()) {
+            if (unspilledPartitions == SPILL_PARTITION_COUNT) {
+                finished = true;
+                markDistinctHash = null;
+                updateMemoryReservation();
+                return null;
+            }
+            unspilledInput = unspillPartition(unspilledPartitions);
+            unspilledPartitions++;
+        }
+
+        Page page = unspilledInput.next();
+        Work<Block> work = markDistinctHash.markDistinctRows(getDistinctValues(page));
+        verify(work.process(), "work did not finish");
+        updateMemoryReservation();
+        return page.appendColumn(work.getResult());
+    }
+
+    private Iterator<Page> unspillPartition(int partition)
+    {
+        // the values marked before the spill are distinct values of the partition that must not be marked again
+        int[] channels = IntStream.range(0, distinctTypes.size()).toArray();
+        markDistinctHash = createMarkDistinctHash(channels, hashChannel.map(ignored -> distinctTypes.size()));
+        Iterator<Page> distinctValues = distinctValuesSpiller.get().getSpilledPages(partition);
+        while (distinctValues.hasNext()) {
+            verify(markDistinctHash.markDistinctRows(distinctValues.next()).process(), "work did not finish");
+        }
+        updateMemoryReservation();
+
+        return inputSpiller.get().getSpilledPages(partition);
+    }
+
+    private Page getDistinctValues(Page page)
+    {
+        if (hashChannel.isPresent()) {
+            return page.getColumns(Ints.concat(markDistinctChannels, new int[] {hashChannel.get()}));
+        }
+        return page.getColumns(markDistinctChannels);
+    }
+
+    @Override
+    public ListenableFuture<?> startMemoryRevoke()
+    {
+        checkSuccess(spillInProgress, "spilling failed");
+
+        if (finishing || isSpilled() || localRevocableMemoryContext.getBytes() == 0) {
+            return NOT_BLOCKED;
+        }
+
+        distinctValuesSpiller = Optional.of(createSpiller(markDistinctHash.getDistinctValueTypes(), IntStream.range(0, distinctTypes.size()).toArray()));
+        inputSpiller = Optional.of(createSpiller(sourceTypes, markDistinctChannels));
+
+        spillInProgress = distinctValuesSpiller.get().spill(markDistinctHash.buildDistinctValues());
+        finishMemoryRevoke = () -> {
+            markDistinctHash = null;
+            updateMemoryReservation();
+        };
+        return spillInProgress;
+    }
+
+    @Override
+    public void finishMemoryRevoke()
+    {
+        finishMemoryRevoke.run();
+        finishMemoryRevoke = () -> {};
+    }
+
+    private PartitioningSpiller createSpiller(List<Type> types, int[] distinctChannels)
+    {
+        // the precomputed hash is not used, so that the values and the input are partitioned the same way
+        LocalPartitionGenerator partitionGenerator = new LocalPartitionGenerator(new InterpretedHashGenerator(distinctTypes, distinctChannels), SPILL_PARTITION_COUNT);
+        return partitioningSpillerFactory.create(types, partitionGenerator, operatorContext.getSpillContext(), operatorContext.newAggregateSystemMemoryContext());
+    }
+
+    private boolean isSpilled()
+    {
+        return inputSpiller.isPresent();
+    }
+
     private boolean hasUnfinishedInput()
     {
-        return inputPage != null || unfinishedWork != null;
+        return inputPage != null || unfinishedWork != null || markedPage != null;
     }
 
     /**
@@ -184,13 +398,33 @@ public class MarkDistinctOperator
     // The following implementation is a hybrid model, where the push model is going to call the pull model causing reentrancy
     private boolean updateMemoryReservation()
     {
+        long bytes = (markDistinctHash == null) ? 0 : markDistinctHash.getEstimatedSize();
+        if (spillEnabled && !isSpilled()) {
+            localRevocableMemoryContext.setBytes(bytes);
+            return true;
+        }
+
+        localRevocableMemoryContext.setBytes(0);
         // Operator/driver will be blocked on memory after we call localUserMemoryContext.setBytes().
         // If memory is not available, once we return, this operator will be blocked until memory is available.
-        localUserMemoryContext.setBytes(markDistinctHash.getEstimatedSize());
+        localUserMemoryContext.setBytes(bytes);
         // If memory is not available, inform the caller that we cannot proceed for allocation.
         return operatorContext.isWaitingForMemory().isDone();
     }
 
+    @Override
+    public void close()
+            throws Exception
+    {
+        markDistinctHash = null;
+        localUserMemoryContext.setBytes(0);
+        localRevocableMemoryContext.setBytes(0);
+        try (Closer closer = Closer.create()) {
+            distinctValuesSpiller.ifPresent(closer::register);
+            inputSpiller.ifPresent(closer::register);
+        }
+    }
+
     @VisibleForTesting
     public int getCapacity()
     {
@@ -0,0 +1,451 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.prestosql.operator;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.collect.ImmutableList;
+import io.prestosql.array.OffHeapSlotArray;
+import io.prestosql.spi.Page;
+import io.prestosql.spi.PageBuilder;
+import io.prestosql.spi.PrestoException;
+import io.prestosql.spi.block.Block;
+import io.prestosql.spi.block.BlockBuilder;
+import io.prestosql.spi.type.BigintType;
+import io.prestosql.spi.type.Type;
+import io.prestosql.type.BigintOperators;
+import org.openjdk.jol.info.ClassLayout;
+
+import java.util.List;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkState;
+import static io.airlift.slice.SizeOf.SIZE_OF_INT;
+import static io.airlift.slice.SizeOf.SIZE_OF_LONG;
+import static io.prestosql.spi.StandardErrorCode.GENERIC_INSUFFICIENT_RESOURCES;
+import static io.prestosql.spi.type.BigintType.BIGINT;
+import static io.prestosql.type.TypeUtils.NULL_HASH_CODE;
+import static io.prestosql.util.HashCollisionsEstimator.estimateNumberOfHashCollisions;
+import static it.unimi.dsi.fastutil.HashCommon.arraySize;
+import static it.unimi.dsi.fastutil.HashCommon.murmurHash3;
+import static java.lang.Math.toIntExact;
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Variant of {@link BigintGroupByHash} which keeps the hash table outside of the Java heap.
+ * <p>
+ * Each slot of the open addressing table stores the value next to its group id, so a probe
+ * touches a single cache line. Slots are zero filled when allocated, hence the group id is
+ * stored incremented by one and zero marks an empty slot. The direct memory is included in
+ * {@link #getEstimatedSize()}, which the operators report to their memory contexts. The table
+ * replaced by a rehash is released immediately, so it does not outlive its accounting.
+ */
+public class OffHeapBigintGroupByHash
+        implements GroupByHash
+{
+    private static final int INSTANCE_SIZE = ClassLayout.parseClass(OffHeapBigintGroupByHash.class).instanceSize();
+
+    private static final float FILL_RATIO = 0.75f;
+    private static final List<Type> TYPES = ImmutableList.of(BIGINT);
+    private static final List<Type> TYPES_WITH_RAW_HASH = ImmutableList.of(BIGINT, BIGINT);
+
+    private static final int VALUE_OFFSET = 0;
+    private static final int GROUP_ID_OFFSET = SIZE_OF_LONG;
+    private static final int SLOT_SIZE = SIZE_OF_LONG + SIZE_OF_INT;
+
+    private final int hashChannel;
+    private final boolean outputRawHash;
+
+    private int hashCapacity;
+    private int maxFill;
+    private int mask;
+
+    // the hash table from values to groupIds
+    private OffHeapSlotArray slots;
+
+    // groupId for the null value
+    private int nullGroupId = -1;
+
+    // reverse index from the groupId back to the value
+    private final OffHeapSlotArray valuesByGroupId;
+
+    private int nextGroupId;
+    private long hashCollisions;
+    private double expectedHashCollisions;
+
+    // reserve enough memory before rehash
+    private final UpdateMemory updateMemory;
+    private long preallocatedMemoryInBytes;
+    private long currentPageSizeInBytes;
+
+    public OffHeapBigintGroupByHash(int hashChannel, boolean outputRawHash, int expectedSize, UpdateMemory updateMemory)
+    {
+        checkArgument(hashChannel >= 0, "hashChannel must be at least zero");
+        checkArgument(expectedSize > 0, "expectedSize must be greater than zero");
+
+        this.hashChannel = hashChannel;
+        this.outputRawHash = outputRawHash;
+
+        hashCapacity = arraySize(expectedSize, FILL_RATIO);
+
+        maxFill = calculateMaxFill(hashCapacity);
+        mask = hashCapacity - 1;
+        slots = new OffHeapSlotArray(SLOT_SIZE);
+        slots.ensureCapacity(hashCapacity);
+
+        valuesByGroupId = new OffHeapSlotArray(SIZE_OF_LONG);
+        valuesByGroupId.ensureCapacity(hashCapacity);
+
+        // This interface is used for actively reserving memory (push model) for rehash.
+        // The caller can also query memory usage on this object (pull model)
+        this.updateMemory = requireNonNull(updateMemory, "updateMemory is null");
+    }
+
+    @Override
+    public long getEstimatedSize()
+    {
+        return INSTANCE_SIZE +
+                slots.sizeOf() +
+                slots.getOffHeapSizeInBytes() +
+                valuesByGroupId.sizeOf() +
+                valuesByGroupId.getOffHeapSizeInBytes() +
+                preallocatedMemoryInBytes;
+    }
+
+    @Override
+    public long getHashCollisions()
+    {
+        return hashCollisions;
+    }
+
+    @Override
+    public double getExpectedHashCollisions()
+    {
+        return expectedHashCollisions + estimateNumberOfHashCollisions(getGroupCount(), hashCapacity);
+    }
+
+    @Override
+    public List<Type> getTypes()
+    {
+        return outputRawHash ? TYPES_WITH_RAW_HASH : TYPES;
+    }
+
+    @Override
+    public int getGroupCount()
+    {
+        return nextGroupId;
+    }
+
+    @Override
+    public void appendValuesTo(int groupId, PageBuilder pageBuilder, int outputChannelOffset)
+    {
+        checkArgument(groupId >= 0, "groupId is negative");
+        BlockBuilder blockBuilder = pageBuilder.getBlockBuilder(outputChannelOffset);
+        if (groupId == nullGroupId) {
+            blockBuilder.appendNull();
+        }
+        else {
+            BIGINT.writeLong(blockBuilder, getValueByGroupId(groupId));
+        }
+
+        if (outputRawHash) {
+            BlockBuilder hashBlockBuilder = pageBuilder.getBlockBuilder(outputChannelOffset + 1);
+            if (groupId == nullGroupId) {
+                BIGINT.writeLong(hashBlockBuilder, NULL_HASH_CODE);
+            }
+            else {
+                BIGINT.writeLong(hashBlockBuilder, BigintOperators.hashCode(getValueByGroupId(groupId)));
+            }
+        }
+    }
+
+    @Override
+    public Work<?> addPage(Page page)
+    {
+        currentPageSizeInBytes = page.getRetainedSizeInBytes();
+        return new AddPageWork(page.getBlock(hashChannel));
+    }
+
+    @Override
+    public Work<GroupByIdBlock> getGroupIds(Page page)
+    {
+        currentPageSizeInBytes = page.getRetainedSizeInBytes();
+        return new GetGroupIdsWork(page.getBlock(hashChannel));
+    }
+
+    @Override
+    public boolean contains(int position, Page page, int[] hashChannels)
+    {
+        Block block = page.getBlock(hashChannel);
+        if (block.isNull(position)) {
+            return nullGroupId >= 0;
+        }
+
+        long value = BIGINT.getLong(block, position);
+        long hashPosition = getHashPosition(value, mask);
+
+        // look for an empty slot or a slot containing this key
+        while (true) {
+            int groupId = getGroupId(slots, hashPosition);
+            if (groupId == -1) {
+                return false;
+            }
+            if (value == slots.getLong(hashPosition, VALUE_OFFSET)) {
+                return true;
+            }
+
+            // increment position and mask to handle wrap around
+            hashPosition = (hashPosition + 1) & mask;
+        }
+    }
+
+    @Override
+    public long getRawHash(int groupId)
+    {
+        return BigintType.hash(getValueByGroupId(groupId));
+    }
+
+    @VisibleForTesting
+    @Override
+    public int getCapacity()
+    {
+        return hashCapacity;
+    }
+
+    private int putIfAbsent(int position, Block block)
+    {
+        if (block.isNull(position)) {
+            if (nullGroupId < 0) {
+                // set null group id
+                nullGroupId = nextGroupId++;
+            }
+
+            return nullGroupId;
+        }
+
+        long value = BIGINT.getLong(block, position);
+        long hashPosition = getHashPosition(value, mask);
+
+        // look for an empty slot or a slot containing this key
+        while (true) {
+            int groupId = getGroupId(slots, hashPosition);
+            if (groupId == -1) {
+                break;
+            }
+
+            if (value == slots.getLong(hashPosition, VALUE_OFFSET)) {
+                return groupId;
+            }
+
+            // increment position and mask to handle wrap around
+            hashPosition = (hashPosition + 1) & mask;
+            hashCollisions++;
+        }
+
+        return addNewGroup(hashPosition, value);
+    }
+
+    private int addNewGroup(long hashPosition, long value)
+    {
+        // record group id in hash
+        int groupId = nextGroupId++;
+
+        setSlot(slots, hashPosition, value, groupId);
+        valuesByGroupId.setLong(groupId, 0, value);
+
+        // increase capacity, if necessary
+        if (needRehash()) {
+            tryRehash();
+        }
+        return groupId;
+    }
+
+    private boolean tryRehash()
+    {
+        long newCapacityLong = hashCapacity * 2L;
+        if (newCapacityLong > Integer.MAX_VALUE) {
+            throw new PrestoException(GENERIC_INSUFFICIENT_RESOURCES, "Size of hash table cannot exceed 1 billion entries");
+        }
+        int newCapacity = toIntExact(newCapacityLong);
+
+        // An estimate of how much extra memory is needed before we can go ahead and expand the hash table.
+        // This includes the new table, the growth of valuesByGroupId, and the size of the current page.
+        // The old table is still in use while the new one is populated, so it is not subtracted.
+        preallocatedMemoryInBytes = newCapacity * (long) SLOT_SIZE + (calculateMaxFill(newCapacity) - maxFill) * (long) SIZE_OF_LONG + currentPageSizeInBytes;
+        if (!updateMemory.update()) {
+            // reserved memory but has exceeded the limit
+            return false;
+        }
+        preallocatedMemoryInBytes = 0;
+
+        expectedHashCollisions += estimateNumberOfHashCollisions(getGroupCount(), hashCapacity);
+
+        int newMask = newCapacity - 1;
+        OffHeapSlotArray newSlots = new OffHeapSlotArray(SLOT_SIZE);
+        newSlots.ensureCapacity(newCapacity);
+
+        for (int groupId = 0; groupId < nextGroupId; groupId++) {
+            if (groupId == nullGroupId) {
+                continue;
+            }
+            long value = getValueByGroupId(groupId);
+
+            // find an empty slot for the address
+            long hashPosition = getHashPosition(value, newMask);
+            while (getGroupId(newSlots, hashPosition) != -1) {
+                hashPosition = (hashPosition + 1) & newMask;
+                hashCollisions++;
+            }
+
+            // record the mapping
+            setSlot(newSlots, hashPosition, value, groupId);
+        }
+
+        mask = newMask;
+        hashCapacity = newCapacity;
+        maxFill = calculateMaxFill(hashCapacity);
+        // release the old table right away, as getEstimatedSize() only accounts for the current one
+        slots.close();
+        slots = newSlots;
+
+        this.valuesByGroupId.ensureCapacity(maxFill);
+        return true;
+    }
+
+    private boolean needRehash()
+    {
+        return nextGroupId >= maxFill;
+    }
+
+    private long getValueByGroupId(int groupId)
+    {
+        return valuesByGroupId.getLong(groupId, 0);
+    }
+
+    private static int getGroupId(OffHeapSlotArray slots, long hashPosition)
+    {
+        return slots.getInt(hashPosition, GROUP_ID_OFFSET) - 1;
+    }
+
+    private static void setSlot(OffHeapSlotArray slots, long hashPosition, long value, int groupId)
+    {
+        slots.setLong(hashPosition, VALUE_OFFSET, value);
+        slots.setInt(hashPosition, GROUP_ID_OFFSET, groupId + 1);
+    }
+
+    private static long getHashPosition(long rawHash, int mask)
+    {
+        return murmurHash3(rawHash) & mask;
+    }
+
+    private static int calculateMaxFill(int hashSize)
+    {
+        checkArgument(hashSize > 0, "hashSize must be greater than 0");
+        int maxFill = (int) Math.ceil(hashSize * FILL_RATIO);
+        if (maxFill == hashSize) {
+            maxFill--;
+        }
+        checkArgument(hashSize > maxFill, "hashSize must be larger than maxFill");
+        return maxFill;
+    }
+
+    private class AddPageWork
+            implements Work<Void>
+    {
+        private final Block block;
+
+        private int lastPosition;
+
+        public AddPageWork(Block block)
+        {
+            this.block = requireNonNull(block, "block is null");
+        }
+
+        @Override
+        public boolean process()
+        {
+            int positionCount = block.getPositionCount();
+            checkState(lastPosition < positionCount, "position count out of bound");
+
+            // needRehash() == false indicates we have reached capacity boundary and a rehash is needed.
+            // We can only proceed if tryRehash() successfully did a rehash.
+            if (needRehash() && !tryRehash()) {
+                return false;
+            }
+
+            // putIfAbsent will rehash automatically if rehash is needed, unless there isn't enough memory to do so.
+            // Therefore needRehash will not generally return true even if we have just crossed the capacity boundary.
+            while (lastPosition < positionCount && !needRehash()) {
+                // get the group for the current row
+                putIfAbsent(lastPosition, block);
+                lastPosition++;
+            }
+            return lastPosition == positionCount;
+        }
+
+        @Override
+        public Void getResult()
+        {
+            throw new UnsupportedOperationException();
+        }
+    }
+
+    private class GetGroupIdsWork
+            implements Work<GroupByIdBlock>
+    {
+        private final BlockBuilder blockBuilder;
+        private final Block block;
+
+        private boolean finished;
+        private int lastPosition;
+
+        public GetGroupIdsWork(Block block)
+        {
+            this.block = requireNonNull(block, "block is null");
+            // we know the exact size required for the block
+            this.blockBuilder = BIGINT.createFixedSizeBlockBuilder(block.getPositionCount());
+        }
+
+        @Override
+        public boolean process()
+        {
+            int positionCount = block.getPositionCount();
+            checkState(lastPosition < positionCount, "position count out of bound");
+            checkState(!finished);
+
+            // needRehash() == false indicates we have reached capacity boundary and a rehash is needed.
+            // We can only proceed if tryRehash() successfully did a rehash.
+            if (needRehash() && !tryRehash()) {
+                return false;
+            }
+
+            // putIfAbsent will rehash automatically if rehash is needed, unless there isn't enough memory to do so.
+            // Therefore needRehash will not generally return true even if we have just crossed the capacity boundary.
+            while (lastPosition < positionCount && !needRehash()) {
+                // output the group id for this row
+                BIGINT.writeLong(blockBuilder, putIfAbsent(lastPosition, block));
+                lastPosition++;
+            }
+            return lastPosition == positionCount;
+        }
+
+        @Override
+        public GroupByIdBlock getResult()
+        {
+            checkState(lastPosition == block.getPositionCount(), "process has not yet finished");
+            checkState(!finished, "result has produced");
+            finished = true;
+            return new GroupByIdBlock(nextGroupId, blockBuilder.build());
+        }
+    }
+}
@@ -16,6 +16,7 @@ package io.prestosql.operator;
 import io.prestosql.spi.Page;
 import io.prestosql.spi.PageBuilder;
 
+import javax.annotation.Nullable;
 import javax.annotation.concurrent.GuardedBy;
 import javax.annotation.concurrent.NotThreadSafe;
 import javax.annotation.concurrent.ThreadSafe;
@@ -87,6 +88,18 @@ public final class OuterLookupSource
         return lookupSource.getJoinPosition(position, hashChannelsPage, allChannelsPage);
     }
 
+    @Override
+    public boolean isBatchProbeSupported()
+    {
+        return lookupSource.isBatchProbeSupported();
+    }
+
+    @Override
+    public void getJoinPositions(int[] positions, int offset, int length, Page hashChannelsPage, Page allChannelsPage, @Nullable long[] rawHashes, long[] joinPositions)
+    {
+        lookupSource.getJoinPositions(positions, offset, length, hashChannelsPage, allChannelsPage, rawHashes, joinPositions);
+    }
+
     @Override
     public long getNextJoinPosition(long currentJoinPosition, int probePosition, Page allProbeChannelsPage)
     {
@@ -122,6 +135,9 @@ public final class OuterLookupSource
         @GuardedBy("this")
         private int currentPosition;
 
+        @GuardedBy("this")
+        private boolean closed;
+
         public SharedLookupOuterPositionIterator(LookupSource lookupSource, boolean[] visitedPositions)
         {
             this.lookupSource = requireNonNull(lookupSource, "lookupSource is null");
@@ -140,6 +156,11 @@ public final class OuterLookupSource
                 }
                 currentPosition++;
             }
+            if (!closed) {
+                // the iterator holds its own lookup source, which keeps the hash alive until all outer positions are produced
+                closed = true;
+                lookupSource.close();
+            }
             return false;
         }
     }
@@ -15,6 +15,7 @@ package io.prestosql.operator;
 
 import com.fasterxml.jackson.annotation.JsonCreator;
 import com.fasterxml.jackson.annotation.JsonProperty;
+import io.airlift.units.Duration;
 import org.joda.time.DateTime;
 
 import java.net.URI;
@@ -37,6 +38,8 @@ public class PageBufferClientStatus
     private final int requestsScheduled;
     private final int requestsCompleted;
     private final int requestsFailed;
+    private final Duration averageResponseTime;
+    private final Duration maxResponseTime;
     private final String httpRequestState;
 
     @JsonCreator
@@ -50,6 +53,8 @@ public class PageBufferClientStatus
             @JsonProperty("requestsScheduled") int requestsScheduled,
             @JsonProperty("requestsCompleted") int requestsCompleted,
             @JsonProperty("requestsFailed") int requestsFailed,
+            @JsonProperty("averageResponseTime") Duration averageResponseTime,
+            @JsonProperty("maxResponseTime") Duration maxResponseTime,
             @JsonProperty("httpRequestState") String httpRequestState)
     {
         this.uri = uri;
@@ -62,6 +67,8 @@ public class PageBufferClientStatus
         this.requestsScheduled = requestsScheduled;
         this.requestsCompleted = requestsCompleted;
         this.requestsFailed = requestsFailed;
+        this.averageResponseTime = requireNonNull(averageResponseTime, "averageResponseTime is null");
+        this.maxResponseTime = requireNonNull(maxResponseTime, "maxResponseTime is null");
         this.httpRequestState = httpRequestState;
     }
 
@@ -125,6 +132,22 @@ public class PageBufferClientStatus
         return requestsFailed;
     }
 
+    /**
+     * Average time from sending a request to this source until receiving its response.
+     * It includes the time the remote buffer waited for pages to become available.
+     */
+    @JsonProperty
+    public Duration getAverageResponseTime()
+    {
+        return averageResponseTime;
+    }
+
+    @JsonProperty
+    public Duration getMaxResponseTime()
+    {
+        return maxResponseTime;
+    }
+
     @JsonProperty
     public String getHttpRequestState()
     {
@@ -140,6 +163,7 @@ public class PageBufferClientStatus
                 .add("lastUpdate", lastUpdate)
                 .add("rowsReceived", rowsReceived)
                 .add("pagesReceived", pagesReceived)
+                .add("averageResponseTime", averageResponseTime)
                 .add("httpRequestState", httpRequestState)
                 .toString();
     }
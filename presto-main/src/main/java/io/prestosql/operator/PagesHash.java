@@ -14,6 +14,7 @@
 package io.prestosql.operator;
 
 import io.airlift.units.DataSize;
+import io.prestosql.array.OffHeapSlotArray;
 import io.prestosql.spi.Page;
 import io.prestosql.spi.PageBuilder;
 import it.unimi.dsi.fastutil.HashCommon;
@@ -21,7 +22,10 @@ import it.unimi.dsi.fastutil.longs.LongArrayList;
 import org.openjdk.jol.info.ClassLayout;
 
 import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicInteger;
 
+import static com.google.common.base.Preconditions.checkState;
+import static io.airlift.slice.SizeOf.SIZE_OF_INT;
 import static io.airlift.slice.SizeOf.sizeOf;
 import static io.airlift.units.DataSize.Unit.KILOBYTE;
 import static io.prestosql.operator.SyntheticAddress.decodePosition;
@@ -41,6 +45,10 @@ public final class PagesHash
     private final int channelCount;
     private final int mask;
     private final int[] key;
+    // the key array stored outside of the Java heap, holding positions incremented by one, so that zero marks an empty slot
+    private final OffHeapSlotArray offHeapKey;
+    // the owner of the hash and every open JoinHash over it hold a reference, and the off-heap key array is released with the last one
+    private final AtomicInteger references = new AtomicInteger(1);
     private final long size;
 
     // Native array of hashes for faster collisions resolution compared
@@ -54,6 +62,15 @@ public final class PagesHash
             LongArrayList addresses,
             PagesHashStrategy pagesHashStrategy,
             PositionLinks.FactoryBuilder positionLinks)
+    {
+        this(addresses, pagesHashStrategy, positionLinks, false);
+    }
+
+    public PagesHash(
+            LongArrayList addresses,
+            PagesHashStrategy pagesHashStrategy,
+            PositionLinks.FactoryBuilder positionLinks,
+            boolean offHeap)
     {
         this.addresses = requireNonNull(addresses, "addresses is null");
         this.pagesHashStrategy = requireNonNull(pagesHashStrategy, "pagesHashStrategy is null");
@@ -63,8 +80,16 @@ public final class PagesHash
         int hashSize = HashCommon.arraySize(addresses.size(), 0.75f);
 
         mask = hashSize - 1;
-        key = new int[hashSize];
-        Arrays.fill(key, -1);
+        if (offHeap) {
+            key = null;
+            offHeapKey = new OffHeapSlotArray(SIZE_OF_INT);
+            offHeapKey.ensureCapacity(hashSize);
+        }
+        else {
+            key = new int[hashSize];
+            Arrays.fill(key, -1);
+            offHeapKey = null;
+        }
 
         positionToHashes = new byte[addresses.size()];
 
@@ -99,8 +124,8 @@ public final class PagesHash
                 int pos = getHashPosition(hash, mask);
 
                 // look for an empty slot or a slot containing this key
-                while (key[pos] != -1) {
-                    int currentKey = key[pos];
+                while (getKey(pos) != -1) {
+                    int currentKey = getKey(pos);
                     if (((byte) hash) == positionToHashes[currentKey] && positionEqualsPositionIgnoreNulls(currentKey, realPosition)) {
                         // found a slot for this key
                         // link the new key position to the current key position
@@ -114,12 +139,13 @@ public final class PagesHash
                     hashCollisionsLocal++;
                 }
 
-                key[pos] = realPosition;
+                setKey(pos, realPosition);
             }
         }
 
+        long keySize = offHeap ? offHeapKey.sizeOf() + offHeapKey.getOffHeapSizeInBytes() : sizeOf(key);
         size = sizeOf(addresses.elements()) + pagesHashStrategy.getSizeInBytes() +
-                sizeOf(key) + sizeOf(positionToHashes);
+                keySize + sizeOf(positionToHashes);
         hashCollisions = hashCollisionsLocal;
         expectedHashCollisions = estimateNumberOfHashCollisions(addresses.size(), hashSize);
     }
@@ -139,6 +165,34 @@ public final class PagesHash
         return INSTANCE_SIZE + size;
     }
 
+    /**
+     * Takes a reference to the hash for a lookup source reading it, which must be given back with {@link #release()}.
+     */
+    public void retain()
+    {
+        while (true) {
+            int count = references.get();
+            checkState(count > 0, "Hash is already released");
+            if (references.compareAndSet(count, count + 1)) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * Gives back a reference taken with {@link #retain()}, or the reference of the owner of the hash.
+     * The off-heap key array, if any, is released once no reference is left. Reads of released memory
+     * are not detected, so the caller must not read the hash after giving back its reference.
+     */
+    public void release()
+    {
+        int count = references.decrementAndGet();
+        checkState(count >= 0, "Hash is released more than once");
+        if (count == 0 && offHeapKey != null) {
+            offHeapKey.close();
+        }
+    }
+
     public long getHashCollisions()
     {
         return hashCollisions;
@@ -158,9 +212,10 @@ public final class PagesHash
     {
         int pos = getHashPosition(rawHash, mask);
 
-        while (key[pos] != -1) {
-            if (positionEqualsCurrentRowIgnoreNulls(key[pos], (byte) rawHash, rightPosition, hashChannelsPage)) {
-                return key[pos];
+        int currentKey;
+        while ((currentKey = getKey(pos)) != -1) {
+            if (positionEqualsCurrentRowIgnoreNulls(currentKey, (byte) rawHash, rightPosition, hashChannelsPage)) {
+                return currentKey;
             }
             // increment position and mask to handler wrap around
             pos = (pos + 1) & mask;
@@ -168,6 +223,42 @@ public final class PagesHash
         return -1;
     }
 
+    public long hashRow(int position, Page hashChannelsPage)
+    {
+        return pagesHashStrategy.hashRow(position, hashChannelsPage);
+    }
+
+    /**
+     * Looks up the address indexes of the probe positions stored in {@code positions} from {@code offset}
+     * to {@code offset + length}, and stores them in {@code addressIndexes} at the probe position.
+     * {@code rawHashes} holds the hash of every probe position, also at the probe position.
+     * <p>
+     * The hash slots of all the positions are read before any of them is resolved. The reads are independent
+     * of each other, so the CPU can overlap their cache misses, which it cannot do when each position is probed
+     * to completion before looking at the next one. The slot of a position is cheap to compute, so it is computed
+     * again when resolving rather than kept in a temporary array.
+     */
+    public void getAddressIndexes(int[] positions, int offset, int length, Page hashChannelsPage, long[] rawHashes, long[] addressIndexes)
+    {
+        for (int i = offset; i < offset + length; i++) {
+            int position = positions[i];
+            addressIndexes[position] = getKey(getHashPosition(rawHashes[position], mask));
+        }
+
+        for (int i = offset; i < offset + length; i++) {
+            int position = positions[i];
+            long rawHash = rawHashes[position];
+            int pos = getHashPosition(rawHash, mask);
+            int currentKey = (int) addressIndexes[position];
+            while (currentKey != -1 && !positionEqualsCurrentRowIgnoreNulls(currentKey, (byte) rawHash, position, hashChannelsPage)) {
+                // increment position and mask to handle wrap around
+                pos = (pos + 1) & mask;
+                currentKey = getKey(pos);
+            }
+            addressIndexes[position] = currentKey;
+        }
+    }
+
     public void appendTo(long position, PageBuilder pageBuilder, int outputChannelOffset)
     {
         long pageAddress = addresses.getLong(toIntExact(position));
@@ -177,6 +268,24 @@ public final class PagesHash
         pagesHashStrategy.appendTo(blockIndex, blockPosition, pageBuilder, outputChannelOffset);
     }
 
+    private int getKey(int pos)
+    {
+        if (key != null) {
+            return key[pos];
+        }
+        return offHeapKey.getInt(pos, 0) - 1;
+    }
+
+    private void setKey(int pos, int position)
+    {
+        if (key != null) {
+            key[pos] = position;
+        }
+        else {
+            offHeapKey.setInt(pos, 0, position + 1);
+        }
+    }
+
     private boolean isPositionNull(int position)
     {
         long pageAddress = addresses.getLong(position);
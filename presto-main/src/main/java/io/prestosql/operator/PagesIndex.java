@@ -20,6 +20,7 @@ import io.airlift.slice.Slice;
 import io.airlift.units.DataSize;
 import io.prestosql.Session;
 import io.prestosql.geospatial.Rectangle;
+import io.prestosql.memory.context.LocalMemoryContext;
 import io.prestosql.metadata.Metadata;
 import io.prestosql.operator.SpatialIndexBuilderOperator.SpatialPredicate;
 import io.prestosql.spi.Page;
@@ -74,6 +75,8 @@ public class PagesIndex
 {
     private static final int INSTANCE_SIZE = ClassLayout.parseClass(PagesIndex.class).instanceSize();
     private static final Logger log = Logger.get(PagesIndex.class);
+    // below this, extracting the prefixes costs more than the comparisons it saves
+    private static final int MIN_PREFIX_SORT_POSITIONS = 1024;
 
     private final OrderingCompiler orderingCompiler;
     private final JoinCompiler joinCompiler;
@@ -83,6 +86,7 @@ public class PagesIndex
     private final LongArrayList valueAddresses;
     private final ObjectArrayList<Block>[] channels;
     private final boolean eagerCompact;
+    private final boolean prefixSortEnabled;
 
     private int nextBlockToCompact;
     private int positionCount;
@@ -95,7 +99,8 @@ public class PagesIndex
             Metadata metadata,
             List<Type> types,
             int expectedPositions,
-            boolean eagerCompact)
+            boolean eagerCompact,
+            boolean prefixSortEnabled)
     {
         this.orderingCompiler = requireNonNull(orderingCompiler, "orderingCompiler is null");
         this.joinCompiler = requireNonNull(joinCompiler, "joinCompiler is null");
@@ -103,6 +108,7 @@ public class PagesIndex
         this.types = ImmutableList.copyOf(requireNonNull(types, "types is null"));
         this.valueAddresses = new LongArrayList(expectedPositions);
         this.eagerCompact = eagerCompact;
+        this.prefixSortEnabled = prefixSortEnabled;
 
         //noinspection unchecked
         channels = (ObjectArrayList<Block>[]) new ObjectArrayList[types.size()];
@@ -125,16 +131,23 @@ public class PagesIndex
         private static final Metadata METADATA = createTestMetadataManager();
         private static final JoinCompiler JOIN_COMPILER = new JoinCompiler(METADATA);
         private final boolean eagerCompact;
+        private final boolean prefixSortEnabled;
 
         public TestingFactory(boolean eagerCompact)
+        {
+            this(eagerCompact, true);
+        }
+
+        public TestingFactory(boolean eagerCompact, boolean prefixSortEnabled)
         {
             this.eagerCompact = eagerCompact;
+            this.prefixSortEnabled = prefixSortEnabled;
         }
 
         @Override
         public PagesIndex newPagesIndex(List<Type> types, int expectedPositions)
         {
-            return new PagesIndex(ORDERING_COMPILER, JOIN_COMPILER, METADATA, types, expectedPositions, eagerCompact);
+            return new PagesIndex(ORDERING_COMPILER, JOIN_COMPILER, METADATA, types, expectedPositions, eagerCompact, prefixSortEnabled);
         }
     }
 
@@ -144,6 +157,7 @@ public class PagesIndex
         private final OrderingCompiler orderingCompiler;
         private final JoinCompiler joinCompiler;
         private final boolean eagerCompact;
+        private final boolean prefixSortEnabled;
         private final Metadata metadata;
 
         @Inject
@@ -152,13 +166,14 @@ public class PagesIndex
             this.orderingCompiler = requireNonNull(orderingCompiler, "orderingCompiler is null");
             this.joinCompiler = requireNonNull(joinCompiler, "joinCompiler is null");
             this.eagerCompact = requireNonNull(featuresConfig, "featuresConfig is null").isPagesIndexEagerCompactionEnabled();
+            this.prefixSortEnabled = featuresConfig.isPagesIndexPrefixSortEnabled();
             this.metadata = requireNonNull(metadata, "metadata is null");
         }
 
         @Override
         public PagesIndex newPagesIndex(List<Type> types, int expectedPositions)
         {
-            return new PagesIndex(orderingCompiler, joinCompiler, metadata, types, expectedPositions, eagerCompact);
+            return new PagesIndex(orderingCompiler, joinCompiler, metadata, types, expectedPositions, eagerCompact, prefixSortEnabled);
         }
     }
 
@@ -366,6 +381,19 @@ public class PagesIndex
         return block.getSingleValueBlock(blockPosition);
     }
 
+    /**
+     * Compares the values of two channels of the same type at the given positions.
+     */
+    public int compare(int leftChannel, int leftPosition, int rightChannel, int rightPosition)
+    {
+        long leftPageAddress = valueAddresses.getLong(leftPosition);
+        long rightPageAddress = valueAddresses.getLong(rightPosition);
+
+        Block leftBlock = channels[leftChannel].get(decodeSliceIndex(leftPageAddress));
+        Block rightBlock = channels[rightChannel].get(decodeSliceIndex(rightPageAddress));
+        return types.get(leftChannel).compareTo(leftBlock, decodePosition(leftPageAddress), rightBlock, decodePosition(rightPageAddress));
+    }
+
     public void sort(List<Integer> sortChannels, List<SortOrder> sortOrders)
     {
         sort(sortChannels, sortOrders, 0, getPositionCount());
@@ -376,6 +404,34 @@ public class PagesIndex
         createPagesIndexComparator(sortChannels, sortOrders).sort(this, startPosition, endPosition);
     }
 
+    public void sort(List<Integer> sortChannels, List<SortOrder> sortOrders, LocalMemoryContext sortMemoryContext)
+    {
+        sort(sortChannels, sortOrders, 0, getPositionCount(), sortMemoryContext);
+    }
+
+    /**
+     * Sorts the positions by a prefix of the first sort key when the memory of the prefixes
+     * can be reserved in {@code sortMemoryContext}, and with the comparator otherwise.
+     */
+    public void sort(List<Integer> sortChannels, List<SortOrder> sortOrders, int startPosition, int endPosition, LocalMemoryContext sortMemoryContext)
+    {
+        PagesIndexOrdering ordering = createPagesIndexComparator(sortChannels, sortOrders);
+        if (prefixSortEnabled &&
+                endPosition - startPosition >= MIN_PREFIX_SORT_POSITIONS &&
+                !sortChannels.isEmpty() &&
+                PagesIndexPrefixSorter.isSupported(types.get(sortChannels.get(0))) &&
+                sortMemoryContext.trySetBytes(PagesIndexPrefixSorter.getSortMemoryInBytes(endPosition - startPosition))) {
+            try {
+                PagesIndexPrefixSorter.sort(this, sortChannels.get(0), sortOrders.get(0), sortChannels.size() > 1, ordering, startPosition, endPosition);
+            }
+            finally {
+                sortMemoryContext.setBytes(0);
+            }
+            return;
+        }
+        ordering.sort(this, startPosition, endPosition);
+    }
+
     public boolean positionEqualsPosition(PagesHashStrategy partitionHashStrategy, int leftPosition, int rightPosition)
     {
         long leftAddress = valueAddresses.getLong(leftPosition);
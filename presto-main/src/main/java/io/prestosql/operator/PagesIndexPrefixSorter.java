@@ -0,0 +1,170 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.prestosql.operator;
+
+import io.prestosql.spi.block.Block;
+import io.prestosql.spi.block.SortOrder;
+import io.prestosql.spi.type.Type;
+import io.prestosql.spi.type.VarcharType;
+import it.unimi.dsi.fastutil.longs.LongArrays;
+import it.unimi.dsi.fastutil.objects.ObjectArrayList;
+
+import java.util.Arrays;
+
+import static io.airlift.slice.SizeOf.sizeOfLongArray;
+import static io.prestosql.operator.SyntheticAddress.decodePosition;
+import static io.prestosql.operator.SyntheticAddress.decodeSliceIndex;
+import static io.prestosql.spi.type.BigintType.BIGINT;
+import static io.prestosql.spi.type.DateType.DATE;
+import static io.prestosql.spi.type.DoubleType.DOUBLE;
+import static io.prestosql.spi.type.IntegerType.INTEGER;
+import static io.prestosql.spi.type.SmallintType.SMALLINT;
+import static io.prestosql.spi.type.TinyintType.TINYINT;
+import static java.lang.Double.doubleToLongBits;
+import static java.lang.Math.min;
+
+/**
+ * Sorts the positions of a {@link PagesIndex} by a prefix of the first sort key, normalized to a long
+ * that orders like the key. The prefixes are extracted into a contiguous array and radix sorted together
+ * with the value addresses, so that most positions are ordered without going through the blocks.
+ * Positions with equal prefixes are then sorted with the full ordering. The memory of the prefixes,
+ * {@link #getSortMemoryInBytes}, must be reserved by the caller.
+ */
+public final class PagesIndexPrefixSorter
+{
+    private static final int VARCHAR_PREFIX_BYTES = Long.BYTES;
+
+    private PagesIndexPrefixSorter() {}
+
+    public static boolean isSupported(Type type)
+    {
+        return type.equals(BIGINT) ||
+                type.equals(INTEGER) ||
+                type.equals(SMALLINT) ||
+                type.equals(TINYINT) ||
+                type.equals(DATE) ||
+                type.equals(DOUBLE) ||
+                type instanceof VarcharType;
+    }
+
+    /**
+     * Returns the memory used to sort {@code positionCount} positions: their prefixes and a copy of their value addresses.
+     */
+    public static long getSortMemoryInBytes(int positionCount)
+    {
+        return 2 * sizeOfLongArray(positionCount);
+    }
+
+    /**
+     * Sorts the positions from {@code startPosition} (inclusive) to {@code endPosition} (exclusive).
+     * The first sort key is in {@code sortChannel}, and {@code ordering} compares all the sort keys.
+     */
+    public static void sort(
+            PagesIndex pagesIndex,
+            int sortChannel,
+            SortOrder sortOrder,
+            boolean hasMoreSortKeys,
+            PagesIndexOrdering ordering,
+            int startPosition,
+            int endPosition)
+    {
+        Type type = pagesIndex.getTypes().get(sortChannel);
+        ObjectArrayList<Block> blocks = pagesIndex.getChannel(sortChannel);
+        long[] addresses = pagesIndex.getValueAddresses().elements();
+
+        // move the nulls to the start or the end of the range, as their prefixes would be ambiguous
+        int nonNullStart = startPosition;
+        int nonNullEnd = endPosition;
+        if (sortOrder.isNullsFirst()) {
+            for (int position = startPosition; position < endPosition; position++) {
+                if (isNull(blocks, addresses[position])) {
+                    pagesIndex.swap(nonNullStart, position);
+                    nonNullStart++;
+                }
+            }
+            sortTies(pagesIndex, ordering, hasMoreSortKeys, startPosition, nonNullStart);
+        }
+        else {
+            for (int position = endPosition - 1; position >= startPosition; position--) {
+                if (isNull(blocks, addresses[position])) {
+                    nonNullEnd--;
+                    pagesIndex.swap(nonNullEnd, position);
+                }
+            }
+            sortTies(pagesIndex, ordering, hasMoreSortKeys, nonNullEnd, endPosition);
+        }
+
+        int positionCount = nonNullEnd - nonNullStart;
+        long[] sortedAddresses = Arrays.copyOfRange(addresses, nonNullStart, nonNullEnd);
+        long[] prefixes = new long[positionCount];
+        for (int i = 0; i < positionCount; i++) {
+            long address = sortedAddresses[i];
+            long prefix = getPrefix(type, blocks.get(decodeSliceIndex(address)), decodePosition(address));
+            // reversing all the bits reverses the order
+            prefixes[i] = sortOrder.isAscending() ? prefix : ~prefix;
+        }
+        LongArrays.radixSort(prefixes, sortedAddresses);
+        System.arraycopy(sortedAddresses, 0, addresses, nonNullStart, positionCount);
+
+        // the prefix of a varchar is only its first bytes
+        boolean exactPrefix = !(type instanceof VarcharType);
+        if (exactPrefix && !hasMoreSortKeys) {
+            return;
+        }
+        int tieStart = 0;
+        for (int i = 1; i <= positionCount; i++) {
+            if (i == positionCount || prefixes[i] != prefixes[tieStart]) {
+                sortTies(pagesIndex, ordering, true, nonNullStart + tieStart, nonNullStart + i);
+                tieStart = i;
+            }
+        }
+    }
+
+    private static void sortTies(PagesIndex pagesIndex, PagesIndexOrdering ordering, boolean needsOrdering, int startPosition, int endPosition)
+    {
+        if (needsOrdering && endPosition - startPosition > 1) {
+            ordering.sort(pagesIndex, startPosition, endPosition);
+        }
+    }
+
+    private static boolean isNull(ObjectArrayList<Block> blocks, long address)
+    {
+        return blocks.get(decodeSliceIndex(address)).isNull(decodePosition(address));
+    }
+
+    /**
+     * Returns a long whose signed order is the order of the value, for values with different prefixes.
+     */
+    private static long getPrefix(Type type, Block block, int position)
+    {
+        if (type.equals(DOUBLE)) {
+            // the bits of negative values are in the reverse order; this also orders -0.0 before 0.0 and NaN last, as Double.compare does
+            long bits = doubleToLongBits(DOUBLE.getDouble(block, position));
+            return bits < 0 ? bits ^ Long.MAX_VALUE : bits;
+        }
+        if (type instanceof VarcharType) {
+            // the first bytes, compared as unsigned, padded with zeros
+            int length = min(block.getSliceLength(position), VARCHAR_PREFIX_BYTES);
+            long prefix = 0;
+            for (int i = 0; i < VARCHAR_PREFIX_BYTES; i++) {
+                prefix <<= Byte.SIZE;
+                if (i < length) {
+                    prefix |= block.getByte(position, i) & 0xFF;
+                }
+            }
+            return prefix ^ Long.MIN_VALUE;
+        }
+        return type.getLong(block, position);
+    }
+}
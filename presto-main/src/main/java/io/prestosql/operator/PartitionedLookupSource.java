@@ -81,9 +81,16 @@ public class PartitionedLookupSource
     private final LocalPartitionGenerator partitionGenerator;
     private final int partitionMask;
     private final int shiftSize;
+    private final boolean batchProbeSupported;
     @Nullable
     private final OuterPositionTracker outerPositionTracker;
 
+    // scratch arrays of getJoinPositions, kept across pages to avoid allocating them for every page
+    private final int[] partitionOffsets;
+    private final int[] nextPartitionPosition;
+    private int[] partitionedPositions = new int[0];
+    private long[] rawHashes = new long[0];
+
     private boolean closed;
 
     private PartitionedLookupSource(List<? extends LookupSource> lookupSources, List<Type> hashChannelTypes, Optional<OuterPositionTracker> outerPositionTracker)
@@ -100,6 +107,9 @@ public class PartitionedLookupSource
 
         this.partitionMask = lookupSources.size() - 1;
         this.shiftSize = numberOfTrailingZeros(lookupSources.size()) + 1;
+        this.batchProbeSupported = lookupSources.stream().allMatch(LookupSource::isBatchProbeSupported);
+        this.partitionOffsets = new int[lookupSources.size() + 1];
+        this.nextPartitionPosition = new int[lookupSources.size()];
         this.outerPositionTracker = outerPositionTracker.orElse(null);
     }
 
@@ -147,6 +157,58 @@ public class PartitionedLookupSource
         return encodePartitionedJoinPosition(partition, toIntExact(joinPosition));
     }
 
+    @Override
+    public boolean isBatchProbeSupported()
+    {
+        return batchProbeSupported;
+    }
+
+    @Override
+    public void getJoinPositions(int[] positions, int offset, int length, Page hashChannelsPage, Page allChannelsPage, @Nullable long[] rawHashes, long[] joinPositions)
+    {
+        if (rawHashes == null) {
+            if (this.rawHashes.length < hashChannelsPage.getPositionCount()) {
+                this.rawHashes = new long[hashChannelsPage.getPositionCount()];
+            }
+            rawHashes = this.rawHashes;
+            for (int i = offset; i < offset + length; i++) {
+                rawHashes[positions[i]] = partitionGenerator.getRawHash(hashChannelsPage, positions[i]);
+            }
+        }
+        if (partitionedPositions.length < length) {
+            partitionedPositions = new int[length];
+        }
+
+        // group the positions by partition, so that every partition is probed with a single batch
+        Arrays.fill(partitionOffsets, 0);
+        for (int i = offset; i < offset + length; i++) {
+            partitionOffsets[partitionGenerator.getPartition(rawHashes[positions[i]]) + 1]++;
+        }
+        for (int partition = 0; partition < lookupSources.length; partition++) {
+            partitionOffsets[partition + 1] += partitionOffsets[partition];
+        }
+        System.arraycopy(partitionOffsets, 0, nextPartitionPosition, 0, lookupSources.length);
+        for (int i = offset; i < offset + length; i++) {
+            int partition = partitionGenerator.getPartition(rawHashes[positions[i]]);
+            partitionedPositions[nextPartitionPosition[partition]++] = positions[i];
+        }
+
+        for (int partition = 0; partition < lookupSources.length; partition++) {
+            int partitionOffset = partitionOffsets[partition];
+            int partitionLength = partitionOffsets[partition + 1] - partitionOffset;
+            if (partitionLength == 0) {
+                continue;
+            }
+            lookupSources[partition].getJoinPositions(partitionedPositions, partitionOffset, partitionLength, hashChannelsPage, allChannelsPage, rawHashes, joinPositions);
+            for (int i = partitionOffset; i < partitionOffset + partitionLength; i++) {
+                int position = partitionedPositions[i];
+                if (joinPositions[position] >= 0) {
+                    joinPositions[position] = encodePartitionedJoinPosition(partition, toIntExact(joinPositions[position]));
+                }
+            }
+        }
+    }
+
     @Override
     public long getNextJoinPosition(long currentJoinPosition, int probePosition, Page allProbeChannelsPage)
     {
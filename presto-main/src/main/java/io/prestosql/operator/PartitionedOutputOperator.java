@@ -35,6 +35,7 @@ import java.util.List;
 import java.util.Optional;
 import java.util.OptionalInt;
 import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
 import java.util.function.Function;
 
 import static com.google.common.base.MoreObjects.toStringHelper;
@@ -305,6 +306,7 @@ public class PartitionedOutputOperator
         private final OptionalInt nullChannel; // when present, send the position to every partition if this channel is null.
         private final AtomicLong rowsAdded = new AtomicLong();
         private final AtomicLong pagesAdded = new AtomicLong();
+        private final AtomicLongArray partitionRowsAdded;
         private boolean hasAnyRowBeenReplicated;
         private OperatorContext operatorContext;
 
@@ -336,6 +338,7 @@ public class PartitionedOutputOperator
             int pageSize = toIntExact(min(DEFAULT_MAX_PAGE_SIZE_IN_BYTES, maxMemory.toBytes() / partitionCount));
             pageSize = max(1, pageSize);
 
+            this.partitionRowsAdded = new AtomicLongArray(partitionCount);
             this.pageBuilders = new PageBuilder[partitionCount];
             for (int i = 0; i < partitionCount; i++) {
                 pageBuilders[i] = PageBuilder.withMaxPageSize(pageSize, sourceTypes);
@@ -372,7 +375,11 @@ public class PartitionedOutputOperator
 
         public PartitionedOutputInfo getInfo()
         {
-            return new PartitionedOutputInfo(rowsAdded.get(), pagesAdded.get(), outputBuffer.getPeakMemoryUsage());
+            long[] partitionRows = new long[partitionRowsAdded.length()];
+            for (int partition = 0; partition < partitionRows.length; partition++) {
+                partitionRows[partition] = partitionRowsAdded.get(partition);
+            }
+            return new PartitionedOutputInfo(rowsAdded.get(), pagesAdded.get(), outputBuffer.getPeakMemoryUsage(), partitionRows);
         }
 
         public void partitionPage(Page page)
@@ -440,6 +447,7 @@ public class PartitionedOutputOperator
                     outputBuffer.enqueue(partition, serializedPages);
                     pagesAdded.incrementAndGet();
                     rowsAdded.addAndGet(pagePartition.getPositionCount());
+                    partitionRowsAdded.addAndGet(partition, pagePartition.getPositionCount());
                 }
             }
         }
@@ -451,16 +459,19 @@ public class PartitionedOutputOperator
         private final long rowsAdded;
         private final long pagesAdded;
         private final long outputBufferPeakMemoryUsage;
+        private final long[] partitionRowsAdded;
 
         @JsonCreator
         public PartitionedOutputInfo(
                 @JsonProperty("rowsAdded") long rowsAdded,
                 @JsonProperty("pagesAdded") long pagesAdded,
-                @JsonProperty("outputBufferPeakMemoryUsage") long outputBufferPeakMemoryUsage)
+                @JsonProperty("outputBufferPeakMemoryUsage") long outputBufferPeakMemoryUsage,
+                @JsonProperty("partitionRowsAdded") long[] partitionRowsAdded)
         {
             this.rowsAdded = rowsAdded;
             this.pagesAdded = pagesAdded;
             this.outputBufferPeakMemoryUsage = outputBufferPeakMemoryUsage;
+            this.partitionRowsAdded = requireNonNull(partitionRowsAdded, "partitionRowsAdded is null");
         }
 
         @JsonProperty
@@ -481,13 +492,51 @@ public class PartitionedOutputOperator
             return outputBufferPeakMemoryUsage;
         }
 
+        /**
+         * Number of rows added to each output partition, including replicated rows
+         */
+        @JsonProperty
+        public long[] getPartitionRowsAdded()
+        {
+            return partitionRowsAdded;
+        }
+
+        /**
+         * Ratio of the rows added to the largest partition to the average over all partitions.
+         * It is 1 when the rows are evenly distributed, and close to the partition count when
+         * a few hot keys send most of the rows to a single partition.
+         */
+        public double getPartitionSkew()
+        {
+            long maxPartitionRows = 0;
+            long totalRows = 0;
+            for (long partitionRows : partitionRowsAdded) {
+                maxPartitionRows = Math.max(maxPartitionRows, partitionRows);
+                totalRows += partitionRows;
+            }
+            if (totalRows == 0) {
+                return 1.0;
+            }
+            return (double) maxPartitionRows * partitionRowsAdded.length / totalRows;
+        }
+
         @Override
         public PartitionedOutputInfo mergeWith(PartitionedOutputInfo other)
         {
+            long[] mergedPartitionRowsAdded = new long[Math.max(partitionRowsAdded.length, other.partitionRowsAdded.length)];
+            for (int partition = 0; partition < mergedPartitionRowsAdded.length; partition++) {
+                if (partition < partitionRowsAdded.length) {
+                    mergedPartitionRowsAdded[partition] += partitionRowsAdded[partition];
+                }
+                if (partition < other.partitionRowsAdded.length) {
+                    mergedPartitionRowsAdded[partition] += other.partitionRowsAdded[partition];
+                }
+            }
             return new PartitionedOutputInfo(
                     rowsAdded + other.rowsAdded,
                     pagesAdded + other.pagesAdded,
-                    Math.max(outputBufferPeakMemoryUsage, other.outputBufferPeakMemoryUsage));
+                    Math.max(outputBufferPeakMemoryUsage, other.outputBufferPeakMemoryUsage),
+                    mergedPartitionRowsAdded);
         }
 
         @Override
@@ -503,6 +552,7 @@ public class PartitionedOutputOperator
                     .add("rowsAdded", rowsAdded)
                     .add("pagesAdded", pagesAdded)
                     .add("outputBufferPeakMemoryUsage", outputBufferPeakMemoryUsage)
+                    .add("partitionSkew", getPartitionSkew())
                     .toString();
         }
     }
@@ -22,6 +22,7 @@ import io.prestosql.memory.context.LocalMemoryContext;
 import io.prestosql.memory.context.MemoryTrackingContext;
 import io.prestosql.metadata.Split;
 import io.prestosql.metadata.TableHandle;
+import io.prestosql.operator.SplitResultCache.PipelineKey;
 import io.prestosql.operator.WorkProcessor.ProcessState;
 import io.prestosql.operator.WorkProcessor.TransformationState;
 import io.prestosql.operator.WorkProcessorSourceOperatorAdapter.AdapterWorkProcessorSourceOperatorFactory;
@@ -46,11 +47,13 @@ import javax.annotation.Nullable;
 
 import java.io.IOException;
 import java.io.UncheckedIOException;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
 import java.util.concurrent.CompletableFuture;
 import java.util.function.Supplier;
 
+import static com.google.common.base.Preconditions.checkArgument;
 import static com.google.common.base.Preconditions.checkState;
 import static io.airlift.concurrent.MoreFutures.toListenableFuture;
 import static io.prestosql.memory.context.AggregatedMemoryContext.newSimpleAggregatedMemoryContext;
@@ -91,7 +94,9 @@ public class ScanFilterAndProjectOperator
             Iterable<Type> types,
             DataSize minOutputPageSize,
             int minOutputPageRowCount,
-            boolean avoidPageMaterialization)
+            boolean avoidPageMaterialization,
+            Optional<SplitResultCache> splitResultCache,
+            Optional<PipelineKey> resultCacheKey)
     {
         pages = splits.flatTransform(
                 new SplitToPages(
@@ -107,7 +112,9 @@ public class ScanFilterAndProjectOperator
                         requireNonNull(memoryTrackingContext, "memoryTrackingContext is null").aggregateSystemMemoryContext(),
                         minOutputPageSize,
                         minOutputPageRowCount,
-                        avoidPageMaterialization));
+                        avoidPageMaterialization,
+                        splitResultCache,
+                        resultCacheKey));
     }
 
     @Override
@@ -198,6 +205,9 @@ public class ScanFilterAndProjectOperator
         final DataSize minOutputPageSize;
         final int minOutputPageRowCount;
         final boolean avoidPageMaterialization;
+        final Optional<SplitResultCache> splitResultCache;
+        final Optional<PipelineKey> resultCacheKey;
+        final LocalMemoryContext cachedPagesMemoryContext;
 
         SplitToPages(
                 Session session,
@@ -212,7 +222,9 @@ public class ScanFilterAndProjectOperator
                 AggregatedMemoryContext aggregatedMemoryContext,
                 DataSize minOutputPageSize,
                 int minOutputPageRowCount,
-                boolean avoidPageMaterialization)
+                boolean avoidPageMaterialization,
+                Optional<SplitResultCache> splitResultCache,
+                Optional<PipelineKey> resultCacheKey)
         {
             this.session = requireNonNull(session, "session is null");
             this.yieldSignal = requireNonNull(yieldSignal, "yieldSignal is null");
@@ -230,6 +242,9 @@ public class ScanFilterAndProjectOperator
             this.minOutputPageSize = requireNonNull(minOutputPageSize, "minOutputPageSize is null");
             this.minOutputPageRowCount = minOutputPageRowCount;
             this.avoidPageMaterialization = avoidPageMaterialization;
+            this.splitResultCache = requireNonNull(splitResultCache, "splitResultCache is null");
+            this.resultCacheKey = requireNonNull(resultCacheKey, "resultCacheKey is null");
+            this.cachedPagesMemoryContext = localAggregatedMemoryContext.newLocalMemoryContext(ScanFilterAndProjectOperator.class.getSimpleName());
         }
 
         @Override
@@ -246,6 +261,17 @@ public class ScanFilterAndProjectOperator
                 dynamicFilterSplitsProcessed++;
             }
 
+            Optional<String> splitCacheKey = Optional.empty();
+            if (resultCacheKey.isPresent() && !(split.getConnectorSplit() instanceof EmptySplit)) {
+                splitCacheKey = pageSourceProvider.getCacheKey(session, split, table, columns);
+            }
+            if (splitCacheKey.isPresent()) {
+                Optional<List<Page>> cachedPages = splitResultCache.get().get(splitCacheKey.get(), resultCacheKey.get());
+                if (cachedPages.isPresent()) {
+                    return ofResult(WorkProcessor.fromIterable(cachedPages.get()));
+                }
+            }
+
             ConnectorPageSource source;
             if (split.getConnectorSplit() instanceof EmptySplit) {
                 source = new EmptyPageSource();
@@ -254,14 +280,31 @@ public class ScanFilterAndProjectOperator
                 source = pageSourceProvider.createPageSource(session, split, table, columns, dynamicFilter);
             }
 
+            WorkProcessor<Page> pages;
             if (source instanceof RecordPageSource) {
                 cursor = ((RecordPageSource) source).getCursor();
-                return ofResult(processColumnSource());
+                pages = processColumnSource();
             }
             else {
                 pageSource = source;
-                return ofResult(processPageSource());
+                pages = processPageSource();
+            }
+
+            if (splitCacheKey.isPresent()) {
+                pages = cacheSplitResult(pages, splitCacheKey.get());
             }
+            return ofResult(pages);
+        }
+
+        WorkProcessor<Page> cacheSplitResult(WorkProcessor<Page> pages, String splitCacheKey)
+        {
+            SplitResultCollector collector = new SplitResultCollector(splitCacheKey, splitResultCache.get(), resultCacheKey.get(), cachedPagesMemoryContext);
+            return pages
+                    .map(collector::add)
+                    .withProcessStateMonitor(state -> {
+                        collector.processStateChanged(state);
+                        memoryContext.setBytes(localAggregatedMemoryContext.getBytes());
+                    });
         }
 
         WorkProcessor<Page> processColumnSource()
@@ -288,6 +331,62 @@ public class ScanFilterAndProjectOperator
         }
     }
 
+    /**
+     * Collects the output pages of a split and caches them once the split is finished,
+     * unless they grow larger than the maximum size of a cache entry.
+     */
+    private static class SplitResultCollector
+    {
+        final String splitCacheKey;
+        final SplitResultCache cache;
+        final PipelineKey pipelineKey;
+        final LocalMemoryContext memoryContext;
+        final List<Page> pages = new ArrayList<>();
+        long sizeInBytes;
+        boolean finished;
+
+        SplitResultCollector(String splitCacheKey, SplitResultCache cache, PipelineKey pipelineKey, LocalMemoryContext memoryContext)
+        {
+            this.splitCacheKey = requireNonNull(splitCacheKey, "splitCacheKey is null");
+            this.cache = requireNonNull(cache, "cache is null");
+            this.pipelineKey = requireNonNull(pipelineKey, "pipelineKey is null");
+            this.memoryContext = requireNonNull(memoryContext, "memoryContext is null");
+        }
+
+        Page add(Page page)
+        {
+            if (sizeInBytes > cache.getMaxEntrySizeInBytes()) {
+                return page;
+            }
+
+            // cached pages outlive the page source, so lazy blocks have to be loaded
+            Page loadedPage = page.getLoadedPage();
+            pages.add(loadedPage);
+            sizeInBytes += loadedPage.getRetainedSizeInBytes();
+            if (sizeInBytes > cache.getMaxEntrySizeInBytes()) {
+                pages.clear();
+                memoryContext.setBytes(0);
+            }
+            else {
+                memoryContext.setBytes(sizeInBytes);
+            }
+            return loadedPage;
+        }
+
+        void processStateChanged(ProcessState<Page> state)
+        {
+            if (state.getType() != ProcessState.Type.FINISHED || finished) {
+                return;
+            }
+            finished = true;
+            if (sizeInBytes <= cache.getMaxEntrySizeInBytes()) {
+                cache.put(splitCacheKey, pipelineKey, pages);
+                pages.clear();
+                memoryContext.setBytes(0);
+            }
+        }
+    }
+
     private class RecordCursorToPages
             implements WorkProcessor.Process<Page>
     {
@@ -411,6 +510,8 @@ public class ScanFilterAndProjectOperator
         private final List<Type> types;
         private final DataSize minOutputPageSize;
         private final int minOutputPageRowCount;
+        private final Optional<SplitResultCache> splitResultCache;
+        private final Optional<PipelineKey> resultCacheKey;
         private boolean closed;
 
         public ScanFilterAndProjectOperatorFactory(
@@ -426,6 +527,42 @@ public class ScanFilterAndProjectOperator
                 List<Type> types,
                 DataSize minOutputPageSize,
                 int minOutputPageRowCount)
+        {
+            this(
+                    operatorId,
+                    planNodeId,
+                    sourceId,
+                    pageSourceProvider,
+                    cursorProcessor,
+                    pageProcessor,
+                    table,
+                    columns,
+                    dynamicFilter,
+                    types,
+                    minOutputPageSize,
+                    minOutputPageRowCount,
+                    Optional.empty(),
+                    Optional.empty());
+        }
+
+        /**
+         * @param resultCacheKey the filter and projections of the operator, present when the output of its splits may be cached in {@code splitResultCache}
+         */
+        public ScanFilterAndProjectOperatorFactory(
+                int operatorId,
+                PlanNodeId planNodeId,
+                PlanNodeId sourceId,
+                PageSourceProvider pageSourceProvider,
+                Supplier<CursorProcessor> cursorProcessor,
+                Supplier<PageProcessor> pageProcessor,
+                TableHandle table,
+                Iterable<ColumnHandle> columns,
+                Supplier<TupleDomain<ColumnHandle>> dynamicFilter,
+                List<Type> types,
+                DataSize minOutputPageSize,
+                int minOutputPageRowCount,
+                Optional<SplitResultCache> splitResultCache,
+                Optional<PipelineKey> resultCacheKey)
         {
             this.operatorId = operatorId;
             this.planNodeId = requireNonNull(planNodeId, "planNodeId is null");
@@ -439,6 +576,9 @@ public class ScanFilterAndProjectOperator
             this.types = requireNonNull(types, "types is null");
             this.minOutputPageSize = requireNonNull(minOutputPageSize, "minOutputPageSize is null");
             this.minOutputPageRowCount = minOutputPageRowCount;
+            this.splitResultCache = requireNonNull(splitResultCache, "splitResultCache is null");
+            this.resultCacheKey = requireNonNull(resultCacheKey, "resultCacheKey is null");
+            checkArgument(splitResultCache.isPresent() == resultCacheKey.isPresent(), "splitResultCache and resultCacheKey must be both present or both empty");
         }
 
         @Override
@@ -514,7 +654,9 @@ public class ScanFilterAndProjectOperator
                     types,
                     minOutputPageSize,
                     minOutputPageRowCount,
-                    avoidPageMaterialization);
+                    avoidPageMaterialization,
+                    splitResultCache,
+                    resultCacheKey);
         }
 
         @Override
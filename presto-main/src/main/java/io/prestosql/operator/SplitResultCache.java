@@ -0,0 +1,476 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.prestosql.operator;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.RemovalListener;
+import com.google.common.cache.RemovalNotification;
+import com.google.common.collect.ImmutableList;
+import com.google.common.primitives.Ints;
+import io.airlift.log.Logger;
+import io.airlift.slice.InputStreamSliceInput;
+import io.airlift.slice.OutputStreamSliceOutput;
+import io.airlift.slice.SliceInput;
+import io.airlift.slice.SliceOutput;
+import io.airlift.stats.CounterStat;
+import io.prestosql.Session;
+import io.prestosql.execution.buffer.PagesSerde;
+import io.prestosql.execution.buffer.PagesSerdeFactory;
+import io.prestosql.metadata.Metadata;
+import io.prestosql.spi.Page;
+import io.prestosql.spi.block.Block;
+import io.prestosql.spi.block.BlockEncodingSerde;
+import io.prestosql.spi.type.TimeZoneKey;
+import io.prestosql.sql.relational.RowExpression;
+import org.weakref.jmx.Managed;
+import org.weakref.jmx.Nested;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import javax.annotation.concurrent.ThreadSafe;
+import javax.inject.Inject;
+
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static com.google.common.base.MoreObjects.toStringHelper;
+import static com.google.common.cache.RemovalListeners.asynchronous;
+import static io.airlift.concurrent.Threads.daemonThreadsNamed;
+import static io.prestosql.SystemSessionProperties.isLegacyTimestamp;
+import static io.prestosql.execution.buffer.PagesSerdeUtil.readPages;
+import static io.prestosql.execution.buffer.PagesSerdeUtil.writePages;
+import static java.lang.String.format;
+import static java.nio.file.Files.createDirectories;
+import static java.nio.file.Files.createTempFile;
+import static java.nio.file.Files.delete;
+import static java.nio.file.Files.deleteIfExists;
+import static java.nio.file.Files.newDirectoryStream;
+import static java.nio.file.Files.newInputStream;
+import static java.nio.file.Files.newOutputStream;
+import static java.nio.file.Files.size;
+import static java.util.Objects.requireNonNull;
+import static java.util.concurrent.Executors.newSingleThreadExecutor;
+
+/**
+ * Node local cache of the pages produced by {@link ScanFilterAndProjectOperator} for a split.
+ * Entries are kept in memory, and when a cache directory is configured, entries evicted from
+ * memory are written to it and read back on the next hit. Both tiers evict the least recently
+ * used entries first.
+ * <p>
+ * A split is only cached when its connector returns a cache key for it, which has to change
+ * whenever the data of the split changes.
+ */
+@ThreadSafe
+public class SplitResultCache
+{
+    private static final Logger log = Logger.get(SplitResultCache.class);
+
+    @VisibleForTesting
+    static final String CACHE_FILE_PREFIX = "split-result";
+    @VisibleForTesting
+    static final String CACHE_FILE_SUFFIX = ".bin";
+    private static final String CACHE_FILE_GLOB = "split-result*.bin";
+
+    private final boolean enabled;
+    private final long maxEntrySizeInBytes;
+    private final PagesSerdeFactory serdeFactory;
+    private final Cache<CacheKey, List<Page>> memoryCache;
+    private final Optional<Path> diskPath;
+    private final Optional<Cache<CacheKey, CacheFile>> diskCache;
+    private final Optional<ExecutorService> diskExecutor;
+
+    private final CounterStat memoryHits = new CounterStat();
+    private final CounterStat diskHits = new CounterStat();
+    private final CounterStat misses = new CounterStat();
+    private final CounterStat diskWriteFailures = new CounterStat();
+    private final AtomicLong diskSizeInBytes = new AtomicLong();
+
+    @Inject
+    public SplitResultCache(SplitResultCacheConfig config, Metadata metadata)
+    {
+        this(config, requireNonNull(metadata, "metadata is null").getBlockEncodingSerde());
+    }
+
+    @VisibleForTesting
+    public SplitResultCache(SplitResultCacheConfig config, BlockEncodingSerde blockEncodingSerde)
+    {
+        requireNonNull(config, "config is null");
+        this.enabled = config.isEnabled();
+        this.maxEntrySizeInBytes = config.getMaxEntrySize().toBytes();
+        this.serdeFactory = new PagesSerdeFactory(blockEncodingSerde, false);
+        this.diskPath = Optional.ofNullable(config.getDiskPath()).map(Paths::get);
+
+        if (enabled && diskPath.isPresent()) {
+            try {
+                createDirectories(diskPath.get());
+            }
+            catch (IOException e) {
+                throw new IllegalArgumentException(format("could not create split result cache path %s", diskPath.get()), e);
+            }
+            this.diskExecutor = Optional.of(newSingleThreadExecutor(daemonThreadsNamed("split-result-cache-writer")));
+            this.diskCache = Optional.of(CacheBuilder.newBuilder()
+                    .maximumWeight(config.getMaxDiskSize().toBytes())
+                    .weigher((CacheKey key, CacheFile file) -> Ints.saturatedCast(file.getSizeInBytes()))
+                    .removalListener(this::deleteCacheFile)
+                    .build());
+        }
+        else {
+            this.diskExecutor = Optional.empty();
+            this.diskCache = Optional.empty();
+        }
+
+        CacheBuilder<CacheKey, List<Page>> memoryCacheBuilder = CacheBuilder.newBuilder()
+                .maximumWeight(enabled ? config.getMaxMemory().toBytes() : 0)
+                .weigher((CacheKey key, List<Page> pages) -> Ints.saturatedCast(getRetainedSizeInBytes(pages)))
+                .recordStats();
+        if (diskExecutor.isPresent()) {
+            // evicted entries are written to disk on a separate thread to not block the drivers
+            RemovalListener<CacheKey, List<Page>> diskWriter = this::writeCacheFile;
+            memoryCacheBuilder = memoryCacheBuilder.removalListener(asynchronous(diskWriter, diskExecutor.get()));
+        }
+        this.memoryCache = memoryCacheBuilder.build();
+    }
+
+    @PostConstruct
+    public void cleanupOldCacheFiles()
+    {
+        if (!diskCache.isPresent()) {
+            return;
+        }
+        try (DirectoryStream<Path> stream = newDirectoryStream(diskPath.get(), CACHE_FILE_GLOB)) {
+            stream.forEach(cacheFile -> {
+                try {
+                    delete(cacheFile);
+                }
+                catch (IOException e) {
+                    log.warn("Could not cleanup old split result cache file: " + cacheFile);
+                }
+            });
+        }
+        catch (IOException e) {
+            log.warn(e, "Error cleaning split result cache files");
+        }
+    }
+
+    @PreDestroy
+    public void destroy()
+    {
+        diskExecutor.ifPresent(ExecutorService::shutdownNow);
+        diskCache.ifPresent(Cache::invalidateAll);
+    }
+
+    public boolean isEnabled()
+    {
+        return enabled;
+    }
+
+    public Optional<List<Page>> get(String splitKey, PipelineKey pipelineKey)
+    {
+        CacheKey key = new CacheKey(splitKey, pipelineKey);
+        List<Page> pages = memoryCache.getIfPresent(key);
+        if (pages != null) {
+            memoryHits.update(1);
+            return Optional.of(copyPages(pages));
+        }
+
+        Optional<List<Page>> diskPages = readCacheFile(key);
+        if (diskPages.isPresent()) {
+            diskHits.update(1);
+            memoryCache.put(key, diskPages.get());
+            return Optional.of(copyPages(diskPages.get()));
+        }
+
+        misses.update(1);
+        return Optional.empty();
+    }
+
+    /**
+     * Caches all output pages of a split. The pages must not contain lazy blocks.
+     */
+    public void put(String splitKey, PipelineKey pipelineKey, List<Page> pages)
+    {
+        if (!enabled || getRetainedSizeInBytes(pages) > maxEntrySizeInBytes) {
+            return;
+        }
+        List<Page> cachedPages = copyPages(pages);
+        cachedPages.forEach(Page::compact);
+        memoryCache.put(new CacheKey(splitKey, pipelineKey), cachedPages);
+    }
+
+    public long getMaxEntrySizeInBytes()
+    {
+        return maxEntrySizeInBytes;
+    }
+
+    @Managed
+    @Nested
+    public CounterStat getMemoryHits()
+    {
+        return memoryHits;
+    }
+
+    @Managed
+    @Nested
+    public CounterStat getDiskHits()
+    {
+        return diskHits;
+    }
+
+    @Managed
+    @Nested
+    public CounterStat getMisses()
+    {
+        return misses;
+    }
+
+    @Managed
+    @Nested
+    public CounterStat getDiskWriteFailures()
+    {
+        return diskWriteFailures;
+    }
+
+    @Managed
+    public long getMemoryEntries()
+    {
+        return memoryCache.size();
+    }
+
+    @Managed
+    public long getMemoryEvictions()
+    {
+        return memoryCache.stats().evictionCount();
+    }
+
+    @Managed
+    public long getDiskEntries()
+    {
+        return diskCache.map(Cache::size).orElse(0L);
+    }
+
+    @Managed
+    public long getDiskSizeInBytes()
+    {
+        return diskSizeInBytes.get();
+    }
+
+    private Optional<List<Page>> readCacheFile(CacheKey key)
+    {
+        if (!diskCache.isPresent()) {
+            return Optional.empty();
+        }
+        CacheFile file = diskCache.get().getIfPresent(key);
+        if (file == null) {
+            return Optional.empty();
+        }
+
+        PagesSerde serde = serdeFactory.createPagesSerde();
+        try (SliceInput input = new InputStreamSliceInput(newInputStream(file.getPath()))) {
+            return Optional.of(ImmutableList.copyOf(readPages(serde, input)));
+        }
+        catch (IOException | RuntimeException e) {
+            // the file was removed concurrently or is corrupted
+            log.debug(e, "Could not read split result cache file: %s", file.getPath());
+            diskCache.get().asMap().remove(key, file);
+            return Optional.empty();
+        }
+    }
+
+    private void writeCacheFile(RemovalNotification<CacheKey, List<Page>> notification)
+    {
+        CacheKey key = notification.getKey();
+        List<Page> pages = notification.getValue();
+        if (!notification.wasEvicted() || key == null || pages == null || diskCache.get().getIfPresent(key) != null) {
+            return;
+        }
+
+        Path file = null;
+        try {
+            file = createTempFile(diskPath.get(), CACHE_FILE_PREFIX, CACHE_FILE_SUFFIX);
+            PagesSerde serde = serdeFactory.createPagesSerde();
+            try (SliceOutput output = new OutputStreamSliceOutput(newOutputStream(file))) {
+                writePages(serde, output, pages.iterator());
+            }
+            long sizeInBytes = size(file);
+            diskSizeInBytes.addAndGet(sizeInBytes);
+            diskCache.get().put(key, new CacheFile(file, sizeInBytes));
+        }
+        catch (IOException | RuntimeException e) {
+            diskWriteFailures.update(1);
+            log.warn(e, "Could not write split result cache file");
+            if (file != null) {
+                try {
+                    deleteIfExists(file);
+                }
+                catch (IOException ignored) {
+                }
+            }
+        }
+    }
+
+    private void deleteCacheFile(RemovalNotification<CacheKey, CacheFile> notification)
+    {
+        CacheFile file = notification.getValue();
+        if (file == null) {
+            return;
+        }
+        diskSizeInBytes.addAndGet(-file.getSizeInBytes());
+        try {
+            deleteIfExists(file.getPath());
+        }
+        catch (IOException e) {
+            log.warn(e, "Could not delete split result cache file: %s", file.getPath());
+        }
+    }
+
+    // Page is mutable, so the cache and every reader get their own instances sharing the blocks
+    private static List<Page> copyPages(List<Page> pages)
+    {
+        ImmutableList.Builder<Page> copies = ImmutableList.builder();
+        for (Page page : pages) {
+            Block[] blocks = new Block[page.getChannelCount()];
+            for (int channel = 0; channel < blocks.length; channel++) {
+                blocks[channel] = page.getBlock(channel);
+            }
+            copies.add(new Page(page.getPositionCount(), blocks));
+        }
+        return copies.build();
+    }
+
+    private static long getRetainedSizeInBytes(List<Page> pages)
+    {
+        long sizeInBytes = 0;
+        for (Page page : pages) {
+            sizeInBytes += page.getRetainedSizeInBytes();
+        }
+        return sizeInBytes;
+    }
+
+    /**
+     * Identifies the filter and projections applied to the rows of a split, together with
+     * the session properties that change their results.
+     */
+    public static final class PipelineKey
+    {
+        private final Optional<RowExpression> filter;
+        private final List<RowExpression> projections;
+        private final TimeZoneKey timeZoneKey;
+        private final boolean legacyTimestamp;
+
+        public PipelineKey(Session session, Optional<RowExpression> filter, List<RowExpression> projections)
+        {
+            requireNonNull(session, "session is null");
+            this.filter = requireNonNull(filter, "filter is null");
+            this.projections = ImmutableList.copyOf(requireNonNull(projections, "projections is null"));
+            this.timeZoneKey = session.getTimeZoneKey();
+            this.legacyTimestamp = isLegacyTimestamp(session);
+        }
+
+        @Override
+        public boolean equals(Object o)
+        {
+            if (this == o) {
+                return true;
+            }
+            if (o == null || getClass() != o.getClass()) {
+                return false;
+            }
+            PipelineKey that = (PipelineKey) o;
+            return legacyTimestamp == that.legacyTimestamp &&
+                    filter.equals(that.filter) &&
+                    projections.equals(that.projections) &&
+                    timeZoneKey.equals(that.timeZoneKey);
+        }
+
+        @Override
+        public int hashCode()
+        {
+            return Objects.hash(filter, projections, timeZoneKey, legacyTimestamp);
+        }
+
+        @Override
+        public String toString()
+        {
+            return toStringHelper(this)
+                    .add("filter", filter)
+                    .add("projections", projections)
+                    .add("timeZoneKey", timeZoneKey)
+                    .add("legacyTimestamp", legacyTimestamp)
+                    .toString();
+        }
+    }
+
+    private static final class CacheKey
+    {
+        private final String splitKey;
+        private final PipelineKey pipelineKey;
+
+        private CacheKey(String splitKey, PipelineKey pipelineKey)
+        {
+            this.splitKey = requireNonNull(splitKey, "splitKey is null");
+            this.pipelineKey = requireNonNull(pipelineKey, "pipelineKey is null");
+        }
+
+        @Override
+        public boolean equals(Object o)
+        {
+            if (this == o) {
+                return true;
+            }
+            if (o == null || getClass() != o.getClass()) {
+                return false;
+            }
+            CacheKey that = (CacheKey) o;
+            return splitKey.equals(that.splitKey) &&
+                    pipelineKey.equals(that.pipelineKey);
+        }
+
+        @Override
+        public int hashCode()
+        {
+            return Objects.hash(splitKey, pipelineKey);
+        }
+    }
+
+    private static final class CacheFile
+    {
+        private final Path path;
+        private final long sizeInBytes;
+
+        private CacheFile(Path path, long sizeInBytes)
+        {
+            this.path = requireNonNull(path, "path is null");
+            this.sizeInBytes = sizeInBytes;
+        }
+
+        public Path getPath()
+        {
+            return path;
+        }
+
+        public long getSizeInBytes()
+        {
+            return sizeInBytes;
+        }
+    }
+}
@@ -0,0 +1,98 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.prestosql.operator;
+
+import io.airlift.configuration.Config;
+import io.airlift.configuration.ConfigDescription;
+import io.airlift.units.DataSize;
+
+import javax.validation.constraints.NotNull;
+
+import static io.airlift.units.DataSize.Unit.GIGABYTE;
+import static io.airlift.units.DataSize.Unit.MEGABYTE;
+
+public class SplitResultCacheConfig
+{
+    private boolean enabled;
+    private DataSize maxMemory = DataSize.of(1, GIGABYTE);
+    private DataSize maxEntrySize = DataSize.of(16, MEGABYTE);
+    private String diskPath;
+    private DataSize maxDiskSize = DataSize.of(10, GIGABYTE);
+
+    public boolean isEnabled()
+    {
+        return enabled;
+    }
+
+    @Config("split-result-cache.enabled")
+    @ConfigDescription("Cache the output of table scans with filters and projections on this node")
+    public SplitResultCacheConfig setEnabled(boolean enabled)
+    {
+        this.enabled = enabled;
+        return this;
+    }
+
+    @NotNull
+    public DataSize getMaxMemory()
+    {
+        return maxMemory;
+    }
+
+    @Config("split-result-cache.max-memory")
+    public SplitResultCacheConfig setMaxMemory(DataSize maxMemory)
+    {
+        this.maxMemory = maxMemory;
+        return this;
+    }
+
+    @NotNull
+    public DataSize getMaxEntrySize()
+    {
+        return maxEntrySize;
+    }
+
+    @Config("split-result-cache.max-entry-size")
+    @ConfigDescription("Maximum size of the cached output of a single split")
+    public SplitResultCacheConfig setMaxEntrySize(DataSize maxEntrySize)
+    {
+        this.maxEntrySize = maxEntrySize;
+        return this;
+    }
+
+    public String getDiskPath()
+    {
+        return diskPath;
+    }
+
+    @Config("split-result-cache.disk-path")
+    @ConfigDescription("Directory for results evicted from memory, preferably on a local SSD")
+    public SplitResultCacheConfig setDiskPath(String diskPath)
+    {
+        this.diskPath = diskPath;
+        return this;
+    }
+
+    @NotNull
+    public DataSize getMaxDiskSize()
+    {
+        return maxDiskSize;
+    }
+
+    @Config("split-result-cache.max-disk-size")
+    public SplitResultCacheConfig setMaxDiskSize(DataSize maxDiskSize)
+    {
+        this.maxDiskSize = maxDiskSize;
+        return this;
+    }
+}
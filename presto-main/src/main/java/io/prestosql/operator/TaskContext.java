@@ -15,6 +15,7 @@ package io.prestosql.operator;
 
 import com.google.common.annotations.VisibleForTesting;
 import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.ImmutableSet;
 import com.google.common.util.concurrent.AtomicDouble;
 import com.google.common.util.concurrent.ListenableFuture;
@@ -27,17 +28,21 @@ import io.prestosql.execution.Lifespan;
 import io.prestosql.execution.TaskId;
 import io.prestosql.execution.TaskState;
 import io.prestosql.execution.TaskStateMachine;
+import io.prestosql.execution.VersionedDynamicFilterDomains;
 import io.prestosql.execution.buffer.LazyOutputBuffer;
 import io.prestosql.memory.QueryContext;
 import io.prestosql.memory.QueryContextVisitor;
 import io.prestosql.memory.context.LocalMemoryContext;
 import io.prestosql.memory.context.MemoryTrackingContext;
+import io.prestosql.spi.predicate.Domain;
 import org.joda.time.DateTime;
 
 import javax.annotation.concurrent.GuardedBy;
 import javax.annotation.concurrent.ThreadSafe;
 
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.OptionalInt;
 import java.util.Set;
 import java.util.concurrent.CopyOnWriteArrayList;
@@ -83,6 +88,14 @@ public class TaskContext
 
     private final Set<Lifespan> completedDriverGroups = newConcurrentHashSet();
 
+    // Build-side domains of the dynamic filters collected by this task, keyed by dynamic filter ID.
+    @GuardedBy("this")
+    private VersionedDynamicFilterDomains dynamicFilterDomains = VersionedDynamicFilterDomains.EMPTY;
+
+    // Domains of the dynamic filters collected by other stages and sent by the coordinator, keyed by dynamic filter ID.
+    @GuardedBy("this")
+    private Map<String, Domain> remoteDynamicFilterDomains = ImmutableMap.of();
+
     private final List<PipelineContext> pipelineContexts = new CopyOnWriteArrayList<>();
 
     private final boolean perOperatorCpuTimerEnabled;
@@ -265,6 +278,52 @@ public class TaskContext
         completedDriverGroups.add(driverGroup);
     }
 
+    /**
+     * Returns the build-side domains of the dynamic filters which were fully collected by this task.
+     * They are reported to the coordinator, which merges them across all tasks of the stage.
+     */
+    public synchronized VersionedDynamicFilterDomains getDynamicFilterDomains()
+    {
+        return dynamicFilterDomains;
+    }
+
+    public synchronized long getDynamicFiltersVersion()
+    {
+        return dynamicFilterDomains.getVersion();
+    }
+
+    public synchronized void addDynamicFilterDomains(Map<String, Domain> domains)
+    {
+        if (domains.isEmpty()) {
+            return;
+        }
+        dynamicFilterDomains = new VersionedDynamicFilterDomains(
+                dynamicFilterDomains.getVersion() + 1,
+                ImmutableMap.<String, Domain>builder()
+                        .putAll(dynamicFilterDomains.getDynamicFilterDomains())
+                        .putAll(domains)
+                        .build());
+    }
+
+    /**
+     * Returns the domains of the dynamic filters which were collected by the tasks of other stages,
+     * and merged by the coordinator. Table scans of this task use them to skip data.
+     */
+    public synchronized Map<String, Domain> getRemoteDynamicFilterDomains()
+    {
+        return remoteDynamicFilterDomains;
+    }
+
+    public synchronized void addRemoteDynamicFilterDomains(Map<String, Domain> domains)
+    {
+        if (domains.isEmpty()) {
+            return;
+        }
+        Map<String, Domain> newDomains = new HashMap<>(remoteDynamicFilterDomains);
+        domains.forEach((filterId, domain) -> newDomains.merge(filterId, domain, Domain::intersect));
+        remoteDynamicFilterDomains = ImmutableMap.copyOf(newDomains);
+    }
+
     public List<PipelineContext> getPipelineContexts()
     {
         return pipelineContexts;
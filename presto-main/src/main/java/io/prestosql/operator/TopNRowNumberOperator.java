@@ -15,29 +15,43 @@ package io.prestosql.operator;
 
 import com.google.common.annotations.VisibleForTesting;
 import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Iterators;
 import com.google.common.primitives.Ints;
+import com.google.common.util.concurrent.ListenableFuture;
 import io.prestosql.memory.context.LocalMemoryContext;
+import io.prestosql.operator.exchange.LocalPartitionGenerator;
 import io.prestosql.spi.Page;
 import io.prestosql.spi.block.Block;
 import io.prestosql.spi.block.SortOrder;
 import io.prestosql.spi.type.Type;
+import io.prestosql.spiller.PartitioningSpiller;
+import io.prestosql.spiller.PartitioningSpillerFactory;
 import io.prestosql.sql.gen.JoinCompiler;
 import io.prestosql.sql.planner.plan.PlanNodeId;
 
 import java.util.Iterator;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.IntStream;
 
 import static com.google.common.base.Preconditions.checkArgument;
 import static com.google.common.base.Preconditions.checkState;
+import static com.google.common.base.Verify.verify;
+import static com.google.common.util.concurrent.Futures.immediateFuture;
+import static io.airlift.concurrent.MoreFutures.checkSuccess;
 import static io.prestosql.SystemSessionProperties.isDictionaryAggregationEnabled;
+import static io.prestosql.SystemSessionProperties.isOffHeapHashTableEnabled;
 import static io.prestosql.operator.GroupByHash.createGroupByHash;
 import static io.prestosql.spi.type.BigintType.BIGINT;
+import static io.prestosql.spiller.PartitioningSpillerFactory.unsupportedPartitioningSpillerFactory;
 import static java.util.Objects.requireNonNull;
 
 public class TopNRowNumberOperator
         implements Operator
 {
+    // the spilled rows are ranked one partition at a time, so that only the top rows of a partition are in memory
+    private static final int SPILL_PARTITION_COUNT = 16;
+
     public static class TopNRowNumberOperatorFactory
             implements OperatorFactory
     {
@@ -59,6 +73,8 @@ public class TopNRowNumberOperator
         private final boolean generateRowNumber;
         private boolean closed;
         private final JoinCompiler joinCompiler;
+        private final boolean spillEnabled;
+        private final PartitioningSpillerFactory partitioningSpillerFactory;
 
         public TopNRowNumberOperatorFactory(
                 int operatorId,
@@ -74,6 +90,41 @@ public class TopNRowNumberOperator
                 Optional<Integer> hashChannel,
                 int expectedPositions,
                 JoinCompiler joinCompiler)
+        {
+            this(
+                    operatorId,
+                    planNodeId,
+                    sourceTypes,
+                    outputChannels,
+                    partitionChannels,
+                    partitionTypes,
+                    sortChannels,
+                    sortOrder,
+                    maxRowCountPerPartition,
+                    partial,
+                    hashChannel,
+                    expectedPositions,
+                    joinCompiler,
+                    false,
+                    unsupportedPartitioningSpillerFactory());
+        }
+
+        public TopNRowNumberOperatorFactory(
+                int operatorId,
+                PlanNodeId planNodeId,
+                List<? extends Type> sourceTypes,
+                List<Integer> outputChannels,
+                List<Integer> partitionChannels,
+                List<? extends Type> partitionTypes,
+                List<Integer> sortChannels,
+                List<SortOrder> sortOrder,
+                int maxRowCountPerPartition,
+                boolean partial,
+                Optional<Integer> hashChannel,
+                int expectedPositions,
+                JoinCompiler joinCompiler,
+                boolean spillEnabled,
+                PartitioningSpillerFactory partitioningSpillerFactory)
         {
             this.operatorId = operatorId;
             this.planNodeId = requireNonNull(planNodeId, "planNodeId is null");
@@ -91,6 +142,8 @@ public class TopNRowNumberOperator
             this.generateRowNumber = !partial;
             this.expectedPositions = expectedPositions;
             this.joinCompiler = requireNonNull(joinCompiler, "joinCompiler is null");
+            this.spillEnabled = spillEnabled;
+            this.partitioningSpillerFactory = requireNonNull(partitioningSpillerFactory, "partitioningSpillerFactory is null");
         }
 
         @Override
@@ -110,7 +163,9 @@ public class TopNRowNumberOperator
                     generateRowNumber,
                     hashChannel,
                     expectedPositions,
-                    joinCompiler);
+                    joinCompiler,
+                    spillEnabled,
+                    partitioningSpillerFactory);
         }
 
         @Override
@@ -122,22 +177,39 @@ public class TopNRowNumberOperator
         @Override
         public OperatorFactory duplicate()
         {
-            return new TopNRowNumberOperatorFactory(operatorId, planNodeId, sourceTypes, outputChannels, partitionChannels, partitionTypes, sortChannels, sortOrder, maxRowCountPerPartition, partial, hashChannel, expectedPositions, joinCompiler);
+            return new TopNRowNumberOperatorFactory(operatorId, planNodeId, sourceTypes, outputChannels, partitionChannels, partitionTypes, sortChannels, sortOrder, maxRowCountPerPartition, partial, hashChannel, expectedPositions, joinCompiler, spillEnabled, partitioningSpillerFactory);
         }
     }
 
     private final OperatorContext operatorContext;
     private final LocalMemoryContext localUserMemoryContext;
+    private final LocalMemoryContext localRevocableMemoryContext;
 
+    private final List<Type> sourceTypes;
     private final List<Integer> outputChannels;
-
-    private final GroupByHash groupByHash;
-    private final GroupedTopNBuilder groupedTopNBuilder;
+    private final List<Integer> partitionChannels;
+    private final List<Type> partitionTypes;
+    private final PageWithPositionComparator comparator;
+    private final int maxRowCountPerPartition;
+    private final boolean generateRowNumber;
+    private final Optional<Integer> hashChannel;
+    private final int expectedPositions;
+    private final JoinCompiler joinCompiler;
+    private final boolean spillEnabled;
+    private final PartitioningSpillerFactory partitioningSpillerFactory;
+
+    private GroupByHash groupByHash;
+    private GroupedTopNBuilder groupedTopNBuilder;
 
     private boolean finishing;
     private Work<?> unfinishedWork;
     private Iterator<Page> outputIterator;
 
+    // after memory is revoked, the top rows found so far are spilled, and the spilled rows of each partition are ranked again at the end
+    private Optional<PartitioningSpiller> spiller = Optional.empty();
+    private ListenableFuture<?> spillInProgress = immediateFuture(null);
+    private Runnable finishMemoryRevoke = () -> {};
+
     public TopNRowNumberOperator(
             OperatorContext operatorContext,
             List<? extends Type> sourceTypes,
@@ -151,9 +223,43 @@ public class TopNRowNumberOperator
             Optional<Integer> hashChannel,
             int expectedPositions,
             JoinCompiler joinCompiler)
+    {
+        this(
+                operatorContext,
+                sourceTypes,
+                outputChannels,
+                partitionChannels,
+                partitionTypes,
+                sortChannels,
+                sortOrders,
+                maxRowCountPerPartition,
+                generateRowNumber,
+                hashChannel,
+                expectedPositions,
+                joinCompiler,
+                false,
+                unsupportedPartitioningSpillerFactory());
+    }
+
+    public TopNRowNumberOperator(
+            OperatorContext operatorContext,
+            List<? extends Type> sourceTypes,
+            List<Integer> outputChannels,
+            List<Integer> partitionChannels,
+            List<Type> partitionTypes,
+            List<Integer> sortChannels,
+            List<SortOrder> sortOrders,
+            int maxRowCountPerPartition,
+            boolean generateRowNumber,
+            Optional<Integer> hashChannel,
+            int expectedPositions,
+            JoinCompiler joinCompiler,
+            boolean spillEnabled,
+            PartitioningSpillerFactory partitioningSpillerFactory)
     {
         this.operatorContext = requireNonNull(operatorContext, "operatorContext is null");
         this.localUserMemoryContext = operatorContext.localUserMemoryContext();
+        this.localRevocableMemoryContext = operatorContext.localRevocableMemoryContext();
 
         ImmutableList.Builder<Integer> outputChannelsBuilder = ImmutableList.builder();
         for (int channel : requireNonNull(outputChannels, "outputChannels is null")) {
@@ -165,26 +271,55 @@ public class TopNRowNumberOperator
         this.outputChannels = outputChannelsBuilder.build();
 
         checkArgument(maxRowCountPerPartition > 0, "maxRowCountPerPartition must be > 0");
-
         if (!partitionChannels.isEmpty()) {
             checkArgument(expectedPositions > 0, "expectedPositions must be > 0");
+        }
+
+        this.sourceTypes = ImmutableList.copyOf(sourceTypes);
+        this.partitionChannels = ImmutableList.copyOf(requireNonNull(partitionChannels, "partitionChannels is null"));
+        this.partitionTypes = ImmutableList.copyOf(requireNonNull(partitionTypes, "partitionTypes is null"));
+        List<Type> types = toTypes(sourceTypes, outputChannels, generateRowNumber);
+        this.comparator = new SimplePageWithPositionComparator(types, sortChannels, sortOrders);
+        this.maxRowCountPerPartition = maxRowCountPerPartition;
+        this.generateRowNumber = generateRowNumber;
+        this.hashChannel = requireNonNull(hashChannel, "hashChannel is null");
+        this.expectedPositions = expectedPositions;
+        this.joinCompiler = requireNonNull(joinCompiler, "joinCompiler is null");
+        // without partitions all the rows are ranked together, so there is nothing to split the spilled rows by
+        this.spillEnabled = spillEnabled && !partitionChannels.isEmpty();
+        this.partitioningSpillerFactory = requireNonNull(partitioningSpillerFactory, "partitioningSpillerFactory is null");
+
+        this.groupedTopNBuilder = createGroupedTopNBuilder();
+    }
+
+    private GroupedTopNBuilder createGroupedTopNBuilder()
+    {
+        if (!partitionChannels.isEmpty()) {
+            UpdateMemory updateMemory = this::updateMemoryReservation;
+            if (spillEnabled) {
+                // the memory is revocable, so there is no need to yield
+                updateMemory = () -> {
+                    updateMemoryReservation();
+                    return true;
+                };
+            }
             groupByHash = createGroupByHash(
                     partitionTypes,
                     Ints.toArray(partitionChannels),
                     hashChannel,
                     expectedPositions,
                     isDictionaryAggregationEnabled(operatorContext.getSession()),
+                    isOffHeapHashTableEnabled(operatorContext.getSession()),
                     joinCompiler,
-                    this::updateMemoryReservation);
+                    updateMemory);
         }
         else {
             groupByHash = new NoChannelGroupByHash();
         }
 
-        List<Type> types = toTypes(sourceTypes, outputChannels, generateRowNumber);
-        this.groupedTopNBuilder = new GroupedTopNBuilder(
-                ImmutableList.copyOf(sourceTypes),
-                new SimplePageWithPositionComparator(types, sortChannels, sortOrders),
+        return new GroupedTopNBuilder(
+                sourceTypes,
+                comparator,
                 maxRowCountPerPartition,
                 generateRowNumber,
                 groupByHash);
@@ -199,7 +334,25 @@ public class TopNRowNumberOperator
     @Override
     public void finish()
     {
+        if (finishing || !spillInProgress.isDone()) {
+            return;
+        }
+        checkSuccess(spillInProgress, "spilling failed");
+        // a revoke may have completed without the driver having finished it yet
+        completeSpill();
         finishing = true;
+
+        // Convert revocable memory to user memory as the top rows can no longer be spilled once they are being produced.
+        if (localRevocableMemoryContext.getBytes() > 0) {
+            long currentRevocableBytes = localRevocableMemoryContext.getBytes();
+            localRevocableMemoryContext.setBytes(0);
+            if (isSpilled() || !localUserMemoryContext.trySetBytes(localUserMemoryContext.getBytes() + currentRevocableBytes)) {
+                localRevocableMemoryContext.setBytes(currentRevocableBytes);
+                // The rows are ranked together with the spilled rows of their partitions, or there is no memory for them.
+                // The operator is blocked on the spill, and getOutput() completes it before producing any output.
+                spillToDisk();
+            }
+        }
     }
 
     @Override
@@ -209,11 +362,20 @@ public class TopNRowNumberOperator
         return finishing && outputIterator != null && !outputIterator.hasNext() && unfinishedWork == null;
     }
 
+    @Override
+    public ListenableFuture<?> isBlocked()
+    {
+        if (spillInProgress.isDone()) {
+            return NOT_BLOCKED;
+        }
+        return spillInProgress;
+    }
+
     @Override
     public boolean needsInput()
     {
         // still has more input, has not started flushing yet, and has no unfinished work
-        return !finishing && outputIterator == null && unfinishedWork == null;
+        return !finishing && outputIterator == null && unfinishedWork == null && spillInProgress.isDone();
     }
 
     @Override
@@ -223,6 +385,7 @@ public class TopNRowNumberOperator
         checkState(unfinishedWork == null, "Cannot add input with the operator when unfinished work is not empty");
         checkState(outputIterator == null, "Cannot add input with the operator when flushing");
         requireNonNull(page, "page is null");
+        checkSuccess(spillInProgress, "spilling failed");
         unfinishedWork = groupedTopNBuilder.processPage(page);
         if (unfinishedWork.process()) {
             unfinishedWork = null;
@@ -242,13 +405,24 @@ public class TopNRowNumberOperator
             unfinishedWork = null;
         }
 
-        if (!finishing) {
+        if (!finishing || !spillInProgress.isDone()) {
             return null;
         }
 
         if (outputIterator == null) {
+            // the rows left when the input finished may have been spilled by finish()
+            checkSuccess(spillInProgress, "spilling failed");
+            completeSpill();
+
             // start flushing
-            outputIterator = groupedTopNBuilder.buildResult();
+            if (isSpilled()) {
+                outputIterator = Iterators.concat(IntStream.range(0, SPILL_PARTITION_COUNT)
+                        .mapToObj(this::buildSpilledPartitionResult)
+                        .iterator());
+            }
+            else {
+                outputIterator = groupedTopNBuilder.buildResult();
+            }
         }
 
         Page output = null;
@@ -265,6 +439,76 @@ public class TopNRowNumberOperator
         return output;
     }
 
+    private Iterator<Page> buildSpilledPartitionResult(int partition)
+    {
+        // all the rows of a partition are spilled to the same spill partition, so its top rows can be found on their own
+        groupedTopNBuilder = createGroupedTopNBuilder();
+        Iterator<Page> spilledRows = spiller.get().getSpilledPages(partition);
+        while (spilledRows.hasNext()) {
+            verify(groupedTopNBuilder.processPage(spilledRows.next()).process(), "work did not finish");
+            updateMemoryReservation();
+        }
+        return groupedTopNBuilder.buildResult();
+    }
+
+    @Override
+    public ListenableFuture<?> startMemoryRevoke()
+    {
+        if (finishing) {
+            return NOT_BLOCKED;
+        }
+        return spillToDisk();
+    }
+
+    private ListenableFuture<?> spillToDisk()
+    {
+        checkSuccess(spillInProgress, "spilling failed");
+
+        if (localRevocableMemoryContext.getBytes() == 0 || groupByHash.getGroupCount() == 0) {
+            finishMemoryRevoke = () -> {};
+            return immediateFuture(null);
+        }
+
+        if (!spiller.isPresent()) {
+            LocalPartitionGenerator partitionGenerator = new LocalPartitionGenerator(
+                    new InterpretedHashGenerator(partitionTypes, Ints.toArray(partitionChannels)),
+                    SPILL_PARTITION_COUNT);
+            spiller = Optional.of(partitioningSpillerFactory.create(
+                    sourceTypes,
+                    partitionGenerator,
+                    operatorContext.getSpillContext(),
+                    operatorContext.newAggregateSystemMemoryContext()));
+        }
+
+        spillInProgress = spiller.get().spill(groupedTopNBuilder.buildRows());
+        finishMemoryRevoke = () -> {
+            groupedTopNBuilder = createGroupedTopNBuilder();
+            updateMemoryReservation();
+        };
+        return spillInProgress;
+    }
+
+    @Override
+    public void finishMemoryRevoke()
+    {
+        if (finishing) {
+            // a spill started by finish() is completed by getOutput() instead
+            return;
+        }
+        completeSpill();
+    }
+
+    private void completeSpill()
+    {
+        finishMemoryRevoke.run();
+        finishMemoryRevoke = () -> {};
+    }
+
+    private boolean isSpilled()
+    {
+        return spiller.isPresent();
+    }
+
     @VisibleForTesting
     public int getCapacity()
     {
@@ -274,11 +518,28 @@ public class TopNRowNumberOperator
 
     private boolean updateMemoryReservation()
     {
+        if (spillEnabled && !finishing) {
+            localRevocableMemoryContext.setBytes(groupedTopNBuilder.getEstimatedSizeInBytes());
+            return true;
+        }
+
+        localRevocableMemoryContext.setBytes(0);
         // TODO: may need to use trySetMemoryReservation with a compaction to free memory (but that may cause GC pressure)
         localUserMemoryContext.setBytes(groupedTopNBuilder.getEstimatedSizeInBytes());
         return operatorContext.isWaitingForMemory().isDone();
     }
 
+    @Override
+    public void close()
+            throws Exception
+    {
+        localUserMemoryContext.setBytes(0);
+        localRevocableMemoryContext.setBytes(0);
+        if (spiller.isPresent()) {
+            spiller.get().close();
+        }
+    }
+
     private static List<Type> toTypes(List<? extends Type> sourceTypes, List<Integer> outputChannels, boolean generateRowNumber)
     {
         ImmutableList.Builder<Type> types = ImmutableList.builder();
@@ -41,6 +41,23 @@ public final class AggregationUtils
         state.setM2(state.getM2() + delta * (value - state.getMean()));
     }
 
+    public static void removeFromVarianceState(VarianceState state, double value)
+    {
+        long count = state.getCount() - 1;
+        checkArgument(count >= 0, "count is negative");
+        if (count == 0) {
+            state.setCount(0);
+            state.setMean(0);
+            state.setM2(0);
+            return;
+        }
+        // reverse of updateVarianceState
+        double mean = (state.getMean() * state.getCount() - value) / count;
+        state.setM2(Math.max(state.getM2() - (value - mean) * (value - state.getMean()), 0));
+        state.setCount(count);
+        state.setMean(mean);
+    }
+
     public static void updateCentralMomentsState(CentralMomentsState state, double value)
     {
         long n1 = state.getCount();
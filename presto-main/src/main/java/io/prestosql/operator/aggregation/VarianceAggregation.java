@@ -21,10 +21,12 @@ import io.prestosql.spi.function.CombineFunction;
 import io.prestosql.spi.function.Description;
 import io.prestosql.spi.function.InputFunction;
 import io.prestosql.spi.function.OutputFunction;
+import io.prestosql.spi.function.RemoveInputFunction;
 import io.prestosql.spi.function.SqlType;
 import io.prestosql.spi.type.StandardTypes;
 
 import static io.prestosql.operator.aggregation.AggregationUtils.mergeVarianceState;
+import static io.prestosql.operator.aggregation.AggregationUtils.removeFromVarianceState;
 import static io.prestosql.operator.aggregation.AggregationUtils.updateVarianceState;
 import static io.prestosql.spi.type.DoubleType.DOUBLE;
 
@@ -45,6 +47,18 @@ public final class VarianceAggregation
         updateVarianceState(state, (double) value);
     }
 
+    @RemoveInputFunction
+    public static void removeDoubleInput(@AggregationState VarianceState state, @SqlType(StandardTypes.DOUBLE) double value)
+    {
+        removeFromVarianceState(state, value);
+    }
+
+    @RemoveInputFunction
+    public static void removeBigintInput(@AggregationState VarianceState state, @SqlType(StandardTypes.BIGINT) long value)
+    {
+        removeFromVarianceState(state, (double) value);
+    }
+
     @CombineFunction
     public static void combine(@AggregationState VarianceState state, @AggregationState VarianceState otherState)
     {
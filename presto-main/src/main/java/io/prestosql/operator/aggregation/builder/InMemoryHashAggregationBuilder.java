@@ -48,6 +48,7 @@ import java.util.OptionalLong;
 
 import static com.google.common.base.Preconditions.checkArgument;
 import static io.prestosql.SystemSessionProperties.isDictionaryAggregationEnabled;
+import static io.prestosql.SystemSessionProperties.isOffHeapHashTableEnabled;
 import static io.prestosql.operator.GroupByHash.createGroupByHash;
 import static io.prestosql.spi.type.BigintType.BIGINT;
 import static java.util.Objects.requireNonNull;
@@ -107,6 +108,7 @@ public class InMemoryHashAggregationBuilder
                 hashChannel,
                 expectedGroups,
                 isDictionaryAggregationEnabled(operatorContext.getSession()),
+                isOffHeapHashTableEnabled(operatorContext.getSession()),
                 joinCompiler,
                 updateMemory);
         this.partial = step.isOutputPartial();
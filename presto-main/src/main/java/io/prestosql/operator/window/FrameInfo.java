@@ -13,6 +13,7 @@
  */
 package io.prestosql.operator.window;
 
+import io.prestosql.spi.block.SortOrder;
 import io.prestosql.sql.tree.FrameBound;
 import io.prestosql.sql.tree.WindowFrame;
 
@@ -20,6 +21,7 @@ import java.util.Objects;
 import java.util.Optional;
 
 import static com.google.common.base.MoreObjects.toStringHelper;
+import static com.google.common.base.Preconditions.checkArgument;
 import static java.util.Objects.requireNonNull;
 
 public class FrameInfo
@@ -29,6 +31,8 @@ public class FrameInfo
     private final int startChannel;
     private final FrameBound.Type endType;
     private final int endChannel;
+    private final int sortKeyChannel;
+    private final Optional<SortOrder> sortOrder;
 
     public FrameInfo(
             WindowFrame.Type type,
@@ -36,12 +40,32 @@ public class FrameInfo
             Optional<Integer> startChannel,
             FrameBound.Type endType,
             Optional<Integer> endChannel)
+    {
+        this(type, startType, startChannel, endType, endChannel, Optional.empty(), Optional.empty());
+    }
+
+    /**
+     * For RANGE frames with offsets, the start and end channels contain the values of the sort key
+     * at the bounds of the frame, or null for a bound beyond the range of the sort key type, and the
+     * sort key channel and order must be set.
+     */
+    public FrameInfo(
+            WindowFrame.Type type,
+            FrameBound.Type startType,
+            Optional<Integer> startChannel,
+            FrameBound.Type endType,
+            Optional<Integer> endChannel,
+            Optional<Integer> sortKeyChannel,
+            Optional<SortOrder> sortOrder)
     {
         this.type = requireNonNull(type, "type is null");
         this.startType = requireNonNull(startType, "startType is null");
         this.startChannel = requireNonNull(startChannel, "startChannel is null").orElse(-1);
         this.endType = requireNonNull(endType, "endType is null");
         this.endChannel = requireNonNull(endChannel, "endChannel is null").orElse(-1);
+        this.sortKeyChannel = requireNonNull(sortKeyChannel, "sortKeyChannel is null").orElse(-1);
+        this.sortOrder = requireNonNull(sortOrder, "sortOrder is null");
+        checkArgument(sortKeyChannel.isPresent() == sortOrder.isPresent(), "sortKeyChannel and sortOrder must be both present or both absent");
     }
 
     public WindowFrame.Type getType()
@@ -69,10 +93,20 @@ public class FrameInfo
         return endChannel;
     }
 
+    public int getSortKeyChannel()
+    {
+        return sortKeyChannel;
+    }
+
+    public Optional<SortOrder> getSortOrder()
+    {
+        return sortOrder;
+    }
+
     @Override
     public int hashCode()
     {
-        return Objects.hash(type, startType, startChannel, endType, endChannel);
+        return Objects.hash(type, startType, startChannel, endType, endChannel, sortKeyChannel, sortOrder);
     }
 
     @Override
@@ -92,7 +126,9 @@ public class FrameInfo
                 this.startType == other.startType &&
                 Objects.equals(this.startChannel, other.startChannel) &&
                 this.endType == other.endType &&
-                Objects.equals(this.endChannel, other.endChannel);
+                Objects.equals(this.endChannel, other.endChannel) &&
+                this.sortKeyChannel == other.sortKeyChannel &&
+                Objects.equals(this.sortOrder, other.sortOrder);
     }
 
     @Override
@@ -104,6 +140,8 @@ public class FrameInfo
                 .add("startChannel", startChannel)
                 .add("endType", endType)
                 .add("endChannel", endChannel)
+                .add("sortKeyChannel", sortKeyChannel)
+                .add("sortOrder", sortOrder.orElse(null))
                 .toString();
     }
 }
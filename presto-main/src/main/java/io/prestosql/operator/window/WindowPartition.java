@@ -20,16 +20,20 @@ import io.prestosql.spi.PageBuilder;
 import io.prestosql.spi.function.WindowIndex;
 import io.prestosql.sql.tree.FrameBound;
 
+import java.util.Arrays;
 import java.util.List;
 
 import static com.google.common.base.Preconditions.checkState;
 import static io.prestosql.spi.StandardErrorCode.INVALID_WINDOW_FRAME;
+import static io.prestosql.sql.tree.FrameBound.Type.CURRENT_ROW;
 import static io.prestosql.sql.tree.FrameBound.Type.FOLLOWING;
 import static io.prestosql.sql.tree.FrameBound.Type.PRECEDING;
 import static io.prestosql.sql.tree.FrameBound.Type.UNBOUNDED_FOLLOWING;
 import static io.prestosql.sql.tree.FrameBound.Type.UNBOUNDED_PRECEDING;
 import static io.prestosql.sql.tree.WindowFrame.Type.RANGE;
 import static io.prestosql.util.Failures.checkCondition;
+import static java.lang.Math.max;
+import static java.lang.Math.min;
 import static java.lang.Math.toIntExact;
 
 public final class WindowPartition
@@ -47,6 +51,14 @@ public final class WindowPartition
 
     private int currentPosition;
 
+    // bounds of the rows with a non-null sort key, for RANGE frames with offsets
+    private int nonNullSortKeyStart = -1;
+    private int nonNullSortKeyEnd = -1;
+
+    // RANGE frame bounds of the previous row, where the search for the bounds of the current row starts
+    private final int[] recentRangeFrameStarts;
+    private final int[] recentRangeFrameEnds;
+
     public WindowPartition(
             PagesIndex pagesIndex,
             int partitionStart,
@@ -61,6 +73,10 @@ public final class WindowPartition
         this.outputChannels = outputChannels;
         this.windowFunctions = ImmutableList.copyOf(windowFunctions);
         this.peerGroupHashStrategy = peerGroupHashStrategy;
+        this.recentRangeFrameStarts = new int[windowFunctions.size()];
+        this.recentRangeFrameEnds = new int[windowFunctions.size()];
+        Arrays.fill(recentRangeFrameStarts, -1);
+        Arrays.fill(recentRangeFrameEnds, -1);
 
         // reset functions for new partition
         WindowIndex windowIndex = new PagesWindowIndex(pagesIndex, partitionStart, partitionEnd);
@@ -104,8 +120,9 @@ public final class WindowPartition
             updatePeerGroup();
         }
 
-        for (FramedWindowFunction framedFunction : windowFunctions) {
-            Range range = getFrameRange(framedFunction.getFrame());
+        for (int i = 0; i < windowFunctions.size(); i++) {
+            FramedWindowFunction framedFunction = windowFunctions.get(i);
+            Range range = getFrameRange(framedFunction.getFrame(), i);
             framedFunction.getFunction().processRow(
                     pageBuilder.getBlockBuilder(channel),
                     peerGroupStart - partitionStart,
@@ -150,8 +167,12 @@ public final class WindowPartition
         }
     }
 
-    private Range getFrameRange(FrameInfo frameInfo)
+    private Range getFrameRange(FrameInfo frameInfo, int functionIndex)
     {
+        if ((frameInfo.getType() == RANGE) && (frameInfo.getSortKeyChannel() >= 0)) {
+            return getRangeFrameRange(frameInfo, functionIndex);
+        }
+
         int rowPosition = currentPosition - partitionStart;
         int endPosition = partitionEnd - partitionStart - 1;
 
@@ -200,6 +221,127 @@ public final class WindowPartition
         return new Range(frameStart, frameEnd);
     }
 
+    private Range getRangeFrameRange(FrameInfo frameInfo, int functionIndex)
+    {
+        int sortKeyChannel = frameInfo.getSortKeyChannel();
+
+        int frameStart;
+        int frameEnd;
+
+        // a row with a null sort key is only within an offset of its peers
+        if (pagesIndex.isNull(sortKeyChannel, currentPosition)) {
+            frameStart = (frameInfo.getStartType() == UNBOUNDED_PRECEDING) ? partitionStart : peerGroupStart;
+            frameEnd = (frameInfo.getEndType() == UNBOUNDED_FOLLOWING) ? partitionEnd - 1 : peerGroupEnd - 1;
+            return new Range(frameStart - partitionStart, frameEnd - partitionStart);
+        }
+
+        if (nonNullSortKeyStart < 0) {
+            findNonNullSortKeys(sortKeyChannel, frameInfo.getSortOrder().get().isNullsFirst());
+        }
+        boolean ascending = frameInfo.getSortOrder().get().isAscending();
+
+        // frame start
+        if (frameInfo.getStartType() == UNBOUNDED_PRECEDING) {
+            frameStart = partitionStart;
+        }
+        else if (frameInfo.getStartType() == CURRENT_ROW) {
+            frameStart = peerGroupStart;
+        }
+        else if (pagesIndex.isNull(frameInfo.getStartChannel(), currentPosition)) {
+            // the bound is beyond the range of the sort key type, so it is before or after every row
+            frameStart = (frameInfo.getStartType() == PRECEDING) ? nonNullSortKeyStart : nonNullSortKeyEnd;
+        }
+        else {
+            checkRangeFrameBound(frameInfo.getStartType(), frameInfo.getStartChannel(), sortKeyChannel, ascending, "starting");
+            frameStart = findRangeFrameStart(frameInfo.getStartChannel(), sortKeyChannel, ascending, recentRangeFrameStarts[functionIndex]);
+            recentRangeFrameStarts[functionIndex] = frameStart;
+        }
+
+        // frame end
+        if (frameInfo.getEndType() == UNBOUNDED_FOLLOWING) {
+            frameEnd = partitionEnd - 1;
+        }
+        else if (frameInfo.getEndType() == CURRENT_ROW) {
+            frameEnd = peerGroupEnd - 1;
+        }
+        else if (pagesIndex.isNull(frameInfo.getEndChannel(), currentPosition)) {
+            frameEnd = (frameInfo.getEndType() == PRECEDING) ? nonNullSortKeyStart - 1 : nonNullSortKeyEnd - 1;
+        }
+        else {
+            checkRangeFrameBound(frameInfo.getEndType(), frameInfo.getEndChannel(), sortKeyChannel, ascending, "ending");
+            frameEnd = findRangeFrameEnd(frameInfo.getEndChannel(), sortKeyChannel, ascending, recentRangeFrameEnds[functionIndex]);
+            recentRangeFrameEnds[functionIndex] = frameEnd;
+        }
+
+        if (frameStart > frameEnd) {
+            return new Range(-1, -1);
+        }
+        return new Range(frameStart - partitionStart, frameEnd - partitionStart);
+    }
+
+    private void findNonNullSortKeys(int sortKeyChannel, boolean nullsFirst)
+    {
+        // rows with a null sort key are sorted together at one end of the partition
+        nonNullSortKeyStart = partitionStart;
+        nonNullSortKeyEnd = partitionEnd;
+        if (nullsFirst) {
+            while ((nonNullSortKeyStart < partitionEnd) && pagesIndex.isNull(sortKeyChannel, nonNullSortKeyStart)) {
+                nonNullSortKeyStart++;
+            }
+        }
+        else {
+            while ((nonNullSortKeyEnd > partitionStart) && pagesIndex.isNull(sortKeyChannel, nonNullSortKeyEnd - 1)) {
+                nonNullSortKeyEnd--;
+            }
+        }
+    }
+
+    private void checkRangeFrameBound(FrameBound.Type boundType, int boundChannel, int sortKeyChannel, boolean ascending, String type)
+    {
+        // the bound is the sort key minus the offset for preceding rows, and the sort key plus the offset for following rows
+        int comparison = compareSortKeyWithBound(sortKeyChannel, currentPosition, boundChannel, ascending);
+        boolean negativeOffset = (boundType == PRECEDING) ? comparison < 0 : comparison > 0;
+        checkCondition(!negativeOffset, INVALID_WINDOW_FRAME, "Window frame %s offset must not be negative", type);
+    }
+
+    /**
+     * Returns the first row with a sort key not before the bound, or the end of the rows with a non-null sort key.
+     * Starting from the bound of the previous row makes the search linear in the size of the partition when
+     * the offset is constant.
+     */
+    private int findRangeFrameStart(int boundChannel, int sortKeyChannel, boolean ascending, int recentFrameStart)
+    {
+        int position = min(max(recentFrameStart, nonNullSortKeyStart), nonNullSortKeyEnd);
+        while ((position > nonNullSortKeyStart) && (compareSortKeyWithBound(sortKeyChannel, position - 1, boundChannel, ascending) >= 0)) {
+            position--;
+        }
+        while ((position < nonNullSortKeyEnd) && (compareSortKeyWithBound(sortKeyChannel, position, boundChannel, ascending) < 0)) {
+            position++;
+        }
+        return position;
+    }
+
+    /**
+     * Returns the last row with a sort key not after the bound, or the row before the rows with a non-null sort key.
+     */
+    private int findRangeFrameEnd(int boundChannel, int sortKeyChannel, boolean ascending, int recentFrameEnd)
+    {
+        int position = min(max(recentFrameEnd, nonNullSortKeyStart - 1), nonNullSortKeyEnd - 1);
+        while ((position + 1 < nonNullSortKeyEnd) && (compareSortKeyWithBound(sortKeyChannel, position + 1, boundChannel, ascending) <= 0)) {
+            position++;
+        }
+        while ((position >= nonNullSortKeyStart) && (compareSortKeyWithBound(sortKeyChannel, position, boundChannel, ascending) > 0)) {
+            position--;
+        }
+        return position;
+    }
+
+    private int compareSortKeyWithBound(int sortKeyChannel, int position, int boundChannel, boolean ascending)
+    {
+        int comparison = pagesIndex.compare(sortKeyChannel, position, boundChannel, currentPosition);
+        return ascending ? comparison : -comparison;
+    }
+
     private boolean emptyFrame(FrameInfo frameInfo, int rowPosition, int endPosition)
     {
         FrameBound.Type startType = frameInfo.getStartType();
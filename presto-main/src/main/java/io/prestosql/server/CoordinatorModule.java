@@ -71,6 +71,8 @@ import io.prestosql.execution.QueryInfo;
 import io.prestosql.execution.QueryManager;
 import io.prestosql.execution.QueryPerformanceFetcher;
 import io.prestosql.execution.QueryPreparer;
+import io.prestosql.execution.QueryResultCache;
+import io.prestosql.execution.QueryResultCacheConfig;
 import io.prestosql.execution.RemoteTaskFactory;
 import io.prestosql.execution.RenameColumnTask;
 import io.prestosql.execution.RenameSchemaTask;
@@ -232,6 +234,10 @@ public class CoordinatorModule
         binder.bind(QueryManager.class).to(SqlQueryManager.class).in(Scopes.SINGLETON);
         newExporter(binder).export(QueryManager.class).withGeneratedName();
         binder.bind(QueryPreparer.class).in(Scopes.SINGLETON);
+        newExporter(binder).export(QueryPreparer.class).withGeneratedName();
+        configBinder(binder).bindConfig(QueryResultCacheConfig.class);
+        binder.bind(QueryResultCache.class).in(Scopes.SINGLETON);
+        newExporter(binder).export(QueryResultCache.class).withGeneratedName();
         binder.bind(SessionSupplier.class).to(QuerySessionSupplier.class).in(Scopes.SINGLETON);
         binder.bind(InternalResourceGroupManager.class).in(Scopes.SINGLETON);
         newExporter(binder).export(InternalResourceGroupManager.class).withGeneratedName();
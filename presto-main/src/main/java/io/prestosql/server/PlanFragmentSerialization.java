@@ -0,0 +1,69 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.prestosql.server;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.ObjectCodec;
+import com.fasterxml.jackson.databind.JsonSerializer;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.util.concurrent.UncheckedExecutionException;
+import io.prestosql.sql.planner.PlanFragment;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.concurrent.ExecutionException;
+
+import static com.google.common.base.Throwables.throwIfInstanceOf;
+import static com.google.common.base.Throwables.throwIfUnchecked;
+import static com.google.common.base.Verify.verify;
+
+public final class PlanFragmentSerialization
+{
+    private PlanFragmentSerialization() {}
+
+    /**
+     * Every task of a stage is sent the same {@link PlanFragment} instance. This serializer encodes
+     * a fragment once and writes the cached JSON for all the other tasks, instead of encoding it for each of them.
+     */
+    public static class CachingPlanFragmentSerializer
+            extends JsonSerializer<PlanFragment>
+    {
+        // weak keys compare by identity, and let the cached JSON go away together with the stage
+        private static final Cache<PlanFragment, String> FRAGMENT_JSON = CacheBuilder.newBuilder()
+                .weakKeys()
+                .build();
+
+        @Override
+        public void serialize(PlanFragment fragment, JsonGenerator jsonGenerator, SerializerProvider serializerProvider)
+                throws IOException
+        {
+            ObjectCodec codec = jsonGenerator.getCodec();
+            verify(codec instanceof ObjectMapper, "Expected generator codec to be an ObjectMapper, but was %s", codec);
+            ObjectMapper objectMapper = (ObjectMapper) codec;
+            String json;
+            try {
+                json = FRAGMENT_JSON.get(fragment, () -> objectMapper.writeValueAsString(fragment));
+            }
+            catch (ExecutionException | UncheckedExecutionException e) {
+                throwIfInstanceOf(e.getCause(), IOException.class);
+                throwIfUnchecked(e.getCause());
+                throw new UncheckedIOException(new IOException(e.getCause()));
+            }
+            jsonGenerator.writeRawValue(json);
+        }
+    }
+}
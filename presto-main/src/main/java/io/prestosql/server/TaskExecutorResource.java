@@ -13,6 +13,7 @@
  */
 package io.prestosql.server;
 
+import io.prestosql.execution.executor.SplitCostEstimate;
 import io.prestosql.execution.executor.TaskExecutor;
 
 import javax.inject.Inject;
@@ -21,9 +22,11 @@ import javax.ws.rs.Path;
 import javax.ws.rs.Produces;
 import javax.ws.rs.core.MediaType;
 
+import java.util.List;
+
 import static java.util.Objects.requireNonNull;
 
-@Path("/v1/maxActiveSplits")
+@Path("/v1")
 public class TaskExecutorResource
 {
     private final TaskExecutor taskExecutor;
@@ -36,9 +39,18 @@ public class TaskExecutorResource
     }
 
     @GET
+    @Path("maxActiveSplits")
     @Produces(MediaType.TEXT_PLAIN)
     public String getMaxActiveSplit()
     {
         return taskExecutor.getMaxActiveSplitsInfo();
     }
+
+    @GET
+    @Path("splitCostEstimates")
+    @Produces(MediaType.APPLICATION_JSON)
+    public List<SplitCostEstimate> getSplitCostEstimates()
+    {
+        return taskExecutor.getSplitCostEstimates();
+    }
 }
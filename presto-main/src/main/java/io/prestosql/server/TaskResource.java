@@ -27,6 +27,7 @@ import io.prestosql.execution.TaskInfo;
 import io.prestosql.execution.TaskManager;
 import io.prestosql.execution.TaskState;
 import io.prestosql.execution.TaskStatus;
+import io.prestosql.execution.VersionedDynamicFilterDomains;
 import io.prestosql.execution.buffer.BufferResult;
 import io.prestosql.execution.buffer.OutputBuffers.OutputBufferId;
 import io.prestosql.execution.buffer.SerializedPage;
@@ -130,7 +131,8 @@ public class TaskResource
                 taskUpdateRequest.getFragment(),
                 taskUpdateRequest.getSources(),
                 taskUpdateRequest.getOutputIds(),
-                taskUpdateRequest.getTotalPartitions());
+                taskUpdateRequest.getTotalPartitions(),
+                taskUpdateRequest.getDynamicFilterDomains());
 
         if (shouldSummarize(uriInfo)) {
             taskInfo = taskInfo.summarize();
@@ -211,6 +213,15 @@ public class TaskResource
                 .withTimeout(timeout);
     }
 
+    @GET
+    @Path("{taskId}/dynamicfilters")
+    @Produces(MediaType.APPLICATION_JSON)
+    public VersionedDynamicFilterDomains getTaskDynamicFilterDomains(@PathParam("taskId") TaskId taskId)
+    {
+        requireNonNull(taskId, "taskId is null");
+        return taskManager.getTaskDynamicFilterDomains(taskId);
+    }
+
     @DELETE
     @Path("{taskId}")
     @Produces(MediaType.APPLICATION_JSON)
@@ -15,10 +15,14 @@ package io.prestosql.server;
 
 import com.fasterxml.jackson.annotation.JsonCreator;
 import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
 import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
 import io.prestosql.SessionRepresentation;
 import io.prestosql.execution.TaskSource;
 import io.prestosql.execution.buffer.OutputBuffers;
+import io.prestosql.server.PlanFragmentSerialization.CachingPlanFragmentSerializer;
+import io.prestosql.spi.predicate.Domain;
 import io.prestosql.sql.planner.PlanFragment;
 
 import java.util.List;
@@ -38,6 +42,8 @@ public class TaskUpdateRequest
     private final List<TaskSource> sources;
     private final OutputBuffers outputIds;
     private final OptionalInt totalPartitions;
+    // domains of dynamic filters collected by other stages, which the page sources of the task can use
+    private final Map<String, Domain> dynamicFilterDomains;
 
     @JsonCreator
     public TaskUpdateRequest(
@@ -46,7 +52,8 @@ public class TaskUpdateRequest
             @JsonProperty("fragment") Optional<PlanFragment> fragment,
             @JsonProperty("sources") List<TaskSource> sources,
             @JsonProperty("outputIds") OutputBuffers outputIds,
-            @JsonProperty("totalPartitions") OptionalInt totalPartitions)
+            @JsonProperty("totalPartitions") OptionalInt totalPartitions,
+            @JsonProperty("dynamicFilterDomains") Map<String, Domain> dynamicFilterDomains)
     {
         requireNonNull(session, "session is null");
         requireNonNull(extraCredentials, "credentials is null");
@@ -54,6 +61,7 @@ public class TaskUpdateRequest
         requireNonNull(sources, "sources is null");
         requireNonNull(outputIds, "outputIds is null");
         requireNonNull(totalPartitions, "totalPartitions is null");
+        requireNonNull(dynamicFilterDomains, "dynamicFilterDomains is null");
 
         this.session = session;
         this.extraCredentials = extraCredentials;
@@ -61,6 +69,7 @@ public class TaskUpdateRequest
         this.sources = ImmutableList.copyOf(sources);
         this.outputIds = outputIds;
         this.totalPartitions = totalPartitions;
+        this.dynamicFilterDomains = ImmutableMap.copyOf(dynamicFilterDomains);
     }
 
     @JsonProperty
@@ -76,6 +85,7 @@ public class TaskUpdateRequest
     }
 
     @JsonProperty
+    @JsonSerialize(contentUsing = CachingPlanFragmentSerializer.class)
     public Optional<PlanFragment> getFragment()
     {
         return fragment;
@@ -99,6 +109,12 @@ public class TaskUpdateRequest
         return totalPartitions;
     }
 
+    @JsonProperty
+    public Map<String, Domain> getDynamicFilterDomains()
+    {
+        return dynamicFilterDomains;
+    }
+
     @Override
     public String toString()
     {
@@ -109,6 +125,7 @@ public class TaskUpdateRequest
                 .add("sources", sources)
                 .add("outputIds", outputIds)
                 .add("totalPartitions", totalPartitions)
+                .add("dynamicFilterDomains", dynamicFilterDomains.keySet())
                 .toString();
     }
 }
@@ -39,6 +39,8 @@ import io.prestosql.execution.ExecutionFailureInfo;
 import io.prestosql.execution.QueryExecution;
 import io.prestosql.execution.QueryInfo;
 import io.prestosql.execution.QueryManager;
+import io.prestosql.execution.QueryResultCache;
+import io.prestosql.execution.QueryResultCache.CacheKey;
 import io.prestosql.execution.QueryState;
 import io.prestosql.execution.QueryStats;
 import io.prestosql.execution.StageId;
@@ -69,6 +71,9 @@ import javax.ws.rs.core.Response;
 import javax.ws.rs.core.UriInfo;
 
 import java.net.URI;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
 import java.util.HashSet;
 import java.util.Iterator;
 import java.util.List;
@@ -111,6 +116,7 @@ class Query
 
     private final Executor resultsProcessorExecutor;
     private final ScheduledExecutorService timeoutExecutor;
+    private final QueryResultCache queryResultCache;
 
     private final PagesSerde serde;
 
@@ -162,6 +168,22 @@ class Query
     @GuardedBy("this")
     private Long updateCount;
 
+    @GuardedBy("this")
+    private boolean resultFromCache;
+
+    @GuardedBy("this")
+    private final Deque<SerializedPage> cachedResultPages = new ArrayDeque<>();
+
+    @GuardedBy("this")
+    private Optional<CacheKey> resultCacheKey = Optional.empty();
+
+    // pages returned so far, to be added to the result cache when the query finishes; null once they no longer fit
+    @GuardedBy("this")
+    private List<SerializedPage> resultPagesToCache = new ArrayList<>();
+
+    @GuardedBy("this")
+    private long resultPagesToCacheSizeInBytes;
+
     public static Query create(
             Session session,
             Slug slug,
@@ -169,9 +191,10 @@ class Query
             ExchangeClient exchangeClient,
             Executor dataProcessorExecutor,
             ScheduledExecutorService timeoutExecutor,
-            BlockEncodingSerde blockEncodingSerde)
+            BlockEncodingSerde blockEncodingSerde,
+            QueryResultCache queryResultCache)
     {
-        Query result = new Query(session, slug, queryManager, exchangeClient, dataProcessorExecutor, timeoutExecutor, blockEncodingSerde);
+        Query result = new Query(session, slug, queryManager, exchangeClient, dataProcessorExecutor, timeoutExecutor, blockEncodingSerde, queryResultCache);
 
         result.queryManager.addOutputInfoListener(result.getQueryId(), result::setQueryOutputInfo);
 
@@ -192,7 +215,8 @@ class Query
             ExchangeClient exchangeClient,
             Executor resultsProcessorExecutor,
             ScheduledExecutorService timeoutExecutor,
-            BlockEncodingSerde blockEncodingSerde)
+            BlockEncodingSerde blockEncodingSerde,
+            QueryResultCache queryResultCache)
     {
         requireNonNull(session, "session is null");
         requireNonNull(slug, "slug is null");
@@ -201,6 +225,7 @@ class Query
         requireNonNull(resultsProcessorExecutor, "resultsProcessorExecutor is null");
         requireNonNull(timeoutExecutor, "timeoutExecutor is null");
         requireNonNull(blockEncodingSerde, "serde is null");
+        requireNonNull(queryResultCache, "queryResultCache is null");
 
         this.queryManager = queryManager;
 
@@ -210,6 +235,7 @@ class Query
         this.exchangeClient = exchangeClient;
         this.resultsProcessorExecutor = resultsProcessorExecutor;
         this.timeoutExecutor = timeoutExecutor;
+        this.queryResultCache = queryResultCache;
 
         serde = new PagesSerdeFactory(blockEncodingSerde, isExchangeCompressionEnabled(session)).createPagesSerde();
     }
@@ -222,6 +248,8 @@ class Query
 
     public void partialCancel(int id)
     {
+        // the query can still finish after a stage is canceled, but its results are then incomplete
+        discardResultPagesToCache();
         StageId stageId = new StageId(queryId, id);
         queryManager.cancelStage(stageId);
     }
@@ -233,6 +261,7 @@ class Query
 
     public synchronized void dispose()
     {
+        discardResultPagesToCache();
         exchangeClient.close();
     }
 
@@ -398,10 +427,14 @@ class Query
             long rows = 0;
             long targetResultBytes = targetResultSize.toBytes();
             while (bytes < targetResultBytes) {
-                SerializedPage serializedPage = exchangeClient.pollPage();
+                SerializedPage serializedPage = cachedResultPages.pollFirst();
+                if (serializedPage == null) {
+                    serializedPage = exchangeClient.pollPage();
+                }
                 if (serializedPage == null) {
                     break;
                 }
+                addResultPageToCache(serializedPage);
 
                 Page page = serde.deserialize(serializedPage);
                 bytes += page.getLogicalSizeInBytes();
@@ -437,8 +470,11 @@ class Query
 
         closeExchangeClientIfNecessary(queryInfo);
 
+        // a query answered from the result cache has no output stage, and may finish before its output info arrives
+        boolean awaitingOutputInfo = (queryInfo.getState() == QueryState.FINISHED) && (columns == null) && !queryInfo.getFieldNames().isEmpty();
+
         // for queries with no output, return a fake result for clients that require it
-        if ((queryInfo.getState() == QueryState.FINISHED) && !queryInfo.getOutputStage().isPresent()) {
+        if ((queryInfo.getState() == QueryState.FINISHED) && !queryInfo.getOutputStage().isPresent() && !resultFromCache && !awaitingOutputInfo) {
             columns = ImmutableList.of(createColumn("result", BooleanType.BOOLEAN));
             data = ImmutableSet.of(ImmutableList.of(true));
         }
@@ -448,13 +484,18 @@ class Query
         // (1) the query is not done AND the query state is not FAILED
         //   OR
         // (2)there is more data to send (due to buffering)
-        if ((!queryInfo.isFinalQueryInfo() && queryInfo.getState() != FAILED) || !exchangeClient.isClosed()) {
+        if ((!queryInfo.isFinalQueryInfo() && queryInfo.getState() != FAILED) || !exchangeClient.isClosed() || !cachedResultPages.isEmpty() || awaitingOutputInfo) {
             nextToken = OptionalLong.of(token + 1);
         }
         else {
             nextToken = OptionalLong.empty();
         }
 
+        if (!nextToken.isPresent() && queryInfo.getState() == QueryState.FINISHED && resultCacheKey.isPresent() && resultPagesToCache != null) {
+            queryResultCache.put(resultCacheKey.get(), resultPagesToCache);
+            resultPagesToCache = null;
+        }
+
         URI nextResultsUri = null;
         URI partialCancelUri = null;
         if (nextToken.isPresent()) {
@@ -505,6 +546,24 @@ class Query
         return queryResults;
     }
 
+    private synchronized void addResultPageToCache(SerializedPage page)
+    {
+        if (!resultCacheKey.isPresent() || resultPagesToCache == null) {
+            return;
+        }
+        resultPagesToCacheSizeInBytes += page.getRetainedSizeInBytes();
+        if (resultPagesToCacheSizeInBytes > queryResultCache.getMaxEntrySizeInBytes()) {
+            resultPagesToCache = null;
+            return;
+        }
+        resultPagesToCache.add(page);
+    }
+
+    private synchronized void discardResultPagesToCache()
+    {
+        resultPagesToCache = null;
+    }
+
     private synchronized void closeExchangeClientIfNecessary(QueryInfo queryInfo)
     {
         // Close the exchange client if the query has failed, or if the query
@@ -530,6 +589,12 @@ class Query
             }
             columns = list.build();
             types = outputInfo.getColumnTypes();
+
+            resultCacheKey = outputInfo.getResultCacheKey();
+            if (outputInfo.getCachedResult().isPresent()) {
+                resultFromCache = true;
+                cachedResultPages.addAll(outputInfo.getCachedResult().get());
+            }
         }
 
         for (URI outputLocation : outputInfo.getBufferLocations()) {
@@ -150,7 +150,7 @@ class ContinuousTaskStatusFetcher
                 .build();
 
         errorTracker.startRequest();
-        future = httpClient.executeAsync(request, createFullJsonResponseHandler(taskStatusCodec));
+        future = httpClient.executeAsync(request, new CpuTimeMeasuringResponseHandler<>(createFullJsonResponseHandler(taskStatusCodec), stats));
         currentRequestStartNanos.set(System.nanoTime());
         Futures.addCallback(future, new SimpleHttpResponseHandler<>(this, request.getUri(), stats), executor);
     }
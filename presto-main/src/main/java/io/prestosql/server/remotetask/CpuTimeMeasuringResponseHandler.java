@@ -0,0 +1,66 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.prestosql.server.remotetask;
+
+import io.airlift.http.client.Request;
+import io.airlift.http.client.Response;
+import io.airlift.http.client.ResponseHandler;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Records the CPU time spent by the delegate handler, which includes decoding the response body, in {@link RemoteTaskStats}.
+ */
+class CpuTimeMeasuringResponseHandler<T, E extends Exception>
+        implements ResponseHandler<T, E>
+{
+    private static final ThreadMXBean THREAD_MX_BEAN = ManagementFactory.getThreadMXBean();
+
+    private final ResponseHandler<T, E> delegate;
+    private final RemoteTaskStats stats;
+
+    public CpuTimeMeasuringResponseHandler(ResponseHandler<T, E> delegate, RemoteTaskStats stats)
+    {
+        this.delegate = requireNonNull(delegate, "delegate is null");
+        this.stats = requireNonNull(stats, "stats is null");
+    }
+
+    @Override
+    public T handleException(Request request, Exception exception)
+            throws E
+    {
+        return delegate.handleException(request, exception);
+    }
+
+    @Override
+    public T handle(Request request, Response response)
+            throws E
+    {
+        long start = currentThreadCpuTime();
+        try {
+            return delegate.handle(request, response);
+        }
+        finally {
+            stats.responseDecodingCpuNanos(currentThreadCpuTime() - start);
+        }
+    }
+
+    static long currentThreadCpuTime()
+    {
+        return THREAD_MX_BEAN.getCurrentThreadCpuTime();
+    }
+}
@@ -0,0 +1,229 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.prestosql.server.remotetask;
+
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
+import io.airlift.concurrent.SetThreadName;
+import io.airlift.http.client.FullJsonResponseHandler;
+import io.airlift.http.client.HttpClient;
+import io.airlift.http.client.Request;
+import io.airlift.json.JsonCodec;
+import io.airlift.units.Duration;
+import io.prestosql.execution.TaskId;
+import io.prestosql.execution.VersionedDynamicFilterDomains;
+
+import javax.annotation.concurrent.GuardedBy;
+
+import java.net.URI;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.function.Consumer;
+
+import static com.google.common.net.HttpHeaders.CONTENT_TYPE;
+import static com.google.common.net.MediaType.JSON_UTF_8;
+import static io.airlift.http.client.FullJsonResponseHandler.createFullJsonResponseHandler;
+import static io.airlift.http.client.HttpUriBuilder.uriBuilderFrom;
+import static io.airlift.http.client.Request.Builder.prepareGet;
+import static io.prestosql.execution.VersionedDynamicFilterDomains.INITIAL_DYNAMIC_FILTERS_VERSION;
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Fetches the dynamic filter domains collected by a remote task. The task status only carries
+ * the version of the domains, and the domains are fetched when a newer version is reported.
+ */
+class DynamicFiltersFetcher
+        implements SimpleHttpResponseCallback<VersionedDynamicFilterDomains>
+{
+    private final TaskId taskId;
+    private final URI taskUri;
+    private final Consumer<Throwable> onFail;
+    private final JsonCodec<VersionedDynamicFilterDomains> dynamicFilterDomainsCodec;
+    private final Executor executor;
+    private final HttpClient httpClient;
+    private final RequestErrorTracker errorTracker;
+    private final RemoteTaskStats stats;
+    private final List<Runnable> dynamicFilterDomainsListeners = new CopyOnWriteArrayList<>();
+
+    @GuardedBy("this")
+    private long remoteDynamicFiltersVersion = INITIAL_DYNAMIC_FILTERS_VERSION;
+    @GuardedBy("this")
+    private VersionedDynamicFilterDomains dynamicFilterDomains = VersionedDynamicFilterDomains.EMPTY;
+
+    @GuardedBy("this")
+    private boolean running;
+    @GuardedBy("this")
+    private boolean stopWhenUpToDate;
+
+    @GuardedBy("this")
+    private ListenableFuture<FullJsonResponseHandler.JsonResponse<VersionedDynamicFilterDomains>> future;
+
+    public DynamicFiltersFetcher(
+            Consumer<Throwable> onFail,
+            TaskId taskId,
+            URI taskUri,
+            JsonCodec<VersionedDynamicFilterDomains> dynamicFilterDomainsCodec,
+            Executor executor,
+            HttpClient httpClient,
+            Duration maxErrorDuration,
+            ScheduledExecutorService errorScheduledExecutor,
+            RemoteTaskStats stats)
+    {
+        this.taskId = requireNonNull(taskId, "taskId is null");
+        this.taskUri = requireNonNull(taskUri, "taskUri is null");
+        this.onFail = requireNonNull(onFail, "onFail is null");
+        this.dynamicFilterDomainsCodec = requireNonNull(dynamicFilterDomainsCodec, "dynamicFilterDomainsCodec is null");
+        this.executor = requireNonNull(executor, "executor is null");
+        this.httpClient = requireNonNull(httpClient, "httpClient is null");
+        this.errorTracker = new RequestErrorTracker(taskId, taskUri, maxErrorDuration, errorScheduledExecutor, "getting dynamic filter domains");
+        this.stats = requireNonNull(stats, "stats is null");
+    }
+
+    public synchronized void start()
+    {
+        if (running) {
+            // already running
+            return;
+        }
+        running = true;
+        fetchDynamicFiltersIfNecessary();
+    }
+
+    public synchronized void stop()
+    {
+        running = false;
+        if (future != null) {
+            future.cancel(true);
+            future = null;
+        }
+    }
+
+    /**
+     * Listener is notified asynchronously whenever newer domains are fetched.
+     */
+    public void addDynamicFilterDomainsListener(Runnable listener)
+    {
+        dynamicFilterDomainsListeners.add(requireNonNull(listener, "listener is null"));
+    }
+
+    /**
+     * Stops fetching once the domains of the last version reported by the task are fetched.
+     */
+    public synchronized void stopWhenUpToDate()
+    {
+        stopWhenUpToDate = true;
+        fetchDynamicFiltersIfNecessary();
+    }
+
+    public synchronized void updateDynamicFiltersVersion(long newDynamicFiltersVersion)
+    {
+        if (newDynamicFiltersVersion <= remoteDynamicFiltersVersion) {
+            // task status updates may be observed out of order
+            return;
+        }
+        remoteDynamicFiltersVersion = newDynamicFiltersVersion;
+        fetchDynamicFiltersIfNecessary();
+    }
+
+    public synchronized VersionedDynamicFilterDomains getDynamicFilterDomains()
+    {
+        return dynamicFilterDomains;
+    }
+
+    private synchronized void fetchDynamicFiltersIfNecessary()
+    {
+        // stopped?
+        if (!running) {
+            return;
+        }
+
+        // up to date?
+        if (dynamicFilterDomains.getVersion() >= remoteDynamicFiltersVersion) {
+            if (stopWhenUpToDate) {
+                stop();
+            }
+            return;
+        }
+
+        // outstanding request? the version is checked again once it completes
+        if (future != null && !future.isDone()) {
+            return;
+        }
+
+        // if throttled due to error, asynchronously wait for timeout and try again
+        ListenableFuture<?> errorRateLimit = errorTracker.acquireRequestPermit();
+        if (!errorRateLimit.isDone()) {
+            errorRateLimit.addListener(this::fetchDynamicFiltersIfNecessary, executor);
+            return;
+        }
+
+        Request request = prepareGet()
+                .setUri(uriBuilderFrom(taskUri).appendPath("dynamicfilters").build())
+                .setHeader(CONTENT_TYPE, JSON_UTF_8.toString())
+                .build();
+
+        errorTracker.startRequest();
+        future = httpClient.executeAsync(request, new CpuTimeMeasuringResponseHandler<>(createFullJsonResponseHandler(dynamicFilterDomainsCodec), stats));
+        Futures.addCallback(future, new SimpleHttpResponseHandler<>(this, request.getUri(), stats), executor);
+    }
+
+    @Override
+    public void success(VersionedDynamicFilterDomains newDynamicFilterDomains)
+    {
+        try (SetThreadName ignored = new SetThreadName("DynamicFiltersFetcher-%s", taskId)) {
+            synchronized (this) {
+                try {
+                    if (newDynamicFilterDomains.getVersion() > dynamicFilterDomains.getVersion()) {
+                        dynamicFilterDomains = newDynamicFilterDomains;
+                        dynamicFilterDomainsListeners.forEach(executor::execute);
+                    }
+                    errorTracker.requestSucceeded();
+                }
+                finally {
+                    fetchDynamicFiltersIfNecessary();
+                }
+            }
+        }
+    }
+
+    @Override
+    public void failed(Throwable cause)
+    {
+        try (SetThreadName ignored = new SetThreadName("DynamicFiltersFetcher-%s", taskId)) {
+            try {
+                errorTracker.requestFailed(cause);
+            }
+            catch (Error e) {
+                onFail.accept(e);
+                throw e;
+            }
+            catch (RuntimeException e) {
+                onFail.accept(e);
+            }
+            finally {
+                fetchDynamicFiltersIfNecessary();
+            }
+        }
+    }
+
+    @Override
+    public void fatal(Throwable cause)
+    {
+        try (SetThreadName ignored = new SetThreadName("DynamicFiltersFetcher-%s", taskId)) {
+            onFail.accept(cause);
+        }
+    }
+}
@@ -16,6 +16,7 @@ package io.prestosql.server.remotetask;
 import com.google.common.base.Ticker;
 import com.google.common.collect.HashMultimap;
 import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.Multimap;
 import com.google.common.collect.SetMultimap;
 import com.google.common.net.HttpHeaders;
@@ -43,12 +44,14 @@ import io.prestosql.execution.TaskInfo;
 import io.prestosql.execution.TaskSource;
 import io.prestosql.execution.TaskState;
 import io.prestosql.execution.TaskStatus;
+import io.prestosql.execution.VersionedDynamicFilterDomains;
 import io.prestosql.execution.buffer.BufferInfo;
 import io.prestosql.execution.buffer.OutputBuffers;
 import io.prestosql.execution.buffer.PageBufferInfo;
 import io.prestosql.metadata.Split;
 import io.prestosql.operator.TaskStats;
 import io.prestosql.server.TaskUpdateRequest;
+import io.prestosql.spi.predicate.Domain;
 import io.prestosql.sql.planner.PlanFragment;
 import io.prestosql.sql.planner.plan.PlanNode;
 import io.prestosql.sql.planner.plan.PlanNodeId;
@@ -89,7 +92,9 @@ import static io.airlift.http.client.StaticBodyGenerator.createStaticBodyGenerat
 import static io.prestosql.execution.TaskInfo.createInitialTask;
 import static io.prestosql.execution.TaskState.ABORTED;
 import static io.prestosql.execution.TaskState.FAILED;
+import static io.prestosql.execution.TaskState.FINISHED;
 import static io.prestosql.execution.TaskStatus.failWith;
+import static io.prestosql.server.remotetask.CpuTimeMeasuringResponseHandler.currentThreadCpuTime;
 import static io.prestosql.server.remotetask.RequestErrorTracker.logError;
 import static io.prestosql.util.Failures.toFailure;
 import static java.util.Objects.requireNonNull;
@@ -114,6 +119,7 @@ public final class HttpRemoteTask
     private final RemoteTaskStats stats;
     private final TaskInfoFetcher taskInfoFetcher;
     private final ContinuousTaskStatusFetcher taskStatusFetcher;
+    private final DynamicFiltersFetcher dynamicFiltersFetcher;
 
     @GuardedBy("this")
     private Future<?> currentRequest;
@@ -132,6 +138,9 @@ public final class HttpRemoteTask
     private final Map<PlanNodeId, Boolean> noMoreSplits = new HashMap<>();
     @GuardedBy("this")
     private final AtomicReference<OutputBuffers> outputBuffers = new AtomicReference<>();
+    // domains of dynamic filters collected by other stages, which are pending delivery to the worker
+    @GuardedBy("this")
+    private final Map<String, Domain> pendingRemoteDynamicFilterDomains = new HashMap<>();
     private final FutureStateChange<?> whenSplitQueueHasSpace = new FutureStateChange<>();
     @GuardedBy("this")
     private boolean splitQueueHasSpace = true;
@@ -174,6 +183,7 @@ public final class HttpRemoteTask
             Duration taskInfoUpdateInterval,
             boolean summarizeTaskInfo,
             JsonCodec<TaskStatus> taskStatusCodec,
+            JsonCodec<VersionedDynamicFilterDomains> dynamicFilterDomainsCodec,
             JsonCodec<TaskInfo> taskInfoCodec,
             JsonCodec<TaskUpdateRequest> taskUpdateRequestCodec,
             PartitionedSplitCountTracker partitionedSplitCountTracker,
@@ -189,6 +199,7 @@ public final class HttpRemoteTask
         requireNonNull(httpClient, "httpClient is null");
         requireNonNull(executor, "executor is null");
         requireNonNull(taskStatusCodec, "taskStatusCodec is null");
+        requireNonNull(dynamicFilterDomainsCodec, "dynamicFilterDomainsCodec is null");
         requireNonNull(taskInfoCodec, "taskInfoCodec is null");
         requireNonNull(taskUpdateRequestCodec, "taskUpdateRequestCodec is null");
         requireNonNull(partitionedSplitCountTracker, "partitionedSplitCountTracker is null");
@@ -251,7 +262,21 @@ public final class HttpRemoteTask
                     errorScheduledExecutor,
                     stats);
 
+            this.dynamicFiltersFetcher = new DynamicFiltersFetcher(
+                    this::failTask,
+                    taskId,
+                    location,
+                    dynamicFilterDomainsCodec,
+                    executor,
+                    httpClient,
+                    maxErrorDuration,
+                    errorScheduledExecutor,
+                    stats);
+
             taskStatusFetcher.addStateChangeListener(newStatus -> {
+                // the domains of a finished task are still fetched, so the version is checked before the state
+                dynamicFiltersFetcher.updateDynamicFiltersVersion(newStatus.getDynamicFiltersVersion());
+
                 TaskState state = newStatus.getState();
                 if (state.isDone()) {
                     cleanUpTask();
@@ -291,6 +316,30 @@ public final class HttpRemoteTask
         return taskStatusFetcher.getTaskStatus();
     }
 
+    @Override
+    public Map<String, Domain> getDynamicFilterDomains()
+    {
+        return dynamicFiltersFetcher.getDynamicFilterDomains().getDynamicFilterDomains();
+    }
+
+    @Override
+    public void addDynamicFilterDomainsListener(Runnable listener)
+    {
+        dynamicFiltersFetcher.addDynamicFilterDomainsListener(listener);
+    }
+
+    @Override
+    public synchronized void addRemoteDynamicFilterDomains(Map<String, Domain> dynamicFilterDomains)
+    {
+        if (getTaskStatus().getState().isDone() || dynamicFilterDomains.isEmpty()) {
+            return;
+        }
+
+        pendingRemoteDynamicFilterDomains.putAll(dynamicFilterDomains);
+        needsUpdate.set(true);
+        scheduleUpdate();
+    }
+
     @Override
     public void start()
     {
@@ -300,6 +349,7 @@ public final class HttpRemoteTask
 
             taskStatusFetcher.start();
             taskInfoFetcher.start();
+            dynamicFiltersFetcher.start();
         }
     }
 
@@ -441,10 +491,13 @@ public final class HttpRemoteTask
         }
     }
 
-    private synchronized void processTaskUpdate(TaskInfo newValue, List<TaskSource> sources)
+    private synchronized void processTaskUpdate(TaskInfo newValue, List<TaskSource> sources, Map<String, Domain> remoteDynamicFilterDomains)
     {
         updateTaskInfo(newValue);
 
+        // remove acknowledged dynamic filter domains
+        remoteDynamicFilterDomains.forEach(pendingRemoteDynamicFilterDomains::remove);
+
         // remove acknowledged splits, which frees memory
         for (TaskSource source : sources) {
             PlanNodeId planNodeId = source.getPlanNodeId();
@@ -501,6 +554,7 @@ public final class HttpRemoteTask
         }
 
         List<TaskSource> sources = getSources();
+        Map<String, Domain> remoteDynamicFilterDomains = ImmutableMap.copyOf(pendingRemoteDynamicFilterDomains);
 
         Optional<PlanFragment> fragment = sendPlan.get() ? Optional.of(planFragment) : Optional.empty();
         TaskUpdateRequest updateRequest = new TaskUpdateRequest(
@@ -509,8 +563,11 @@ public final class HttpRemoteTask
                 fragment,
                 sources,
                 outputBuffers.get(),
-                totalPartitions);
+                totalPartitions,
+                remoteDynamicFilterDomains);
+        long encodingStart = currentThreadCpuTime();
         byte[] taskUpdateRequestJson = taskUpdateRequestCodec.toJsonBytes(updateRequest);
+        stats.updateRequest(taskUpdateRequestJson.length, currentThreadCpuTime() - encodingStart);
         if (fragment.isPresent()) {
             stats.updateWithPlanBytes(taskUpdateRequestJson.length);
         }
@@ -524,7 +581,7 @@ public final class HttpRemoteTask
 
         updateErrorTracker.startRequest();
 
-        ListenableFuture<JsonResponse<TaskInfo>> future = httpClient.executeAsync(request, createFullJsonResponseHandler(taskInfoCodec));
+        ListenableFuture<JsonResponse<TaskInfo>> future = httpClient.executeAsync(request, new CpuTimeMeasuringResponseHandler<>(createFullJsonResponseHandler(taskInfoCodec), stats));
         currentRequest = future;
         currentRequestStartNanos = System.nanoTime();
 
@@ -532,7 +589,7 @@ public final class HttpRemoteTask
         // and does so without grabbing the instance lock.
         needsUpdate.set(false);
 
-        Futures.addCallback(future, new SimpleHttpResponseHandler<>(new UpdateResponseHandler(sources), request.getUri(), stats), executor);
+        Futures.addCallback(future, new SimpleHttpResponseHandler<>(new UpdateResponseHandler(sources, remoteDynamicFilterDomains), request.getUri(), stats), executor);
     }
 
     private synchronized List<TaskSource> getSources()
@@ -583,6 +640,7 @@ public final class HttpRemoteTask
 
         // clear pending splits to free memory
         pendingSplits.clear();
+        pendingRemoteDynamicFilterDomains.clear();
         pendingSourceSplitCount = 0;
         partitionedSplitCountTracker.setPartitionedSplitCount(getPartitionedSplitCount());
         splitQueueHasSpace = true;
@@ -596,6 +654,13 @@ public final class HttpRemoteTask
         }
 
         taskStatusFetcher.stop();
+        if (getTaskStatus().getState() == FINISHED) {
+            // the domains of a finished task are final, so they are still fetched up to its last version
+            dynamicFiltersFetcher.stopWhenUpToDate();
+        }
+        else {
+            dynamicFiltersFetcher.stop();
+        }
 
         // The remote task is likely to get a delete from the PageBufferClient first.
         // We send an additional delete anyway to get the final TaskInfo
@@ -623,6 +688,7 @@ public final class HttpRemoteTask
 
         try (SetThreadName ignored = new SetThreadName("HttpRemoteTask-%s", taskId)) {
             taskStatusFetcher.updateTaskStatus(status);
+            dynamicFiltersFetcher.stop();
 
             // send abort to task
             HttpUriBuilder uriBuilder = getHttpUriBuilder(getTaskStatus());
@@ -645,7 +711,7 @@ public final class HttpRemoteTask
 
     private void doScheduleAsyncCleanupRequest(Backoff cleanupBackoff, Request request, String action)
     {
-        Futures.addCallback(httpClient.executeAsync(request, createFullJsonResponseHandler(taskInfoCodec)), new FutureCallback<JsonResponse<TaskInfo>>()
+        Futures.addCallback(httpClient.executeAsync(request, new CpuTimeMeasuringResponseHandler<>(createFullJsonResponseHandler(taskInfoCodec), stats)), new FutureCallback<JsonResponse<TaskInfo>>()
         {
             @Override
             public void onSuccess(JsonResponse<TaskInfo> result)
@@ -754,10 +820,12 @@ public final class HttpRemoteTask
             implements SimpleHttpResponseCallback<TaskInfo>
     {
         private final List<TaskSource> sources;
+        private final Map<String, Domain> remoteDynamicFilterDomains;
 
-        private UpdateResponseHandler(List<TaskSource> sources)
+        private UpdateResponseHandler(List<TaskSource> sources, Map<String, Domain> remoteDynamicFilterDomains)
         {
             this.sources = ImmutableList.copyOf(requireNonNull(sources, "sources is null"));
+            this.remoteDynamicFilterDomains = ImmutableMap.copyOf(requireNonNull(remoteDynamicFilterDomains, "remoteDynamicFilterDomains is null"));
         }
 
         @Override
@@ -772,7 +840,7 @@ public final class HttpRemoteTask
                         currentRequestStartNanos = HttpRemoteTask.this.currentRequestStartNanos;
                     }
                     updateStats(currentRequestStartNanos);
-                    processTaskUpdate(value, sources);
+                    processTaskUpdate(value, sources, remoteDynamicFilterDomains);
                     updateErrorTracker.requestSucceeded();
                 }
                 finally {
@@ -15,11 +15,14 @@ package io.prestosql.server.remotetask;
 
 import com.google.common.util.concurrent.AtomicDouble;
 import io.airlift.stats.DistributionStat;
+import io.airlift.stats.TimeStat;
 import org.weakref.jmx.Managed;
 import org.weakref.jmx.Nested;
 
 import javax.annotation.concurrent.ThreadSafe;
 
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
+
 public class RemoteTaskStats
 {
     private final IncrementalAverage updateRoundTripMillis = new IncrementalAverage();
@@ -27,6 +30,9 @@ public class RemoteTaskStats
     private final IncrementalAverage statusRoundTripMillis = new IncrementalAverage();
     private final IncrementalAverage responseSizeBytes = new IncrementalAverage();
     private final DistributionStat updateWithPlanBytes = new DistributionStat();
+    private final DistributionStat updateRequestBytes = new DistributionStat();
+    private final TimeStat updateEncodingCpuTime = new TimeStat(NANOSECONDS);
+    private final TimeStat responseDecodingCpuTime = new TimeStat(NANOSECONDS);
 
     private long requestSuccess;
     private long requestFailure;
@@ -66,6 +72,17 @@ public class RemoteTaskStats
         updateWithPlanBytes.add(bytes);
     }
 
+    public void updateRequest(long bytes, long encodingCpuNanos)
+    {
+        updateRequestBytes.add(bytes);
+        updateEncodingCpuTime.add(encodingCpuNanos, NANOSECONDS);
+    }
+
+    public void responseDecodingCpuNanos(long cpuNanos)
+    {
+        responseDecodingCpuTime.add(cpuNanos, NANOSECONDS);
+    }
+
     @Managed
     public double getResponseSizeBytes()
     {
@@ -109,6 +126,33 @@ public class RemoteTaskStats
         return updateWithPlanBytes;
     }
 
+    @Managed
+    @Nested
+    public DistributionStat getUpdateRequestBytes()
+    {
+        return updateRequestBytes;
+    }
+
+    /**
+     * CPU time the coordinator spent encoding task update requests
+     */
+    @Managed
+    @Nested
+    public TimeStat getUpdateEncodingCpuTime()
+    {
+        return updateEncodingCpuTime;
+    }
+
+    /**
+     * CPU time the coordinator spent decoding task status and task info responses
+     */
+    @Managed
+    @Nested
+    public TimeStat getResponseDecodingCpuTime()
+    {
+        return responseDecodingCpuTime;
+    }
+
     @ThreadSafe
     private static class IncrementalAverage
     {
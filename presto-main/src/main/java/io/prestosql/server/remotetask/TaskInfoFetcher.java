@@ -208,7 +208,7 @@ public class TaskInfoFetcher
                 .build();
 
         errorTracker.startRequest();
-        future = httpClient.executeAsync(request, createFullJsonResponseHandler(taskInfoCodec));
+        future = httpClient.executeAsync(request, new CpuTimeMeasuringResponseHandler<>(createFullJsonResponseHandler(taskInfoCodec), stats));
         currentRequestStartNanos.set(System.nanoTime());
         Futures.addCallback(future, new SimpleHttpResponseHandler<>(this, request.getUri(), stats), executor);
     }
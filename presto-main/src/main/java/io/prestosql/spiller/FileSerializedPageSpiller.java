@@ -0,0 +1,198 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.prestosql.spiller;
+
+import com.google.common.io.Closer;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.ListeningExecutorService;
+import io.airlift.slice.DynamicSliceOutput;
+import io.airlift.slice.Slice;
+import io.airlift.slice.Slices;
+import io.prestosql.execution.buffer.PageCodecMarker;
+import io.prestosql.execution.buffer.SerializedPage;
+import io.prestosql.spi.PrestoException;
+
+import javax.annotation.concurrent.GuardedBy;
+import javax.annotation.concurrent.ThreadSafe;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Optional;
+import java.util.function.Supplier;
+
+import static com.google.common.base.Preconditions.checkState;
+import static io.prestosql.execution.buffer.PagesSerdeUtil.SERIALIZED_PAGE_HEADER_SIZE;
+import static io.prestosql.execution.buffer.PagesSerdeUtil.readSerializedPage;
+import static io.prestosql.execution.buffer.PagesSerdeUtil.writeSerializedPage;
+import static io.prestosql.spi.StandardErrorCode.GENERIC_INTERNAL_ERROR;
+import static io.prestosql.spiller.FileSingleStreamSpillerFactory.SPILL_FILE_PREFIX;
+import static io.prestosql.spiller.FileSingleStreamSpillerFactory.SPILL_FILE_SUFFIX;
+import static java.nio.file.StandardOpenOption.READ;
+import static java.nio.file.StandardOpenOption.WRITE;
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Appends serialized pages to a single spill file, and reads each of them back with a positional read
+ * on the spill executor, so callers do not block on the disk.
+ * Space of pages that were read is not reclaimed until the spiller is closed.
+ */
+@ThreadSafe
+class FileSerializedPageSpiller
+        implements SerializedPageSpiller
+{
+    private final FileHolder targetFile;
+    private final FileChannel channel;
+    private final ListeningExecutorService executor;
+    private final SpillPathStats spillPathStats;
+    private final SpillerStats spillerStats;
+    private final Optional<SpillCipher> spillCipher;
+    private final Closer closer = Closer.create();
+
+    @GuardedBy("this")
+    private long fileSize;
+    @GuardedBy("this")
+    private boolean closed;
+
+    public FileSerializedPageSpiller(Path spillPath, ListeningExecutorService executor, SpillerStats spillerStats, Optional<SpillCipher> spillCipher)
+    {
+        requireNonNull(spillPath, "spillPath is null");
+        this.executor = requireNonNull(executor, "executor is null");
+        this.spillerStats = requireNonNull(spillerStats, "spillerStats is null");
+        this.spillPathStats = spillerStats.getSpillPathStats(spillPath);
+        this.spillCipher = requireNonNull(spillCipher, "spillCipher is null");
+        spillCipher.ifPresent(cipher -> closer.register(cipher::close));
+        try {
+            this.targetFile = closer.register(new FileHolder(Files.createTempFile(spillPath, SPILL_FILE_PREFIX, SPILL_FILE_SUFFIX)));
+            this.channel = closer.register(targetFile.newFileChannel(READ, WRITE));
+        }
+        catch (IOException e) {
+            closeQuietly();
+            throw new PrestoException(GENERIC_INTERNAL_ERROR, "Failed to create spill file", e);
+        }
+    }
+
+    @Override
+    public Supplier<ListenableFuture<SerializedPage>> spill(SerializedPage page)
+    {
+        requireNonNull(page, "page is null");
+        SerializedPage pageToWrite = spillCipher.map(cipher -> encrypt(cipher, page)).orElse(page);
+        DynamicSliceOutput output = new DynamicSliceOutput(SERIALIZED_PAGE_HEADER_SIZE + pageToWrite.getSizeInBytes());
+        writeSerializedPage(output, pageToWrite);
+        Slice data = output.slice();
+
+        long offset;
+        synchronized (this) {
+            checkState(!closed, "Spiller is closed");
+            offset = fileSize;
+            fileSize += data.length();
+        }
+
+        spillPathStats.writeStarted();
+        spillPathStats.pageWriteStarted(data.length());
+        long start = System.nanoTime();
+        try {
+            ByteBuffer buffer = data.toByteBuffer();
+            while (buffer.hasRemaining()) {
+                channel.write(buffer, offset + buffer.position());
+            }
+        }
+        catch (IOException e) {
+            throw new PrestoException(GENERIC_INTERNAL_ERROR, "Failed to spill pages", e);
+        }
+        finally {
+            spillPathStats.pageWriteFinished(data.length(), System.nanoTime() - start);
+            spillPathStats.writeFinished();
+        }
+        spillerStats.addToTotalSpilledBytes(data.length());
+
+        int length = data.length();
+        return () -> executor.submit(() -> read(offset, length));
+    }
+
+    private SerializedPage read(long offset, int length)
+    {
+        byte[] data = new byte[length];
+        ByteBuffer buffer = ByteBuffer.wrap(data);
+        try {
+            while (buffer.hasRemaining()) {
+                if (channel.read(buffer, offset + buffer.position()) < 0) {
+                    throw new EOFException("Spill file is truncated");
+                }
+            }
+        }
+        catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        SerializedPage page = readSerializedPage(Slices.wrappedBuffer(data).getInput());
+        return spillCipher.map(cipher -> decrypt(cipher, page)).orElse(page);
+    }
+
+    private static SerializedPage encrypt(SpillCipher cipher, SerializedPage page)
+    {
+        Slice slice = page.getSlice();
+        byte[] data = slice.hasByteArray() ? slice.byteArray() : slice.getBytes();
+        int offset = slice.hasByteArray() ? slice.byteArrayOffset() : 0;
+        byte[] encrypted = new byte[cipher.encryptedMaxLength(slice.length())];
+        int encryptedLength = cipher.encrypt(data, offset, slice.length(), encrypted, 0);
+        return new SerializedPage(
+                Slices.wrappedBuffer(encrypted, 0, encryptedLength),
+                PageCodecMarker.MarkerSet.fromByteValue(page.getPageCodecMarkers()),
+                page.getPositionCount(),
+                page.getUncompressedSizeInBytes());
+    }
+
+    private static SerializedPage decrypt(SpillCipher cipher, SerializedPage page)
+    {
+        Slice slice = page.getSlice();
+        byte[] decrypted = new byte[cipher.decryptedMaxLength(slice.length())];
+        int decryptedLength = cipher.decrypt(slice.byteArray(), slice.byteArrayOffset(), slice.length(), decrypted, 0);
+        return new SerializedPage(
+                Slices.wrappedBuffer(decrypted, 0, decryptedLength),
+                PageCodecMarker.MarkerSet.fromByteValue(page.getPageCodecMarkers()),
+                page.getPositionCount(),
+                page.getUncompressedSizeInBytes());
+    }
+
+    @Override
+    public void close()
+    {
+        synchronized (this) {
+            if (closed) {
+                return;
+            }
+            closed = true;
+        }
+        try {
+            closer.close();
+        }
+        catch (IOException e) {
+            throw new PrestoException(GENERIC_INTERNAL_ERROR, "Failed to close spiller", e);
+        }
+    }
+
+    private void closeQuietly()
+    {
+        try {
+            closer.close();
+        }
+        catch (IOException | RuntimeException ignored) {
+            // ignored
+        }
+    }
+}
@@ -20,35 +20,41 @@ import com.google.common.io.Closer;
 import com.google.common.util.concurrent.Futures;
 import com.google.common.util.concurrent.ListenableFuture;
 import com.google.common.util.concurrent.ListeningExecutorService;
-import io.airlift.slice.InputStreamSliceInput;
 import io.airlift.slice.OutputStreamSliceOutput;
 import io.airlift.slice.SliceOutput;
 import io.prestosql.execution.buffer.PagesSerde;
-import io.prestosql.execution.buffer.PagesSerdeUtil;
 import io.prestosql.execution.buffer.SerializedPage;
 import io.prestosql.memory.context.LocalMemoryContext;
 import io.prestosql.operator.SpillContext;
 import io.prestosql.spi.Page;
 import io.prestosql.spi.PrestoException;
 
+import javax.annotation.concurrent.GuardedBy;
 import javax.annotation.concurrent.NotThreadSafe;
 
 import java.io.Closeable;
 import java.io.IOException;
-import java.io.InputStream;
 import java.io.UncheckedIOException;
+import java.nio.channels.FileChannel;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.util.ArrayList;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Optional;
+import java.util.function.LongConsumer;
 
+import static com.google.common.base.Preconditions.checkArgument;
 import static com.google.common.base.Preconditions.checkState;
+import static com.google.common.collect.ImmutableList.toImmutableList;
+import static com.google.common.collect.Iterators.transform;
+import static io.airlift.concurrent.MoreFutures.getFutureValue;
 import static io.prestosql.execution.buffer.PagesSerdeUtil.writeSerializedPage;
 import static io.prestosql.spi.StandardErrorCode.GENERIC_INTERNAL_ERROR;
 import static io.prestosql.spiller.FileSingleStreamSpillerFactory.SPILL_FILE_PREFIX;
 import static io.prestosql.spiller.FileSingleStreamSpillerFactory.SPILL_FILE_SUFFIX;
 import static java.nio.file.StandardOpenOption.APPEND;
+import static java.nio.file.StandardOpenOption.READ;
 import static java.util.Objects.requireNonNull;
 
 @NotThreadSafe
@@ -58,23 +64,29 @@ public class FileSingleStreamSpiller
     @VisibleForTesting
     static final int BUFFER_SIZE = 4 * 1024;
 
-    private final FileHolder targetFile;
+    // pages are striped over the target files round-robin, starting with the first one
+    private final List<FileHolder> targetFiles;
+    private final List<SpillPathStats> targetFileStats;
     private final Closer closer = Closer.create();
     private final PagesSerde serde;
     private final SpillerStats spillerStats;
     private final SpillContext localSpillContext;
     private final LocalMemoryContext memoryContext;
+    private final long bufferMemoryBytes;
 
     private final ListeningExecutorService executor;
 
     private boolean writable = true;
+    @GuardedBy("this")
+    private boolean closed;
     private long spilledPagesInMemorySize;
+    private long spilledPagesCount;
     private ListenableFuture<?> spillInProgress = Futures.immediateFuture(null);
 
     public FileSingleStreamSpiller(
             PagesSerde serde,
             ListeningExecutorService executor,
-            Path spillPath,
+            List<Path> spillPaths,
             SpillerStats spillerStats,
             SpillContext spillContext,
             LocalMemoryContext memoryContext,
@@ -98,13 +110,23 @@ public class FileSingleStreamSpiller
         // This means we start accounting for the memory before the spiller thread allocates it, and we release the memory reservation
         // before/after the spiller thread allocates that memory -- -- whether before or after depends on whether writePages() is in the
         // middle of execution when close() is called (note that this applies to both readPages() and writePages() methods).
-        this.memoryContext.setBytes(BUFFER_SIZE);
+        requireNonNull(spillPaths, "spillPaths is null");
+        checkArgument(!spillPaths.isEmpty(), "spillPaths is empty");
+        this.bufferMemoryBytes = (long) BUFFER_SIZE * spillPaths.size();
+        this.memoryContext.setBytes(bufferMemoryBytes);
+        ImmutableList.Builder<FileHolder> targetFiles = ImmutableList.builder();
         try {
-            this.targetFile = closer.register(new FileHolder(Files.createTempFile(spillPath, SPILL_FILE_PREFIX, SPILL_FILE_SUFFIX)));
+            for (Path spillPath : spillPaths) {
+                targetFiles.add(closer.register(new FileHolder(Files.createTempFile(spillPath, SPILL_FILE_PREFIX, SPILL_FILE_SUFFIX))));
+            }
         }
         catch (IOException e) {
             throw new PrestoException(GENERIC_INTERNAL_ERROR, "Failed to create spill file", e);
         }
+        this.targetFiles = targetFiles.build();
+        this.targetFileStats = spillPaths.stream()
+                .map(spillerStats::getSpillPathStats)
+                .collect(toImmutableList());
     }
 
     @Override
@@ -126,19 +148,28 @@ public class FileSingleStreamSpiller
     public Iterator<Page> getSpilledPages()
     {
         checkNoSpillInProgress();
-        return readPages();
+        return readPages(true);
     }
 
     @Override
     public ListenableFuture<List<Page>> getAllSpilledPages()
     {
-        return executor.submit(() -> ImmutableList.copyOf(getSpilledPages()));
+        // pages are already read on the executor, so there is nothing to gain from prefetching them
+        return executor.submit(() -> {
+            checkNoSpillInProgress();
+            return ImmutableList.copyOf(readPages(false));
+        });
     }
 
     private void writePages(Iterator<Page> pageIterator)
     {
         checkState(writable, "Spilling no longer allowed. The spiller has been made non-writable on first read for subsequent reads to be consistent");
-        try (SliceOutput output = new OutputStreamSliceOutput(targetFile.newOutputStream(APPEND), BUFFER_SIZE)) {
+        targetFileStats.forEach(SpillPathStats::writeStarted);
+        try (Closer outputCloser = Closer.create()) {
+            List<SliceOutput> outputs = new ArrayList<>(targetFiles.size());
+            for (FileHolder targetFile : targetFiles) {
+                outputs.add(outputCloser.register(new OutputStreamSliceOutput(targetFile.newOutputStream(APPEND), BUFFER_SIZE)));
+            }
             while (pageIterator.hasNext()) {
                 Page page = pageIterator.next();
                 spilledPagesInMemorySize += page.getSizeInBytes();
@@ -146,34 +177,69 @@ public class FileSingleStreamSpiller
                 long pageSize = serializedPage.getSizeInBytes();
                 localSpillContext.updateBytes(pageSize);
                 spillerStats.addToTotalSpilledBytes(pageSize);
-                writeSerializedPage(output, serializedPage);
+
+                int stripe = (int) (spilledPagesCount % targetFiles.size());
+                SpillPathStats stats = targetFileStats.get(stripe);
+                stats.pageWriteStarted(pageSize);
+                long start = System.nanoTime();
+                try {
+                    writeSerializedPage(outputs.get(stripe), serializedPage);
+                }
+                finally {
+                    stats.pageWriteFinished(pageSize, System.nanoTime() - start);
+                }
+                spilledPagesCount++;
             }
         }
         catch (UncheckedIOException | IOException e) {
             throw new PrestoException(GENERIC_INTERNAL_ERROR, "Failed to spill pages", e);
         }
+        finally {
+            targetFileStats.forEach(SpillPathStats::writeFinished);
+        }
     }
 
-    private Iterator<Page> readPages()
+    private Iterator<Page> readPages(boolean prefetch)
     {
         checkState(writable, "Repeated reads are disallowed to prevent potential resource leaks");
         writable = false;
 
         try {
-            InputStream input = closer.register(targetFile.newInputStream());
-            Iterator<Page> pages = PagesSerdeUtil.readPages(serde, new InputStreamSliceInput(input, BUFFER_SIZE));
-            return closeWhenExhausted(pages, input);
+            Closer channelCloser = closer.register(Closer.create());
+            List<Iterator<SerializedPage>> stripes = new ArrayList<>(targetFiles.size());
+            for (FileHolder targetFile : targetFiles) {
+                FileChannel channel = channelCloser.register(targetFile.newFileChannel(READ));
+                stripes.add(new PositionalSerializedPageReader(channel));
+            }
+            Iterator<Page> pages = transform(new StripedIterator<>(stripes), serde::deserialize);
+            if (prefetch) {
+                pages = new PrefetchingIterator(pages, executor, this::setPrefetchedPageBytes);
+            }
+            return closeWhenExhausted(pages, channelCloser);
         }
         catch (IOException e) {
             throw new PrestoException(GENERIC_INTERNAL_ERROR, "Failed to read spilled pages", e);
         }
     }
 
+    private synchronized void setPrefetchedPageBytes(long bytes)
+    {
+        // the prefetch runs on the executor, and may complete after the spiller is closed
+        if (!closed) {
+            memoryContext.setBytes(bufferMemoryBytes + bytes);
+        }
+    }
+
     @Override
     public void close()
     {
         closer.register(localSpillContext);
-        closer.register(() -> memoryContext.setBytes(0));
+        closer.register(() -> {
+            synchronized (this) {
+                closed = true;
+                memoryContext.setBytes(0);
+            }
+        });
         try {
             closer.close();
         }
@@ -210,4 +276,79 @@ public class FileSingleStreamSpiller
             }
         };
     }
+
+    /**
+     * Takes elements from the stripes round-robin. Since pages are assigned to stripes round-robin,
+     * the first exhausted stripe marks the end of the data.
+     */
+    private static class StripedIterator<T>
+            extends AbstractIterator<T>
+    {
+        private final List<Iterator<T>> stripes;
+        private int nextStripe;
+
+        StripedIterator(List<Iterator<T>> stripes)
+        {
+            this.stripes = ImmutableList.copyOf(requireNonNull(stripes, "stripes is null"));
+        }
+
+        @Override
+        protected T computeNext()
+        {
+            Iterator<T> stripe = stripes.get(nextStripe);
+            if (!stripe.hasNext()) {
+                return endOfData();
+            }
+            nextStripe = (nextStripe + 1) % stripes.size();
+            return stripe.next();
+        }
+    }
+
+    /**
+     * Reads the next page of the underlying iterator on the executor while the current one is being processed.
+     * The prefetched page is accounted until it is returned, at which point the caller takes over its accounting.
+     */
+    private static class PrefetchingIterator
+            extends AbstractIterator<Page>
+    {
+        private final Iterator<Page> iterator;
+        private final ListeningExecutorService executor;
+        private final LongConsumer prefetchedPageBytes;
+
+        private ListenableFuture<Optional<Page>> nextPage;
+
+        PrefetchingIterator(Iterator<Page> iterator, ListeningExecutorService executor, LongConsumer prefetchedPageBytes)
+        {
+            this.iterator = requireNonNull(iterator, "iterator is null");
+            this.executor = requireNonNull(executor, "executor is null");
+            this.prefetchedPageBytes = requireNonNull(prefetchedPageBytes, "prefetchedPageBytes is null");
+        }
+
+        @Override
+        protected Page computeNext()
+        {
+            if (nextPage == null) {
+                nextPage = prefetch();
+            }
+            Optional<Page> page = getFutureValue(nextPage);
+            prefetchedPageBytes.accept(0);
+            if (!page.isPresent()) {
+                return endOfData();
+            }
+            nextPage = prefetch();
+            return page.get();
+        }
+
+        private ListenableFuture<Optional<Page>> prefetch()
+        {
+            return executor.submit(() -> {
+                if (!iterator.hasNext()) {
+                    return Optional.empty();
+                }
+                Page page = iterator.next();
+                prefetchedPageBytes.accept(page.getRetainedSizeInBytes());
+                return Optional.of(page);
+            });
+        }
+    }
 }
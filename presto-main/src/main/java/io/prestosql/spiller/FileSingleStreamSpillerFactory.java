@@ -39,13 +39,18 @@ import java.nio.file.DirectoryStream;
 import java.nio.file.FileStore;
 import java.nio.file.Path;
 import java.time.Duration;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
 
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.collect.ImmutableList.toImmutableList;
 import static com.google.common.util.concurrent.MoreExecutors.listeningDecorator;
 import static io.airlift.concurrent.Threads.daemonThreadsNamed;
 import static io.prestosql.spi.StandardErrorCode.OUT_OF_SPILL_SPACE;
+import static io.prestosql.spi.block.PageBuilderStatus.DEFAULT_MAX_PAGE_SIZE_IN_BYTES;
 import static io.prestosql.sql.analyzer.FeaturesConfig.SPILLER_SPILL_PATH;
+import static java.lang.Math.min;
 import static java.lang.String.format;
 import static java.nio.file.Files.createDirectories;
 import static java.nio.file.Files.createTempFile;
@@ -56,11 +61,12 @@ import static java.nio.file.Files.isExecutable;
 import static java.nio.file.Files.isReadable;
 import static java.nio.file.Files.isWritable;
 import static java.nio.file.Files.newDirectoryStream;
+import static java.util.Comparator.comparingDouble;
 import static java.util.Objects.requireNonNull;
 import static java.util.concurrent.Executors.newFixedThreadPool;
 
 public class FileSingleStreamSpillerFactory
-        implements SingleStreamSpillerFactory
+        implements SingleStreamSpillerFactory, SerializedPageSpillerFactory
 {
     private static final Logger log = Logger.get(FileSingleStreamSpillerFactory.class);
 
@@ -77,6 +83,7 @@ public class FileSingleStreamSpillerFactory
     private final SpillerStats spillerStats;
     private final double maxUsedSpaceThreshold;
     private final boolean spillEncryptionEnabled;
+    private final int stripeCount;
     private int roundRobinIndex;
     private final LoadingCache<Path, Boolean> spillPathHealthCache;
 
@@ -92,7 +99,8 @@ public class FileSingleStreamSpillerFactory
                 requireNonNull(featuresConfig, "featuresConfig is null").getSpillerSpillPaths(),
                 requireNonNull(featuresConfig, "featuresConfig is null").getSpillMaxUsedSpaceThreshold(),
                 requireNonNull(nodeSpillConfig, "nodeSpillConfig is null").isSpillCompressionEnabled(),
-                requireNonNull(nodeSpillConfig, "nodeSpillConfig is null").isSpillEncryptionEnabled());
+                requireNonNull(nodeSpillConfig, "nodeSpillConfig is null").isSpillEncryptionEnabled(),
+                requireNonNull(featuresConfig, "featuresConfig is null").getSpillerStripeCount());
     }
 
     @VisibleForTesting
@@ -104,6 +112,20 @@ public class FileSingleStreamSpillerFactory
             double maxUsedSpaceThreshold,
             boolean spillCompressionEnabled,
             boolean spillEncryptionEnabled)
+    {
+        this(executor, blockEncodingSerde, spillerStats, spillPaths, maxUsedSpaceThreshold, spillCompressionEnabled, spillEncryptionEnabled, 1);
+    }
+
+    @VisibleForTesting
+    public FileSingleStreamSpillerFactory(
+            ListeningExecutorService executor,
+            BlockEncodingSerde blockEncodingSerde,
+            SpillerStats spillerStats,
+            List<Path> spillPaths,
+            double maxUsedSpaceThreshold,
+            boolean spillCompressionEnabled,
+            boolean spillEncryptionEnabled,
+            int stripeCount)
     {
         this.serdeFactory = new PagesSerdeFactory(blockEncodingSerde, spillCompressionEnabled);
         this.executor = requireNonNull(executor, "executor is null");
@@ -123,6 +145,8 @@ public class FileSingleStreamSpillerFactory
         });
         this.maxUsedSpaceThreshold = maxUsedSpaceThreshold;
         this.spillEncryptionEnabled = spillEncryptionEnabled;
+        checkArgument(stripeCount >= 1, "stripeCount must be at least 1");
+        this.stripeCount = stripeCount;
         this.roundRobinIndex = 0;
 
         this.spillPathHealthCache = CacheBuilder.newBuilder()
@@ -168,24 +192,73 @@ public class FileSingleStreamSpillerFactory
             spillCipher = Optional.of(new AesSpillCipher());
         }
         PagesSerde serde = serdeFactory.createPagesSerdeForSpill(spillCipher);
-        return new FileSingleStreamSpiller(serde, executor, getNextSpillPath(), spillerStats, spillContext, memoryContext, spillCipher);
+        return new FileSingleStreamSpiller(serde, executor, getNextSpillPaths(), spillerStats, spillContext, memoryContext, spillCipher);
     }
 
-    private synchronized Path getNextSpillPath()
+    @Override
+    public SerializedPageSpiller create()
     {
+        Optional<SpillCipher> spillCipher = Optional.empty();
+        if (spillEncryptionEnabled) {
+            spillCipher = Optional.of(new AesSpillCipher());
+        }
+        // the least busy path
+        return new FileSerializedPageSpiller(getNextSpillPaths().get(0), executor, spillerStats, spillCipher);
+    }
+
+    /**
+     * Picks up to {@code stripeCount} healthy spill paths with the least pending work relative to their recent write throughput.
+     * Paths with equal pending work (e.g. idle paths) are picked round-robin.
+     */
+    private synchronized List<Path> getNextSpillPaths()
+    {
+        if (spillPaths.isEmpty()) {
+            throw new PrestoException(OUT_OF_SPILL_SPACE, "No spill paths configured");
+        }
+
         int spillPathsCount = spillPaths.size();
+        List<Integer> candidates = new ArrayList<>();
         for (int i = 0; i < spillPathsCount; ++i) {
             int pathIndex = (roundRobinIndex + i) % spillPathsCount;
             Path path = spillPaths.get(pathIndex);
             if (hasEnoughDiskSpace(path) && spillPathHealthCache.getUnchecked(path)) {
-                roundRobinIndex = (roundRobinIndex + i + 1) % spillPathsCount;
-                return path;
+                candidates.add(pathIndex);
             }
         }
-        if (spillPaths.isEmpty()) {
-            throw new PrestoException(OUT_OF_SPILL_SPACE, "No spill paths configured");
+        if (candidates.isEmpty()) {
+            throw new PrestoException(OUT_OF_SPILL_SPACE, "No free or healthy space available for spill");
+        }
+
+        // paths that have not been written to recently are assumed to be as fast as the fastest known path
+        double defaultThroughput = candidates.stream()
+                .mapToDouble(pathIndex -> spillerStats.getSpillPathStats(spillPaths.get(pathIndex)).getRecentWriteThroughput())
+                .max()
+                .orElse(0);
+        if (defaultThroughput <= 0) {
+            defaultThroughput = 1;
+        }
+
+        // stable sort keeps the round-robin order between paths with the same cost
+        double finalDefaultThroughput = defaultThroughput;
+        candidates.sort(comparingDouble(pathIndex -> getPendingWriteCost(spillPaths.get(pathIndex), finalDefaultThroughput)));
+
+        List<Path> selected = candidates.subList(0, min(stripeCount, candidates.size())).stream()
+                .map(spillPaths::get)
+                .collect(toImmutableList());
+        roundRobinIndex = (candidates.get(0) + 1) % spillPathsCount;
+        return selected;
+    }
+
+    private double getPendingWriteCost(Path path, double defaultThroughput)
+    {
+        SpillPathStats stats = spillerStats.getSpillPathStats(path);
+        double throughput = stats.getRecentWriteThroughput();
+        if (throughput <= 0) {
+            throughput = defaultThroughput;
         }
-        throw new PrestoException(OUT_OF_SPILL_SPACE, "No free or healthy space available for spill");
+        // an active write is counted as one page worth of pending bytes in addition to the bytes not yet written
+        double pendingBytes = stats.getOutstandingBytes() + (double) stats.getActiveWrites() * DEFAULT_MAX_PAGE_SIZE_IN_BYTES;
+        return pendingBytes / throughput;
     }
 
     private boolean hasEnoughDiskSpace(Path path)
@@ -21,6 +21,10 @@ import java.io.IOException;
 import java.util.Iterator;
 import java.util.function.IntPredicate;
 
+import static com.google.common.util.concurrent.Futures.immediateFuture;
+import static com.google.common.util.concurrent.Futures.transformAsync;
+import static com.google.common.util.concurrent.MoreExecutors.directExecutor;
+import static io.airlift.concurrent.MoreFutures.getFutureValue;
 import static java.util.Objects.requireNonNull;
 
 public interface PartitioningSpiller
@@ -34,6 +38,24 @@ public interface PartitioningSpiller
      */
     PartitioningSpillResult partitionAndSpill(Page page, IntPredicate spillPartitionMask);
 
+    /**
+     * Partition and spill all the pages, one page at a time. The returned future is completed
+     * when all the pages are spilled.
+     * <p>
+     * This method may not be called if previously initiated spilling is not finished yet.
+     */
+    default ListenableFuture<?> spill(Iterator<Page> pages)
+    {
+        while (pages.hasNext()) {
+            ListenableFuture<?> future = partitionAndSpill(pages.next(), partition -> true).getSpillingFuture();
+            if (!future.isDone()) {
+                return transformAsync(future, ignored -> spill(pages), directExecutor());
+            }
+            getFutureValue(future);
+        }
+        return immediateFuture(null);
+    }
+
     /**
      * Returns iterator of previously spilled pages from given partition. Callers are expected to call
      * this method once. Calling multiple times can results in undefined behavior.
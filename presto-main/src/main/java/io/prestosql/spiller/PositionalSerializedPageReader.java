@@ -0,0 +1,109 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.prestosql.spiller;
+
+import com.google.common.collect.AbstractIterator;
+import io.airlift.slice.Slices;
+import io.prestosql.execution.buffer.SerializedPage;
+
+import javax.annotation.concurrent.NotThreadSafe;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+
+import static io.prestosql.execution.buffer.PagesSerdeUtil.SERIALIZED_PAGE_HEADER_SIZE;
+import static io.prestosql.execution.buffer.PagesSerdeUtil.getSerializedPageLength;
+import static io.prestosql.execution.buffer.PagesSerdeUtil.readSerializedPage;
+import static java.lang.String.format;
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Reads pages written with {@link io.prestosql.execution.buffer.PagesSerdeUtil#writeSerializedPage}
+ * with positional reads of the file. Every page is read straight into a heap array of its own,
+ * which the returned page then wraps, so the page data is copied only once. The header of the next
+ * page is read along with the page, so a page takes a single read.
+ */
+@NotThreadSafe
+class PositionalSerializedPageReader
+        extends AbstractIterator<SerializedPage>
+{
+    private final FileChannel channel;
+    private final long fileSize;
+
+    private final byte[] header = new byte[SERIALIZED_PAGE_HEADER_SIZE];
+    private boolean headerLoaded;
+    private long position;
+
+    public PositionalSerializedPageReader(FileChannel channel)
+    {
+        this.channel = requireNonNull(channel, "channel is null");
+        try {
+            this.fileSize = channel.size();
+        }
+        catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Override
+    protected SerializedPage computeNext()
+    {
+        if (!headerLoaded) {
+            if (position >= fileSize) {
+                return endOfData();
+            }
+            readFully(header, 0, SERIALIZED_PAGE_HEADER_SIZE);
+        }
+
+        int pageLength = getSerializedPageLength(Slices.wrappedBuffer(header), 0);
+        int bodyLength = pageLength - SERIALIZED_PAGE_HEADER_SIZE;
+        checkAvailable(bodyLength);
+        int nextHeaderLength = fileSize - position - bodyLength >= SERIALIZED_PAGE_HEADER_SIZE ? SERIALIZED_PAGE_HEADER_SIZE : 0;
+
+        byte[] buffer = new byte[pageLength + nextHeaderLength];
+        System.arraycopy(header, 0, buffer, 0, SERIALIZED_PAGE_HEADER_SIZE);
+        readFully(buffer, SERIALIZED_PAGE_HEADER_SIZE, bodyLength + nextHeaderLength);
+        System.arraycopy(buffer, pageLength, header, 0, nextHeaderLength);
+        headerLoaded = nextHeaderLength > 0;
+
+        return readSerializedPage(Slices.wrappedBuffer(buffer, 0, pageLength).getInput());
+    }
+
+    private void readFully(byte[] buffer, int offset, int length)
+    {
+        checkAvailable(length);
+        ByteBuffer target = ByteBuffer.wrap(buffer, offset, length);
+        try {
+            while (target.hasRemaining()) {
+                int bytesRead = channel.read(target, position);
+                if (bytesRead < 0) {
+                    throw new IOException(format("Spill file is truncated: unexpected end of file at offset %s", position));
+                }
+                position += bytesRead;
+            }
+        }
+        catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private void checkAvailable(int length)
+    {
+        if (length < 0 || position + length > fileSize) {
+            throw new UncheckedIOException(new IOException(format("Spill file is truncated: expected %s bytes at offset %s, but file size is %s", length, position, fileSize)));
+        }
+    }
+}
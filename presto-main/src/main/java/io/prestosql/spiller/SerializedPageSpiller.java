@@ -0,0 +1,40 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.prestosql.spiller;
+
+import com.google.common.util.concurrent.ListenableFuture;
+import io.prestosql.execution.buffer.SerializedPage;
+
+import java.io.Closeable;
+import java.util.function.Supplier;
+
+/**
+ * Spills pages that are already serialized (e.g. pages of an output buffer) and reads them back one by one, in any order.
+ */
+public interface SerializedPageSpiller
+        extends Closeable
+{
+    /**
+     * Writes the page to disk.
+     *
+     * @return supplier that starts reading the page back from disk, until the spiller is closed
+     */
+    Supplier<ListenableFuture<SerializedPage>> spill(SerializedPage page);
+
+    /**
+     * Removes the spilled data from disk.
+     */
+    @Override
+    void close();
+}
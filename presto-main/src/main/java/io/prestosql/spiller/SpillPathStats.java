@@ -0,0 +1,101 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.prestosql.spiller;
+
+import io.airlift.stats.CounterStat;
+import io.airlift.stats.DecayCounter;
+import io.airlift.stats.ExponentialDecay;
+import org.weakref.jmx.Managed;
+import org.weakref.jmx.Nested;
+
+import javax.annotation.concurrent.ThreadSafe;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static java.util.concurrent.TimeUnit.SECONDS;
+
+/**
+ * Write statistics of a single spill path, used to balance spills between paths.
+ */
+@ThreadSafe
+public class SpillPathStats
+{
+    private final AtomicInteger activeWrites = new AtomicInteger();
+    private final AtomicLong outstandingBytes = new AtomicLong();
+    private final CounterStat writtenBytes = new CounterStat();
+    private final DecayCounter recentWrittenBytes = new DecayCounter(ExponentialDecay.oneMinute());
+    private final DecayCounter recentWriteNanos = new DecayCounter(ExponentialDecay.oneMinute());
+
+    public void writeStarted()
+    {
+        activeWrites.incrementAndGet();
+    }
+
+    public void writeFinished()
+    {
+        activeWrites.decrementAndGet();
+    }
+
+    public void pageWriteStarted(long bytes)
+    {
+        outstandingBytes.addAndGet(bytes);
+    }
+
+    public void pageWriteFinished(long bytes, long nanos)
+    {
+        outstandingBytes.addAndGet(-bytes);
+        writtenBytes.update(bytes);
+        recentWrittenBytes.add(bytes);
+        recentWriteNanos.add(nanos);
+    }
+
+    /**
+     * Number of spills that are currently writing to this path
+     */
+    @Managed
+    public int getActiveWrites()
+    {
+        return activeWrites.get();
+    }
+
+    /**
+     * Number of bytes handed to the spill files on this path that have not been written yet
+     */
+    @Managed
+    public long getOutstandingBytes()
+    {
+        return outstandingBytes.get();
+    }
+
+    @Managed
+    @Nested
+    public CounterStat getWrittenBytes()
+    {
+        return writtenBytes;
+    }
+
+    /**
+     * Recent write throughput in bytes per second, or 0 if nothing was written recently
+     */
+    @Managed
+    public double getRecentWriteThroughput()
+    {
+        double nanos = recentWriteNanos.getCount();
+        if (nanos <= 0) {
+            return 0;
+        }
+        return recentWrittenBytes.getCount() * SECONDS.toNanos(1) / nanos;
+    }
+}
@@ -0,0 +1,73 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.prestosql.spiller;
+
+import io.prestosql.sql.analyzer.FeaturesConfig;
+import org.weakref.jmx.JmxException;
+import org.weakref.jmx.MBeanExporter;
+import org.weakref.jmx.ObjectNames;
+
+import javax.annotation.PreDestroy;
+import javax.annotation.concurrent.GuardedBy;
+import javax.inject.Inject;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static java.util.Objects.requireNonNull;
+
+public final class SpillPathStatsExporter
+{
+    private final MBeanExporter exporter;
+    @GuardedBy("this")
+    private final List<Path> spillPaths = new ArrayList<>();
+
+    @Inject
+    public SpillPathStatsExporter(FeaturesConfig featuresConfig, SpillerStats spillerStats, MBeanExporter exporter)
+    {
+        requireNonNull(featuresConfig, "featuresConfig is null");
+        requireNonNull(spillerStats, "spillerStats is null");
+        this.exporter = requireNonNull(exporter, "exporter is null");
+        for (Path spillPath : featuresConfig.getSpillerSpillPaths()) {
+            addSpillPath(spillPath, spillerStats.getSpillPathStats(spillPath));
+        }
+    }
+
+    private synchronized void addSpillPath(Path spillPath, SpillPathStats spillPathStats)
+    {
+        try {
+            exporter.exportWithGeneratedName(spillPathStats, SpillPathStats.class, spillPath.toString());
+            spillPaths.add(spillPath);
+        }
+        catch (JmxException e) {
+            // ignored
+        }
+    }
+
+    @PreDestroy
+    public synchronized void destroy()
+    {
+        for (Path spillPath : spillPaths) {
+            String objectName = ObjectNames.builder(SpillPathStats.class, spillPath.toString()).build();
+            try {
+                exporter.unexport(objectName);
+            }
+            catch (JmxException e) {
+                // ignored
+            }
+        }
+        spillPaths.clear();
+    }
+}
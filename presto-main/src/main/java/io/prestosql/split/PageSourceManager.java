@@ -24,6 +24,7 @@ import io.prestosql.spi.connector.EmptyPageSource;
 import io.prestosql.spi.predicate.TupleDomain;
 
 import java.util.List;
+import java.util.Optional;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
 import java.util.function.Supplier;
@@ -70,6 +71,22 @@ public class PageSourceManager
                 constraint);
     }
 
+    @Override
+    public Optional<String> getCacheKey(Session session, Split split, TableHandle table, List<ColumnHandle> columns)
+    {
+        requireNonNull(columns, "columns is null");
+        checkArgument(split.getCatalogName().equals(table.getCatalogName()), "mismatched split and table");
+        CatalogName catalogName = split.getCatalogName();
+
+        return getPageSourceProvider(catalogName).getCacheKey(
+                table.getTransaction(),
+                session.toConnectorSession(catalogName),
+                split.getConnectorSplit(),
+                table.getConnectorHandle(),
+                columns)
+                .map(key -> catalogName + ":" + key);
+    }
+
     private ConnectorPageSourceProvider getPageSourceProvider(CatalogName catalogName)
     {
         ConnectorPageSourceProvider provider = pageSourceProviders.get(catalogName);
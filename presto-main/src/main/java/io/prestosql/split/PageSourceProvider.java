@@ -21,6 +21,7 @@ import io.prestosql.spi.connector.ConnectorPageSource;
 import io.prestosql.spi.predicate.TupleDomain;
 
 import java.util.List;
+import java.util.Optional;
 import java.util.function.Supplier;
 
 public interface PageSourceProvider
@@ -31,4 +32,12 @@ public interface PageSourceProvider
             TableHandle table,
             List<ColumnHandle> columns,
             Supplier<TupleDomain<ColumnHandle>> dynamicFilter);
+
+    /**
+     * Returns a key identifying the rows of the page source for these arguments, or empty if they must not be cached.
+     */
+    default Optional<String> getCacheKey(Session session, Split split, TableHandle table, List<ColumnHandle> columns)
+    {
+        return Optional.empty();
+    }
 }
@@ -506,6 +506,18 @@ public class Analysis
                 .collect(toImmutableList());
     }
 
+    public boolean hasViews()
+    {
+        return tables.values().stream()
+                .anyMatch(entry -> !entry.getHandle().isPresent());
+    }
+
+    public boolean hasRowFiltersOrColumnMasks()
+    {
+        return tables.values().stream()
+                .anyMatch(entry -> !entry.getFilters().isEmpty() || !entry.getColumnMasks().isEmpty());
+    }
+
     public void registerTable(
             Table table,
             Optional<TableHandle> handle,
@@ -522,6 +534,13 @@ public class Analysis
         return resolvedFunctions.get(NodeRef.of(function)).getFunction();
     }
 
+    public List<ResolvedFunction> getResolvedFunctions()
+    {
+        return resolvedFunctions.values().stream()
+                .map(RoutineEntry::getFunction)
+                .collect(toImmutableList());
+    }
+
     public void addResolvedFunction(FunctionCall node, ResolvedFunction function, String authorization)
     {
         resolvedFunctions.put(NodeRef.of(node), new RoutineEntry(function, authorization));
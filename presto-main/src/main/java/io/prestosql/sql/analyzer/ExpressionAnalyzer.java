@@ -36,6 +36,7 @@ import io.prestosql.spi.PrestoWarning;
 import io.prestosql.spi.function.OperatorType;
 import io.prestosql.spi.type.CharType;
 import io.prestosql.spi.type.DecimalParseResult;
+import io.prestosql.spi.type.DecimalType;
 import io.prestosql.spi.type.Decimals;
 import io.prestosql.spi.type.RowType;
 import io.prestosql.spi.type.Type;
@@ -104,6 +105,7 @@ import io.prestosql.sql.tree.TimeLiteral;
 import io.prestosql.sql.tree.TimestampLiteral;
 import io.prestosql.sql.tree.TryExpression;
 import io.prestosql.sql.tree.WhenClause;
+import io.prestosql.sql.tree.Window;
 import io.prestosql.sql.tree.WindowFrame;
 import io.prestosql.type.FunctionType;
 import io.prestosql.type.TypeCoercion;
@@ -127,12 +129,15 @@ import static io.prestosql.spi.StandardErrorCode.EXPRESSION_NOT_CONSTANT;
 import static io.prestosql.spi.StandardErrorCode.INVALID_FUNCTION_ARGUMENT;
 import static io.prestosql.spi.StandardErrorCode.INVALID_LITERAL;
 import static io.prestosql.spi.StandardErrorCode.INVALID_PARAMETER_USAGE;
+import static io.prestosql.spi.StandardErrorCode.INVALID_WINDOW_FRAME;
 import static io.prestosql.spi.StandardErrorCode.NOT_SUPPORTED;
 import static io.prestosql.spi.StandardErrorCode.TOO_MANY_ARGUMENTS;
 import static io.prestosql.spi.StandardErrorCode.TYPE_MISMATCH;
 import static io.prestosql.spi.StandardErrorCode.TYPE_NOT_FOUND;
 import static io.prestosql.spi.connector.StandardWarningCode.DEPRECATED_FUNCTION;
+import static io.prestosql.spi.function.OperatorType.ADD;
 import static io.prestosql.spi.function.OperatorType.SUBSCRIPT;
+import static io.prestosql.spi.function.OperatorType.SUBTRACT;
 import static io.prestosql.spi.type.BigintType.BIGINT;
 import static io.prestosql.spi.type.BooleanType.BOOLEAN;
 import static io.prestosql.spi.type.DateType.DATE;
@@ -157,6 +162,7 @@ import static io.prestosql.sql.analyzer.TypeSignatureTranslator.toTypeSignature;
 import static io.prestosql.sql.tree.ArrayConstructor.ARRAY_CONSTRUCTOR;
 import static io.prestosql.sql.tree.Extract.Field.TIMEZONE_HOUR;
 import static io.prestosql.sql.tree.Extract.Field.TIMEZONE_MINUTE;
+import static io.prestosql.sql.tree.WindowFrame.Type.RANGE;
 import static io.prestosql.type.ArrayParametricType.ARRAY;
 import static io.prestosql.type.IntervalDayTimeType.INTERVAL_DAY_TIME;
 import static io.prestosql.type.IntervalYearMonthType.INTERVAL_YEAR_MONTH;
@@ -890,14 +896,20 @@ public class ExpressionAnalyzer
 
                     if (frame.getStart().getValue().isPresent()) {
                         Type type = process(frame.getStart().getValue().get(), context);
-                        if (!type.equals(INTEGER) && !type.equals(BIGINT)) {
+                        if (frame.getType() == RANGE) {
+                            analyzeFrameRangeOffset(node, node.getWindow().get(), type);
+                        }
+                        else if (!type.equals(INTEGER) && !type.equals(BIGINT)) {
                             throw semanticException(TYPE_MISMATCH, node, "Window frame start value type must be INTEGER or BIGINT(actual %s)", type);
                         }
                     }
 
                     if (frame.getEnd().isPresent() && frame.getEnd().get().getValue().isPresent()) {
                         Type type = process(frame.getEnd().get().getValue().get(), context);
-                        if (!type.equals(INTEGER) && !type.equals(BIGINT)) {
+                        if (frame.getType() == RANGE) {
+                            analyzeFrameRangeOffset(node, node.getWindow().get(), type);
+                        }
+                        else if (!type.equals(INTEGER) && !type.equals(BIGINT)) {
                             throw semanticException(TYPE_MISMATCH, node, "Window frame end value type must be INTEGER or BIGINT (actual %s)", type);
                         }
                     }
@@ -1376,6 +1388,35 @@ public class ExpressionAnalyzer
             }
         }
 
+        private void analyzeFrameRangeOffset(FunctionCall node, Window window, Type offsetType)
+        {
+            List<SortItem> sortItems = getSortItemsFromOrderBy(window.getOrderBy());
+            if (sortItems.size() != 1) {
+                throw semanticException(INVALID_WINDOW_FRAME, node, "Window frame of type RANGE PRECEDING or FOLLOWING requires single sort item in ORDER BY (actual: %s)", sortItems.size());
+            }
+            Type sortKeyType = getExpressionType(sortItems.get(0).getSortKey());
+
+            // the frame bounds are computed as the sort key plus or minus the offset, and must have the type of the sort key
+            if (isNumericType(sortKeyType)) {
+                if (!isNumericType(offsetType) || !typeCoercion.canCoerce(offsetType, sortKeyType)) {
+                    throw semanticException(TYPE_MISMATCH, node, "Window frame RANGE offset type (%s) cannot be coerced to sort key type (%s)", offsetType, sortKeyType);
+                }
+                return;
+            }
+            for (OperatorType operatorType : ImmutableList.of(ADD, SUBTRACT)) {
+                Type boundType;
+                try {
+                    boundType = metadata.getType(metadata.resolveOperator(operatorType, ImmutableList.of(sortKeyType, offsetType)).getSignature().getReturnType());
+                }
+                catch (OperatorNotFoundException e) {
+                    throw semanticException(TYPE_MISMATCH, node, "Window frame RANGE offset type (%s) is not compatible with sort key type (%s)", offsetType, sortKeyType);
+                }
+                if (!boundType.equals(sortKeyType)) {
+                    throw semanticException(TYPE_MISMATCH, node, "Window frame RANGE offset type (%s) is not compatible with sort key type (%s)", offsetType, sortKeyType);
+                }
+            }
+        }
+
         private Type getOperator(StackableAstVisitorContext<Context> context, Expression node, OperatorType operatorType, Expression... arguments)
         {
             ImmutableList.Builder<Type> argumentTypes = ImmutableList.builder();
@@ -1485,6 +1526,17 @@ public class ExpressionAnalyzer
         }
     }
 
+    public static boolean isNumericType(Type type)
+    {
+        return type.equals(TINYINT) ||
+                type.equals(SMALLINT) ||
+                type.equals(INTEGER) ||
+                type.equals(BIGINT) ||
+                type.equals(REAL) ||
+                type.equals(DOUBLE) ||
+                type instanceof DecimalType;
+    }
+
     private static class Context
     {
         private final Scope scope;
@@ -91,6 +91,7 @@ public class FeaturesConfig
     private boolean unwrapCasts = true;
     private boolean forceSingleNodeOutput = true;
     private boolean pagesIndexEagerCompactionEnabled;
+    private boolean pagesIndexPrefixSortEnabled = true;
     private boolean distributedSort = true;
 
     private boolean dictionaryAggregation;
@@ -107,6 +108,7 @@ public class FeaturesConfig
     private DataSize aggregationOperatorUnspillMemoryLimit = DataSize.of(4, DataSize.Unit.MEGABYTE);
     private List<Path> spillerSpillPaths = ImmutableList.of();
     private int spillerThreads = 4;
+    private int spillerStripeCount = 1;
     private double spillMaxUsedSpaceThreshold = 0.9;
     private boolean iterativeOptimizerEnabled = true;
     private boolean enableStatsCalculator = true;
@@ -126,6 +128,11 @@ public class FeaturesConfig
     private boolean skipRedundantSort = true;
     private boolean predicatePushdownUseTableProperties = true;
     private boolean ignoreDownstreamPreferences;
+    private boolean offHeapHashTableEnabled;
+    private boolean joinBatchProbeEnabled;
+    private boolean adaptivePartialAggregationEnabled;
+    private long adaptivePartialAggregationMinRows = 100_000;
+    private double adaptivePartialAggregationUniqueRowsRatioThreshold = 0.8;
 
     private Duration iterativeOptimizerTimeout = new Duration(3, MINUTES); // by default let optimizer wait a long time in case it retrieves some data from ConnectorMetadata
     private boolean enableDynamicFiltering = true;
@@ -702,6 +709,20 @@ public class FeaturesConfig
         return this;
     }
 
+    @Min(1)
+    public int getSpillerStripeCount()
+    {
+        return spillerStripeCount;
+    }
+
+    @Config("spiller-stripe-count")
+    @ConfigDescription("Number of spill paths a single spill is striped across")
+    public FeaturesConfig setSpillerStripeCount(int spillerStripeCount)
+    {
+        this.spillerStripeCount = spillerStripeCount;
+        return this;
+    }
+
     @DecimalMin("0.0")
     @DecimalMax("1.0")
     public double getMemoryRevokingThreshold()
@@ -908,6 +929,19 @@ public class FeaturesConfig
         return this;
     }
 
+    public boolean isPagesIndexPrefixSortEnabled()
+    {
+        return pagesIndexPrefixSortEnabled;
+    }
+
+    @Config("pages-index.prefix-sort-enabled")
+    @ConfigDescription("Sort by a normalized prefix of the first sort key before comparing whole rows")
+    public FeaturesConfig setPagesIndexPrefixSortEnabled(boolean pagesIndexPrefixSortEnabled)
+    {
+        this.pagesIndexPrefixSortEnabled = pagesIndexPrefixSortEnabled;
+        return this;
+    }
+
     @MaxDataSize("1MB")
     public DataSize getFilterAndProjectMinOutputPageSize()
     {
@@ -1044,4 +1078,72 @@ public class FeaturesConfig
         this.ignoreDownstreamPreferences = ignoreDownstreamPreferences;
         return this;
     }
+
+    public boolean isOffHeapHashTableEnabled()
+    {
+        return offHeapHashTableEnabled;
+    }
+
+    @Config("experimental.off-heap-hash-table.enabled")
+    @ConfigDescription("Keep the hash tables of joins and of aggregations on a single bigint column outside of the Java heap")
+    public FeaturesConfig setOffHeapHashTableEnabled(boolean offHeapHashTableEnabled)
+    {
+        this.offHeapHashTableEnabled = offHeapHashTableEnabled;
+        return this;
+    }
+
+    public boolean isJoinBatchProbeEnabled()
+    {
+        return joinBatchProbeEnabled;
+    }
+
+    @Config("experimental.join-batch-probe.enabled")
+    @ConfigDescription("Look up the join positions of a whole probe page at once when the join hash table supports it")
+    public FeaturesConfig setJoinBatchProbeEnabled(boolean joinBatchProbeEnabled)
+    {
+        this.joinBatchProbeEnabled = joinBatchProbeEnabled;
+        return this;
+    }
+
+    public boolean isAdaptivePartialAggregationEnabled()
+    {
+        return adaptivePartialAggregationEnabled;
+    }
+
+    @Config("adaptive-partial-aggregation.enabled")
+    @ConfigDescription("Stop partial aggregation and pass rows through when it does not reduce the number of rows enough")
+    public FeaturesConfig setAdaptivePartialAggregationEnabled(boolean adaptivePartialAggregationEnabled)
+    {
+        this.adaptivePartialAggregationEnabled = adaptivePartialAggregationEnabled;
+        return this;
+    }
+
+    @Min(0)
+    public long getAdaptivePartialAggregationMinRows()
+    {
+        return adaptivePartialAggregationMinRows;
+    }
+
+    @Config("adaptive-partial-aggregation.min-rows")
+    @ConfigDescription("Minimum number of rows a partial aggregation must process before it can be turned off")
+    public FeaturesConfig setAdaptivePartialAggregationMinRows(long adaptivePartialAggregationMinRows)
+    {
+        this.adaptivePartialAggregationMinRows = adaptivePartialAggregationMinRows;
+        return this;
+    }
+
+    @DecimalMin("0.0")
+    @DecimalMax("1.0")
+    public double getAdaptivePartialAggregationUniqueRowsRatioThreshold()
+    {
+        return adaptivePartialAggregationUniqueRowsRatioThreshold;
+    }
+
+    @Config("adaptive-partial-aggregation.unique-rows-ratio-threshold")
+    @ConfigDescription("Ratio of output rows to input rows above which partial aggregation is turned off")
+    public FeaturesConfig setAdaptivePartialAggregationUniqueRowsRatioThreshold(double adaptivePartialAggregationUniqueRowsRatioThreshold)
+    {
+        this.adaptivePartialAggregationUniqueRowsRatioThreshold = adaptivePartialAggregationUniqueRowsRatioThreshold;
+        return this;
+    }
 }
@@ -16,6 +16,7 @@ package io.prestosql.sql.planner;
 import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.ImmutableMultimap;
 import com.google.common.collect.Multimap;
+import com.google.common.util.concurrent.Futures;
 import com.google.common.util.concurrent.ListenableFuture;
 import com.google.common.util.concurrent.SettableFuture;
 import io.airlift.log.Logger;
@@ -39,6 +40,7 @@ import java.util.function.Consumer;
 import static com.google.common.base.MoreObjects.toStringHelper;
 import static com.google.common.base.Verify.verify;
 import static com.google.common.collect.ImmutableMap.toImmutableMap;
+import static com.google.common.util.concurrent.MoreExecutors.directExecutor;
 import static io.prestosql.sql.DynamicFilters.Descriptor;
 import static io.prestosql.sql.DynamicFilters.extractDynamicFilters;
 import static java.util.Objects.requireNonNull;
@@ -56,7 +58,8 @@ public class LocalDynamicFilter
 
     private final TypeProvider types;
 
-    private final SettableFuture<Map<Symbol, Domain>> resultFuture;
+    // The union of the predicates collected from all build-side partitions, keyed by dynamic filter ID.
+    private final SettableFuture<TupleDomain<String>> resultFuture;
 
     // Number of build-side partitions to be collected.
     private final int partitionCount;
@@ -68,7 +71,7 @@ public class LocalDynamicFilter
     {
         this.probeSymbols = requireNonNull(probeSymbols, "probeSymbols is null");
         this.buildChannels = requireNonNull(buildChannels, "buildChannels is null");
-        verify(probeSymbols.keySet().equals(buildChannels.keySet()), "probeSymbols and buildChannels must have same keys");
+        verify(buildChannels.keySet().containsAll(probeSymbols.keySet()), "probeSymbols must have a matching build channel");
         this.types = requireNonNull(types, "types is null");
 
         this.resultFuture = SettableFuture.create();
@@ -85,9 +88,8 @@ public class LocalDynamicFilter
         // See the comment at TupleDomain::columnWiseUnion() for more details.
         partitions.add(tupleDomain);
         if (partitions.size() == partitionCount) {
-            Map<Symbol, Domain> result = convertTupleDomain(TupleDomain.columnWiseUnion(partitions));
             // No more partitions are left to be processed.
-            resultFuture.set(result);
+            resultFuture.set(TupleDomain.columnWiseUnion(partitions));
         }
     }
 
@@ -138,9 +140,9 @@ public class LocalDynamicFilter
 
         Multimap<String, Symbol> probeSymbols = probeSymbolsBuilder.build();
         PlanNode buildNode = planNode.getRight();
+        // Dynamic filters without a local probe side (e.g. in case of partitioned joins) are still collected,
+        // so that the coordinator can merge them across tasks and apply them to the probe-side split sources.
         Map<String, Integer> buildChannels = planNode.getDynamicFilters().entrySet().stream()
-                // Skip build channels that don't match local probe dynamic filters.
-                .filter(entry -> probeSymbols.containsKey(entry.getKey()))
                 .collect(toImmutableMap(
                         // Dynamic filter ID
                         Map.Entry::getKey,
@@ -174,6 +176,11 @@ public class LocalDynamicFilter
     }
 
     public ListenableFuture<Map<Symbol, Domain>> getResultFuture()
+    {
+        return Futures.transform(resultFuture, this::convertTupleDomain, directExecutor());
+    }
+
+    public ListenableFuture<TupleDomain<String>> getDynamicFilterDomainsFuture()
     {
         return resultFuture;
     }
@@ -73,6 +73,7 @@ import io.prestosql.operator.OrderByOperator.OrderByOperatorFactory;
 import io.prestosql.operator.OutputFactory;
 import io.prestosql.operator.PagesIndex;
 import io.prestosql.operator.PagesSpatialIndexFactory;
+import io.prestosql.operator.PartialAggregationController;
 import io.prestosql.operator.PartitionFunction;
 import io.prestosql.operator.PartitionedLookupSourceFactory;
 import io.prestosql.operator.PartitionedOutputOperator.PartitionedOutputFactory;
@@ -85,6 +86,8 @@ import io.prestosql.operator.SourceOperatorFactory;
 import io.prestosql.operator.SpatialIndexBuilderOperator.SpatialIndexBuilderOperatorFactory;
 import io.prestosql.operator.SpatialIndexBuilderOperator.SpatialPredicate;
 import io.prestosql.operator.SpatialJoinOperator.SpatialJoinOperatorFactory;
+import io.prestosql.operator.SplitResultCache;
+import io.prestosql.operator.SplitResultCache.PipelineKey;
 import io.prestosql.operator.StageExecutionDescriptor;
 import io.prestosql.operator.StatisticsWriterOperator.StatisticsWriterOperatorFactory;
 import io.prestosql.operator.StreamingAggregationOperator;
@@ -124,6 +127,7 @@ import io.prestosql.spi.connector.ColumnHandle;
 import io.prestosql.spi.connector.ConnectorIndex;
 import io.prestosql.spi.connector.ConnectorSession;
 import io.prestosql.spi.connector.RecordSet;
+import io.prestosql.spi.predicate.Domain;
 import io.prestosql.spi.predicate.NullableValue;
 import io.prestosql.spi.predicate.TupleDomain;
 import io.prestosql.spi.type.Type;
@@ -183,6 +187,7 @@ import io.prestosql.sql.planner.plan.UnnestNode;
 import io.prestosql.sql.planner.plan.ValuesNode;
 import io.prestosql.sql.planner.plan.WindowNode;
 import io.prestosql.sql.planner.plan.WindowNode.Frame;
+import io.prestosql.sql.relational.DeterminismEvaluator;
 import io.prestosql.sql.relational.LambdaDefinitionExpression;
 import io.prestosql.sql.relational.RowExpression;
 import io.prestosql.sql.relational.SqlToRowExpressionTranslator;
@@ -193,6 +198,7 @@ import io.prestosql.sql.tree.LambdaArgumentDeclaration;
 import io.prestosql.sql.tree.LambdaExpression;
 import io.prestosql.sql.tree.NodeRef;
 import io.prestosql.sql.tree.SymbolReference;
+import io.prestosql.sql.tree.WindowFrame;
 import io.prestosql.type.FunctionType;
 
 import javax.inject.Inject;
@@ -225,6 +231,8 @@ import static com.google.common.collect.Iterables.concat;
 import static com.google.common.collect.Iterables.getOnlyElement;
 import static com.google.common.collect.Range.closedOpen;
 import static io.airlift.concurrent.MoreFutures.addSuccessCallback;
+import static io.prestosql.SystemSessionProperties.getAdaptivePartialAggregationMinRows;
+import static io.prestosql.SystemSessionProperties.getAdaptivePartialAggregationUniqueRowsRatioThreshold;
 import static io.prestosql.SystemSessionProperties.getAggregationOperatorUnspillMemoryLimit;
 import static io.prestosql.SystemSessionProperties.getDynamicFilteringMaxPerDriverRowCount;
 import static io.prestosql.SystemSessionProperties.getDynamicFilteringMaxPerDriverSize;
@@ -232,11 +240,13 @@ import static io.prestosql.SystemSessionProperties.getFilterAndProjectMinOutputP
 import static io.prestosql.SystemSessionProperties.getFilterAndProjectMinOutputPageSize;
 import static io.prestosql.SystemSessionProperties.getTaskConcurrency;
 import static io.prestosql.SystemSessionProperties.getTaskWriterCount;
+import static io.prestosql.SystemSessionProperties.isAdaptivePartialAggregationEnabled;
 import static io.prestosql.SystemSessionProperties.isExchangeCompressionEnabled;
 import static io.prestosql.SystemSessionProperties.isLateMaterializationEnabled;
 import static io.prestosql.SystemSessionProperties.isSpillEnabled;
 import static io.prestosql.SystemSessionProperties.isSpillOrderBy;
 import static io.prestosql.SystemSessionProperties.isSpillWindowOperator;
+import static io.prestosql.SystemSessionProperties.isSplitResultCacheEnabled;
 import static io.prestosql.operator.DistinctLimitOperator.DistinctLimitOperatorFactory;
 import static io.prestosql.operator.NestedLoopBuildOperator.NestedLoopBuildOperatorFactory;
 import static io.prestosql.operator.NestedLoopJoinOperator.NestedLoopJoinOperatorFactory;
@@ -315,6 +325,7 @@ public class LocalExecutionPlanner
     private final JoinCompiler joinCompiler;
     private final LookupJoinOperators lookupJoinOperators;
     private final OrderingCompiler orderingCompiler;
+    private final SplitResultCache splitResultCache;
 
     @Inject
     public LocalExecutionPlanner(
@@ -337,7 +348,8 @@ public class LocalExecutionPlanner
             PagesIndex.Factory pagesIndexFactory,
             JoinCompiler joinCompiler,
             LookupJoinOperators lookupJoinOperators,
-            OrderingCompiler orderingCompiler)
+            OrderingCompiler orderingCompiler,
+            SplitResultCache splitResultCache)
     {
         this.explainAnalyzeContext = requireNonNull(explainAnalyzeContext, "explainAnalyzeContext is null");
         this.pageSourceProvider = requireNonNull(pageSourceProvider, "pageSourceProvider is null");
@@ -362,6 +374,7 @@ public class LocalExecutionPlanner
         this.joinCompiler = requireNonNull(joinCompiler, "joinCompiler is null");
         this.lookupJoinOperators = requireNonNull(lookupJoinOperators, "lookupJoinOperators is null");
         this.orderingCompiler = requireNonNull(orderingCompiler, "orderingCompiler is null");
+        this.splitResultCache = requireNonNull(splitResultCache, "splitResultCache is null");
     }
 
     public LocalExecutionPlan plan(
@@ -602,6 +615,11 @@ public class LocalExecutionPlanner
             return types;
         }
 
+        public TaskContext getTaskContext()
+        {
+            return taskContext;
+        }
+
         public LocalDynamicFiltersCollector getDynamicFiltersCollector()
         {
             return dynamicFiltersCollector;
@@ -877,7 +895,9 @@ public class LocalExecutionPlanner
                     node.isPartial(),
                     hashChannel,
                     1000,
-                    joinCompiler);
+                    joinCompiler,
+                    isSpillEnabled(context.getSession()),
+                    partitioningSpillerFactory);
 
             return new PhysicalOperation(operatorFactory, makeLayout(node), context, source);
         }
@@ -919,7 +939,15 @@ public class LocalExecutionPlanner
                     frameEndChannel = Optional.of(source.getLayout().get(frame.getEndValue().get()));
                 }
 
-                FrameInfo frameInfo = new FrameInfo(frame.getType(), frame.getStartType(), frameStartChannel, frame.getEndType(), frameEndChannel);
+                Optional<Integer> sortKeyChannel = Optional.empty();
+                Optional<SortOrder> sortKeyOrder = Optional.empty();
+                if ((frame.getType() == WindowFrame.Type.RANGE) && (frameStartChannel.isPresent() || frameEndChannel.isPresent())) {
+                    // the frame bounds are compared with the single sort key
+                    sortKeyChannel = Optional.of(getOnlyElement(sortChannels));
+                    sortKeyOrder = Optional.of(getOnlyElement(sortOrder));
+                }
+
+                FrameInfo frameInfo = new FrameInfo(frame.getType(), frame.getStartType(), frameStartChannel, frame.getEndType(), frameEndChannel, sortKeyChannel, sortKeyOrder);
 
                 WindowNode.Function function = entry.getValue();
                 ResolvedFunction resolvedFunction = entry.getValue().getResolvedFunction();
@@ -1135,7 +1163,15 @@ public class LocalExecutionPlanner
 
             List<Integer> channels = getChannelsForSymbols(node.getDistinctSymbols(), source.getLayout());
             Optional<Integer> hashChannel = node.getHashSymbol().map(channelGetter(source));
-            MarkDistinctOperatorFactory operator = new MarkDistinctOperatorFactory(context.getNextOperatorId(), node.getId(), source.getTypes(), channels, hashChannel, joinCompiler);
+            MarkDistinctOperatorFactory operator = new MarkDistinctOperatorFactory(
+                    context.getNextOperatorId(),
+                    node.getId(),
+                    source.getTypes(),
+                    channels,
+                    hashChannel,
+                    joinCompiler,
+                    isSpillEnabled(context.getSession()),
+                    partitioningSpillerFactory);
             return new PhysicalOperation(operator, makeLayout(node), context, source);
         }
 
@@ -1268,6 +1304,7 @@ public class LocalExecutionPlanner
                 if (columns != null) {
                     Supplier<CursorProcessor> cursorProcessor = expressionCompiler.compileCursorProcessor(translatedFilter, translatedProjections, sourceNode.getId());
                     Supplier<PageProcessor> pageProcessor = expressionCompiler.compilePageProcessor(translatedFilter, translatedProjections, Optional.of(context.getStageId() + "_" + planNodeId));
+                    Optional<PipelineKey> resultCacheKey = getSplitResultCacheKey(session, filterExpression, translatedFilter, translatedProjections);
 
                     SourceOperatorFactory operatorFactory = new ScanFilterAndProjectOperatorFactory(
                             context.getNextOperatorId(),
@@ -1281,7 +1318,9 @@ public class LocalExecutionPlanner
                             dynamicFilterSupplier,
                             getTypes(projections, expressionTypes),
                             getFilterAndProjectMinOutputPageSize(session),
-                            getFilterAndProjectMinOutputPageRowCount(session));
+                            getFilterAndProjectMinOutputPageRowCount(session),
+                            resultCacheKey.map(key -> splitResultCache),
+                            resultCacheKey);
 
                     return new PhysicalOperation(operatorFactory, outputMappings, context, stageExecutionDescriptor.isScanGroupedExecution(sourceNode.getId()) ? GROUPED_EXECUTION : UNGROUPED_EXECUTION);
                 }
@@ -1330,6 +1369,22 @@ public class LocalExecutionPlanner
             return new PhysicalOperation(operatorFactory, makeLayout(node), context, stageExecutionDescriptor.isScanGroupedExecution(node.getId()) ? GROUPED_EXECUTION : UNGROUPED_EXECUTION);
         }
 
+        private Optional<PipelineKey> getSplitResultCacheKey(Session session, Optional<Expression> filterExpression, Optional<RowExpression> filter, List<RowExpression> projections)
+        {
+            if (!splitResultCache.isEnabled() || !isSplitResultCacheEnabled(session)) {
+                return Optional.empty();
+            }
+            // dynamic filters are pushed into the page source, which makes its output depend on the other side of a join
+            if (filterExpression.isPresent() && !extractDynamicFilters(filterExpression.get()).getDynamicConjuncts().isEmpty()) {
+                return Optional.empty();
+            }
+            DeterminismEvaluator determinismEvaluator = new DeterminismEvaluator(metadata);
+            if (!filter.map(determinismEvaluator::isDeterministic).orElse(true) || !projections.stream().allMatch(determinismEvaluator::isDeterministic)) {
+                return Optional.empty();
+            }
+            return Optional.of(new PipelineKey(session, filter, projections));
+        }
+
         private Optional<Expression> getStaticFilter(Expression filterExpression)
         {
             DynamicFilters.ExtractResult extractDynamicFilterResult = extractDynamicFilters(filterExpression);
@@ -1351,9 +1406,31 @@ public class LocalExecutionPlanner
                 return TupleDomain::all;
             }
             log.debug("[TableScan] Dynamic filters: %s", dynamicFilters);
+
+            // dynamic filters of joins in other stages are collected by the coordinator, which sends their domains to the task
+            ImmutableMap.Builder<String, ColumnHandle> remoteFilterColumnsBuilder = ImmutableMap.builder();
+            for (DynamicFilters.Descriptor descriptor : dynamicFilters) {
+                if (descriptor.getInput() instanceof SymbolReference) {
+                    ColumnHandle column = tableScanNode.getAssignments().get(Symbol.from(descriptor.getInput()));
+                    if (column != null) {
+                        remoteFilterColumnsBuilder.put(descriptor.getId(), column);
+                    }
+                }
+            }
+            Map<String, ColumnHandle> remoteFilterColumns = remoteFilterColumnsBuilder.build();
+            TaskContext taskContext = context.getTaskContext();
+
             return () -> {
                 TupleDomain<Symbol> predicate = context.getDynamicFiltersCollector().getDynamicFilter(tableScanNode.getAssignments().keySet());
-                return predicate.transform(tableScanNode.getAssignments()::get);
+                TupleDomain<ColumnHandle> result = predicate.transform(tableScanNode.getAssignments()::get);
+                Map<String, Domain> remoteDomains = taskContext.getRemoteDynamicFilterDomains();
+                for (Map.Entry<String, ColumnHandle> entry : remoteFilterColumns.entrySet()) {
+                    Domain domain = remoteDomains.get(entry.getKey());
+                    if (domain != null) {
+                        result = result.intersect(TupleDomain.withColumnDomains(ImmutableMap.of(entry.getValue(), domain)));
+                    }
+                }
+                return result;
             };
         }
 
@@ -2131,16 +2208,38 @@ public class LocalExecutionPlanner
                     "Dynamic filtering cannot be used with grouped execution");
             log.debug("[Join] Dynamic filters: %s", node.getDynamicFilters());
             LocalDynamicFiltersCollector collector = context.getDynamicFiltersCollector();
+            TaskContext taskContext = context.taskContext;
             return LocalDynamicFilter
                     .create(node, context.getTypes(), partitionCount)
                     .map(filter -> {
                         // Intersect dynamic filters' predicates when they become ready,
                         // in order to support multiple join nodes in the same plan fragment.
                         addSuccessCallback(filter.getResultFuture(), collector::addDynamicFilter);
+                        // Report the collected domains to the coordinator, so that they can be merged across tasks
+                        // and applied to probe-side scans running in other tasks or stages.
+                        addSuccessCallback(
+                                filter.getDynamicFilterDomainsFuture(),
+                                tupleDomain -> taskContext.addDynamicFilterDomains(getDynamicFilterDomains(tupleDomain, node, context.getTypes())));
                         return filter;
                     });
         }
 
+        private Map<String, Domain> getDynamicFilterDomains(TupleDomain<String> tupleDomain, JoinNode node, TypeProvider types)
+        {
+            ImmutableMap.Builder<String, Domain> domains = ImmutableMap.builder();
+            for (Map.Entry<String, Symbol> entry : node.getDynamicFilters().entrySet()) {
+                Type type = types.get(entry.getValue());
+                if (tupleDomain.isNone()) {
+                    domains.put(entry.getKey(), Domain.none(type));
+                }
+                else {
+                    // A missing domain means that the predicate was too large (or that it matches all values)
+                    domains.put(entry.getKey(), tupleDomain.getDomains().get().getOrDefault(entry.getKey(), Domain.all(type)));
+                }
+            }
+            return domains.build();
+        }
+
         private JoinFilterFunctionFactory compileJoinFilterFunction(
                 Expression filterExpression,
                 Map<Symbol, Integer> probeLayout,
@@ -2840,6 +2939,12 @@ public class LocalExecutionPlanner
             }
             else {
                 Optional<Integer> hashChannel = hashSymbol.map(channelGetter(source));
+                Optional<PartialAggregationController> partialAggregationController = Optional.empty();
+                if (step == PARTIAL && maxPartialAggregationMemorySize.isPresent() && isAdaptivePartialAggregationEnabled(session)) {
+                    partialAggregationController = Optional.of(new PartialAggregationController(
+                            getAdaptivePartialAggregationMinRows(session),
+                            getAdaptivePartialAggregationUniqueRowsRatioThreshold(session)));
+                }
                 return new HashAggregationOperatorFactory(
                         context.getNextOperatorId(),
                         planNodeId,
@@ -2857,7 +2962,8 @@ public class LocalExecutionPlanner
                         unspillMemoryLimit,
                         spillerFactory,
                         joinCompiler,
-                        useSystemMemory);
+                        useSystemMemory,
+                        partialAggregationController);
             }
         }
     }
@@ -23,6 +23,7 @@ import io.prestosql.metadata.Metadata;
 import io.prestosql.metadata.TableHandle;
 import io.prestosql.spi.block.SortOrder;
 import io.prestosql.spi.connector.ColumnHandle;
+import io.prestosql.spi.type.DecimalType;
 import io.prestosql.spi.type.Type;
 import io.prestosql.sql.analyzer.Analysis;
 import io.prestosql.sql.analyzer.Analysis.SelectExpression;
@@ -46,7 +47,9 @@ import io.prestosql.sql.planner.plan.TableScanNode;
 import io.prestosql.sql.planner.plan.TableWriterNode.DeleteTarget;
 import io.prestosql.sql.planner.plan.ValuesNode;
 import io.prestosql.sql.planner.plan.WindowNode;
+import io.prestosql.sql.tree.ArithmeticBinaryExpression;
 import io.prestosql.sql.tree.Cast;
+import io.prestosql.sql.tree.ComparisonExpression;
 import io.prestosql.sql.tree.Delete;
 import io.prestosql.sql.tree.Expression;
 import io.prestosql.sql.tree.FetchFirst;
@@ -55,17 +58,25 @@ import io.prestosql.sql.tree.FrameBound;
 import io.prestosql.sql.tree.FunctionCall;
 import io.prestosql.sql.tree.FunctionCall.NullTreatment;
 import io.prestosql.sql.tree.GroupingOperation;
+import io.prestosql.sql.tree.IntervalLiteral;
+import io.prestosql.sql.tree.IsNullPredicate;
 import io.prestosql.sql.tree.LambdaArgumentDeclaration;
 import io.prestosql.sql.tree.LambdaExpression;
+import io.prestosql.sql.tree.LongLiteral;
 import io.prestosql.sql.tree.Node;
 import io.prestosql.sql.tree.NodeRef;
 import io.prestosql.sql.tree.Offset;
 import io.prestosql.sql.tree.OrderBy;
+import io.prestosql.sql.tree.QualifiedName;
 import io.prestosql.sql.tree.Query;
 import io.prestosql.sql.tree.QuerySpecification;
+import io.prestosql.sql.tree.SearchedCaseExpression;
 import io.prestosql.sql.tree.SortItem;
+import io.prestosql.sql.tree.StringLiteral;
 import io.prestosql.sql.tree.SymbolReference;
+import io.prestosql.sql.tree.TryExpression;
 import io.prestosql.sql.tree.Window;
+import io.prestosql.sql.tree.WhenClause;
 import io.prestosql.sql.tree.WindowFrame;
 import io.prestosql.type.TypeCoercion;
 
@@ -83,15 +94,22 @@ import static com.google.common.base.MoreObjects.firstNonNull;
 import static com.google.common.collect.ImmutableList.toImmutableList;
 import static com.google.common.collect.ImmutableMap.toImmutableMap;
 import static com.google.common.collect.ImmutableSet.toImmutableSet;
+import static com.google.common.collect.Iterables.getOnlyElement;
 import static com.google.common.collect.Streams.stream;
 import static io.prestosql.SystemSessionProperties.isSkipRedundantSort;
+import static io.prestosql.spi.StandardErrorCode.INVALID_WINDOW_FRAME;
 import static io.prestosql.spi.type.BigintType.BIGINT;
+import static io.prestosql.spi.type.IntegerType.INTEGER;
 import static io.prestosql.spi.type.VarbinaryType.VARBINARY;
+import static io.prestosql.spi.type.VarcharType.VARCHAR;
 import static io.prestosql.sql.NodeUtils.getSortItemsFromOrderBy;
+import static io.prestosql.sql.analyzer.ExpressionAnalyzer.isNumericType;
 import static io.prestosql.sql.analyzer.TypeSignatureTranslator.toSqlType;
 import static io.prestosql.sql.planner.OrderingScheme.sortItemToSortOrder;
 import static io.prestosql.sql.planner.plan.AggregationNode.groupingSets;
 import static io.prestosql.sql.planner.plan.AggregationNode.singleGroupingSet;
+import static io.prestosql.type.IntervalDayTimeType.INTERVAL_DAY_TIME;
+import static io.prestosql.type.IntervalYearMonthType.INTERVAL_YEAR_MONTH;
 import static java.util.Objects.requireNonNull;
 
 class QueryPlanner
@@ -752,6 +770,69 @@ class QueryPlanner
         return new PlanBuilder(newTranslations, new ProjectNode(idAllocator.getNextId(), subPlan.getRoot(), projections.build()));
     }
 
+    private Symbol projectFrameRangeBound(FrameBound.Type boundType, String boundName, Symbol offset, Symbol sortKey, SortOrder sortOrder, Assignments.Builder projections)
+    {
+        Type sortKeyType = symbolAllocator.getTypes().get(sortKey);
+        Type offsetType = symbolAllocator.getTypes().get(offset);
+        Expression offsetValue = offset.toSymbolReference();
+        if (isNumericType(sortKeyType) && !offsetType.equals(sortKeyType)) {
+            offsetValue = new Cast(offsetValue, toSqlType(sortKeyType));
+        }
+
+        // preceding rows have smaller sort keys in ascending order, and larger ones in descending order
+        ArithmeticBinaryExpression.Operator operator = ((boundType == FrameBound.Type.PRECEDING) == sortOrder.isAscending()) ?
+                ArithmeticBinaryExpression.Operator.SUBTRACT :
+                ArithmeticBinaryExpression.Operator.ADD;
+        Expression bound = new ArithmeticBinaryExpression(operator, sortKey.toSymbolReference(), offsetValue);
+        if (sortKeyType instanceof DecimalType) {
+            // decimal arithmetic widens the type of the result
+            bound = new Cast(bound, toSqlType(sortKeyType));
+        }
+
+        // The window operator takes a null bound for one beyond the range of the sort key type, which is beyond every row
+        // in the direction of the offset. The offset is validated here, so that a negative offset cannot be mistaken for
+        // a positive one when the bound is out of range.
+        ImmutableList.Builder<WhenClause> offsetChecks = ImmutableList.builder();
+        offsetChecks.add(new WhenClause(new IsNullPredicate(offset.toSymbolReference()), failFrameBound(boundName + " offset must not be null", sortKeyType)));
+        Optional<Expression> zero = zeroOffset(offsetType);
+        if (zero.isPresent()) {
+            offsetChecks.add(new WhenClause(
+                    new ComparisonExpression(ComparisonExpression.Operator.LESS_THAN, offset.toSymbolReference(), zero.get()),
+                    failFrameBound(boundName + " offset must not be negative", sortKeyType)));
+            bound = new TryExpression(bound);
+        }
+        bound = new SearchedCaseExpression(offsetChecks.build(), Optional.of(bound));
+
+        Symbol symbol = symbolAllocator.newSymbol("frame_bound", sortKeyType);
+        projections.put(symbol, bound);
+        return symbol;
+    }
+
+    private Expression failFrameBound(String message, Type type)
+    {
+        return new Cast(
+                new FunctionCallBuilder(metadata)
+                        .setName(QualifiedName.of("fail"))
+                        .addArgument(INTEGER, new LongLiteral(Integer.toString(INVALID_WINDOW_FRAME.toErrorCode().getCode())))
+                        .addArgument(VARCHAR, new StringLiteral("Window frame " + message))
+                        .build(),
+                toSqlType(type));
+    }
+
+    private static Optional<Expression> zeroOffset(Type offsetType)
+    {
+        if (isNumericType(offsetType)) {
+            return Optional.of(new Cast(new LongLiteral("0"), toSqlType(offsetType)));
+        }
+        if (offsetType.equals(INTERVAL_DAY_TIME)) {
+            return Optional.of(new IntervalLiteral("0", IntervalLiteral.Sign.POSITIVE, IntervalLiteral.IntervalField.SECOND));
+        }
+        if (offsetType.equals(INTERVAL_YEAR_MONTH)) {
+            return Optional.of(new IntervalLiteral("0", IntervalLiteral.Sign.POSITIVE, IntervalLiteral.IntervalField.MONTH));
+        }
+        return Optional.empty();
+    }
+
     private PlanBuilder window(PlanBuilder subPlan, OrderBy node)
     {
         return window(subPlan, ImmutableList.copyOf(analysis.getOrderByWindowFunctions(node)));
@@ -832,6 +913,21 @@ class QueryPlanner
                 frameEndSymbol = Optional.of(subPlan.translate(frameEnd));
             }
 
+            // RANGE frames with offsets are bounded by the rows whose sort key is within the offset of the
+            // sort key of the current row, so the window operator compares the sort keys with these bounds
+            if ((frameType == WindowFrame.Type.RANGE) && (frameStartSymbol.isPresent() || frameEndSymbol.isPresent())) {
+                Map.Entry<Symbol, SortOrder> sortKey = getOnlyElement(orderings.entrySet());
+                Assignments.Builder projections = Assignments.builder();
+                projections.putIdentities(subPlan.getRoot().getOutputSymbols());
+                if (frameStartSymbol.isPresent()) {
+                    frameStartSymbol = Optional.of(projectFrameRangeBound(frameStartType, "starting", frameStartSymbol.get(), sortKey.getKey(), sortKey.getValue(), projections));
+                }
+                if (frameEndSymbol.isPresent()) {
+                    frameEndSymbol = Optional.of(projectFrameRangeBound(frameEndType, "ending", frameEndSymbol.get(), sortKey.getKey(), sortKey.getValue(), projections));
+                }
+                subPlan = subPlan.withNewRoot(new ProjectNode(idAllocator.getNextId(), subPlan.getRoot(), projections.build()));
+            }
+
             WindowNode.Frame frame = new WindowNode.Frame(
                     frameType,
                     frameStartType,
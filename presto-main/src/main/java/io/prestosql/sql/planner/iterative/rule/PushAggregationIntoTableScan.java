@@ -0,0 +1,180 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.prestosql.sql.planner.iterative.rule;
+
+import com.google.common.collect.ImmutableList;
+import io.prestosql.matching.Capture;
+import io.prestosql.matching.Captures;
+import io.prestosql.matching.Pattern;
+import io.prestosql.metadata.Metadata;
+import io.prestosql.metadata.TableHandle;
+import io.prestosql.spi.connector.AggregateFunction;
+import io.prestosql.spi.connector.AggregationApplicationResult;
+import io.prestosql.spi.connector.ColumnHandle;
+import io.prestosql.spi.connector.ProjectionApplicationResult;
+import io.prestosql.spi.expression.ConnectorExpression;
+import io.prestosql.spi.expression.Variable;
+import io.prestosql.spi.type.Type;
+import io.prestosql.sql.planner.ConnectorExpressionTranslator;
+import io.prestosql.sql.planner.LiteralEncoder;
+import io.prestosql.sql.planner.Symbol;
+import io.prestosql.sql.planner.iterative.Rule;
+import io.prestosql.sql.planner.plan.AggregationNode;
+import io.prestosql.sql.planner.plan.AggregationNode.Aggregation;
+import io.prestosql.sql.planner.plan.Assignments;
+import io.prestosql.sql.planner.plan.ProjectNode;
+import io.prestosql.sql.planner.plan.TableScanNode;
+import io.prestosql.sql.tree.Expression;
+import io.prestosql.sql.tree.SymbolReference;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import static com.google.common.base.Preconditions.checkState;
+import static com.google.common.collect.ImmutableList.toImmutableList;
+import static com.google.common.collect.ImmutableMap.toImmutableMap;
+import static io.prestosql.matching.Capture.newCapture;
+import static io.prestosql.sql.planner.plan.AggregationNode.Step.SINGLE;
+import static io.prestosql.sql.planner.plan.Patterns.aggregation;
+import static io.prestosql.sql.planner.plan.Patterns.source;
+import static io.prestosql.sql.planner.plan.Patterns.tableScan;
+
+public class PushAggregationIntoTableScan
+        implements Rule<AggregationNode>
+{
+    private static final Capture<TableScanNode> TABLE_SCAN = newCapture();
+    private static final Pattern<AggregationNode> PATTERN = aggregation()
+            .matching(PushAggregationIntoTableScan::isPushable)
+            .with(source().matching(
+                    tableScan().capturedAs(TABLE_SCAN)));
+
+    private final Metadata metadata;
+
+    public PushAggregationIntoTableScan(Metadata metadata)
+    {
+        this.metadata = metadata;
+    }
+
+    @Override
+    public Pattern<AggregationNode> getPattern()
+    {
+        return PATTERN;
+    }
+
+    private static boolean isPushable(AggregationNode aggregation)
+    {
+        return aggregation.getStep() == SINGLE &&
+                aggregation.getGroupingSetCount() == 1 &&
+                !aggregation.getGroupIdSymbol().isPresent() &&
+                !aggregation.getHashSymbol().isPresent() &&
+                aggregation.getAggregations().values().stream().allMatch(PushAggregationIntoTableScan::isPushable);
+    }
+
+    private static boolean isPushable(Aggregation aggregation)
+    {
+        return !aggregation.getFilter().isPresent() &&
+                !aggregation.getMask().isPresent() &&
+                !aggregation.getOrderingScheme().isPresent() &&
+                aggregation.getArguments().stream().allMatch(SymbolReference.class::isInstance);
+    }
+
+    @Override
+    public Result apply(AggregationNode aggregation, Captures captures, Context context)
+    {
+        TableScanNode tableScan = captures.get(TABLE_SCAN);
+
+        Map<String, ColumnHandle> assignments = tableScan.getAssignments()
+                .entrySet().stream()
+                .collect(toImmutableMap(entry -> entry.getKey().getName(), Map.Entry::getValue));
+
+        List<Symbol> aggregationOutputs = ImmutableList.copyOf(aggregation.getAggregations().keySet());
+        List<AggregateFunction> aggregateFunctions = aggregationOutputs.stream()
+                .map(symbol -> toAggregateFunction(aggregation.getAggregations().get(symbol), context.getSymbolAllocator().getTypes().get(symbol), context))
+                .collect(toImmutableList());
+
+        List<ColumnHandle> groupingColumns = aggregation.getGroupingKeys().stream()
+                .map(groupingKey -> tableScan.getAssignments().get(groupingKey))
+                .collect(toImmutableList());
+
+        Optional<AggregationApplicationResult<TableHandle>> result = metadata.applyAggregation(
+                context.getSession(),
+                tableScan.getTable(),
+                aggregateFunctions,
+                assignments,
+                ImmutableList.of(groupingColumns));
+
+        if (!result.isPresent()) {
+            return Result.empty();
+        }
+
+        List<ConnectorExpression> projections = result.get().getProjections();
+        checkState(projections.size() == aggregateFunctions.size(),
+                "Mismatch between input and output aggregations from the connector: expected %s but got %s",
+                aggregateFunctions.size(),
+                projections.size());
+
+        List<Symbol> newScanOutputs = new ArrayList<>();
+        Map<Symbol, ColumnHandle> newScanAssignments = new HashMap<>();
+        Map<String, Symbol> variableMappings = new HashMap<>();
+
+        Assignments.Builder newProjectionAssignments = Assignments.builder();
+        for (Symbol groupingKey : aggregation.getGroupingKeys()) {
+            ColumnHandle column = tableScan.getAssignments().get(groupingKey);
+            newScanOutputs.add(groupingKey);
+            newScanAssignments.put(groupingKey, result.get().getGroupingColumnMapping().getOrDefault(column, column));
+            newProjectionAssignments.putIdentity(groupingKey);
+        }
+
+        for (ProjectionApplicationResult.Assignment assignment : result.get().getAssignments()) {
+            Symbol symbol = context.getSymbolAllocator().newSymbol(assignment.getVariable(), assignment.getType());
+
+            newScanOutputs.add(symbol);
+            newScanAssignments.put(symbol, assignment.getColumn());
+            variableMappings.put(assignment.getVariable(), symbol);
+        }
+
+        LiteralEncoder literalEncoder = new LiteralEncoder(metadata);
+        for (int i = 0; i < aggregationOutputs.size(); i++) {
+            Expression expression = ConnectorExpressionTranslator.translate(projections.get(i), variableMappings, literalEncoder);
+            newProjectionAssignments.put(aggregationOutputs.get(i), expression);
+        }
+
+        return Result.ofPlanNode(
+                new ProjectNode(
+                        context.getIdAllocator().getNextId(),
+                        TableScanNode.newInstance(
+                                tableScan.getId(),
+                                result.get().getHandle(),
+                                newScanOutputs,
+                                newScanAssignments),
+                        newProjectionAssignments.build()));
+    }
+
+    private static AggregateFunction toAggregateFunction(Aggregation aggregation, Type outputType, Context context)
+    {
+        List<ConnectorExpression> arguments = aggregation.getArguments().stream()
+                .map(Symbol::from)
+                .map(symbol -> new Variable(symbol.getName(), context.getSymbolAllocator().getTypes().get(symbol)))
+                .collect(toImmutableList());
+
+        return new AggregateFunction(
+                aggregation.getResolvedFunction().getSignature().getName(),
+                outputType,
+                arguments,
+                aggregation.isDistinct());
+    }
+}
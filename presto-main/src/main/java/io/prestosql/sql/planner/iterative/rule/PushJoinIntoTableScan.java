@@ -0,0 +1,203 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.prestosql.sql.planner.iterative.rule;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import io.prestosql.matching.Captures;
+import io.prestosql.matching.Pattern;
+import io.prestosql.metadata.Metadata;
+import io.prestosql.metadata.TableHandle;
+import io.prestosql.spi.connector.ColumnHandle;
+import io.prestosql.spi.connector.JoinApplicationResult;
+import io.prestosql.spi.connector.JoinCondition;
+import io.prestosql.spi.connector.JoinType;
+import io.prestosql.spi.expression.Variable;
+import io.prestosql.spi.predicate.TupleDomain;
+import io.prestosql.sql.planner.Symbol;
+import io.prestosql.sql.planner.iterative.Rule;
+import io.prestosql.sql.planner.plan.JoinNode;
+import io.prestosql.sql.planner.plan.PlanNode;
+import io.prestosql.sql.planner.plan.TableScanNode;
+import io.prestosql.sql.tree.ComparisonExpression;
+import io.prestosql.sql.tree.Expression;
+import io.prestosql.sql.tree.SymbolReference;
+
+import java.util.Map;
+import java.util.Optional;
+
+import static com.google.common.base.Verify.verify;
+import static com.google.common.collect.ImmutableMap.toImmutableMap;
+import static io.prestosql.sql.ExpressionUtils.extractConjuncts;
+import static io.prestosql.sql.planner.plan.Patterns.join;
+
+/**
+ * Replaces a join of two table scans with a scan of the joined table, when the connector
+ * can compute the join itself. Only joins whose conditions compare columns of the two tables
+ * are pushed down.
+ */
+public class PushJoinIntoTableScan
+        implements Rule<JoinNode>
+{
+    private static final Pattern<JoinNode> PATTERN = join()
+            .matching(node -> !node.isCrossJoin() &&
+                    !node.getLeftHashSymbol().isPresent() &&
+                    !node.getRightHashSymbol().isPresent() &&
+                    node.getDynamicFilters().isEmpty());
+
+    private final Metadata metadata;
+
+    public PushJoinIntoTableScan(Metadata metadata)
+    {
+        this.metadata = metadata;
+    }
+
+    @Override
+    public Pattern<JoinNode> getPattern()
+    {
+        return PATTERN;
+    }
+
+    @Override
+    public Result apply(JoinNode join, Captures captures, Context context)
+    {
+        PlanNode left = context.getLookup().resolve(join.getLeft());
+        PlanNode right = context.getLookup().resolve(join.getRight());
+        if (!(left instanceof TableScanNode) || !(right instanceof TableScanNode)) {
+            return Result.empty();
+        }
+        TableScanNode leftScan = (TableScanNode) left;
+        TableScanNode rightScan = (TableScanNode) right;
+
+        ImmutableList.Builder<JoinCondition> joinConditions = ImmutableList.builder();
+        for (JoinNode.EquiJoinClause clause : join.getCriteria()) {
+            joinConditions.add(toJoinCondition(JoinCondition.Operator.EQUAL, clause.getLeft(), clause.getRight(), context));
+        }
+        if (join.getFilter().isPresent()) {
+            for (Expression conjunct : extractConjuncts(join.getFilter().get())) {
+                Optional<JoinCondition> condition = toJoinCondition(conjunct, leftScan, rightScan, context);
+                if (!condition.isPresent()) {
+                    return Result.empty();
+                }
+                joinConditions.add(condition.get());
+            }
+        }
+
+        Map<String, ColumnHandle> leftAssignments = toNameAssignments(leftScan.getAssignments());
+        Map<String, ColumnHandle> rightAssignments = toNameAssignments(rightScan.getAssignments());
+
+        Optional<JoinApplicationResult<TableHandle>> result = metadata.applyJoin(
+                context.getSession(),
+                toJoinType(join.getType()),
+                leftScan.getTable(),
+                rightScan.getTable(),
+                joinConditions.build(),
+                leftAssignments,
+                rightAssignments);
+        if (!result.isPresent()) {
+            return Result.empty();
+        }
+
+        ImmutableMap.Builder<Symbol, ColumnHandle> assignments = ImmutableMap.builder();
+        for (Symbol symbol : join.getOutputSymbols()) {
+            ColumnHandle column;
+            if (leftScan.getAssignments().containsKey(symbol)) {
+                column = result.get().getLeftColumnHandles().get(leftScan.getAssignments().get(symbol));
+            }
+            else {
+                column = result.get().getRightColumnHandles().get(rightScan.getAssignments().get(symbol));
+            }
+            verify(column != null, "Connector did not provide a column of the joined table for %s", symbol);
+            assignments.put(symbol, column);
+        }
+
+        return Result.ofPlanNode(new TableScanNode(
+                join.getId(),
+                result.get().getTableHandle(),
+                join.getOutputSymbols(),
+                assignments.build(),
+                TupleDomain.all()));
+    }
+
+    private static Optional<JoinCondition> toJoinCondition(Expression expression, TableScanNode left, TableScanNode right, Context context)
+    {
+        if (!(expression instanceof ComparisonExpression)) {
+            return Optional.empty();
+        }
+        ComparisonExpression comparison = (ComparisonExpression) expression;
+        if (!(comparison.getLeft() instanceof SymbolReference) || !(comparison.getRight() instanceof SymbolReference)) {
+            return Optional.empty();
+        }
+        Symbol first = Symbol.from(comparison.getLeft());
+        Symbol second = Symbol.from(comparison.getRight());
+
+        if (left.getAssignments().containsKey(first) && right.getAssignments().containsKey(second)) {
+            return Optional.of(toJoinCondition(toOperator(comparison.getOperator()), first, second, context));
+        }
+        if (right.getAssignments().containsKey(first) && left.getAssignments().containsKey(second)) {
+            return Optional.of(toJoinCondition(toOperator(comparison.getOperator().flip()), second, first, context));
+        }
+        return Optional.empty();
+    }
+
+    private static JoinCondition toJoinCondition(JoinCondition.Operator operator, Symbol left, Symbol right, Context context)
+    {
+        return new JoinCondition(
+                operator,
+                new Variable(left.getName(), context.getSymbolAllocator().getTypes().get(left)),
+                new Variable(right.getName(), context.getSymbolAllocator().getTypes().get(right)));
+    }
+
+    private static JoinCondition.Operator toOperator(ComparisonExpression.Operator operator)
+    {
+        switch (operator) {
+            case EQUAL:
+                return JoinCondition.Operator.EQUAL;
+            case NOT_EQUAL:
+                return JoinCondition.Operator.NOT_EQUAL;
+            case LESS_THAN:
+                return JoinCondition.Operator.LESS_THAN;
+            case LESS_THAN_OR_EQUAL:
+                return JoinCondition.Operator.LESS_THAN_OR_EQUAL;
+            case GREATER_THAN:
+                return JoinCondition.Operator.GREATER_THAN;
+            case GREATER_THAN_OR_EQUAL:
+                return JoinCondition.Operator.GREATER_THAN_OR_EQUAL;
+            case IS_DISTINCT_FROM:
+                return JoinCondition.Operator.IS_DISTINCT_FROM;
+        }
+        throw new IllegalArgumentException("Unknown operator: " + operator);
+    }
+
+    private static JoinType toJoinType(JoinNode.Type joinType)
+    {
+        switch (joinType) {
+            case INNER:
+                return JoinType.INNER;
+            case LEFT:
+                return JoinType.LEFT_OUTER;
+            case RIGHT:
+                return JoinType.RIGHT_OUTER;
+            case FULL:
+                return JoinType.FULL_OUTER;
+        }
+        throw new IllegalArgumentException("Unknown join type: " + joinType);
+    }
+
+    private static Map<String, ColumnHandle> toNameAssignments(Map<Symbol, ColumnHandle> assignments)
+    {
+        return assignments.entrySet().stream()
+                .collect(toImmutableMap(entry -> entry.getKey().getName(), Map.Entry::getValue));
+    }
+}
@@ -220,6 +220,7 @@ public class WindowNode
     {
         private final WindowFrame.Type type;
         private final FrameBound.Type startType;
+        // the offset for ROWS frames, and the value of the sort key at the bound for RANGE frames
         private final Optional<Symbol> startValue;
         private final FrameBound.Type endType;
         private final Optional<Symbol> endValue;
@@ -18,7 +18,9 @@ import io.airlift.units.Duration;
 import io.prestosql.execution.StageInfo;
 import io.prestosql.execution.TaskInfo;
 import io.prestosql.operator.HashCollisionsInfo;
+import io.prestosql.operator.JoinOperatorInfo;
 import io.prestosql.operator.OperatorStats;
+import io.prestosql.operator.PartialAggregationInfo;
 import io.prestosql.operator.PipelineStats;
 import io.prestosql.operator.TaskStats;
 import io.prestosql.operator.WindowInfo;
@@ -81,6 +83,8 @@ public final class PlanNodeStatsSummarizer
         Map<PlanNodeId, Map<String, OperatorInputStats>> operatorInputStats = new HashMap<>();
         Map<PlanNodeId, Map<String, OperatorHashCollisionsStats>> operatorHashCollisionsStats = new HashMap<>();
         Map<PlanNodeId, WindowOperatorStats> windowNodeStats = new HashMap<>();
+        Map<PlanNodeId, JoinOperatorInfo> joinOperatorInfos = new HashMap<>();
+        Map<PlanNodeId, Long> planNodePassThroughPositions = new HashMap<>();
 
         for (PipelineStats pipelineStats : taskStats.getPipelines()) {
             // Due to eventual consistently collected stats, these could be empty
@@ -120,8 +124,16 @@ public final class PlanNodeStatsSummarizer
                                         operatorStats.getSumSquaredInputPositions())),
                         (map1, map2) -> mergeMaps(map1, map2, OperatorInputStats::merge));
 
+                HashCollisionsInfo hashCollisionsInfo = null;
                 if (operatorStats.getInfo() instanceof HashCollisionsInfo) {
-                    HashCollisionsInfo hashCollisionsInfo = (HashCollisionsInfo) operatorStats.getInfo();
+                    hashCollisionsInfo = (HashCollisionsInfo) operatorStats.getInfo();
+                }
+                else if (operatorStats.getInfo() instanceof PartialAggregationInfo) {
+                    PartialAggregationInfo partialAggregationInfo = (PartialAggregationInfo) operatorStats.getInfo();
+                    hashCollisionsInfo = partialAggregationInfo.getHashCollisionsInfo();
+                    planNodePassThroughPositions.merge(planNodeId, partialAggregationInfo.getPassThroughInputPositions(), Long::sum);
+                }
+                if (hashCollisionsInfo != null) {
                     operatorHashCollisionsStats.merge(planNodeId,
                             ImmutableMap.of(
                                     operatorStats.getOperatorType(),
@@ -138,6 +150,10 @@ public final class PlanNodeStatsSummarizer
                     windowNodeStats.merge(planNodeId, WindowOperatorStats.create(windowInfo), (left, right) -> left.mergeWith(right));
                 }
 
+                if (operatorStats.getInfo() instanceof JoinOperatorInfo) {
+                    joinOperatorInfos.merge(planNodeId, (JoinOperatorInfo) operatorStats.getInfo(), JoinOperatorInfo::mergeWith);
+                }
+
                 planNodeInputPositions.merge(planNodeId, operatorStats.getInputPositions(), Long::sum);
                 planNodeInputBytes.merge(planNodeId, operatorStats.getInputDataSize().toBytes(), Long::sum);
                 processedNodes.add(planNodeId);
@@ -176,7 +192,20 @@ public final class PlanNodeStatsSummarizer
             // and therefore only have scheduled time, but no output stats
             long outputPositions = planNodeOutputPositions.getOrDefault(planNodeId, 0L);
 
-            if (operatorHashCollisionsStats.containsKey(planNodeId)) {
+            if (planNodePassThroughPositions.containsKey(planNodeId)) {
+                nodeStats = new PartialAggregationPlanNodeStats(
+                        planNodeId,
+                        new Duration(planNodeScheduledMillis.get(planNodeId), MILLISECONDS),
+                        new Duration(planNodeCpuMillis.get(planNodeId), MILLISECONDS),
+                        planNodeInputPositions.get(planNodeId),
+                        succinctBytes(planNodeInputBytes.get(planNodeId)),
+                        outputPositions,
+                        succinctBytes(planNodeOutputBytes.getOrDefault(planNodeId, 0L)),
+                        operatorInputStats.get(planNodeId),
+                        operatorHashCollisionsStats.get(planNodeId),
+                        planNodePassThroughPositions.get(planNodeId));
+            }
+            else if (operatorHashCollisionsStats.containsKey(planNodeId)) {
                 nodeStats = new HashCollisionPlanNodeStats(
                         planNodeId,
                         new Duration(planNodeScheduledMillis.get(planNodeId), MILLISECONDS),
@@ -188,6 +217,18 @@ public final class PlanNodeStatsSummarizer
                         operatorInputStats.get(planNodeId),
                         operatorHashCollisionsStats.get(planNodeId));
             }
+            else if (joinOperatorInfos.containsKey(planNodeId)) {
+                nodeStats = new JoinPlanNodeStats(
+                        planNodeId,
+                        new Duration(planNodeScheduledMillis.get(planNodeId), MILLISECONDS),
+                        new Duration(planNodeCpuMillis.get(planNodeId), MILLISECONDS),
+                        planNodeInputPositions.get(planNodeId),
+                        succinctBytes(planNodeInputBytes.get(planNodeId)),
+                        outputPositions,
+                        succinctBytes(planNodeOutputBytes.getOrDefault(planNodeId, 0L)),
+                        operatorInputStats.get(planNodeId),
+                        joinOperatorInfos.get(planNodeId));
+            }
             else if (windowNodeStats.containsKey(planNodeId)) {
                 nodeStats = new WindowPlanNodeStats(
                         planNodeId,
@@ -30,6 +30,8 @@ import io.prestosql.execution.TableInfo;
 import io.prestosql.metadata.Metadata;
 import io.prestosql.metadata.ResolvedFunction;
 import io.prestosql.metadata.TableHandle;
+import io.prestosql.operator.OperatorStats;
+import io.prestosql.operator.PartitionedOutputOperator.PartitionedOutputInfo;
 import io.prestosql.operator.StageExecutionDescriptor;
 import io.prestosql.spi.connector.ColumnHandle;
 import io.prestosql.spi.predicate.Domain;
@@ -296,6 +298,15 @@ public class PlanPrinter
                             formatDouble(sdAmongTasks),
                             formatPositions(stageStats.getOutputPositions()),
                             stageStats.getOutputDataSize()));
+
+            // rows routed to a single hot partition are not spread any further; this only reports the skew
+            stageStats.getOperatorSummaries().stream()
+                    .map(OperatorStats::getInfo)
+                    .filter(PartitionedOutputInfo.class::isInstance)
+                    .map(PartitionedOutputInfo.class::cast)
+                    .reduce(PartitionedOutputInfo::mergeWith)
+                    .ifPresent(info -> builder.append(indentString(1))
+                            .append(format("Output partition skew: %s\n", formatDouble(info.getPartitionSkew()))));
         }
 
         PartitioningScheme partitioningScheme = fragment.getPartitioningScheme();
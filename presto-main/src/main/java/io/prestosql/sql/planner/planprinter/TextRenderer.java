@@ -134,10 +134,18 @@ public class TextRenderer
 
         printDistributions(output, nodeStats);
 
+        if (nodeStats instanceof PartialAggregationPlanNodeStats) {
+            printPartialAggregationStats(output, (PartialAggregationPlanNodeStats) nodeStats);
+        }
+
         if (nodeStats instanceof WindowPlanNodeStats) {
             printWindowOperatorStats(output, ((WindowPlanNodeStats) nodeStats).getWindowOperatorStats());
         }
 
+        if (nodeStats instanceof JoinPlanNodeStats) {
+            output.append(format("Probe skew: %s\n", formatDouble(((JoinPlanNodeStats) nodeStats).getProbeSkew())));
+        }
+
         return output.toString();
     }
 
@@ -189,6 +197,17 @@ public class TextRenderer
         }
     }
 
+    private static void printPartialAggregationStats(StringBuilder output, PartialAggregationPlanNodeStats stats)
+    {
+        long passThroughInputPositions = stats.getPassThroughInputPositions();
+        if (passThroughInputPositions == 0) {
+            return;
+        }
+
+        double passThroughFraction = 100.0d * passThroughInputPositions / stats.getPlanNodeInputPositions();
+        output.append(format("Partial aggregation skipped: %s (%s%%)\n", formatPositions(passThroughInputPositions), formatDouble(passThroughFraction)));
+    }
+
     private void printWindowOperatorStats(StringBuilder output, WindowOperatorStats stats)
     {
         if (!verbose) {
@@ -32,6 +32,7 @@ import {
     getTaskIdSuffix,
     getTaskNumber,
     GLYPHICON_HIGHLIGHT,
+    isTaskRunning,
     parseAndFormatDataSize,
     parseDataSize,
     parseDuration,
@@ -467,7 +468,7 @@ class StageSummary extends React.Component {
                                             Running
                                         </td>
                                         <td className="stage-table-stat-text">
-                                            {stage.tasks.filter(task => task.taskStatus.state === "RUNNING").length}
+                                            {stage.tasks.filter(task => isTaskRunning(task.taskStatus.state)).length}
                                         </td>
                                     </tr>
                                     <tr>
@@ -621,7 +622,7 @@ const SMALL_SPARKLINE_PROPERTIES = {
 const TASK_FILTER = {
     ALL: function () { return true },
     PLANNED: function (state) { return state === 'PLANNED' },
-    RUNNING: function (state) { return state === 'RUNNING' },
+    RUNNING: function (state) { return isTaskRunning(state) },
     FINISHED: function (state) { return state === 'FINISHED' },
     FAILED: function (state) { return state === 'FAILED' || state === 'ABORTED' || state === 'CANCELED' },
 };
@@ -165,6 +165,12 @@ export function isQueryEnded(query: any): boolean
     return ["FINISHED", "FAILED", "CANCELED"].indexOf(query.state) > -1;
 }
 
+// a FLUSHING task has finished executing, but still has output in its buffer to be consumed
+export function isTaskRunning(taskState: string): boolean
+{
+    return ["RUNNING", "FLUSHING"].indexOf(taskState) > -1;
+}
+
 // Sparkline-related functions
 // ===========================
 
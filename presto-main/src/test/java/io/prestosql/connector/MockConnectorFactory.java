@@ -71,6 +71,7 @@ public class MockConnectorFactory
     private final ApplyProjection applyProjection;
     private final BiFunction<ConnectorSession, SchemaTableName, Optional<ConnectorNewTableLayout>> getInsertLayout;
     private final BiFunction<ConnectorSession, ConnectorTableMetadata, Optional<ConnectorNewTableLayout>> getNewTableLayout;
+    private final BiFunction<ConnectorSession, SchemaTableName, Optional<String>> getDataVersion;
     private final Supplier<Iterable<EventListener>> eventListeners;
 
     private MockConnectorFactory(
@@ -82,6 +83,7 @@ public class MockConnectorFactory
             ApplyProjection applyProjection,
             BiFunction<ConnectorSession, SchemaTableName, Optional<ConnectorNewTableLayout>> getInsertLayout,
             BiFunction<ConnectorSession, ConnectorTableMetadata, Optional<ConnectorNewTableLayout>> getNewTableLayout,
+            BiFunction<ConnectorSession, SchemaTableName, Optional<String>> getDataVersion,
             Supplier<Iterable<EventListener>> eventListeners)
     {
         this.listSchemaNames = requireNonNull(listSchemaNames, "listSchemaNames is null");
@@ -92,6 +94,7 @@ public class MockConnectorFactory
         this.applyProjection = applyProjection;
         this.getInsertLayout = requireNonNull(getInsertLayout, "getInsertLayout is null");
         this.getNewTableLayout = requireNonNull(getNewTableLayout, "getNewTableLayout is null");
+        this.getDataVersion = requireNonNull(getDataVersion, "getDataVersion is null");
         this.eventListeners = requireNonNull(eventListeners, "eventListeners is null");
     }
 
@@ -110,7 +113,7 @@ public class MockConnectorFactory
     @Override
     public Connector create(String catalogName, Map<String, String> config, ConnectorContext context)
     {
-        return new MockConnector(context, listSchemaNames, listTables, getViews, getTableHandle, getColumns, applyProjection, getInsertLayout, getNewTableLayout, eventListeners);
+        return new MockConnector(context, listSchemaNames, listTables, getViews, getTableHandle, getColumns, applyProjection, getInsertLayout, getNewTableLayout, getDataVersion, eventListeners);
     }
 
     public static Builder builder()
@@ -136,6 +139,7 @@ public class MockConnectorFactory
         private final ApplyProjection applyProjection;
         private final BiFunction<ConnectorSession, SchemaTableName, Optional<ConnectorNewTableLayout>> getInsertLayout;
         private final BiFunction<ConnectorSession, ConnectorTableMetadata, Optional<ConnectorNewTableLayout>> getNewTableLayout;
+        private final BiFunction<ConnectorSession, SchemaTableName, Optional<String>> getDataVersion;
         private final Supplier<Iterable<EventListener>> eventListeners;
 
         private MockConnector(
@@ -148,6 +152,7 @@ public class MockConnectorFactory
                 ApplyProjection applyProjection,
                 BiFunction<ConnectorSession, SchemaTableName, Optional<ConnectorNewTableLayout>> getInsertLayout,
                 BiFunction<ConnectorSession, ConnectorTableMetadata, Optional<ConnectorNewTableLayout>> getNewTableLayout,
+                BiFunction<ConnectorSession, SchemaTableName, Optional<String>> getDataVersion,
                 Supplier<Iterable<EventListener>> eventListeners)
         {
             this.context = requireNonNull(context, "context is null");
@@ -159,6 +164,7 @@ public class MockConnectorFactory
             this.applyProjection = requireNonNull(applyProjection, "applyProjection is null");
             this.getInsertLayout = requireNonNull(getInsertLayout, "getInsertLayout is null");
             this.getNewTableLayout = requireNonNull(getNewTableLayout, "getNewTableLayout is null");
+            this.getDataVersion = requireNonNull(getDataVersion, "getDataVersion is null");
             this.eventListeners = requireNonNull(eventListeners, "eventListeners is null");
         }
 
@@ -293,6 +299,13 @@ public class MockConnectorFactory
                 return getNewTableLayout.apply(session, tableMetadata);
             }
 
+            @Override
+            public Optional<String> getDataVersion(ConnectorSession session, ConnectorTableHandle tableHandle)
+            {
+                MockConnectorTableHandle table = (MockConnectorTableHandle) tableHandle;
+                return getDataVersion.apply(session, table.getTableName());
+            }
+
             @Override
             public boolean usesLegacyTableLayouts()
             {
@@ -364,6 +377,7 @@ public class MockConnectorFactory
         private ApplyProjection applyProjection = (session, handle, projections, assignments) -> Optional.empty();
         private BiFunction<ConnectorSession, SchemaTableName, Optional<ConnectorNewTableLayout>> getInsertLayout = defaultGetInsertLayout();
         private BiFunction<ConnectorSession, ConnectorTableMetadata, Optional<ConnectorNewTableLayout>> getNewTableLayout = defaultGetNewTableLayout();
+        private BiFunction<ConnectorSession, SchemaTableName, Optional<String>> getDataVersion = defaultGetDataVersion();
         private Supplier<Iterable<EventListener>> eventListeners = ImmutableList::of;
 
         public Builder withListSchemaNames(Function<ConnectorSession, List<String>> listSchemaNames)
@@ -414,6 +428,12 @@ public class MockConnectorFactory
             return this;
         }
 
+        public Builder withGetDataVersion(BiFunction<ConnectorSession, SchemaTableName, Optional<String>> getDataVersion)
+        {
+            this.getDataVersion = requireNonNull(getDataVersion, "getDataVersion is null");
+            return this;
+        }
+
         public Builder withEventListener(EventListener listener)
         {
             requireNonNull(listener, "listener is null");
@@ -432,7 +452,7 @@ public class MockConnectorFactory
 
         public MockConnectorFactory build()
         {
-            return new MockConnectorFactory(listSchemaNames, listTables, getViews, getTableHandle, getColumns, applyProjection, getInsertLayout, getNewTableLayout, eventListeners);
+            return new MockConnectorFactory(listSchemaNames, listTables, getViews, getTableHandle, getColumns, applyProjection, getInsertLayout, getNewTableLayout, getDataVersion, eventListeners);
         }
 
         public static Function<ConnectorSession, List<String>> defaultListSchemaNames()
@@ -465,6 +485,11 @@ public class MockConnectorFactory
             return (session, tableHandle) -> Optional.empty();
         }
 
+        public static BiFunction<ConnectorSession, SchemaTableName, Optional<String>> defaultGetDataVersion()
+        {
+            return (session, tableName) -> Optional.empty();
+        }
+
         public static Function<SchemaTableName, List<ColumnMetadata>> defaultGetColumns()
         {
             return table -> IntStream.range(0, 100)
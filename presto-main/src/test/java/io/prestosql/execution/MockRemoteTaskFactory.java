@@ -38,6 +38,7 @@ import io.prestosql.metadata.Split;
 import io.prestosql.operator.TaskContext;
 import io.prestosql.operator.TaskStats;
 import io.prestosql.spi.memory.MemoryPoolId;
+import io.prestosql.spi.predicate.Domain;
 import io.prestosql.spiller.SpillSpaceTracker;
 import io.prestosql.sql.planner.Partitioning;
 import io.prestosql.sql.planner.PartitioningScheme;
@@ -63,6 +64,7 @@ import java.util.Objects;
 import java.util.Optional;
 import java.util.OptionalInt;
 import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.Executor;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.atomic.AtomicBoolean;
@@ -74,6 +76,7 @@ import static io.airlift.units.DataSize.Unit.GIGABYTE;
 import static io.airlift.units.DataSize.Unit.MEGABYTE;
 import static io.prestosql.SessionTestUtils.TEST_SESSION;
 import static io.prestosql.execution.StateMachine.StateChangeListener;
+import static io.prestosql.execution.VersionedDynamicFilterDomains.INITIAL_DYNAMIC_FILTERS_VERSION;
 import static io.prestosql.execution.buffer.OutputBuffers.BufferType.BROADCAST;
 import static io.prestosql.execution.buffer.OutputBuffers.createInitialEmptyOutputBuffers;
 import static io.prestosql.memory.context.AggregatedMemoryContext.newSimpleAggregatedMemoryContext;
@@ -167,6 +170,9 @@ public class MockRemoteTaskFactory
 
         private final PartitionedSplitCountTracker partitionedSplitCountTracker;
 
+        private final Executor executor;
+        private final List<Runnable> dynamicFilterDomainsListeners = new CopyOnWriteArrayList<>();
+
         public MockRemoteTask(
                 TaskId taskId,
                 PlanFragment fragment,
@@ -178,6 +184,7 @@ public class MockRemoteTaskFactory
                 PartitionedSplitCountTracker partitionedSplitCountTracker)
         {
             this.taskStateMachine = new TaskStateMachine(requireNonNull(taskId, "taskId is null"), requireNonNull(executor, "executor is null"));
+            this.executor = executor;
 
             MemoryPool memoryPool = new MemoryPool(new MemoryPoolId("test"), DataSize.of(1, GIGABYTE));
             SpillSpaceTracker spillSpaceTracker = new SpillSpaceTracker(DataSize.of(1, GIGABYTE));
@@ -199,7 +206,8 @@ public class MockRemoteTaskFactory
                     TASK_INSTANCE_ID,
                     executor,
                     DataSize.ofBytes(1),
-                    () -> new SimpleLocalMemoryContext(newSimpleAggregatedMemoryContext(), "test"));
+                    () -> new SimpleLocalMemoryContext(newSimpleAggregatedMemoryContext(), "test"),
+                    Optional.empty());
 
             this.fragment = requireNonNull(fragment, "fragment is null");
             this.nodeId = requireNonNull(nodeId, "nodeId is null");
@@ -247,8 +255,10 @@ public class MockRemoteTaskFactory
                             DataSize.ofBytes(0),
                             DataSize.ofBytes(0),
                             DataSize.ofBytes(0),
+                            DataSize.ofBytes(0),
                             0,
-                            new Duration(0, MILLISECONDS)),
+                            new Duration(0, MILLISECONDS),
+                            INITIAL_DYNAMIC_FILTERS_VERSION),
                     DateTime.now(),
                     outputBuffer.getInfo(),
                     ImmutableSet.of(),
@@ -272,11 +282,42 @@ public class MockRemoteTaskFactory
                     stats.getRunningPartitionedDrivers(),
                     false,
                     stats.getPhysicalWrittenDataSize(),
+                    stats.getOutputDataSize(),
                     stats.getUserMemoryReservation(),
                     stats.getSystemMemoryReservation(),
                     stats.getRevocableMemoryReservation(),
                     0,
-                    new Duration(0, MILLISECONDS));
+                    new Duration(0, MILLISECONDS),
+                    INITIAL_DYNAMIC_FILTERS_VERSION);
+        }
+
+        @Override
+        public Map<String, Domain> getDynamicFilterDomains()
+        {
+            return taskContext.getDynamicFilterDomains().getDynamicFilterDomains();
+        }
+
+        public void addDynamicFilterDomains(Map<String, Domain> domains)
+        {
+            taskContext.addDynamicFilterDomains(domains);
+            dynamicFilterDomainsListeners.forEach(executor::execute);
+        }
+
+        @Override
+        public void addDynamicFilterDomainsListener(Runnable listener)
+        {
+            dynamicFilterDomainsListeners.add(requireNonNull(listener, "listener is null"));
+        }
+
+        @Override
+        public void addRemoteDynamicFilterDomains(Map<String, Domain> dynamicFilterDomains)
+        {
+            taskContext.addRemoteDynamicFilterDomains(dynamicFilterDomains);
+        }
+
+        public Map<String, Domain> getRemoteDynamicFilterDomains()
+        {
+            return taskContext.getRemoteDynamicFilterDomains();
         }
 
         private synchronized void updateSplitQueueSpace()
@@ -44,6 +44,7 @@ import org.testng.annotations.Test;
 import java.net.URI;
 import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 import java.util.OptionalInt;
 import java.util.Set;
 import java.util.concurrent.Callable;
@@ -305,6 +306,7 @@ public class TestMemoryRevokingScheduler
                 executor,
                 Functions.identity(),
                 DataSize.of(32, MEGABYTE),
+                Optional.empty(),
                 new CounterStat());
     }
 }
@@ -14,6 +14,7 @@
 package io.prestosql.execution;
 
 import com.google.common.collect.ImmutableMap;
+import io.airlift.units.DataSize;
 import io.airlift.units.Duration;
 import org.testng.annotations.Test;
 
@@ -23,6 +24,7 @@ import java.util.concurrent.TimeUnit;
 import static io.airlift.configuration.testing.ConfigAssertions.assertFullMapping;
 import static io.airlift.configuration.testing.ConfigAssertions.assertRecordedDefaults;
 import static io.airlift.configuration.testing.ConfigAssertions.recordDefaults;
+import static io.airlift.units.DataSize.Unit.MEGABYTE;
 
 public class TestQueryManagerConfig
 {
@@ -33,6 +35,7 @@ public class TestQueryManagerConfig
                 .setMinQueryExpireAge(new Duration(15, TimeUnit.MINUTES))
                 .setMaxQueryHistory(100)
                 .setMaxQueryLength(1_000_000)
+                .setPreparedStatementCacheMaxSize(DataSize.of(16, MEGABYTE))
                 .setMaxStageCount(100)
                 .setStageCountWarningThreshold(50)
                 .setClientTimeout(new Duration(5, TimeUnit.MINUTES))
@@ -41,6 +44,8 @@ public class TestQueryManagerConfig
                 .setMaxConcurrentQueries(1000)
                 .setMaxQueuedQueries(5000)
                 .setInitialHashPartitions(100)
+                .setAdaptiveHashPartitionCountEnabled(false)
+                .setTargetHashPartitionSize(DataSize.of(64, MEGABYTE))
                 .setQueryManagerExecutorPoolSize(5)
                 .setRemoteTaskMinErrorDuration(new Duration(5, TimeUnit.MINUTES))
                 .setRemoteTaskMaxErrorDuration(new Duration(5, TimeUnit.MINUTES))
@@ -61,6 +66,7 @@ public class TestQueryManagerConfig
                 .put("query.min-expire-age", "30s")
                 .put("query.max-history", "10")
                 .put("query.max-length", "10000")
+                .put("query.prepared-statement-cache-max-size", "1MB")
                 .put("query.max-stage-count", "12345")
                 .put("query.stage-count-warning-threshold", "12300")
                 .put("query.schedule-split-batch-size", "99")
@@ -68,6 +74,8 @@ public class TestQueryManagerConfig
                 .put("query.max-concurrent-queries", "10")
                 .put("query.max-queued-queries", "15")
                 .put("query.initial-hash-partitions", "16")
+                .put("query.adaptive-hash-partition-count-enabled", "true")
+                .put("query.target-hash-partition-size", "16MB")
                 .put("query.manager-executor-pool-size", "11")
                 .put("query.remote-task.min-error-duration", "30s")
                 .put("query.remote-task.max-error-duration", "60s")
@@ -84,6 +92,7 @@ public class TestQueryManagerConfig
                 .setMinQueryExpireAge(new Duration(30, TimeUnit.SECONDS))
                 .setMaxQueryHistory(10)
                 .setMaxQueryLength(10000)
+                .setPreparedStatementCacheMaxSize(DataSize.of(1, MEGABYTE))
                 .setMaxStageCount(12345)
                 .setStageCountWarningThreshold(12300)
                 .setClientTimeout(new Duration(10, TimeUnit.SECONDS))
@@ -92,6 +101,8 @@ public class TestQueryManagerConfig
                 .setMaxConcurrentQueries(10)
                 .setMaxQueuedQueries(15)
                 .setInitialHashPartitions(16)
+                .setAdaptiveHashPartitionCountEnabled(true)
+                .setTargetHashPartitionSize(DataSize.of(16, MEGABYTE))
                 .setQueryManagerExecutorPoolSize(11)
                 .setRemoteTaskMinErrorDuration(new Duration(60, TimeUnit.SECONDS))
                 .setRemoteTaskMaxErrorDuration(new Duration(60, TimeUnit.SECONDS))
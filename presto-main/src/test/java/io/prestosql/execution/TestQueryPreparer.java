@@ -13,6 +13,7 @@
  */
 package io.prestosql.execution;
 
+import io.airlift.units.DataSize;
 import io.prestosql.Session;
 import io.prestosql.execution.QueryPreparer.PreparedQuery;
 import io.prestosql.sql.parser.SqlParser;
@@ -29,6 +30,8 @@ import static io.prestosql.sql.QueryUtil.table;
 import static io.prestosql.testing.TestingSession.testSessionBuilder;
 import static io.prestosql.testing.assertions.PrestoExceptionAssert.assertPrestoExceptionThrownBy;
 import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertNotSame;
+import static org.testng.Assert.assertSame;
 
 public class TestQueryPreparer
 {
@@ -54,6 +57,31 @@ public class TestQueryPreparer
                 simpleQuery(selectList(new AllColumns()), table(QualifiedName.of("foo"))));
     }
 
+    @Test
+    public void testExecuteStatementCached()
+    {
+        QueryPreparer queryPreparer = new QueryPreparer(SQL_PARSER, new QueryManagerConfig());
+        Session session = testSessionBuilder()
+                .addPreparedStatement("my_query", "SELECT * FROM foo")
+                .build();
+        PreparedQuery preparedQuery = queryPreparer.prepareQuery(session, "EXECUTE my_query");
+        assertSame(queryPreparer.prepareQuery(session, "EXECUTE my_query").getStatement(), preparedQuery.getStatement());
+        assertEquals(queryPreparer.getPreparedStatementsStats().getRequestCount(), 2);
+        assertEquals(queryPreparer.getPreparedStatementsStats().getHitRate(), 0.5);
+    }
+
+    @Test
+    public void testExecuteStatementLongerThanCache()
+    {
+        QueryPreparer queryPreparer = new QueryPreparer(SQL_PARSER, new QueryManagerConfig().setPreparedStatementCacheMaxSize(DataSize.ofBytes(10)));
+        Session session = testSessionBuilder()
+                .addPreparedStatement("my_query", "SELECT * FROM foo")
+                .build();
+        PreparedQuery preparedQuery = queryPreparer.prepareQuery(session, "EXECUTE my_query");
+        assertNotSame(queryPreparer.prepareQuery(session, "EXECUTE my_query").getStatement(), preparedQuery.getStatement());
+        assertEquals(queryPreparer.getPreparedStatementsStats().getHitRate(), 0.0);
+    }
+
     @Test
     public void testExecuteStatementDoesNotExist()
     {
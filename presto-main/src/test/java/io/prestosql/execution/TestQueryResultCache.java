@@ -0,0 +1,293 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.prestosql.execution;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import io.prestosql.Session;
+import io.prestosql.connector.MockConnectorFactory;
+import io.prestosql.execution.QueryPreparer.PreparedQuery;
+import io.prestosql.execution.QueryResultCache.CacheKey;
+import io.prestosql.execution.warnings.WarningCollector;
+import io.prestosql.metadata.QualifiedObjectName;
+import io.prestosql.spi.connector.ConnectorViewDefinition;
+import io.prestosql.spi.connector.ConnectorViewDefinition.ViewColumn;
+import io.prestosql.spi.connector.SchemaTableName;
+import io.prestosql.spi.security.Identity;
+import io.prestosql.spi.security.ViewExpression;
+import io.prestosql.sql.analyzer.Analysis;
+import io.prestosql.sql.analyzer.Analyzer;
+import io.prestosql.sql.parser.ParsingOptions;
+import io.prestosql.sql.tree.Expression;
+import io.prestosql.sql.tree.Statement;
+import io.prestosql.testing.LocalQueryRunner;
+import org.intellij.lang.annotations.Language;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static io.prestosql.SystemSessionProperties.JOIN_DISTRIBUTION_TYPE;
+import static io.prestosql.SystemSessionProperties.QUERY_RESULT_CACHE_ENABLED;
+import static io.prestosql.spi.type.VarcharType.createUnboundedVarcharType;
+import static io.prestosql.sql.ParameterUtils.parameterExtractor;
+import static io.prestosql.testing.TestingSession.testSessionBuilder;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertNotEquals;
+import static org.testng.Assert.assertTrue;
+
+@Test(singleThreaded = true)
+public class TestQueryResultCache
+{
+    private static final String CATALOG = "mock";
+    private static final String SCHEMA = "default";
+    private static final String USER = "user";
+
+    private static final Session SESSION = testSessionBuilder()
+            .setCatalog(CATALOG)
+            .setSchema(SCHEMA)
+            .setIdentity(Identity.ofUser(USER))
+            .setSystemProperty(QUERY_RESULT_CACHE_ENABLED, "true")
+            .build();
+
+    private final Map<SchemaTableName, String> dataVersions = new ConcurrentHashMap<>();
+    private LocalQueryRunner queryRunner;
+    private QueryResultCache queryResultCache;
+
+    @BeforeClass
+    public void setUp()
+    {
+        ConnectorViewDefinition view = new ConnectorViewDefinition(
+                "SELECT column_0 FROM mock.default.versioned",
+                Optional.empty(),
+                Optional.empty(),
+                ImmutableList.of(new ViewColumn("column_0", createUnboundedVarcharType().getTypeId())),
+                Optional.empty(),
+                Optional.of(USER),
+                false);
+
+        queryRunner = LocalQueryRunner.create(SESSION);
+        queryRunner.createCatalog(
+                CATALOG,
+                MockConnectorFactory.builder()
+                        .withGetViews((session, prefix) -> ImmutableMap.of(new SchemaTableName(SCHEMA, "versioned_view"), view))
+                        .withGetDataVersion((session, tableName) -> Optional.ofNullable(dataVersions.get(tableName)))
+                        .build(),
+                ImmutableMap.of());
+        queryResultCache = new QueryResultCache(new QueryResultCacheConfig().setEnabled(true), queryRunner.getMetadata());
+    }
+
+    @BeforeMethod
+    public void resetDataVersions()
+    {
+        dataVersions.clear();
+        dataVersions.put(new SchemaTableName(SCHEMA, "versioned"), "1");
+        dataVersions.put(new SchemaTableName(SCHEMA, "other_versioned"), "1");
+        queryRunner.getAccessControl().reset();
+    }
+
+    @AfterClass(alwaysRun = true)
+    public void tearDown()
+    {
+        queryRunner.close();
+        queryRunner = null;
+    }
+
+    @Test
+    public void testCacheKey()
+    {
+        Optional<CacheKey> key = getCacheKey("SELECT column_0 FROM versioned");
+        assertTrue(key.isPresent());
+        assertEquals(getCacheKey("SELECT column_0 FROM versioned"), key);
+        // the statement is compared in its formatted form
+        assertEquals(getCacheKey("select column_0\nfrom versioned"), key);
+        assertNotEquals(getCacheKey("SELECT column_1 FROM versioned"), key);
+
+        assertTrue(getCacheKey("SELECT v.column_0 FROM versioned v JOIN other_versioned o ON v.column_0 = o.column_0").isPresent());
+    }
+
+    @Test
+    public void testDisabled()
+    {
+        Session session = Session.builder(SESSION)
+                .setSystemProperty(QUERY_RESULT_CACHE_ENABLED, "false")
+                .build();
+        assertFalse(getCacheKey(queryResultCache, session, "SELECT column_0 FROM versioned").isPresent());
+
+        QueryResultCache disabledCache = new QueryResultCache(new QueryResultCacheConfig(), queryRunner.getMetadata());
+        assertFalse(getCacheKey(disabledCache, SESSION, "SELECT column_0 FROM versioned").isPresent());
+    }
+
+    @Test
+    public void testNotQuery()
+    {
+        assertFalse(getCacheKey("INSERT INTO versioned SELECT * FROM other_versioned").isPresent());
+    }
+
+    @Test
+    public void testView()
+    {
+        assertFalse(getCacheKey("SELECT column_0 FROM versioned_view").isPresent());
+    }
+
+    @Test
+    public void testRowFilter()
+    {
+        queryRunner.getAccessControl().rowFilter(
+                new QualifiedObjectName(CATALOG, SCHEMA, "versioned"),
+                USER,
+                new ViewExpression(USER, Optional.empty(), Optional.empty(), "column_0 IS NOT NULL"));
+        assertFalse(getCacheKey("SELECT column_0 FROM versioned").isPresent());
+    }
+
+    @Test
+    public void testColumnMask()
+    {
+        queryRunner.getAccessControl().columnMask(
+                new QualifiedObjectName(CATALOG, SCHEMA, "versioned"),
+                "column_0",
+                USER,
+                new ViewExpression(USER, Optional.empty(), Optional.empty(), "'masked'"));
+        assertFalse(getCacheKey("SELECT column_0 FROM versioned").isPresent());
+    }
+
+    @Test
+    public void testTableSample()
+    {
+        assertFalse(getCacheKey("SELECT column_0 FROM versioned TABLESAMPLE BERNOULLI (50)").isPresent());
+        assertFalse(getCacheKey("SELECT column_0 FROM versioned TABLESAMPLE SYSTEM (50)").isPresent());
+    }
+
+    @Test
+    public void testNonDeterministicFunctions()
+    {
+        assertFalse(getCacheKey("SELECT random() FROM versioned").isPresent());
+        assertFalse(getCacheKey("SELECT column_0 FROM versioned WHERE rand() < 0.5").isPresent());
+    }
+
+    @Test
+    public void testStartTimeFunctions()
+    {
+        assertFalse(getCacheKey("SELECT now() FROM versioned").isPresent());
+        assertFalse(getCacheKey("SELECT current_timestamp FROM versioned").isPresent());
+        assertFalse(getCacheKey("SELECT current_date FROM versioned").isPresent());
+        assertFalse(getCacheKey("SELECT current_time FROM versioned").isPresent());
+        assertFalse(getCacheKey("SELECT localtimestamp FROM versioned").isPresent());
+        assertFalse(getCacheKey("SELECT localtime FROM versioned").isPresent());
+    }
+
+    @Test
+    public void testTableWithoutDataVersion()
+    {
+        assertFalse(getCacheKey("SELECT column_0 FROM unversioned").isPresent());
+        assertFalse(getCacheKey("SELECT v.column_0 FROM versioned v JOIN unversioned u ON v.column_0 = u.column_0").isPresent());
+    }
+
+    @Test
+    public void testKeyChangesWithDataVersion()
+    {
+        Optional<CacheKey> key = getCacheKey("SELECT column_0 FROM versioned");
+        assertTrue(key.isPresent());
+
+        // a change of an unrelated table does not change the key
+        dataVersions.put(new SchemaTableName(SCHEMA, "other_versioned"), "2");
+        assertEquals(getCacheKey("SELECT column_0 FROM versioned"), key);
+
+        dataVersions.put(new SchemaTableName(SCHEMA, "versioned"), "2");
+        Optional<CacheKey> changedKey = getCacheKey("SELECT column_0 FROM versioned");
+        assertTrue(changedKey.isPresent());
+        assertNotEquals(changedKey, key);
+    }
+
+    @Test
+    public void testKeyChangesWithUser()
+    {
+        Optional<CacheKey> key = getCacheKey("SELECT column_0 FROM versioned");
+        Session otherUser = Session.builder(SESSION)
+                .setIdentity(Identity.ofUser("other_user"))
+                .build();
+        Optional<CacheKey> otherUserKey = getCacheKey(queryResultCache, otherUser, "SELECT column_0 FROM versioned");
+        assertTrue(otherUserKey.isPresent());
+        assertNotEquals(otherUserKey, key);
+    }
+
+    @Test
+    public void testKeyChangesWithSessionProperties()
+    {
+        Optional<CacheKey> key = getCacheKey("SELECT column_0 FROM versioned");
+        Session otherProperties = Session.builder(SESSION)
+                .setSystemProperty(JOIN_DISTRIBUTION_TYPE, "BROADCAST")
+                .build();
+        Optional<CacheKey> otherPropertiesKey = getCacheKey(queryResultCache, otherProperties, "SELECT column_0 FROM versioned");
+        assertTrue(otherPropertiesKey.isPresent());
+        assertNotEquals(otherPropertiesKey, key);
+    }
+
+    @Test
+    public void testParameters()
+    {
+        @Language("SQL") String sql = "SELECT column_0 FROM versioned WHERE column_1 = ?";
+        Optional<CacheKey> key = getCacheKey(sql, ImmutableList.of(parseExpression("'a'")));
+        assertTrue(key.isPresent());
+        assertEquals(getCacheKey(sql, ImmutableList.of(parseExpression("'a'"))), key);
+        assertNotEquals(getCacheKey(sql, ImmutableList.of(parseExpression("'b'"))), key);
+
+        assertFalse(getCacheKey("SELECT column_0 FROM versioned WHERE column_1 < ?", ImmutableList.of(parseExpression("CAST(current_timestamp AS varchar)"))).isPresent());
+    }
+
+    private Optional<CacheKey> getCacheKey(@Language("SQL") String sql)
+    {
+        return getCacheKey(queryResultCache, SESSION, sql, ImmutableList.of());
+    }
+
+    private Optional<CacheKey> getCacheKey(@Language("SQL") String sql, List<Expression> parameters)
+    {
+        return getCacheKey(queryResultCache, SESSION, sql, parameters);
+    }
+
+    private Optional<CacheKey> getCacheKey(QueryResultCache cache, Session session, @Language("SQL") String sql)
+    {
+        return getCacheKey(cache, session, sql, ImmutableList.of());
+    }
+
+    private Optional<CacheKey> getCacheKey(QueryResultCache cache, Session session, @Language("SQL") String sql, List<Expression> parameters)
+    {
+        Statement statement = queryRunner.getSqlParser().createStatement(sql, new ParsingOptions());
+        PreparedQuery preparedQuery = new PreparedQuery(statement, parameters, Optional.empty());
+        return queryRunner.inTransaction(session, transactionSession -> {
+            Analyzer analyzer = new Analyzer(
+                    transactionSession,
+                    queryRunner.getMetadata(),
+                    queryRunner.getSqlParser(),
+                    queryRunner.getAccessControl(),
+                    Optional.empty(),
+                    parameters,
+                    parameterExtractor(statement, parameters),
+                    WarningCollector.NOOP);
+            Analysis analysis = analyzer.analyze(statement);
+            return cache.getCacheKey(transactionSession, preparedQuery, analysis);
+        });
+    }
+
+    private Expression parseExpression(String expression)
+    {
+        return queryRunner.getSqlParser().createExpression(expression, new ParsingOptions());
+    }
+}
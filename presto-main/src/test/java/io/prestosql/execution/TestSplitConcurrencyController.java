@@ -32,6 +32,27 @@ public class TestSplitConcurrencyController
         }
     }
 
+    @Test
+    public void testRampupWithExpectedSplitCost()
+    {
+        SplitConcurrencyController controller = new SplitConcurrencyController(1, new Duration(1, SECONDS));
+        controller.setExpectedSplitNanos(MILLISECONDS.toNanos(100));
+
+        // short splits adjust after each expected split, doubling the concurrency up to the splits finishing within an interval
+        int[] expectedConcurrency = {2, 4, 8, 16, 26, 36};
+        for (int expected : expectedConcurrency) {
+            controller.update(MILLISECONDS.toNanos(100), 0, controller.getTargetConcurrency());
+            assertEquals(controller.getTargetConcurrency(), expected);
+        }
+
+        // splits longer than the interval adjust once per interval, one split at a time
+        controller.setExpectedSplitNanos(SECONDS.toNanos(10));
+        controller.update(MILLISECONDS.toNanos(500), 0, 36);
+        assertEquals(controller.getTargetConcurrency(), 36);
+        controller.update(MILLISECONDS.toNanos(500), 0, 36);
+        assertEquals(controller.getTargetConcurrency(), 37);
+    }
+
     @Test
     public void testRampdown()
     {
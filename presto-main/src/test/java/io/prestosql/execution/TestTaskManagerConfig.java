@@ -50,6 +50,7 @@ public class TestTaskManagerConfig
                 .setMaxPartialAggregationMemoryUsage(DataSize.of(16, Unit.MEGABYTE))
                 .setMaxLocalExchangeBufferSize(DataSize.of(32, Unit.MEGABYTE))
                 .setSinkMaxBufferSize(DataSize.of(32, Unit.MEGABYTE))
+                .setSinkSpillEnabled(false)
                 .setMaxPagePartitioningBufferSize(DataSize.of(32, Unit.MEGABYTE))
                 .setWriterCount(1)
                 .setTaskConcurrency(16)
@@ -58,6 +59,7 @@ public class TestTaskManagerConfig
                 .setTaskNotificationThreads(5)
                 .setTaskYieldThreads(3)
                 .setLevelTimeMultiplier(new BigDecimal("2"))
+                .setSplitQueueShards(1)
                 .setStatisticsCpuTimerEnabled(true));
     }
 
@@ -82,6 +84,7 @@ public class TestTaskManagerConfig
                 .put("task.info.max-age", "22m")
                 .put("task.client.timeout", "10s")
                 .put("sink.max-buffer-size", "42MB")
+                .put("sink.spill-enabled", "true")
                 .put("driver.max-page-partitioning-buffer-size", "40MB")
                 .put("task.writer-count", "4")
                 .put("task.concurrency", "8")
@@ -90,6 +93,7 @@ public class TestTaskManagerConfig
                 .put("task.task-notification-threads", "13")
                 .put("task.task-yield-threads", "8")
                 .put("task.level-time-multiplier", "2.1")
+                .put("task.split-queue-shards", "4")
                 .put("task.statistics-cpu-timer-enabled", "false")
                 .build();
 
@@ -111,6 +115,7 @@ public class TestTaskManagerConfig
                 .setInfoMaxAge(new Duration(22, TimeUnit.MINUTES))
                 .setClientTimeout(new Duration(10, TimeUnit.SECONDS))
                 .setSinkMaxBufferSize(DataSize.of(42, Unit.MEGABYTE))
+                .setSinkSpillEnabled(true)
                 .setMaxPagePartitioningBufferSize(DataSize.of(40, Unit.MEGABYTE))
                 .setWriterCount(4)
                 .setTaskConcurrency(8)
@@ -119,6 +124,7 @@ public class TestTaskManagerConfig
                 .setTaskNotificationThreads(13)
                 .setTaskYieldThreads(8)
                 .setLevelTimeMultiplier(new BigDecimal("2.1"))
+                .setSplitQueueShards(4)
                 .setStatisticsCpuTimerEnabled(false);
 
         assertFullMapping(properties, expected);
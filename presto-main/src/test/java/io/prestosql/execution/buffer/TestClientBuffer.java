@@ -15,6 +15,7 @@ package io.prestosql.execution.buffer;
 
 import com.google.common.collect.ImmutableList;
 import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.SettableFuture;
 import io.airlift.units.DataSize;
 import io.airlift.units.Duration;
 import io.prestosql.execution.buffer.ClientBuffer.PagesSupplier;
@@ -32,6 +33,7 @@ import java.util.Deque;
 import java.util.List;
 import java.util.Optional;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
 
 import static com.google.common.base.Preconditions.checkState;
 import static io.prestosql.execution.buffer.BufferResult.emptyResults;
@@ -357,6 +359,36 @@ public class TestClientBuffer
         assertBufferDestroyed(buffer, 1);
     }
 
+    @Test
+    public void testSpilledPages()
+    {
+        ClientBuffer buffer = new ClientBuffer(TASK_INSTANCE_ID, BUFFER_ID);
+        AtomicLong loadedBytes = new AtomicLong();
+
+        // add a page that is in memory and a page that is spilled
+        addPage(buffer, createPage(0));
+        SettableFuture<SerializedPage> spilledPage = SettableFuture.create();
+        SerializedPageReference spilledPageReference = new SerializedPageReference(() -> spilledPage, 1, sizeOfPages(1).toBytes(), 1, loadedBytes::addAndGet);
+        buffer.enqueuePages(ImmutableList.of(spilledPageReference));
+        spilledPageReference.dereferencePage();
+        assertBufferInfo(buffer, 2, 0);
+
+        // the read is completed once the spilled page is loaded
+        ListenableFuture<BufferResult> future = buffer.getPages(0, sizeOfPages(10));
+        assertFalse(future.isDone());
+        assertEquals(loadedBytes.get(), 0);
+        spilledPage.set(PAGES_SERDE.serialize(createPage(1)));
+        assertBufferResultEquals(TYPES, getFuture(future, NO_WAIT), bufferResult(0, createPage(0), createPage(1)));
+        assertEquals(loadedBytes.get(), sizeOfPages(1).toBytes());
+
+        // the loaded page is kept in memory until it is acknowledged
+        assertBufferResultEquals(TYPES, getBufferResult(buffer, 1, sizeOfPages(10), NO_WAIT), bufferResult(1, createPage(1)));
+        assertEquals(loadedBytes.get(), sizeOfPages(1).toBytes());
+        buffer.acknowledgePages(2);
+        assertEquals(loadedBytes.get(), 0);
+        assertBufferInfo(buffer, 0, 2);
+    }
+
     private static void assertInvalidSequenceId(ClientBuffer buffer, int sequenceId)
     {
         try {
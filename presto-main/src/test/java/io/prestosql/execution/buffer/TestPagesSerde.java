@@ -24,6 +24,7 @@ import org.testng.annotations.Test;
 
 import java.util.Iterator;
 import java.util.List;
+import java.util.Random;
 
 import static io.prestosql.execution.buffer.PagesSerdeUtil.readPages;
 import static io.prestosql.execution.buffer.PagesSerdeUtil.writePages;
@@ -32,6 +33,7 @@ import static io.prestosql.spi.type.BigintType.BIGINT;
 import static io.prestosql.spi.type.VarcharType.VARCHAR;
 import static org.testng.Assert.assertEquals;
 import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
 
 public class TestPagesSerde
 {
@@ -59,6 +61,53 @@ public class TestPagesSerde
         assertFalse(pageIterator.hasNext());
     }
 
+    @Test
+    public void testColumnCompression()
+    {
+        PagesSerde serde = new TestingPagesSerdeFactory().createPagesSerde();
+        Random random = new Random(42);
+
+        // a repetitive string column and a random bigint column, so only the first one is worth compressing
+        BlockBuilder varcharBlockBuilder = VARCHAR.createBlockBuilder(null, 1000);
+        BlockBuilder bigintBlockBuilder = BIGINT.createBlockBuilder(null, 1000);
+        for (int i = 0; i < 1000; i++) {
+            VARCHAR.writeString(varcharBlockBuilder, "value_" + (i % 10));
+            BIGINT.writeLong(bigintBlockBuilder, random.nextLong());
+        }
+        Page page = new Page(varcharBlockBuilder.build(), bigintBlockBuilder.build());
+        Page bigintPage = new Page(page.getBlock(1));
+
+        List<Type> types = ImmutableList.of(VARCHAR, BIGINT);
+        // enough pages to go through codec selection more than once
+        for (int i = 0; i < 100; i++) {
+            SerializedPage serializedPage = serde.serialize(page);
+            assertTrue(serializedPage.isCompressed());
+            assertTrue(serializedPage.getSizeInBytes() < serializedPage.getUncompressedSizeInBytes());
+            // the incompressible column is sent as is
+            assertTrue(serializedPage.getSizeInBytes() > page.getBlock(1).getSizeInBytes());
+            assertPageEquals(types, serde.deserialize(serializedPage), page);
+
+            SerializedPage serializedBigintPage = serde.serialize(bigintPage);
+            assertFalse(serializedBigintPage.isCompressed());
+            assertPageEquals(ImmutableList.of(BIGINT), serde.deserialize(serializedBigintPage), bigintPage);
+        }
+    }
+
+    @Test
+    public void testCompressedPageReadByAnotherSerde()
+    {
+        BlockBuilder blockBuilder = VARCHAR.createBlockBuilder(null, 1000);
+        for (int i = 0; i < 1000; i++) {
+            VARCHAR.writeString(blockBuilder, "alice");
+        }
+        Page page = new Page(blockBuilder.build());
+
+        // the codecs are picked by the writer, the reader does not need to have seen any previous page
+        SerializedPage serializedPage = new TestingPagesSerdeFactory().createPagesSerde().serialize(page);
+        assertTrue(serializedPage.isCompressed());
+        assertPageEquals(ImmutableList.of(VARCHAR), new TestingPagesSerdeFactory().createPagesSerde().deserialize(serializedPage), page);
+    }
+
     @Test
     public void testBigintSerializedSize()
     {
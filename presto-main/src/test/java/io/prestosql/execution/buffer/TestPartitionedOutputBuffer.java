@@ -21,14 +21,23 @@ import io.prestosql.execution.buffer.OutputBuffers.OutputBufferId;
 import io.prestosql.memory.context.SimpleLocalMemoryContext;
 import io.prestosql.spi.Page;
 import io.prestosql.spi.type.BigintType;
+import io.prestosql.spiller.FileSingleStreamSpillerFactory;
+import io.prestosql.spiller.SpillerStats;
 import org.testng.annotations.AfterClass;
 import org.testng.annotations.BeforeClass;
 import org.testng.annotations.Test;
 
+import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Optional;
 import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
 
+import static com.google.common.io.MoreFiles.deleteRecursively;
+import static com.google.common.io.RecursiveDeleteOption.ALLOW_INSECURE;
+import static com.google.common.util.concurrent.MoreExecutors.newDirectExecutorService;
 import static io.airlift.concurrent.Threads.daemonThreadsNamed;
 import static io.prestosql.execution.buffer.BufferResult.emptyResults;
 import static io.prestosql.execution.buffer.BufferState.OPEN;
@@ -52,7 +61,10 @@ import static io.prestosql.execution.buffer.BufferTestUtils.sizeOfPages;
 import static io.prestosql.execution.buffer.OutputBuffers.BufferType.PARTITIONED;
 import static io.prestosql.execution.buffer.OutputBuffers.createInitialEmptyOutputBuffers;
 import static io.prestosql.memory.context.AggregatedMemoryContext.newSimpleAggregatedMemoryContext;
+import static io.prestosql.metadata.MetadataManager.createTestMetadataManager;
 import static io.prestosql.spi.type.BigintType.BIGINT;
+import static java.nio.file.Files.createTempDirectory;
+import static java.nio.file.Files.list;
 import static java.util.concurrent.Executors.newScheduledThreadPool;
 import static org.testng.Assert.assertEquals;
 import static org.testng.Assert.assertFalse;
@@ -835,6 +847,63 @@ public class TestPartitionedOutputBuffer
         assertEquals(memoryManager.getBufferedBytes(), 0);
     }
 
+    @Test
+    public void testSpillWhenFull()
+            throws Exception
+    {
+        Path spillPath = createTempDirectory("spill");
+        try {
+            FileSingleStreamSpillerFactory spillerFactory = new FileSingleStreamSpillerFactory(
+                    newDirectExecutorService(),
+                    createTestMetadataManager().getBlockEncodingSerde(),
+                    new SpillerStats(),
+                    ImmutableList.of(spillPath),
+                    1.0,
+                    false,
+                    true);
+            AtomicLong spilledBytes = new AtomicLong();
+            PartitionedOutputBuffer buffer = new PartitionedOutputBuffer(
+                    TASK_INSTANCE_ID,
+                    new StateMachine<>("bufferState", stateNotificationExecutor, OPEN, TERMINAL_BUFFER_STATES),
+                    createInitialEmptyOutputBuffers(PARTITIONED)
+                            .withBuffer(FIRST, 0)
+                            .withNoMoreBufferIds(),
+                    sizeOfPages(2),
+                    () -> new SimpleLocalMemoryContext(newSimpleAggregatedMemoryContext(), "test"),
+                    stateNotificationExecutor,
+                    Optional.of(new OutputBufferSpiller(spillerFactory, () -> spilledBytes::addAndGet)));
+
+            // the buffer holds two pages in memory, and spills the others instead of blocking
+            for (int i = 0; i < 5; i++) {
+                addPage(buffer, createPage(i), 0);
+            }
+            assertTrue(buffer.getMemoryManager().getBufferedBytes() <= sizeOfPages(2).toBytes());
+            assertTrue(spilledBytes.get() > 0);
+            assertQueueState(buffer, FIRST, 5, 0);
+
+            // spilled pages are returned in order
+            assertBufferResultEquals(TYPES, getBufferResult(buffer, FIRST, 0, sizeOfPages(10), NO_WAIT), bufferResult(0, createPage(0), createPage(1), createPage(2), createPage(3), createPage(4)));
+            // spilled pages count against the buffer memory once they are read back
+            assertEquals(buffer.getMemoryManager().getBufferedBytes(), sizeOfPages(5).toBytes());
+            // spilled pages can be read again, e.g. when a request is retried
+            assertBufferResultEquals(TYPES, getBufferResult(buffer, FIRST, 0, sizeOfPages(10), NO_WAIT), bufferResult(0, createPage(0), createPage(1), createPage(2), createPage(3), createPage(4)));
+            assertEquals(buffer.getMemoryManager().getBufferedBytes(), sizeOfPages(5).toBytes());
+
+            // acknowledged pages are released
+            acknowledgeBufferResult(buffer, FIRST, 3);
+            assertEquals(buffer.getMemoryManager().getBufferedBytes(), sizeOfPages(2).toBytes());
+
+            buffer.destroy();
+            assertEquals(spilledBytes.get(), 0);
+            try (Stream<Path> spillFiles = list(spillPath)) {
+                assertEquals(spillFiles.count(), 0);
+            }
+        }
+        finally {
+            deleteRecursively(spillPath, ALLOW_INSECURE);
+        }
+    }
+
     private PartitionedOutputBuffer createPartitionedBuffer(OutputBuffers buffers, DataSize dataSize)
     {
         return new PartitionedOutputBuffer(
@@ -0,0 +1,168 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.prestosql.execution.executor;
+
+import com.google.common.base.Ticker;
+import com.google.common.collect.ImmutableList;
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
+import io.airlift.units.Duration;
+import io.prestosql.execution.SplitRunner;
+import io.prestosql.execution.TaskId;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.openjdk.jmh.runner.options.VerboseMode;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.OptionalInt;
+import java.util.concurrent.TimeUnit;
+
+import static io.prestosql.operator.Operator.NOT_BLOCKED;
+import static java.util.concurrent.TimeUnit.SECONDS;
+
+/**
+ * Measures the scheduling overhead of the task executor by running many tiny splits,
+ * each of which returns to the split queue after every quanta.
+ */
+@SuppressWarnings("MethodMayBeStatic")
+@State(Scope.Thread)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(1)
+@Warmup(iterations = 10, time = 500, timeUnit = TimeUnit.MILLISECONDS)
+@Measurement(iterations = 10, time = 500, timeUnit = TimeUnit.MILLISECONDS)
+@BenchmarkMode(Mode.AverageTime)
+public class BenchmarkTaskExecutor
+{
+    private static final int TASKS = 16;
+    private static final int SPLITS_PER_TASK = 500;
+    private static final int QUANTA_PER_SPLIT = 10;
+
+    @Benchmark
+    @OperationsPerInvocation(TASKS * SPLITS_PER_TASK * QUANTA_PER_SPLIT)
+    public Object runSplits(BenchmarkData data)
+            throws Exception
+    {
+        List<ListenableFuture<?>> finishedFutures = new ArrayList<>(TASKS * SPLITS_PER_TASK);
+        for (TaskHandle taskHandle : data.getTaskHandles()) {
+            ImmutableList.Builder<SplitRunner> splits = ImmutableList.builder();
+            for (int i = 0; i < SPLITS_PER_TASK; i++) {
+                splits.add(new TinySplit());
+            }
+            // intermediate splits are queued right away, so the benchmark measures the split queue rather than the leaf split limits
+            finishedFutures.addAll(data.getTaskExecutor().enqueueSplits(taskHandle, true, splits.build()));
+        }
+        return Futures.allAsList(finishedFutures).get();
+    }
+
+    @SuppressWarnings("FieldMayBeFinal")
+    @State(Scope.Thread)
+    public static class BenchmarkData
+    {
+        @Param({"8", "32"})
+        private int runnerThreads = 8;
+
+        @Param({"1", "2", "4"})
+        private int splitQueueShards = 1;
+
+        private TaskExecutor taskExecutor;
+        private List<TaskHandle> taskHandles;
+
+        @Setup
+        public void setup()
+        {
+            taskExecutor = new TaskExecutor(runnerThreads, runnerThreads * 2, 3, 4, new MultilevelSplitQueue(2, splitQueueShards), Ticker.systemTicker());
+            taskExecutor.start();
+
+            ImmutableList.Builder<TaskHandle> taskHandles = ImmutableList.builder();
+            for (int i = 0; i < TASKS; i++) {
+                taskHandles.add(taskExecutor.addTask(new TaskId("benchmark", 0, i), () -> 0, 10, new Duration(1, SECONDS), OptionalInt.empty()));
+            }
+            this.taskHandles = taskHandles.build();
+        }
+
+        @TearDown
+        public void tearDown()
+        {
+            for (TaskHandle taskHandle : taskHandles) {
+                taskExecutor.removeTask(taskHandle);
+            }
+            taskExecutor.stop();
+        }
+
+        public TaskExecutor getTaskExecutor()
+        {
+            return taskExecutor;
+        }
+
+        public List<TaskHandle> getTaskHandles()
+        {
+            return taskHandles;
+        }
+    }
+
+    private static class TinySplit
+            implements SplitRunner
+    {
+        private int remainingQuanta = QUANTA_PER_SPLIT;
+
+        @Override
+        public boolean isFinished()
+        {
+            return remainingQuanta == 0;
+        }
+
+        @Override
+        public ListenableFuture<?> processFor(Duration duration)
+        {
+            remainingQuanta--;
+            return NOT_BLOCKED;
+        }
+
+        @Override
+        public String getInfo()
+        {
+            return "tiny-split";
+        }
+
+        @Override
+        public void close()
+        {
+        }
+    }
+
+    public static void main(String[] args)
+            throws Exception
+    {
+        Options options = new OptionsBuilder()
+                .verbosity(VerboseMode.NORMAL)
+                .include(".*" + BenchmarkTaskExecutor.class.getSimpleName() + ".*")
+                .build();
+        new Runner(options).run();
+    }
+}
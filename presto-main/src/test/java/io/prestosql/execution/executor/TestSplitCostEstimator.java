@@ -0,0 +1,110 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.prestosql.execution.executor;
+
+import io.prestosql.execution.TaskId;
+import org.testng.annotations.Test;
+
+import java.util.List;
+
+import static io.airlift.units.DataSize.succinctBytes;
+import static io.airlift.units.Duration.succinctNanos;
+import static org.testng.Assert.assertEquals;
+
+public class TestSplitCostEstimator
+{
+    private static final TaskId TASK_ID = new TaskId("test", 0, 0);
+
+    @Test
+    public void testMovingAverages()
+    {
+        SplitCostEstimator estimator = new SplitCostEstimator(TASK_ID);
+        assertEquals(estimator.getEstimates().size(), 0);
+
+        // the first split sets the averages
+        estimator.splitFinished(0, 1000, 2000, 100);
+        assertEstimate(estimator.getEstimates().get(0), 1, 1000, 2000, 100, 20);
+
+        // later splits move the averages by a fifth of their difference
+        estimator.splitFinished(0, 2000, 4000, 600);
+        assertEstimate(estimator.getEstimates().get(0), 2, 1200, 2400, 200, 12);
+        estimator.splitFinished(0, 1200, 2400, 200);
+        assertEstimate(estimator.getEstimates().get(0), 3, 1200, 2400, 200, 12);
+    }
+
+    @Test
+    public void testPipelinesAreEstimatedSeparately()
+    {
+        SplitCostEstimator estimator = new SplitCostEstimator(TASK_ID);
+        estimator.splitFinished(1, 5000, 5000, 0);
+        estimator.splitFinished(0, 1000, 1000, 0);
+        estimator.splitFinished(0, 1000, 1000, 0);
+
+        List<SplitCostEstimate> estimates = estimator.getEstimates();
+        assertEquals(estimates.size(), 2);
+        assertEstimate(estimates.get(0), 2, 1000, 1000, 0, 0);
+        assertEstimate(estimates.get(1), 1, 5000, 5000, 0, 0);
+    }
+
+    @Test
+    public void testExpectedScheduledNanos()
+    {
+        SplitCostEstimator estimator = new SplitCostEstimator(TASK_ID);
+        assertEquals(estimator.getExpectedScheduledNanos(), 0);
+
+        estimator.splitFinished(0, 1000, 1000, 0);
+        assertEquals(estimator.getExpectedScheduledNanos(), 1000);
+
+        // the pipelines are blended by their number of finished splits
+        estimator.splitFinished(1, 4000, 4000, 0);
+        estimator.splitFinished(1, 4000, 4000, 0);
+        estimator.splitFinished(1, 4000, 4000, 0);
+        assertEquals(estimator.getExpectedScheduledNanos(), 3250);
+    }
+
+    @Test
+    public void testExpectedRemainingCpuNanos()
+    {
+        SplitCostEstimator estimator = new SplitCostEstimator(TASK_ID);
+        // no finished split of the pipeline
+        assertEquals(estimator.getExpectedRemainingCpuNanos(0, 0, 0), 0);
+
+        // splits of pipeline 0 read 100 bytes using 20ns per byte
+        estimator.splitFinished(0, 2000, 2000, 100);
+        assertEquals(estimator.getExpectedRemainingCpuNanos(0, 0, 0), 2000);
+        assertEquals(estimator.getExpectedRemainingCpuNanos(0, 500, 25), 1500);
+        // the remaining input is priced per byte, regardless of the CPU time used so far
+        assertEquals(estimator.getExpectedRemainingCpuNanos(0, 5000, 25), 1500);
+        assertEquals(estimator.getExpectedRemainingCpuNanos(0, 1000, 150), 0);
+
+        // splits of pipeline 1 read no input, so the CPU time used so far is subtracted
+        estimator.splitFinished(1, 3000, 3000, 0);
+        assertEquals(estimator.getExpectedRemainingCpuNanos(1, 0, 0), 3000);
+        assertEquals(estimator.getExpectedRemainingCpuNanos(1, 1000, 0), 2000);
+        assertEquals(estimator.getExpectedRemainingCpuNanos(1, 4000, 0), 0);
+
+        // other pipelines are still unknown
+        assertEquals(estimator.getExpectedRemainingCpuNanos(2, 0, 0), 0);
+    }
+
+    private static void assertEstimate(SplitCostEstimate estimate, long completedSplits, long scheduledNanos, long cpuNanos, long inputBytes, double cpuNanosPerInputByte)
+    {
+        assertEquals(estimate.getTaskId(), TASK_ID);
+        assertEquals(estimate.getCompletedSplits(), completedSplits);
+        assertEquals(estimate.getScheduledTimePerSplit(), succinctNanos(scheduledNanos));
+        assertEquals(estimate.getCpuTimePerSplit(), succinctNanos(cpuNanos));
+        assertEquals(estimate.getInputDataSizePerSplit(), succinctBytes(inputBytes));
+        assertEquals(estimate.getCpuNanosPerInputByte(), cpuNanosPerInputByte, 0.001);
+    }
+}
@@ -17,6 +17,8 @@ import com.google.common.collect.ImmutableList;
 import com.google.common.util.concurrent.Futures;
 import com.google.common.util.concurrent.ListenableFuture;
 import com.google.common.util.concurrent.SettableFuture;
+import io.airlift.stats.CounterStat;
+import io.airlift.stats.TimeStat;
 import io.airlift.testing.TestingTicker;
 import io.airlift.units.Duration;
 import io.prestosql.execution.SplitRunner;
@@ -26,21 +28,25 @@ import org.testng.annotations.Test;
 import java.util.Arrays;
 import java.util.List;
 import java.util.OptionalInt;
+import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Future;
 import java.util.concurrent.Phaser;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicInteger;
 
+import static com.google.common.collect.ImmutableList.toImmutableList;
 import static com.google.common.collect.Iterables.getOnlyElement;
 import static io.airlift.testing.Assertions.assertGreaterThan;
 import static io.airlift.testing.Assertions.assertLessThan;
 import static io.prestosql.execution.executor.MultilevelSplitQueue.LEVEL_CONTRIBUTION_CAP;
 import static io.prestosql.execution.executor.MultilevelSplitQueue.LEVEL_THRESHOLD_SECONDS;
+import static java.util.concurrent.Executors.newSingleThreadExecutor;
 import static java.util.concurrent.TimeUnit.MILLISECONDS;
 import static java.util.concurrent.TimeUnit.MINUTES;
 import static java.util.concurrent.TimeUnit.SECONDS;
 import static org.testng.Assert.assertEquals;
 import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertSame;
 import static org.testng.Assert.assertTrue;
 
 public class TestTaskExecutor
@@ -364,6 +370,85 @@ public class TestTaskExecutor
         }
     }
 
+    @Test
+    public void testSplitQueueShards()
+            throws Exception
+    {
+        TestingTicker ticker = new TestingTicker();
+        MultilevelSplitQueue splitQueue = new MultilevelSplitQueue(2, 2);
+        TaskHandle taskHandle = new TaskHandle(new TaskId("test", 0, 0), splitQueue, () -> 1, 1, new Duration(1, SECONDS), OptionalInt.empty());
+        PrioritizedSplitRunner localSplit = createSplitRunner(taskHandle, ticker);
+        PrioritizedSplitRunner remoteSplit = createSplitRunner(taskHandle, ticker);
+
+        splitQueue.offer(remoteSplit, 1);
+        splitQueue.offer(localSplit, 0);
+        assertEquals(splitQueue.size(), 2);
+
+        // a runner takes splits from its own shard first, and steals from the other shards once it is empty
+        assertSame(splitQueue.take(0), localSplit);
+        assertEquals(splitQueue.getStolenSplits().getTotalCount(), 0);
+        assertSame(splitQueue.take(0), remoteSplit);
+        assertEquals(splitQueue.getStolenSplits().getTotalCount(), 1);
+        assertEquals(splitQueue.size(), 0);
+    }
+
+    @Test(timeOut = 10_000)
+    public void testIdleRunnerStealsOfferedSplit()
+            throws Exception
+    {
+        MultilevelSplitQueue splitQueue = new MultilevelSplitQueue(2, 2);
+        TaskHandle taskHandle = new TaskHandle(new TaskId("test", 0, 0), splitQueue, () -> 1, 1, new Duration(1, SECONDS), OptionalInt.empty());
+        PrioritizedSplitRunner split = createSplitRunner(taskHandle, new TestingTicker());
+
+        ExecutorService executor = newSingleThreadExecutor();
+        try {
+            // the runner of shard 0 is idle, and is signaled when a split is offered to shard 1, which has no idle runners
+            Future<PrioritizedSplitRunner> taken = executor.submit(() -> splitQueue.take(0));
+            splitQueue.offer(split, 1);
+            assertSame(taken.get(), split);
+            assertEquals(splitQueue.size(), 0);
+        }
+        finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void testEqualPrioritySplitsOrderedByExpectedWork()
+    {
+        MultilevelSplitQueue splitQueue = new MultilevelSplitQueue(2);
+        TaskHandle taskHandle = new TaskHandle(new TaskId("test", 0, 0), splitQueue, () -> 1, 1, new Duration(1, SECONDS), OptionalInt.empty());
+        // splits of pipeline 0 read 1000 bytes and use 10us of CPU per byte
+        taskHandle.getCostEstimator().splitFinished(0, MILLISECONDS.toNanos(10), MILLISECONDS.toNanos(10), 1000);
+
+        TestingTicker ticker = new TestingTicker();
+        PrioritizedSplitRunner unstarted = createSplitRunner(taskHandle, ticker, 0, 0);
+        PrioritizedSplitRunner almostDone = createSplitRunner(taskHandle, ticker, 0, 900);
+        PrioritizedSplitRunner halfDone = createSplitRunner(taskHandle, ticker, 0, 500);
+        PrioritizedSplitRunner otherHalfDone = createSplitRunner(taskHandle, ticker, 0, 500);
+        // no split of pipeline 1 finished yet, so its splits are not delayed
+        PrioritizedSplitRunner unknownPipeline = createSplitRunner(taskHandle, ticker, 1, 0);
+        List<PrioritizedSplitRunner> splits = ImmutableList.of(unstarted, almostDone, halfDone, otherHalfDone, unknownPipeline);
+        splits.forEach(PrioritizedSplitRunner::setReady);
+
+        assertEquals(unstarted.getExpectedRemainingCpuNanos(), MILLISECONDS.toNanos(10));
+        assertEquals(almostDone.getExpectedRemainingCpuNanos(), MILLISECONDS.toNanos(1));
+        assertEquals(unknownPipeline.getExpectedRemainingCpuNanos(), 0);
+
+        // splits with the same level priority run shortest expected work first, and then in creation order
+        List<PrioritizedSplitRunner> sorted = splits.stream().sorted().collect(toImmutableList());
+        assertEquals(sorted, ImmutableList.of(unknownPipeline, almostDone, halfDone, otherHalfDone, unstarted));
+
+        // the level priority still comes first
+        TaskHandle otherTaskHandle = new TaskHandle(new TaskId("other", 0, 0), splitQueue, () -> 1, 1, new Duration(1, SECONDS), OptionalInt.empty());
+        otherTaskHandle.addScheduledNanos(MILLISECONDS.toNanos(100));
+        PrioritizedSplitRunner lowerPriority = createSplitRunner(otherTaskHandle, ticker, 1, 0);
+        lowerPriority.setReady();
+        assertEquals(lowerPriority.getExpectedRemainingCpuNanos(), 0);
+        assertLessThan(unstarted.compareTo(lowerPriority), 0);
+        assertGreaterThan(lowerPriority.compareTo(unstarted), 0);
+    }
+
     @Test(timeOut = 30_000)
     public void testMinMaxDriversPerTask()
     {
@@ -469,6 +554,30 @@ public class TestTaskExecutor
         }
     }
 
+    private static PrioritizedSplitRunner createSplitRunner(TaskHandle taskHandle, TestingTicker ticker)
+    {
+        return new PrioritizedSplitRunner(
+                taskHandle,
+                new TestingJob(ticker, new Phaser(), new Phaser(), new Phaser(), 1, 0),
+                ticker,
+                new CounterStat(),
+                new CounterStat(),
+                new TimeStat(MILLISECONDS),
+                new TimeStat(MILLISECONDS));
+    }
+
+    private static PrioritizedSplitRunner createSplitRunner(TaskHandle taskHandle, TestingTicker ticker, int pipelineId, long processedInputBytes)
+    {
+        return new PrioritizedSplitRunner(
+                taskHandle,
+                new TestingLeafSplit(pipelineId, processedInputBytes),
+                ticker,
+                new CounterStat(),
+                new CounterStat(),
+                new TimeStat(MILLISECONDS),
+                new TimeStat(MILLISECONDS));
+    }
+
     private static class TestingJob
             implements SplitRunner
     {
@@ -565,4 +674,52 @@ public class TestTaskExecutor
             return completed;
         }
     }
+
+    private static class TestingLeafSplit
+            implements SplitRunner
+    {
+        private final int pipelineId;
+        private final long processedInputBytes;
+
+        public TestingLeafSplit(int pipelineId, long processedInputBytes)
+        {
+            this.pipelineId = pipelineId;
+            this.processedInputBytes = processedInputBytes;
+        }
+
+        @Override
+        public boolean isFinished()
+        {
+            return false;
+        }
+
+        @Override
+        public ListenableFuture<?> processFor(Duration duration)
+        {
+            return Futures.immediateFuture(null);
+        }
+
+        @Override
+        public String getInfo()
+        {
+            return "testing-leaf-split";
+        }
+
+        @Override
+        public int getPipelineId()
+        {
+            return pipelineId;
+        }
+
+        @Override
+        public long getProcessedInputBytes()
+        {
+            return processedInputBytes;
+        }
+
+        @Override
+        public void close()
+        {
+        }
+    }
 }
@@ -0,0 +1,214 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.prestosql.execution.scheduler;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
+import io.airlift.units.DataSize;
+import io.airlift.units.Duration;
+import io.prestosql.client.NodeVersion;
+import io.prestosql.execution.MockRemoteTaskFactory;
+import io.prestosql.execution.NodeTaskMap.PartitionedSplitCountTracker;
+import io.prestosql.execution.RemoteTask;
+import io.prestosql.execution.TaskId;
+import io.prestosql.execution.TaskState;
+import io.prestosql.execution.TaskStatus;
+import io.prestosql.metadata.InternalNode;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.Test;
+
+import java.net.URI;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.stream.IntStream;
+
+import static com.google.common.collect.ImmutableList.toImmutableList;
+import static com.google.common.collect.ImmutableSet.toImmutableSet;
+import static io.airlift.concurrent.Threads.daemonThreadsNamed;
+import static io.airlift.units.DataSize.Unit.KILOBYTE;
+import static io.airlift.units.DataSize.Unit.MEGABYTE;
+import static io.prestosql.execution.TaskState.FINISHED;
+import static io.prestosql.execution.TaskState.FLUSHING;
+import static io.prestosql.execution.TaskState.RUNNING;
+import static io.prestosql.execution.TaskStatus.STARTING_VERSION;
+import static io.prestosql.execution.VersionedDynamicFilterDomains.INITIAL_DYNAMIC_FILTERS_VERSION;
+import static java.util.concurrent.Executors.newCachedThreadPool;
+import static java.util.concurrent.Executors.newScheduledThreadPool;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
+
+public class TestAdaptiveCountScheduler
+{
+    private static final DataSize TARGET_PARTITION_SIZE = DataSize.of(1, MEGABYTE);
+
+    private final ExecutorService executor = newCachedThreadPool(daemonThreadsNamed("stageExecutor-%s"));
+    private final ScheduledExecutorService scheduledExecutor = newScheduledThreadPool(2, daemonThreadsNamed("stageScheduledExecutor-%s"));
+    private final MockRemoteTaskFactory taskFactory;
+
+    public TestAdaptiveCountScheduler()
+    {
+        taskFactory = new MockRemoteTaskFactory(executor, scheduledExecutor);
+    }
+
+    @AfterClass(alwaysRun = true)
+    public void destroyExecutor()
+    {
+        executor.shutdownNow();
+        scheduledExecutor.shutdown();
+    }
+
+    @Test
+    public void testWaitForSourceTaskCreation()
+    {
+        AdaptiveCountScheduler scheduler = createScheduler(
+                5,
+                false,
+                ImmutableList.of(createSourceTaskStatus(FLUSHING, DataSize.of(1, MEGABYTE), false)));
+
+        ScheduleResult result = scheduler.schedule();
+        assertFalse(result.isFinished());
+        assertFalse(result.getBlocked().isDone());
+        assertEquals(result.getBlockedReason(), Optional.of(ScheduleResult.BlockedReason.WAITING_FOR_SOURCE));
+        assertEquals(result.getNewTasks().size(), 0);
+    }
+
+    @Test
+    public void testWaitForSourceOutput()
+    {
+        AdaptiveCountScheduler scheduler = createScheduler(
+                5,
+                true,
+                ImmutableList.of(
+                        createSourceTaskStatus(FLUSHING, DataSize.of(1, MEGABYTE), false),
+                        createSourceTaskStatus(RUNNING, DataSize.of(1, MEGABYTE), false)));
+
+        ScheduleResult result = scheduler.schedule();
+        assertFalse(result.isFinished());
+        assertEquals(result.getNewTasks().size(), 0);
+    }
+
+    @Test
+    public void testSmallInput()
+    {
+        AdaptiveCountScheduler scheduler = createScheduler(
+                5,
+                true,
+                ImmutableList.of(
+                        createSourceTaskStatus(FLUSHING, DataSize.of(1, MEGABYTE), false),
+                        createSourceTaskStatus(FLUSHING, DataSize.of(1, MEGABYTE), false),
+                        createSourceTaskStatus(FINISHED, DataSize.of(512, KILOBYTE), false)));
+
+        ScheduleResult result = scheduler.schedule();
+        assertTrue(result.isFinished());
+        assertTrue(result.getBlocked().isDone());
+        assertEquals(result.getNewTasks().size(), 3);
+        assertEquals(result.getNewTasks().stream().map(RemoteTask::getNodeId).collect(toImmutableSet()), ImmutableSet.of("other 0", "other 1", "other 2"));
+    }
+
+    @Test
+    public void testEmptyInput()
+    {
+        AdaptiveCountScheduler scheduler = createScheduler(
+                5,
+                true,
+                ImmutableList.of(createSourceTaskStatus(FINISHED, DataSize.ofBytes(0), false)));
+
+        ScheduleResult result = scheduler.schedule();
+        assertTrue(result.isFinished());
+        assertEquals(result.getNewTasks().size(), 1);
+    }
+
+    @Test
+    public void testLargeInput()
+    {
+        AdaptiveCountScheduler scheduler = createScheduler(
+                5,
+                false,
+                ImmutableList.of(
+                        createSourceTaskStatus(RUNNING, DataSize.of(3, MEGABYTE), false),
+                        createSourceTaskStatus(RUNNING, DataSize.of(2, MEGABYTE), false)));
+
+        ScheduleResult result = scheduler.schedule();
+        assertTrue(result.isFinished());
+        assertEquals(result.getNewTasks().size(), 5);
+    }
+
+    @Test
+    public void testOverutilizedSourceOutputBuffer()
+    {
+        AdaptiveCountScheduler scheduler = createScheduler(
+                5,
+                false,
+                ImmutableList.of(
+                        createSourceTaskStatus(RUNNING, DataSize.ofBytes(10), true),
+                        createSourceTaskStatus(RUNNING, DataSize.ofBytes(10), false)));
+
+        ScheduleResult result = scheduler.schedule();
+        assertTrue(result.isFinished());
+        assertEquals(result.getNewTasks().size(), 5);
+    }
+
+    private AdaptiveCountScheduler createScheduler(int nodeCount, boolean sourceTasksCreated, List<TaskStatus> sourceTasks)
+    {
+        return new AdaptiveCountScheduler(
+                (node, partition, totalPartitions) -> {
+                    assertTrue(totalPartitions.isPresent());
+                    assertTrue(partition < totalPartitions.getAsInt());
+                    return Optional.of(taskFactory.createTableScanTask(
+                            new TaskId("test", 1, partition),
+                            node, ImmutableList.of(),
+                            new PartitionedSplitCountTracker(delta -> {})));
+                },
+                generateRandomNodes(nodeCount),
+                () -> sourceTasksCreated,
+                () -> sourceTasks,
+                scheduledExecutor,
+                TARGET_PARTITION_SIZE);
+    }
+
+    private static TaskStatus createSourceTaskStatus(TaskState state, DataSize outputDataSize, boolean outputBufferOverutilized)
+    {
+        return new TaskStatus(
+                new TaskId("test", 0, 0),
+                "",
+                STARTING_VERSION,
+                state,
+                URI.create("http://127.0.0.1:11"),
+                "source",
+                ImmutableSet.of(),
+                ImmutableList.of(),
+                0,
+                0,
+                outputBufferOverutilized,
+                DataSize.ofBytes(0),
+                outputDataSize,
+                DataSize.ofBytes(0),
+                DataSize.ofBytes(0),
+                DataSize.ofBytes(0),
+                0,
+                new Duration(0, MILLISECONDS),
+                INITIAL_DYNAMIC_FILTERS_VERSION);
+    }
+
+    private static List<InternalNode> generateRandomNodes(int count)
+    {
+        return IntStream.range(0, count)
+                .mapToObj(i -> new InternalNode("other " + i, URI.create("http://127.0.0.1:11"), NodeVersion.UNKNOWN, false))
+                .collect(toImmutableList());
+    }
+}
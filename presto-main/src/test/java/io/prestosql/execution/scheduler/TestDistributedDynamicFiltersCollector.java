@@ -0,0 +1,151 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.prestosql.execution.scheduler;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import io.prestosql.client.NodeVersion;
+import io.prestosql.execution.MockRemoteTaskFactory;
+import io.prestosql.execution.MockRemoteTaskFactory.MockRemoteTask;
+import io.prestosql.execution.NodeTaskMap.PartitionedSplitCountTracker;
+import io.prestosql.execution.RemoteTask;
+import io.prestosql.execution.TaskId;
+import io.prestosql.metadata.InternalNode;
+import io.prestosql.spi.predicate.Domain;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.Test;
+
+import java.net.URI;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ScheduledExecutorService;
+
+import static io.airlift.concurrent.Threads.daemonThreadsNamed;
+import static io.prestosql.execution.StageState.FAILED;
+import static io.prestosql.execution.StageState.FINISHED;
+import static io.prestosql.execution.StageState.RUNNING;
+import static io.prestosql.execution.StageState.SCHEDULING;
+import static io.prestosql.execution.scheduler.DistributedDynamicFiltersCollector.mergeDynamicFilter;
+import static io.prestosql.spi.type.BigintType.BIGINT;
+import static java.util.concurrent.Executors.newCachedThreadPool;
+import static java.util.concurrent.Executors.newScheduledThreadPool;
+import static org.testng.Assert.assertEquals;
+
+public class TestDistributedDynamicFiltersCollector
+{
+    private static final String FILTER_ID = "df";
+    private static final InternalNode NODE = new InternalNode("node", URI.create("http://127.0.0.1:11"), NodeVersion.UNKNOWN, false);
+
+    private final ExecutorService executor = newCachedThreadPool(daemonThreadsNamed("stageExecutor-%s"));
+    private final ScheduledExecutorService scheduledExecutor = newScheduledThreadPool(2, daemonThreadsNamed("stageScheduledExecutor-%s"));
+    private final MockRemoteTaskFactory taskFactory = new MockRemoteTaskFactory(executor, scheduledExecutor);
+
+    @AfterClass(alwaysRun = true)
+    public void destroyExecutor()
+    {
+        executor.shutdownNow();
+        scheduledExecutor.shutdown();
+    }
+
+    @Test
+    public void testBroadcast()
+    {
+        MockRemoteTask first = createTask(1);
+        MockRemoteTask second = createTask(2);
+        List<RemoteTask> tasks = ImmutableList.of(first, second);
+
+        assertEquals(mergeDynamicFilter(FILTER_ID, true, SCHEDULING, tasks), Optional.empty());
+
+        // every task collects the whole build side, so the first reported domain is final, even while tasks are still being scheduled
+        second.addDynamicFilterDomains(ImmutableMap.of(FILTER_ID, singleValue(1)));
+        assertEquals(mergeDynamicFilter(FILTER_ID, true, SCHEDULING, tasks), Optional.of(singleValue(1)));
+        assertEquals(mergeDynamicFilter(FILTER_ID, true, RUNNING, tasks), Optional.of(singleValue(1)));
+        assertEquals(mergeDynamicFilter("other", true, RUNNING, tasks), Optional.empty());
+    }
+
+    @Test
+    public void testBroadcastWithFailedTask()
+    {
+        MockRemoteTask failed = createTask(1);
+        MockRemoteTask running = createTask(2);
+        List<RemoteTask> tasks = ImmutableList.of(failed, running);
+
+        failed.addDynamicFilterDomains(ImmutableMap.of(FILTER_ID, singleValue(1)));
+        failed.abort();
+        assertEquals(mergeDynamicFilter(FILTER_ID, true, RUNNING, tasks), Optional.empty());
+
+        running.addDynamicFilterDomains(ImmutableMap.of(FILTER_ID, singleValue(1)));
+        assertEquals(mergeDynamicFilter(FILTER_ID, true, RUNNING, tasks), Optional.of(singleValue(1)));
+    }
+
+    @Test
+    public void testPartitioned()
+    {
+        MockRemoteTask first = createTask(1);
+        MockRemoteTask second = createTask(2);
+        List<RemoteTask> tasks = ImmutableList.of(first, second);
+
+        first.addDynamicFilterDomains(ImmutableMap.of(FILTER_ID, singleValue(1)));
+        assertEquals(mergeDynamicFilter(FILTER_ID, false, RUNNING, tasks), Optional.empty());
+
+        second.addDynamicFilterDomains(ImmutableMap.of(FILTER_ID, singleValue(2)));
+        Domain union = Domain.union(ImmutableList.of(singleValue(1), singleValue(2)));
+        assertEquals(mergeDynamicFilter(FILTER_ID, false, RUNNING, tasks), Optional.of(union));
+        assertEquals(mergeDynamicFilter(FILTER_ID, false, FINISHED, tasks), Optional.of(union));
+    }
+
+    @Test
+    public void testPartitionedWithPartialTaskSet()
+    {
+        MockRemoteTask first = createTask(1);
+        first.addDynamicFilterDomains(ImmutableMap.of(FILTER_ID, singleValue(1)));
+
+        // the tasks scheduled so far have all reported, but more tasks may still be created
+        assertEquals(mergeDynamicFilter(FILTER_ID, false, SCHEDULING, ImmutableList.of(first)), Optional.empty());
+        assertEquals(mergeDynamicFilter(FILTER_ID, false, RUNNING, ImmutableList.of()), Optional.empty());
+    }
+
+    @Test
+    public void testPartitionedWithFailedTask()
+    {
+        MockRemoteTask first = createTask(1);
+        MockRemoteTask second = createTask(2);
+        first.addDynamicFilterDomains(ImmutableMap.of(FILTER_ID, singleValue(1)));
+        second.addDynamicFilterDomains(ImmutableMap.of(FILTER_ID, singleValue(2)));
+        second.abort();
+
+        assertEquals(mergeDynamicFilter(FILTER_ID, false, RUNNING, ImmutableList.of(first, second)), Optional.empty());
+    }
+
+    @Test
+    public void testFailedStage()
+    {
+        MockRemoteTask task = createTask(1);
+        task.addDynamicFilterDomains(ImmutableMap.of(FILTER_ID, singleValue(1)));
+
+        assertEquals(mergeDynamicFilter(FILTER_ID, true, FAILED, ImmutableList.of(task)), Optional.empty());
+        assertEquals(mergeDynamicFilter(FILTER_ID, false, FAILED, ImmutableList.of(task)), Optional.empty());
+    }
+
+    private MockRemoteTask createTask(int taskId)
+    {
+        return taskFactory.createTableScanTask(new TaskId("test", 1, taskId), NODE, ImmutableList.of(), new PartitionedSplitCountTracker(delta -> {}));
+    }
+
+    private static Domain singleValue(long value)
+    {
+        return Domain.singleValue(BIGINT, value);
+    }
+}
@@ -136,6 +136,27 @@ public class BenchmarkGroupByHash
         return pageBuilder.build();
     }
 
+    @Benchmark
+    @OperationsPerInvocation(POSITIONS)
+    public Object offHeapBigintGroupByHash(SingleChannelBenchmarkData data)
+    {
+        GroupByHash groupByHash = new OffHeapBigintGroupByHash(0, data.getHashEnabled(), EXPECTED_SIZE, NOOP);
+        data.getPages().forEach(p -> groupByHash.addPage(p).process());
+
+        ImmutableList.Builder<Page> pages = ImmutableList.builder();
+        PageBuilder pageBuilder = new PageBuilder(groupByHash.getTypes());
+        for (int groupId = 0; groupId < groupByHash.getGroupCount(); groupId++) {
+            pageBuilder.declarePosition();
+            groupByHash.appendValuesTo(groupId, pageBuilder, 0);
+            if (pageBuilder.isFull()) {
+                pages.add(pageBuilder.build());
+                pageBuilder.reset();
+            }
+        }
+        pages.add(pageBuilder.build());
+        return pageBuilder.build();
+    }
+
     @Benchmark
     @OperationsPerInvocation(POSITIONS)
     public long baseline(BaselinePagesData data)
@@ -402,6 +423,7 @@ public class BenchmarkGroupByHash
         SingleChannelBenchmarkData singleChannelBenchmarkData = new SingleChannelBenchmarkData();
         singleChannelBenchmarkData.setup();
         new BenchmarkGroupByHash().bigintGroupByHash(singleChannelBenchmarkData);
+        new BenchmarkGroupByHash().offHeapBigintGroupByHash(singleChannelBenchmarkData);
 
         Options options = new OptionsBuilder()
                 .verbosity(VerboseMode.NORMAL)
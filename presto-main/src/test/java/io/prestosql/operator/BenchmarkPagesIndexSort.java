@@ -0,0 +1,140 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.prestosql.operator;
+
+import com.google.common.collect.ImmutableList;
+import io.prestosql.spi.Page;
+import io.prestosql.spi.PageBuilder;
+import io.prestosql.spi.type.Type;
+import io.prestosql.tpch.LineItem;
+import io.prestosql.tpch.LineItemGenerator;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.openjdk.jmh.runner.options.VerboseMode;
+import org.testng.annotations.Test;
+
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static io.airlift.slice.Slices.utf8Slice;
+import static io.prestosql.memory.context.AggregatedMemoryContext.newSimpleAggregatedMemoryContext;
+import static io.prestosql.spi.block.SortOrder.ASC_NULLS_LAST;
+import static io.prestosql.spi.type.BigintType.BIGINT;
+import static io.prestosql.spi.type.DateType.DATE;
+import static io.prestosql.spi.type.DoubleType.DOUBLE;
+import static io.prestosql.spi.type.VarcharType.VARCHAR;
+import static org.openjdk.jmh.annotations.Mode.AverageTime;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertTrue;
+
+@State(Scope.Thread)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@BenchmarkMode(AverageTime)
+@Fork(1)
+@Warmup(iterations = 5, time = 500, timeUnit = TimeUnit.MILLISECONDS)
+@Measurement(iterations = 10, time = 500, timeUnit = TimeUnit.MILLISECONDS)
+public class BenchmarkPagesIndexSort
+{
+    private static final List<Type> TYPES = ImmutableList.of(BIGINT, DOUBLE, DATE, VARCHAR);
+    private static final int POSITIONS_PER_PAGE = 1024;
+
+    @State(Scope.Thread)
+    public static class BenchmarkData
+    {
+        // the lineitem columns orderkey, extendedprice, shipdate and comment
+        @Param({"0", "1", "2", "3"})
+        private int sortChannel;
+
+        @Param({"true", "false"})
+        private boolean prefixSort = true;
+
+        @Param({"100", "1000"})
+        private int pageCount = 100;
+
+        private List<Page> pages;
+
+        @Setup
+        public void setup()
+        {
+            pages = createInputPages(pageCount);
+        }
+    }
+
+    @Benchmark
+    public PagesIndex sort(BenchmarkData data)
+    {
+        PagesIndex pagesIndex = new PagesIndex.TestingFactory(false, data.prefixSort).newPagesIndex(TYPES, data.pageCount * POSITIONS_PER_PAGE);
+        for (Page page : data.pages) {
+            pagesIndex.addPage(page);
+        }
+        pagesIndex.sort(ImmutableList.of(data.sortChannel), ImmutableList.of(ASC_NULLS_LAST), newSimpleAggregatedMemoryContext().newLocalMemoryContext("benchmark"));
+        return pagesIndex;
+    }
+
+    @Test
+    public void verifySort()
+    {
+        BenchmarkData data = new BenchmarkData();
+        data.setup();
+
+        PagesIndex pagesIndex = sort(data);
+        assertEquals(pagesIndex.getPositionCount(), data.pageCount * POSITIONS_PER_PAGE);
+        for (int position = 1; position < pagesIndex.getPositionCount(); position++) {
+            assertTrue(pagesIndex.compare(data.sortChannel, position - 1, data.sortChannel, position) <= 0);
+        }
+    }
+
+    private static List<Page> createInputPages(int pageCount)
+    {
+        ImmutableList.Builder<Page> pages = ImmutableList.builder();
+        Iterator<LineItem> iterator = new LineItemGenerator(1, 1, 1).iterator();
+        for (int i = 0; i < pageCount; i++) {
+            PageBuilder pageBuilder = new PageBuilder(TYPES);
+            for (int position = 0; position < POSITIONS_PER_PAGE; position++) {
+                pageBuilder.declarePosition();
+                LineItem lineItem = iterator.next();
+                BIGINT.writeLong(pageBuilder.getBlockBuilder(0), lineItem.getOrderKey());
+                DOUBLE.writeDouble(pageBuilder.getBlockBuilder(1), lineItem.getExtendedPrice());
+                DATE.writeLong(pageBuilder.getBlockBuilder(2), lineItem.getShipDate());
+                VARCHAR.writeSlice(pageBuilder.getBlockBuilder(3), utf8Slice(lineItem.getComment()));
+            }
+            pages.add(pageBuilder.build());
+        }
+        return pages.build();
+    }
+
+    public static void main(String[] args)
+            throws RunnerException
+    {
+        Options options = new OptionsBuilder()
+                .verbosity(VerboseMode.NORMAL)
+                .include(".*" + BenchmarkPagesIndexSort.class.getSimpleName() + ".*")
+                .build();
+
+        new Runner(options).run();
+    }
+}
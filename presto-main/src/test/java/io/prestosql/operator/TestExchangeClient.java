@@ -37,11 +37,15 @@ import org.testng.annotations.BeforeClass;
 import org.testng.annotations.Test;
 
 import java.net.URI;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
 
 import static com.google.common.base.Preconditions.checkState;
 import static com.google.common.base.Verify.verify;
@@ -52,7 +56,10 @@ import static com.google.common.util.concurrent.MoreExecutors.directExecutor;
 import static com.google.common.util.concurrent.Uninterruptibles.sleepUninterruptibly;
 import static io.airlift.concurrent.MoreFutures.tryGetFutureValue;
 import static io.airlift.concurrent.Threads.daemonThreadsNamed;
+import static io.airlift.testing.Assertions.assertGreaterThan;
 import static io.airlift.testing.Assertions.assertLessThan;
+import static io.airlift.testing.Assertions.assertLessThanOrEqual;
+import static io.prestosql.client.PrestoHeaders.PRESTO_MAX_SIZE;
 import static io.prestosql.execution.buffer.TestingPagesSerdeFactory.testingPagesSerde;
 import static io.prestosql.memory.context.AggregatedMemoryContext.newSimpleAggregatedMemoryContext;
 import static java.util.concurrent.Executors.newCachedThreadPool;
@@ -206,6 +213,115 @@ public class TestExchangeClient
         assertStatus(statuses.get(location2), location2, "closed", 3, 3, 3, "not scheduled");
     }
 
+    @Test
+    public void testRequestSizeLimitedByBufferCapacity()
+    {
+        DataSize bufferCapacity = DataSize.of(1, Unit.KILOBYTE);
+        DataSize maxResponseSize = DataSize.of(10, Unit.MEGABYTE);
+        MockExchangeRequestProcessor delegate = new MockExchangeRequestProcessor(maxResponseSize);
+        List<DataSize> requestedSizes = new CopyOnWriteArrayList<>();
+        TestingHttpClient.Processor processor = request -> {
+            if (request.getMethod().equalsIgnoreCase("GET")) {
+                requestedSizes.add(DataSize.valueOf(request.getHeader(PRESTO_MAX_SIZE)));
+            }
+            return delegate.handle(request);
+        };
+
+        URI location = URI.create("http://localhost:8080");
+        delegate.addPage(location, createPage(1));
+        delegate.addPage(location, createPage(2));
+        delegate.setComplete(location);
+
+        @SuppressWarnings("resource")
+        ExchangeClient exchangeClient = new ExchangeClient(
+                "localhost",
+                DataIntegrityVerification.ABORT,
+                bufferCapacity,
+                maxResponseSize,
+                1,
+                new Duration(1, TimeUnit.MINUTES),
+                true,
+                new TestingHttpClient(processor, scheduler),
+                scheduler,
+                new SimpleLocalMemoryContext(newSimpleAggregatedMemoryContext(), "test"),
+                pageBufferClientCallbackExecutor);
+        exchangeClient.addLocation(location);
+        exchangeClient.noMoreLocations();
+
+        assertPageEquals(getNextPage(exchangeClient), createPage(1));
+        assertPageEquals(getNextPage(exchangeClient), createPage(2));
+        assertNull(getNextPage(exchangeClient));
+        assertTrue(exchangeClient.isClosed());
+
+        assertFalse(requestedSizes.isEmpty());
+        for (DataSize requestedSize : requestedSizes) {
+            assertTrue(requestedSize.toBytes() <= bufferCapacity.toBytes(), "requested " + requestedSize);
+        }
+        PageBufferClientStatus status = exchangeClient.getStatus().getPageBufferClientStatuses().get(0);
+        assertTrue(status.getMaxResponseTime().compareTo(status.getAverageResponseTime()) >= 0);
+    }
+
+    @Test(timeOut = 10000)
+    public void testOutstandingRequestsWithinBufferCapacity()
+    {
+        DataSize bufferCapacity = DataSize.of(4, Unit.MEGABYTE);
+        DataSize maxResponseSize = DataSize.of(4, Unit.MEGABYTE);
+        MockExchangeRequestProcessor delegate = new MockExchangeRequestProcessor(maxResponseSize);
+        AtomicLong outstandingBytes = new AtomicLong();
+        AtomicLong maxOutstandingBytes = new AtomicLong();
+        TestingHttpClient.Processor processor = request -> {
+            if (!request.getMethod().equalsIgnoreCase("GET")) {
+                return delegate.handle(request);
+            }
+            long requestedBytes = DataSize.valueOf(request.getHeader(PRESTO_MAX_SIZE)).toBytes();
+            maxOutstandingBytes.accumulateAndGet(outstandingBytes.addAndGet(requestedBytes), Math::max);
+            try {
+                // keep the request outstanding for a while, so that the requests to all sources overlap
+                sleepUninterruptibly(50, MILLISECONDS);
+                return delegate.handle(request);
+            }
+            finally {
+                outstandingBytes.addAndGet(-requestedBytes);
+            }
+        };
+
+        List<URI> locations = new ArrayList<>();
+        for (int i = 0; i < 8; i++) {
+            URI location = URI.create("http://localhost:" + (8080 + i));
+            delegate.addPage(location, createPage(1));
+            delegate.addPage(location, createPage(2));
+            delegate.setComplete(location);
+            locations.add(location);
+        }
+
+        @SuppressWarnings("resource")
+        ExchangeClient exchangeClient = new ExchangeClient(
+                "localhost",
+                DataIntegrityVerification.ABORT,
+                bufferCapacity,
+                maxResponseSize,
+                3,
+                new Duration(1, TimeUnit.MINUTES),
+                true,
+                new TestingHttpClient(processor, newCachedThreadPool(daemonThreadsNamed("test-%s"))),
+                scheduler,
+                new SimpleLocalMemoryContext(newSimpleAggregatedMemoryContext(), "test"),
+                pageBufferClientCallbackExecutor);
+        locations.forEach(exchangeClient::addLocation);
+        exchangeClient.noMoreLocations();
+
+        int pageCount = 0;
+        while (getNextPage(exchangeClient) != null) {
+            pageCount++;
+        }
+        assertEquals(pageCount, 2 * locations.size());
+        assertTrue(exchangeClient.isClosed());
+
+        // the free space of the buffer is split over the concurrent requests
+        assertGreaterThan(maxOutstandingBytes.get(), 0L);
+        assertLessThanOrEqual(maxOutstandingBytes.get(), bufferCapacity.toBytes());
+    }
+
     @Test
     public void testBufferLimit()
     {
@@ -15,6 +15,7 @@ package io.prestosql.operator;
 
 import com.google.common.collect.ImmutableList;
 import io.prestosql.Session;
+import io.prestosql.array.OffHeapSlotArray;
 import io.prestosql.block.BlockAssertions;
 import io.prestosql.spi.Page;
 import io.prestosql.spi.PageBuilder;
@@ -25,6 +26,7 @@ import io.prestosql.spi.type.Type;
 import io.prestosql.sql.gen.JoinCompiler;
 import io.prestosql.testing.TestingSession;
 import io.prestosql.type.TypeUtils;
+import org.openjdk.jol.info.ClassLayout;
 import org.testng.annotations.DataProvider;
 import org.testng.annotations.Test;
 
@@ -36,6 +38,9 @@ import java.util.concurrent.atomic.AtomicInteger;
 import java.util.stream.IntStream;
 
 import static com.google.common.math.DoubleMath.log2;
+import static io.airlift.slice.SizeOf.SIZE_OF_INT;
+import static io.airlift.slice.SizeOf.SIZE_OF_LONG;
+import static io.prestosql.SystemSessionProperties.OFF_HEAP_HASH_TABLE;
 import static io.prestosql.block.BlockAssertions.createLongSequenceBlock;
 import static io.prestosql.block.BlockAssertions.createLongsBlock;
 import static io.prestosql.block.BlockAssertions.createStringSequenceBlock;
@@ -114,6 +119,88 @@ public class TestGroupByHash
         assertFalse(groupByHash.contains(0, page, CONTAINS_CHANNELS));
     }
 
+    @Test
+    public void testOffHeapBigintGroupByHash()
+    {
+        Session session = TestingSession.testSessionBuilder()
+                .setSystemProperty(OFF_HEAP_HASH_TABLE, "true")
+                .build();
+        GroupByHash groupByHash = createGroupByHash(session, ImmutableList.of(BIGINT), new int[] {0}, Optional.of(1), 100, JOIN_COMPILER);
+        assertTrue(groupByHash instanceof OffHeapBigintGroupByHash);
+
+        Block block = createLongsBlock((Long) null);
+        Block hashBlock = getHashBlock(ImmutableList.of(BIGINT), block);
+        groupByHash.addPage(new Page(block, hashBlock)).process();
+
+        // Add enough values to force a rehash
+        block = createLongSequenceBlock(1, 132748);
+        hashBlock = getHashBlock(ImmutableList.of(BIGINT), block);
+        Page page = new Page(block, hashBlock);
+        groupByHash.addPage(page).process();
+        assertEquals(groupByHash.getGroupCount(), 132748);
+
+        // the values keep the group ids assigned when they were added
+        Work<GroupByIdBlock> work = groupByHash.getGroupIds(page);
+        work.process();
+        GroupByIdBlock groupIds = work.getResult();
+        assertEquals(groupIds.getGroupCount(), 132748);
+        for (int position = 0; position < groupIds.getPositionCount(); position++) {
+            assertEquals(groupIds.getGroupId(position), position + 1);
+            assertTrue(groupByHash.contains(position, page, CONTAINS_CHANNELS));
+        }
+
+        PageBuilder pageBuilder = new PageBuilder(groupByHash.getTypes());
+        pageBuilder.declarePosition();
+        groupByHash.appendValuesTo(0, pageBuilder, 0);
+        pageBuilder.declarePosition();
+        groupByHash.appendValuesTo(42, pageBuilder, 0);
+        Page outputPage = pageBuilder.build();
+        assertTrue(outputPage.getBlock(0).isNull(0));
+        assertEquals(BIGINT.getLong(outputPage.getBlock(0), 1), 42);
+        assertEquals(BIGINT.getLong(outputPage.getBlock(1), 1), groupByHash.getRawHash(42));
+
+        block = createLongsBlock(0);
+        hashBlock = getHashBlock(ImmutableList.of(BIGINT), block);
+        assertFalse(groupByHash.contains(0, new Page(block, hashBlock), CONTAINS_CHANNELS));
+    }
+
+    @Test
+    public void testOffHeapBigintGroupByHashEstimatedSizeAcrossRehash()
+    {
+        OffHeapBigintGroupByHash groupByHash = new OffHeapBigintGroupByHash(0, false, 1, () -> true);
+        int initialCapacity = groupByHash.getCapacity();
+        assertEquals(groupByHash.getEstimatedSize(), getExpectedOffHeapBigintGroupByHashSize(initialCapacity, initialCapacity));
+
+        // Add enough values to force several rehashes
+        Block block = createLongSequenceBlock(0, 100_000);
+        groupByHash.addPage(new Page(block, getHashBlock(ImmutableList.of(BIGINT), block))).process();
+        int capacity = groupByHash.getCapacity();
+        assertTrue(capacity > initialCapacity);
+
+        // the tables replaced by the rehashes are released, so only the current one is accounted
+        assertEquals(groupByHash.getEstimatedSize(), getExpectedOffHeapBigintGroupByHashSize(initialCapacity, capacity));
+    }
+
+    private static long getExpectedOffHeapBigintGroupByHashSize(int initialCapacity, int capacity)
+    {
+        OffHeapSlotArray slots = new OffHeapSlotArray(SIZE_OF_LONG + SIZE_OF_INT);
+        slots.ensureCapacity(capacity);
+        OffHeapSlotArray valuesByGroupId = new OffHeapSlotArray(SIZE_OF_LONG);
+        valuesByGroupId.ensureCapacity(initialCapacity);
+        if (capacity > initialCapacity) {
+            // after a rehash, the values are sized for the maximum fill of the table
+            valuesByGroupId.ensureCapacity(capacity * 3 / 4);
+        }
+        long size = ClassLayout.parseClass(OffHeapBigintGroupByHash.class).instanceSize() +
+                slots.sizeOf() +
+                slots.getOffHeapSizeInBytes() +
+                valuesByGroupId.sizeOf() +
+                valuesByGroupId.getOffHeapSizeInBytes();
+        slots.close();
+        valuesByGroupId.close();
+        return size;
+    }
+
     @Test
     public void testGetGroupIds()
     {
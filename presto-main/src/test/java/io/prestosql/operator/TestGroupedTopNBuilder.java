@@ -16,12 +16,12 @@ package io.prestosql.operator;
 import com.google.common.collect.ImmutableList;
 import com.google.common.primitives.Ints;
 import io.prestosql.RowPagesBuilder;
+import io.prestosql.array.IntBigArray;
 import io.prestosql.array.ObjectBigArray;
 import io.prestosql.spi.Page;
 import io.prestosql.spi.type.Type;
 import io.prestosql.sql.gen.JoinCompiler;
 import it.unimi.dsi.fastutil.ints.IntArrayFIFOQueue;
-import it.unimi.dsi.fastutil.objects.ObjectHeapPriorityQueue;
 import org.openjdk.jol.info.ClassLayout;
 import org.testng.annotations.DataProvider;
 import org.testng.annotations.Test;
@@ -41,6 +41,7 @@ import static io.prestosql.operator.UpdateMemory.NOOP;
 import static io.prestosql.spi.block.SortOrder.ASC_NULLS_LAST;
 import static io.prestosql.spi.type.BigintType.BIGINT;
 import static io.prestosql.spi.type.DoubleType.DOUBLE;
+import static java.lang.Math.min;
 import static org.testng.Assert.assertEquals;
 import static org.testng.Assert.assertFalse;
 import static org.testng.Assert.assertNotEquals;
@@ -50,7 +51,6 @@ public class TestGroupedTopNBuilder
 {
     private static final long INSTANCE_SIZE = ClassLayout.parseClass(GroupedTopNBuilder.class).instanceSize();
     private static final long INT_FIFO_QUEUE_SIZE = ClassLayout.parseClass(IntArrayFIFOQueue.class).instanceSize();
-    private static final long OBJECT_OVERHEAD = ClassLayout.parseClass(Object.class).instanceSize();
     private static final long PAGE_REFERENCE_INSTANCE_SIZE = ClassLayout.parseClass(TestPageReference.class).instanceSize();
 
     @DataProvider
@@ -112,23 +112,23 @@ public class TestGroupedTopNBuilder
                 2,
                 produceRowNumbers,
                 groupByHash);
-        assertBuilderSize(groupByHash, types, ImmutableList.of(), ImmutableList.of(), groupedTopNBuilder.getEstimatedSizeInBytes());
+        assertBuilderSize(groupByHash, types, 2, ImmutableList.of(), ImmutableList.of(), groupedTopNBuilder.getEstimatedSizeInBytes());
 
         // add 4 rows for the first page and created three heaps with 1, 1, 2 rows respectively
         assertTrue(groupedTopNBuilder.processPage(input.get(0)).process());
-        assertBuilderSize(groupByHash, types, ImmutableList.of(4), ImmutableList.of(1, 1, 2), groupedTopNBuilder.getEstimatedSizeInBytes());
+        assertBuilderSize(groupByHash, types, 2, ImmutableList.of(4), ImmutableList.of(1, 1, 2), groupedTopNBuilder.getEstimatedSizeInBytes());
 
         // add 1 row for the second page and the three heaps become 2, 1, 2 rows respectively
         assertTrue(groupedTopNBuilder.processPage(input.get(1)).process());
-        assertBuilderSize(groupByHash, types, ImmutableList.of(4, 1), ImmutableList.of(2, 1, 2), groupedTopNBuilder.getEstimatedSizeInBytes());
+        assertBuilderSize(groupByHash, types, 2, ImmutableList.of(4, 1), ImmutableList.of(2, 1, 2), groupedTopNBuilder.getEstimatedSizeInBytes());
 
         // add 2 new rows for the third page (which will be compacted into two rows only) and we have four heaps with 2, 2, 2, 1 rows respectively
         assertTrue(groupedTopNBuilder.processPage(input.get(2)).process());
-        assertBuilderSize(groupByHash, types, ImmutableList.of(4, 1, 2), ImmutableList.of(2, 2, 2, 1), groupedTopNBuilder.getEstimatedSizeInBytes());
+        assertBuilderSize(groupByHash, types, 2, ImmutableList.of(4, 1, 2), ImmutableList.of(2, 2, 2, 1), groupedTopNBuilder.getEstimatedSizeInBytes());
 
         // the last page will be discarded
         assertTrue(groupedTopNBuilder.processPage(input.get(3)).process());
-        assertBuilderSize(groupByHash, types, ImmutableList.of(4, 1, 2, 0), ImmutableList.of(2, 2, 2, 1), groupedTopNBuilder.getEstimatedSizeInBytes());
+        assertBuilderSize(groupByHash, types, 2, ImmutableList.of(4, 1, 2, 0), ImmutableList.of(2, 2, 2, 1), groupedTopNBuilder.getEstimatedSizeInBytes());
 
         List<Page> output = ImmutableList.copyOf(groupedTopNBuilder.buildResult());
         assertEquals(output.size(), 1);
@@ -150,7 +150,7 @@ public class TestGroupedTopNBuilder
             assertPageEquals(types, output.get(0), new Page(expected.getBlock(0), expected.getBlock(1)));
         }
 
-        assertBuilderSize(groupByHash, types, ImmutableList.of(0, 0, 0, 0), ImmutableList.of(0, 0, 0, 0), groupedTopNBuilder.getEstimatedSizeInBytes());
+        assertBuilderSize(groupByHash, types, 2, ImmutableList.of(0, 0, 0, 0), ImmutableList.of(0, 0, 0, 0), groupedTopNBuilder.getEstimatedSizeInBytes());
     }
 
     @Test(dataProvider = "produceRowNumbers")
@@ -184,23 +184,23 @@ public class TestGroupedTopNBuilder
                 5,
                 produceRowNumbers,
                 new NoChannelGroupByHash());
-        assertBuilderSize(new NoChannelGroupByHash(), types, ImmutableList.of(), ImmutableList.of(), groupedTopNBuilder.getEstimatedSizeInBytes());
+        assertBuilderSize(new NoChannelGroupByHash(), types, 5, ImmutableList.of(), ImmutableList.of(), groupedTopNBuilder.getEstimatedSizeInBytes());
 
         // add 4 rows for the first page and created a single heap with 4 rows
         assertTrue(groupedTopNBuilder.processPage(input.get(0)).process());
-        assertBuilderSize(new NoChannelGroupByHash(), types, ImmutableList.of(4), ImmutableList.of(4), groupedTopNBuilder.getEstimatedSizeInBytes());
+        assertBuilderSize(new NoChannelGroupByHash(), types, 5, ImmutableList.of(4), ImmutableList.of(4), groupedTopNBuilder.getEstimatedSizeInBytes());
 
         // add 1 row for the second page and the heap is with 5 rows
         assertTrue(groupedTopNBuilder.processPage(input.get(1)).process());
-        assertBuilderSize(new NoChannelGroupByHash(), types, ImmutableList.of(4, 1), ImmutableList.of(5), groupedTopNBuilder.getEstimatedSizeInBytes());
+        assertBuilderSize(new NoChannelGroupByHash(), types, 5, ImmutableList.of(4, 1), ImmutableList.of(5), groupedTopNBuilder.getEstimatedSizeInBytes());
 
         // update 1 new row from the third page (which will be compacted into a single row only)
         assertTrue(groupedTopNBuilder.processPage(input.get(2)).process());
-        assertBuilderSize(new NoChannelGroupByHash(), types, ImmutableList.of(4, 1, 1), ImmutableList.of(5), groupedTopNBuilder.getEstimatedSizeInBytes());
+        assertBuilderSize(new NoChannelGroupByHash(), types, 5, ImmutableList.of(4, 1, 1), ImmutableList.of(5), groupedTopNBuilder.getEstimatedSizeInBytes());
 
         // the last page will be discarded
         assertTrue(groupedTopNBuilder.processPage(input.get(3)).process());
-        assertBuilderSize(new NoChannelGroupByHash(), types, ImmutableList.of(4, 1, 1), ImmutableList.of(5), groupedTopNBuilder.getEstimatedSizeInBytes());
+        assertBuilderSize(new NoChannelGroupByHash(), types, 5, ImmutableList.of(4, 1, 1), ImmutableList.of(5), groupedTopNBuilder.getEstimatedSizeInBytes());
 
         List<Page> output = ImmutableList.copyOf(groupedTopNBuilder.buildResult());
         assertEquals(output.size(), 1);
@@ -220,7 +220,7 @@ public class TestGroupedTopNBuilder
             assertPageEquals(types, output.get(0), new Page(expected.getBlock(0), expected.getBlock(1)));
         }
 
-        assertBuilderSize(new NoChannelGroupByHash(), types, ImmutableList.of(0, 0, 0), ImmutableList.of(0), groupedTopNBuilder.getEstimatedSizeInBytes());
+        assertBuilderSize(new NoChannelGroupByHash(), types, 5, ImmutableList.of(0, 0, 0), ImmutableList.of(0), groupedTopNBuilder.getEstimatedSizeInBytes());
     }
 
     @Test
@@ -244,7 +244,7 @@ public class TestGroupedTopNBuilder
                 5,
                 false,
                 groupByHash);
-        assertBuilderSize(groupByHash, types, ImmutableList.of(), ImmutableList.of(), groupedTopNBuilder.getEstimatedSizeInBytes());
+        assertBuilderSize(groupByHash, types, 5, ImmutableList.of(), ImmutableList.of(), groupedTopNBuilder.getEstimatedSizeInBytes());
 
         Work<?> work = groupedTopNBuilder.processPage(input);
         assertFalse(work.process());
@@ -262,7 +262,7 @@ public class TestGroupedTopNBuilder
                 .build()
                 .get(0);
         assertPageEquals(types, output.get(0), expected);
-        assertBuilderSize(groupByHash, types, ImmutableList.of(0), ImmutableList.of(), groupedTopNBuilder.getEstimatedSizeInBytes());
+        assertBuilderSize(groupByHash, types, 5, ImmutableList.of(0), ImmutableList.of(), groupedTopNBuilder.getEstimatedSizeInBytes());
     }
 
     @Test
@@ -392,7 +392,7 @@ public class TestGroupedTopNBuilder
         // Assert memory usage gradually goes up
         for (int i = 0; i < pageCount; i++) {
             assertTrue(groupedTopNBuilder.processPage(input.get(i)).process());
-            assertBuilderSize(groupByHash, types, Collections.nCopies(i + 1, rowCount), Collections.nCopies(rowCount, i + 1), groupedTopNBuilder.getEstimatedSizeInBytes());
+            assertBuilderSize(groupByHash, types, pageCount * rowCount, Collections.nCopies(i + 1, rowCount), Collections.nCopies(rowCount, i + 1), groupedTopNBuilder.getEstimatedSizeInBytes());
         }
 
         // Assert memory usage gradually goes down (i.e., proportional to the number of rows/pages we have produced)
@@ -404,17 +404,19 @@ public class TestGroupedTopNBuilder
             assertBuilderSize(
                     groupByHash,
                     types,
+                    pageCount * rowCount,
                     remainingRows == 0 ? Collections.nCopies(pageCount, 0) : Collections.nCopies(pageCount, rowCount),
                     new ImmutableList.Builder<Integer>()
                             .addAll(Collections.nCopies((remainingRows + pageCount - 1) / pageCount, pageCount))
                             .addAll(Collections.nCopies(rowCount - (remainingRows + pageCount - 1) / pageCount, 0))
                             .build(),
+                    pageCount * rowCount,
                     groupedTopNBuilder.getEstimatedSizeInBytes());
             outputPageCount++;
         }
         assertEquals(remainingRows, 0);
         assertGreaterThan(outputPageCount, 3);
-        assertBuilderSize(groupByHash, types, Collections.nCopies(pageCount, 0), Collections.nCopies(rowCount, 0), groupedTopNBuilder.getEstimatedSizeInBytes());
+        assertBuilderSize(groupByHash, types, pageCount * rowCount, Collections.nCopies(pageCount, 0), Collections.nCopies(rowCount, 0), pageCount * rowCount, groupedTopNBuilder.getEstimatedSizeInBytes());
     }
 
     private static GroupByHash createGroupByHash(List<Type> partitionTypes, List<Integer> partitionChannels, UpdateMemory updateMemory)
@@ -429,28 +431,50 @@ public class TestGroupedTopNBuilder
                 updateMemory);
     }
 
+    private static void assertBuilderSize(
+            GroupByHash groupByHash,
+            List<Type> types,
+            int topN,
+            List<Integer> pagePositions,
+            List<Integer> rowCounts,
+            long actualSizeInBytes)
+    {
+        assertBuilderSize(groupByHash, types, topN, pagePositions, rowCounts, rowCounts.stream().mapToInt(Integer::intValue).sum(), actualSizeInBytes);
+    }
+
     /**
      * Assert the retained size in Bytes of {@param builder} with
      * {@param groupByHash},
      * a list of {@param types} of the input pages,
-     * a list of how many positions ({@param pagePositions}) of each page, and
-     * a list of how many rows ({}@param rowCounts}) of each group.
+     * the {@param topN} rows kept for each group,
+     * a list of how many positions ({@param pagePositions}) of each page,
+     * a list of how many rows ({}@param rowCounts}) of each group, and
+     * the number of row ids ({@param rowSlotCount}) ever allocated.
      * Currently we do not assert the size of emptyPageReferenceSlots and assume the queue is always with INITIAL_CAPACITY = 4.
      */
     private static void assertBuilderSize(
             GroupByHash groupByHash,
             List<Type> types,
+            int topN,
             List<Integer> pagePositions,
             List<Integer> rowCounts,
+            int rowSlotCount,
             long actualSizeInBytes)
     {
         ObjectBigArray<Object> pageReferences = new ObjectBigArray<>();
         pageReferences.ensureCapacity(pagePositions.size());
         long pageReferencesSizeInBytes = pageReferences.sizeOf();
 
-        ObjectBigArray<Object> groupedRows = new ObjectBigArray<>();
-        groupedRows.ensureCapacity(rowCounts.size());
-        long groupedRowsSizeInBytes = groupedRows.sizeOf();
+        ObjectBigArray<Object> groupHeaps = new ObjectBigArray<>();
+        groupHeaps.ensureCapacity(rowCounts.size());
+        IntBigArray groupHeapSizes = new IntBigArray();
+        groupHeapSizes.ensureCapacity(rowCounts.size());
+        long groupsSizeInBytes = groupHeaps.sizeOf() + groupHeapSizes.sizeOf();
+
+        // each row is with a page id and a position
+        IntBigArray rowSlots = new IntBigArray();
+        rowSlots.ensureCapacity(rowSlotCount);
+        long rowSlotsSizeInBytes = 2 * rowSlots.sizeOf();
 
         int emptySlots = 4;
         long emptyPageReferenceSlotsSizeInBytes = INT_FIFO_QUEUE_SIZE + sizeOf(new int[emptySlots]);
@@ -465,16 +489,17 @@ public class TestGroupedTopNBuilder
 
         long referencedPagesSizeInBytes = 0;
         for (Page page : rowPagesBuilder.build()) {
-            // each page reference is with two arrays and a page
+            // each page reference is with an array and a page
             referencedPagesSizeInBytes += PAGE_REFERENCE_INSTANCE_SIZE +
                     page.getRetainedSizeInBytes() +
-                    sizeOf(new Object[page.getPositionCount()]);
+                    sizeOf(new int[page.getPositionCount()]);
         }
 
         long rowHeapsSizeInBytes = 0;
         for (int count : rowCounts) {
             if (count > 0) {
-                rowHeapsSizeInBytes += new TestRowHeap(count).getEstimatedSizeInBytes();
+                // heaps double their capacity when they are full, up to topN
+                rowHeapsSizeInBytes += sizeOf(new int[min(topN, count == 1 ? 1 : Integer.highestOneBit(count - 1) << 1)]);
             }
         }
 
@@ -483,33 +508,12 @@ public class TestGroupedTopNBuilder
                 referencedPagesSizeInBytes +
                 rowHeapsSizeInBytes +
                 pageReferencesSizeInBytes +
-                groupedRowsSizeInBytes +
+                groupsSizeInBytes +
+                rowSlotsSizeInBytes +
                 emptyPageReferenceSlotsSizeInBytes;
         assertEquals(actualSizeInBytes, expectedSizeInBytes);
     }
 
-    // this class is for memory tracking comparison
-    private static class TestRowHeap
-            extends ObjectHeapPriorityQueue<Object>
-    {
-        private static final long INSTANCE_SIZE = ClassLayout.parseClass(TestRowHeap.class).instanceSize();
-        // each Row is with two integers
-        private static final long ROW_ENTRY_SIZE = 2 * Integer.BYTES + OBJECT_OVERHEAD;
-
-        private TestRowHeap(int count)
-        {
-            super((left, right) -> 0);
-            for (int i = 0; i < count; i++) {
-                enqueue(new Object());
-            }
-        }
-
-        private long getEstimatedSizeInBytes()
-        {
-            return INSTANCE_SIZE + sizeOf(heap) + size() * ROW_ENTRY_SIZE;
-        }
-    }
-
     // this class is for memory tracking comparison
     private static class TestPageReference
     {
@@ -65,6 +65,7 @@ import static io.airlift.units.DataSize.Unit.MEGABYTE;
 import static io.airlift.units.DataSize.succinctBytes;
 import static io.prestosql.RowPagesBuilder.rowPagesBuilder;
 import static io.prestosql.SessionTestUtils.TEST_SESSION;
+import static io.prestosql.block.BlockAssertions.createLongRepeatBlock;
 import static io.prestosql.metadata.MetadataManager.createTestMetadataManager;
 import static io.prestosql.operator.GroupByHashYieldAssertion.GroupByHashYieldResult;
 import static io.prestosql.operator.GroupByHashYieldAssertion.createPagesWithDistinctHashKeys;
@@ -197,7 +198,8 @@ public class TestHashAggregationOperator
                 succinctBytes(memoryLimitForMergeWithMemory),
                 spillerFactory,
                 joinCompiler,
-                false);
+                false,
+                Optional.empty());
 
         DriverContext driverContext = createDriverContext(memoryLimitForMerge);
 
@@ -254,7 +256,8 @@ public class TestHashAggregationOperator
                 succinctBytes(memoryLimitForMergeWithMemory),
                 spillerFactory,
                 joinCompiler,
-                false);
+                false,
+                Optional.empty());
 
         DriverContext driverContext = createDriverContext(memoryLimitForMerge);
         MaterializedResult expected = resultBuilder(driverContext.getSession(), VARCHAR, BIGINT, BIGINT, BIGINT, DOUBLE, VARCHAR, BIGINT, BIGINT)
@@ -302,7 +305,8 @@ public class TestHashAggregationOperator
                 succinctBytes(memoryLimitForMergeWithMemory),
                 spillerFactory,
                 joinCompiler,
-                false);
+                false,
+                Optional.empty());
 
         Operator operator = operatorFactory.createOperator(driverContext);
         toPages(operator, input.iterator(), revokeMemoryWhenAddingPages);
@@ -384,7 +388,8 @@ public class TestHashAggregationOperator
                 succinctBytes(memoryLimitForMergeWithMemory),
                 spillerFactory,
                 joinCompiler,
-                false);
+                false,
+                Optional.empty());
 
         toPages(operatorFactory, driverContext, input, revokeMemoryWhenAddingPages);
     }
@@ -579,6 +584,94 @@ public class TestHashAggregationOperator
         assertEquals(driverContext.getMemoryUsage(), 0);
     }
 
+    @Test(dataProvider = "hashEnabled")
+    public void testAdaptivePartialAggregation(boolean hashEnabled)
+            throws Exception
+    {
+        List<Integer> hashChannels = Ints.asList(0);
+        RowPagesBuilder rowPagesBuilder = rowPagesBuilder(hashEnabled, hashChannels, BIGINT);
+        List<Page> input = rowPagesBuilder
+                .addSequencePage(500, 0)
+                .addSequencePage(500, 500)
+                .addSequencePage(500, 1000)
+                .addSequencePage(500, 1500)
+                .build();
+
+        HashAggregationOperatorFactory operatorFactory = createPartialAggregationOperatorFactory(
+                rowPagesBuilder.getHashChannel(),
+                new PartialAggregationController(500, 0.8));
+
+        DriverContext driverContext = createDriverContext();
+        MaterializedResult.Builder expectedBuilder = resultBuilder(driverContext.getSession(), BIGINT, BIGINT, BIGINT);
+        for (long i = 0; i < 2000; i++) {
+            expectedBuilder.row(i, i, 1L);
+        }
+
+        try (Operator operator = operatorFactory.createOperator(driverContext)) {
+            List<Page> pages = toPages(operator, input.iterator());
+            assertPagesEqualIgnoreOrder(driverContext, pages, expectedBuilder.build(), hashEnabled, Optional.of(hashChannels.size()));
+
+            // every key is unique, so partial aggregation is turned off after the first flush
+            OperatorInfo info = operator.getOperatorContext().getOperatorStats().getInfo();
+            assertTrue(info instanceof PartialAggregationInfo);
+            assertEquals(((PartialAggregationInfo) info).getPassThroughInputPositions(), 1500);
+        }
+    }
+
+    @Test(dataProvider = "hashEnabled")
+    public void testAdaptivePartialAggregationWithGoodReduction(boolean hashEnabled)
+            throws Exception
+    {
+        List<Integer> hashChannels = Ints.asList(0);
+        RowPagesBuilder rowPagesBuilder = rowPagesBuilder(hashEnabled, hashChannels, BIGINT);
+        for (int i = 0; i < 4; i++) {
+            rowPagesBuilder.addBlocksPage(createLongRepeatBlock(7, 500));
+        }
+        List<Page> input = rowPagesBuilder.build();
+
+        HashAggregationOperatorFactory operatorFactory = createPartialAggregationOperatorFactory(
+                rowPagesBuilder.getHashChannel(),
+                new PartialAggregationController(500, 0.8));
+
+        DriverContext driverContext = createDriverContext();
+        try (Operator operator = operatorFactory.createOperator(driverContext)) {
+            List<Page> pages = toPages(operator, input.iterator());
+            MaterializedResult expected = resultBuilder(driverContext.getSession(), BIGINT, BIGINT, BIGINT)
+                    .row(7L, 7L, 2000L)
+                    .build();
+            assertPagesEqualIgnoreOrder(driverContext, pages, expected, hashEnabled, Optional.of(hashChannels.size()));
+
+            OperatorInfo info = operator.getOperatorContext().getOperatorStats().getInfo();
+            assertTrue(info instanceof PartialAggregationInfo);
+            assertEquals(((PartialAggregationInfo) info).getPassThroughInputPositions(), 0);
+        }
+    }
+
+    private HashAggregationOperatorFactory createPartialAggregationOperatorFactory(Optional<Integer> hashChannel, PartialAggregationController partialAggregationController)
+    {
+        return new HashAggregationOperatorFactory(
+                0,
+                new PlanNodeId("test"),
+                ImmutableList.of(BIGINT),
+                Ints.asList(0),
+                ImmutableList.of(),
+                Step.PARTIAL,
+                false,
+                ImmutableList.of(
+                        LONG_MIN.bind(ImmutableList.of(0), Optional.empty()),
+                        COUNT.bind(ImmutableList.of(), Optional.empty())),
+                hashChannel,
+                Optional.empty(),
+                100,
+                Optional.of(DataSize.of(1, KILOBYTE)),
+                false,
+                DataSize.of(0, MEGABYTE),
+                spillerFactory,
+                joinCompiler,
+                false,
+                Optional.of(partialAggregationController));
+    }
+
     @Test
     public void testMergeWithMemorySpill()
     {
@@ -609,7 +702,8 @@ public class TestHashAggregationOperator
                 succinctBytes(Integer.MAX_VALUE),
                 spillerFactory,
                 joinCompiler,
-                false);
+                false,
+                Optional.empty());
 
         DriverContext driverContext = createDriverContext(smallPagesSpillThresholdSize);
 
@@ -665,7 +759,8 @@ public class TestHashAggregationOperator
                 succinctBytes(Integer.MAX_VALUE),
                 new FailingSpillerFactory(),
                 joinCompiler,
-                false);
+                false,
+                Optional.empty());
 
         try {
             toPages(operatorFactory, driverContext, input);
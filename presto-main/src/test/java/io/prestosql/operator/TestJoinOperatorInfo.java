@@ -30,17 +30,46 @@ public class TestJoinOperatorInfo
                 JoinType.INNER,
                 makeHistogramArray(10, 20, 30, 40, 50, 60, 70, 80),
                 makeHistogramArray(12, 22, 32, 42, 52, 62, 72, 82),
-                Optional.of(1L));
+                Optional.of(1L),
+                360,
+                1);
         JoinOperatorInfo other = new JoinOperatorInfo(
                 JoinType.INNER,
                 makeHistogramArray(11, 21, 31, 41, 51, 61, 71, 81),
                 makeHistogramArray(15, 25, 35, 45, 55, 65, 75, 85),
-                Optional.of(2L));
+                Optional.of(2L),
+                368,
+                1);
 
         JoinOperatorInfo merged = base.mergeWith(other);
         assertEquals(makeHistogramArray(21, 41, 61, 81, 101, 121, 141, 161), merged.getLogHistogramProbes());
         assertEquals(makeHistogramArray(27, 47, 67, 87, 107, 127, 147, 167), merged.getLogHistogramOutput());
         assertEquals(merged.getLookupSourcePositions(), Optional.of(3L));
+        assertEquals(merged.getMaxOperatorProbePositions(), 368);
+        assertEquals(merged.getOperatorCount(), 2);
+    }
+
+    @Test
+    public void testProbeSkew()
+    {
+        JoinStatisticsCounter evenCounter = new JoinStatisticsCounter(JoinType.INNER);
+        JoinStatisticsCounter hotCounter = new JoinStatisticsCounter(JoinType.INNER);
+        for (int i = 0; i < 10; i++) {
+            evenCounter.recordProbe(1);
+        }
+        for (int i = 0; i < 30; i++) {
+            hotCounter.recordProbe(1);
+        }
+
+        JoinOperatorInfo even = evenCounter.get();
+        assertEquals(even.getMaxOperatorProbePositions(), 10);
+        assertEquals(even.getOperatorCount(), 1);
+        assertEquals(even.getProbeSkew(), 1.0);
+        assertEquals(even.mergeWith(evenCounter.get()).getProbeSkew(), 1.0);
+
+        JoinOperatorInfo skewed = even.mergeWith(hotCounter.get());
+        assertEquals(skewed.getMaxOperatorProbePositions(), 30);
+        assertEquals(skewed.getProbeSkew(), 1.5);
     }
 
     private long[] makeHistogramArray(long... longArray)
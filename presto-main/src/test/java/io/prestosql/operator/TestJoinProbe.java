@@ -0,0 +1,324 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.prestosql.operator;
+
+import com.google.common.collect.ImmutableList;
+import io.prestosql.operator.JoinProbe.JoinProbeFactory;
+import io.prestosql.operator.exchange.LocalPartitionGenerator;
+import io.prestosql.spi.Page;
+import io.prestosql.spi.PageBuilder;
+import io.prestosql.spi.block.Block;
+import io.prestosql.spi.block.BlockBuilder;
+import it.unimi.dsi.fastutil.longs.LongArrayList;
+import org.testng.annotations.DataProvider;
+import org.testng.annotations.Test;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+import java.util.OptionalInt;
+import java.util.function.Supplier;
+import java.util.stream.IntStream;
+
+import static io.prestosql.SystemSessionProperties.OFF_HEAP_HASH_TABLE;
+import static io.prestosql.metadata.MetadataManager.createTestMetadataManager;
+import static io.prestosql.operator.PartitionedLookupSource.createPartitionedLookupSourceSupplier;
+import static io.prestosql.operator.SyntheticAddress.encodeSyntheticAddress;
+import static io.prestosql.spi.type.BigintType.BIGINT;
+import static io.prestosql.testing.TestingSession.testSessionBuilder;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertTrue;
+
+public class TestJoinProbe
+{
+    private static final InterpretedHashGenerator HASH_GENERATOR = new InterpretedHashGenerator(ImmutableList.of(BIGINT), new int[] {0});
+    private static final int BUILD_POSITIONS = 1000;
+    private static final int PROBE_POSITIONS = 1500;
+    private static final int PARTITION_COUNT = 4;
+    private static final long NOT_LOOKED_UP = -2;
+
+    @DataProvider
+    public static Object[][] hashEnabledValues()
+    {
+        return new Object[][] {{true}, {false}};
+    }
+
+    @Test(dataProvider = "hashEnabledValues")
+    public void testPagesHashGetAddressIndexes(boolean hashEnabled)
+    {
+        PagesHash pagesHash = createPagesHash(createBuildKeys(), hashEnabled, ArrayPositionLinks.builder(BUILD_POSITIONS));
+        Page probePage = createProbePage(hashEnabled);
+        Page hashChannelsPage = new Page(probePage.getBlock(0));
+        long[] rawHashes = new long[PROBE_POSITIONS];
+        for (int position = 0; position < PROBE_POSITIONS; position++) {
+            rawHashes[position] = hashEnabled ? BIGINT.getLong(probePage.getBlock(1), position) : pagesHash.hashRow(position, hashChannelsPage);
+        }
+
+        // look up every third non null position, starting at an offset into the positions array
+        int[] positions = IntStream.range(0, PROBE_POSITIONS)
+                .filter(position -> position % 3 == 0 && !probePage.getBlock(0).isNull(position))
+                .toArray();
+        int offset = 5;
+        int length = positions.length - offset;
+        long[] addressIndexes = new long[PROBE_POSITIONS];
+        Arrays.fill(addressIndexes, NOT_LOOKED_UP);
+        pagesHash.getAddressIndexes(positions, offset, length, hashChannelsPage, rawHashes, addressIndexes);
+
+        int matches = 0;
+        for (int position = 0; position < PROBE_POSITIONS; position++) {
+            boolean lookedUp = false;
+            for (int i = offset; i < offset + length; i++) {
+                lookedUp |= positions[i] == position;
+            }
+            if (!lookedUp) {
+                assertEquals(addressIndexes[position], NOT_LOOKED_UP);
+                continue;
+            }
+            long expected = hashEnabled ? pagesHash.getAddressIndex(position, hashChannelsPage, rawHashes[position]) : pagesHash.getAddressIndex(position, hashChannelsPage);
+            assertEquals(addressIndexes[position], expected);
+            if (expected >= 0) {
+                matches++;
+                assertBuildKey(pagesHash, expected, BIGINT.getLong(probePage.getBlock(0), position));
+            }
+        }
+        assertTrue(matches > 0);
+    }
+
+    @Test(dataProvider = "hashEnabledValues")
+    public void testJoinProbe(boolean hashEnabled)
+    {
+        LookupSource lookupSource = createJoinHash(createBuildKeys(), hashEnabled);
+        assertTrue(lookupSource.isBatchProbeSupported());
+        Page probePage = createProbePage(hashEnabled);
+        Page hashChannelsPage = new Page(probePage.getBlock(0));
+
+        JoinProbeFactory joinProbeFactory = new JoinProbeFactory(new int[] {0}, ImmutableList.of(0), hashEnabled ? OptionalInt.of(1) : OptionalInt.empty());
+        JoinProbe probe = joinProbeFactory.createJoinProbe(probePage);
+        int matches = 0;
+        while (probe.advanceNextPosition()) {
+            int position = probe.getPosition();
+            long joinPosition = probe.getCurrentJoinPosition(lookupSource, true);
+            if (probePage.getBlock(0).isNull(position)) {
+                assertEquals(joinPosition, -1);
+                continue;
+            }
+            long expected = hashEnabled ?
+                    lookupSource.getJoinPosition(position, hashChannelsPage, probePage, BIGINT.getLong(probePage.getBlock(1), position)) :
+                    lookupSource.getJoinPosition(position, hashChannelsPage, probePage);
+            assertEquals(joinPosition, expected);
+            if (joinPosition >= 0) {
+                matches++;
+            }
+        }
+        assertTrue(matches > 0);
+    }
+
+    @Test(dataProvider = "hashEnabledValues")
+    public void testPartitionedLookupSourceGetJoinPositions(boolean hashEnabled)
+    {
+        // the partitions of a partitioned lookup source always have a precomputed hash,
+        // which is computed by the partitioned lookup source when the probe does not have one
+        LocalPartitionGenerator partitionGenerator = new LocalPartitionGenerator(HASH_GENERATOR, PARTITION_COUNT);
+        long[] buildKeys = createBuildKeys();
+        ImmutableList.Builder<Supplier<LookupSource>> partitions = ImmutableList.builder();
+        for (int partition = 0; partition < PARTITION_COUNT; partition++) {
+            int currentPartition = partition;
+            long[] partitionKeys = Arrays.stream(buildKeys)
+                    .filter(key -> partitionGenerator.getPartition(HASH_GENERATOR.hashPosition(0, new Page(createKeyBlock(key)))) == currentPartition)
+                    .toArray();
+            LookupSource partitionLookupSource = createJoinHash(partitionKeys, true);
+            partitions.add(() -> partitionLookupSource);
+        }
+        LookupSource lookupSource = createPartitionedLookupSourceSupplier(partitions.build(), ImmutableList.of(BIGINT), false).getLookupSource();
+        assertTrue(lookupSource.isBatchProbeSupported());
+
+        Page probePage = createProbePage(hashEnabled);
+        Page hashChannelsPage = new Page(probePage.getBlock(0));
+        long[] rawHashes = hashEnabled ? getRawHashes(probePage) : null;
+        int[] positions = IntStream.range(0, PROBE_POSITIONS)
+                .filter(position -> !probePage.getBlock(0).isNull(position))
+                .toArray();
+        long[] joinPositions = new long[PROBE_POSITIONS];
+        Arrays.fill(joinPositions, NOT_LOOKED_UP);
+        lookupSource.getJoinPositions(positions, 0, positions.length, hashChannelsPage, probePage, rawHashes, joinPositions);
+
+        int matches = 0;
+        for (int position = 0; position < PROBE_POSITIONS; position++) {
+            if (probePage.getBlock(0).isNull(position)) {
+                assertEquals(joinPositions[position], NOT_LOOKED_UP);
+                continue;
+            }
+            long expected = hashEnabled ?
+                    lookupSource.getJoinPosition(position, hashChannelsPage, probePage, rawHashes[position]) :
+                    lookupSource.getJoinPosition(position, hashChannelsPage, probePage);
+            assertEquals(joinPositions[position], expected);
+            if (expected >= 0) {
+                matches++;
+                PageBuilder pageBuilder = new PageBuilder(ImmutableList.of(BIGINT));
+                pageBuilder.declarePosition();
+                lookupSource.appendTo(expected, pageBuilder, 0);
+                assertEquals(BIGINT.getLong(pageBuilder.build().getBlock(0), 0), BIGINT.getLong(probePage.getBlock(0), position));
+            }
+        }
+        assertTrue(matches > 0);
+
+        // a second lookup of fewer positions reuses the scratch arrays of the first one
+        long[] secondJoinPositions = new long[PROBE_POSITIONS];
+        int secondOffset = positions.length / 2;
+        lookupSource.getJoinPositions(positions, secondOffset, positions.length - secondOffset, hashChannelsPage, probePage, rawHashes, secondJoinPositions);
+        for (int i = secondOffset; i < positions.length; i++) {
+            assertEquals(secondJoinPositions[positions[i]], joinPositions[positions[i]]);
+        }
+    }
+
+    @Test
+    public void testCloseSupplierWhileLookupSourceInUse()
+    {
+        long[] buildKeys = createBuildKeys();
+        Block keyBlock = createKeyBlock(buildKeys);
+        List<List<Block>> channels = ImmutableList.of(ImmutableList.of(keyBlock));
+        JoinHashSupplier supplier = new JoinHashSupplier(
+                testSessionBuilder().setSystemProperty(OFF_HEAP_HASH_TABLE, "true").build(),
+                createPagesHashStrategy(channels, false),
+                createAddresses(buildKeys.length),
+                channels,
+                Optional.empty(),
+                Optional.empty(),
+                ImmutableList.of());
+        LookupSource lookupSource = supplier.get();
+
+        // the build side is done with the hash while a probe still holds its lookup source
+        supplier.close();
+
+        Page probePage = new Page(keyBlock);
+        for (int position = 0; position < buildKeys.length; position++) {
+            long joinPosition = lookupSource.getJoinPosition(position, probePage, probePage);
+            assertTrue(joinPosition >= 0);
+            PageBuilder pageBuilder = new PageBuilder(ImmutableList.of(BIGINT));
+            pageBuilder.declarePosition();
+            lookupSource.appendTo(joinPosition, pageBuilder, 0);
+            assertEquals(BIGINT.getLong(pageBuilder.build().getBlock(0), 0), buildKeys[position]);
+        }
+
+        // the off-heap key array is released with the last lookup source, so no new one can be created
+        lookupSource.close();
+        assertThatThrownBy(supplier::get)
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessage("Hash is already released");
+    }
+
+    private static long[] createBuildKeys()
+    {
+        // every key is present twice
+        return IntStream.range(0, BUILD_POSITIONS)
+                .mapToLong(position -> position % (BUILD_POSITIONS / 2))
+                .toArray();
+    }
+
+    private static Page createProbePage(boolean hashEnabled)
+    {
+        // half of the probe keys have no match, and every seventh probe key is null
+        BlockBuilder blockBuilder = BIGINT.createBlockBuilder(null, PROBE_POSITIONS);
+        for (int position = 0; position < PROBE_POSITIONS; position++) {
+            if (position % 7 == 0) {
+                blockBuilder.appendNull();
+            }
+            else {
+                BIGINT.writeLong(blockBuilder, position - BUILD_POSITIONS / 4);
+            }
+        }
+        Block keyBlock = blockBuilder.build();
+        if (!hashEnabled) {
+            return new Page(keyBlock);
+        }
+        return new Page(keyBlock, createHashBlock(keyBlock));
+    }
+
+    private static long[] getRawHashes(Page probePage)
+    {
+        long[] rawHashes = new long[probePage.getPositionCount()];
+        for (int position = 0; position < rawHashes.length; position++) {
+            rawHashes[position] = BIGINT.getLong(probePage.getBlock(1), position);
+        }
+        return rawHashes;
+    }
+
+    private static Block createKeyBlock(long... keys)
+    {
+        BlockBuilder blockBuilder = BIGINT.createBlockBuilder(null, keys.length);
+        for (long key : keys) {
+            BIGINT.writeLong(blockBuilder, key);
+        }
+        return blockBuilder.build();
+    }
+
+    private static Block createHashBlock(Block keyBlock)
+    {
+        Page keyPage = new Page(keyBlock);
+        BlockBuilder blockBuilder = BIGINT.createBlockBuilder(null, keyBlock.getPositionCount());
+        for (int position = 0; position < keyBlock.getPositionCount(); position++) {
+            BIGINT.writeLong(blockBuilder, HASH_GENERATOR.hashPosition(position, keyPage));
+        }
+        return blockBuilder.build();
+    }
+
+    private static PagesHash createPagesHash(long[] keys, boolean hashEnabled, PositionLinks.FactoryBuilder positionLinks)
+    {
+        Block keyBlock = createKeyBlock(keys);
+        List<List<Block>> channels = hashEnabled ?
+                ImmutableList.of(ImmutableList.of(keyBlock), ImmutableList.of(createHashBlock(keyBlock))) :
+                ImmutableList.of(ImmutableList.of(keyBlock));
+        return new PagesHash(createAddresses(keys.length), createPagesHashStrategy(channels, hashEnabled), positionLinks);
+    }
+
+    private static PagesHashStrategy createPagesHashStrategy(List<List<Block>> channels, boolean hashEnabled)
+    {
+        return new SimplePagesHashStrategy(
+                hashEnabled ? ImmutableList.of(BIGINT, BIGINT) : ImmutableList.of(BIGINT),
+                ImmutableList.of(0),
+                channels,
+                ImmutableList.of(0),
+                hashEnabled ? OptionalInt.of(1) : OptionalInt.empty(),
+                Optional.empty(),
+                createTestMetadataManager());
+    }
+
+    private static LongArrayList createAddresses(int positionCount)
+    {
+        LongArrayList addresses = new LongArrayList(positionCount);
+        for (int position = 0; position < positionCount; position++) {
+            addresses.add(encodeSyntheticAddress(0, position));
+        }
+        return addresses;
+    }
+
+    private static LookupSource createJoinHash(long[] keys, boolean hashEnabled)
+    {
+        PositionLinks.FactoryBuilder positionLinksFactoryBuilder = ArrayPositionLinks.builder(keys.length);
+        PagesHash pagesHash = createPagesHash(keys, hashEnabled, positionLinksFactoryBuilder);
+        Optional<PositionLinks> positionLinks = positionLinksFactoryBuilder.isEmpty() ?
+                Optional.empty() :
+                Optional.of(positionLinksFactoryBuilder.build().create(ImmutableList.of()));
+        return new JoinHash(pagesHash, Optional.empty(), positionLinks);
+    }
+
+    private static void assertBuildKey(PagesHash pagesHash, long addressIndex, long expectedKey)
+    {
+        PageBuilder pageBuilder = new PageBuilder(ImmutableList.of(BIGINT));
+        pageBuilder.declarePosition();
+        pagesHash.appendTo(addressIndex, pageBuilder, 0);
+        assertEquals(BIGINT.getLong(pageBuilder.build().getBlock(0), 0), expectedKey);
+    }
+}
@@ -82,6 +82,37 @@ public class TestLookupJoinPageBuilder
         assertTrue(lookupJoinPageBuilder.isEmpty());
     }
 
+    @Test
+    public void testAppendRows()
+    {
+        int entries = 10;
+        BlockBuilder blockBuilder = BIGINT.createFixedSizeBlockBuilder(entries);
+        for (int i = 0; i < entries; i++) {
+            BIGINT.writeLong(blockBuilder, i);
+        }
+        Block block = blockBuilder.build();
+        Page page = new Page(block);
+        JoinProbeFactory joinProbeFactory = new JoinProbeFactory(new int[] {0}, ImmutableList.of(0), OptionalInt.empty());
+        LookupSource lookupSource = new TestLookupSource(ImmutableList.of(BIGINT), page);
+        LookupJoinPageBuilder lookupJoinPageBuilder = new LookupJoinPageBuilder(ImmutableList.of(BIGINT));
+
+        // every probe position matches the build rows at the same position and at the next one, and only the first count join positions are appended
+        JoinProbe probe = joinProbeFactory.createJoinProbe(page);
+        while (probe.advanceNextPosition()) {
+            int position = probe.getPosition();
+            long[] joinPositions = {position, (position + 1) % entries, -1};
+            lookupJoinPageBuilder.appendRows(probe, lookupSource, joinPositions, 2);
+        }
+
+        Page output = lookupJoinPageBuilder.build(probe);
+        assertEquals(output.getPositionCount(), entries * 2);
+        assertTrue(output.getBlock(0) instanceof DictionaryBlock);
+        for (int i = 0; i < output.getPositionCount(); i++) {
+            assertEquals(output.getBlock(0).getLong(i, 0), i / 2);
+            assertEquals(output.getBlock(1).getLong(i, 0), (i / 2 + i % 2) % entries);
+        }
+    }
+
     @Test
     public void testDifferentPositions()
     {
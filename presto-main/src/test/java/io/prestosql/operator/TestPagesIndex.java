@@ -14,18 +14,33 @@
 package io.prestosql.operator;
 
 import com.google.common.collect.ImmutableList;
+import com.google.common.util.concurrent.ListenableFuture;
+import io.prestosql.memory.context.LocalMemoryContext;
+import io.prestosql.memory.context.MemoryReservationHandler;
 import io.prestosql.spi.Page;
+import io.prestosql.spi.PageBuilder;
+import io.prestosql.spi.block.SortOrder;
 import io.prestosql.spi.type.Type;
+import org.testng.annotations.DataProvider;
 import org.testng.annotations.Test;
 
 import java.util.Arrays;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Random;
 
+import static com.google.common.util.concurrent.Futures.immediateFuture;
+import static io.airlift.slice.Slices.utf8Slice;
 import static io.prestosql.SequencePageBuilder.createSequencePage;
+import static io.prestosql.memory.context.AggregatedMemoryContext.newRootAggregatedMemoryContext;
+import static io.prestosql.operator.PageAssertions.assertPageEquals;
 import static io.prestosql.spi.type.BigintType.BIGINT;
+import static io.prestosql.spi.type.DoubleType.DOUBLE;
 import static io.prestosql.spi.type.VarcharType.VARCHAR;
+import static java.lang.Math.max;
 import static java.lang.String.format;
 import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
 import static org.testng.Assert.assertTrue;
 
 public class TestPagesIndex
@@ -82,15 +97,151 @@ public class TestPagesIndex
         assertEquals(lazyCompactPagesIndex.getEstimatedSize(), eagerCompactPagesIndex.getEstimatedSize());
     }
 
+    @DataProvider
+    public static Object[][] prefixSortKeys()
+    {
+        ImmutableList.Builder<Object[]> keys = ImmutableList.builder();
+        for (int channel = 0; channel < 3; channel++) {
+            for (SortOrder sortOrder : SortOrder.values()) {
+                keys.add(new Object[] {channel, sortOrder});
+            }
+        }
+        return keys.build().toArray(new Object[0][]);
+    }
+
+    @Test(dataProvider = "prefixSortKeys")
+    public void testPrefixSort(int firstSortChannel, SortOrder sortOrder)
+    {
+        TestingMemoryReservationHandler reservationHandler = new TestingMemoryReservationHandler(true);
+        assertPrefixSort(firstSortChannel, sortOrder, newRootAggregatedMemoryContext(reservationHandler, 0).newLocalMemoryContext("test"));
+        // the prefixes are accounted while they are sorted
+        assertEquals(reservationHandler.getPeakReservedBytes(), PagesIndexPrefixSorter.getSortMemoryInBytes(10_000));
+        assertEquals(reservationHandler.getReservedBytes(), 0);
+    }
+
+    @Test
+    public void testPrefixSortWithoutMemory()
+    {
+        // the positions are sorted with the comparator when the memory of the prefixes cannot be reserved
+        TestingMemoryReservationHandler reservationHandler = new TestingMemoryReservationHandler(false);
+        assertPrefixSort(0, SortOrder.ASC_NULLS_LAST, newRootAggregatedMemoryContext(reservationHandler, 0).newLocalMemoryContext("test"));
+        assertEquals(reservationHandler.getPeakReservedBytes(), 0);
+        assertEquals(reservationHandler.getReservedBytes(), 0);
+    }
+
+    private static void assertPrefixSort(int firstSortChannel, SortOrder sortOrder, LocalMemoryContext sortMemoryContext)
+    {
+        List<Type> types = ImmutableList.of(BIGINT, DOUBLE, VARCHAR);
+        // the first sort key is compared by its prefix, and the other channels break the ties
+        List<Integer> sortChannels = ImmutableList.of(firstSortChannel, (firstSortChannel + 1) % 3, (firstSortChannel + 2) % 3);
+        List<SortOrder> sortOrders = ImmutableList.of(sortOrder, SortOrder.ASC_NULLS_LAST, SortOrder.DESC_NULLS_FIRST);
+
+        PagesIndex prefixSortPagesIndex = new PagesIndex.TestingFactory(false, true).newPagesIndex(types, 10_000);
+        PagesIndex pagesIndex = new PagesIndex.TestingFactory(false, false).newPagesIndex(types, 10_000);
+        Random random = new Random(firstSortChannel * 31 + sortOrder.ordinal());
+        for (int i = 0; i < 5; i++) {
+            Page page = randomPage(types, random, 2_000);
+            prefixSortPagesIndex.addPage(page);
+            pagesIndex.addPage(page);
+        }
+
+        prefixSortPagesIndex.sort(sortChannels, sortOrders, sortMemoryContext);
+        pagesIndex.sort(sortChannels, sortOrders);
+
+        Iterator<Page> actual = prefixSortPagesIndex.getSortedPages();
+        Iterator<Page> expected = pagesIndex.getSortedPages();
+        while (expected.hasNext()) {
+            assertTrue(actual.hasNext());
+            assertPageEquals(types, actual.next(), expected.next());
+        }
+        assertFalse(actual.hasNext());
+    }
+
     private static PagesIndex newPagesIndex(List<Type> types, int expectedPositions, boolean eagerCompact)
     {
         return new PagesIndex.TestingFactory(eagerCompact).newPagesIndex(types, expectedPositions);
     }
 
+    private static Page randomPage(List<Type> types, Random random, int positionCount)
+    {
+        // few distinct values, so that there are many ties, including strings that share their first 8 bytes
+        double[] doubles = {Double.NEGATIVE_INFINITY, -1.5, -0.0, 0.0, 2.5, Double.POSITIVE_INFINITY, Double.NaN};
+        String[] strings = {"", "a", "ab", "abcdefgh", "abcdefghi", "abcdefghj", "\u00e9t\u00e9", "z"};
+        PageBuilder pageBuilder = new PageBuilder(types);
+        for (int position = 0; position < positionCount; position++) {
+            pageBuilder.declarePosition();
+            if (random.nextInt(10) == 0) {
+                pageBuilder.getBlockBuilder(0).appendNull();
+            }
+            else {
+                BIGINT.writeLong(pageBuilder.getBlockBuilder(0), random.nextInt(20) - 10 + (random.nextBoolean() ? 0 : Long.MIN_VALUE / 2));
+            }
+            if (random.nextInt(10) == 0) {
+                pageBuilder.getBlockBuilder(1).appendNull();
+            }
+            else {
+                DOUBLE.writeDouble(pageBuilder.getBlockBuilder(1), doubles[random.nextInt(doubles.length)]);
+            }
+            if (random.nextInt(10) == 0) {
+                pageBuilder.getBlockBuilder(2).appendNull();
+            }
+            else {
+                VARCHAR.writeSlice(pageBuilder.getBlockBuilder(2), utf8Slice(strings[random.nextInt(strings.length)]));
+            }
+        }
+        return pageBuilder.build();
+    }
+
     private static Page somePage(List<Type> types)
     {
         int[] initialValues = new int[types.size()];
         Arrays.setAll(initialValues, i -> 100 * i);
         return createSequencePage(types, 7, initialValues);
     }
+
+    private static class TestingMemoryReservationHandler
+            implements MemoryReservationHandler
+    {
+        private final boolean reservationAllowed;
+        private long reservedBytes;
+        private long peakReservedBytes;
+
+        public TestingMemoryReservationHandler(boolean reservationAllowed)
+        {
+            this.reservationAllowed = reservationAllowed;
+        }
+
+        @Override
+        public ListenableFuture<?> reserveMemory(String allocationTag, long delta)
+        {
+            reserve(delta);
+            return immediateFuture(null);
+        }
+
+        @Override
+        public boolean tryReserveMemory(String allocationTag, long delta)
+        {
+            if (!reservationAllowed) {
+                return false;
+            }
+            reserve(delta);
+            return true;
+        }
+
+        private void reserve(long delta)
+        {
+            reservedBytes += delta;
+            peakReservedBytes = max(peakReservedBytes, reservedBytes);
+        }
+
+        public long getReservedBytes()
+        {
+            return reservedBytes;
+        }
+
+        public long getPeakReservedBytes()
+        {
+            return peakReservedBytes;
+        }
+    }
 }
@@ -0,0 +1,148 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.prestosql.operator;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.io.Files;
+import io.airlift.units.DataSize;
+import io.airlift.units.Duration;
+import io.prestosql.SequencePageBuilder;
+import io.prestosql.metadata.Metadata;
+import io.prestosql.operator.SplitResultCache.PipelineKey;
+import io.prestosql.spi.Page;
+import io.prestosql.spi.type.Type;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.Test;
+
+import java.io.File;
+import java.util.List;
+import java.util.Optional;
+
+import static com.google.common.io.MoreFiles.deleteRecursively;
+import static com.google.common.io.RecursiveDeleteOption.ALLOW_INSECURE;
+import static io.airlift.units.DataSize.Unit.MEGABYTE;
+import static io.prestosql.SessionTestUtils.TEST_SESSION;
+import static io.prestosql.metadata.MetadataManager.createTestMetadataManager;
+import static io.prestosql.operator.PageAssertions.assertPageEquals;
+import static io.prestosql.spi.type.BigintType.BIGINT;
+import static io.prestosql.spi.type.VarcharType.VARCHAR;
+import static io.prestosql.sql.relational.Expressions.field;
+import static io.prestosql.testing.assertions.Assert.assertEventually;
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
+
+@Test(singleThreaded = true)
+public class TestSplitResultCache
+{
+    private static final List<Type> TYPES = ImmutableList.of(BIGINT, VARCHAR);
+    private static final PipelineKey PIPELINE_KEY = new PipelineKey(TEST_SESSION, Optional.empty(), ImmutableList.of(field(0, BIGINT), field(1, VARCHAR)));
+
+    private final Metadata metadata = createTestMetadataManager();
+    private final File cachePath = Files.createTempDir();
+
+    @AfterClass(alwaysRun = true)
+    public void tearDown()
+            throws Exception
+    {
+        deleteRecursively(cachePath.toPath(), ALLOW_INSECURE);
+    }
+
+    @Test
+    public void testMemoryCache()
+    {
+        SplitResultCache cache = new SplitResultCache(new SplitResultCacheConfig().setEnabled(true), metadata);
+        List<Page> pages = createPages();
+
+        assertFalse(cache.get("split", PIPELINE_KEY).isPresent());
+        cache.put("split", PIPELINE_KEY, pages);
+        assertPagesEqual(cache.get("split", PIPELINE_KEY).get(), pages);
+
+        assertFalse(cache.get("other split", PIPELINE_KEY).isPresent());
+        PipelineKey otherPipelineKey = new PipelineKey(TEST_SESSION, Optional.empty(), ImmutableList.of(field(0, BIGINT)));
+        assertFalse(cache.get("split", otherPipelineKey).isPresent());
+
+        assertEquals(cache.getMemoryHits().getTotalCount(), 1);
+        assertEquals(cache.getMisses().getTotalCount(), 3);
+        assertEquals(cache.getMemoryEntries(), 1);
+    }
+
+    @Test
+    public void testDisabled()
+    {
+        SplitResultCache cache = new SplitResultCache(new SplitResultCacheConfig(), metadata);
+        assertFalse(cache.isEnabled());
+
+        cache.put("split", PIPELINE_KEY, createPages());
+        assertFalse(cache.get("split", PIPELINE_KEY).isPresent());
+    }
+
+    @Test
+    public void testMaxEntrySize()
+    {
+        SplitResultCache cache = new SplitResultCache(
+                new SplitResultCacheConfig()
+                        .setEnabled(true)
+                        .setMaxEntrySize(DataSize.ofBytes(1)),
+                metadata);
+
+        cache.put("split", PIPELINE_KEY, createPages());
+        assertFalse(cache.get("split", PIPELINE_KEY).isPresent());
+        assertEquals(cache.getMemoryEntries(), 0);
+    }
+
+    @Test
+    public void testDiskCache()
+    {
+        SplitResultCache cache = new SplitResultCache(
+                new SplitResultCacheConfig()
+                        .setEnabled(true)
+                        .setMaxMemory(DataSize.ofBytes(1))
+                        .setDiskPath(cachePath.getPath())
+                        .setMaxDiskSize(DataSize.of(10, MEGABYTE)),
+                metadata);
+        try {
+            List<Page> pages = createPages();
+
+            // the entry does not fit in memory, so it is written to disk right away
+            cache.put("split", PIPELINE_KEY, pages);
+            assertEventually(new Duration(10, SECONDS), () -> assertEquals(cache.getDiskEntries(), 1));
+            assertTrue(cache.getDiskSizeInBytes() > 0);
+
+            assertPagesEqual(cache.get("split", PIPELINE_KEY).get(), pages);
+            assertEquals(cache.getDiskHits().getTotalCount(), 1);
+            assertEquals(cache.getDiskWriteFailures().getTotalCount(), 0);
+        }
+        finally {
+            cache.destroy();
+        }
+        assertEquals(cache.getDiskSizeInBytes(), 0);
+    }
+
+    private static List<Page> createPages()
+    {
+        return ImmutableList.of(
+                SequencePageBuilder.createSequencePage(TYPES, 100, 0, 0),
+                SequencePageBuilder.createSequencePage(TYPES, 10, 100, 100));
+    }
+
+    private static void assertPagesEqual(List<Page> actual, List<Page> expected)
+    {
+        assertEquals(actual.size(), expected.size());
+        for (int i = 0; i < actual.size(); i++) {
+            assertPageEquals(TYPES, actual.get(i), expected.get(i));
+        }
+    }
+}
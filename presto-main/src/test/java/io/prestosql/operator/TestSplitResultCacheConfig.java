@@ -0,0 +1,61 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.prestosql.operator;
+
+import com.google.common.collect.ImmutableMap;
+import io.airlift.units.DataSize;
+import org.testng.annotations.Test;
+
+import java.util.Map;
+
+import static io.airlift.configuration.testing.ConfigAssertions.assertFullMapping;
+import static io.airlift.configuration.testing.ConfigAssertions.assertRecordedDefaults;
+import static io.airlift.configuration.testing.ConfigAssertions.recordDefaults;
+import static io.airlift.units.DataSize.Unit.GIGABYTE;
+import static io.airlift.units.DataSize.Unit.MEGABYTE;
+
+public class TestSplitResultCacheConfig
+{
+    @Test
+    public void testDefaults()
+    {
+        assertRecordedDefaults(recordDefaults(SplitResultCacheConfig.class)
+                .setEnabled(false)
+                .setMaxMemory(DataSize.of(1, GIGABYTE))
+                .setMaxEntrySize(DataSize.of(16, MEGABYTE))
+                .setDiskPath(null)
+                .setMaxDiskSize(DataSize.of(10, GIGABYTE)));
+    }
+
+    @Test
+    public void testExplicitPropertyMappings()
+    {
+        Map<String, String> properties = new ImmutableMap.Builder<String, String>()
+                .put("split-result-cache.enabled", "true")
+                .put("split-result-cache.max-memory", "2GB")
+                .put("split-result-cache.max-entry-size", "1MB")
+                .put("split-result-cache.disk-path", "/tmp/split-result-cache")
+                .put("split-result-cache.max-disk-size", "100GB")
+                .build();
+
+        SplitResultCacheConfig expected = new SplitResultCacheConfig()
+                .setEnabled(true)
+                .setMaxMemory(DataSize.of(2, GIGABYTE))
+                .setMaxEntrySize(DataSize.of(1, MEGABYTE))
+                .setDiskPath("/tmp/split-result-cache")
+                .setMaxDiskSize(DataSize.of(100, GIGABYTE));
+
+        assertFullMapping(properties, expected);
+    }
+}
@@ -15,24 +15,48 @@ package io.prestosql.operator;
 
 import com.google.common.collect.ImmutableList;
 import com.google.common.primitives.Ints;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.SettableFuture;
 import io.prestosql.RowPagesBuilder;
 import io.prestosql.spi.Page;
 import io.prestosql.spi.block.SortOrder;
 import io.prestosql.spi.type.Type;
+import io.prestosql.spiller.FileSingleStreamSpillerFactory;
+import io.prestosql.spiller.GenericPartitioningSpillerFactory;
+import io.prestosql.spiller.NodeSpillConfig;
+import io.prestosql.spiller.PartitioningSpiller;
+import io.prestosql.spiller.PartitioningSpiller.PartitioningSpillResult;
+import io.prestosql.spiller.PartitioningSpillerFactory;
+import io.prestosql.spiller.SpillerStats;
+import io.prestosql.sql.analyzer.FeaturesConfig;
 import io.prestosql.sql.gen.JoinCompiler;
 import io.prestosql.sql.planner.plan.PlanNodeId;
 import io.prestosql.testing.MaterializedResult;
+import org.testng.annotations.AfterClass;
 import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeClass;
 import org.testng.annotations.BeforeMethod;
 import org.testng.annotations.DataProvider;
 import org.testng.annotations.Test;
 
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Optional;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.IntPredicate;
 
+import static com.google.common.io.MoreFiles.deleteRecursively;
+import static com.google.common.io.RecursiveDeleteOption.ALLOW_INSECURE;
+import static com.google.common.util.concurrent.Futures.immediateFuture;
+import static com.google.common.util.concurrent.Futures.transformAsync;
+import static com.google.common.util.concurrent.MoreExecutors.directExecutor;
+import static io.airlift.concurrent.MoreFutures.getFutureValue;
 import static io.airlift.concurrent.Threads.daemonThreadsNamed;
+import static io.airlift.testing.Assertions.assertEqualsIgnoreOrder;
 import static io.airlift.testing.Assertions.assertGreaterThan;
 import static io.prestosql.RowPagesBuilder.rowPagesBuilder;
 import static io.prestosql.SessionTestUtils.TEST_SESSION;
@@ -40,14 +64,20 @@ import static io.prestosql.metadata.MetadataManager.createTestMetadataManager;
 import static io.prestosql.operator.GroupByHashYieldAssertion.createPagesWithDistinctHashKeys;
 import static io.prestosql.operator.GroupByHashYieldAssertion.finishOperatorWithYieldingGroupByHash;
 import static io.prestosql.operator.OperatorAssertion.assertOperatorEquals;
+import static io.prestosql.operator.OperatorAssertion.assertOperatorEqualsIgnoreOrder;
+import static io.prestosql.operator.OperatorAssertion.finishOperator;
+import static io.prestosql.operator.OperatorAssertion.toMaterializedResult;
 import static io.prestosql.operator.TopNRowNumberOperator.TopNRowNumberOperatorFactory;
 import static io.prestosql.spi.type.BigintType.BIGINT;
 import static io.prestosql.spi.type.DoubleType.DOUBLE;
 import static io.prestosql.testing.MaterializedResult.resultBuilder;
 import static io.prestosql.testing.TestingTaskContext.createTaskContext;
+import static java.nio.file.Files.createTempDirectory;
 import static java.util.concurrent.Executors.newCachedThreadPool;
 import static java.util.concurrent.Executors.newScheduledThreadPool;
 import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertNull;
 
 @Test(singleThreaded = true)
 public class TestTopNRowNumberOperator
@@ -56,6 +86,30 @@ public class TestTopNRowNumberOperator
     private ScheduledExecutorService scheduledExecutor;
     private DriverContext driverContext;
     private JoinCompiler joinCompiler;
+    private Path spillPath;
+    private PartitioningSpillerFactory partitioningSpillerFactory;
+
+    @BeforeClass
+    public void setUpSpiller()
+            throws IOException
+    {
+        spillPath = createTempDirectory(getClass().getSimpleName());
+        FeaturesConfig featuresConfig = new FeaturesConfig()
+                .setSpillerSpillPaths(spillPath.toString())
+                .setSpillMaxUsedSpaceThreshold(1.0);
+        partitioningSpillerFactory = new GenericPartitioningSpillerFactory(new FileSingleStreamSpillerFactory(
+                createTestMetadataManager(),
+                new SpillerStats(),
+                featuresConfig,
+                new NodeSpillConfig()));
+    }
+
+    @AfterClass(alwaysRun = true)
+    public void tearDownSpiller()
+            throws IOException
+    {
+        deleteRecursively(spillPath, ALLOW_INSECURE);
+    }
 
     @BeforeMethod
     public void setUp()
@@ -136,6 +190,155 @@ public class TestTopNRowNumberOperator
         assertOperatorEquals(operatorFactory, driverContext, input, expected);
     }
 
+    @Test(dataProvider = "hashEnabledValues")
+    public void testPartitionedWithSpill(boolean hashEnabled)
+    {
+        RowPagesBuilder rowPagesBuilder = rowPagesBuilder(hashEnabled, Ints.asList(0), BIGINT, DOUBLE);
+        List<Page> input = rowPagesBuilder
+                .row(1L, 0.3)
+                .row(2L, 0.2)
+                .row(3L, 0.1)
+                .row(3L, 0.91)
+                .pageBreak()
+                .row(1L, 0.4)
+                .pageBreak()
+                .row(1L, 0.5)
+                .row(1L, 0.6)
+                .row(2L, 0.7)
+                .row(2L, 0.8)
+                .pageBreak()
+                .row(2L, 0.9)
+                .build();
+
+        TopNRowNumberOperatorFactory operatorFactory = new TopNRowNumberOperatorFactory(
+                0,
+                new PlanNodeId("test"),
+                rowPagesBuilder.getTypes(),
+                Ints.asList(1, 0),
+                Ints.asList(0),
+                ImmutableList.of(BIGINT),
+                Ints.asList(1),
+                ImmutableList.of(SortOrder.ASC_NULLS_LAST),
+                3,
+                false,
+                rowPagesBuilder.getHashChannel(),
+                10,
+                joinCompiler,
+                true,
+                partitioningSpillerFactory);
+
+        // memory is revoked after each page, so the rows of each partition are spilled several times and ranked together at the end
+        MaterializedResult expected = resultBuilder(driverContext.getSession(), DOUBLE, BIGINT, BIGINT)
+                .row(0.3, 1L, 1L)
+                .row(0.4, 1L, 2L)
+                .row(0.5, 1L, 3L)
+                .row(0.2, 2L, 1L)
+                .row(0.7, 2L, 2L)
+                .row(0.8, 2L, 3L)
+                .row(0.1, 3L, 1L)
+                .row(0.91, 3L, 2L)
+                .build();
+
+        assertOperatorEqualsIgnoreOrder(operatorFactory, driverContext, input, expected, true);
+    }
+
+    @Test
+    public void testSpillOnFinishDoesNotBlock()
+            throws Exception
+    {
+        RowPagesBuilder rowPagesBuilder = rowPagesBuilder(false, Ints.asList(0), BIGINT, DOUBLE);
+        List<Page> input = rowPagesBuilder
+                .row(1L, 0.3)
+                .row(2L, 0.2)
+                .pageBreak()
+                .row(1L, 0.1)
+                .row(2L, 0.4)
+                .build();
+
+        // spills only start once they are allowed to
+        AtomicReference<ListenableFuture<?>> spillAllowed = new AtomicReference<>(immediateFuture(null));
+        PartitioningSpillerFactory spillerFactory = (types, partitionFunction, spillContext, memoryContext) -> {
+            PartitioningSpiller spiller = partitioningSpillerFactory.create(types, partitionFunction, spillContext, memoryContext);
+            return new PartitioningSpiller()
+            {
+                @Override
+                public PartitioningSpillResult partitionAndSpill(Page page, IntPredicate spillPartitionMask)
+                {
+                    return spiller.partitionAndSpill(page, spillPartitionMask);
+                }
+
+                @Override
+                public ListenableFuture<?> spill(Iterator<Page> pages)
+                {
+                    return transformAsync(spillAllowed.get(), ignored -> spiller.spill(pages), directExecutor());
+                }
+
+                @Override
+                public Iterator<Page> getSpilledPages(int partition)
+                {
+                    return spiller.getSpilledPages(partition);
+                }
+
+                @Override
+                public void verifyAllPartitionsRead()
+                {
+                    spiller.verifyAllPartitionsRead();
+                }
+
+                @Override
+                public void close()
+                        throws IOException
+                {
+                    spiller.close();
+                }
+            };
+        };
+
+        TopNRowNumberOperatorFactory operatorFactory = new TopNRowNumberOperatorFactory(
+                0,
+                new PlanNodeId("test"),
+                rowPagesBuilder.getTypes(),
+                Ints.asList(1, 0),
+                Ints.asList(0),
+                ImmutableList.of(BIGINT),
+                Ints.asList(1),
+                ImmutableList.of(SortOrder.ASC_NULLS_LAST),
+                1,
+                false,
+                rowPagesBuilder.getHashChannel(),
+                10,
+                joinCompiler,
+                true,
+                spillerFactory);
+
+        try (Operator operator = operatorFactory.createOperator(driverContext)) {
+            operator.addInput(input.get(0));
+            getFutureValue(operator.startMemoryRevoke());
+            operator.finishMemoryRevoke();
+
+            // the rows of the second page are ranked together with the spilled rows, so they are spilled when the input finishes
+            operator.addInput(input.get(1));
+            SettableFuture<?> spillFinished = SettableFuture.create();
+            spillAllowed.set(spillFinished);
+            operator.finish();
+            assertFalse(operator.isBlocked().isDone());
+            assertNull(operator.getOutput());
+            assertFalse(operator.isFinished());
+
+            // a memory revoke requested in the meantime leaves the spill alone
+            getFutureValue(operator.startMemoryRevoke());
+            operator.finishMemoryRevoke();
+
+            spillFinished.set(null);
+            MaterializedResult expected = resultBuilder(driverContext.getSession(), DOUBLE, BIGINT, BIGINT)
+                    .row(0.1, 1L, 1L)
+                    .row(0.2, 2L, 1L)
+                    .build();
+            MaterializedResult actual = toMaterializedResult(driverContext.getSession(), expected.getTypes(), finishOperator(operator));
+            assertEqualsIgnoreOrder(actual.getMaterializedRows(), expected.getMaterializedRows());
+        }
+    }
+
     @Test(dataProvider = "partial")
     public void testUnPartitioned(boolean partial)
     {
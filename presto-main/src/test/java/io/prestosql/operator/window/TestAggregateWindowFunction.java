@@ -13,16 +13,19 @@
  */
 package io.prestosql.operator.window;
 
+import io.prestosql.spi.PrestoException;
 import io.prestosql.testing.MaterializedResult;
 import org.intellij.lang.annotations.Language;
 import org.testng.annotations.Test;
 
+import static io.airlift.testing.Assertions.assertEqualsIgnoreOrder;
 import static io.prestosql.SessionTestUtils.TEST_SESSION;
 import static io.prestosql.spi.type.BigintType.BIGINT;
 import static io.prestosql.spi.type.DoubleType.DOUBLE;
 import static io.prestosql.spi.type.IntegerType.INTEGER;
 import static io.prestosql.spi.type.VarcharType.VARCHAR;
 import static io.prestosql.testing.MaterializedResult.resultBuilder;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
 
 public class TestAggregateWindowFunction
         extends AbstractTestWindowFunction
@@ -90,6 +93,109 @@ public class TestAggregateWindowFunction
                         .build());
     }
 
+    @Test
+    public void testCountRangeRolling()
+    {
+        assertWindowQuery("count(*) OVER (ORDER BY orderkey RANGE BETWEEN 2 PRECEDING AND 1 FOLLOWING)",
+                resultBuilder(TEST_SESSION, BIGINT, VARCHAR, BIGINT)
+                        .row(1, "O", 2L)
+                        .row(2, "O", 3L)
+                        .row(3, "F", 4L)
+                        .row(4, "O", 4L)
+                        .row(5, "F", 4L)
+                        .row(6, "F", 4L)
+                        .row(7, "O", 3L)
+                        .row(32, "O", 2L)
+                        .row(33, "F", 3L)
+                        .row(34, "O", 3L)
+                        .build());
+
+        assertWindowQuery("sum(orderkey) OVER (PARTITION BY orderstatus ORDER BY orderkey DESC RANGE BETWEEN CURRENT ROW AND 3 FOLLOWING)",
+                resultBuilder(TEST_SESSION, BIGINT, VARCHAR, BIGINT)
+                        .row(33, "F", 33L)
+                        .row(6, "F", 14L)
+                        .row(5, "F", 8L)
+                        .row(3, "F", 3L)
+                        .row(34, "O", 66L)
+                        .row(32, "O", 32L)
+                        .row(7, "O", 11L)
+                        .row(4, "O", 7L)
+                        .row(2, "O", 3L)
+                        .row(1, "O", 1L)
+                        .build());
+
+        assertWindowQuery("count(*) OVER (ORDER BY orderkey RANGE BETWEEN 5 PRECEDING AND 3 PRECEDING)",
+                resultBuilder(TEST_SESSION, BIGINT, VARCHAR, BIGINT)
+                        .row(1, "O", 0L)
+                        .row(2, "O", 0L)
+                        .row(3, "F", 0L)
+                        .row(4, "O", 1L)
+                        .row(5, "F", 2L)
+                        .row(6, "F", 3L)
+                        .row(7, "O", 3L)
+                        .row(32, "O", 0L)
+                        .row(33, "F", 0L)
+                        .row(34, "O", 0L)
+                        .build());
+    }
+
+    @Test
+    public void testRangeOffsetBeyondTypeRange()
+    {
+        // bounds beyond the range of the sort key type are before or after every row
+        MaterializedResult actual = queryRunner.execute("" +
+                "SELECT x, " +
+                "count(*) OVER (ORDER BY x RANGE 10 PRECEDING), " +
+                "count(*) OVER (ORDER BY x RANGE BETWEEN CURRENT ROW AND 10 FOLLOWING), " +
+                "count(*) OVER (ORDER BY x DESC RANGE 10 PRECEDING), " +
+                "count(*) OVER (ORDER BY x RANGE BETWEEN 10 PRECEDING AND 5 PRECEDING) " +
+                "FROM (VALUES BIGINT '-9223372036854775808', BIGINT '-9223372036854775800', BIGINT '0', BIGINT '9223372036854775802', BIGINT '9223372036854775807') t(x)");
+        MaterializedResult expected = resultBuilder(TEST_SESSION, BIGINT, BIGINT, BIGINT, BIGINT, BIGINT)
+                .row(Long.MIN_VALUE, 1L, 2L, 2L, 0L)
+                .row(Long.MIN_VALUE + 8, 2L, 1L, 1L, 1L)
+                .row(0L, 1L, 1L, 1L, 0L)
+                .row(Long.MAX_VALUE - 5, 1L, 2L, 2L, 0L)
+                .row(Long.MAX_VALUE, 2L, 1L, 1L, 1L)
+                .build();
+        assertEqualsIgnoreOrder(actual.getMaterializedRows(), expected.getMaterializedRows());
+
+        actual = queryRunner.execute("" +
+                "SELECT k, count(*) OVER (ORDER BY x RANGE 1 PRECEDING) " +
+                "FROM (VALUES " +
+                "(1, DECIMAL '-99999999999999999999999999999999999999'), " +
+                "(2, DECIMAL '-99999999999999999999999999999999999998'), " +
+                "(3, DECIMAL '0')) t(k, x)");
+        expected = resultBuilder(TEST_SESSION, INTEGER, BIGINT)
+                .row(1, 1L)
+                .row(2, 2L)
+                .row(3, 1L)
+                .build();
+        assertEqualsIgnoreOrder(actual.getMaterializedRows(), expected.getMaterializedRows());
+    }
+
+    @Test
+    public void testInvalidRangeOffset()
+    {
+        assertThatThrownBy(() -> assertWindowQuery("count(*) OVER (ORDER BY orderkey RANGE -1 PRECEDING)", resultBuilder(TEST_SESSION, BIGINT, VARCHAR, BIGINT).build()))
+                .isInstanceOf(PrestoException.class)
+                .hasMessage("Window frame starting offset must not be negative");
+        assertThatThrownBy(() -> assertWindowQuery("count(*) OVER (ORDER BY orderkey RANGE BETWEEN CURRENT ROW AND -1 FOLLOWING)", resultBuilder(TEST_SESSION, BIGINT, VARCHAR, BIGINT).build()))
+                .isInstanceOf(PrestoException.class)
+                .hasMessage("Window frame ending offset must not be negative");
+
+        // a negative offset is not taken for an unbounded one when the bound is beyond the range of the sort key type
+        assertThatThrownBy(() -> queryRunner.execute("SELECT count(*) OVER (ORDER BY x RANGE -10 PRECEDING) FROM (VALUES BIGINT '9223372036854775807') t(x)"))
+                .isInstanceOf(PrestoException.class)
+                .hasMessage("Window frame starting offset must not be negative");
+
+        assertThatThrownBy(() -> assertWindowQuery("count(*) OVER (ORDER BY orderkey RANGE CAST(NULL AS BIGINT) PRECEDING)", resultBuilder(TEST_SESSION, BIGINT, VARCHAR, BIGINT).build()))
+                .isInstanceOf(PrestoException.class)
+                .hasMessage("Window frame starting offset must not be null");
+        assertThatThrownBy(() -> assertWindowQuery("count(*) OVER (ORDER BY orderkey RANGE BETWEEN CURRENT ROW AND CAST(NULL AS BIGINT) FOLLOWING)", resultBuilder(TEST_SESSION, BIGINT, VARCHAR, BIGINT).build()))
+                .isInstanceOf(PrestoException.class)
+                .hasMessage("Window frame ending offset must not be null");
+    }
+
     @Test
     public void testAverageRowsRolling()
     {
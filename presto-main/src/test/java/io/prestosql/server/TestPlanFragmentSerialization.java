@@ -0,0 +1,140 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.prestosql.server;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.google.inject.Injector;
+import com.google.inject.Key;
+import io.airlift.bootstrap.Bootstrap;
+import io.airlift.json.JsonCodec;
+import io.airlift.json.JsonModule;
+import io.prestosql.metadata.HandleJsonModule;
+import io.prestosql.metadata.HandleResolver;
+import io.prestosql.metadata.Metadata;
+import io.prestosql.spi.type.Type;
+import io.prestosql.sql.planner.PlanFragment;
+import io.prestosql.sql.planner.plan.PlanFragmentId;
+import io.prestosql.testing.TestingHandleResolver;
+import io.prestosql.type.TypeDeserializer;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+import java.util.Optional;
+import java.util.OptionalInt;
+
+import static io.airlift.json.JsonBinder.jsonBinder;
+import static io.airlift.json.JsonCodecBinder.jsonCodecBinder;
+import static io.prestosql.SessionTestUtils.TEST_SESSION;
+import static io.prestosql.execution.TaskTestUtils.PLAN_FRAGMENT;
+import static io.prestosql.execution.buffer.OutputBuffers.BufferType.BROADCAST;
+import static io.prestosql.execution.buffer.OutputBuffers.createInitialEmptyOutputBuffers;
+import static io.prestosql.metadata.MetadataManager.createTestMetadataManager;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertNotEquals;
+
+public class TestPlanFragmentSerialization
+{
+    private JsonCodec<TaskUpdateRequest> taskUpdateRequestCodec;
+    private JsonCodec<PlanFragment> planFragmentCodec;
+
+    @BeforeClass
+    public void setUp()
+    {
+        Bootstrap app = new Bootstrap(
+                new JsonModule(),
+                new HandleJsonModule(),
+                binder -> {
+                    binder.bind(Metadata.class).toInstance(createTestMetadataManager());
+                    jsonBinder(binder).addDeserializerBinding(Type.class).to(TypeDeserializer.class);
+                    jsonCodecBinder(binder).bindJsonCodec(TaskUpdateRequest.class);
+                    jsonCodecBinder(binder).bindJsonCodec(PlanFragment.class);
+                });
+        Injector injector = app
+                .strictConfig()
+                .doNotInitializeLogging()
+                .quiet()
+                .initialize();
+        injector.getInstance(HandleResolver.class).addCatalogHandleResolver("test", new TestingHandleResolver());
+        taskUpdateRequestCodec = injector.getInstance(new Key<JsonCodec<TaskUpdateRequest>>() {});
+        planFragmentCodec = injector.getInstance(new Key<JsonCodec<PlanFragment>>() {});
+    }
+
+    @Test
+    public void testRoundTrip()
+    {
+        TaskUpdateRequest request = createTaskUpdateRequest(PLAN_FRAGMENT);
+
+        // the second request is written from the cached fragment JSON
+        byte[] json = taskUpdateRequestCodec.toJsonBytes(request);
+        assertEquals(taskUpdateRequestCodec.toJsonBytes(request), json);
+
+        PlanFragment fragment = taskUpdateRequestCodec.fromJson(json).getFragment().get();
+        assertEquals(fragment.getId(), PLAN_FRAGMENT.getId());
+        assertEquals(fragment.getRoot().getId(), PLAN_FRAGMENT.getRoot().getId());
+        assertEquals(fragment.getSymbols(), PLAN_FRAGMENT.getSymbols());
+        assertEquals(fragment.getPartitioning(), PLAN_FRAGMENT.getPartitioning());
+        assertEquals(fragment.getPartitionedSources(), PLAN_FRAGMENT.getPartitionedSources());
+        assertEquals(fragment.getPartitioningScheme(), PLAN_FRAGMENT.getPartitioningScheme());
+        // the spliced JSON is the same as the JSON the fragment encodes to on its own
+        assertEquals(planFragmentCodec.toJson(fragment), planFragmentCodec.toJson(PLAN_FRAGMENT));
+    }
+
+    @Test
+    public void testFragmentsAreCachedSeparately()
+    {
+        PlanFragment otherFragment = new PlanFragment(
+                new PlanFragmentId("other"),
+                PLAN_FRAGMENT.getRoot(),
+                PLAN_FRAGMENT.getSymbols(),
+                PLAN_FRAGMENT.getPartitioning(),
+                PLAN_FRAGMENT.getPartitionedSources(),
+                PLAN_FRAGMENT.getPartitioningScheme(),
+                PLAN_FRAGMENT.getStageExecutionDescriptor(),
+                PLAN_FRAGMENT.getStatsAndCosts(),
+                PLAN_FRAGMENT.getJsonRepresentation());
+
+        String json = taskUpdateRequestCodec.toJson(createTaskUpdateRequest(PLAN_FRAGMENT));
+        String otherJson = taskUpdateRequestCodec.toJson(createTaskUpdateRequest(otherFragment));
+        assertNotEquals(otherJson, json);
+        assertEquals(taskUpdateRequestCodec.fromJson(json).getFragment().get().getId(), PLAN_FRAGMENT.getId());
+        assertEquals(taskUpdateRequestCodec.fromJson(otherJson).getFragment().get().getId(), otherFragment.getId());
+    }
+
+    @Test
+    public void testWithoutFragment()
+    {
+        TaskUpdateRequest request = new TaskUpdateRequest(
+                TEST_SESSION.toSessionRepresentation(),
+                ImmutableMap.of(),
+                Optional.empty(),
+                ImmutableList.of(),
+                createInitialEmptyOutputBuffers(BROADCAST),
+                OptionalInt.empty(),
+                ImmutableMap.of());
+        assertEquals(taskUpdateRequestCodec.fromJson(taskUpdateRequestCodec.toJson(request)).getFragment(), Optional.empty());
+    }
+
+    private static TaskUpdateRequest createTaskUpdateRequest(PlanFragment fragment)
+    {
+        return new TaskUpdateRequest(
+                TEST_SESSION.toSessionRepresentation(),
+                ImmutableMap.of(),
+                Optional.of(fragment),
+                ImmutableList.of(),
+                createInitialEmptyOutputBuffers(BROADCAST),
+                OptionalInt.empty(),
+                ImmutableMap.of());
+    }
+}
@@ -0,0 +1,181 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.prestosql.server;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.google.inject.Key;
+import io.airlift.http.client.HttpClient;
+import io.airlift.http.client.jetty.JettyHttpClient;
+import io.airlift.json.JsonCodec;
+import io.prestosql.client.QueryResults;
+import io.prestosql.execution.QueryResultCache;
+import io.prestosql.plugin.tpch.TpchPlugin;
+import io.prestosql.server.testing.TestingPrestoServer;
+import org.intellij.lang.annotations.Language;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+import java.net.URI;
+import java.util.List;
+
+import static io.airlift.http.client.HttpUriBuilder.uriBuilderFrom;
+import static io.airlift.http.client.JsonResponseHandler.createJsonResponseHandler;
+import static io.airlift.http.client.Request.Builder.prepareDelete;
+import static io.airlift.http.client.Request.Builder.prepareGet;
+import static io.airlift.http.client.Request.Builder.preparePost;
+import static io.airlift.http.client.StaticBodyGenerator.createStaticBodyGenerator;
+import static io.airlift.http.client.StatusResponseHandler.createStatusResponseHandler;
+import static io.airlift.json.JsonCodec.jsonCodec;
+import static io.airlift.testing.Closeables.closeQuietly;
+import static io.prestosql.SystemSessionProperties.QUERY_RESULT_CACHE_ENABLED;
+import static io.prestosql.client.PrestoHeaders.PRESTO_SESSION;
+import static io.prestosql.client.PrestoHeaders.PRESTO_USER;
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertNotNull;
+import static org.testng.Assert.assertNull;
+
+@Test(singleThreaded = true)
+public class TestQueryResultCacheProtocol
+{
+    private static final JsonCodec<QueryResults> QUERY_RESULTS_CODEC = jsonCodec(QueryResults.class);
+
+    private TestingPrestoServer server;
+    private HttpClient client;
+    private QueryResultCache queryResultCache;
+
+    @BeforeClass
+    public void setup()
+    {
+        server = TestingPrestoServer.builder()
+                .setProperties(ImmutableMap.of("query-result-cache.enabled", "true"))
+                .build();
+        server.installPlugin(new TpchPlugin());
+        server.createCatalog("tpch", "tpch");
+        client = new JettyHttpClient();
+        queryResultCache = server.getInstance(Key.get(QueryResultCache.class));
+    }
+
+    @AfterClass(alwaysRun = true)
+    public void tearDown()
+    {
+        closeQuietly(server, client);
+    }
+
+    @Test
+    public void testHitAndMiss()
+    {
+        @Language("SQL") String sql = "SELECT name FROM tpch.tiny.nation WHERE regionkey = 1";
+        long hits = queryResultCache.getHits().getTotalCount();
+        long misses = queryResultCache.getMisses().getTotalCount();
+
+        List<List<Object>> missRows = execute(sql);
+        assertEquals(queryResultCache.getHits().getTotalCount(), hits);
+        assertEquals(queryResultCache.getMisses().getTotalCount(), misses + 1);
+        assertEquals(missRows.size(), 5);
+
+        List<List<Object>> hitRows = execute(sql);
+        assertEquals(queryResultCache.getHits().getTotalCount(), hits + 1);
+        assertEquals(queryResultCache.getMisses().getTotalCount(), misses + 1);
+        assertEquals(hitRows, missRows);
+    }
+
+    @Test
+    public void testPartialCancelNotCached()
+    {
+        @Language("SQL") String sql = "SELECT * FROM tpch.tiny.orders";
+        long entries = queryResultCache.getEntries();
+
+        // the query finishes with incomplete results once its leaf stage is canceled
+        QueryResults results = readFirstData(startQuery(sql));
+        assertNotNull(results.getPartialCancelUri());
+        client.execute(prepareDelete().setUri(results.getPartialCancelUri()).build(), createStatusResponseHandler());
+        while (results.getNextUri() != null) {
+            results = getNextResults(results);
+        }
+        assertEquals(queryResultCache.getEntries(), entries);
+
+        // the complete results are cached
+        long misses = queryResultCache.getMisses().getTotalCount();
+        assertEquals(execute(sql).size(), 15000);
+        assertEquals(queryResultCache.getMisses().getTotalCount(), misses + 1);
+        assertEquals(queryResultCache.getEntries(), entries + 1);
+    }
+
+    @Test
+    public void testAbandonedQueryNotCached()
+    {
+        @Language("SQL") String sql = "SELECT * FROM tpch.tiny.customer";
+        long entries = queryResultCache.getEntries();
+
+        QueryResults results = readFirstData(startQuery(sql));
+        assertNotNull(results.getNextUri());
+        client.execute(prepareDelete().setUri(results.getNextUri()).build(), createStatusResponseHandler());
+        assertEquals(queryResultCache.getEntries(), entries);
+
+        long misses = queryResultCache.getMisses().getTotalCount();
+        assertEquals(execute(sql).size(), 1500);
+        assertEquals(queryResultCache.getMisses().getTotalCount(), misses + 1);
+        assertEquals(queryResultCache.getEntries(), entries + 1);
+    }
+
+    private List<List<Object>> execute(@Language("SQL") String sql)
+    {
+        ImmutableList.Builder<List<Object>> rows = ImmutableList.builder();
+        QueryResults results = startQuery(sql);
+        while (true) {
+            assertNull(results.getError());
+            if (results.getData() != null) {
+                rows.addAll(results.getData());
+            }
+            if (results.getNextUri() == null) {
+                return rows.build();
+            }
+            results = getNextResults(results);
+        }
+    }
+
+    private QueryResults readFirstData(QueryResults results)
+    {
+        while (results.getData() == null) {
+            assertNull(results.getError());
+            assertNotNull(results.getNextUri());
+            results = getNextResults(results);
+        }
+        return results;
+    }
+
+    private QueryResults startQuery(@Language("SQL") String sql)
+    {
+        return client.execute(
+                preparePost()
+                        .setUri(uriBuilderFrom(server.getBaseUrl()).replacePath("/v1/statement").build())
+                        .setBodyGenerator(createStaticBodyGenerator(sql, UTF_8))
+                        .setHeader(PRESTO_USER, "user")
+                        .setHeader(PRESTO_SESSION, QUERY_RESULT_CACHE_ENABLED + "=true")
+                        .build(),
+                createJsonResponseHandler(QUERY_RESULTS_CODEC));
+    }
+
+    private QueryResults getNextResults(QueryResults results)
+    {
+        // small responses, so that the results of a query span many of them
+        URI nextUri = uriBuilderFrom(results.getNextUri())
+                .addParameter("targetResultSize", "1kB")
+                .build();
+        return client.execute(prepareGet().setUri(nextUri).build(), createJsonResponseHandler(QUERY_RESULTS_CODEC));
+    }
+}
@@ -0,0 +1,101 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.prestosql.server.remotetask;
+
+import com.google.common.collect.ImmutableListMultimap;
+import io.airlift.http.client.HttpStatus;
+import io.airlift.http.client.Request;
+import io.airlift.http.client.Response;
+import io.airlift.http.client.ResponseHandler;
+import io.airlift.http.client.testing.TestingResponse;
+import org.testng.annotations.Test;
+
+import java.net.URI;
+
+import static io.airlift.http.client.Request.Builder.prepareGet;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertSame;
+import static org.testng.Assert.fail;
+
+public class TestCpuTimeMeasuringResponseHandler
+{
+    private static final Request REQUEST = prepareGet().setUri(URI.create("http://fake.invalid/")).build();
+
+    @Test
+    public void testHandle()
+    {
+        RemoteTaskStats stats = new RemoteTaskStats();
+        ResponseHandler<String, RuntimeException> handler = new CpuTimeMeasuringResponseHandler<>(new TestingResponseHandler(), stats);
+
+        assertEquals(handler.handle(REQUEST, new TestingResponse(HttpStatus.OK, ImmutableListMultimap.of(), new byte[0])), "handled");
+        assertEquals(stats.getResponseDecodingCpuTime().getAllTime().getCount(), 1.0);
+
+        assertEquals(handler.handle(REQUEST, new TestingResponse(HttpStatus.OK, ImmutableListMultimap.of(), new byte[0])), "handled");
+        assertEquals(stats.getResponseDecodingCpuTime().getAllTime().getCount(), 2.0);
+    }
+
+    @Test
+    public void testHandleFailure()
+    {
+        RemoteTaskStats stats = new RemoteTaskStats();
+        ResponseHandler<String, RuntimeException> handler = new CpuTimeMeasuringResponseHandler<>(new TestingResponseHandler(), stats);
+
+        try {
+            handler.handle(REQUEST, new TestingResponse(HttpStatus.INTERNAL_SERVER_ERROR, ImmutableListMultimap.of(), new byte[0]));
+            fail("expected exception");
+        }
+        catch (IllegalStateException e) {
+            assertEquals(e.getMessage(), "unexpected status");
+        }
+        // the time spent in a failing handler is recorded as well
+        assertEquals(stats.getResponseDecodingCpuTime().getAllTime().getCount(), 1.0);
+    }
+
+    @Test
+    public void testHandleException()
+    {
+        RemoteTaskStats stats = new RemoteTaskStats();
+        ResponseHandler<String, RuntimeException> handler = new CpuTimeMeasuringResponseHandler<>(new TestingResponseHandler(), stats);
+
+        RuntimeException exception = new RuntimeException("connection failed");
+        try {
+            handler.handleException(REQUEST, exception);
+            fail("expected exception");
+        }
+        catch (RuntimeException e) {
+            assertSame(e, exception);
+        }
+        // no response was decoded
+        assertEquals(stats.getResponseDecodingCpuTime().getAllTime().getCount(), 0.0);
+    }
+
+    private static class TestingResponseHandler
+            implements ResponseHandler<String, RuntimeException>
+    {
+        @Override
+        public String handleException(Request request, Exception exception)
+        {
+            throw (RuntimeException) exception;
+        }
+
+        @Override
+        public String handle(Request request, Response response)
+        {
+            if (response.getStatusCode() != HttpStatus.OK.code()) {
+                throw new IllegalStateException("unexpected status");
+            }
+            return "handled";
+        }
+    }
+}
@@ -13,6 +13,7 @@
  */
 package io.prestosql.server.remotetask;
 
+import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.ImmutableMultimap;
 import com.google.common.collect.ImmutableSet;
 import com.google.inject.Binder;
@@ -40,6 +41,7 @@ import io.prestosql.execution.TaskState;
 import io.prestosql.execution.TaskStatus;
 import io.prestosql.execution.TaskTestUtils;
 import io.prestosql.execution.TestSqlTaskManager;
+import io.prestosql.execution.VersionedDynamicFilterDomains;
 import io.prestosql.execution.buffer.OutputBuffers;
 import io.prestosql.metadata.HandleJsonModule;
 import io.prestosql.metadata.HandleResolver;
@@ -49,6 +51,7 @@ import io.prestosql.metadata.Split;
 import io.prestosql.server.HttpRemoteTaskFactory;
 import io.prestosql.server.TaskUpdateRequest;
 import io.prestosql.spi.ErrorCode;
+import io.prestosql.spi.predicate.Domain;
 import io.prestosql.spi.type.Type;
 import io.prestosql.sql.planner.plan.PlanNodeId;
 import io.prestosql.testing.TestingHandleResolver;
@@ -90,6 +93,7 @@ import static io.prestosql.execution.buffer.OutputBuffers.createInitialEmptyOutp
 import static io.prestosql.metadata.MetadataManager.createTestMetadataManager;
 import static io.prestosql.spi.StandardErrorCode.REMOTE_TASK_ERROR;
 import static io.prestosql.spi.StandardErrorCode.REMOTE_TASK_MISMATCH;
+import static io.prestosql.spi.type.BigintType.BIGINT;
 import static io.prestosql.testing.assertions.Assert.assertEquals;
 import static java.lang.Math.min;
 import static java.lang.String.format;
@@ -158,6 +162,10 @@ public class TestHttpRemoteTask
         remoteTask.noMoreSplits(TABLE_SCAN_NODE_ID);
         poll(() -> testingTaskResource.getTaskSource(TABLE_SCAN_NODE_ID).isNoMoreSplits());
 
+        Map<String, Domain> dynamicFilterDomains = ImmutableMap.of("filter", Domain.none(BIGINT));
+        remoteTask.addRemoteDynamicFilterDomains(dynamicFilterDomains);
+        poll(() -> testingTaskResource.getRemoteDynamicFilterDomains().equals(dynamicFilterDomains));
+
         remoteTask.cancel();
         poll(() -> remoteTask.getTaskStatus().getState().isDone());
         poll(() -> remoteTask.getTaskInfo().getTaskStatus().getState().isDone());
@@ -226,6 +234,7 @@ public class TestHttpRemoteTask
                         binder.bind(Metadata.class).toInstance(createTestMetadataManager());
                         jsonBinder(binder).addDeserializerBinding(Type.class).to(TypeDeserializer.class);
                         jsonCodecBinder(binder).bindJsonCodec(TaskStatus.class);
+                        jsonCodecBinder(binder).bindJsonCodec(VersionedDynamicFilterDomains.class);
                         jsonCodecBinder(binder).bindJsonCodec(TaskInfo.class);
                         jsonCodecBinder(binder).bindJsonCodec(TaskUpdateRequest.class);
                     }
@@ -234,6 +243,7 @@ public class TestHttpRemoteTask
                     private HttpRemoteTaskFactory createHttpRemoteTaskFactory(
                             JsonMapper jsonMapper,
                             JsonCodec<TaskStatus> taskStatusCodec,
+                            JsonCodec<VersionedDynamicFilterDomains> dynamicFilterDomainsCodec,
                             JsonCodec<TaskInfo> taskInfoCodec,
                             JsonCodec<TaskUpdateRequest> taskUpdateRequestCodec)
                     {
@@ -246,6 +256,7 @@ public class TestHttpRemoteTask
                                 testingHttpClient,
                                 new TestSqlTaskManager.MockLocationFactory(),
                                 taskStatusCodec,
+                                dynamicFilterDomainsCodec,
                                 taskInfoCodec,
                                 taskUpdateRequestCodec,
                                 new RemoteTaskStats());
@@ -347,6 +358,7 @@ public class TestHttpRemoteTask
         }
 
         Map<PlanNodeId, TaskSource> taskSourceMap = new HashMap<>();
+        Map<String, Domain> remoteDynamicFilterDomains = new HashMap<>();
 
         @POST
         @Path("{taskId}")
@@ -360,6 +372,7 @@ public class TestHttpRemoteTask
             for (TaskSource source : taskUpdateRequest.getSources()) {
                 taskSourceMap.compute(source.getPlanNodeId(), (planNodeId, taskSource) -> taskSource == null ? source : taskSource.update(source));
             }
+            remoteDynamicFilterDomains.putAll(taskUpdateRequest.getDynamicFilterDomains());
             lastActivityNanos.set(System.nanoTime());
             return buildTaskInfo();
         }
@@ -373,6 +386,11 @@ public class TestHttpRemoteTask
             return new TaskSource(source.getPlanNodeId(), source.getSplits(), source.getNoMoreSplitsForLifespan(), source.isNoMoreSplits());
         }
 
+        public synchronized Map<String, Domain> getRemoteDynamicFilterDomains()
+        {
+            return ImmutableMap.copyOf(remoteDynamicFilterDomains);
+        }
+
         @GET
         @Path("{taskId}/status")
         @Produces(MediaType.APPLICATION_JSON)
@@ -472,11 +490,13 @@ public class TestHttpRemoteTask
                     initialTaskStatus.getRunningPartitionedDrivers(),
                     initialTaskStatus.isOutputBufferOverutilized(),
                     initialTaskStatus.getPhysicalWrittenDataSize(),
+                    initialTaskStatus.getOutputDataSize(),
                     initialTaskStatus.getMemoryReservation(),
                     initialTaskStatus.getSystemMemoryReservation(),
                     initialTaskStatus.getRevocableMemoryReservation(),
                     initialTaskStatus.getFullGcCount(),
-                    initialTaskStatus.getFullGcTime());
+                    initialTaskStatus.getFullGcTime(),
+                    initialTaskStatus.getDynamicFiltersVersion());
         }
     }
 }
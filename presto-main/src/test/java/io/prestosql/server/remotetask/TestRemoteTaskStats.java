@@ -0,0 +1,61 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.prestosql.server.remotetask;
+
+import org.testng.annotations.Test;
+
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static org.testng.Assert.assertEquals;
+
+public class TestRemoteTaskStats
+{
+    @Test
+    public void testUpdateRequest()
+    {
+        RemoteTaskStats stats = new RemoteTaskStats();
+        stats.updateRequest(1000, MILLISECONDS.toNanos(3));
+        stats.updateRequest(3000, MILLISECONDS.toNanos(5));
+
+        assertEquals(stats.getUpdateRequestBytes().getAllTime().getCount(), 2.0);
+        assertEquals(stats.getUpdateRequestBytes().getAllTime().getTotal(), 4000.0);
+        assertEquals(stats.getUpdateRequestBytes().getAllTime().getMax(), 3000.0);
+        assertEquals(stats.getUpdateEncodingCpuTime().getAllTime().getCount(), 2.0);
+        assertEquals(stats.getResponseDecodingCpuTime().getAllTime().getCount(), 0.0);
+    }
+
+    @Test
+    public void testResponseDecodingCpuTime()
+    {
+        RemoteTaskStats stats = new RemoteTaskStats();
+        stats.responseDecodingCpuNanos(MILLISECONDS.toNanos(2));
+
+        assertEquals(stats.getResponseDecodingCpuTime().getAllTime().getCount(), 1.0);
+        assertEquals(stats.getUpdateEncodingCpuTime().getAllTime().getCount(), 0.0);
+    }
+
+    @Test
+    public void testRequestCounters()
+    {
+        RemoteTaskStats stats = new RemoteTaskStats();
+        stats.updateSuccess();
+        stats.updateSuccess();
+        stats.updateFailure();
+        stats.updateWithPlanBytes(500);
+
+        assertEquals(stats.getRequestSuccess(), 2);
+        assertEquals(stats.getRequestFailure(), 1);
+        assertEquals(stats.getUpdateWithPlanBytes().getAllTime().getCount(), 1.0);
+        assertEquals(stats.getUpdateWithPlanBytes().getAllTime().getTotal(), 500.0);
+    }
+}
@@ -31,6 +31,7 @@ import org.testng.annotations.Test;
 
 import java.io.File;
 import java.io.InputStream;
+import java.util.ArrayList;
 import java.util.Iterator;
 import java.util.List;
 
@@ -38,6 +39,9 @@ import static com.google.common.io.MoreFiles.deleteRecursively;
 import static com.google.common.io.MoreFiles.listFiles;
 import static com.google.common.io.RecursiveDeleteOption.ALLOW_INSECURE;
 import static com.google.common.util.concurrent.MoreExecutors.listeningDecorator;
+import static com.google.common.util.concurrent.MoreExecutors.newDirectExecutorService;
+import static io.airlift.testing.Assertions.assertGreaterThan;
+import static io.airlift.slice.Slices.utf8Slice;
 import static io.prestosql.memory.context.AggregatedMemoryContext.newSimpleAggregatedMemoryContext;
 import static io.prestosql.metadata.MetadataManager.createTestMetadataManager;
 import static io.prestosql.spi.type.BigintType.BIGINT;
@@ -47,6 +51,7 @@ import static java.lang.Double.doubleToLongBits;
 import static java.nio.file.Files.newInputStream;
 import static java.util.concurrent.Executors.newCachedThreadPool;
 import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
 import static org.testng.Assert.assertTrue;
 
 @Test(singleThreaded = true)
@@ -93,6 +98,109 @@ public class TestFileSingleStreamSpiller
         assertSpill(true, true);
     }
 
+    @Test
+    public void testReadPagesWithEncryptionAndCompression()
+            throws Exception
+    {
+        FileSingleStreamSpillerFactory spillerFactory = new FileSingleStreamSpillerFactory(
+                executor, // executor won't be closed, because we don't call destroy() on the spiller factory
+                createTestMetadataManager().getBlockEncodingSerde(),
+                new SpillerStats(),
+                ImmutableList.of(spillPath.toPath()),
+                1.0,
+                true,
+                true);
+        LocalMemoryContext memoryContext = newSimpleAggregatedMemoryContext().newLocalMemoryContext("test");
+
+        // compressible pages, so that the spill file holds compressed and encrypted pages
+        List<Page> pages = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            pages.add(buildCompressiblePage(i));
+        }
+
+        try (SingleStreamSpiller spiller = spillerFactory.create(TYPES, bytes -> {}, memoryContext)) {
+            spiller.spill(pages.iterator()).get();
+
+            try (InputStream is = newInputStream(listFiles(spillPath.toPath()).get(0))) {
+                byte markers = PagesSerdeUtil.readSerializedPages(new InputStreamSliceInput(is)).next().getPageCodecMarkers();
+                assertTrue(PageCodecMarker.COMPRESSED.isSet(markers));
+                assertTrue(PageCodecMarker.ENCRYPTED.isSet(markers));
+            }
+
+            List<Page> allSpilledPages = spiller.getAllSpilledPages().get();
+            assertEquals(allSpilledPages.size(), pages.size());
+            for (int i = 0; i < pages.size(); i++) {
+                PageAssertions.assertPageEquals(TYPES, allSpilledPages.get(i), pages.get(i));
+            }
+        }
+        assertEquals(listFiles(spillPath.toPath()).size(), 0);
+        assertEquals(memoryContext.getBytes(), 0);
+    }
+
+    @Test
+    public void testRetainedSizeOfSpilledPages()
+            throws Exception
+    {
+        FileSingleStreamSpillerFactory spillerFactory = new FileSingleStreamSpillerFactory(
+                executor, // executor won't be closed, because we don't call destroy() on the spiller factory
+                createTestMetadataManager().getBlockEncodingSerde(),
+                new SpillerStats(),
+                ImmutableList.of(spillPath.toPath()),
+                1.0,
+                false,
+                false);
+        LocalMemoryContext memoryContext = newSimpleAggregatedMemoryContext().newLocalMemoryContext("test");
+
+        List<Page> pages = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            pages.add(buildCompressiblePage(i));
+        }
+
+        try (SingleStreamSpiller spiller = spillerFactory.create(TYPES, bytes -> {}, memoryContext)) {
+            spiller.spill(pages.iterator()).get();
+
+            List<Page> allSpilledPages = spiller.getAllSpilledPages().get();
+            assertEquals(allSpilledPages.size(), pages.size());
+            for (int i = 0; i < pages.size(); i++) {
+                // the blocks of a page read back must not retain the buffer of other pages
+                assertTrue(allSpilledPages.get(i).getRetainedSizeInBytes() < 3 * pages.get(i).getSizeInBytes());
+                PageAssertions.assertPageEquals(TYPES, allSpilledPages.get(i), pages.get(i));
+            }
+        }
+    }
+
+    @Test
+    public void testPrefetchedPageIsAccounted()
+            throws Exception
+    {
+        // the prefetch runs in the calling thread, so it is complete when the current page is returned
+        FileSingleStreamSpillerFactory spillerFactory = new FileSingleStreamSpillerFactory(
+                newDirectExecutorService(),
+                createTestMetadataManager().getBlockEncodingSerde(),
+                new SpillerStats(),
+                ImmutableList.of(spillPath.toPath()),
+                1.0,
+                false,
+                false);
+        LocalMemoryContext memoryContext = newSimpleAggregatedMemoryContext().newLocalMemoryContext("test");
+
+        List<Page> pages = ImmutableList.of(buildCompressiblePage(0), buildCompressiblePage(1));
+        try (SingleStreamSpiller spiller = spillerFactory.create(TYPES, bytes -> {}, memoryContext)) {
+            spiller.spill(pages.iterator()).get();
+
+            Iterator<Page> spilledPages = spiller.getSpilledPages();
+            assertEquals(memoryContext.getBytes(), FileSingleStreamSpiller.BUFFER_SIZE);
+            PageAssertions.assertPageEquals(TYPES, spilledPages.next(), pages.get(0));
+            // the second page is held by the spiller until it is returned
+            assertGreaterThan(memoryContext.getBytes(), FileSingleStreamSpiller.BUFFER_SIZE + pages.get(1).getSizeInBytes() / 2);
+            PageAssertions.assertPageEquals(TYPES, spilledPages.next(), pages.get(1));
+            assertEquals(memoryContext.getBytes(), FileSingleStreamSpiller.BUFFER_SIZE);
+            assertFalse(spilledPages.hasNext());
+            assertEquals(memoryContext.getBytes(), FileSingleStreamSpiller.BUFFER_SIZE);
+        }
+        assertEquals(memoryContext.getBytes(), 0);
+    }
+
     private void assertSpill(boolean compression, boolean encryption)
             throws Exception
     {
@@ -159,4 +267,19 @@ public class TestFileSingleStreamSpiller
 
         return new Page(col1.build(), col2.build(), col3.build());
     }
+
+    private Page buildCompressiblePage(int seed)
+    {
+        BlockBuilder col1 = BIGINT.createBlockBuilder(null, 1000);
+        BlockBuilder col2 = DOUBLE.createBlockBuilder(null, 1000);
+        BlockBuilder col3 = VARBINARY.createBlockBuilder(null, 1000);
+
+        for (int position = 0; position < 1000; position++) {
+            BIGINT.writeLong(col1, seed);
+            DOUBLE.writeDouble(col2, position % 10);
+            VARBINARY.writeSlice(col3, utf8Slice("spilled value " + (position % 10)));
+        }
+
+        return new Page(col1.build(), col2.build(), col3.build());
+    }
 }
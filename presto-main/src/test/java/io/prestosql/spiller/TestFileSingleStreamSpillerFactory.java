@@ -40,12 +40,14 @@ import static com.google.common.io.RecursiveDeleteOption.ALLOW_INSECURE;
 import static com.google.common.util.concurrent.Futures.getUnchecked;
 import static io.prestosql.memory.context.AggregatedMemoryContext.newSimpleAggregatedMemoryContext;
 import static io.prestosql.metadata.MetadataManager.createTestMetadataManager;
+import static io.prestosql.operator.PageAssertions.assertPageEquals;
 import static io.prestosql.spi.type.BigintType.BIGINT;
 import static io.prestosql.spiller.FileSingleStreamSpillerFactory.SPILL_FILE_PREFIX;
 import static io.prestosql.spiller.FileSingleStreamSpillerFactory.SPILL_FILE_SUFFIX;
 import static java.nio.file.Files.setPosixFilePermissions;
 import static java.util.Collections.emptyList;
 import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertTrue;
 
 @Test(singleThreaded = true)
 public class TestFileSingleStreamSpillerFactory
@@ -147,10 +149,87 @@ public class TestFileSingleStreamSpillerFactory
         assertEquals(listFiles(spillPath2.toPath()).size(), 0);
     }
 
+    @Test
+    public void testAvoidsBusySpillPath()
+    {
+        List<Type> types = ImmutableList.of(BIGINT);
+        List<Path> spillPaths = ImmutableList.of(spillPath1.toPath(), spillPath2.toPath());
+        SpillerStats spillerStats = new SpillerStats();
+        FileSingleStreamSpillerFactory spillerFactory = new FileSingleStreamSpillerFactory(
+                executor, // executor won't be closed, because we don't call destroy() on the spiller factory
+                blockEncodingSerde,
+                spillerStats,
+                spillPaths,
+                1.0,
+                false,
+                false);
+
+        // emulate a long running spill on the first path
+        spillerStats.getSpillPathStats(spillPath1.toPath()).writeStarted();
+
+        Page page = buildPage();
+        List<SingleStreamSpiller> spillers = new ArrayList<>();
+        for (int i = 0; i < 10; ++i) {
+            SingleStreamSpiller singleStreamSpiller = spillerFactory.create(types, bytes -> {}, newSimpleAggregatedMemoryContext().newLocalMemoryContext("test"));
+            getUnchecked(singleStreamSpiller.spill(page));
+            spillers.add(singleStreamSpiller);
+        }
+        assertEquals(listFiles(spillPath1.toPath()).size(), 0);
+        assertEquals(listFiles(spillPath2.toPath()).size(), 10);
+        assertEquals(spillerStats.getSpillPathStats(spillPath2.toPath()).getActiveWrites(), 0);
+        assertEquals(spillerStats.getSpillPathStats(spillPath2.toPath()).getOutstandingBytes(), 0);
+        assertTrue(spillerStats.getSpillPathStats(spillPath2.toPath()).getWrittenBytes().getTotalCount() > 0);
+
+        spillers.forEach(SingleStreamSpiller::close);
+        assertEquals(listFiles(spillPath2.toPath()).size(), 0);
+    }
+
+    @Test
+    public void testStripesSpillOverPaths()
+    {
+        List<Type> types = ImmutableList.of(BIGINT);
+        List<Path> spillPaths = ImmutableList.of(spillPath1.toPath(), spillPath2.toPath());
+        FileSingleStreamSpillerFactory spillerFactory = new FileSingleStreamSpillerFactory(
+                executor, // executor won't be closed, because we don't call destroy() on the spiller factory
+                blockEncodingSerde,
+                new SpillerStats(),
+                spillPaths,
+                1.0,
+                false,
+                false,
+                2);
+
+        SingleStreamSpiller spiller = spillerFactory.create(types, bytes -> {}, newSimpleAggregatedMemoryContext().newLocalMemoryContext("test"));
+        assertEquals(listFiles(spillPath1.toPath()).size(), 1);
+        assertEquals(listFiles(spillPath2.toPath()).size(), 1);
+
+        List<Page> pages = new ArrayList<>();
+        for (int i = 0; i < 5; ++i) {
+            pages.add(buildPage(i));
+        }
+        getUnchecked(spiller.spill(pages.subList(0, 3).iterator()));
+        getUnchecked(spiller.spill(pages.subList(3, 5).iterator()));
+
+        List<Page> spilledPages = ImmutableList.copyOf(spiller.getSpilledPages());
+        assertEquals(spilledPages.size(), pages.size());
+        for (int i = 0; i < pages.size(); ++i) {
+            assertPageEquals(types, spilledPages.get(i), pages.get(i));
+        }
+
+        spiller.close();
+        assertEquals(listFiles(spillPath1.toPath()).size(), 0);
+        assertEquals(listFiles(spillPath2.toPath()).size(), 0);
+    }
+
     private Page buildPage()
+    {
+        return buildPage(42);
+    }
+
+    private Page buildPage(long value)
     {
         BlockBuilder col1 = BIGINT.createBlockBuilder(null, 1);
-        col1.writeLong(42).closeEntry();
+        col1.writeLong(value).closeEntry();
         return new Page(col1.build());
     }
 
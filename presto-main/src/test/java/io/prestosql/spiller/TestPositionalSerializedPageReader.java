@@ -0,0 +1,141 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.prestosql.spiller;
+
+import com.google.common.collect.ImmutableList;
+import io.airlift.slice.OutputStreamSliceOutput;
+import io.airlift.slice.SliceOutput;
+import io.airlift.slice.Slices;
+import io.prestosql.execution.buffer.PageCodecMarker;
+import io.prestosql.execution.buffer.SerializedPage;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static io.prestosql.execution.buffer.PagesSerdeUtil.SERIALIZED_PAGE_HEADER_SIZE;
+import static io.prestosql.execution.buffer.PagesSerdeUtil.writeSerializedPage;
+import static java.nio.file.StandardOpenOption.READ;
+import static java.nio.file.StandardOpenOption.WRITE;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
+
+@Test(singleThreaded = true)
+public class TestPositionalSerializedPageReader
+{
+    private Path file;
+
+    @BeforeMethod
+    public void setUp()
+            throws IOException
+    {
+        file = Files.createTempFile("spill", ".bin");
+    }
+
+    @AfterMethod(alwaysRun = true)
+    public void tearDown()
+            throws IOException
+    {
+        Files.deleteIfExists(file);
+    }
+
+    @Test
+    public void testEmptyFile()
+            throws IOException
+    {
+        try (FileChannel channel = FileChannel.open(file, READ)) {
+            assertFalse(new PositionalSerializedPageReader(channel).hasNext());
+        }
+    }
+
+    @Test
+    public void testReadPages()
+            throws IOException
+    {
+        // empty pages, pages smaller than a page header and pages ending at the end of the file
+        List<SerializedPage> pages = ImmutableList.of(
+                createPage(10),
+                createPage(30),
+                createPage(0),
+                createPage(200),
+                createPage(5),
+                createPage(SERIALIZED_PAGE_HEADER_SIZE),
+                createPage(1));
+        writePages(pages);
+
+        try (FileChannel channel = FileChannel.open(file, READ)) {
+            List<SerializedPage> actual = ImmutableList.copyOf(new PositionalSerializedPageReader(channel));
+            assertEquals(actual.size(), pages.size());
+            for (int i = 0; i < pages.size(); i++) {
+                assertEquals(actual.get(i).getPositionCount(), pages.get(i).getPositionCount());
+                assertEquals(actual.get(i).getUncompressedSizeInBytes(), pages.get(i).getUncompressedSizeInBytes());
+                assertEquals(actual.get(i).getSlice(), pages.get(i).getSlice());
+            }
+        }
+    }
+
+    @Test
+    public void testPagesDoNotRetainOtherPages()
+            throws IOException
+    {
+        writePages(ImmutableList.of(createPage(10), createPage(10_000), createPage(10_000), createPage(10)));
+
+        try (FileChannel channel = FileChannel.open(file, READ)) {
+            for (SerializedPage page : ImmutableList.copyOf(new PositionalSerializedPageReader(channel))) {
+                // every page is read into an array of its own, which holds at most the header of the next page besides the page
+                assertTrue(page.getSlice().getRetainedSize() < page.getSizeInBytes() + 1024);
+            }
+        }
+    }
+
+    @Test(expectedExceptions = UncheckedIOException.class, expectedExceptionsMessageRegExp = ".*Spill file is truncated.*")
+    public void testTruncatedFile()
+            throws IOException
+    {
+        writePages(ImmutableList.of(createPage(10), createPage(100)));
+        try (FileChannel channel = FileChannel.open(file, WRITE)) {
+            channel.truncate(channel.size() - 1);
+        }
+
+        try (FileChannel channel = FileChannel.open(file, READ)) {
+            ImmutableList.copyOf(new PositionalSerializedPageReader(channel));
+        }
+    }
+
+    private void writePages(List<SerializedPage> pages)
+            throws IOException
+    {
+        try (SliceOutput output = new OutputStreamSliceOutput(Files.newOutputStream(file))) {
+            for (SerializedPage page : pages) {
+                writeSerializedPage(output, page);
+            }
+        }
+    }
+
+    private static SerializedPage createPage(int size)
+    {
+        byte[] data = new byte[size];
+        for (int i = 0; i < size; i++) {
+            data[i] = (byte) (i * 31 + size);
+        }
+        return new SerializedPage(Slices.wrappedBuffer(data), PageCodecMarker.MarkerSet.empty(), size + 1, size);
+    }
+}
@@ -927,6 +927,19 @@ public class TestAnalyzer
                 .hasErrorCode(TYPE_MISMATCH);
         assertFails("SELECT rank() OVER (ROWS BETWEEN CURRENT ROW AND 'foo' FOLLOWING)")
                 .hasErrorCode(TYPE_MISMATCH);
+        assertFails("SELECT rank() OVER (ORDER BY a, b RANGE 2 PRECEDING) FROM t1")
+                .hasErrorCode(INVALID_WINDOW_FRAME);
+        assertFails("SELECT rank() OVER (ORDER BY a RANGE 'foo' PRECEDING) FROM t1")
+                .hasErrorCode(TYPE_MISMATCH);
+        assertFails("SELECT rank() OVER (ORDER BY a RANGE BETWEEN CURRENT ROW AND 'foo' FOLLOWING) FROM t1")
+                .hasErrorCode(TYPE_MISMATCH);
+    }
+
+    @Test
+    public void testRangeWindowFrameWithOffset()
+    {
+        analyze("SELECT a, sum(b) OVER (ORDER BY a RANGE BETWEEN 1 PRECEDING AND 1 FOLLOWING) FROM t1");
+        analyze("SELECT a, sum(b) OVER (ORDER BY a DESC RANGE 2 PRECEDING) FROM t1");
     }
 
     @Test
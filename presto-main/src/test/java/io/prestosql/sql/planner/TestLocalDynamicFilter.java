@@ -32,7 +32,6 @@ import org.testng.annotations.Test;
 import java.util.Comparator;
 import java.util.List;
 import java.util.Map;
-import java.util.Optional;
 import java.util.concurrent.ExecutionException;
 import java.util.function.Consumer;
 
@@ -217,6 +216,7 @@ public class TestLocalDynamicFilter
 
     @Test
     public void testCreateDistributedJoin()
+            throws ExecutionException, InterruptedException
     {
         Session session = Session.builder(getQueryRunner().getDefaultSession())
                 .setSystemProperty(JOIN_DISTRIBUTION_TYPE, "PARTITIONED")
@@ -229,7 +229,16 @@ public class TestLocalDynamicFilter
                 session);
         JoinNode joinNode = searchJoins(subplan.getChildren().get(0).getFragment()).findOnlyElement();
         assertFalse(joinNode.getDynamicFilters().isEmpty());
-        assertEquals(LocalDynamicFilter.create(joinNode, TypeProvider.copyOf(subplan.getFragment().getSymbols()), 1), Optional.empty());
+
+        // The probe side is in another fragment, so the filter is only collected for the coordinator
+        LocalDynamicFilter filter = LocalDynamicFilter.create(joinNode, TypeProvider.copyOf(subplan.getFragment().getSymbols()), 1).get();
+        String filterId = Iterables.getOnlyElement(filter.getBuildChannels().keySet());
+
+        filter.getTupleDomainConsumer().accept(TupleDomain.withColumnDomains(ImmutableMap.of(
+                filterId, Domain.singleValue(BIGINT, 1L))));
+        assertEquals(filter.getResultFuture().get(), ImmutableMap.of());
+        assertEquals(filter.getDynamicFilterDomainsFuture().get(), TupleDomain.withColumnDomains(ImmutableMap.of(
+                filterId, Domain.singleValue(BIGINT, 1L))));
     }
 
     @Test
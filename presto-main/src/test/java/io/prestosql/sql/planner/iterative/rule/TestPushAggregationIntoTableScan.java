@@ -0,0 +1,200 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.prestosql.sql.planner.iterative.rule;
+
+import com.google.common.base.Predicate;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import io.prestosql.Session;
+import io.prestosql.connector.CatalogName;
+import io.prestosql.metadata.AbstractMockMetadata;
+import io.prestosql.metadata.TableHandle;
+import io.prestosql.spi.connector.AggregateFunction;
+import io.prestosql.spi.connector.AggregationApplicationResult;
+import io.prestosql.spi.connector.ColumnHandle;
+import io.prestosql.spi.connector.ConnectorTableHandle;
+import io.prestosql.spi.connector.ProjectionApplicationResult.Assignment;
+import io.prestosql.spi.connector.SchemaTableName;
+import io.prestosql.spi.expression.ConnectorExpression;
+import io.prestosql.spi.expression.Variable;
+import io.prestosql.spi.predicate.TupleDomain;
+import io.prestosql.sql.planner.Symbol;
+import io.prestosql.sql.planner.iterative.rule.test.BaseRuleTest;
+import io.prestosql.sql.planner.plan.AggregationNode.Step;
+import io.prestosql.testing.TestingMetadata.TestingColumnHandle;
+import io.prestosql.testing.TestingMetadata.TestingTableHandle;
+import io.prestosql.testing.TestingTransactionHandle;
+import org.testng.annotations.Test;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import static com.google.common.base.Predicates.equalTo;
+import static io.prestosql.spi.type.BigintType.BIGINT;
+import static io.prestosql.sql.planner.assertions.PlanMatchPattern.expression;
+import static io.prestosql.sql.planner.assertions.PlanMatchPattern.project;
+import static io.prestosql.sql.planner.assertions.PlanMatchPattern.tableScan;
+import static org.testng.Assert.assertEquals;
+
+public class TestPushAggregationIntoTableScan
+        extends BaseRuleTest
+{
+    private static final ColumnHandle KEY_COLUMN = new TestingColumnHandle("key");
+    private static final ColumnHandle VALUE_COLUMN = new TestingColumnHandle("value");
+    private static final ColumnHandle COUNT_COLUMN = new TestingColumnHandle("count_column");
+    private static final ColumnHandle SUM_COLUMN = new TestingColumnHandle("sum_column");
+
+    @Test
+    public void testDoesNotFire()
+    {
+        tester().assertThat(new PushAggregationIntoTableScan(new TestMetadata(false)))
+                .on(p -> {
+                    Symbol key = p.symbol("key", BIGINT);
+                    Symbol value = p.symbol("value", BIGINT);
+                    return p.aggregation(builder -> builder
+                            .singleGroupingSet(key)
+                            .addAggregation(p.symbol("sum", BIGINT), p.expression("sum(value)"), ImmutableList.of(BIGINT))
+                            .source(p.tableScan(ImmutableList.of(key, value), ImmutableMap.of(key, KEY_COLUMN, value, VALUE_COLUMN))));
+                })
+                .doesNotFire();
+    }
+
+    @Test
+    public void testDoesNotFireForPartialAggregation()
+    {
+        tester().assertThat(new PushAggregationIntoTableScan(new TestMetadata(true)))
+                .on(p -> {
+                    Symbol key = p.symbol("key", BIGINT);
+                    Symbol value = p.symbol("value", BIGINT);
+                    return p.aggregation(builder -> builder
+                            .singleGroupingSet(key)
+                            .step(Step.PARTIAL)
+                            .addAggregation(p.symbol("sum", BIGINT), p.expression("sum(value)"), ImmutableList.of(BIGINT))
+                            .source(p.tableScan(ImmutableList.of(key, value), ImmutableMap.of(key, KEY_COLUMN, value, VALUE_COLUMN))));
+                })
+                .doesNotFire();
+    }
+
+    @Test
+    public void testDoesNotFireForMaskedAggregation()
+    {
+        tester().assertThat(new PushAggregationIntoTableScan(new TestMetadata(true)))
+                .on(p -> {
+                    Symbol key = p.symbol("key", BIGINT);
+                    Symbol value = p.symbol("value", BIGINT);
+                    Symbol mask = p.symbol("mask", BIGINT);
+                    return p.aggregation(builder -> builder
+                            .singleGroupingSet(key)
+                            .addAggregation(p.symbol("sum", BIGINT), p.expression("sum(value)"), ImmutableList.of(BIGINT), mask)
+                            .source(p.tableScan(ImmutableList.of(key, value, mask), ImmutableMap.of(key, KEY_COLUMN, value, VALUE_COLUMN, mask, new TestingColumnHandle("mask")))));
+                })
+                .doesNotFire();
+    }
+
+    @Test
+    public void testPushAggregation()
+    {
+        TestMetadata metadata = new TestMetadata(true);
+        tester().assertThat(new PushAggregationIntoTableScan(metadata))
+                .on(p -> {
+                    Symbol key = p.symbol("key", BIGINT);
+                    Symbol value = p.symbol("value", BIGINT);
+                    return p.aggregation(builder -> builder
+                            .singleGroupingSet(key)
+                            .addAggregation(p.symbol("count", BIGINT), p.expression("count()"), ImmutableList.of())
+                            .addAggregation(p.symbol("sum", BIGINT), p.expression("sum(value)"), ImmutableList.of(BIGINT))
+                            .source(p.tableScan(ImmutableList.of(key, value), ImmutableMap.of(key, KEY_COLUMN, value, VALUE_COLUMN))));
+                })
+                .matches(project(
+                        ImmutableMap.of(
+                                "key", expression("key"),
+                                "count", expression("count_column"),
+                                "sum", expression("sum_column")),
+                        tableScan(
+                                isAggregatedTable(),
+                                TupleDomain.all(),
+                                ImmutableMap.of(
+                                        "key", equalTo(KEY_COLUMN),
+                                        "count_column", equalTo(COUNT_COLUMN),
+                                        "sum_column", equalTo(SUM_COLUMN)))));
+
+        assertEquals(metadata.getAggregations(), ImmutableList.of(
+                new AggregateFunction("count", BIGINT, ImmutableList.of(), false),
+                new AggregateFunction("sum", BIGINT, ImmutableList.of(new Variable("value", BIGINT)), false)));
+        assertEquals(metadata.getGroupingSets(), ImmutableList.of(ImmutableList.of(KEY_COLUMN)));
+    }
+
+    private static Predicate<ConnectorTableHandle> isAggregatedTable()
+    {
+        return handle -> handle instanceof TestingTableHandle &&
+                ((TestingTableHandle) handle).getTableName().getTableName().equals("aggregated");
+    }
+
+    private static class TestMetadata
+            extends AbstractMockMetadata
+    {
+        private final boolean aggregationPushdown;
+        private List<AggregateFunction> aggregations;
+        private List<List<ColumnHandle>> groupingSets;
+
+        public TestMetadata(boolean aggregationPushdown)
+        {
+            this.aggregationPushdown = aggregationPushdown;
+        }
+
+        @Override
+        public Optional<AggregationApplicationResult<TableHandle>> applyAggregation(
+                Session session,
+                TableHandle table,
+                List<AggregateFunction> aggregations,
+                Map<String, ColumnHandle> assignments,
+                List<List<ColumnHandle>> groupingSets)
+        {
+            if (!aggregationPushdown) {
+                return Optional.empty();
+            }
+            this.aggregations = aggregations;
+            this.groupingSets = groupingSets;
+
+            ImmutableList.Builder<ConnectorExpression> projections = ImmutableList.builder();
+            ImmutableList.Builder<Assignment> newAssignments = ImmutableList.builder();
+            for (AggregateFunction aggregation : aggregations) {
+                String variable = aggregation.getFunctionName() + "_column";
+                projections.add(new Variable(variable, aggregation.getOutputType()));
+                newAssignments.add(new Assignment(variable, new TestingColumnHandle(variable), aggregation.getOutputType()));
+            }
+
+            return Optional.of(new AggregationApplicationResult<>(
+                    new TableHandle(
+                            new CatalogName("testConnector"),
+                            new TestingTableHandle(new SchemaTableName("test-schema", "aggregated")),
+                            TestingTransactionHandle.create(),
+                            Optional.empty()),
+                    projections.build(),
+                    newAssignments.build(),
+                    ImmutableMap.of()));
+        }
+
+        public List<AggregateFunction> getAggregations()
+        {
+            return aggregations;
+        }
+
+        public List<List<ColumnHandle>> getGroupingSets()
+        {
+            return groupingSets;
+        }
+    }
+}
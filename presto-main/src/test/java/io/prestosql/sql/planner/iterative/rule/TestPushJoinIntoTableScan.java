@@ -0,0 +1,191 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.prestosql.sql.planner.iterative.rule;
+
+import com.google.common.base.Predicate;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import io.prestosql.Session;
+import io.prestosql.connector.CatalogName;
+import io.prestosql.metadata.AbstractMockMetadata;
+import io.prestosql.metadata.TableHandle;
+import io.prestosql.spi.connector.ColumnHandle;
+import io.prestosql.spi.connector.ConnectorTableHandle;
+import io.prestosql.spi.connector.JoinApplicationResult;
+import io.prestosql.spi.connector.JoinCondition;
+import io.prestosql.spi.connector.JoinType;
+import io.prestosql.spi.connector.SchemaTableName;
+import io.prestosql.spi.expression.Variable;
+import io.prestosql.spi.predicate.TupleDomain;
+import io.prestosql.sql.planner.Symbol;
+import io.prestosql.sql.planner.iterative.rule.test.BaseRuleTest;
+import io.prestosql.sql.planner.plan.JoinNode.EquiJoinClause;
+import io.prestosql.testing.TestingMetadata.TestingColumnHandle;
+import io.prestosql.testing.TestingMetadata.TestingTableHandle;
+import io.prestosql.testing.TestingTransactionHandle;
+import org.testng.annotations.Test;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import static com.google.common.base.Predicates.equalTo;
+import static io.prestosql.spi.type.BigintType.BIGINT;
+import static io.prestosql.sql.planner.assertions.PlanMatchPattern.tableScan;
+import static io.prestosql.sql.planner.plan.JoinNode.Type.INNER;
+import static io.prestosql.sql.planner.plan.JoinNode.Type.LEFT;
+import static org.testng.Assert.assertEquals;
+
+public class TestPushJoinIntoTableScan
+        extends BaseRuleTest
+{
+    private static final ColumnHandle LEFT_KEY_COLUMN = new TestingColumnHandle("left_key");
+    private static final ColumnHandle LEFT_VALUE_COLUMN = new TestingColumnHandle("left_value");
+    private static final ColumnHandle RIGHT_KEY_COLUMN = new TestingColumnHandle("right_key");
+    private static final ColumnHandle RIGHT_VALUE_COLUMN = new TestingColumnHandle("right_value");
+
+    @Test
+    public void testDoesNotFire()
+    {
+        tester().assertThat(new PushJoinIntoTableScan(new TestMetadata(false)))
+                .on(p -> {
+                    Symbol leftKey = p.symbol("left_key", BIGINT);
+                    Symbol rightKey = p.symbol("right_key", BIGINT);
+                    return p.join(
+                            INNER,
+                            p.tableScan(ImmutableList.of(leftKey), ImmutableMap.of(leftKey, LEFT_KEY_COLUMN)),
+                            p.tableScan(ImmutableList.of(rightKey), ImmutableMap.of(rightKey, RIGHT_KEY_COLUMN)),
+                            new EquiJoinClause(leftKey, rightKey));
+                })
+                .doesNotFire();
+    }
+
+    @Test
+    public void testDoesNotFireForComplexFilter()
+    {
+        tester().assertThat(new PushJoinIntoTableScan(new TestMetadata(true)))
+                .on(p -> {
+                    Symbol leftKey = p.symbol("left_key", BIGINT);
+                    Symbol rightKey = p.symbol("right_key", BIGINT);
+                    return p.join(
+                            INNER,
+                            p.tableScan(ImmutableList.of(leftKey), ImmutableMap.of(leftKey, LEFT_KEY_COLUMN)),
+                            p.tableScan(ImmutableList.of(rightKey), ImmutableMap.of(rightKey, RIGHT_KEY_COLUMN)),
+                            p.expression("left_key + 1 > right_key"),
+                            new EquiJoinClause(leftKey, rightKey));
+                })
+                .doesNotFire();
+    }
+
+    @Test
+    public void testPushJoin()
+    {
+        TestMetadata metadata = new TestMetadata(true);
+        tester().assertThat(new PushJoinIntoTableScan(metadata))
+                .on(p -> {
+                    Symbol leftKey = p.symbol("left_key", BIGINT);
+                    Symbol leftValue = p.symbol("left_value", BIGINT);
+                    Symbol rightKey = p.symbol("right_key", BIGINT);
+                    Symbol rightValue = p.symbol("right_value", BIGINT);
+                    return p.join(
+                            LEFT,
+                            p.tableScan(ImmutableList.of(leftKey, leftValue), ImmutableMap.of(leftKey, LEFT_KEY_COLUMN, leftValue, LEFT_VALUE_COLUMN)),
+                            p.tableScan(ImmutableList.of(rightKey, rightValue), ImmutableMap.of(rightKey, RIGHT_KEY_COLUMN, rightValue, RIGHT_VALUE_COLUMN)),
+                            p.expression("right_value > left_value"),
+                            new EquiJoinClause(leftKey, rightKey));
+                })
+                .matches(tableScan(
+                        isJoinedTable(),
+                        TupleDomain.all(),
+                        ImmutableMap.of(
+                                "left_key", equalTo(joined(LEFT_KEY_COLUMN)),
+                                "left_value", equalTo(joined(LEFT_VALUE_COLUMN)),
+                                "right_key", equalTo(joined(RIGHT_KEY_COLUMN)),
+                                "right_value", equalTo(joined(RIGHT_VALUE_COLUMN)))));
+
+        assertEquals(metadata.getJoinType(), JoinType.LEFT_OUTER);
+        assertEquals(metadata.getJoinConditions(), ImmutableList.of(
+                new JoinCondition(JoinCondition.Operator.EQUAL, new Variable("left_key", BIGINT), new Variable("right_key", BIGINT)),
+                new JoinCondition(JoinCondition.Operator.LESS_THAN, new Variable("left_value", BIGINT), new Variable("right_value", BIGINT))));
+    }
+
+    private static Predicate<ConnectorTableHandle> isJoinedTable()
+    {
+        return handle -> handle instanceof TestingTableHandle &&
+                ((TestingTableHandle) handle).getTableName().getTableName().equals("joined");
+    }
+
+    private static ColumnHandle joined(ColumnHandle column)
+    {
+        return new TestingColumnHandle("joined_" + ((TestingColumnHandle) column).getName());
+    }
+
+    private static class TestMetadata
+            extends AbstractMockMetadata
+    {
+        private final boolean joinPushdown;
+        private JoinType joinType;
+        private List<JoinCondition> joinConditions;
+
+        public TestMetadata(boolean joinPushdown)
+        {
+            this.joinPushdown = joinPushdown;
+        }
+
+        @Override
+        public Optional<JoinApplicationResult<TableHandle>> applyJoin(
+                Session session,
+                JoinType joinType,
+                TableHandle left,
+                TableHandle right,
+                List<JoinCondition> joinConditions,
+                Map<String, ColumnHandle> leftAssignments,
+                Map<String, ColumnHandle> rightAssignments)
+        {
+            if (!joinPushdown) {
+                return Optional.empty();
+            }
+            this.joinType = joinType;
+            this.joinConditions = joinConditions;
+
+            return Optional.of(new JoinApplicationResult<>(
+                    new TableHandle(
+                            new CatalogName("testConnector"),
+                            new TestingTableHandle(new SchemaTableName("test-schema", "joined")),
+                            TestingTransactionHandle.create(),
+                            Optional.empty()),
+                    toJoinedColumns(leftAssignments),
+                    toJoinedColumns(rightAssignments)));
+        }
+
+        private static Map<ColumnHandle, ColumnHandle> toJoinedColumns(Map<String, ColumnHandle> assignments)
+        {
+            ImmutableMap.Builder<ColumnHandle, ColumnHandle> columns = ImmutableMap.builder();
+            for (ColumnHandle column : assignments.values()) {
+                columns.put(column, joined(column));
+            }
+            return columns.build();
+        }
+
+        public JoinType getJoinType()
+        {
+            return joinType;
+        }
+
+        public List<JoinCondition> getJoinConditions()
+        {
+            return joinConditions;
+        }
+    }
+}
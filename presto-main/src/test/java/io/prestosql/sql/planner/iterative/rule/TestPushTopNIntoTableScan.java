@@ -0,0 +1,177 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.prestosql.sql.planner.iterative.rule;
+
+import com.google.common.base.Predicate;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import io.prestosql.Session;
+import io.prestosql.connector.CatalogName;
+import io.prestosql.metadata.AbstractMockMetadata;
+import io.prestosql.metadata.TableHandle;
+import io.prestosql.spi.connector.ColumnHandle;
+import io.prestosql.spi.connector.ConnectorTableHandle;
+import io.prestosql.spi.connector.SchemaTableName;
+import io.prestosql.spi.connector.SortItem;
+import io.prestosql.spi.connector.TopNApplicationResult;
+import io.prestosql.spi.predicate.TupleDomain;
+import io.prestosql.sql.planner.Symbol;
+import io.prestosql.sql.planner.iterative.rule.test.BaseRuleTest;
+import io.prestosql.sql.planner.plan.TopNNode;
+import io.prestosql.testing.TestingMetadata.TestingColumnHandle;
+import io.prestosql.testing.TestingMetadata.TestingTableHandle;
+import io.prestosql.testing.TestingTransactionHandle;
+import org.testng.annotations.Test;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import static com.google.common.base.Predicates.equalTo;
+import static io.prestosql.spi.block.SortOrder.ASC_NULLS_FIRST;
+import static io.prestosql.spi.type.BigintType.BIGINT;
+import static io.prestosql.sql.planner.assertions.PlanMatchPattern.sort;
+import static io.prestosql.sql.planner.assertions.PlanMatchPattern.tableScan;
+import static io.prestosql.sql.planner.assertions.PlanMatchPattern.topN;
+import static io.prestosql.sql.tree.SortItem.NullOrdering.FIRST;
+import static io.prestosql.sql.tree.SortItem.Ordering.ASCENDING;
+import static org.testng.Assert.assertEquals;
+
+public class TestPushTopNIntoTableScan
+        extends BaseRuleTest
+{
+    private static final ColumnHandle KEY_COLUMN = new TestingColumnHandle("key");
+    private static final ColumnHandle VALUE_COLUMN = new TestingColumnHandle("value");
+
+    @Test
+    public void testDoesNotFire()
+    {
+        tester().assertThat(new PushTopNIntoTableScan(new TestMetadata(false, false)))
+                .on(p -> {
+                    Symbol key = p.symbol("key", BIGINT);
+                    Symbol value = p.symbol("value", BIGINT);
+                    return p.topN(10, ImmutableList.of(key), p.tableScan(ImmutableList.of(key, value), ImmutableMap.of(key, KEY_COLUMN, value, VALUE_COLUMN)));
+                })
+                .doesNotFire();
+    }
+
+    @Test
+    public void testPushTopN()
+    {
+        TestMetadata metadata = new TestMetadata(true, false);
+        tester().assertThat(new PushTopNIntoTableScan(metadata))
+                .on(p -> {
+                    Symbol key = p.symbol("key", BIGINT);
+                    Symbol value = p.symbol("value", BIGINT);
+                    return p.topN(10, ImmutableList.of(key), p.tableScan(ImmutableList.of(key, value), ImmutableMap.of(key, KEY_COLUMN, value, VALUE_COLUMN)));
+                })
+                .matches(topN(
+                        10,
+                        ImmutableList.of(sort("key", ASCENDING, FIRST)),
+                        tableScan(
+                                isTopNTable(),
+                                TupleDomain.all(),
+                                ImmutableMap.of("key", equalTo(KEY_COLUMN), "value", equalTo(VALUE_COLUMN)))));
+
+        assertEquals(metadata.getTopNCount(), 10);
+        assertEquals(metadata.getSortItems(), ImmutableList.of(new SortItem("key", ASC_NULLS_FIRST)));
+        assertEquals(metadata.getAssignments(), ImmutableMap.of("key", KEY_COLUMN, "value", VALUE_COLUMN));
+    }
+
+    @Test
+    public void testGuaranteedTopNKeepsOrdering()
+    {
+        tester().assertThat(new PushTopNIntoTableScan(new TestMetadata(true, true)))
+                .on(p -> {
+                    Symbol key = p.symbol("key", BIGINT);
+                    return p.topN(10, ImmutableList.of(key), p.tableScan(ImmutableList.of(key), ImmutableMap.of(key, KEY_COLUMN)));
+                })
+                .matches(topN(
+                        10,
+                        ImmutableList.of(sort("key", ASCENDING, FIRST)),
+                        tableScan(isTopNTable(), TupleDomain.all(), ImmutableMap.of("key", equalTo(KEY_COLUMN)))));
+    }
+
+    @Test
+    public void testGuaranteedPartialTopN()
+    {
+        tester().assertThat(new PushTopNIntoTableScan(new TestMetadata(true, true)))
+                .on(p -> {
+                    Symbol key = p.symbol("key", BIGINT);
+                    return p.topN(10, ImmutableList.of(key), TopNNode.Step.PARTIAL, p.tableScan(ImmutableList.of(key), ImmutableMap.of(key, KEY_COLUMN)));
+                })
+                .matches(tableScan(isTopNTable(), TupleDomain.all(), ImmutableMap.of("key", equalTo(KEY_COLUMN))));
+    }
+
+    private static Predicate<ConnectorTableHandle> isTopNTable()
+    {
+        return handle -> handle instanceof TestingTableHandle &&
+                ((TestingTableHandle) handle).getTableName().getTableName().equals("topn");
+    }
+
+    private static class TestMetadata
+            extends AbstractMockMetadata
+    {
+        private final boolean topNPushdown;
+        private final boolean topNGuaranteed;
+        private long topNCount;
+        private List<SortItem> sortItems;
+        private Map<String, ColumnHandle> assignments;
+
+        public TestMetadata(boolean topNPushdown, boolean topNGuaranteed)
+        {
+            this.topNPushdown = topNPushdown;
+            this.topNGuaranteed = topNGuaranteed;
+        }
+
+        @Override
+        public Optional<TopNApplicationResult<TableHandle>> applyTopN(
+                Session session,
+                TableHandle table,
+                long topNCount,
+                List<SortItem> sortItems,
+                Map<String, ColumnHandle> assignments)
+        {
+            if (!topNPushdown) {
+                return Optional.empty();
+            }
+            this.topNCount = topNCount;
+            this.sortItems = sortItems;
+            this.assignments = assignments;
+
+            return Optional.of(new TopNApplicationResult<>(
+                    new TableHandle(
+                            new CatalogName("testConnector"),
+                            new TestingTableHandle(new SchemaTableName("test-schema", "topn")),
+                            TestingTransactionHandle.create(),
+                            Optional.empty()),
+                    topNGuaranteed));
+        }
+
+        public long getTopNCount()
+        {
+            return topNCount;
+        }
+
+        public List<SortItem> getSortItems()
+        {
+            return sortItems;
+        }
+
+        public Map<String, ColumnHandle> getAssignments()
+        {
+            return assignments;
+        }
+    }
+}
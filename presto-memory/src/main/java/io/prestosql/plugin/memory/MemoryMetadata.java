@@ -375,6 +375,21 @@ public class MemoryMetadata
         tables.put(tableId, new TableInfo(tableId, info.getSchemaName(), info.getTableName(), info.getColumns(), dataFragments));
     }
 
+    @Override
+    public synchronized Optional<String> getDataVersion(ConnectorSession session, ConnectorTableHandle tableHandle)
+    {
+        // tables are append only, and a table that is dropped and created again gets a new id
+        MemoryTableHandle handle = (MemoryTableHandle) tableHandle;
+        TableInfo info = tables.get(handle.getId());
+        if (info == null) {
+            return Optional.empty();
+        }
+        long rows = info.getDataFragments().values().stream()
+                .mapToLong(MemoryDataFragment::getRows)
+                .sum();
+        return Optional.of(handle.getId() + ":" + rows);
+    }
+
     @Override
     public boolean usesLegacyTableLayouts()
     {
@@ -42,6 +42,12 @@ public final class MemoryQueryRunner
 
     public static DistributedQueryRunner createQueryRunner(Map<String, String> extraProperties)
             throws Exception
+    {
+        return createQueryRunner(extraProperties, ImmutableMap.of());
+    }
+
+    public static DistributedQueryRunner createQueryRunner(Map<String, String> extraProperties, Map<String, String> coordinatorProperties)
+            throws Exception
     {
         Session session = testSessionBuilder()
                 .setCatalog(CATALOG)
@@ -51,6 +57,7 @@ public final class MemoryQueryRunner
         DistributedQueryRunner queryRunner = DistributedQueryRunner.builder(session)
                 .setNodeCount(4)
                 .setExtraProperties(extraProperties)
+                .setCoordinatorProperties(coordinatorProperties)
                 .build();
 
         try {
@@ -16,6 +16,7 @@ package io.prestosql.plugin.memory;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.ImmutableSet;
+import io.prestosql.spi.HostAddress;
 import io.prestosql.spi.PrestoException;
 import io.prestosql.spi.connector.ConnectorOutputTableHandle;
 import io.prestosql.spi.connector.ConnectorTableHandle;
@@ -132,6 +133,36 @@ public class TestMemoryMetadata
         assertTrue(metadata.beginInsert(SESSION, secondTableHandle, ImmutableList.of()).getActiveTableIds().contains(secondTableId));
     }
 
+    @Test
+    public void testDataVersion()
+    {
+        assertNoTables();
+
+        SchemaTableName tableName = new SchemaTableName("default", "versioned_table");
+        metadata.createTable(SESSION, new ConnectorTableMetadata(tableName, ImmutableList.of(), ImmutableMap.of()), false);
+        MemoryTableHandle tableHandle = (MemoryTableHandle) metadata.getTableHandle(SESSION, tableName);
+        Optional<String> createdVersion = metadata.getDataVersion(SESSION, tableHandle);
+        assertTrue(createdVersion.isPresent());
+
+        MemoryInsertTableHandle insertHandle = metadata.beginInsert(SESSION, tableHandle, ImmutableList.of());
+        metadata.finishInsert(SESSION, insertHandle, ImmutableList.of(new MemoryDataFragment(HostAddress.fromString("localhost:8080"), 10).toSlice()), ImmutableList.of());
+        Optional<String> insertedVersion = metadata.getDataVersion(SESSION, tableHandle);
+        assertTrue(insertedVersion.isPresent());
+        assertNotEquals(insertedVersion, createdVersion);
+
+        // an insert of no rows does not change the data
+        insertHandle = metadata.beginInsert(SESSION, tableHandle, ImmutableList.of());
+        metadata.finishInsert(SESSION, insertHandle, ImmutableList.of(), ImmutableList.of());
+        assertEquals(metadata.getDataVersion(SESSION, tableHandle), insertedVersion);
+
+        // a table created again with the same name has a new version
+        metadata.dropTable(SESSION, tableHandle);
+        assertEquals(metadata.getDataVersion(SESSION, tableHandle), Optional.empty());
+        metadata.createTable(SESSION, new ConnectorTableMetadata(tableName, ImmutableList.of(), ImmutableMap.of()), false);
+        MemoryTableHandle newTableHandle = (MemoryTableHandle) metadata.getTableHandle(SESSION, tableName);
+        assertNotEquals(metadata.getDataVersion(SESSION, newTableHandle), createdVersion);
+    }
+
     @Test
     public void testReadTableBeforeCreationCompleted()
     {
@@ -0,0 +1,112 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.prestosql.plugin.memory;
+
+import com.google.common.collect.ImmutableMap;
+import io.prestosql.Session;
+import io.prestosql.spi.QueryId;
+import io.prestosql.testing.AbstractTestQueryFramework;
+import io.prestosql.testing.DistributedQueryRunner;
+import io.prestosql.testing.MaterializedResult;
+import io.prestosql.testing.QueryRunner;
+import io.prestosql.testing.ResultWithQueryId;
+import org.intellij.lang.annotations.Language;
+import org.testng.annotations.Test;
+
+import static io.prestosql.SystemSessionProperties.QUERY_RESULT_CACHE_ENABLED;
+import static io.prestosql.testing.QueryAssertions.assertEqualsIgnoreOrder;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
+
+@Test(singleThreaded = true)
+public class TestMemoryQueryResultCache
+        extends AbstractTestQueryFramework
+{
+    @Override
+    protected QueryRunner createQueryRunner()
+            throws Exception
+    {
+        return MemoryQueryRunner.createQueryRunner(ImmutableMap.of(), ImmutableMap.of("query-result-cache.enabled", "true"));
+    }
+
+    @Test
+    public void testCacheHit()
+    {
+        assertUpdate("CREATE TABLE test_cache_hit AS SELECT * FROM tpch.tiny.nation", 25);
+
+        @Language("SQL") String sql = "SELECT name FROM test_cache_hit WHERE regionkey = 1";
+        ResultWithQueryId<MaterializedResult> miss = executeCached(sql);
+        assertFalse(isServedFromCache(miss.getQueryId()));
+        ResultWithQueryId<MaterializedResult> hit = executeCached(sql);
+        assertTrue(isServedFromCache(hit.getQueryId()));
+        assertEqualsIgnoreOrder(hit.getResult().getMaterializedRows(), miss.getResult().getMaterializedRows());
+
+        // the session property enables the cache per query
+        assertFalse(isServedFromCache(((DistributedQueryRunner) getQueryRunner()).executeWithQueryId(getSession(), sql).getQueryId()));
+
+        assertUpdate("DROP TABLE test_cache_hit");
+    }
+
+    @Test
+    public void testCacheMissAfterInsert()
+    {
+        assertUpdate("CREATE TABLE test_cache_insert AS SELECT * FROM tpch.tiny.nation", 25);
+
+        @Language("SQL") String sql = "SELECT count(*) FROM test_cache_insert";
+        assertFalse(isServedFromCache(executeCached(sql).getQueryId()));
+        assertTrue(isServedFromCache(executeCached(sql).getQueryId()));
+
+        assertUpdate("INSERT INTO test_cache_insert SELECT * FROM tpch.tiny.nation", 25);
+        ResultWithQueryId<MaterializedResult> afterInsert = executeCached(sql);
+        assertFalse(isServedFromCache(afterInsert.getQueryId()));
+        assertEquals(afterInsert.getResult().getOnlyValue(), 50L);
+        assertTrue(isServedFromCache(executeCached(sql).getQueryId()));
+
+        assertUpdate("DROP TABLE test_cache_insert");
+    }
+
+    @Test
+    public void testNonDeterministicQueriesNotCached()
+    {
+        assertUpdate("CREATE TABLE test_cache_non_deterministic AS SELECT * FROM tpch.tiny.nation", 25);
+
+        assertNotCached("SELECT now(), count(*) FROM test_cache_non_deterministic");
+        assertNotCached("SELECT current_timestamp, count(*) FROM test_cache_non_deterministic");
+        assertNotCached("SELECT random(), name FROM test_cache_non_deterministic");
+        assertNotCached("SELECT name FROM test_cache_non_deterministic TABLESAMPLE BERNOULLI (50)");
+
+        assertUpdate("DROP TABLE test_cache_non_deterministic");
+    }
+
+    private void assertNotCached(@Language("SQL") String sql)
+    {
+        assertFalse(isServedFromCache(executeCached(sql).getQueryId()));
+        assertFalse(isServedFromCache(executeCached(sql).getQueryId()));
+    }
+
+    private ResultWithQueryId<MaterializedResult> executeCached(@Language("SQL") String sql)
+    {
+        Session session = Session.builder(getSession())
+                .setSystemProperty(QUERY_RESULT_CACHE_ENABLED, "true")
+                .build();
+        return ((DistributedQueryRunner) getQueryRunner()).executeWithQueryId(session, sql);
+    }
+
+    private boolean isServedFromCache(QueryId queryId)
+    {
+        // results served from the cache are not computed by any stage
+        return !((DistributedQueryRunner) getQueryRunner()).getCoordinator().getQueryManager().getFullQueryInfo(queryId).getOutputStage().isPresent();
+    }
+}
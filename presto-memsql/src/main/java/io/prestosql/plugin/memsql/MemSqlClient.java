@@ -17,7 +17,10 @@ import com.google.common.collect.ImmutableSet;
 import io.prestosql.plugin.jdbc.BaseJdbcClient;
 import io.prestosql.plugin.jdbc.BaseJdbcConfig;
 import io.prestosql.plugin.jdbc.ConnectionFactory;
+import io.prestosql.plugin.jdbc.JdbcJoinCondition;
+import io.prestosql.plugin.jdbc.TopNFunction;
 import io.prestosql.spi.connector.ConnectorSession;
+import io.prestosql.spi.connector.JoinType;
 
 import javax.inject.Inject;
 
@@ -26,8 +29,13 @@ import java.sql.DatabaseMetaData;
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 import java.util.function.BiFunction;
+import java.util.stream.Stream;
+
+import static java.lang.String.format;
+import static java.util.stream.Collectors.joining;
 
 public class MemSqlClient
         extends BaseJdbcClient
@@ -90,4 +98,36 @@ public class MemSqlClient
     {
         return true;
     }
+
+    @Override
+    protected Optional<TopNFunction> topNFunction()
+    {
+        return Optional.of((sql, sortItems, limit) -> {
+            String orderBy = sortItems.stream()
+                    .flatMap(sortItem -> {
+                        String expression = getSortExpression(sortItem.getColumn());
+                        String ordering = sortItem.getSortOrder().isAscending() ? "ASC" : "DESC";
+                        // NULLS FIRST and NULLS LAST are not supported, sort by the nullness of the value first
+                        String nullsOrdering = sortItem.getSortOrder().isNullsFirst() ? "DESC" : "ASC";
+                        return Stream.of(
+                                format("ISNULL(%s) %s", expression, nullsOrdering),
+                                format("%s %s", expression, ordering));
+                    })
+                    .collect(joining(", "));
+            return format("%s ORDER BY %s LIMIT %s", sql, orderBy, limit);
+        });
+    }
+
+    @Override
+    public boolean isTopNLimitGuaranteed(ConnectorSession session)
+    {
+        return true;
+    }
+
+    @Override
+    public boolean supportsJoin(ConnectorSession session, JoinType joinType, List<JdbcJoinCondition> joinConditions)
+    {
+        // MemSQL does not support full outer joins
+        return joinType != JoinType.FULL_OUTER && super.supportsJoin(session, joinType, joinConditions);
+    }
 }
@@ -26,6 +26,7 @@ import io.prestosql.spi.predicate.TupleDomain;
 import javax.inject.Inject;
 
 import java.util.List;
+import java.util.Optional;
 
 import static java.util.Objects.requireNonNull;
 
@@ -57,4 +58,12 @@ public class ClassLoaderSafeConnectorPageSourceProvider
             return delegate.createPageSource(transaction, session, split, table, columns, dynamicFilter);
         }
     }
+
+    @Override
+    public Optional<String> getCacheKey(ConnectorTransactionHandle transaction, ConnectorSession session, ConnectorSplit split, ConnectorTableHandle table, List<ColumnHandle> columns)
+    {
+        try (ThreadContextClassLoader ignored = new ThreadContextClassLoader(classLoader)) {
+            return delegate.getCacheKey(transaction, session, split, table, columns);
+        }
+    }
 }
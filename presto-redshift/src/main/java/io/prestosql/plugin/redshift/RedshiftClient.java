@@ -16,10 +16,16 @@ package io.prestosql.plugin.redshift;
 import io.prestosql.plugin.jdbc.BaseJdbcClient;
 import io.prestosql.plugin.jdbc.BaseJdbcConfig;
 import io.prestosql.plugin.jdbc.ConnectionFactory;
+import io.prestosql.plugin.jdbc.JdbcColumnHandle;
 import io.prestosql.plugin.jdbc.JdbcIdentity;
+import io.prestosql.plugin.jdbc.JdbcJoinCondition;
+import io.prestosql.plugin.jdbc.TopNFunction;
 import io.prestosql.spi.PrestoException;
 import io.prestosql.spi.connector.ConnectorSession;
+import io.prestosql.spi.connector.JoinCondition;
 import io.prestosql.spi.connector.SchemaTableName;
+import io.prestosql.spi.type.CharType;
+import io.prestosql.spi.type.VarcharType;
 
 import javax.inject.Inject;
 
@@ -28,9 +34,11 @@ import java.sql.PreparedStatement;
 import java.sql.SQLException;
 import java.util.Optional;
 import java.util.function.BiFunction;
+import java.util.stream.Stream;
 
 import static io.prestosql.spi.StandardErrorCode.NOT_SUPPORTED;
 import static java.lang.String.format;
+import static java.util.stream.Collectors.joining;
 
 public class RedshiftClient
         extends BaseJdbcClient
@@ -76,4 +84,37 @@ public class RedshiftClient
     {
         return true;
     }
+
+    @Override
+    protected Optional<TopNFunction> topNFunction()
+    {
+        return Optional.of((sql, sortItems, limit) -> {
+            String orderBy = sortItems.stream()
+                    .map(sortItem -> {
+                        String ordering = sortItem.getSortOrder().isAscending() ? "ASC" : "DESC";
+                        String nullsHandling = sortItem.getSortOrder().isNullsFirst() ? "NULLS FIRST" : "NULLS LAST";
+                        return format("%s %s %s", getSortExpression(sortItem.getColumn()), ordering, nullsHandling);
+                    })
+                    .collect(joining(", "));
+            return format("%s ORDER BY %s LIMIT %s", sql, orderBy, limit);
+        });
+    }
+
+    @Override
+    public boolean isTopNLimitGuaranteed(ConnectorSession session)
+    {
+        return true;
+    }
+
+    @Override
+    protected boolean isSupportedJoinCondition(JdbcJoinCondition condition)
+    {
+        if (condition.getOperator() == JoinCondition.Operator.IS_DISTINCT_FROM) {
+            // supported by Redshift, with the same restriction on string comparisons as the other operators
+            return Stream.of(condition.getLeftColumn(), condition.getRightColumn())
+                    .map(JdbcColumnHandle::getColumnType)
+                    .noneMatch(type -> type instanceof CharType || type instanceof VarcharType);
+        }
+        return super.isSupportedJoinCondition(condition);
+    }
 }
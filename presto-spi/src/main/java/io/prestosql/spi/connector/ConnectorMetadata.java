@@ -229,6 +229,15 @@ public interface ConnectorMetadata
         return TableStatistics.empty();
     }
 
+    /**
+     * Returns a token identifying the version of the data of the table, or empty if it is not known.
+     * The token must change whenever the data that a scan of the table handle returns changes.
+     */
+    default Optional<String> getDataVersion(ConnectorSession session, ConnectorTableHandle tableHandle)
+    {
+        return Optional.empty();
+    }
+
     /**
      * Creates a schema.
      */
@@ -729,6 +738,62 @@ public interface ConnectorMetadata
         return Optional.empty();
     }
 
+    /**
+     * Attempt to push down the provided TopN (a limit over the rows sorted by the provided sort items) into the table.
+     * The sort items refer to the columns of the table by the names provided in the assignments map.
+     * <p>
+     * Connectors can indicate whether they don't support TopN pushdown or that the action had no effect
+     * by returning {@link Optional#empty()}. Connectors should expect this method to be called multiple times
+     * during the optimization of a given query.
+     * <p>
+     * <b>Note</b>: it's critical for connectors to return Optional.empty() if calling this method has no effect for that
+     * invocation, even if the connector generally supports TopN pushdown. Doing otherwise can cause the optimizer
+     * to loop indefinitely.
+     * </p>
+     * <p>
+     * If the connector could benefit from the information but can't guarantee that the rows produced by the
+     * derived table are the top {@code topNCount} rows of the whole table (e.g., because the TopN is applied
+     * independently to each split), it should return a non-empty result containing a new handle for the
+     * derived table and the "TopN guaranteed" flag set to false.
+     * <p>
+     * If the connector can guarantee it will produce only the top {@code topNCount} rows, it should return a
+     * non-empty result with the "TopN guaranteed" flag set to true. The engine does not rely on the order
+     * in which the connector produces these rows.
+     */
+    default Optional<TopNApplicationResult<ConnectorTableHandle>> applyTopN(
+            ConnectorSession session,
+            ConnectorTableHandle handle,
+            long topNCount,
+            List<SortItem> sortItems,
+            Map<String, ColumnHandle> assignments)
+    {
+        return Optional.empty();
+    }
+
+    /**
+     * Attempt to push down the join of the provided tables into a single table. The join conditions refer to the
+     * columns of the left and right tables by the names provided in the respective assignments maps.
+     * <p>
+     * Connectors can indicate whether they don't support join pushdown or that the action had no effect
+     * by returning {@link Optional#empty()}. Connectors should expect this method to be called multiple times
+     * during the optimization of a given query.
+     * <p>
+     * If the join can be pushed down, the connector should return a handle for the joined table, and the mapping
+     * from each column of the left and right assignments to the corresponding column of the joined table.
+     * The joined table must produce exactly the rows of the join, as the engine removes the join from the plan.
+     */
+    default Optional<JoinApplicationResult<ConnectorTableHandle>> applyJoin(
+            ConnectorSession session,
+            JoinType joinType,
+            ConnectorTableHandle left,
+            ConnectorTableHandle right,
+            List<JoinCondition> joinConditions,
+            Map<String, ColumnHandle> leftAssignments,
+            Map<String, ColumnHandle> rightAssignments)
+    {
+        return Optional.empty();
+    }
+
     /**
      * Attempt to push down the provided constraint into the table. This method is provided as replacement to
      * {@link ConnectorMetadata#getTableLayouts(ConnectorSession, ConnectorTableHandle, Constraint, Optional)} to ease
@@ -831,6 +896,74 @@ public interface ConnectorMetadata
         return Optional.empty();
     }
 
+    /**
+     * Attempt to push down the aggregation into the table.
+     * <p>
+     * Connectors can indicate whether they don't support aggregation pushdown or that the action had no effect
+     * by returning {@link Optional#empty()}. Connectors should expect this method to be called multiple times
+     * during the optimization of a given query.
+     * <p>
+     * <b>Note</b>: it's critical for connectors to return Optional.empty() if calling this method has no effect for that
+     * invocation, even if the connector generally supports pushdown. Doing otherwise can cause the optimizer
+     * to loop indefinitely.
+     * </p>
+     * <p>
+     * If the method returns a result, the derived table produces one row per group, exposing the grouping columns
+     * (possibly renamed, see {@link AggregationApplicationResult#getGroupingColumnMapping()}) and the columns
+     * listed in the result assignments. The result contains one projection for each of the aggregate functions,
+     * which replaces the aggregate function in the plan.
+     * <p>
+     * As an example, given the following plan:
+     *
+     * <pre>
+     * - aggregation (GROUP BY c)
+     *     x = count(*)
+     *     y = sum(a)
+     *   - scan (TH0)
+     *       a = CH0
+     *       c = CH2
+     * </pre>
+     * <p>
+     * The optimizer would call {@link #applyAggregation} with the following arguments:
+     *
+     * <pre>
+     * handle = TH0
+     * aggregates = [
+     *     count()
+     *     sum(a)
+     * ]
+     * assignments = [
+     *     a = CH0
+     *     c = CH2
+     * ]
+     * groupingSets = [[CH2]]
+     * </pre>
+     * <p>
+     * Assuming the connector can compute both aggregations, it would return:
+     *
+     * <pre>
+     * handle = TH1
+     * projections = [
+     *     v0
+     *     v1
+     * ]
+     * assignments = [
+     *     v0 = CH3  (synthetic column for count(*))
+     *     v1 = CH4  (synthetic column for sum(CH0))
+     * ]
+     * groupingColumnMapping = {}
+     * </pre>
+     */
+    default Optional<AggregationApplicationResult<ConnectorTableHandle>> applyAggregation(
+            ConnectorSession session,
+            ConnectorTableHandle handle,
+            List<AggregateFunction> aggregates,
+            Map<String, ColumnHandle> assignments,
+            List<List<ColumnHandle>> groupingSets)
+    {
+        return Optional.empty();
+    }
+
     /**
      * Allows the connector to reject the table scan produced by the planner.
      * <p>
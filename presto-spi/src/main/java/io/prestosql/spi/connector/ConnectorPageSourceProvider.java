@@ -16,6 +16,7 @@ package io.prestosql.spi.connector;
 import io.prestosql.spi.predicate.TupleDomain;
 
 import java.util.List;
+import java.util.Optional;
 
 public interface ConnectorPageSourceProvider
 {
@@ -50,4 +51,21 @@ public interface ConnectorPageSourceProvider
         // By default, ignore dynamic filter (as it is an optimization and doesn't affect correctness).
         return createPageSource(transaction, session, split, table, columns);
     }
+
+    /**
+     * Returns a key identifying the rows that {@link #createPageSource} returns for these arguments, or
+     * empty if they must not be cached. The same key must only be returned for page sources that return
+     * the same rows, so the key has to change whenever the data of the split changes. Rows that are only
+     * skipped based on the constraint of the table handle, and are also removed by the remaining filter
+     * of the query, do not make a difference.
+     */
+    default Optional<String> getCacheKey(
+            ConnectorTransactionHandle transaction,
+            ConnectorSession session,
+            ConnectorSplit split,
+            ConnectorTableHandle table,
+            List<ColumnHandle> columns)
+    {
+        return Optional.empty();
+    }
 }
@@ -13,6 +13,10 @@
  */
 package io.prestosql.spi.connector;
 
+import io.prestosql.spi.predicate.TupleDomain;
+
+import java.util.function.Supplier;
+
 public interface ConnectorSplitManager
 {
     @Deprecated
@@ -34,6 +38,22 @@ public interface ConnectorSplitManager
         throw new UnsupportedOperationException();
     }
 
+    /**
+     * Returns splits for the given table, optionally narrowed by a dynamic filter.
+     * The dynamic filter is collected by the engine from the build side of joins while the
+     * query is running, so the supplier may return a more selective predicate on later calls.
+     * Connectors may use it to skip whole files or partitions while enumerating splits.
+     */
+    default ConnectorSplitSource getSplits(
+            ConnectorTransactionHandle transaction,
+            ConnectorSession session,
+            ConnectorTableHandle table,
+            SplitSchedulingStrategy splitSchedulingStrategy,
+            Supplier<TupleDomain<ColumnHandle>> dynamicFilter)
+    {
+        return getSplits(transaction, session, table, splitSchedulingStrategy);
+    }
+
     enum SplitSchedulingStrategy
     {
         UNGROUPED_SCHEDULING,
@@ -22,6 +22,7 @@ import io.prestosql.plugin.jdbc.JdbcColumnHandle;
 import io.prestosql.plugin.jdbc.JdbcIdentity;
 import io.prestosql.plugin.jdbc.JdbcTableHandle;
 import io.prestosql.plugin.jdbc.JdbcTypeHandle;
+import io.prestosql.plugin.jdbc.TopNFunction;
 import io.prestosql.plugin.jdbc.WriteMapping;
 import io.prestosql.spi.PrestoException;
 import io.prestosql.spi.connector.ConnectorSession;
@@ -38,6 +39,7 @@ import java.util.List;
 import java.util.Optional;
 import java.util.function.BiFunction;
 import java.util.function.UnaryOperator;
+import java.util.stream.Stream;
 
 import static com.google.common.base.Preconditions.checkArgument;
 import static io.prestosql.plugin.jdbc.StandardColumnMappings.booleanWriteFunction;
@@ -174,6 +176,40 @@ public class SqlServerClient
         return true;
     }
 
+    @Override
+    protected Optional<TopNFunction> topNFunction()
+    {
+        return Optional.of((sql, sortItems, limit) -> {
+            String start = "SELECT ";
+            checkArgument(sql.startsWith(start));
+            String orderBy = sortItems.stream()
+                    .flatMap(sortItem -> {
+                        String expression = getSortExpression(sortItem.getColumn());
+                        String ordering = sortItem.getSortOrder().isAscending() ? "ASC" : "DESC";
+                        // NULLS FIRST and NULLS LAST are not supported, sort by the nullness of the value first
+                        String nullsOrdering = sortItem.getSortOrder().isNullsFirst() ? "DESC" : "ASC";
+                        return Stream.of(
+                                format("(CASE WHEN %s IS NULL THEN 1 ELSE 0 END) %s", expression, nullsOrdering),
+                                format("%s %s", expression, ordering));
+                    })
+                    .collect(joining(", "));
+            return format("SELECT TOP %s %s ORDER BY %s", limit, sql.substring(start.length()), orderBy);
+        });
+    }
+
+    @Override
+    public boolean isTopNLimitGuaranteed(ConnectorSession session)
+    {
+        return true;
+    }
+
+    @Override
+    protected String getCountFunctionName()
+    {
+        // COUNT returns int, which overflows above 2^31 - 1 rows
+        return "COUNT_BIG";
+    }
+
     private static String singleQuote(String... objects)
     {
         return singleQuote(DOT_JOINER.join(objects));
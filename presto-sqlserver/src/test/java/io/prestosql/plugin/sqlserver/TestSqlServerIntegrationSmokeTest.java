@@ -13,14 +13,18 @@
  */
 package io.prestosql.plugin.sqlserver;
 
+import io.prestosql.sql.planner.Plan;
+import io.prestosql.sql.planner.plan.AggregationNode;
 import io.prestosql.testing.AbstractTestIntegrationSmokeTest;
 import io.prestosql.testing.QueryRunner;
 import org.testng.annotations.AfterClass;
 import org.testng.annotations.Test;
 
 import static io.prestosql.plugin.sqlserver.SqlServerQueryRunner.createSqlServerQueryRunner;
+import static io.prestosql.sql.planner.optimizations.PlanNodeSearcher.searchFrom;
 import static io.prestosql.tpch.TpchTable.ORDERS;
 import static java.lang.String.format;
+import static org.testng.Assert.assertFalse;
 import static org.testng.Assert.assertTrue;
 
 @Test
@@ -93,6 +97,14 @@ public class TestSqlServerIntegrationSmokeTest
         }
     }
 
+    @Test
+    public void testCountPushdown()
+    {
+        // SQL Server computes count as int, so it is pushed down as COUNT_BIG
+        assertQuery(getSession(), "SELECT count(*) FROM orders", "SELECT count(*) FROM orders", plan -> assertFalse(hasAggregation(plan), "Aggregation not pushed down"));
+        assertQuery(getSession(), "SELECT custkey, count(orderkey) FROM orders GROUP BY custkey", "SELECT custkey, count(orderkey) FROM orders GROUP BY custkey", plan -> assertFalse(hasAggregation(plan), "Aggregation not pushed down"));
+    }
+
     @Test
     public void testDecimalPredicatePushdown()
             throws Exception
@@ -108,6 +120,13 @@ public class TestSqlServerIntegrationSmokeTest
         }
     }
 
+    private static boolean hasAggregation(Plan plan)
+    {
+        return searchFrom(plan.getRoot())
+                .where(AggregationNode.class::isInstance)
+                .matches();
+    }
+
     private AutoCloseable withTable(String tableName, String tableDefinition)
     {
         sqlServer.execute(format("CREATE TABLE %s %s", tableName, tableDefinition));
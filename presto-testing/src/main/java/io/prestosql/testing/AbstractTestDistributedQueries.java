@@ -306,6 +306,15 @@ public abstract class AbstractTestDistributedQueries
         assertExplainAnalyze("EXPLAIN ANALYZE SHOW SESSION");
     }
 
+    @Test
+    public void testExplainAnalyzeSkew()
+    {
+        String value = (String) computeActual("EXPLAIN ANALYZE SELECT l.returnflag, count(*) FROM orders o JOIN lineitem l ON o.orderkey = l.orderkey GROUP BY l.returnflag").getOnlyValue();
+
+        assertTrue(value.contains("Probe skew: "), format("Expected output to contain \"Probe skew: \", but it is %s", value));
+        assertTrue(value.contains("Output partition skew: "), format("Expected output to contain \"Output partition skew: \", but it is %s", value));
+    }
+
     @Test
     public void testExplainAnalyzeVerbose()
     {
@@ -354,6 +354,14 @@ public class TpchMetadata
         throw new IllegalArgumentException("unsupported column type " + columnType);
     }
 
+    @Override
+    public Optional<String> getDataVersion(ConnectorSession session, ConnectorTableHandle tableHandle)
+    {
+        // the data is generated from the table and the scale factor only, so it never changes
+        TpchTableHandle table = (TpchTableHandle) tableHandle;
+        return Optional.of(table.getTableName() + ":" + table.getScaleFactor());
+    }
+
     @Override
     public TableStatisticsMetadata getStatisticsCollectionMetadata(ConnectorSession session, ConnectorTableMetadata tableMetadata)
     {